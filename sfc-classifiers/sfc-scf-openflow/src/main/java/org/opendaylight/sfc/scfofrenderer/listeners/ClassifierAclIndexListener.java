@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2018 Ericsson Inc. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.sfc.scfofrenderer.listeners;
+
+import javax.annotation.Nonnull;
+import org.opendaylight.controller.md.sal.binding.api.DataBroker;
+import org.opendaylight.controller.md.sal.common.api.data.LogicalDatastoreType;
+import org.opendaylight.serviceutils.tools.mdsal.listener.AbstractSyncDataTreeChangeListener;
+import org.opendaylight.sfc.scfofrenderer.rspupdatelistener.ClassifierRspIndex;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.access.control.list.rev160218.AccessLists;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.access.control.list.rev160218.access.lists.Acl;
+import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class listens to changes in the ACLs to keep the classifier RSP index
+ * up to date.
+ */
+public class ClassifierAclIndexListener extends AbstractSyncDataTreeChangeListener<Acl> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ClassifierAclIndexListener.class);
+
+    private final ClassifierRspIndex rspIndex;
+
+    public ClassifierAclIndexListener(DataBroker dataBroker, ClassifierRspIndex rspIndex) {
+        super(dataBroker, LogicalDatastoreType.CONFIGURATION,
+              InstanceIdentifier.create(AccessLists.class).child(Acl.class));
+        this.rspIndex = rspIndex;
+    }
+
+    @Override
+    public void add(@Nonnull InstanceIdentifier<Acl> instanceIdentifier, @Nonnull Acl acl) {
+        LOG.debug("add: ACL {}", acl.getAclName());
+        rspIndex.addAcl(acl);
+    }
+
+    @Override
+    public void remove(@Nonnull InstanceIdentifier<Acl> instanceIdentifier, @Nonnull Acl acl) {
+        LOG.debug("remove: ACL {}", acl.getAclName());
+        rspIndex.removeAcl(acl.getAclName());
+    }
+
+    @Override
+    public void update(@Nonnull InstanceIdentifier<Acl> instanceIdentifier, @Nonnull Acl originalAcl,
+                       @Nonnull Acl updatedAcl) {
+        LOG.debug("update: ACL {}", updatedAcl.getAclName());
+        rspIndex.addAcl(updatedAcl);
+    }
+}
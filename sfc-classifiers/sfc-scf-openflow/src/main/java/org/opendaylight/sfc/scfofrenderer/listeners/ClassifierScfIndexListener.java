@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2018 Ericsson Inc. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.sfc.scfofrenderer.listeners;
+
+import javax.annotation.Nonnull;
+import org.opendaylight.controller.md.sal.binding.api.DataBroker;
+import org.opendaylight.controller.md.sal.common.api.data.LogicalDatastoreType;
+import org.opendaylight.serviceutils.tools.mdsal.listener.AbstractSyncDataTreeChangeListener;
+import org.opendaylight.sfc.scfofrenderer.rspupdatelistener.ClassifierRspIndex;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.scf.rev140701.ServiceFunctionClassifiers;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.scf.rev140701.service.function.classifiers.ServiceFunctionClassifier;
+import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class listens to changes in Service Function Classifiers to keep the
+ * classifier RSP index up to date.
+ */
+public class ClassifierScfIndexListener extends AbstractSyncDataTreeChangeListener<ServiceFunctionClassifier> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ClassifierScfIndexListener.class);
+
+    private final ClassifierRspIndex rspIndex;
+
+    public ClassifierScfIndexListener(DataBroker dataBroker, ClassifierRspIndex rspIndex) {
+        super(dataBroker, LogicalDatastoreType.CONFIGURATION,
+              InstanceIdentifier.create(ServiceFunctionClassifiers.class).child(ServiceFunctionClassifier.class));
+        this.rspIndex = rspIndex;
+    }
+
+    @Override
+    public void add(@Nonnull InstanceIdentifier<ServiceFunctionClassifier> instanceIdentifier,
+                    @Nonnull ServiceFunctionClassifier serviceFunctionClassifier) {
+        LOG.debug("add: classifier {}", serviceFunctionClassifier.getName());
+        rspIndex.addClassifier(serviceFunctionClassifier);
+    }
+
+    @Override
+    public void remove(@Nonnull InstanceIdentifier<ServiceFunctionClassifier> instanceIdentifier,
+                       @Nonnull ServiceFunctionClassifier serviceFunctionClassifier) {
+        LOG.debug("remove: classifier {}", serviceFunctionClassifier.getName());
+        rspIndex.removeClassifier(serviceFunctionClassifier.getName());
+    }
+
+    @Override
+    public void update(@Nonnull InstanceIdentifier<ServiceFunctionClassifier> instanceIdentifier,
+                       @Nonnull ServiceFunctionClassifier originalServiceFunctionClassifier,
+                       @Nonnull ServiceFunctionClassifier updatedServiceFunctionClassifier) {
+        LOG.debug("update: classifier {}", updatedServiceFunctionClassifier.getName());
+        rspIndex.addClassifier(updatedServiceFunctionClassifier);
+    }
+}
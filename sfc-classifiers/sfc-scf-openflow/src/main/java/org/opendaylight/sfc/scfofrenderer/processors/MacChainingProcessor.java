@@ -12,6 +12,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Function;
 import org.opendaylight.sfc.ovs.provider.SfcOvsUtil;
 import org.opendaylight.sfc.provider.api.SfcProviderRenderedPathAPI;
 import org.opendaylight.sfc.provider.api.SfcProviderServiceForwarderAPI;
@@ -39,14 +40,25 @@ public class MacChainingProcessor implements ClassifierProcessorInterface {
 
     private final ClassifierHandler classifierHandler;
 
+    // provides the RSP data of the ACE, and of its reverse RSP
+    private final Function<RspName, SfcRspInfo> rspInfoProvider;
+
     private static final Logger LOG = LoggerFactory.getLogger(MacChainingProcessor.class);
 
     public MacChainingProcessor(ClassifierHandler classifierHandler,
                                 ClassifierInterface classifierInterface,
                                 boolean addClassifier) {
+        this(classifierHandler, classifierInterface, addClassifier, SfcRspInfo::getSfcRspInfo);
+    }
+
+    public MacChainingProcessor(ClassifierHandler classifierHandler,
+                                ClassifierInterface classifierInterface,
+                                boolean addClassifier,
+                                Function<RspName, SfcRspInfo> rspInfoProvider) {
         this.classifierHandler = classifierHandler;
         this.classifierInterface = classifierInterface;
         this.addClassifier = addClassifier;
+        this.rspInfoProvider = rspInfoProvider;
     }
 
     /**
@@ -74,7 +86,7 @@ public class MacChainingProcessor implements ClassifierProcessorInterface {
             return Collections.emptyList();
         }
 
-        LOG.info("processAce - NodeName: {}; IF name: {}", nodeName, theIfName);
+        LOG.debug("processAce - NodeName: {}; IF name: {}", nodeName, theIfName);
 
         Optional<Long> inPort = classifierInterface.getInPort(nodeName, theIfName);
 
@@ -84,7 +96,7 @@ public class MacChainingProcessor implements ClassifierProcessorInterface {
                 .map(scfMatch -> scfMatch.setAclMatch(theAce.getMatches())).orElseThrow(IllegalArgumentException::new)
                 .build();
 
-        Optional<SfcRspInfo> sfcRspInfo = rspName.map(SfcRspInfo::getSfcRspInfo);
+        Optional<SfcRspInfo> sfcRspInfo = rspName.map(rspInfoProvider);
 
         if (!sfcRspInfo.isPresent()) {
             LOG.error("processAce: sfcRspInfo is null; returning empty list");
@@ -96,12 +108,12 @@ public class MacChainingProcessor implements ClassifierProcessorInterface {
         // add a classifier
         if (addClassifier) {
             // write the flows into the classifier
-            LOG.info("processAce - About to create flows");
+            LOG.debug("processAce - About to create flows");
             theFlows.add(classifierInterface.initClassifierTable(nodeName));
             Optional.ofNullable(classifierInterface.createClassifierOutFlow(
                     nodeName, flowKey, match, sfcRspInfo.get())).ifPresent(theFlows::add);
         } else {
-            LOG.info("processAce - About to delete the *out* flows");
+            LOG.debug("processAce - About to delete the *out* flows");
             theFlows.add(classifierHandler.deleteFlowFromTable(nodeName,
                     flowKey,
                     classifierInterface.getClassifierTable()));
@@ -146,12 +158,12 @@ public class MacChainingProcessor implements ClassifierProcessorInterface {
                                                   long port,
                                                   ServiceFunctionForwarder theSff) {
 
-        LOG.info("processReverseRsp - RSP name: {}", theRspName.getValue());
+        LOG.debug("processReverseRsp - RSP name: {}", theRspName.getValue());
         List<FlowDetails> theFlows = new ArrayList<>();
 
         RspName reverseRspName = SfcProviderRenderedPathAPI.generateReversedPathName(theRspName);
 
-        SfcRspInfo sfcRspInfo = SfcRspInfo.getSfcRspInfo(reverseRspName);
+        SfcRspInfo sfcRspInfo = rspInfoProvider.apply(reverseRspName);
         if (sfcRspInfo == null) {
             LOG.warn("processReverseRsp: reverseNsh is null");
             return Collections.emptyList();
@@ -13,6 +13,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Function;
 import org.opendaylight.sfc.ovs.provider.SfcOvsUtil;
 import org.opendaylight.sfc.provider.api.SfcProviderRenderedPathAPI;
 import org.opendaylight.sfc.provider.api.SfcProviderServiceForwarderAPI;
@@ -40,14 +41,25 @@ public class NshProcessor implements ClassifierProcessorInterface {
 
     private final ClassifierHandler classifierHandler;
 
+    // provides the RSP data of the ACE, and of its reverse RSP
+    private final Function<RspName, SfcRspInfo> rspInfoProvider;
+
     private static final Logger LOG = LoggerFactory.getLogger(NshProcessor.class);
 
     public NshProcessor(ClassifierInterface classifierInterface,
                         ClassifierHandler classifierHandler,
                         boolean addClassifier) {
+        this(classifierInterface, classifierHandler, addClassifier, SfcRspInfo::getSfcRspInfo);
+    }
+
+    public NshProcessor(ClassifierInterface classifierInterface,
+                        ClassifierHandler classifierHandler,
+                        boolean addClassifier,
+                        Function<RspName, SfcRspInfo> rspInfoProvider) {
         this.classifierInterface = classifierInterface;
         this.classifierHandler = classifierHandler;
         this.addClassifier = addClassifier;
+        this.rspInfoProvider = rspInfoProvider;
     }
 
     /**
@@ -64,7 +76,7 @@ public class NshProcessor implements ClassifierProcessorInterface {
      */
     public List<FlowDetails> processAceByProcessor(String nodeName, ServiceFunctionForwarder theSff, String theScfName,
                                          String aclName, String theIfName, Ace theAce, Optional<RspName> rspName) {
-        LOG.info("processAce - NodeName: {}; IF name: {}", nodeName, theIfName);
+        LOG.debug("processAce - NodeName: {}; IF name: {}", nodeName, theIfName);
         List<FlowDetails> theFlows = new ArrayList<>();
 
         String ruleName = theAce.getRuleName();
@@ -82,7 +94,7 @@ public class NshProcessor implements ClassifierProcessorInterface {
                 .orElseThrow(IllegalArgumentException::new)
                 .build();
 
-        Optional<SfcRspInfo> sfcRspInfo = rspName.map(SfcRspInfo::getSfcRspInfo);
+        Optional<SfcRspInfo> sfcRspInfo = rspName.map(rspInfoProvider);
 
         if (!sfcRspInfo.isPresent()) {
             LOG.error("processAce: sfcRspInfo is null; returning empty list");
@@ -94,12 +106,12 @@ public class NshProcessor implements ClassifierProcessorInterface {
         // add a classifier
         if (addClassifier) {
             // write the flows into the classifier
-            LOG.info("processAce - About to create flows");
+            LOG.debug("processAce - About to create flows");
             theFlows.add(classifierInterface.initClassifierTable(nodeName));
             theFlows.add(classifierInterface.createClassifierOutFlow(nodeName, flowKey, match, sfcRspInfo.get()));
             theFlows.addAll(classifierInterface.createDpdkFlows(nodeName, sfcRspInfo.get()));
         } else {
-            LOG.info("processAce - About to delete the *out* flows");
+            LOG.debug("processAce - About to delete the *out* flows");
             theFlows.add(classifierHandler.deleteFlowFromTable(nodeName, flowKey,
                     classifierInterface.getClassifierTable()));
         }
@@ -153,11 +165,11 @@ public class NshProcessor implements ClassifierProcessorInterface {
                                                   long port,
                                                   ServiceFunctionForwarder theSff) {
 
-        LOG.info("processReverseRsp - RSP name: {}", theRspName.getValue());
+        LOG.debug("processReverseRsp - RSP name: {}", theRspName.getValue());
         List<FlowDetails> theFlows = new ArrayList<>();
 
         RspName reverseRspName = SfcProviderRenderedPathAPI.generateReversedPathName(theRspName);
-        SfcRspInfo sfcRspInfo = SfcRspInfo.getSfcRspInfo(reverseRspName);
+        SfcRspInfo sfcRspInfo = rspInfoProvider.apply(reverseRspName);
 
         if (sfcRspInfo == null) {
             LOG.warn("processReverseRsp: reverseNsh is null");
@@ -12,10 +12,10 @@ import com.google.common.base.Strings;
 import com.google.common.eventbus.Subscribe;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 import org.opendaylight.controller.md.sal.binding.api.WriteTransaction;
 import org.opendaylight.sfc.provider.api.SfcProviderRenderedPathAPI;
 import org.opendaylight.sfc.provider.api.SfcProviderServiceForwarderAPI;
@@ -25,6 +25,7 @@ import org.opendaylight.sfc.scfofrenderer.flowgenerators.LogicallyAttachedClassi
 import org.opendaylight.sfc.scfofrenderer.flowgenerators.MacChainingClassifier;
 import org.opendaylight.sfc.scfofrenderer.logicalclassifier.ClassifierGeniusIntegration;
 import org.opendaylight.sfc.scfofrenderer.utils.ClassifierHandler;
+import org.opendaylight.sfc.scfofrenderer.utils.SfcRspInfo;
 import org.opendaylight.sfc.util.openflow.writer.FlowDetails;
 import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.acl.rev151001.Actions1;
 import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.acl.rev151001.access.lists.acl.access.list.entries.ace.actions.sfc.action.AclRenderedServicePath;
@@ -58,6 +59,10 @@ public class OpenflowClassifierProcessor {
 
     private static final Logger LOG = LoggerFactory.getLogger(OpenflowClassifierProcessor.class);
 
+    // flows usually generated per ACE: the classifier "out" flow, the table
+    // miss and the classifier "in" flow of the reverse RSP
+    private static final int FLOWS_PER_ACE = 3;
+
     // hide the default constructor
     private OpenflowClassifierProcessor() {
     }
@@ -88,10 +93,15 @@ public class OpenflowClassifierProcessor {
      */
     public List<FlowDetails> processClassifierList(Acl theAcl, boolean onAddClassifier,
             List<SclServiceFunctionForwarder> classifierList) {
-        return classifierList.stream().map(classifier -> processClassifier(classifier, theAcl, onAddClassifier))
-                .peek(theFlows -> LOG.info("createdServiceFunctionClassifier - flow size: {}", theFlows.size()))
-                .reduce(new ArrayList<>(), (dstList, theList) -> Stream.concat(dstList.stream(), theList.stream())
-                        .collect(Collectors.toList()));
+        // the RSPs of the ACL are read once for all the classifiers
+        AclRsps aclRsps = new AclRsps();
+        List<FlowDetails> theFlows = new ArrayList<>(classifierList.size() * getAces(theAcl).size() * FLOWS_PER_ACE);
+        for (SclServiceFunctionForwarder classifier : classifierList) {
+            List<FlowDetails> classifierFlows = processClassifier(classifier, theAcl, onAddClassifier, aclRsps);
+            LOG.info("createdServiceFunctionClassifier - flow size: {}", classifierFlows.size());
+            theFlows.addAll(classifierFlows);
+        }
+        return theFlows;
     }
 
     /**
@@ -111,6 +121,11 @@ public class OpenflowClassifierProcessor {
      */
     public List<FlowDetails> processClassifier(final SclServiceFunctionForwarder theClassifier, final Acl theAcl,
             final boolean addClassifierScenario) {
+        return processClassifier(theClassifier, theAcl, addClassifierScenario, new AclRsps());
+    }
+
+    private List<FlowDetails> processClassifier(final SclServiceFunctionForwarder theClassifier, final Acl theAcl,
+            final boolean addClassifierScenario, AclRsps aclRsps) {
         addClassifier = addClassifierScenario;
 
         Optional<ServiceFunctionForwarder> sff = Optional.of(new SffName(theClassifier.getName()))
@@ -137,10 +152,16 @@ public class OpenflowClassifierProcessor {
             }
         }
 
-        return theAcl.getAccessListEntries().getAce().stream()
-                .map(theAce -> processAce(itfName, sff.get(), theClassifier.getName(), theAcl.getAclName(), theAce))
-                .reduce(new ArrayList<>(), (dstList, theList) -> Stream.concat(dstList.stream(), theList.stream())
-                        .collect(Collectors.toList()));
+        // the node name only depends on the classifier interface chosen for
+        // the ACE, which is the same for all the ACEs of an encapsulation
+        Map<ClassifierInterface, Optional<String>> nodeNames = new HashMap<>();
+        List<Ace> theAces = getAces(theAcl);
+        List<FlowDetails> theFlows = new ArrayList<>(theAces.size() * FLOWS_PER_ACE);
+        for (Ace theAce : theAces) {
+            theFlows.addAll(processAce(itfName, sff.get(), theClassifier.getName(), theAcl.getAclName(), theAce,
+                    aclRsps, nodeNames));
+        }
+        return theFlows;
     }
 
     /**
@@ -163,6 +184,12 @@ public class OpenflowClassifierProcessor {
      */
     public List<FlowDetails> processAce(Optional<String> itfName, ServiceFunctionForwarder theSff, String theScfName,
                                         String aclName, Ace theAce) {
+        return processAce(itfName, theSff, theScfName, aclName, theAce, new AclRsps(), new HashMap<>());
+    }
+
+    private List<FlowDetails> processAce(Optional<String> itfName, ServiceFunctionForwarder theSff,
+            String theScfName, String aclName, Ace theAce, AclRsps aclRsps,
+            Map<ClassifierInterface, Optional<String>> nodeNames) {
 
         String ruleName = theAce.getRuleName();
         if (Strings.isNullOrEmpty(ruleName)) {
@@ -175,33 +202,63 @@ public class OpenflowClassifierProcessor {
                 .map(actions1 -> (AclRenderedServicePath) actions1.getSfcAction())
                 .map(aclRsp -> new RspName(aclRsp.getRenderedServicePath()));
 
-        RenderedServicePath rsp = SfcProviderRenderedPathAPI.readRenderedServicePath(rspName.get());
+        Optional<RenderedServicePath> rsp = rspName.flatMap(aclRsps::getRsp);
+        if (!rsp.isPresent()) {
+            LOG.error("processAce - RSP {} of ACE {} not found; returning empty list", rspName.orElse(null), ruleName);
+            return Collections.emptyList();
+        }
 
         final ClassifierProcessorInterface classifierProcessor;
 
         // choose which handler to use
-        if (rsp.getSfcEncapsulation() == MacChaining.class) {
+        if (rsp.get().getSfcEncapsulation() == MacChaining.class) {
             classifierInterface = macChainingClassifier.setSff(theSff);
             classifierProcessor = new MacChainingProcessor(
-                    this.classifierHandler, macChainingClassifier, addClassifier);
+                    this.classifierHandler, macChainingClassifier, addClassifier, aclRsps::getRspInfo);
         } else {
             classifierInterface = classifierHandler.usesLogicalInterfaces(theSff)
                     ? logicallyAttachedClassifier : bareClassifier.setSff(theSff);
-            classifierProcessor = new NshProcessor(this.classifierInterface, this.classifierHandler, addClassifier);
+            classifierProcessor = new NshProcessor(this.classifierInterface, this.classifierHandler, addClassifier,
+                    aclRsps::getRspInfo);
         }
 
-        final Optional<String> nodeName = itfName.flatMap(classifierInterface::getNodeName);
+        final Optional<String> nodeName = nodeNames.computeIfAbsent(classifierInterface,
+                theClassifierInterface -> itfName.flatMap(theClassifierInterface::getNodeName));
         if (!nodeName.isPresent()) {
             LOG.error("Could not extract the node name from classifier on SFF {}", theSff.getName());
             return Collections.emptyList();
         }
 
-        LOG.info("processAce - NodeName: {}; IF name: {}", nodeName, itfName.get());
+        LOG.debug("processAce - NodeName: {}; IF name: {}", nodeName, itfName.get());
 
         return classifierProcessor.processAceByProcessor(
                 nodeName.get(), theSff, theScfName, aclName, itfName.get(), theAce, rspName);
     }
 
+    /*
+     * The RSPs referenced by the ACEs of an ACL, and the RSP data derived from
+     * them, each read once while processing the ACL.
+     */
+    private static final class AclRsps {
+        private final Map<RspName, Optional<RenderedServicePath>> rsps = new HashMap<>();
+        private final Map<RspName, Optional<SfcRspInfo>> rspInfos = new HashMap<>();
+
+        Optional<RenderedServicePath> getRsp(RspName rspName) {
+            return rsps.computeIfAbsent(rspName,
+                    name -> Optional.ofNullable(SfcProviderRenderedPathAPI.readRenderedServicePath(name)));
+        }
+
+        SfcRspInfo getRspInfo(RspName rspName) {
+            return rspInfos.computeIfAbsent(rspName, name -> getRsp(name).map(SfcRspInfo::getSfcRspInfo))
+                    .orElse(null);
+        }
+    }
+
+    private static List<Ace> getAces(Acl theAcl) {
+        List<Ace> theAces = theAcl.getAccessListEntries() == null ? null : theAcl.getAccessListEntries().getAce();
+        return theAces == null ? Collections.emptyList() : theAces;
+    }
+
     /**
      * Handler method of the {@link com.google.common.eventbus.EventBus class}.
      *
@@ -18,12 +18,15 @@ import org.opendaylight.mdsal.binding.api.RpcConsumerRegistry;
 import org.opendaylight.sfc.genius.util.SfcGeniusRpcClient;
 import org.opendaylight.sfc.scfofrenderer.flowgenerators.BareClassifier;
 import org.opendaylight.sfc.scfofrenderer.flowgenerators.LogicallyAttachedClassifier;
+import org.opendaylight.sfc.scfofrenderer.listeners.ClassifierAclIndexListener;
 import org.opendaylight.sfc.scfofrenderer.listeners.ClassifierRspsUpdateListener;
+import org.opendaylight.sfc.scfofrenderer.listeners.ClassifierScfIndexListener;
 import org.opendaylight.sfc.scfofrenderer.listeners.SfcScfOfDataListener;
 import org.opendaylight.sfc.scfofrenderer.logicalclassifier.LogicalClassifierDataGetter;
 import org.opendaylight.sfc.scfofrenderer.processors.ClassifierRspUpdateProcessor;
 import org.opendaylight.sfc.scfofrenderer.processors.OpenflowClassifierProcessor;
 import org.opendaylight.sfc.scfofrenderer.processors.SfcScfOfProcessor;
+import org.opendaylight.sfc.scfofrenderer.rspupdatelistener.ClassifierRspIndex;
 import org.opendaylight.sfc.scfofrenderer.rspupdatelistener.ClassifierRspUpdateDataGetter;
 import org.opendaylight.sfc.util.openflow.writer.SfcOfFlowWriterImpl;
 import org.opendaylight.sfc.util.openflow.writer.SfcOfFlowWriterInterface;
@@ -37,6 +40,8 @@ public class SfcScfOfRenderer implements AutoCloseable {
     private static final Logger LOG = LoggerFactory.getLogger(SfcScfOfRenderer.class);
     private final ClassifierRspsUpdateListener classifierRspsUpdateListener;
     private final SfcScfOfDataListener sfcScfDataListener;
+    private final ClassifierAclIndexListener classifierAclIndexListener;
+    private final ClassifierScfIndexListener classifierScfIndexListener;
 
     @Inject
     public SfcScfOfRenderer(DataBroker dataBroker, NotificationProviderService notificationService,
@@ -66,11 +71,19 @@ public class SfcScfOfRenderer implements AutoCloseable {
         // the classifierProcessor share the same transaction object
         openflowWriter.injectTransaction(theTx);
 
+        // the ACLs and classifiers affected by an RSP update are looked up in
+        // an index kept up to date by their listeners
+        ClassifierRspIndex rspIndex = new ClassifierRspIndex();
+        classifierAclIndexListener = new ClassifierAclIndexListener(dataBroker, rspIndex);
+        classifierScfIndexListener = new ClassifierScfIndexListener(dataBroker, rspIndex);
+
         classifierRspsUpdateListener = new ClassifierRspsUpdateListener(dataBroker,
                 new ClassifierRspUpdateProcessor(logicalClassifier), openflowWriter,
-                new ClassifierRspUpdateDataGetter(), dataGetter);
+                new ClassifierRspUpdateDataGetter(rspIndex), dataGetter);
         sfcScfDataListener = new SfcScfOfDataListener(dataBroker,
                 new SfcScfOfProcessor(openflowWriter, logicalClassifierHandler));
+        classifierAclIndexListener.register();
+        classifierScfIndexListener.register();
         classifierRspsUpdateListener.register();
         sfcScfDataListener.register();
 
@@ -85,6 +98,8 @@ public class SfcScfOfRenderer implements AutoCloseable {
     public void close()  {
         classifierRspsUpdateListener.close();
         sfcScfDataListener.close();
+        classifierAclIndexListener.close();
+        classifierScfIndexListener.close();
         LOG.info("SfcScfOfRenderer auto-closed");
     }
 }
@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) 2018 Ericsson Inc. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.sfc.scfofrenderer.rspupdatelistener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.acl.rev151001.Actions1;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.acl.rev151001.access.lists.acl.access.list.entries.ace.actions.sfc.action.AclRenderedServicePath;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.common.rev151017.RspName;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.scf.rev140701.service.function.classifiers.ServiceFunctionClassifier;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.scf.rev140701.service.function.classifiers.service.function.classifier.SclServiceFunctionForwarder;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.access.control.list.rev160218.access.lists.Acl;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.access.control.list.rev160218.access.lists.AclBuilder;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.access.control.list.rev160218.access.lists.acl.AccessListEntriesBuilder;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.access.control.list.rev160218.access.lists.acl.access.list.entries.Ace;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * In memory index of the classifier configuration used when the first SF of
+ * an RSP moves: it maps each RSP name to the ACEs that reference it, grouped by
+ * ACL, and each ACL name to the classifier nodes enforcing it.
+ *
+ * <p>
+ * The index is maintained incrementally from the ACL and classifier data tree
+ * listeners, adding or removing an ACL or a classifier only updates its own
+ * entries.
+ */
+public class ClassifierRspIndex {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ClassifierRspIndex.class);
+
+    private final Object lock = new Object();
+
+    /* Guarded by lock */
+    // ACL name -> names of the RSPs its ACEs reference
+    private final Map<String, List<String>> rspNamesByAcl = new HashMap<>();
+    // RSP name -> ACL name -> the ACL restricted to the ACEs referencing the RSP
+    private final Map<String, Map<String, Acl>> aclsByRsp = new HashMap<>();
+    // classifier name -> name of the ACL it enforces
+    private final Map<String, String> aclNameByClassifier = new HashMap<>();
+    // ACL name -> classifier name -> classifier nodes
+    private final Map<String, Map<String, List<SclServiceFunctionForwarder>>> classifierNodesByAcl =
+            new HashMap<>();
+
+    /**
+     * Add an ACL to the index, replacing any previous version of it.
+     *
+     * @param acl
+     *            the ACL
+     */
+    public void addAcl(Acl acl) {
+        Map<String, List<Ace>> acesByRsp = new LinkedHashMap<>();
+        if (acl.getAccessListEntries() != null && acl.getAccessListEntries().getAce() != null) {
+            for (Ace ace : acl.getAccessListEntries().getAce()) {
+                getRspName(ace).ifPresent(rspName -> acesByRsp.computeIfAbsent(rspName, k -> new ArrayList<>())
+                        .add(ace));
+            }
+        }
+
+        synchronized (lock) {
+            removeAclEntries(acl.getAclName());
+            acesByRsp.forEach((rspName, aces) -> aclsByRsp.computeIfAbsent(rspName, k -> new HashMap<>())
+                    .put(acl.getAclName(), new AclBuilder(acl).setAccessListEntries(
+                            new AccessListEntriesBuilder(acl.getAccessListEntries()).setAce(aces).build()).build()));
+            rspNamesByAcl.put(acl.getAclName(), new ArrayList<>(acesByRsp.keySet()));
+        }
+        LOG.debug("addAcl: ACL {} references RSPs {}", acl.getAclName(), acesByRsp.keySet());
+    }
+
+    /**
+     * Remove an ACL from the index.
+     *
+     * @param aclName
+     *            the ACL name
+     */
+    public void removeAcl(String aclName) {
+        synchronized (lock) {
+            removeAclEntries(aclName);
+        }
+    }
+
+    /**
+     * Add a classifier to the index, replacing any previous version of it.
+     *
+     * @param classifier
+     *            the classifier
+     */
+    public void addClassifier(ServiceFunctionClassifier classifier) {
+        synchronized (lock) {
+            removeClassifierEntries(classifier.getName());
+            if (classifier.getAcl() == null || classifier.getAcl().getName() == null) {
+                return;
+            }
+            String aclName = classifier.getAcl().getName();
+            List<SclServiceFunctionForwarder> classifierNodes = classifier.getSclServiceFunctionForwarder() == null
+                    ? Collections.emptyList() : classifier.getSclServiceFunctionForwarder();
+            aclNameByClassifier.put(classifier.getName(), aclName);
+            classifierNodesByAcl.computeIfAbsent(aclName, k -> new HashMap<>()).put(classifier.getName(),
+                    classifierNodes);
+        }
+    }
+
+    /**
+     * Remove a classifier from the index.
+     *
+     * @param classifierName
+     *            the classifier name
+     */
+    public void removeClassifier(String classifierName) {
+        synchronized (lock) {
+            removeClassifierEntries(classifierName);
+        }
+    }
+
+    /**
+     * Get the ACLs having ACEs that reference an RSP.
+     *
+     * @param rspName
+     *            the RSP name
+     * @return the ACLs, each restricted to the ACEs referencing the RSP
+     */
+    public List<Acl> getAclsByRspName(RspName rspName) {
+        synchronized (lock) {
+            Map<String, Acl> acls = aclsByRsp.get(rspName.getValue());
+            return acls == null ? Collections.emptyList() : new ArrayList<>(acls.values());
+        }
+    }
+
+    /**
+     * Get the classifier nodes enforcing an ACL.
+     *
+     * @param aclName
+     *            the ACL name
+     * @return the classifier nodes of all the classifiers enforcing the ACL
+     */
+    public List<SclServiceFunctionForwarder> getClassifierNodesByAclName(String aclName) {
+        synchronized (lock) {
+            Map<String, List<SclServiceFunctionForwarder>> classifiers = classifierNodesByAcl.get(aclName);
+            if (classifiers == null) {
+                return Collections.emptyList();
+            }
+            List<SclServiceFunctionForwarder> classifierNodes = new ArrayList<>();
+            classifiers.values().forEach(classifierNodes::addAll);
+            return classifierNodes;
+        }
+    }
+
+    /* Must be called holding the lock */
+    private void removeAclEntries(String aclName) {
+        List<String> rspNames = rspNamesByAcl.remove(aclName);
+        if (rspNames == null) {
+            return;
+        }
+        for (String rspName : rspNames) {
+            Map<String, Acl> acls = aclsByRsp.get(rspName);
+            if (acls != null) {
+                acls.remove(aclName);
+                if (acls.isEmpty()) {
+                    aclsByRsp.remove(rspName);
+                }
+            }
+        }
+    }
+
+    /* Must be called holding the lock */
+    private void removeClassifierEntries(String classifierName) {
+        String aclName = aclNameByClassifier.remove(classifierName);
+        if (aclName == null) {
+            return;
+        }
+        Map<String, List<SclServiceFunctionForwarder>> classifiers = classifierNodesByAcl.get(aclName);
+        if (classifiers != null) {
+            classifiers.remove(classifierName);
+            if (classifiers.isEmpty()) {
+                classifierNodesByAcl.remove(aclName);
+            }
+        }
+    }
+
+    private static Optional<String> getRspName(Ace ace) {
+        return Optional.ofNullable(ace.getActions())
+                .map(actions -> actions.augmentation(Actions1.class))
+                .map(Actions1::getSfcAction)
+                .filter(AclRenderedServicePath.class::isInstance)
+                .map(sfcAction -> ((AclRenderedServicePath) sfcAction).getRenderedServicePath());
+    }
+}
@@ -26,13 +26,32 @@ import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.access.cont
 import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
 
 public class ClassifierRspUpdateDataGetter {
+
+    // when available, the filtering is answered from the index instead of
+    // reading all the ACLs and classifiers from the data store
+    private final ClassifierRspIndex rspIndex;
+
+    public ClassifierRspUpdateDataGetter() {
+        this(null);
+    }
+
+    public ClassifierRspUpdateDataGetter(ClassifierRspIndex rspIndex) {
+        this.rspIndex = rspIndex;
+    }
+
     /**
      * Filter ACLs by RSP name.
      * @param theRspName
      *            the name of the RSP we want to filter
-     * @return a list of all the ACLs that apply to the given RSP name
+     * @return a list of all the ACLs that apply to the given RSP name; when
+     *         filtered through the index, each ACL only has the ACEs that
+     *         apply to the given RSP name
      */
     public List<Acl> filterAclsByRspName(RspName theRspName) {
+        if (rspIndex != null) {
+            return rspIndex.getAclsByRspName(theRspName);
+        }
+
         InstanceIdentifier<AccessLists> ifConfigIID = InstanceIdentifier.builder(AccessLists.class).build();
 
         return Optional.ofNullable(SfcDataStoreAPI.readTransactionAPI(ifConfigIID, LogicalDatastoreType.CONFIGURATION))
@@ -53,6 +72,10 @@ public class ClassifierRspUpdateDataGetter {
      *         the given ACL
      */
     public List<SclServiceFunctionForwarder> filterClassifierNodesByAclName(String theAclName) {
+        if (rspIndex != null) {
+            return rspIndex.getClassifierNodesByAclName(theAclName);
+        }
+
         InstanceIdentifier<ServiceFunctionClassifiers> ifConfigIID = InstanceIdentifier
                 .builder(ServiceFunctionClassifiers.class).build();
 
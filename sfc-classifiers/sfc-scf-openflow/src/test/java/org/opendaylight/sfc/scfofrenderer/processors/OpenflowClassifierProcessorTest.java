@@ -17,8 +17,10 @@ import static org.mockito.MockitoAnnotations.initMocks;
 
 import java.math.BigInteger;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
@@ -91,6 +93,8 @@ public class OpenflowClassifierProcessorTest {
 
     private static final String FIRST_SF_NODE_NAME = "openflow:1234567890";
 
+    private static final int LARGE_ACL_SIZE = 10000;
+
     private static final DpnIdType FIRST_SF_DATAPLANE_ID = new DpnIdType(new BigInteger("1234567890"));
 
     private static final Logger LOG = LoggerFactory.getLogger(OpenflowClassifierProcessorTest.class);
@@ -217,6 +221,45 @@ public class OpenflowClassifierProcessorTest {
         Assert.assertEquals(2 + 2 + 1, theFlows.size());
     }
 
+    @Test
+    public void addClassifierLargeAcl() {
+        // must set the usesLogicalInterfaces = false
+        when(sff.getSffDataPlaneLocator()).thenReturn(new ArrayList<>());
+
+        // disable DPDK extensions
+        PowerMockito.when(SfcOvsUtil.getDpdkOfPort(anyString(), anyString())).thenReturn(null);
+
+        // each RSP is used by 2 ACEs
+        List<Ace> theAces = new ClassifierAclDataBuilder().mockAces(LARGE_ACL_SIZE);
+        when(accessListEntries.getAce()).thenReturn(theAces);
+        AtomicInteger rspReads = new AtomicInteger();
+        when(SfcProviderRenderedPathAPI.readRenderedServicePath(any(RspName.class))).thenAnswer(invocation -> {
+            rspReads.incrementAndGet();
+            return rsp;
+        });
+        when(SfcProviderRenderedPathAPI.generateReversedPathName(any(RspName.class)))
+                .thenAnswer(invocation -> {
+                    RspName rspName = (RspName) invocation.getArguments()[0];
+                    return new RspName(rspName.getValue() + "-Reverse");
+                });
+
+        BareClassifier bareClassifierHandler = Mockito.spy(new BareClassifier(sff));
+        doReturn(Optional.of(FIRST_SF_NODE_NAME)).when(bareClassifierHandler).getNodeName(anyString());
+        OpenflowClassifierProcessor classifierManager = new OpenflowClassifierProcessor(readWriteTransaction,
+                new LogicallyAttachedClassifier(dataGetter), bareClassifierHandler);
+
+        List<FlowDetails> theFlows = classifierManager.processClassifierList(acl, true,
+                Arrays.asList(sffClassifier, sffClassifier));
+
+        // install table miss, install classifier "out" flow, and install
+        // classifier 'in' flow for the reverse RSP, per ACE and classifier
+        Assert.assertEquals(2 * LARGE_ACL_SIZE * (2 + 1), theFlows.size());
+
+        // each RSP and its reverse RSP are read once for the whole ACL
+        Assert.assertEquals(LARGE_ACL_SIZE / 2 + LARGE_ACL_SIZE / 2, rspReads.get());
+        Mockito.verify(bareClassifierHandler, Mockito.times(2)).getNodeName(anyString());
+    }
+
     @Test
     public void addClassifierEmptyAcl() {
         OpenflowClassifierProcessor classifierManager = new OpenflowClassifierProcessor(readWriteTransaction,
@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2018 Ericsson Inc. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.sfc.scfofrenderer.rspupdatelistener;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.Assert;
+import org.junit.Test;
+import org.opendaylight.sfc.scfofrenderer.ClassifierAclDataBuilder;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.common.rev151017.RspName;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.scf.rev140701.service.function.classifiers.ServiceFunctionClassifier;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.scf.rev140701.service.function.classifiers.ServiceFunctionClassifierBuilder;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.scf.rev140701.service.function.classifiers.service.function.classifier.SclServiceFunctionForwarder;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.scf.rev140701.service.function.classifiers.service.function.classifier.SclServiceFunctionForwarderBuilder;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.access.control.list.rev160218.Ipv4Acl;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.access.control.list.rev160218.access.lists.Acl;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.access.control.list.rev160218.access.lists.AclBuilder;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.access.control.list.rev160218.access.lists.acl.AccessListEntriesBuilder;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.access.control.list.rev160218.access.lists.acl.access.list.entries.Ace;
+
+public class ClassifierRspIndexTest {
+
+    private static final RspName RSP_1 = new RspName("RSP_1");
+    private static final RspName RSP_2 = new RspName("RSP_2");
+
+    @Test
+    public void testAclsByRspName() {
+        ClassifierRspIndex rspIndex = new ClassifierRspIndex();
+
+        // ACE0 and ACE1 reference RSP_1, ACE2 and ACE3 reference RSP_2
+        rspIndex.addAcl(buildAcl("acl1", 4));
+        rspIndex.addAcl(buildAcl("acl2", 2));
+
+        List<Acl> acls = rspIndex.getAclsByRspName(RSP_1);
+        Assert.assertEquals(2, acls.size());
+        acls.forEach(acl -> Assert.assertEquals(2, acl.getAccessListEntries().getAce().size()));
+
+        acls = rspIndex.getAclsByRspName(RSP_2);
+        Assert.assertEquals(1, acls.size());
+        Assert.assertEquals("acl1", acls.get(0).getAclName());
+        Assert.assertEquals(Arrays.asList("ACE2", "ACE3"), getRuleNames(acls.get(0)));
+
+        // the updated ACL no longer references RSP_2
+        rspIndex.addAcl(buildAcl("acl1", 2));
+        Assert.assertTrue(rspIndex.getAclsByRspName(RSP_2).isEmpty());
+        Assert.assertEquals(2, rspIndex.getAclsByRspName(RSP_1).size());
+
+        rspIndex.removeAcl("acl2");
+        rspIndex.removeAcl("acl1");
+        Assert.assertTrue(rspIndex.getAclsByRspName(RSP_1).isEmpty());
+    }
+
+    @Test
+    public void testClassifierNodesByAclName() {
+        ClassifierRspIndex rspIndex = new ClassifierRspIndex();
+
+        rspIndex.addClassifier(buildClassifier("c1", "acl1", "sff1"));
+        rspIndex.addClassifier(buildClassifier("c2", "acl1", "sff2"));
+        Assert.assertEquals(2, rspIndex.getClassifierNodesByAclName("acl1").size());
+
+        // the updated classifier enforces another ACL
+        rspIndex.addClassifier(buildClassifier("c2", "acl2", "sff2"));
+        Assert.assertEquals("sff1", rspIndex.getClassifierNodesByAclName("acl1").get(0).getName());
+        Assert.assertEquals("sff2", rspIndex.getClassifierNodesByAclName("acl2").get(0).getName());
+
+        rspIndex.removeClassifier("c1");
+        Assert.assertTrue(rspIndex.getClassifierNodesByAclName("acl1").isEmpty());
+    }
+
+    @Test
+    public void testDataGetterUsesIndex() {
+        ClassifierRspIndex rspIndex = new ClassifierRspIndex();
+        rspIndex.addAcl(buildAcl("acl1", 4));
+        rspIndex.addClassifier(buildClassifier("c1", "acl1", "sff1"));
+
+        ClassifierRspUpdateDataGetter dataGetter = new ClassifierRspUpdateDataGetter(rspIndex);
+        Assert.assertEquals("acl1", dataGetter.filterAclsByRspName(RSP_2).get(0).getAclName());
+        Assert.assertEquals("sff1", dataGetter.filterClassifierNodesByAclName("acl1").get(0).getName());
+    }
+
+    private static Acl buildAcl(String aclName, int numberOfAces) {
+        List<Ace> aces = new ClassifierAclDataBuilder().mockAces(numberOfAces);
+        return new AclBuilder().setAclName(aclName).setAclType(Ipv4Acl.class)
+                .setAccessListEntries(new AccessListEntriesBuilder().setAce(aces).build()).build();
+    }
+
+    private static ServiceFunctionClassifier buildClassifier(String classifierName, String aclName, String sffName) {
+        SclServiceFunctionForwarder classifierNode = new SclServiceFunctionForwarderBuilder().setName(sffName).build();
+        return new ServiceFunctionClassifierBuilder().setName(classifierName)
+                .setAcl(new org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.scf.rev140701
+                        .service.function.classifiers.service.function.classifier.AclBuilder().setName(aclName)
+                        .setType(Ipv4Acl.class).build())
+                .setSclServiceFunctionForwarder(Collections.singletonList(classifierNode)).build();
+    }
+
+    private static List<String> getRuleNames(Acl acl) {
+        return acl.getAccessListEntries().getAce().stream().map(Ace::getRuleName).collect(Collectors.toList());
+    }
+}
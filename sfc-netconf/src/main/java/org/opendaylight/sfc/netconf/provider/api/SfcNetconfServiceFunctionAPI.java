@@ -11,6 +11,9 @@ package org.opendaylight.sfc.netconf.provider.api;
 import static org.opendaylight.sfc.provider.SfcProviderDebug.printTraceStart;
 import static org.opendaylight.sfc.provider.SfcProviderDebug.printTraceStop;
 
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
 import java.util.ArrayList;
 import java.util.List;
 import org.opendaylight.controller.md.sal.common.api.data.LogicalDatastoreType;
@@ -192,6 +195,46 @@ public class SfcNetconfServiceFunctionAPI {
         return monInfo;
     }
 
+    /**
+     * Get the service function monitor information from netconf mountpoint
+     * without blocking.
+     *
+     * @param sfName
+     *            Service Function name
+     * @return a future set to the Service Function monitor information, or to
+     *         null if it is not available
+     */
+    public ListenableFuture<MonitoringInfo> getServiceFunctionMonitorAsync(String sfName) {
+        /* Service Function name is netconf mount point */
+        return Futures.transform(getSfDescMon.getSFMonitorInfoFromNetconfAsync(sfName), sfMonInfoMap -> {
+            if (sfMonInfoMap == null || sfMonInfoMap.getMonitoringInfo() == null) {
+                LOG.warn("getSFMonitorInfoFromNetconfAsync returns null at mount point {}", sfName);
+                return null;
+            }
+            return new MonitoringInfoBuilder(sfMonInfoMap.getMonitoringInfo()).build();
+        }, MoreExecutors.directExecutor());
+    }
+
+    /**
+     * Put the service function monitor information into the OPERATIONAL
+     * datastore without blocking, in a transaction shared with other writes.
+     * The description information of the service function is kept.
+     *
+     * @param monInfo
+     *            Service Function monitoring information
+     * @param sfName
+     *            Service Function name
+     * @return a future set to true if monInfo was successfully put, false
+     *         otherwise
+     */
+    public ListenableFuture<Boolean> putServiceFunctionMonitorAsync(MonitoringInfo monInfo, SfName sfName) {
+        InstanceIdentifier<MonitoringInfo> monInfoIID = InstanceIdentifier.builder(ServiceFunctionsState.class)
+                .child(ServiceFunctionState.class, new ServiceFunctionStateKey(sfName))
+                .augmentation(ServiceFunctionState1.class).child(SfcSfDescMon.class).child(MonitoringInfo.class)
+                .build();
+        return SfcDataStoreAPI.writePutTransactionAPIAsync(monInfoIID, monInfo, LogicalDatastoreType.OPERATIONAL);
+    }
+
     /**
      * Put the service function monitor information into the OPERATIONAL
      * datastore.
@@ -12,6 +12,10 @@ import static org.opendaylight.sfc.provider.SfcProviderDebug.printTraceStart;
 import static org.opendaylight.sfc.provider.SfcProviderDebug.printTraceStop;
 
 import com.google.common.base.Optional;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.JdkFutureAdapters;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import org.opendaylight.controller.md.sal.binding.api.MountPoint;
@@ -98,6 +102,30 @@ public class SfcProviderSfDescriptionMonitorAPI {
         return ret;
     }
 
+    /**
+     * Get the SF monitoring information of a node without blocking.
+     *
+     * @param nodeName
+     *            the name of the netconf node
+     * @return a future set to the monitoring information, or to null if the
+     *         node has no monitoring service or the RPC is not successful
+     */
+    public ListenableFuture<GetSFMonitoringInfoOutput> getSFMonitorInfoFromNetconfAsync(String nodeName) {
+        ServiceFunctionDescriptionMonitorReportService service = getSfDescriptionMonitorService(nodeName);
+        if (service == null) {
+            return Futures.immediateFuture(null);
+        }
+        ListenableFuture<RpcResult<GetSFMonitoringInfoOutput>> result = JdkFutureAdapters.listenInPoolThread(
+                service.getSFMonitoringInfo(new GetSFMonitoringInfoInputBuilder().build()));
+        return Futures.transform(result, output -> {
+            if (!output.isSuccessful()) {
+                LOG.error("getSFMonitoringInfo() failed for node {}: {}", nodeName, output.getErrors());
+                return null;
+            }
+            return output.getResult();
+        }, MoreExecutors.directExecutor());
+    }
+
     private ServiceFunctionDescriptionMonitorReportService getSfDescriptionMonitorService(String nodeName) {
         InstanceIdentifier<?> nodeIID = NETCONF_TOPO_IID.child(Node.class, new NodeKey(new NodeId(nodeName)));
 
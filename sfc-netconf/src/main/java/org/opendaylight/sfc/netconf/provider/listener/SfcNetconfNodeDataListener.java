@@ -17,9 +17,6 @@
 
 package org.opendaylight.sfc.netconf.provider.listener;
 
-import static org.opendaylight.sfc.provider.SfcProviderDebug.printTraceStart;
-import static org.opendaylight.sfc.provider.SfcProviderDebug.printTraceStop;
-
 import java.util.List;
 import javax.annotation.Nonnull;
 import javax.inject.Inject;
@@ -29,6 +26,7 @@ import org.opendaylight.controller.md.sal.common.api.data.LogicalDatastoreType;
 import org.opendaylight.serviceutils.tools.mdsal.listener.AbstractSyncDataTreeChangeListener;
 import org.opendaylight.sfc.netconf.provider.api.SfcNetconfServiceForwarderAPI;
 import org.opendaylight.sfc.netconf.provider.api.SfcNetconfServiceFunctionAPI;
+import org.opendaylight.sfc.netconf.provider.monitor.SfcNetconfSfMonitorPoller;
 import org.opendaylight.sfc.provider.api.SfcProviderServiceForwarderAPI;
 import org.opendaylight.sfc.provider.api.SfcProviderServiceFunctionAPI;
 import org.opendaylight.sfc.provider.api.SfcProviderServiceTypeAPI;
@@ -64,13 +62,17 @@ public class SfcNetconfNodeDataListener extends AbstractSyncDataTreeChangeListen
 
     private final SfcNetconfServiceFunctionAPI sfcNetconfServiceFunctionAPI;
 
+    private final SfcNetconfSfMonitorPoller sfMonitorPoller;
+
     @Inject
     public SfcNetconfNodeDataListener(DataBroker dataBroker,
-                                      SfcNetconfServiceFunctionAPI sfcNetconfServiceFunctionAPI) {
+                                      SfcNetconfServiceFunctionAPI sfcNetconfServiceFunctionAPI,
+                                      SfcNetconfSfMonitorPoller sfMonitorPoller) {
         super(dataBroker, LogicalDatastoreType.OPERATIONAL, InstanceIdentifier.create(NetworkTopology.class)
                 .child(Topology.class, new TopologyKey(new TopologyId(TopologyNetconf.QNAME.getLocalName())))
                 .child(Node.class));
         this.sfcNetconfServiceFunctionAPI = sfcNetconfServiceFunctionAPI;
+        this.sfMonitorPoller = sfMonitorPoller;
     }
 
     @Override
@@ -80,7 +82,7 @@ public class SfcNetconfNodeDataListener extends AbstractSyncDataTreeChangeListen
 
     @Override
     public void remove(@Nonnull InstanceIdentifier<Node> instanceIdentifier, @Nonnull Node removedDataObject) {
-        // NOOP
+        sfMonitorPoller.stop(getNodeId(instanceIdentifier).getValue());
     }
 
     @Override
@@ -135,9 +137,8 @@ public class SfcNetconfNodeDataListener extends AbstractSyncDataTreeChangeListen
                             LOG.error("Failed to create SF from Netconf node {}", nodeName);
                         }
 
-                        SfDescriptionMonitoringThread monitoringThread = new SfDescriptionMonitoringThread(nodeName);
-                        Thread thread = new Thread(monitoringThread);
-                        thread.start();
+                        // the node is updated again while connected, the poller is only started once
+                        sfMonitorPoller.start(nodeName);
                     } else { // SFF
                         ServiceFunctionForwarder sff = SfcNetconfServiceForwarderAPI
                                 .buildServiceForwarderFromNetconf(nodeName, nnode);
@@ -159,6 +160,7 @@ public class SfcNetconfNodeDataListener extends AbstractSyncDataTreeChangeListen
                     // disconnect from remote device, network
                     // connectivity loss etc.
                     LOG.info("Netconf device disconnected, deleting SFF {}", nodeName);
+                    sfMonitorPoller.stop(nodeName);
                     if (SfcProviderServiceForwarderAPI.deleteServiceFunctionForwarder(new SffName(nodeName))) {
                         LOG.info("SFF {} deleted successfully", nodeName);
                     } else {
@@ -169,6 +171,7 @@ public class SfcNetconfNodeDataListener extends AbstractSyncDataTreeChangeListen
                 case UnableToConnect: {
                     // Its over for the device, no more reconnects
                     LOG.info("Unable to connected to Netconf device, deleting SFF {}", nodeName);
+                    sfMonitorPoller.stop(nodeName);
                     if (SfcProviderServiceForwarderAPI.deleteServiceFunctionForwarder(new SffName(nodeName))) {
                         LOG.info("SFF {} deleted successfully", nodeName);
                     } else {
@@ -208,30 +211,4 @@ public class SfcNetconfNodeDataListener extends AbstractSyncDataTreeChangeListen
         }
         return ret;
     }
-
-    class SfDescriptionMonitoringThread implements Runnable {
-        private final String nodeName;
-
-        SfDescriptionMonitoringThread(String nodeName) {
-            this.nodeName = nodeName;
-        }
-
-        @Override
-        public void run() {
-            while (true) {
-                printTraceStart(LOG);
-                MonitoringInfo monInfo = sfcNetconfServiceFunctionAPI.getServiceFunctionMonitor(nodeName);
-                if (monInfo != null) {
-                    SfName sfNodeName = new SfName(nodeName);
-                    sfcNetconfServiceFunctionAPI.putServiceFunctionMonitor(monInfo, sfNodeName);
-                }
-                try {
-                    Thread.sleep(5000);
-                } catch (InterruptedException e) {
-                    LOG.warn("failed to ....", e);
-                }
-                printTraceStop(LOG);
-            }
-        }
-    }
 }
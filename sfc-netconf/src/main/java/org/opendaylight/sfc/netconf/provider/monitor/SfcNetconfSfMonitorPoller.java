@@ -0,0 +1,239 @@
+/*
+ * Copyright (c) 2018 Ericsson Inc. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.sfc.netconf.provider.monitor;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import org.opendaylight.infrautils.utils.concurrent.Executors;
+import org.opendaylight.sfc.netconf.provider.api.SfcNetconfServiceFunctionAPI;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.common.rev151017.SfName;
+import org.opendaylight.yang.gen.v1.urn.intel.params.xml.ns.sf.desc.mon.rev141201.service.functions.state.service.function.state.sfc.sf.desc.mon.MonitoringInfo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Polls the monitoring information of the SFs managed through NETCONF.
+ *
+ * <p>
+ * All the nodes are polled from one scheduler thread and the RPCs complete
+ * asynchronously, so no thread is held per node. The polls of a node never
+ * overlap and are spread with a jitter around the poll interval. The
+ * interval of a node doubles, up to a maximum, while its RPCs fail or take
+ * longer than half the base interval, and is reset by the next fast poll.
+ * The monitoring information is only written when it changes, through the
+ * batched writes of the data store API.
+ */
+@Singleton
+public class SfcNetconfSfMonitorPoller implements AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SfcNetconfSfMonitorPoller.class);
+
+    private static final long POLL_INTERVAL_MILLIS = 5000;
+    private static final long MAX_POLL_INTERVAL_MILLIS = 300000;
+    private static final long RPC_TIMEOUT_MILLIS = 30000;
+    private static final double JITTER = 0.1;
+
+    private final SfcNetconfServiceFunctionAPI sfcNetconfServiceFunctionAPI;
+    private final long pollIntervalMillis;
+    private final long maxPollIntervalMillis;
+    private final long rpcTimeoutMillis;
+    private final ScheduledExecutorService scheduler =
+            Executors.newSingleThreadScheduledExecutor("SfcNetconfSfMonitorPoller", LOG);
+    private final ConcurrentMap<String, NodePoller> nodePollers = new ConcurrentHashMap<>();
+
+    @Inject
+    public SfcNetconfSfMonitorPoller(SfcNetconfServiceFunctionAPI sfcNetconfServiceFunctionAPI) {
+        this(sfcNetconfServiceFunctionAPI, POLL_INTERVAL_MILLIS, MAX_POLL_INTERVAL_MILLIS, RPC_TIMEOUT_MILLIS);
+    }
+
+    @VisibleForTesting
+    SfcNetconfSfMonitorPoller(SfcNetconfServiceFunctionAPI sfcNetconfServiceFunctionAPI, long pollIntervalMillis,
+            long maxPollIntervalMillis, long rpcTimeoutMillis) {
+        this.sfcNetconfServiceFunctionAPI = sfcNetconfServiceFunctionAPI;
+        this.pollIntervalMillis = pollIntervalMillis;
+        this.maxPollIntervalMillis = maxPollIntervalMillis;
+        this.rpcTimeoutMillis = rpcTimeoutMillis;
+    }
+
+    /**
+     * Start polling the monitoring information of a node, unless it is
+     * already polled. The first poll happens at a random time within the
+     * poll interval.
+     *
+     * @param nodeName
+     *            the name of the netconf node, which is also the SF name
+     */
+    public void start(String nodeName) {
+        NodePoller nodePoller = new NodePoller(nodeName);
+        if (nodePollers.putIfAbsent(nodeName, nodePoller) == null) {
+            LOG.debug("start: polling the monitoring information of SF {}", nodeName);
+            nodePoller.schedule(ThreadLocalRandom.current().nextLong(pollIntervalMillis));
+        }
+    }
+
+    /**
+     * Stop polling the monitoring information of a node, cancelling the poll
+     * in progress if any.
+     *
+     * @param nodeName
+     *            the name of the netconf node
+     */
+    public void stop(String nodeName) {
+        NodePoller nodePoller = nodePollers.remove(nodeName);
+        if (nodePoller != null) {
+            LOG.debug("stop: no longer polling the monitoring information of SF {}", nodeName);
+            nodePoller.stop();
+        }
+    }
+
+    public boolean isPolling(String nodeName) {
+        return nodePollers.containsKey(nodeName);
+    }
+
+    @VisibleForTesting
+    long getPollInterval(String nodeName) {
+        NodePoller nodePoller = nodePollers.get(nodeName);
+        if (nodePoller == null) {
+            return -1;
+        }
+        synchronized (nodePoller) {
+            return nodePoller.intervalMillis;
+        }
+    }
+
+    @Override
+    @PreDestroy
+    public void close() {
+        nodePollers.keySet().forEach(this::stop);
+        scheduler.shutdownNow();
+    }
+
+    @VisibleForTesting
+    long jitter(long intervalMillis) {
+        return (long) (intervalMillis * ThreadLocalRandom.current().nextDouble(1 - JITTER, 1 + JITTER));
+    }
+
+    private final class NodePoller implements Runnable {
+        private final String nodeName;
+        private final SfName sfName;
+
+        /* Guarded by this */
+        private long intervalMillis = pollIntervalMillis;
+        private MonitoringInfo lastMonitoringInfo;
+        private Future<?> scheduledPoll;
+        private Future<?> pendingPoll;
+        private boolean stopped;
+
+        NodePoller(String nodeName) {
+            this.nodeName = nodeName;
+            this.sfName = new SfName(nodeName);
+        }
+
+        @Override
+        public void run() {
+            ListenableFuture<MonitoringInfo> monitoringInfo;
+            long start = System.nanoTime();
+            synchronized (this) {
+                if (stopped) {
+                    return;
+                }
+                monitoringInfo = Futures.withTimeout(sfcNetconfServiceFunctionAPI
+                        .getServiceFunctionMonitorAsync(nodeName), rpcTimeoutMillis, TimeUnit.MILLISECONDS, scheduler);
+                pendingPoll = monitoringInfo;
+            }
+            Futures.addCallback(monitoringInfo, new FutureCallback<MonitoringInfo>() {
+                @Override
+                public void onSuccess(MonitoringInfo result) {
+                    completed(result, System.nanoTime() - start);
+                }
+
+                @Override
+                public void onFailure(Throwable throwable) {
+                    LOG.debug("Cannot get the monitoring information of SF {}", nodeName, throwable);
+                    completed(null, System.nanoTime() - start);
+                }
+            }, MoreExecutors.directExecutor());
+        }
+
+        private void completed(MonitoringInfo monitoringInfo, long elapsedNanos) {
+            ListenableFuture<Boolean> writeResult = null;
+            synchronized (this) {
+                pendingPoll = null;
+                if (stopped) {
+                    return;
+                }
+                if (monitoringInfo == null || TimeUnit.NANOSECONDS.toMillis(elapsedNanos) > pollIntervalMillis / 2) {
+                    intervalMillis = Math.min(intervalMillis * 2, maxPollIntervalMillis);
+                    LOG.debug("SF {} is failing or slow, next poll in {} ms", nodeName, intervalMillis);
+                } else {
+                    intervalMillis = pollIntervalMillis;
+                }
+                if (monitoringInfo != null && !monitoringInfo.equals(lastMonitoringInfo)) {
+                    lastMonitoringInfo = monitoringInfo;
+                    writeResult = sfcNetconfServiceFunctionAPI.putServiceFunctionMonitorAsync(monitoringInfo, sfName);
+                }
+                schedule(jitter(intervalMillis));
+            }
+            if (writeResult != null) {
+                Futures.addCallback(writeResult, new FutureCallback<Boolean>() {
+                    @Override
+                    public void onSuccess(Boolean result) {
+                        if (!result) {
+                            writeFailed(monitoringInfo);
+                        }
+                    }
+
+                    @Override
+                    public void onFailure(Throwable throwable) {
+                        writeFailed(monitoringInfo);
+                    }
+                }, MoreExecutors.directExecutor());
+            }
+        }
+
+        // write the information again on the next poll
+        private synchronized void writeFailed(MonitoringInfo monitoringInfo) {
+            LOG.error("Failed to write the monitoring information of SF {}", nodeName);
+            if (monitoringInfo.equals(lastMonitoringInfo)) {
+                lastMonitoringInfo = null;
+            }
+        }
+
+        private synchronized void schedule(long delayMillis) {
+            try {
+                scheduledPoll = scheduler.schedule(this, delayMillis, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                LOG.debug("SF {} not polled, the poller is closed", nodeName);
+            }
+        }
+
+        private synchronized void stop() {
+            stopped = true;
+            if (scheduledPoll != null) {
+                scheduledPoll.cancel(false);
+            }
+            if (pendingPoll != null) {
+                pendingPoll.cancel(true);
+            }
+        }
+    }
+}
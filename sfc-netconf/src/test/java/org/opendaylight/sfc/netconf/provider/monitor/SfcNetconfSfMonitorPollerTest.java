@@ -0,0 +1,210 @@
+/*
+ * Copyright (c) 2018 Ericsson Inc. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.sfc.netconf.provider.monitor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.opendaylight.sfc.netconf.provider.api.SfcNetconfServiceFunctionAPI;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.common.rev151017.SfName;
+import org.opendaylight.yang.gen.v1.urn.intel.params.xml.ns.sf.desc.mon.rev141201.service.functions.state.service.function.state.sfc.sf.desc.mon.MonitoringInfo;
+import org.opendaylight.yang.gen.v1.urn.intel.params.xml.ns.sf.desc.mon.rev141201.service.functions.state.service.function.state.sfc.sf.desc.mon.MonitoringInfoBuilder;
+import org.opendaylight.yang.gen.v1.urn.intel.params.xml.ns.sf.desc.mon.rpt.rev141105.sf.monitoring.info.ResourceUtilizationBuilder;
+
+/**
+ * This class contains unit tests for SfcNetconfSfMonitorPoller. The RPCs of
+ * the polls are completed by the tests, in the test thread.
+ */
+public class SfcNetconfSfMonitorPollerTest {
+
+    private static final String SF_NAME = "netconf-sf";
+    private static final long POLL_INTERVAL_MILLIS = 100;
+    private static final long MAX_POLL_INTERVAL_MILLIS = 500;
+    private static final long TIMEOUT_SECONDS = 10;
+
+    private FakeServiceFunctionAPI sfcNetconfServiceFunctionAPI;
+    private SfcNetconfSfMonitorPoller poller;
+
+    @Before
+    public void before() {
+        sfcNetconfServiceFunctionAPI = new FakeServiceFunctionAPI();
+        poller = new SfcNetconfSfMonitorPoller(sfcNetconfServiceFunctionAPI, POLL_INTERVAL_MILLIS,
+                MAX_POLL_INTERVAL_MILLIS, TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS));
+    }
+
+    @After
+    public void after() {
+        poller.close();
+    }
+
+    /**
+     * The monitoring information is only written when it changes.
+     */
+    @Test
+    public void testWritesOnlyOnChange() throws Exception {
+        poller.start(SF_NAME);
+
+        nextPoll().set(buildMonitoringInfo(10L));
+        nextPoll().set(buildMonitoringInfo(10L));
+        nextPoll().set(buildMonitoringInfo(20L));
+        nextPoll().set(buildMonitoringInfo(20L));
+        assertNotNull(nextPoll());
+
+        assertEquals(buildMonitoringInfo(10L), sfcNetconfServiceFunctionAPI.writes.poll());
+        assertEquals(buildMonitoringInfo(20L), sfcNetconfServiceFunctionAPI.writes.poll());
+        assertNull(sfcNetconfServiceFunctionAPI.writes.poll());
+    }
+
+    /**
+     * A write that failed is done again on the next poll, even if the
+     * monitoring information did not change.
+     */
+    @Test
+    public void testFailedWriteIsRetried() throws Exception {
+        sfcNetconfServiceFunctionAPI.writeResult = false;
+        poller.start(SF_NAME);
+
+        nextPoll().set(buildMonitoringInfo(10L));
+        sfcNetconfServiceFunctionAPI.writeResult = true;
+        nextPoll().set(buildMonitoringInfo(10L));
+        nextPoll().set(buildMonitoringInfo(10L));
+        assertNotNull(nextPoll());
+
+        assertEquals(buildMonitoringInfo(10L), sfcNetconfServiceFunctionAPI.writes.poll());
+        assertEquals(buildMonitoringInfo(10L), sfcNetconfServiceFunctionAPI.writes.poll());
+        assertNull(sfcNetconfServiceFunctionAPI.writes.poll());
+    }
+
+    /**
+     * The poll interval doubles up to its maximum while the polls fail or are
+     * slow, and is reset by the next fast poll.
+     */
+    @Test
+    public void testBackoff() throws Exception {
+        poller.start(SF_NAME);
+        assertEquals(POLL_INTERVAL_MILLIS, poller.getPollInterval(SF_NAME));
+
+        nextPoll().setException(new IllegalStateException("test"));
+        assertEquals(2 * POLL_INTERVAL_MILLIS, poller.getPollInterval(SF_NAME));
+        nextPoll().set(null);
+        assertEquals(4 * POLL_INTERVAL_MILLIS, poller.getPollInterval(SF_NAME));
+        nextPoll().setException(new IllegalStateException("test"));
+        assertEquals(MAX_POLL_INTERVAL_MILLIS, poller.getPollInterval(SF_NAME));
+        nextPoll().setException(new IllegalStateException("test"));
+        assertEquals(MAX_POLL_INTERVAL_MILLIS, poller.getPollInterval(SF_NAME));
+
+        nextPoll().set(buildMonitoringInfo(10L));
+        assertEquals(POLL_INTERVAL_MILLIS, poller.getPollInterval(SF_NAME));
+
+        // a poll slower than half the interval backs off too
+        SettableFuture<MonitoringInfo> slowPoll = nextPoll();
+        Thread.sleep(POLL_INTERVAL_MILLIS);
+        slowPoll.set(buildMonitoringInfo(10L));
+        assertEquals(2 * POLL_INTERVAL_MILLIS, poller.getPollInterval(SF_NAME));
+    }
+
+    /**
+     * The polls are spread within the jitter around the interval.
+     */
+    @Test
+    public void testJitterBounds() {
+        Set<Long> delays = new HashSet<>();
+        for (int i = 0; i < 1000; i++) {
+            long delay = poller.jitter(1000);
+            assertTrue("delay " + delay, delay >= 900 && delay <= 1100);
+            delays.add(delay);
+        }
+        assertTrue(delays.size() > 1);
+    }
+
+    /**
+     * Stopping a node cancels its poll in progress and no other poll follows.
+     */
+    @Test
+    public void testStop() throws Exception {
+        poller.start(SF_NAME);
+        poller.start(SF_NAME);
+        assertTrue(poller.isPolling(SF_NAME));
+
+        SettableFuture<MonitoringInfo> pendingPoll = nextPoll();
+        poller.stop(SF_NAME);
+        assertFalse(poller.isPolling(SF_NAME));
+        assertEquals(-1, poller.getPollInterval(SF_NAME));
+        assertTrue(pendingPoll.isCancelled());
+
+        assertNull(sfcNetconfServiceFunctionAPI.polls.poll(2 * MAX_POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS));
+        assertNull(sfcNetconfServiceFunctionAPI.writes.poll());
+    }
+
+    /**
+     * Closing the poller stops all the nodes.
+     */
+    @Test
+    public void testClose() throws Exception {
+        poller.start(SF_NAME);
+        poller.start(SF_NAME + "-2");
+
+        poller.close();
+        assertFalse(poller.isPolling(SF_NAME));
+        assertFalse(poller.isPolling(SF_NAME + "-2"));
+        sfcNetconfServiceFunctionAPI.polls.forEach(poll -> assertTrue(poll.isCancelled()));
+    }
+
+    private SettableFuture<MonitoringInfo> nextPoll() throws InterruptedException {
+        SettableFuture<MonitoringInfo> poll = sfcNetconfServiceFunctionAPI.polls.poll(TIMEOUT_SECONDS,
+                TimeUnit.SECONDS);
+        assertNotNull("no poll", poll);
+        return poll;
+    }
+
+    private static MonitoringInfo buildMonitoringInfo(long cpuUtilization) {
+        return new MonitoringInfoBuilder().setResourceUtilization(
+                new ResourceUtilizationBuilder().setCPUUtilization(cpuUtilization).build()).build();
+    }
+
+    /*
+     * Hands out the RPC of each poll and records the writes.
+     */
+    private static final class FakeServiceFunctionAPI extends SfcNetconfServiceFunctionAPI {
+        private final BlockingQueue<SettableFuture<MonitoringInfo>> polls = new LinkedBlockingQueue<>();
+        private final BlockingQueue<MonitoringInfo> writes = new LinkedBlockingQueue<>();
+        private volatile boolean writeResult = true;
+
+        FakeServiceFunctionAPI() {
+            super(null);
+        }
+
+        @Override
+        public ListenableFuture<MonitoringInfo> getServiceFunctionMonitorAsync(String sfName) {
+            SettableFuture<MonitoringInfo> poll = SettableFuture.create();
+            polls.add(poll);
+            return poll;
+        }
+
+        @Override
+        public ListenableFuture<Boolean> putServiceFunctionMonitorAsync(MonitoringInfo monInfo, SfName sfName) {
+            writes.add(monInfo);
+            return Futures.immediateFuture(writeResult);
+        }
+    }
+}
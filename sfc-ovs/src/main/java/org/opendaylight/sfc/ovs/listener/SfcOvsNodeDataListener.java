@@ -24,6 +24,7 @@ import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.MoreExecutors;
 
 import javax.annotation.Nonnull;
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 
@@ -32,6 +33,7 @@ import org.opendaylight.controller.md.sal.binding.api.ReadTransaction;
 import org.opendaylight.controller.md.sal.common.api.data.LogicalDatastoreType;
 import org.opendaylight.ovsdb.southbound.SouthboundConstants;
 import org.opendaylight.serviceutils.tools.mdsal.listener.AbstractSyncDataTreeChangeListener;
+import org.opendaylight.sfc.ovs.provider.SfcOvsTopologyIndex;
 import org.opendaylight.sfc.ovs.provider.SfcOvsUtil;
 import org.opendaylight.sfc.provider.api.SfcDataStoreAPI;
 import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sff.ovs.rev140701.SffOvsBridgeAugmentation;
@@ -64,11 +66,20 @@ public class SfcOvsNodeDataListener extends AbstractSyncDataTreeChangeListener<N
                 .child(Topology.class, new TopologyKey(SouthboundConstants.OVSDB_TOPOLOGY_ID))
                 .child(Node.class));
         this.dataBroker = dataBroker;
+        SfcOvsTopologyIndex.start();
+    }
+
+    @Override
+    @PreDestroy
+    public void close() {
+        super.close();
+        SfcOvsTopologyIndex.stop();
     }
 
     @Override
     public void add(@Nonnull InstanceIdentifier<Node> instanceIdentifier, @Nonnull Node node) {
         LOG.debug("Created OVS Node: {}", node.toString());
+        SfcOvsTopologyIndex.updateNode(node);
 
         /*
          * NODE CREATION When user puts SFF into config DS, reading from
@@ -108,6 +119,8 @@ public class SfcOvsNodeDataListener extends AbstractSyncDataTreeChangeListener<N
 
     @Override
     public void remove(@Nonnull InstanceIdentifier<Node> instanceIdentifier, @Nonnull Node node) {
+        SfcOvsTopologyIndex.removeNode(node);
+
         /*
          * NODE UPDATE and NODE DELETE This case would mean, that user has
          * modified vSwitch state directly by ovs command, which is not handled
@@ -126,6 +139,7 @@ public class SfcOvsNodeDataListener extends AbstractSyncDataTreeChangeListener<N
 
         /* When a new bridge is modified, and the DPID is set, add it to the corresponding SFF, if there is one */
         LOG.debug("SfcOvsNodeDataListener::update()");
+        SfcOvsTopologyIndex.updateNode(updatedNode);
         OvsdbBridgeAugmentation ovsdbBridgeAugmentation = updatedNode.augmentation(OvsdbBridgeAugmentation.class);
         if (ovsdbBridgeAugmentation != null) {
             if (ovsdbBridgeAugmentation.getBridgeName() != null && ovsdbBridgeAugmentation.getDatapathId() != null) {
@@ -0,0 +1,356 @@
+/*
+ * Copyright (c) 2018 Ericsson Inc. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.sfc.ovs.provider;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import org.opendaylight.controller.md.sal.common.api.data.LogicalDatastoreType;
+import org.opendaylight.sfc.provider.api.SfcDataStoreAPI;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.inet.types.rev130715.IpAddress;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.params.xml.ns.yang.ovsdb.rev150105.DatapathTypeNetdev;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.params.xml.ns.yang.ovsdb.rev150105.InterfaceTypeDpdk;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.params.xml.ns.yang.ovsdb.rev150105.OvsdbBridgeAugmentation;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.params.xml.ns.yang.ovsdb.rev150105.OvsdbNodeAugmentation;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.params.xml.ns.yang.ovsdb.rev150105.OvsdbTerminationPointAugmentation;
+import org.opendaylight.yang.gen.v1.urn.tbd.params.xml.ns.yang.network.topology.rev131021.NodeId;
+import org.opendaylight.yang.gen.v1.urn.tbd.params.xml.ns.yang.network.topology.rev131021.network.topology.Topology;
+import org.opendaylight.yang.gen.v1.urn.tbd.params.xml.ns.yang.network.topology.rev131021.network.topology.topology.Node;
+import org.opendaylight.yang.gen.v1.urn.tbd.params.xml.ns.yang.network.topology.rev131021.network.topology.topology.node.TerminationPoint;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class holds an in-memory view of the OVSDB operational topology,
+ * indexed for the {@link SfcOvsUtil} lookups: nodes by node id (which for a
+ * bridge is built from its manager node id and bridge name), manager nodes
+ * by connection IP and bridges by OpenFlow node id, along with the OpenFlow
+ * ports of each bridge by port name and termination point id.
+ *
+ * <p>
+ * The index is only used while the OVSDB node listener is running, which
+ * keeps it updated incrementally. It is seeded from the data store on the
+ * first lookup; nodes already updated by the listener at that time are not
+ * overwritten by the seed.
+ */
+public final class SfcOvsTopologyIndex {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SfcOvsTopologyIndex.class);
+
+    private static final Object LOCK = new Object();
+
+    /* Guarded by LOCK */
+    private static final Map<NodeId, Node> NODES = new HashMap<>();
+    private static final Map<String, Set<NodeId>> MANAGERS_BY_IP = new HashMap<>();
+    private static final Map<String, Set<NodeId>> BRIDGES_BY_OPENFLOW_NODE = new HashMap<>();
+    private static final Map<NodeId, BridgePorts> BRIDGE_PORTS = new HashMap<>();
+    private static final Set<NodeId> UPDATED_NODES = new HashSet<>();
+    private static boolean started = false;
+    private static boolean seeded = false;
+
+    private SfcOvsTopologyIndex() {
+    }
+
+    /**
+     * Start using the index, the caller is then responsible for keeping it
+     * updated.
+     */
+    public static void start() {
+        synchronized (LOCK) {
+            clearIndex();
+            started = true;
+        }
+    }
+
+    /**
+     * Stop using the index and drop its data, lookups go back to the data
+     * store.
+     */
+    public static void stop() {
+        synchronized (LOCK) {
+            clearIndex();
+            started = false;
+        }
+    }
+
+    /**
+     * Check whether the lookups should be answered by the index.
+     *
+     * @return True if started, otherwise false
+     */
+    public static boolean isStarted() {
+        synchronized (LOCK) {
+            return started;
+        }
+    }
+
+    /**
+     * Add or update an OVSDB topology node.
+     *
+     * @param node
+     *            the topology node
+     */
+    public static void updateNode(Node node) {
+        synchronized (LOCK) {
+            if (started) {
+                UPDATED_NODES.add(node.getNodeId());
+                putNode(node);
+            }
+        }
+    }
+
+    /**
+     * Remove an OVSDB topology node.
+     *
+     * @param node
+     *            the topology node
+     */
+    public static void removeNode(Node node) {
+        synchronized (LOCK) {
+            if (started) {
+                UPDATED_NODES.add(node.getNodeId());
+                deleteNode(node.getNodeId());
+            }
+        }
+    }
+
+    /**
+     * Seed the index with the topology read from the data store. Nodes
+     * already updated by the listener are not overwritten.
+     *
+     * @param topology
+     *            the OVSDB topology, may be null
+     */
+    public static void seed(Topology topology) {
+        synchronized (LOCK) {
+            if (!started || seeded) {
+                return;
+            }
+            if (topology != null && topology.getNode() != null) {
+                for (Node node : topology.getNode()) {
+                    if (!UPDATED_NODES.contains(node.getNodeId())) {
+                        putNode(node);
+                    }
+                }
+            }
+            seeded = true;
+            LOG.debug("seed: {} OVSDB nodes, {} bridges", NODES.size(), BRIDGE_PORTS.size());
+        }
+    }
+
+    /**
+     * Get a node by its node id.
+     *
+     * @param nodeId
+     *            the node id
+     * @return the node or null if it does not exist
+     */
+    public static Node getNode(NodeId nodeId) {
+        ensureSeeded();
+        synchronized (LOCK) {
+            return NODES.get(nodeId);
+        }
+    }
+
+    /**
+     * Get the OVSDB manager node connected from the given IP address.
+     *
+     * @param ipAddress
+     *            the connection remote IP, as a string
+     * @return the node or null if it does not exist
+     */
+    public static Node getManagerNodeByIp(String ipAddress) {
+        ensureSeeded();
+        synchronized (LOCK) {
+            Set<NodeId> nodeIds = MANAGERS_BY_IP.get(ipAddress);
+            return nodeIds == null ? null : NODES.get(nodeIds.iterator().next());
+        }
+    }
+
+    /**
+     * Get the OpenFlow port of a port of an OpenFlow node.
+     *
+     * @param openflowNodeId
+     *            the OpenFlow node id of the bridge
+     * @param portName
+     *            the port name
+     * @return the port number or null if it does not exist
+     */
+    public static Long getOfPortByName(String openflowNodeId, String portName) {
+        return getBridgePort(openflowNodeId, bridgePorts -> bridgePorts.ofPortsByName.get(portName));
+    }
+
+    /**
+     * Get the OpenFlow port of the VXLAN port of an OpenFlow node.
+     *
+     * @param openflowNodeId
+     *            the OpenFlow node id of the bridge
+     * @return the port number or null if it does not exist
+     */
+    public static Long getVxlanOfPort(String openflowNodeId) {
+        return getBridgePort(openflowNodeId, bridgePorts -> bridgePorts.vxlanOfPort);
+    }
+
+    /**
+     * Get the OpenFlow port of the VXLAN-GPE port of an OpenFlow node.
+     *
+     * @param openflowNodeId
+     *            the OpenFlow node id of the bridge
+     * @return the port number or null if it does not exist
+     */
+    public static Long getVxlanGpeOfPort(String openflowNodeId) {
+        return getBridgePort(openflowNodeId, bridgePorts -> bridgePorts.vxlanGpeOfPort);
+    }
+
+    /**
+     * Get the OpenFlow port of a DPDK port of a netdev OpenFlow node.
+     *
+     * @param openflowNodeId
+     *            the OpenFlow node id of the bridge
+     * @param tpId
+     *            the termination point id of the DPDK port
+     * @return the port number or null if it does not exist
+     */
+    public static Long getDpdkOfPort(String openflowNodeId, String tpId) {
+        return getBridgePort(openflowNodeId, bridgePorts -> {
+            if (!bridgePorts.netdev) {
+                return null;
+            }
+            OvsdbTerminationPointAugmentation otp = bridgePorts.portsByTpId.get(tpId);
+            return otp != null && InterfaceTypeDpdk.class.equals(otp.getInterfaceType()) ? otp.getOfport() : null;
+        });
+    }
+
+    private static Long getBridgePort(String openflowNodeId, Function<BridgePorts, Long> getter) {
+        ensureSeeded();
+        synchronized (LOCK) {
+            for (NodeId nodeId : BRIDGES_BY_OPENFLOW_NODE.getOrDefault(openflowNodeId, Collections.emptySet())) {
+                Long ofPort = getter.apply(BRIDGE_PORTS.get(nodeId));
+                if (ofPort != null) {
+                    return ofPort;
+                }
+            }
+            return null;
+        }
+    }
+
+    private static void ensureSeeded() {
+        synchronized (LOCK) {
+            if (!started || seeded) {
+                return;
+            }
+        }
+        // read outside the lock, the listener updates received meanwhile win over the seed
+        seed(SfcDataStoreAPI.readTransactionAPI(SfcOvsUtil.buildOvsdbTopologyIID(), LogicalDatastoreType.OPERATIONAL));
+    }
+
+    private static void clearIndex() {
+        NODES.clear();
+        MANAGERS_BY_IP.clear();
+        BRIDGES_BY_OPENFLOW_NODE.clear();
+        BRIDGE_PORTS.clear();
+        UPDATED_NODES.clear();
+        seeded = false;
+    }
+
+    private static void putNode(Node node) {
+        NodeId nodeId = node.getNodeId();
+        deleteNode(nodeId);
+        NODES.put(nodeId, node);
+
+        String managerIp = getManagerIp(node);
+        if (managerIp != null) {
+            MANAGERS_BY_IP.computeIfAbsent(managerIp, ip -> new LinkedHashSet<>()).add(nodeId);
+        }
+
+        OvsdbBridgeAugmentation ovsdbBridge = node.augmentation(OvsdbBridgeAugmentation.class);
+        if (ovsdbBridge != null && ovsdbBridge.getDatapathId() != null) {
+            String openflowNodeId = SfcOvsUtil.getOpenflowNodeIdFromDpid(ovsdbBridge.getDatapathId().getValue());
+            BRIDGES_BY_OPENFLOW_NODE.computeIfAbsent(openflowNodeId, id -> new LinkedHashSet<>()).add(nodeId);
+            BRIDGE_PORTS.put(nodeId, new BridgePorts(openflowNodeId, ovsdbBridge, node.getTerminationPoint()));
+        }
+    }
+
+    private static void deleteNode(NodeId nodeId) {
+        Node node = NODES.remove(nodeId);
+        if (node == null) {
+            return;
+        }
+        String managerIp = getManagerIp(node);
+        if (managerIp != null) {
+            removeFromIndex(MANAGERS_BY_IP, managerIp, nodeId);
+        }
+        BridgePorts bridgePorts = BRIDGE_PORTS.remove(nodeId);
+        if (bridgePorts != null) {
+            removeFromIndex(BRIDGES_BY_OPENFLOW_NODE, bridgePorts.openflowNodeId, nodeId);
+        }
+    }
+
+    private static void removeFromIndex(Map<String, Set<NodeId>> index, String key, NodeId nodeId) {
+        Set<NodeId> nodeIds = index.get(key);
+        if (nodeIds != null && nodeIds.remove(nodeId) && nodeIds.isEmpty()) {
+            index.remove(key);
+        }
+    }
+
+    private static String getManagerIp(Node node) {
+        OvsdbNodeAugmentation ovsdbNode = node.augmentation(OvsdbNodeAugmentation.class);
+        if (ovsdbNode == null || ovsdbNode.getConnectionInfo() == null) {
+            return null;
+        }
+        IpAddress remoteIp = ovsdbNode.getConnectionInfo().getRemoteIp();
+        if (remoteIp == null) {
+            return null;
+        }
+        if (remoteIp.getIpv4Address() != null) {
+            return remoteIp.getIpv4Address().getValue();
+        }
+        return remoteIp.getIpv6Address() != null ? remoteIp.getIpv6Address().getValue() : null;
+    }
+
+    private static final class BridgePorts {
+        private final String openflowNodeId;
+        private final boolean netdev;
+        private final Map<String, Long> ofPortsByName = new HashMap<>();
+        private final Map<String, OvsdbTerminationPointAugmentation> portsByTpId = new HashMap<>();
+        private Long vxlanOfPort;
+        private Long vxlanGpeOfPort;
+
+        BridgePorts(String openflowNodeId, OvsdbBridgeAugmentation ovsdbBridge,
+                Collection<TerminationPoint> terminationPoints) {
+            this.openflowNodeId = openflowNodeId;
+            this.netdev = DatapathTypeNetdev.class.equals(ovsdbBridge.getDatapathType());
+            if (terminationPoints == null) {
+                return;
+            }
+            // the first matching port wins, as with the scan of the topology
+            for (TerminationPoint tp : terminationPoints) {
+                OvsdbTerminationPointAugmentation otp = tp.augmentation(OvsdbTerminationPointAugmentation.class);
+                portsByTpId.putIfAbsent(tp.getTpId().getValue(), otp);
+                if (otp == null || otp.getOfport() == null) {
+                    continue;
+                }
+                if (otp.getName() != null) {
+                    ofPortsByName.putIfAbsent(otp.getName(), otp.getOfport());
+                }
+                if (vxlanOfPort == null && SfcOvsUtil.isVxlanPort(otp)) {
+                    vxlanOfPort = otp.getOfport();
+                }
+                if (vxlanGpeOfPort == null && SfcOvsUtil.isVxlanGpePort(otp)) {
+                    vxlanGpeOfPort = otp.getOfport();
+                }
+            }
+        }
+    }
+}
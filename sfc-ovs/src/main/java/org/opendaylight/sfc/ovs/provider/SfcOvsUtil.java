@@ -586,6 +586,17 @@ public final class SfcOvsUtil {
     }
 
     private static DatapathId getOvsDataPathId(NodeId nodeId) {
+        if (SfcOvsTopologyIndex.isStarted()) {
+            Node bridgeNode = SfcOvsTopologyIndex.getNode(nodeId);
+            OvsdbBridgeAugmentation bridge = bridgeNode == null ? null
+                    : bridgeNode.augmentation(OvsdbBridgeAugmentation.class);
+            if (bridge == null) {
+                LOG.warn("getOvsDataPathId cant find bridge {} in the topology", nodeId.getValue());
+                return null;
+            }
+            return bridge.getDatapathId();
+        }
+
         Object[] methodParams = { SfcOvsUtil.buildOvsdbBridgeIID(nodeId) };
         SfcOvsDataStoreAPI readOvsdbBridge = new SfcOvsDataStoreAPI(SfcOvsDataStoreAPI.Method.READ_OVSDB_BRIDGE,
                 methodParams);
@@ -624,9 +635,14 @@ public final class SfcOvsUtil {
             ipAddressString = ip.getIpv6Address().getValue();
         }
         Object[] methodParams = { ipAddressString };
-        SfcOvsDataStoreAPI sfcOvsDataStoreAPI = new SfcOvsDataStoreAPI(SfcOvsDataStoreAPI.Method.READ_OVSDB_NODE_BY_IP,
-                methodParams);
-        Node node = (Node) SfcOvsUtil.submitCallable(sfcOvsDataStoreAPI, executor);
+        Node node;
+        if (SfcOvsTopologyIndex.isStarted()) {
+            node = SfcOvsTopologyIndex.getManagerNodeByIp(ipAddressString);
+        } else {
+            SfcOvsDataStoreAPI sfcOvsDataStoreAPI = new SfcOvsDataStoreAPI(
+                    SfcOvsDataStoreAPI.Method.READ_OVSDB_NODE_BY_IP, methodParams);
+            node = (Node) SfcOvsUtil.submitCallable(sfcOvsDataStoreAPI, executor);
+        }
 
         if (node != null && node.getNodeId() != null) {
             return node;
@@ -708,6 +724,9 @@ public final class SfcOvsUtil {
      * @return port number
      */
     public static Long getOfPortByName(String nodeName, String portName) {
+        if (SfcOvsTopologyIndex.isStarted()) {
+            return SfcOvsTopologyIndex.getOfPortByName(nodeName, portName);
+        }
         return getOvsPort(nodeName, otp -> {
             if (otp == null) {
                 return false;
@@ -725,21 +744,21 @@ public final class SfcOvsUtil {
      * @return port number
      */
     public static Long getVxlanOfPort(String nodeName) {
-        class VxlanPortCompare implements OvsdbTPComp {
-            @Override
-            public boolean compare(OvsdbTerminationPointAugmentation otp) {
-                if (otp == null) {
-                    return false;
-                }
+        if (SfcOvsTopologyIndex.isStarted()) {
+            return SfcOvsTopologyIndex.getVxlanOfPort(nodeName);
+        }
+        return getOvsPort(nodeName, SfcOvsUtil::isVxlanPort);
+    }
 
-                if (otp.getInterfaceType() == InterfaceTypeVxlan.class) {
-                    return true;
-                }
-                return false;
-            }
+    static boolean isVxlanPort(OvsdbTerminationPointAugmentation otp) {
+        if (otp == null) {
+            return false;
         }
 
-        return getOvsPort(nodeName, new VxlanPortCompare());
+        if (otp.getInterfaceType() == InterfaceTypeVxlan.class) {
+            return true;
+        }
+        return false;
     }
 
     /**
@@ -750,35 +769,35 @@ public final class SfcOvsUtil {
      * @return port number
      */
     public static Long getVxlanGpeOfPort(String nodeName) {
-        class VxlanGpePortCompare implements OvsdbTPComp {
-            @Override
-            public boolean compare(OvsdbTerminationPointAugmentation otp) {
-                if (otp == null) {
-                    return false;
-                }
+        if (SfcOvsTopologyIndex.isStarted()) {
+            return SfcOvsTopologyIndex.getVxlanGpeOfPort(nodeName);
+        }
+        return getOvsPort(nodeName, SfcOvsUtil::isVxlanGpePort);
+    }
 
-                if (otp.getInterfaceType() == InterfaceTypeVxlanGpe.class) {
-                    return true;
-                }
+    static boolean isVxlanGpePort(OvsdbTerminationPointAugmentation otp) {
+        if (otp == null) {
+            return false;
+        }
 
-                // If the interface type is not VxlanGpe, then it may be Vxlan
-                // with the option exts=gpe set
-                List<Options> options = otp.getOptions();
-                if (options != null) {
-                    for (Options option : options) {
-                        if (option.getValue() != null && option.getOption() != null
-                                && option.getOption().equals(OVSDB_OPTION_EXTS)
-                                && option.getValue().equals(OVSDB_OPTION_GPE)) {
-                            return true;
-                        }
-                    }
-                }
+        if (otp.getInterfaceType() == InterfaceTypeVxlanGpe.class) {
+            return true;
+        }
 
-                return false;
+        // If the interface type is not VxlanGpe, then it may be Vxlan
+        // with the option exts=gpe set
+        List<Options> options = otp.getOptions();
+        if (options != null) {
+            for (Options option : options) {
+                if (option.getValue() != null && option.getOption() != null
+                        && option.getOption().equals(OVSDB_OPTION_EXTS)
+                        && option.getValue().equals(OVSDB_OPTION_GPE)) {
+                    return true;
+                }
             }
         }
 
-        return getOvsPort(nodeName, new VxlanGpePortCompare());
+        return false;
     }
 
     /**
@@ -803,6 +822,10 @@ public final class SfcOvsUtil {
             localDpdkPortName = "dpdk0";
         }
 
+        if (SfcOvsTopologyIndex.isStarted()) {
+            return SfcOvsTopologyIndex.getDpdkOfPort(nodeName, localDpdkPortName);
+        }
+
         InstanceIdentifier<Topology> topoIID = buildOvsdbTopologyIID();
 
         Topology topo = SfcDataStoreAPI.readTransactionAPI(topoIID, LogicalDatastoreType.OPERATIONAL);
@@ -0,0 +1,244 @@
+/*
+ * Copyright (c) 2018 Ericsson Inc. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.sfc.ovs.provider;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.opendaylight.controller.md.sal.common.api.data.LogicalDatastoreType;
+import org.opendaylight.ovsdb.southbound.SouthboundConstants;
+import org.opendaylight.sfc.ovs.AbstractDataStoreManager;
+import org.opendaylight.sfc.provider.api.SfcDataStoreAPI;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.common.rev151017.SffDataPlaneLocatorName;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.common.rev151017.SffName;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sff.ovs.rev140701.SffOvsBridgeAugmentation;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sff.ovs.rev140701.SffOvsBridgeAugmentationBuilder;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sff.ovs.rev140701.bridge.OvsBridgeBuilder;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sff.rev140701.service.function.forwarder.base.SffDataPlaneLocatorBuilder;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sff.rev140701.service.function.forwarder.base.sff.data.plane.locator.DataPlaneLocatorBuilder;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sff.rev140701.service.function.forwarders.ServiceFunctionForwarder;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sff.rev140701.service.function.forwarders.ServiceFunctionForwarderBuilder;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sl.rev140701.VxlanGpe;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sl.rev140701.data.plane.locator.locator.type.IpBuilder;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.inet.types.rev130715.IpAddress;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.inet.types.rev130715.Ipv4Address;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.params.xml.ns.yang.ovsdb.rev150105.DatapathId;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.params.xml.ns.yang.ovsdb.rev150105.DatapathTypeNetdev;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.params.xml.ns.yang.ovsdb.rev150105.DatapathTypeSystem;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.params.xml.ns.yang.ovsdb.rev150105.InterfaceTypeBase;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.params.xml.ns.yang.ovsdb.rev150105.InterfaceTypeDpdk;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.params.xml.ns.yang.ovsdb.rev150105.InterfaceTypeInternal;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.params.xml.ns.yang.ovsdb.rev150105.InterfaceTypeVxlan;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.params.xml.ns.yang.ovsdb.rev150105.OvsdbBridgeAugmentation;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.params.xml.ns.yang.ovsdb.rev150105.OvsdbBridgeAugmentationBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.params.xml.ns.yang.ovsdb.rev150105.OvsdbBridgeName;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.params.xml.ns.yang.ovsdb.rev150105.OvsdbNodeAugmentation;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.params.xml.ns.yang.ovsdb.rev150105.OvsdbNodeAugmentationBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.params.xml.ns.yang.ovsdb.rev150105.OvsdbNodeRef;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.params.xml.ns.yang.ovsdb.rev150105.OvsdbTerminationPointAugmentation;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.params.xml.ns.yang.ovsdb.rev150105.OvsdbTerminationPointAugmentationBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.params.xml.ns.yang.ovsdb.rev150105.ovsdb.node.attributes.ConnectionInfoBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.params.xml.ns.yang.ovsdb.rev150105.ovsdb.port._interface.attributes.OptionsBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.params.xml.ns.yang.ovsdb.rev150105.ovsdb.port._interface.attributes.OptionsKey;
+import org.opendaylight.yang.gen.v1.urn.tbd.params.xml.ns.yang.network.topology.rev131021.NodeId;
+import org.opendaylight.yang.gen.v1.urn.tbd.params.xml.ns.yang.network.topology.rev131021.TpId;
+import org.opendaylight.yang.gen.v1.urn.tbd.params.xml.ns.yang.network.topology.rev131021.network.topology.Topology;
+import org.opendaylight.yang.gen.v1.urn.tbd.params.xml.ns.yang.network.topology.rev131021.network.topology.TopologyBuilder;
+import org.opendaylight.yang.gen.v1.urn.tbd.params.xml.ns.yang.network.topology.rev131021.network.topology.topology.Node;
+import org.opendaylight.yang.gen.v1.urn.tbd.params.xml.ns.yang.network.topology.rev131021.network.topology.topology.NodeBuilder;
+import org.opendaylight.yang.gen.v1.urn.tbd.params.xml.ns.yang.network.topology.rev131021.network.topology.topology.NodeKey;
+import org.opendaylight.yang.gen.v1.urn.tbd.params.xml.ns.yang.network.topology.rev131021.network.topology.topology.node.TerminationPoint;
+import org.opendaylight.yang.gen.v1.urn.tbd.params.xml.ns.yang.network.topology.rev131021.network.topology.topology.node.TerminationPointBuilder;
+import org.opendaylight.yang.gen.v1.urn.tbd.params.xml.ns.yang.network.topology.rev131021.network.topology.topology.node.TerminationPointKey;
+
+/**
+ * Tests the OVSDB topology index against the scans of the topology done by
+ * SfcOvsUtil when the index is not used, over a synthetic topology of 5000
+ * nodes: 2500 OVSDB managers with one bridge each.
+ */
+public class SfcOvsTopologyIndexTest extends AbstractDataStoreManager {
+
+    private static final int MANAGER_COUNT = 2500;
+    // a sample of the managers is looked up, the scans read the whole topology
+    private static final int SAMPLE_STEP = 50;
+    private static final String BRIDGE_NAME = "br-sfc";
+
+    @Before
+    public void init() {
+        setupSfc();
+        List<Node> nodes = new ArrayList<>();
+        for (int i = 0; i < MANAGER_COUNT; i++) {
+            nodes.add(buildManagerNode(i));
+            nodes.add(buildBridgeNode(i, i + 1L));
+        }
+        Topology topology = new TopologyBuilder().setTopologyId(SouthboundConstants.OVSDB_TOPOLOGY_ID)
+                .setNode(nodes).build();
+        assertTrue(SfcDataStoreAPI.writePutTransactionAPI(SfcOvsUtil.buildOvsdbTopologyIID(), topology,
+                LogicalDatastoreType.OPERATIONAL));
+    }
+
+    @After
+    public void after() throws Exception {
+        SfcOvsTopologyIndex.stop();
+        SfcDataStoreAPI.deleteTransactionAPI(SfcOvsUtil.buildOvsdbTopologyIID(), LogicalDatastoreType.OPERATIONAL);
+        close();
+    }
+
+    @Test
+    public void testLookupsMatchTopologyScan() {
+        List<Supplier<Object>> lookups = new ArrayList<>();
+        for (int i = 0; i < MANAGER_COUNT; i += SAMPLE_STEP) {
+            final int index = i;
+            String ofNodeId = getOpenflowNodeId(i + 1L);
+            lookups.add(() -> SfcOvsUtil.getManagerNodeByIp(getManagerIp(index)));
+            lookups.add(() -> SfcOvsUtil.lookupTopologyNode(buildSff(index)));
+            lookups.add(() -> SfcOvsUtil.getOpenFlowNodeIdForSff(buildSff(index)));
+            lookups.add(() -> SfcOvsUtil.getOfPortByName(ofNodeId, "tap-" + index));
+            lookups.add(() -> SfcOvsUtil.getVxlanOfPort(ofNodeId));
+            lookups.add(() -> SfcOvsUtil.getVxlanGpeOfPort(ofNodeId));
+            lookups.add(() -> SfcOvsUtil.getDpdkOfPort(ofNodeId, null));
+        }
+        // unknown keys
+        lookups.add(() -> SfcOvsUtil.getManagerNodeByIp(new IpAddress(new Ipv4Address("192.168.0.1"))));
+        lookups.add(() -> SfcOvsUtil.getOfPortByName(getOpenflowNodeId(1L), "unknown"));
+        lookups.add(() -> SfcOvsUtil.getVxlanOfPort("openflow:0"));
+
+        assertFalse(SfcOvsTopologyIndex.isStarted());
+        List<Object> scanResults = new ArrayList<>();
+        for (Supplier<Object> lookup : lookups) {
+            scanResults.add(lookup.get());
+        }
+
+        SfcOvsTopologyIndex.start();
+        List<Object> indexResults = new ArrayList<>();
+        for (Supplier<Object> lookup : lookups) {
+            indexResults.add(lookup.get());
+        }
+
+        assertEquals(scanResults, indexResults);
+        assertNotNull(indexResults.get(0));
+        assertEquals(Long.valueOf(4L), indexResults.get(3));
+    }
+
+    @Test
+    public void testListenerUpdates() {
+        SfcOvsTopologyIndex.start();
+        String ofNodeId = getOpenflowNodeId(1L);
+        assertEquals(Long.valueOf(2L), SfcOvsUtil.getVxlanOfPort(ofNodeId));
+
+        // the bridge gets a new datapath id
+        Node bridgeNode = buildBridgeNode(0, 100000L);
+        SfcOvsTopologyIndex.updateNode(bridgeNode);
+        assertNull(SfcOvsUtil.getVxlanOfPort(ofNodeId));
+        assertEquals(Long.valueOf(2L), SfcOvsUtil.getVxlanOfPort(getOpenflowNodeId(100000L)));
+
+        SfcOvsTopologyIndex.removeNode(bridgeNode);
+        assertNull(SfcOvsUtil.getVxlanOfPort(getOpenflowNodeId(100000L)));
+
+        SfcOvsTopologyIndex.removeNode(buildManagerNode(0));
+        assertNull(SfcOvsUtil.getManagerNodeByIp(getManagerIp(0)));
+        assertNotNull(SfcOvsUtil.getManagerNodeByIp(getManagerIp(1)));
+
+        // updates received before the seed are not overwritten by it
+        SfcOvsTopologyIndex.stop();
+        SfcOvsTopologyIndex.start();
+        SfcOvsTopologyIndex.removeNode(buildManagerNode(1));
+        assertNull(SfcOvsUtil.getManagerNodeByIp(getManagerIp(1)));
+        assertNotNull(SfcOvsUtil.getManagerNodeByIp(getManagerIp(2)));
+    }
+
+    private static IpAddress getManagerIp(int index) {
+        return new IpAddress(new Ipv4Address("10.0." + index / 256 + "." + index % 256));
+    }
+
+    private static NodeId getManagerNodeId(int index) {
+        return new NodeId("ovsdb://uuid/manager-" + index);
+    }
+
+    private static String getOpenflowNodeId(long dpid) {
+        return "openflow:" + dpid;
+    }
+
+    private static Node buildManagerNode(int index) {
+        OvsdbNodeAugmentation ovsdbNode = new OvsdbNodeAugmentationBuilder()
+                .setConnectionInfo(new ConnectionInfoBuilder().setRemoteIp(getManagerIp(index)).build())
+                .build();
+        return new NodeBuilder().setNodeId(getManagerNodeId(index)).withKey(new NodeKey(getManagerNodeId(index)))
+                .addAugmentation(OvsdbNodeAugmentation.class, ovsdbNode)
+                .build();
+    }
+
+    private static Node buildBridgeNode(int index, long dpid) {
+        NodeId bridgeNodeId = new NodeId(getManagerNodeId(index).getValue() + "/bridge/" + BRIDGE_NAME);
+        OvsdbBridgeAugmentation ovsdbBridge = new OvsdbBridgeAugmentationBuilder()
+                .setBridgeName(new OvsdbBridgeName(BRIDGE_NAME))
+                .setManagedBy(new OvsdbNodeRef(SfcOvsUtil.buildOvsdbNodeIID(getManagerNodeId(index))))
+                .setDatapathId(new DatapathId(String.format("00:00:%02x:%02x:%02x:%02x:%02x:%02x",
+                        dpid >> 40 & 0xff, dpid >> 32 & 0xff, dpid >> 24 & 0xff, dpid >> 16 & 0xff,
+                        dpid >> 8 & 0xff, dpid & 0xff)))
+                .setDatapathType(index % 2 == 0 ? DatapathTypeNetdev.class : DatapathTypeSystem.class)
+                .build();
+
+        List<TerminationPoint> terminationPoints = new ArrayList<>();
+        terminationPoints.add(buildTerminationPoint("dpdk0", InterfaceTypeDpdk.class, 1L, false));
+        terminationPoints.add(buildTerminationPoint("vxlan-" + index, InterfaceTypeVxlan.class, 2L, false));
+        terminationPoints.add(buildTerminationPoint("vxlangpe-" + index, InterfaceTypeVxlan.class, 3L, true));
+        terminationPoints.add(buildTerminationPoint("tap-" + index, InterfaceTypeInternal.class, 4L, false));
+
+        return new NodeBuilder().setNodeId(bridgeNodeId).withKey(new NodeKey(bridgeNodeId))
+                .addAugmentation(OvsdbBridgeAugmentation.class, ovsdbBridge)
+                .setTerminationPoint(terminationPoints)
+                .build();
+    }
+
+    private static TerminationPoint buildTerminationPoint(String name, Class<? extends InterfaceTypeBase> type,
+            long ofPort, boolean gpe) {
+        OvsdbTerminationPointAugmentationBuilder otpBuilder = new OvsdbTerminationPointAugmentationBuilder()
+                .setName(name)
+                .setInterfaceType(type)
+                .setOfport(ofPort);
+        if (gpe) {
+            otpBuilder.setOptions(Collections.singletonList(new OptionsBuilder()
+                    .withKey(new OptionsKey(SfcOvsUtil.OVSDB_OPTION_EXTS))
+                    .setOption(SfcOvsUtil.OVSDB_OPTION_EXTS)
+                    .setValue(SfcOvsUtil.OVSDB_OPTION_GPE)
+                    .build()));
+        }
+        return new TerminationPointBuilder().setTpId(new TpId(name)).withKey(new TerminationPointKey(new TpId(name)))
+                .addAugmentation(OvsdbTerminationPointAugmentation.class, otpBuilder.build())
+                .build();
+    }
+
+    private static ServiceFunctionForwarder buildSff(int index) {
+        SffDataPlaneLocatorName dplName = new SffDataPlaneLocatorName("dpl-" + index);
+        return new ServiceFunctionForwarderBuilder()
+                .setName(new SffName("SFF-" + index))
+                .setSffDataPlaneLocator(Collections.singletonList(new SffDataPlaneLocatorBuilder()
+                        .setName(dplName)
+                        .setDataPlaneLocator(new DataPlaneLocatorBuilder()
+                                .setTransport(VxlanGpe.class)
+                                .setLocatorType(new IpBuilder().setIp(getManagerIp(index)).build())
+                                .build())
+                        .build()))
+                .addAugmentation(SffOvsBridgeAugmentation.class, new SffOvsBridgeAugmentationBuilder()
+                        .setOvsBridge(new OvsBridgeBuilder().setBridgeName(BRIDGE_NAME).build())
+                        .build())
+                .build();
+    }
+}
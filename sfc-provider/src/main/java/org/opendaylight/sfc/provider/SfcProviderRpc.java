@@ -12,20 +12,34 @@ import static org.opendaylight.sfc.provider.SfcProviderDebug.printTraceStart;
 import static org.opendaylight.sfc.provider.SfcProviderDebug.printTraceStop;
 
 import com.google.common.base.Optional;
+import com.google.common.collect.Lists;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.MoreExecutors;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.stream.Collectors;
 import org.opendaylight.controller.md.sal.binding.api.DataBroker;
 import org.opendaylight.controller.md.sal.binding.api.ReadOnlyTransaction;
 import org.opendaylight.controller.md.sal.binding.api.WriteTransaction;
 import org.opendaylight.controller.md.sal.common.api.data.LogicalDatastoreType;
+import org.opendaylight.controller.md.sal.common.api.data.TransactionCommitFailedException;
 import org.opendaylight.infrautils.utils.concurrent.Executors;
 import org.opendaylight.sfc.provider.api.SfcDataStoreAPI;
+import org.opendaylight.sfc.provider.api.SfcDataStoreReadCache;
 import org.opendaylight.sfc.provider.api.SfcInstanceIdentifiers;
 import org.opendaylight.sfc.provider.api.SfcProviderRenderedPathAPI;
+import org.opendaylight.sfc.provider.api.SfcProviderServiceForwarderAPI;
+import org.opendaylight.sfc.provider.api.SfcProviderServiceFunctionAPI;
+import org.opendaylight.sfc.provider.api.SfcProviderServicePathAPI;
 import org.opendaylight.sfc.provider.api.SfcServicePathId;
 import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.service.path.id.rev150804.AllocatePathIdInput;
 import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.service.path.id.rev150804.AllocatePathIdOutput;
@@ -41,13 +55,23 @@ import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.service.path.id
 import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.service.path.id.rev150804.SetGenerationAlgorithmOutputBuilder;
 import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.common.rev151017.RspName;
 import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.common.rev151017.SfName;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.rsp.rev140701.CreateRenderedPathsInput;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.rsp.rev140701.CreateRenderedPathsOutput;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.rsp.rev140701.CreateRenderedPathsOutputBuilder;
 import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.rsp.rev140701.ReadRenderedServicePathFirstHopInput;
 import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.rsp.rev140701.ReadRenderedServicePathFirstHopOutput;
 import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.rsp.rev140701.ReadRenderedServicePathFirstHopOutputBuilder;
 import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.rsp.rev140701.RenderedServicePathService;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.rsp.rev140701.RenderedServicePaths;
 import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.rsp.rev140701.TraceRenderedServicePathInput;
 import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.rsp.rev140701.TraceRenderedServicePathOutput;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.rsp.rev140701.create.rendered.paths.input.RenderedPath;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.rsp.rev140701.create.rendered.paths.output.RenderedPathResult;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.rsp.rev140701.create.rendered.paths.output.RenderedPathResultBuilder;
 import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.rsp.rev140701.rendered.service.path.first.hop.info.RenderedServicePathFirstHop;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.rsp.rev140701.rendered.service.paths.RenderedServicePath;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.rsp.rev140701.rendered.service.paths.RenderedServicePathKey;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.rsp.rev140701.rendered.service.paths.rendered.service.path.RenderedServicePathHop;
 import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sf.rev140701.DeleteAllServiceFunctionInput;
 import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sf.rev140701.DeleteAllServiceFunctionOutput;
 import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sf.rev140701.DeleteServiceFunctionInput;
@@ -72,6 +96,8 @@ import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sfc.rev1407
 import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sfc.rev140701.ServiceFunctionChainService;
 import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sfc.rev140701.ServiceFunctionChains;
 import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sfc.rev140701.ServiceFunctionChainsBuilder;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sfp.rev140701.service.function.paths.ServiceFunctionPath;
+import org.opendaylight.yangtools.util.concurrent.SpecialExecutors;
 import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
 import org.opendaylight.yangtools.yang.common.RpcError.ErrorType;
 import org.opendaylight.yangtools.yang.common.RpcResult;
@@ -90,17 +116,33 @@ import org.slf4j.LoggerFactory;
  */
 
 public class SfcProviderRpc implements ServiceFunctionService, ServiceFunctionChainService, RenderedServicePathService,
-        ServicePathIdService {
+        ServicePathIdService, AutoCloseable {
 
     private static final Logger LOG = LoggerFactory.getLogger(SfcProviderRpc.class);
+
+    // Threads and queue size of the executor scheduling the SFs of bulk created RSPs
+    private static final int BULK_THREADS = Runtime.getRuntime().availableProcessors();
+    private static final int BULK_QUEUE_SIZE = 1000;
+
+    // Maximum number of RSPs written per transaction by bulk creation
+    private static final int BULK_TRANSACTION_SIZE = 1000;
+
     private final DataBroker dataBroker;
     private final ScheduledExecutorService executor =
             Executors.newSingleThreadScheduledExecutor("SfcProviderRpc", LOG);
+    private final ExecutorService bulkExecutor = SpecialExecutors.newBlockingBoundedCachedThreadPool(
+            BULK_THREADS, BULK_QUEUE_SIZE, "SfcProviderRpcBulk", SfcProviderRpc.class);
 
     public SfcProviderRpc(DataBroker dataBroker) {
         this.dataBroker = dataBroker;
     }
 
+    @Override
+    public void close() {
+        executor.shutdownNow();
+        bulkExecutor.shutdownNow();
+    }
+
     // This RPC call is Deprecated Fluorine, and will be removed in Neon.
     // This same operation can be performed with a simple RESTconf DELETE.
     @Deprecated
@@ -146,9 +188,11 @@ public class SfcProviderRpc implements ServiceFunctionService, ServiceFunctionCh
         WriteTransaction writeTx = dataBroker.newWriteOnlyTransaction();
         writeTx.merge(LogicalDatastoreType.CONFIGURATION, sfEntryIID, sf, true);
         printTraceStop(LOG);
-        return Futures.transform(writeTx.submit(), unused ->
-            RpcResultBuilder.<PutServiceFunctionOutput>success(new PutServiceFunctionOutputBuilder().build()).build(),
-            MoreExecutors.directExecutor());
+        return Futures.transform(writeTx.submit(), unused -> {
+            SfcDataStoreReadCache.SERVICE_FUNCTIONS.invalidate(sf.getName());
+            return RpcResultBuilder.<PutServiceFunctionOutput>success(new PutServiceFunctionOutputBuilder().build())
+                    .build();
+        }, MoreExecutors.directExecutor());
     }
 
     // This RPC call is Deprecated Fluorine, and will be removed in Neon.
@@ -254,6 +298,205 @@ public class SfcProviderRpc implements ServiceFunctionService, ServiceFunctionCh
         return Futures.immediateFuture(rpcResultBuilder.build());
     }
 
+    /**
+     * This method creates in bulk the Rendered Service Paths of a list of
+     * Service Function Paths. The Service Functions of all the paths are
+     * scheduled in parallel, then all the path ids are allocated at once and
+     * the paths are written in the operational and the configuration data
+     * stores, {@link #BULK_TRANSACTION_SIZE} paths per transaction.
+     *
+     * <p>
+     * @param input
+     *            RPC input including the Service Function Path names
+     * @return RPC output including the result of each path, in input order
+     */
+    @Override
+    public ListenableFuture<RpcResult<CreateRenderedPathsOutput>> createRenderedPaths(
+            CreateRenderedPathsInput input) {
+        printTraceStart(LOG);
+
+        if (dataBroker == null) {
+            return RpcResultBuilder.<CreateRenderedPathsOutput>failed()
+                    .withError(ErrorType.APPLICATION, "No data provider.").buildFuture();
+        }
+
+        List<BulkRenderedPath> bulkRenderedPaths = new ArrayList<>();
+        if (input.getRenderedPath() != null) {
+            input.getRenderedPath().forEach(renderedPath -> bulkRenderedPaths.add(new BulkRenderedPath(renderedPath)));
+        }
+        checkRenderedPathNames(bulkRenderedPaths);
+
+        // Schedule the SFs of all the paths in parallel
+        Set<SfName> oneChainOnlySfNames = new HashSet<>();
+        List<Future<?>> futures = new ArrayList<>(bulkRenderedPaths.size());
+        bulkRenderedPaths.stream().filter(bulkRenderedPath -> bulkRenderedPath.error == null)
+                .forEach(bulkRenderedPath ->
+                        futures.add(bulkExecutor.submit(() -> bulkRenderedPath.schedule(oneChainOnlySfNames))));
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            LOG.error("createRenderedPaths: Failed to schedule the Service Functions", e);
+            futures.forEach(future -> future.cancel(true));
+            return RpcResultBuilder.<CreateRenderedPathsOutput>failed()
+                    .withError(ErrorType.APPLICATION, "Failed to schedule the Service Functions", e).buildFuture();
+        }
+
+        allocatePathIds(bulkRenderedPaths);
+        allocateSymmetricPathIds(bulkRenderedPaths);
+
+        List<BulkRenderedPath> builtRenderedPaths = bulkRenderedPaths.stream()
+                .filter(bulkRenderedPath -> bulkRenderedPath.error == null).collect(Collectors.toList());
+        Lists.partition(builtRenderedPaths, BULK_TRANSACTION_SIZE).forEach(this::writeRenderedPaths);
+
+        // Release the SFs scheduled for the paths that could not be created
+        bulkRenderedPaths.stream()
+                .filter(bulkRenderedPath -> bulkRenderedPath.error != null
+                        && bulkRenderedPath.renderedServicePathHops != null)
+                .forEach(bulkRenderedPath -> SfcProviderRenderedPathAPI.releaseRenderedServicePathHops(
+                        bulkRenderedPath.serviceFunctionPath, bulkRenderedPath.renderedServicePathHops));
+
+        List<RenderedPathResult> renderedPathResults = new ArrayList<>(bulkRenderedPaths.size());
+        bulkRenderedPaths.forEach(bulkRenderedPath -> renderedPathResults.add(bulkRenderedPath.getResult()));
+        LOG.info("createRenderedPaths: Created {} of {} Rendered Service Paths", builtRenderedPaths.stream()
+                .filter(bulkRenderedPath -> bulkRenderedPath.error == null).count(), bulkRenderedPaths.size());
+
+        printTraceStop(LOG);
+        return RpcResultBuilder.success(new CreateRenderedPathsOutputBuilder()
+                .setRenderedPathResult(renderedPathResults).build()).buildFuture();
+    }
+
+    /*
+     * The names given to the paths must be unique within the request, and not
+     * be the names of existing RSPs: the RSPs would be overwritten.
+     */
+    private static void checkRenderedPathNames(List<BulkRenderedPath> bulkRenderedPaths) {
+        Set<RspName> rspNames = new HashSet<>();
+        for (BulkRenderedPath bulkRenderedPath : bulkRenderedPaths) {
+            RspName rspName = bulkRenderedPath.renderedPath.getName();
+            if (rspName == null || rspName.getValue().isEmpty()) {
+                continue;
+            }
+            if (!rspNames.add(rspName)) {
+                bulkRenderedPath.error = "Duplicate Rendered Service Path name " + rspName.getValue();
+            } else if (SfcProviderRenderedPathAPI.readRenderedServicePath(rspName,
+                    LogicalDatastoreType.CONFIGURATION) != null
+                    || SfcProviderRenderedPathAPI.readRenderedServicePath(rspName,
+                            LogicalDatastoreType.OPERATIONAL) != null) {
+                bulkRenderedPath.error = "Rendered Service Path " + rspName.getValue() + " already exists";
+            }
+        }
+    }
+
+    /*
+     * Path ids set in the SFPs are allocated one by one, all the others in a
+     * single step.
+     */
+    private static void allocatePathIds(List<BulkRenderedPath> bulkRenderedPaths) {
+        List<BulkRenderedPath> generatedPathIdPaths = new ArrayList<>();
+        for (BulkRenderedPath bulkRenderedPath : bulkRenderedPaths) {
+            if (bulkRenderedPath.error != null) {
+                continue;
+            }
+            Long sfpPathId = bulkRenderedPath.serviceFunctionPath.getPathId();
+            if (sfpPathId == null) {
+                generatedPathIdPaths.add(bulkRenderedPath);
+            } else if (SfcServicePathId.chechAndAllocatePathId(sfpPathId) == -1) {
+                bulkRenderedPath.error = "Failed to allocate path-id " + sfpPathId;
+            } else {
+                bulkRenderedPath.build(sfpPathId);
+            }
+        }
+
+        if (generatedPathIdPaths.isEmpty()) {
+            return;
+        }
+        List<Long> pathIds = SfcServicePathId.checkAndAllocatePathIds(generatedPathIdPaths.size());
+        for (int i = 0; i < generatedPathIdPaths.size(); i++) {
+            if (pathIds.isEmpty()) {
+                generatedPathIdPaths.get(i).error = "Failed to allocate path-id";
+            } else {
+                generatedPathIdPaths.get(i).build(pathIds.get(i));
+            }
+        }
+    }
+
+    private static void allocateSymmetricPathIds(List<BulkRenderedPath> bulkRenderedPaths) {
+        List<BulkRenderedPath> symmetricPaths = bulkRenderedPaths.stream()
+                .filter(bulkRenderedPath -> bulkRenderedPath.error == null && bulkRenderedPath.symmetric)
+                .collect(Collectors.toList());
+        if (symmetricPaths.isEmpty()) {
+            return;
+        }
+
+        List<Long> symmetricPathIds = SfcServicePathId.checkAndAllocateSymmetricPathIds(symmetricPaths.stream()
+                .map(bulkRenderedPath -> bulkRenderedPath.renderedServicePath.getPathId())
+                .collect(Collectors.toList()));
+        List<Long> unusedPathIds = new ArrayList<>();
+        for (int i = 0; i < symmetricPaths.size(); i++) {
+            BulkRenderedPath bulkRenderedPath = symmetricPaths.get(i);
+            if (symmetricPathIds.get(i) == -1) {
+                bulkRenderedPath.error = "Failed to allocate symmetric path-id";
+                unusedPathIds.add(bulkRenderedPath.renderedServicePath.getPathId());
+            } else {
+                bulkRenderedPath.buildReverse(symmetricPathIds.get(i));
+            }
+        }
+        if (!unusedPathIds.isEmpty()) {
+            SfcServicePathId.freePathIds(unusedPathIds);
+        }
+    }
+
+    /*
+     * The operational RSPs and state are written before the config RSPs, so
+     * that the RSP listener does not create them again.
+     */
+    private void writeRenderedPaths(List<BulkRenderedPath> bulkRenderedPaths) {
+        WriteTransaction operTx = dataBroker.newWriteOnlyTransaction();
+        WriteTransaction configTx = dataBroker.newWriteOnlyTransaction();
+        List<RspName> rspNames = new ArrayList<>();
+        List<Long> pathIds = new ArrayList<>();
+        for (BulkRenderedPath bulkRenderedPath : bulkRenderedPaths) {
+            for (RenderedServicePath renderedServicePath : bulkRenderedPath.getRenderedServicePaths()) {
+                InstanceIdentifier<RenderedServicePath> rspIID = InstanceIdentifier
+                        .builder(RenderedServicePaths.class)
+                        .child(RenderedServicePath.class, new RenderedServicePathKey(renderedServicePath.getName()))
+                        .build();
+                RenderedServicePath operRenderedServicePath = SfcProviderRenderedPathAPI
+                        .buildOperationalRenderedServicePath(bulkRenderedPath.serviceFunctionPath,
+                                renderedServicePath);
+                operTx.merge(LogicalDatastoreType.OPERATIONAL, rspIID, operRenderedServicePath, true);
+                SfcProviderServiceForwarderAPI.addPathToServiceForwarderState(operRenderedServicePath, operTx);
+                SfcProviderServiceFunctionAPI.addPathToServiceFunctionState(operRenderedServicePath, operTx);
+                SfcProviderServicePathAPI.addRenderedPathToServicePathState(
+                        bulkRenderedPath.serviceFunctionPath.getName(), renderedServicePath.getName(), operTx);
+                configTx.merge(LogicalDatastoreType.CONFIGURATION, rspIID, renderedServicePath, true);
+                rspNames.add(renderedServicePath.getName());
+                pathIds.add(renderedServicePath.getPathId());
+            }
+        }
+
+        try {
+            operTx.submit().checkedGet();
+        } catch (TransactionCommitFailedException e) {
+            LOG.error("writeRenderedPaths: Failed to write {} operational RSPs", rspNames.size(), e);
+            configTx.cancel();
+            SfcServicePathId.freePathIds(pathIds);
+            bulkRenderedPaths.forEach(bulkRenderedPath ->
+                    bulkRenderedPath.error = "Failed to write the operational RSP");
+            return;
+        }
+
+        try {
+            configTx.submit().checkedGet();
+        } catch (TransactionCommitFailedException e) {
+            LOG.error("writeRenderedPaths: Failed to write {} config RSPs", rspNames.size(), e);
+            SfcProviderRenderedPathAPI.deleteRenderedServicePathsAndStates(rspNames);
+            bulkRenderedPaths.forEach(bulkRenderedPath -> bulkRenderedPath.error = "Failed to write the config RSP");
+        }
+    }
+
     @Override
     public ListenableFuture<RpcResult<TraceRenderedServicePathOutput>> traceRenderedServicePath(
             TraceRenderedServicePathInput input) {
@@ -294,4 +537,74 @@ public class SfcProviderRpc implements ServiceFunctionService, ServiceFunctionCh
 
         return rpcResultBuilder.buildFuture();
     }
+
+    /*
+     * A Rendered Service Path being created in bulk.
+     */
+    private static final class BulkRenderedPath {
+        private final RenderedPath renderedPath;
+        private ServiceFunctionPath serviceFunctionPath;
+        private List<RenderedServicePathHop> renderedServicePathHops;
+        private boolean symmetric;
+        private RenderedServicePath renderedServicePath;
+        private RenderedServicePath reverseRenderedServicePath;
+        private String error;
+
+        BulkRenderedPath(RenderedPath renderedPath) {
+            this.renderedPath = renderedPath;
+        }
+
+        @SuppressWarnings("checkstyle:IllegalCatch")
+        void schedule(Set<SfName> oneChainOnlySfNames) {
+            try {
+                serviceFunctionPath = SfcProviderServicePathAPI
+                        .readServiceFunctionPath(renderedPath.getParentServiceFunctionPath());
+                if (serviceFunctionPath == null) {
+                    error = "Service Function Path does not exist";
+                    return;
+                }
+                renderedServicePathHops = SfcProviderRenderedPathAPI
+                        .createRenderedServicePathHopList(serviceFunctionPath, oneChainOnlySfNames);
+                if (renderedServicePathHops == null) {
+                    error = "Failed to schedule the Service Functions";
+                    return;
+                }
+                symmetric = SfcProviderRenderedPathAPI.isChainSymmetric(serviceFunctionPath,
+                        renderedServicePathHops);
+            } catch (RuntimeException e) {
+                LOG.error("schedule: Failed to schedule the Service Functions of {}",
+                        renderedPath.getParentServiceFunctionPath(), e);
+                error = "Failed to schedule the Service Functions: " + e.getMessage();
+            }
+        }
+
+        void build(long pathId) {
+            renderedServicePath = SfcProviderRenderedPathAPI.buildRenderedServicePath(serviceFunctionPath,
+                    renderedPath.getName() == null ? null : renderedPath.getName().getValue(),
+                    renderedServicePathHops, pathId);
+        }
+
+        void buildReverse(long symmetricPathId) {
+            reverseRenderedServicePath = SfcProviderRenderedPathAPI
+                    .createReverseRenderedServicePathEntry(renderedServicePath, symmetricPathId);
+            renderedServicePath = SfcProviderRenderedPathAPI.setSymmetricPathId(renderedServicePath,
+                    symmetricPathId, null);
+        }
+
+        List<RenderedServicePath> getRenderedServicePaths() {
+            return reverseRenderedServicePath == null ? Collections.singletonList(renderedServicePath)
+                    : Arrays.asList(renderedServicePath, reverseRenderedServicePath);
+        }
+
+        RenderedPathResult getResult() {
+            RenderedPathResultBuilder renderedPathResultBuilder = new RenderedPathResultBuilder()
+                    .setParentServiceFunctionPath(renderedPath.getParentServiceFunctionPath());
+            if (error != null) {
+                return renderedPathResultBuilder.setError(error).build();
+            }
+            return renderedPathResultBuilder.setName(renderedServicePath.getName())
+                    .setPathId(renderedServicePath.getPathId())
+                    .setSymmetricPathId(renderedServicePath.getSymmetricPathId()).build();
+        }
+    }
 }
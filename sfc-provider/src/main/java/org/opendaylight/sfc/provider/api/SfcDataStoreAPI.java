@@ -8,15 +8,16 @@
 
 package org.opendaylight.sfc.provider.api;
 
-import com.google.common.base.Optional;
-import com.google.common.util.concurrent.CheckedFuture;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
 import org.opendaylight.controller.md.sal.binding.api.DataBroker;
 import org.opendaylight.controller.md.sal.binding.api.ReadOnlyTransaction;
 import org.opendaylight.controller.md.sal.binding.api.WriteTransaction;
 import org.opendaylight.controller.md.sal.common.api.data.LogicalDatastoreType;
-import org.opendaylight.controller.md.sal.common.api.data.ReadFailedException;
-import org.opendaylight.controller.md.sal.common.api.data.TransactionCommitFailedException;
 import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -26,108 +27,252 @@ import org.slf4j.LoggerFactory;
  * callbacks automatically.
  *
  * <p>
+ * The asynchronous variants do not block the caller: reads return a future of
+ * the data object, writes return a future of the write result and are
+ * coalesced with the writes of other callers by a {@link SfcDataStoreBatchWriter}.
+ * The asynchronous writes are committed in order among themselves, but not
+ * with the synchronous ones: a caller writing the same data both ways must
+ * wait for the result of its asynchronous writes before writing synchronously.
+ *
+ * <p>
  *
  * @author Reinaldo Penno (rapenno@gmail.com)
  * @version 0.1
  * @since 2014-11-22
  */
-public final class SfcDataStoreAPI {
+public final class SfcDataStoreAPI implements AutoCloseable {
     private static DataBroker dataProvider = null;
+    private static volatile SfcDataStoreBatchWriter batchWriter = null;
     private static final Logger LOG = LoggerFactory.getLogger(SfcDataStoreAPI.class);
 
+    // Writes coalesced by the batch writer
+    private static final int BATCH_SIZE = 1000;
+    private static final long BATCH_TICK_MILLIS = 1;
+
     // blueprint setter
     // FIXME - Suppress FB violation. This class should really be a normal instance and not use statics.
     @SuppressFBWarnings("ST_WRITE_TO_STATIC_FROM_INSTANCE_METHOD")
     public void setDataProvider(DataBroker broker) {
-        dataProvider = broker;
+        setDataProviderAux(broker);
     }
 
     // Auxiliary static setter just for testing, because in UT we can't use
     // blueprint,
     // so the injection should be manual
-    public static void setDataProviderAux(DataBroker broker) {
+    public static synchronized void setDataProviderAux(DataBroker broker) {
+        if (batchWriter != null) {
+            batchWriter.close();
+        }
         dataProvider = broker;
+        batchWriter = broker == null ? null : new SfcDataStoreBatchWriter(broker, BATCH_SIZE, BATCH_TICK_MILLIS);
+    }
+
+    // blueprint destroy method
+    @Override
+    public void close() {
+        setDataProviderAux(null);
+    }
+
+    // Used by the in-memory caches to detect a data broker replacement and
+    // to open multi-operation transactions
+    public static DataBroker getDataProvider() {
+        return dataProvider;
     }
 
     public static <U extends org.opendaylight.yangtools.yang.binding.DataObject> boolean deleteTransactionAPI(
             InstanceIdentifier<U> deleteIID, LogicalDatastoreType logicalDatastoreType) {
-        boolean ret = false;
-
         if (dataProvider == null) {
             LOG.error("deleteTransactionAPI: dataProvider not initialized!");
-            return ret;
+            return false;
         }
         WriteTransaction writeTx = dataProvider.newWriteOnlyTransaction();
         writeTx.delete(logicalDatastoreType, deleteIID);
-        CheckedFuture<Void, TransactionCommitFailedException> submitFuture = writeTx.submit();
-        try {
-            submitFuture.checkedGet();
-            ret = true;
-        } catch (TransactionCommitFailedException e) {
-            LOG.error("deleteTransactionAPI: Transaction failed", e);
-        }
-        return ret;
+        return getResult(invalidateReadCache(submit(writeTx, "deleteTransactionAPI"), deleteIID,
+                logicalDatastoreType), false);
     }
 
     public static <U extends org.opendaylight.yangtools.yang.binding.DataObject> boolean writeMergeTransactionAPI(
             InstanceIdentifier<U> addIID, U data, LogicalDatastoreType logicalDatastoreType) {
-        boolean ret = false;
         if (dataProvider == null) {
             LOG.error("writeMergeTransactionAPI: dataProvider not initialized!");
-            return ret;
+            return false;
         }
         WriteTransaction writeTx = dataProvider.newWriteOnlyTransaction();
         writeTx.merge(logicalDatastoreType, addIID, data, true);
-        CheckedFuture<Void, TransactionCommitFailedException> submitFuture = writeTx.submit();
-        try {
-            submitFuture.checkedGet();
-            ret = true;
-        } catch (TransactionCommitFailedException e) {
-            LOG.error("writeMergeTransactionAPI: Transaction failed", e);
-        }
-        return ret;
+        return getResult(invalidateReadCache(submit(writeTx, "writeMergeTransactionAPI"), addIID,
+                logicalDatastoreType), false);
     }
 
     public static <U extends org.opendaylight.yangtools.yang.binding.DataObject> boolean writePutTransactionAPI(
             InstanceIdentifier<U> addIID, U data, LogicalDatastoreType logicalDatastoreType) {
-        boolean ret = false;
         if (dataProvider == null) {
             LOG.error("writePutTransactionAPI: dataProvider not initialized!");
-            return ret;
+            return false;
         }
         WriteTransaction writeTx = dataProvider.newWriteOnlyTransaction();
         writeTx.put(logicalDatastoreType, addIID, data, true);
-        CheckedFuture<Void, TransactionCommitFailedException> submitFuture = writeTx.submit();
-        try {
-            submitFuture.checkedGet();
-            ret = true;
-        } catch (TransactionCommitFailedException e) {
-            LOG.error("writePutTransactionAPI: Transaction failed", e);
-        }
-        return ret;
+        return getResult(invalidateReadCache(submit(writeTx, "writePutTransactionAPI"), addIID,
+                logicalDatastoreType), false);
     }
 
     public static <U extends org.opendaylight.yangtools.yang.binding.DataObject> U readTransactionAPI(
             InstanceIdentifier<U> readIID, LogicalDatastoreType logicalDatastoreType) {
-        U ret = null;
+        return getResult(readTransactionAPIAsync(readIID, logicalDatastoreType), null);
+    }
 
+    /**
+     * Read a data object without blocking.
+     *
+     * @param readIID
+     *            the instance identifier of the data object
+     * @param logicalDatastoreType
+     *            the data store to read from
+     * @return a future of the data object, or null if it does not exist or
+     *         could not be read
+     */
+    public static <U extends org.opendaylight.yangtools.yang.binding.DataObject> ListenableFuture<U>
+            readTransactionAPIAsync(InstanceIdentifier<U> readIID, LogicalDatastoreType logicalDatastoreType) {
         if (dataProvider == null) {
             LOG.error("readTransactionAPI: dataProvider not initialized!");
-            return ret;
+            return Futures.immediateFuture(null);
         }
         ReadOnlyTransaction readTx = dataProvider.newReadOnlyTransaction();
-        Optional<U> optionalDataObject;
-        CheckedFuture<Optional<U>, ReadFailedException> submitFuture = readTx.read(logicalDatastoreType, readIID);
+        ListenableFuture<U> readFuture = Futures.transform(readTx.read(logicalDatastoreType, readIID),
+                optionalDataObject -> {
+                    if (optionalDataObject != null && optionalDataObject.isPresent()) {
+                        return optionalDataObject.get();
+                    }
+                    LOG.debug("readTransactionAPI: Failed to read {}", readIID);
+                    return null;
+                }, MoreExecutors.directExecutor());
+        readFuture.addListener(readTx::close, MoreExecutors.directExecutor());
+        return Futures.catching(readFuture, Exception.class, e -> {
+            LOG.warn("readTransactionAPI: failed to read {}", readIID, e);
+            return null;
+        }, MoreExecutors.directExecutor());
+    }
+
+    /**
+     * Merge a data object without blocking, in a transaction shared with
+     * other writes.
+     *
+     * @param addIID
+     *            the instance identifier of the data object
+     * @param data
+     *            the data object
+     * @param logicalDatastoreType
+     *            the data store to write to
+     * @return a future set to true if the write was committed, false otherwise
+     */
+    public static <U extends org.opendaylight.yangtools.yang.binding.DataObject> ListenableFuture<Boolean>
+            writeMergeTransactionAPIAsync(InstanceIdentifier<U> addIID, U data,
+                    LogicalDatastoreType logicalDatastoreType) {
+        SfcDataStoreBatchWriter writer = batchWriter;
+        if (writer == null) {
+            LOG.error("writeMergeTransactionAPIAsync: dataProvider not initialized!");
+            return Futures.immediateFuture(false);
+        }
+        return invalidateReadCache(writer.merge(logicalDatastoreType, addIID, data), addIID, logicalDatastoreType);
+    }
+
+    /**
+     * Put a data object without blocking, in a transaction shared with other
+     * writes.
+     *
+     * @param addIID
+     *            the instance identifier of the data object
+     * @param data
+     *            the data object
+     * @param logicalDatastoreType
+     *            the data store to write to
+     * @return a future set to true if the write was committed, false otherwise
+     */
+    public static <U extends org.opendaylight.yangtools.yang.binding.DataObject> ListenableFuture<Boolean>
+            writePutTransactionAPIAsync(InstanceIdentifier<U> addIID, U data,
+                    LogicalDatastoreType logicalDatastoreType) {
+        SfcDataStoreBatchWriter writer = batchWriter;
+        if (writer == null) {
+            LOG.error("writePutTransactionAPIAsync: dataProvider not initialized!");
+            return Futures.immediateFuture(false);
+        }
+        return invalidateReadCache(writer.put(logicalDatastoreType, addIID, data), addIID, logicalDatastoreType);
+    }
+
+    /**
+     * Delete a data object without blocking, in a transaction shared with
+     * other writes.
+     *
+     * @param deleteIID
+     *            the instance identifier of the data object
+     * @param logicalDatastoreType
+     *            the data store to delete from
+     * @return a future set to true if the delete was committed, false
+     *         otherwise
+     */
+    public static <U extends org.opendaylight.yangtools.yang.binding.DataObject> ListenableFuture<Boolean>
+            deleteTransactionAPIAsync(InstanceIdentifier<U> deleteIID, LogicalDatastoreType logicalDatastoreType) {
+        SfcDataStoreBatchWriter writer = batchWriter;
+        if (writer == null) {
+            LOG.error("deleteTransactionAPIAsync: dataProvider not initialized!");
+            return Futures.immediateFuture(false);
+        }
+        return invalidateReadCache(writer.delete(logicalDatastoreType, deleteIID), deleteIID,
+                logicalDatastoreType);
+    }
+
+    /**
+     * Combine the results of several asynchronous writes.
+     *
+     * @param writeResults
+     *            the futures returned by the asynchronous writes
+     * @return a future set to true if all the writes were committed, false
+     *         otherwise
+     */
+    public static ListenableFuture<Boolean> combineWriteResults(List<ListenableFuture<Boolean>> writeResults) {
+        return Futures.transform(Futures.allAsList(writeResults), results -> !results.contains(Boolean.FALSE),
+                MoreExecutors.directExecutor());
+    }
+
+    /**
+     * Wait for the result of an asynchronous write.
+     *
+     * @param writeResult
+     *            the future returned by the asynchronous write
+     * @return true if the write was committed, false otherwise
+     */
+    public static boolean getWriteResult(ListenableFuture<Boolean> writeResult) {
+        return getResult(writeResult, false);
+    }
+
+    // The cached objects are invalidated once the write completes, a read
+    // before that could cache the old object again, and before the returned
+    // future completes, so the caller never reads the old object afterwards
+    private static ListenableFuture<Boolean> invalidateReadCache(ListenableFuture<Boolean> writeResult,
+            InstanceIdentifier<?> iid, LogicalDatastoreType logicalDatastoreType) {
+        return Futures.transform(writeResult, result -> {
+            SfcDataStoreReadCache.invalidate(iid, logicalDatastoreType);
+            return result;
+        }, MoreExecutors.directExecutor());
+    }
+
+    private static ListenableFuture<Boolean> submit(WriteTransaction writeTx, String operation) {
+        ListenableFuture<Boolean> submitFuture = Futures.transform(writeTx.submit(), unused -> true,
+                MoreExecutors.directExecutor());
+        return Futures.catching(submitFuture, Exception.class, e -> {
+            LOG.error("{}: Transaction failed", operation, e);
+            return false;
+        }, MoreExecutors.directExecutor());
+    }
+
+    private static <T> T getResult(ListenableFuture<T> future, T defaultValue) {
         try {
-            optionalDataObject = submitFuture.checkedGet();
-            if (optionalDataObject != null && optionalDataObject.isPresent()) {
-                ret = optionalDataObject.get();
-            } else {
-                LOG.debug("{}: Failed to read", Thread.currentThread().getStackTrace()[1]);
+            return future.get();
+        } catch (InterruptedException | ExecutionException e) {
+            LOG.error("getResult: failed waiting for the data store", e);
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
             }
-        } catch (ReadFailedException e) {
-            LOG.warn("failed to ....", e);
+            return defaultValue;
         }
-        return ret;
     }
 }
@@ -0,0 +1,273 @@
+/*
+ * Copyright (c) 2018 Ericsson Inc. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.sfc.provider.api;
+
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import org.opendaylight.controller.md.sal.binding.api.DataBroker;
+import org.opendaylight.controller.md.sal.binding.api.WriteTransaction;
+import org.opendaylight.controller.md.sal.common.api.data.LogicalDatastoreType;
+import org.opendaylight.infrautils.utils.concurrent.Executors;
+import org.opendaylight.yangtools.yang.binding.DataObject;
+import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class coalesces the writes of concurrent callers into shared
+ * transactions.
+ *
+ * <p>
+ * Writes are queued and submitted together in one transaction when the batch
+ * size is reached or when the tick since the first queued write expires. Only
+ * one batch is submitted at a time, writes queued while a batch is being
+ * committed are submitted as soon as it completes, so the batches are
+ * committed in order and grow with the load.
+ *
+ * <p>
+ * Batches are submitted on the writer thread, never from the commit callback
+ * of the previous batch. A write that cannot be applied to the transaction
+ * fails on its own. When a batch transaction fails, its writes are retried
+ * one transaction each, before any later write, so the future returned for
+ * each write is only set to false if the write itself fails.
+ *
+ * <p>
+ * Writes are not ordered with the transactions opened outside of this writer,
+ * such as the synchronous writes of {@link SfcDataStoreAPI}: a caller mixing
+ * both on the same data must wait for the result of its batched writes first.
+ */
+public final class SfcDataStoreBatchWriter implements AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SfcDataStoreBatchWriter.class);
+
+    private final DataBroker dataBroker;
+    private final int batchSize;
+    private final long tickMillis;
+    private final ScheduledExecutorService scheduler =
+            Executors.newSingleThreadScheduledExecutor("SfcDataStoreBatchWriter", LOG);
+
+    private final Object lock = new Object();
+
+    /* Guarded by lock */
+    private List<Operation> pending = new ArrayList<>();
+    // writes of a failed batch, retried one at a time
+    private final Deque<Operation> isolated = new ArrayDeque<>();
+    private boolean submitting = false;
+    private boolean scheduled = false;
+    private boolean closed = false;
+
+    /* Metrics */
+    private final AtomicLong operations = new AtomicLong();
+    private final AtomicLong transactions = new AtomicLong();
+
+    /**
+     * Constructor.
+     *
+     * @param dataBroker
+     *            the data broker to open the transactions with
+     * @param batchSize
+     *            the number of writes that triggers a submit
+     * @param tickMillis
+     *            the maximum time a write waits for other writes, in
+     *            milliseconds
+     */
+    public SfcDataStoreBatchWriter(DataBroker dataBroker, int batchSize, long tickMillis) {
+        this.dataBroker = dataBroker;
+        this.batchSize = batchSize;
+        this.tickMillis = tickMillis;
+    }
+
+    public <U extends DataObject> ListenableFuture<Boolean> merge(LogicalDatastoreType logicalDatastoreType,
+            InstanceIdentifier<U> iid, U data) {
+        return enqueue(writeTx -> writeTx.merge(logicalDatastoreType, iid, data, true));
+    }
+
+    public <U extends DataObject> ListenableFuture<Boolean> put(LogicalDatastoreType logicalDatastoreType,
+            InstanceIdentifier<U> iid, U data) {
+        return enqueue(writeTx -> writeTx.put(logicalDatastoreType, iid, data, true));
+    }
+
+    public <U extends DataObject> ListenableFuture<Boolean> delete(LogicalDatastoreType logicalDatastoreType,
+            InstanceIdentifier<U> iid) {
+        return enqueue(writeTx -> writeTx.delete(logicalDatastoreType, iid));
+    }
+
+    /**
+     * Submit the queued writes without waiting for the tick, unless a batch is
+     * already being committed.
+     */
+    public void flush() {
+        List<Operation> batch;
+        synchronized (lock) {
+            scheduled = false;
+            batch = takeBatch();
+        }
+        submitOnWriterThread(batch);
+    }
+
+    /**
+     * Number of writes submitted so far.
+     */
+    public long getOperationCount() {
+        return operations.get();
+    }
+
+    /**
+     * Number of transactions submitted so far.
+     */
+    public long getTransactionCount() {
+        return transactions.get();
+    }
+
+    /**
+     * Submit the queued writes and stop accepting new ones.
+     */
+    @Override
+    public void close() {
+        List<Operation> batch;
+        synchronized (lock) {
+            closed = true;
+            batch = takeBatch();
+        }
+        submitOnWriterThread(batch);
+        scheduler.shutdown();
+    }
+
+    private ListenableFuture<Boolean> enqueue(Consumer<WriteTransaction> write) {
+        Operation operation = new Operation(write);
+        List<Operation> batch = null;
+        synchronized (lock) {
+            if (closed) {
+                LOG.error("enqueue: batch writer closed, write discarded");
+                return Futures.immediateFuture(false);
+            }
+            pending.add(operation);
+            if (pending.size() >= batchSize) {
+                batch = takeBatch();
+            } else if (!submitting && !scheduled) {
+                scheduled = true;
+                scheduler.schedule(this::flush, tickMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+        submitOnWriterThread(batch);
+        return operation.result;
+    }
+
+    /* Must be called holding the lock, null if there is nothing to submit now */
+    private List<Operation> takeBatch() {
+        if (submitting) {
+            return null;
+        }
+        if (!isolated.isEmpty()) {
+            submitting = true;
+            return Collections.singletonList(isolated.poll());
+        }
+        if (pending.isEmpty()) {
+            return null;
+        }
+        List<Operation> batch = pending;
+        pending = new ArrayList<>();
+        submitting = true;
+        return batch;
+    }
+
+    @SuppressWarnings("checkstyle:IllegalCatch")
+    private void submit(List<Operation> batch) {
+        if (batch == null) {
+            return;
+        }
+        operations.addAndGet(batch.size());
+        transactions.incrementAndGet();
+        List<Operation> applied = new ArrayList<>(batch.size());
+        try {
+            WriteTransaction writeTx = dataBroker.newWriteOnlyTransaction();
+            for (Operation operation : batch) {
+                try {
+                    operation.write.accept(writeTx);
+                    applied.add(operation);
+                } catch (RuntimeException e) {
+                    LOG.error("submit: could not apply a write", e);
+                    operation.result.set(false);
+                }
+            }
+            Futures.addCallback(writeTx.submit(), new FutureCallback<Void>() {
+                @Override
+                public void onSuccess(Void result) {
+                    complete(applied, true);
+                }
+
+                @Override
+                public void onFailure(Throwable throwable) {
+                    LOG.error("submit: batch of {} writes failed", applied.size(), throwable);
+                    complete(applied, false);
+                }
+            }, MoreExecutors.directExecutor());
+        } catch (RuntimeException e) {
+            LOG.error("submit: could not submit batch of {} writes", applied.size(), e);
+            complete(applied, false);
+        }
+    }
+
+    private void complete(List<Operation> batch, boolean success) {
+        List<Operation> next;
+        synchronized (lock) {
+            submitting = false;
+            if (!success && batch.size() > 1) {
+                // find out which writes failed, before the later writes
+                for (int i = batch.size() - 1; i >= 0; i--) {
+                    isolated.addFirst(batch.get(i));
+                }
+            }
+            // the writes queued meanwhile have waited long enough
+            next = takeBatch();
+        }
+        if (success || batch.size() == 1) {
+            batch.forEach(operation -> operation.result.set(success));
+        }
+        submitOnWriterThread(next);
+    }
+
+    /*
+     * The next batch is submitted on the writer thread, so that the commit
+     * callbacks do not submit the following batches recursively.
+     */
+    private void submitOnWriterThread(List<Operation> batch) {
+        if (batch == null) {
+            return;
+        }
+        try {
+            scheduler.execute(() -> submit(batch));
+        } catch (RejectedExecutionException e) {
+            // the writer is closed, the remaining batches are still submitted
+            submit(batch);
+        }
+    }
+
+    private static final class Operation {
+        private final Consumer<WriteTransaction> write;
+        private final SettableFuture<Boolean> result = SettableFuture.create();
+
+        Operation(Consumer<WriteTransaction> write) {
+            this.write = write;
+        }
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ * Copyright (c) 2018 Ericsson Inc. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.sfc.provider.api;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.collect.Iterables;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+import org.opendaylight.controller.md.sal.common.api.data.LogicalDatastoreType;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.common.rev151017.SfName;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.common.rev151017.SffName;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.common.rev151017.SftTypeName;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sf.rev140701.ServiceFunctions;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sf.rev140701.service.functions.ServiceFunction;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sf.rev140701.service.functions.ServiceFunctionKey;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sff.rev140701.ServiceFunctionForwarders;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sff.rev140701.service.function.forwarders.ServiceFunctionForwarder;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sff.rev140701.service.function.forwarders.ServiceFunctionForwarderKey;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sfg.rev150214.ServiceFunctionGroups;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sfg.rev150214.service.function.groups.ServiceFunctionGroup;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sfg.rev150214.service.function.groups.ServiceFunctionGroupKey;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sft.rev140701.ServiceFunctionTypes;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sft.rev140701.service.function.types.ServiceFunctionType;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sft.rev140701.service.function.types.ServiceFunctionTypeKey;
+import org.opendaylight.yangtools.yang.binding.DataObject;
+import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Read-through cache of configuration data objects read by the provider API.
+ *
+ * <p>
+ * There is one bounded, least recently used cache per object type. An entry is
+ * invalidated when the object is written or deleted through
+ * {@link SfcDataStoreAPI}, once the write completes, and when the data-tree
+ * listener of its type receives an event. Objects that do not exist are not
+ * cached. A load that overlaps an invalidation is not stored, so a value read
+ * before a change is never cached after it.
+ *
+ * <p>
+ * Entries belong to the data broker they were read from, all the caches are
+ * cleared when it changes, and nothing is cached without one.
+ *
+ * @param <K>
+ *            the key of the cached objects
+ * @param <V>
+ *            the type of the cached objects
+ */
+public final class SfcDataStoreReadCache<K, V extends DataObject> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SfcDataStoreReadCache.class);
+
+    private static final int MAX_SIZE = 5000;
+
+    public static final SfcDataStoreReadCache<SfName, ServiceFunction> SERVICE_FUNCTIONS =
+            new SfcDataStoreReadCache<>(ServiceFunctions.class, iid -> {
+                ServiceFunctionKey key = iid.firstKeyOf(ServiceFunction.class);
+                return key == null ? null : key.getName();
+            });
+
+    public static final SfcDataStoreReadCache<SffName, ServiceFunctionForwarder> SERVICE_FUNCTION_FORWARDERS =
+            new SfcDataStoreReadCache<>(ServiceFunctionForwarders.class, iid -> {
+                ServiceFunctionForwarderKey key = iid.firstKeyOf(ServiceFunctionForwarder.class);
+                return key == null ? null : key.getName();
+            });
+
+    public static final SfcDataStoreReadCache<String, ServiceFunctionGroup> SERVICE_FUNCTION_GROUPS =
+            new SfcDataStoreReadCache<>(ServiceFunctionGroups.class, iid -> {
+                ServiceFunctionGroupKey key = iid.firstKeyOf(ServiceFunctionGroup.class);
+                return key == null ? null : key.getName();
+            });
+
+    public static final SfcDataStoreReadCache<SftTypeName, ServiceFunctionType> SERVICE_FUNCTION_TYPES =
+            new SfcDataStoreReadCache<>(ServiceFunctionTypes.class, iid -> {
+                ServiceFunctionTypeKey key = iid.firstKeyOf(ServiceFunctionType.class);
+                return key == null ? null : key.getType();
+            });
+
+    private static final List<SfcDataStoreReadCache<?, ?>> CACHES = Arrays.asList(SERVICE_FUNCTIONS,
+            SERVICE_FUNCTION_FORWARDERS, SERVICE_FUNCTION_GROUPS, SERVICE_FUNCTION_TYPES);
+
+    private final Class<? extends DataObject> containerClass;
+    private final Function<InstanceIdentifier<?>, K> keyExtractor;
+    private final Cache<K, V> cache = CacheBuilder.newBuilder().maximumSize(MAX_SIZE).recordStats().build();
+
+    private final Object lock = new Object();
+
+    /* Guarded by lock */
+    private long generation = 0;
+    private Object owner = null;
+
+    private SfcDataStoreReadCache(Class<? extends DataObject> containerClass,
+            Function<InstanceIdentifier<?>, K> keyExtractor) {
+        this.containerClass = containerClass;
+        this.keyExtractor = keyExtractor;
+    }
+
+    /**
+     * Get an object from the cache, reading it from the configuration data
+     * store if it is not cached.
+     *
+     * @param key
+     *            the object key
+     * @param iid
+     *            the instance identifier of the object
+     * @return the object, null if it does not exist
+     */
+    public V get(K key, InstanceIdentifier<V> iid) {
+        Object dataOwner = SfcDataStoreAPI.getDataProvider();
+        if (dataOwner == null) {
+            return SfcDataStoreAPI.readTransactionAPI(iid, LogicalDatastoreType.CONFIGURATION);
+        }
+
+        long loadGeneration;
+        synchronized (lock) {
+            if (owner != dataOwner) {
+                cache.invalidateAll();
+                owner = dataOwner;
+                generation++;
+            }
+            V value = cache.getIfPresent(key);
+            if (value != null) {
+                return value;
+            }
+            loadGeneration = generation;
+        }
+
+        V value = SfcDataStoreAPI.readTransactionAPI(iid, LogicalDatastoreType.CONFIGURATION);
+        if (value != null) {
+            synchronized (lock) {
+                if (generation == loadGeneration) {
+                    cache.put(key, value);
+                }
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Invalidate the cached object with the given key.
+     *
+     * @param key
+     *            the object key
+     */
+    public void invalidate(K key) {
+        synchronized (lock) {
+            generation++;
+            cache.invalidate(key);
+        }
+    }
+
+    /**
+     * Invalidate all the cached objects.
+     */
+    public void invalidateAll() {
+        synchronized (lock) {
+            generation++;
+            cache.invalidateAll();
+        }
+    }
+
+    /**
+     * Hit, miss and eviction counts of the cache.
+     */
+    public CacheStats getStats() {
+        return cache.stats();
+    }
+
+    /**
+     * Invalidate the cached objects affected by a write to the given instance
+     * identifier.
+     *
+     * @param iid
+     *            the written instance identifier
+     * @param logicalDatastoreType
+     *            the written data store
+     */
+    public static void invalidate(InstanceIdentifier<?> iid, LogicalDatastoreType logicalDatastoreType) {
+        if (logicalDatastoreType != LogicalDatastoreType.CONFIGURATION) {
+            return;
+        }
+        InstanceIdentifier.PathArgument root = Iterables.getFirst(iid.getPathArguments(), null);
+        if (root == null) {
+            return;
+        }
+        for (SfcDataStoreReadCache<?, ?> readCache : CACHES) {
+            if (readCache.containerClass.equals(root.getType())) {
+                readCache.invalidateWritten(iid);
+            }
+        }
+    }
+
+    private void invalidateWritten(InstanceIdentifier<?> iid) {
+        K key = keyExtractor.apply(iid);
+        if (key == null) {
+            LOG.debug("invalidateWritten: {} written, invalidating all its entries", containerClass.getSimpleName());
+            invalidateAll();
+        } else {
+            invalidate(key);
+        }
+    }
+}
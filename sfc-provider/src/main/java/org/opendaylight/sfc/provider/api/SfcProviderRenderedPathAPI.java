@@ -13,10 +13,14 @@ import static org.opendaylight.sfc.provider.SfcProviderDebug.printTraceStop;
 
 import com.google.common.base.Supplier;
 import com.google.common.base.Suppliers;
+import com.google.common.util.concurrent.ListenableFuture;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
 import javax.annotation.Nullable;
 import org.opendaylight.controller.md.sal.common.api.data.LogicalDatastoreType;
 import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.common.rev151017.RspName;
@@ -51,6 +55,7 @@ import org.opendaylight.yang.gen.v1.urn.intel.params.xml.ns.yang.sfc.sfst.rev150
 import org.opendaylight.yang.gen.v1.urn.intel.params.xml.ns.yang.sfc.sfst.rev150312.RoundRobin;
 import org.opendaylight.yang.gen.v1.urn.intel.params.xml.ns.yang.sfc.sfst.rev150312.ServiceFunctionSchedulerTypeIdentity;
 import org.opendaylight.yang.gen.v1.urn.intel.params.xml.ns.yang.sfc.sfst.rev150312.ShortestPath;
+import org.opendaylight.yang.gen.v1.urn.intel.params.xml.ns.yang.sfc.sfst.rev150312.WeightedShortestPath;
 import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -99,6 +104,8 @@ public final class SfcProviderRenderedPathAPI {
             scheduler = new SfcServiceFunctionShortestPathSchedulerAPI();
         } else if (serviceFunctionSchedulerType == LoadPathAware.class) {
             scheduler = new SfcServiceFunctionLoadPathAwareSchedulerAPI();
+        } else if (serviceFunctionSchedulerType == WeightedShortestPath.class) {
+            scheduler = new SfcServiceFunctionWeightedShortestPathSchedulerAPI();
         } else {
             scheduler = new SfcServiceFunctionRandomSchedulerAPI();
         }
@@ -179,30 +186,32 @@ public final class SfcProviderRenderedPathAPI {
     public static boolean createRenderedServicePathState(ServiceFunctionPath createdServiceFunctionPath,
             RenderedServicePath renderedServicePath) {
 
-        // Add Path name to SFF operational state
-        if (!SfcProviderServiceForwarderAPI.addPathToServiceForwarderState(renderedServicePath)) {
-            LOG.error("Failed to add RSP to SFF state {}", renderedServicePath.getName());
-            SfcProviderRenderedPathAPI.deleteRenderedServicePath(renderedServicePath.getName());
-
-            return false;
-        }
-
-        // Add Path to SF operational state
-        if (!SfcProviderServiceFunctionAPI.addPathToServiceFunctionState(renderedServicePath)) {
-            LOG.error("Failed to add RSP to SF state {}", renderedServicePath.getName());
-            SfcProviderServiceForwarderAPI.deletePathFromServiceForwarderState(createdServiceFunctionPath);
-            SfcProviderRenderedPathAPI.deleteRenderedServicePath(renderedServicePath.getName());
-
-            return false;
-        }
-
-        // Add RSP to SFP operational state
-        if (!SfcProviderServicePathAPI.addRenderedPathToServicePathState(
-                createdServiceFunctionPath.getName(), renderedServicePath.getName())) {
-            LOG.error("Failed to add RSP to SFP state {}", renderedServicePath.getName());
-            SfcProviderServiceFunctionAPI
-                    .deleteServicePathFromServiceFunctionState(createdServiceFunctionPath.getName());
-            SfcProviderServiceForwarderAPI.deletePathFromServiceForwarderState(createdServiceFunctionPath);
+        // The SFF, SF and SFP operational states are written concurrently,
+        // together with the states of the RSPs created meanwhile
+        ListenableFuture<Boolean> sffStateResult = SfcProviderServiceForwarderAPI
+                .addPathToServiceForwarderStateAsync(renderedServicePath);
+        ListenableFuture<Boolean> sfStateResult = SfcProviderServiceFunctionAPI
+                .addPathToServiceFunctionStateAsync(renderedServicePath);
+        ListenableFuture<Boolean> sfpStateResult = SfcProviderServicePathAPI.addRenderedPathToServicePathStateAsync(
+                createdServiceFunctionPath.getName(), renderedServicePath.getName());
+
+        boolean sffStateAdded = SfcDataStoreAPI.getWriteResult(sffStateResult);
+        boolean sfStateAdded = SfcDataStoreAPI.getWriteResult(sfStateResult);
+        boolean sfpStateAdded = SfcDataStoreAPI.getWriteResult(sfpStateResult);
+        if (!sffStateAdded || !sfStateAdded || !sfpStateAdded) {
+            LOG.error("Failed to add RSP {} to state, SFF state: {}, SF state: {}, SFP state: {}",
+                    renderedServicePath.getName(), sffStateAdded, sfStateAdded, sfpStateAdded);
+            if (sfpStateAdded) {
+                SfcProviderServicePathAPI.deleteRenderedPathFromServicePathState(createdServiceFunctionPath.getName(),
+                        renderedServicePath.getName());
+            }
+            if (sfStateAdded) {
+                SfcProviderServiceFunctionAPI
+                        .deleteServicePathFromServiceFunctionState(createdServiceFunctionPath.getName());
+            }
+            if (sffStateAdded) {
+                SfcProviderServiceForwarderAPI.deletePathFromServiceForwarderState(createdServiceFunctionPath);
+            }
             SfcProviderRenderedPathAPI.deleteRenderedServicePath(renderedServicePath.getName());
 
             return false;
@@ -228,14 +237,8 @@ public final class SfcProviderRenderedPathAPI {
             ServiceFunctionPath createdServiceFunctionPath, RenderedServicePath createdRenderedServicePath) {
 
         // Create the Operational RSP based on the Config RSP
-        RenderedServicePathBuilder renderedServicePathBuilder =
-                new RenderedServicePathBuilder(createdRenderedServicePath);
-
-        // These are the config false RSP attributes, that can only be written in the RSP Operational data store
-        renderedServicePathBuilder.setContextMetadata(createdServiceFunctionPath.getContextMetadata());
-        renderedServicePathBuilder.setVariableMetadata(createdServiceFunctionPath.getVariableMetadata());
-
-        RenderedServicePath renderedServicePath = renderedServicePathBuilder.build();
+        RenderedServicePath renderedServicePath = buildOperationalRenderedServicePath(createdServiceFunctionPath,
+                createdRenderedServicePath);
 
         if (renderedServicePath == null) {
             LOG.error("Could not create RSP in operational for config RSP {}",
@@ -255,6 +258,29 @@ public final class SfcProviderRenderedPathAPI {
         return renderedServicePath;
     }
 
+    /**
+     * Builds the operational RSP of a config RSP.
+     *
+     * <p>
+     *
+     * @param serviceFunctionPath
+     *            Service Function Path of the RSP
+     * @param configRenderedServicePath
+     *            The config RSP
+     * @return the operational RSP
+     */
+    public static RenderedServicePath buildOperationalRenderedServicePath(ServiceFunctionPath serviceFunctionPath,
+            RenderedServicePath configRenderedServicePath) {
+        RenderedServicePathBuilder renderedServicePathBuilder =
+                new RenderedServicePathBuilder(configRenderedServicePath);
+
+        // These are the config false RSP attributes, that can only be written in the RSP Operational data store
+        renderedServicePathBuilder.setContextMetadata(serviceFunctionPath.getContextMetadata());
+        renderedServicePathBuilder.setVariableMetadata(serviceFunctionPath.getVariableMetadata());
+
+        return renderedServicePathBuilder.build();
+    }
+
     /**
      * Creates a symmetric RSP in the configuration data store. This
      * will be called when an SFP has been created.
@@ -387,25 +413,41 @@ public final class SfcProviderRenderedPathAPI {
 
         ServiceFunctionForwarder serviceFunctionForwarder = SfcProviderServiceForwarderAPI
                 .readServiceFunctionForwarder(serviceFunctionForwarderName);
-        if (serviceFunctionForwarder != null && serviceFunctionForwarder.getSffDataPlaneLocator() != null) {
-            if (serviceFunctionForwarder.getSffDataPlaneLocator().size() == 1) {
-                renderedServicePathHopBuilder.setServiceFunctionForwarderLocator(
-                        serviceFunctionForwarder.getSffDataPlaneLocator().get(0).getName());
-            } else {
-                // If there is more than one SFF DPL, then find
-                // the one that is not associated with an SF
-                List<SffDataPlaneLocator> sffNonSfDplList =
-                        SfcProviderServiceForwarderAPI.getNonSfDataPlaneLocators(serviceFunctionForwarder);
-                if (sffNonSfDplList.size() == 1) {
-                    renderedServicePathHopBuilder.setServiceFunctionForwarderLocator(sffNonSfDplList.get(0).getName());
-                }
-            }
+        if (serviceFunctionForwarder != null) {
+            renderedServicePathHopBuilder.setServiceFunctionForwarderLocator(
+                    getHopServiceFunctionForwarderLocator(serviceFunctionForwarder));
         }
 
         renderedServicePathHopBuilder.setHopNumber(posIndex).setServiceIndex((short) serviceIndex)
                 .setServiceFunctionForwarder(serviceFunctionForwarderName);
     }
 
+    /**
+     * Get the SFF data plane locator a hop reaches the given SFF with: its
+     * only locator, or else its only locator not associated with an SF.
+     *
+     * <p>
+     *
+     * @param serviceFunctionForwarder
+     *            the SFF of the hop
+     * @return the SFF DPL name, null if there is none or it is ambiguous
+     */
+    public static SffDataPlaneLocatorName getHopServiceFunctionForwarderLocator(
+            ServiceFunctionForwarder serviceFunctionForwarder) {
+        if (serviceFunctionForwarder.getSffDataPlaneLocator() == null) {
+            return null;
+        }
+        if (serviceFunctionForwarder.getSffDataPlaneLocator().size() == 1) {
+            return serviceFunctionForwarder.getSffDataPlaneLocator().get(0).getName();
+        }
+
+        // If there is more than one SFF DPL, then find
+        // the one that is not associated with an SF
+        List<SffDataPlaneLocator> sffNonSfDplList =
+                SfcProviderServiceForwarderAPI.getNonSfDataPlaneLocators(serviceFunctionForwarder);
+        return sffNonSfDplList.size() == 1 ? sffNonSfDplList.get(0).getName() : null;
+    }
+
     /**
      * Create a Rendered Path and all the associated operational state based on
      * the given rendered service path and scheduler.
@@ -426,6 +468,60 @@ public final class SfcProviderRenderedPathAPI {
 
         long pathId;
 
+        List<RenderedServicePathHop> renderedServicePathHopArrayList = createRenderedServicePathHopList(
+                serviceFunctionPath, scheduler, new HashSet<>());
+
+        if (renderedServicePathHopArrayList == null) {
+            return null;
+        }
+
+        // Build the service function path so it can be committed to datastore
+        /*
+         * pathId = (serviceFunctionPath.getPathId() != null) ?
+         * serviceFunctionPath.getPathId() : numCreatedPathIncrementGet();
+         */
+
+        if (serviceFunctionPath.getPathId() == null) {
+            pathId = SfcServicePathId.checkAndAllocatePathId();
+        } else {
+            pathId = SfcServicePathId.chechAndAllocatePathId(serviceFunctionPath.getPathId());
+        }
+
+        if (pathId == -1) {
+            LOG.error("{}: Failed to allocate path-id: {}", Thread.currentThread().getStackTrace()[1], pathId);
+            releaseRenderedServicePathHops(serviceFunctionPath, renderedServicePathHopArrayList, scheduler);
+            return null;
+        }
+
+        return buildRenderedServicePath(serviceFunctionPath, rspName, renderedServicePathHopArrayList, pathId);
+    }
+
+    /**
+     * Schedule the Service Functions of a Service Function Path with the
+     * default scheduler and create the hop list of its RSP. No path id is
+     * allocated and nothing is written to the data store, so it may be called
+     * concurrently for several paths.
+     *
+     * <p>
+     *
+     * @param serviceFunctionPath
+     *            The SFP used to create the hop list
+     * @param oneChainOnlySfNames
+     *            The one-chain-only SFs already taken by the concurrently
+     *            created paths, the one-chain-only SFs of the hop list are
+     *            added to it
+     * @return List of {@link RenderedServicePathHop}, null if the SFs could
+     *         not be scheduled
+     */
+    public static List<RenderedServicePathHop> createRenderedServicePathHopList(
+            ServiceFunctionPath serviceFunctionPath, Set<SfName> oneChainOnlySfNames) {
+        return createRenderedServicePathHopList(serviceFunctionPath, DEFAULT_SCHEDULER_SUPPLIER.get(),
+                oneChainOnlySfNames);
+    }
+
+    private static List<RenderedServicePathHop> createRenderedServicePathHopList(
+            ServiceFunctionPath serviceFunctionPath, SfcServiceFunctionSchedulerAPI scheduler,
+            Set<SfName> oneChainOnlySfNames) {
         ServiceFunctionChain serviceFunctionChain;
         SfcName serviceFunctionChainName = serviceFunctionPath.getServiceChainName();
         serviceFunctionChain = serviceFunctionChainName != null
@@ -447,15 +543,19 @@ public final class SfcProviderRenderedPathAPI {
         }
 
         // Before trying to create the RSP, iterate the SFs checking for one-chain-only
+        List<SfName> oneChainOnlySfNameList = new ArrayList<>();
         if (sfNameList != null) {
             for (SfName sfName : sfNameList) {
                 List<SfServicePath> sfServicePathList = SfcProviderServiceFunctionAPI.readServiceFunctionState(sfName);
                 ServiceFunction sf = SfcProviderServiceFunctionAPI.readServiceFunction(sfName);
-                if (Boolean.TRUE.equals(sf.isOneChainOnly()) && sfServicePathList != null
-                        && !sfServicePathList.isEmpty()) {
-                    LOG.error("createRenderedServicePathEntry SF [{}] is-one-chain-only is TRUE and the SF "
-                            + "is already in use", sfName);
-                    return null;
+                if (Boolean.TRUE.equals(sf.isOneChainOnly())) {
+                    if (sfServicePathList != null && !sfServicePathList.isEmpty()) {
+                        LOG.error("createRenderedServicePathEntry SF [{}] is-one-chain-only is TRUE and the SF "
+                                + "is already in use", sfName);
+                        scheduler.releaseServiceFunctions(sfNameList, serviceFunctionPath);
+                        return null;
+                    }
+                    oneChainOnlySfNameList.add(sfName);
                 }
             }
         }
@@ -465,28 +565,72 @@ public final class SfcProviderRenderedPathAPI {
 
         if (renderedServicePathHopArrayList == null) {
             LOG.warn("createRenderedServicePathEntry createRenderedServicePathHopList returned null list");
+            if (sfNameList != null) {
+                scheduler.releaseServiceFunctions(sfNameList, serviceFunctionPath);
+            }
             return null;
         }
 
-        // Build the service function path so it can be committed to datastore
-        /*
-         * pathId = (serviceFunctionPath.getPathId() != null) ?
-         * serviceFunctionPath.getPathId() : numCreatedPathIncrementGet();
-         */
-
-        if (serviceFunctionPath.getPathId() == null) {
-            pathId = SfcServicePathId.checkAndAllocatePathId();
-        } else {
-            pathId = SfcServicePathId.chechAndAllocatePathId(serviceFunctionPath.getPathId());
+        // Take the one-chain-only SFs, unless a concurrently created path took one of them
+        synchronized (oneChainOnlySfNames) {
+            for (SfName sfName : oneChainOnlySfNameList) {
+                if (oneChainOnlySfNames.contains(sfName)) {
+                    LOG.error("createRenderedServicePathEntry SF [{}] is-one-chain-only is TRUE and the SF "
+                            + "is already in use", sfName);
+                    scheduler.releaseServiceFunctions(sfNameList, serviceFunctionPath);
+                    return null;
+                }
+            }
+            oneChainOnlySfNames.addAll(oneChainOnlySfNameList);
         }
 
-        if (pathId == -1) {
-            LOG.error("{}: Failed to allocate path-id: {}", Thread.currentThread().getStackTrace()[1], pathId);
-            return null;
-        }
+        return renderedServicePathHopArrayList;
+    }
 
+    /**
+     * Release the Service Functions scheduled for the hop list of a Service
+     * Function Path, when its RSP could not be created.
+     *
+     * @param serviceFunctionPath
+     *            The SFP the hop list was created for
+     * @param renderedServicePathHopList
+     *            The RSP hops
+     */
+    public static void releaseRenderedServicePathHops(ServiceFunctionPath serviceFunctionPath,
+            List<RenderedServicePathHop> renderedServicePathHopList) {
+        releaseRenderedServicePathHops(serviceFunctionPath, renderedServicePathHopList,
+                DEFAULT_SCHEDULER_SUPPLIER.get());
+    }
+
+    private static void releaseRenderedServicePathHops(ServiceFunctionPath serviceFunctionPath,
+            List<RenderedServicePathHop> renderedServicePathHopList, SfcServiceFunctionSchedulerAPI scheduler) {
+        // The hops of SFs are in chain order, SFG hops have no SF name
+        scheduler.releaseServiceFunctions(renderedServicePathHopList.stream()
+                .map(RenderedServicePathHop::getServiceFunctionName).collect(Collectors.toList()),
+                serviceFunctionPath);
+    }
+
+    /**
+     * Build a RSP from a Service Function Path, its hop list and its
+     * already allocated path id.
+     *
+     * <p>
+     *
+     * @param serviceFunctionPath
+     *            The SFP used to create this RSP
+     * @param rspName
+     *            Name of the RSP, generated from the SFP name and the path id
+     *            if null or empty
+     * @param renderedServicePathHopList
+     *            The RSP hops
+     * @param pathId
+     *            The allocated path id
+     * @return RenderedServicePath
+     */
+    public static RenderedServicePath buildRenderedServicePath(ServiceFunctionPath serviceFunctionPath,
+            String rspName, List<RenderedServicePathHop> renderedServicePathHopList, long pathId) {
         RenderedServicePathBuilder renderedServicePathBuilder = new RenderedServicePathBuilder();
-        renderedServicePathBuilder.setRenderedServicePathHop(renderedServicePathHopArrayList);
+        renderedServicePathBuilder.setRenderedServicePathHop(renderedServicePathHopList);
         // TODO Bug 4495 - RPCs hiding heuristics using Strings - alagalah
         if (rspName == null || rspName.isEmpty()) {
             renderedServicePathBuilder
@@ -500,7 +644,7 @@ public final class SfcProviderRenderedPathAPI {
         // renderedServicePathBuilder.setStartingIndex((short)
         // renderedServicePathHopArrayList.size());
         renderedServicePathBuilder.setStartingIndex((short) MAX_STARTING_INDEX);
-        renderedServicePathBuilder.setServiceChainName(serviceFunctionChainName);
+        renderedServicePathBuilder.setServiceChainName(serviceFunctionPath.getServiceChainName());
         renderedServicePathBuilder.setParentServiceFunctionPath(serviceFunctionPath.getName());
         renderedServicePathBuilder.setReversePath(false);
 
@@ -534,8 +678,6 @@ public final class SfcProviderRenderedPathAPI {
      * @return Nothing
      */
     public static RenderedServicePath createReverseRenderedServicePathEntry(RenderedServicePath renderedServicePath) {
-        RenderedServicePath ret = null;
-
         long pathId = SfcServicePathId.checkAndAllocateSymmetricPathId(renderedServicePath.getPathId());
         printTraceStart(LOG);
 
@@ -544,6 +686,23 @@ public final class SfcProviderRenderedPathAPI {
                     Thread.currentThread().getStackTrace()[1], renderedServicePath.getPathId());
         }
 
+        return createReverseRenderedServicePathEntry(renderedServicePath, pathId);
+    }
+
+    /**
+     * Creates a RSP that is mirror image of the given one, with an already
+     * allocated symmetric path id.
+     *
+     * <p>
+     *
+     * @param renderedServicePath
+     *            RSP object
+     * @param pathId
+     *            The symmetric path id
+     * @return the reverse RSP
+     */
+    public static RenderedServicePath createReverseRenderedServicePathEntry(RenderedServicePath renderedServicePath,
+            long pathId) {
         RenderedServicePathBuilder revRenderedServicePathBuilder = new RenderedServicePathBuilder(renderedServicePath);
         revRenderedServicePathBuilder.setPathId(pathId);
         RspName revPathName = generateReversedPathName(renderedServicePath.getName());
@@ -871,11 +1030,24 @@ public final class SfcProviderRenderedPathAPI {
      * @return True is there the RSP is symmetric, false otherwise.
      */
     public static boolean isChainSymmetric(ServiceFunctionPath sfp, RenderedServicePath rsp) {
+        return isChainSymmetric(sfp, rsp.getRenderedServicePathHop());
+    }
+
+    /**
+     * Determine if a Rendered Service Path should be Symmetric, given its
+     * hops.
+     *
+     * @param sfp
+     *            - used to get the symmetric flag
+     * @param rspHops
+     *            - the RSP hops to iterate over the SFs
+     * @return True is there the RSP is symmetric, false otherwise.
+     */
+    public static boolean isChainSymmetric(ServiceFunctionPath sfp, List<RenderedServicePathHop> rspHops) {
         if (sfp.isSymmetric() != null) {
             return sfp.isSymmetric();
         }
 
-        List<RenderedServicePathHop> rspHops = rsp.getRenderedServicePathHop();
         for (RenderedServicePathHop hop : rspHops) {
             ServiceFunction sf = SfcProviderServiceFunctionAPI.readServiceFunction(hop.getServiceFunctionName());
             ServiceFunctionType sfType = SfcProviderServiceTypeAPI.readServiceFunctionType(sf.getType());
@@ -0,0 +1,261 @@
+/*
+ * Copyright (c) 2018 Ericsson Inc. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.sfc.provider.api;
+
+import static org.opendaylight.sfc.provider.SfcProviderDebug.printTraceStart;
+import static org.opendaylight.sfc.provider.SfcProviderDebug.printTraceStop;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import javax.annotation.Nullable;
+import org.opendaylight.controller.md.sal.common.api.data.LogicalDatastoreType;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.common.rev151017.RspName;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.common.rev151017.SfName;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.common.rev151017.SffDataPlaneLocatorName;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.common.rev151017.SffName;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.common.rev151017.SfpName;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.rsp.rev140701.RenderedServicePaths;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.rsp.rev140701.rendered.service.paths.RenderedServicePath;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.rsp.rev140701.rendered.service.paths.RenderedServicePathBuilder;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.rsp.rev140701.rendered.service.paths.RenderedServicePathKey;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.rsp.rev140701.rendered.service.paths.rendered.service.path.RenderedServicePathHop;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.rsp.rev140701.rendered.service.paths.rendered.service.path.RenderedServicePathHopBuilder;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sf.rev140701.service.functions.ServiceFunction;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sff.rev140701.ServiceFunctionForwardersState;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sff.rev140701.service.function.forwarders.ServiceFunctionForwarder;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sff.rev140701.service.function.forwarders.state.ServiceFunctionForwarderState;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sff.rev140701.service.function.forwarders.state.ServiceFunctionForwarderStateKey;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sff.rev140701.service.function.forwarders.state.service.function.forwarder.state.SffServicePath;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sff.rev140701.service.function.forwarders.state.service.function.forwarder.state.SffServicePathKey;
+import org.opendaylight.yang.gen.v1.urn.ericsson.params.xml.ns.yang.sfc.sff.logical.rev160620.RspLogicalSffAugmentation;
+import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class has the APIs to repair Rendered Service Paths in place after an
+ * update of the SFs or SFFs they use.
+ *
+ * <p>
+ * The hops are recomputed the way they are when the RSP is created, keeping
+ * the SF of each hop: the SFF of the SF and the SFF locator the hop reaches it
+ * with. Only the hops that changed are rewritten, the name, path id, hop
+ * numbers and service indexes of the RSP are kept. The repaired RSP is written
+ * even if none of its hops changed, so that the renderers re-render it and
+ * pick up the SF or SFF change; they only rewrite the flows that changed.
+ *
+ * <p>
+ * An RSP can not be repaired when one of its SFs is gone: it does not exist
+ * anymore, has no data plane locator, or its SFF does not exist or has no
+ * dictionary entry for it. It can not be repaired either when its hops span
+ * more than one SFF and an SFF can no longer be reached through a locator.
+ * Such RSPs have to be rescheduled by deleting their SFP.
+ */
+public final class SfcProviderRenderedPathRepairAPI {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SfcProviderRenderedPathRepairAPI.class);
+
+    private SfcProviderRenderedPathRepairAPI() {
+    }
+
+    /**
+     * Repair the given RSPs in place, in the config and operational data
+     * stores, along with the SFF operational state.
+     *
+     * <p>
+     *
+     * @param rspNames
+     *            the names of the RSPs to repair
+     * @param serviceFunction
+     *            the updated SF, used instead of the one in the data store,
+     *            or null
+     * @param serviceFunctionForwarder
+     *            the updated SFF, used instead of the one in the data store,
+     *            or null
+     * @return the names of the RSPs that could not be repaired
+     */
+    public static List<RspName> repairRenderedServicePaths(List<RspName> rspNames,
+            @Nullable ServiceFunction serviceFunction, @Nullable ServiceFunctionForwarder serviceFunctionForwarder) {
+        printTraceStart(LOG);
+
+        Function<SfName, ServiceFunction> sfReader = sfName ->
+                serviceFunction != null && serviceFunction.getName().equals(sfName) ? serviceFunction
+                        : SfcProviderServiceFunctionAPI.readServiceFunction(sfName);
+        Function<SffName, ServiceFunctionForwarder> sffReader = sffName ->
+                serviceFunctionForwarder != null && serviceFunctionForwarder.getName().equals(sffName)
+                        ? serviceFunctionForwarder
+                        : SfcProviderServiceForwarderAPI.readServiceFunctionForwarder(sffName);
+
+        List<RspName> unrepairedRspNames = new ArrayList<>();
+        for (RspName rspName : rspNames) {
+            RenderedServicePath renderedServicePath = SfcProviderRenderedPathAPI.readRenderedServicePath(rspName);
+            if (renderedServicePath == null) {
+                LOG.debug("repairRenderedServicePaths: RSP {} already deleted", rspName.getValue());
+                continue;
+            }
+
+            List<RenderedServicePathHop> repairedHops =
+                    repairRenderedServicePathHops(renderedServicePath, sfReader, sffReader);
+            if (repairedHops == null || !writeRenderedServicePathHops(renderedServicePath, repairedHops)) {
+                unrepairedRspNames.add(rspName);
+            }
+        }
+
+        printTraceStop(LOG);
+        return unrepairedRspNames;
+    }
+
+    /**
+     * Recompute the hops of an RSP from the current SFs and SFFs.
+     *
+     * <p>
+     *
+     * @param renderedServicePath
+     *            the RSP to repair
+     * @param sfReader
+     *            the SF of a name, null if it does not exist
+     * @param sffReader
+     *            the SFF of a name, null if it does not exist
+     * @return the repaired hops, in hop order, the unchanged ones being the
+     *         original objects; null if the RSP can not be repaired
+     */
+    public static List<RenderedServicePathHop> repairRenderedServicePathHops(RenderedServicePath renderedServicePath,
+            Function<SfName, ServiceFunction> sfReader, Function<SffName, ServiceFunctionForwarder> sffReader) {
+        List<RenderedServicePathHop> hops = renderedServicePath.getRenderedServicePathHop();
+        if (hops == null) {
+            LOG.info("Can not repair RSP {}: it has no hops", renderedServicePath.getName().getValue());
+            return null;
+        }
+
+        Set<SffName> sffNames = new HashSet<>();
+        hops.forEach(hop -> sffNames.add(hop.getServiceFunctionForwarder()));
+        boolean isMultiSff = sffNames.size() > 1;
+
+        List<RenderedServicePathHop> repairedHops = new ArrayList<>(hops.size());
+        for (RenderedServicePathHop hop : hops) {
+            SfName sfName = hop.getServiceFunctionName();
+            SffName sffName = hop.getServiceFunctionForwarder();
+            if (sfName != null) {
+                // SF group hops keep their SFF, the SF of a plain hop may
+                // have moved to another SFF
+                ServiceFunction sf = sfReader.apply(sfName);
+                if (sf == null || sf.getSfDataPlaneLocator() == null || sf.getSfDataPlaneLocator().isEmpty()) {
+                    LOG.info("Can not repair RSP {}: SF {} has no data plane locator",
+                            renderedServicePath.getName().getValue(), sfName.getValue());
+                    return null;
+                }
+                sffName = sf.getSfDataPlaneLocator().get(0).getServiceFunctionForwarder();
+            }
+
+            ServiceFunctionForwarder sff = sffName == null ? null : sffReader.apply(sffName);
+            if (sff == null || sfName != null && !hasDictionaryEntry(sff, sfName)) {
+                LOG.info("Can not repair RSP {}: SF {} is not attached to SFF {}",
+                        renderedServicePath.getName().getValue(), sfName, sffName);
+                return null;
+            }
+
+            SffDataPlaneLocatorName sffLocatorName =
+                    SfcProviderRenderedPathAPI.getHopServiceFunctionForwarderLocator(sff);
+            if (sffLocatorName == null && hop.getServiceFunctionForwarderLocator() != null && isMultiSff) {
+                LOG.info("Can not repair RSP {}: SFF {} can no longer be reached",
+                        renderedServicePath.getName().getValue(), sffName.getValue());
+                return null;
+            }
+
+            if (sffName.equals(hop.getServiceFunctionForwarder())
+                    && Objects.equals(sffLocatorName, hop.getServiceFunctionForwarderLocator())) {
+                repairedHops.add(hop);
+                continue;
+            }
+
+            LOG.info("Repairing RSP {} hop {}: SFF {} locator {}, was SFF {} locator {}",
+                    renderedServicePath.getName().getValue(), hop.getHopNumber(), sffName, sffLocatorName,
+                    hop.getServiceFunctionForwarder(), hop.getServiceFunctionForwarderLocator());
+            // The logical SFF dpn id of the hop, if any, was the one of the
+            // previous SFF, it is written again by the renderer
+            repairedHops.add(new RenderedServicePathHopBuilder(hop).setServiceFunctionForwarder(sffName)
+                    .setServiceFunctionForwarderLocator(sffLocatorName)
+                    .removeAugmentation(RspLogicalSffAugmentation.class).build());
+        }
+
+        return repairedHops;
+    }
+
+    private static boolean hasDictionaryEntry(ServiceFunctionForwarder sff, SfName sfName) {
+        return sff.getServiceFunctionDictionary() != null && sff.getServiceFunctionDictionary().stream()
+                .anyMatch(sffDict -> sfName.equals(sffDict.getName()));
+    }
+
+    /**
+     * Write the repaired hops of an RSP in the config and operational data
+     * stores, and move the RSP between the SFF operational states if its hops
+     * changed SFF.
+     *
+     * <p>
+     *
+     * @param renderedServicePath
+     *            the operational RSP
+     * @param repairedHops
+     *            the repaired hops
+     * @return true if the RSP was written, false otherwise
+     */
+    private static boolean writeRenderedServicePathHops(RenderedServicePath renderedServicePath,
+            List<RenderedServicePathHop> repairedHops) {
+        RspName rspName = renderedServicePath.getName();
+        InstanceIdentifier<RenderedServicePath> rspIID = InstanceIdentifier.builder(RenderedServicePaths.class)
+                .child(RenderedServicePath.class, new RenderedServicePathKey(rspName)).build();
+
+        // Put, not merge, so that the locators no longer found are removed.
+        // The logical SFF dpn ids only belong to the operational RSP
+        RenderedServicePath configRenderedServicePath =
+                SfcProviderRenderedPathAPI.readRenderedServicePath(rspName, LogicalDatastoreType.CONFIGURATION);
+        List<RenderedServicePathHop> configRepairedHops = new ArrayList<>();
+        repairedHops.forEach(hop -> configRepairedHops.add(
+                new RenderedServicePathHopBuilder(hop).removeAugmentation(RspLogicalSffAugmentation.class).build()));
+        if (configRenderedServicePath != null && !SfcDataStoreAPI.writePutTransactionAPI(rspIID,
+                new RenderedServicePathBuilder(configRenderedServicePath).setRenderedServicePathHop(configRepairedHops)
+                        .build(), LogicalDatastoreType.CONFIGURATION)) {
+            LOG.error("Failed to write the repaired config RSP {}", rspName.getValue());
+            return false;
+        }
+
+        RenderedServicePath repairedRenderedServicePath =
+                new RenderedServicePathBuilder(renderedServicePath).setRenderedServicePathHop(repairedHops).build();
+        if (!SfcDataStoreAPI.writePutTransactionAPI(rspIID, repairedRenderedServicePath,
+                LogicalDatastoreType.OPERATIONAL)) {
+            LOG.error("Failed to write the repaired operational RSP {}", rspName.getValue());
+            return false;
+        }
+
+        Set<SffName> sffNames = new HashSet<>();
+        renderedServicePath.getRenderedServicePathHop().forEach(hop -> sffNames.add(hop.getServiceFunctionForwarder()));
+        Set<SffName> repairedSffNames = new HashSet<>();
+        repairedHops.forEach(hop -> repairedSffNames.add(hop.getServiceFunctionForwarder()));
+        if (!sffNames.equals(repairedSffNames)) {
+            SffServicePathKey sffServicePathKey = new SffServicePathKey(new SfpName(rspName.getValue()));
+            sffNames.removeAll(repairedSffNames);
+            for (SffName sffName : sffNames) {
+                InstanceIdentifier<SffServicePath> sffStateIID =
+                        InstanceIdentifier.builder(ServiceFunctionForwardersState.class)
+                                .child(ServiceFunctionForwarderState.class,
+                                        new ServiceFunctionForwarderStateKey(sffName))
+                                .child(SffServicePath.class, sffServicePathKey).build();
+                SfcDataStoreAPI.deleteTransactionAPIAsync(sffStateIID, LogicalDatastoreType.OPERATIONAL);
+            }
+            SfcProviderServiceForwarderAPI.addPathToServiceForwarderStateAsync(repairedRenderedServicePath);
+        }
+
+        LOG.info("Repaired RSP {} in place", rspName.getValue());
+        return true;
+    }
+}
@@ -11,13 +11,15 @@ package org.opendaylight.sfc.provider.api;
 import static org.opendaylight.sfc.provider.SfcProviderDebug.printTraceStart;
 import static org.opendaylight.sfc.provider.SfcProviderDebug.printTraceStop;
 
+import com.google.common.util.concurrent.ListenableFuture;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
+import org.opendaylight.controller.md.sal.binding.api.WriteTransaction;
 import org.opendaylight.controller.md.sal.common.api.data.LogicalDatastoreType;
 import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.common.rev151017.RspName;
 import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.common.rev151017.SffDataPlaneLocatorName;
@@ -107,7 +109,7 @@ public final class SfcProviderServiceForwarderAPI {
                 }
             }
         } else {
-            LOG.error("{}: Failed to read SFF: {}", Thread.currentThread().getStackTrace()[1], sffName);
+            LOG.error("readServiceFunctionForwarderDataPlaneLocator: Failed to read SFF: {}", sffName);
         }
         return null;
     }
@@ -130,7 +132,7 @@ public final class SfcProviderServiceForwarderAPI {
         sffIID = InstanceIdentifier.builder(ServiceFunctionForwarders.class)
                 .child(ServiceFunctionForwarder.class, serviceFunctionForwarderKey).build();
 
-        sff = SfcDataStoreAPI.readTransactionAPI(sffIID, LogicalDatastoreType.CONFIGURATION);
+        sff = SfcDataStoreReadCache.SERVICE_FUNCTION_FORWARDERS.get(serviceFunctionForwarderName, sffIID);
         printTraceStop(LOG);
         return sff;
     }
@@ -191,9 +193,26 @@ public final class SfcProviderServiceForwarderAPI {
      * @return Nothing.
      */
     public static boolean addPathToServiceForwarderState(RenderedServicePath renderedServicePath) {
-        printTraceStart(LOG);
+        if (SfcDataStoreAPI.getWriteResult(addPathToServiceForwarderStateAsync(renderedServicePath))) {
+            return true;
+        }
+        LOG.error("Failed to add path {} to SFF state.", renderedServicePath.getName());
+        return false;
+    }
 
-        boolean ret = true;
+    /**
+     * We add the path name to the operational store of each SFF, without
+     * waiting for the writes to complete.
+     *
+     * <p>
+     *
+     * @param renderedServicePath
+     *            RSP Object
+     * @return a future set to true if the path was added, false otherwise
+     */
+    public static ListenableFuture<Boolean> addPathToServiceForwarderStateAsync(
+            RenderedServicePath renderedServicePath) {
+        printTraceStart(LOG);
 
         // TODO another example of strings being used to interchange types. Note
         // the constructor of
@@ -204,6 +223,7 @@ public final class SfcProviderServiceForwarderAPI {
         sffServicePathBuilder.withKey(sffServicePathKey);
         sffServicePathBuilder.setName(new SfpName(renderedServicePath.getName().getValue()));
 
+        List<ListenableFuture<Boolean>> writeResults = new ArrayList<>();
         List<RenderedServicePathHop> renderedServicePathHopList = renderedServicePath.getRenderedServicePathHop();
         for (RenderedServicePathHop renderedServicePathHop : renderedServicePathHopList) {
             ServiceFunctionForwarderStateKey serviceFunctionForwarderStateKey =
@@ -213,15 +233,40 @@ public final class SfcProviderServiceForwarderAPI {
                             .child(ServiceFunctionForwarderState.class, serviceFunctionForwarderStateKey)
                             .child(SffServicePath.class, sffServicePathKey).build();
 
-            if (!SfcDataStoreAPI.writePutTransactionAPI(sfStateIID, sffServicePathBuilder.build(),
-                    LogicalDatastoreType.OPERATIONAL)) {
-                ret = false;
-                LOG.error("Failed to add path {} to SFF {} state.", renderedServicePath.getName(),
-                        renderedServicePathHop.getServiceFunctionForwarder());
-            }
+            writeResults.add(SfcDataStoreAPI.writePutTransactionAPIAsync(sfStateIID, sffServicePathBuilder.build(),
+                    LogicalDatastoreType.OPERATIONAL));
         }
         printTraceStop(LOG);
-        return ret;
+        return SfcDataStoreAPI.combineWriteResults(writeResults);
+    }
+
+    /**
+     * We add the path name to the operational store of each SFF, as part of
+     * the given transaction.
+     *
+     * <p>
+     *
+     * @param renderedServicePath
+     *            RSP Object
+     * @param writeTx
+     *            the transaction to write the SFF state with
+     */
+    public static void addPathToServiceForwarderState(RenderedServicePath renderedServicePath,
+            WriteTransaction writeTx) {
+        SffServicePathKey sffServicePathKey =
+                new SffServicePathKey(new SfpName(renderedServicePath.getName().getValue()));
+        SffServicePath sffServicePath = new SffServicePathBuilder().withKey(sffServicePathKey)
+                .setName(new SfpName(renderedServicePath.getName().getValue())).build();
+
+        for (RenderedServicePathHop renderedServicePathHop : renderedServicePath.getRenderedServicePathHop()) {
+            InstanceIdentifier<SffServicePath> sfStateIID =
+                    InstanceIdentifier.builder(ServiceFunctionForwardersState.class)
+                            .child(ServiceFunctionForwarderState.class,
+                                    new ServiceFunctionForwarderStateKey(
+                                            renderedServicePathHop.getServiceFunctionForwarder()))
+                            .child(SffServicePath.class, sffServicePathKey).build();
+            writeTx.put(LogicalDatastoreType.OPERATIONAL, sfStateIID, sffServicePath, true);
+        }
     }
 
     /**
@@ -235,50 +280,8 @@ public final class SfcProviderServiceForwarderAPI {
      * @return true if all paths were deleted, false otherwise.
      */
     public static boolean deletePathFromServiceForwarderState(ServiceFunctionPath serviceFunctionPath) {
-        printTraceStart(LOG);
-
-        boolean ret = true;
-
         // TODO Bug 4495 - RPCs hiding heuristics using Strings
-        RspName rspName = new RspName(serviceFunctionPath.getName().getValue());
-        RenderedServicePath renderedServicePath = SfcProviderRenderedPathAPI
-                .readRenderedServicePath(new RspName(serviceFunctionPath.getName().getValue()));
-
-        if (renderedServicePath != null) {
-            Set<SffName> sffNameSet = new HashSet<>();
-            List<RenderedServicePathHop> renderedServicePathHopList = renderedServicePath.getRenderedServicePathHop();
-            for (RenderedServicePathHop renderedServicePathHop : renderedServicePathHopList) {
-
-                SffName sffName = renderedServicePathHop.getServiceFunctionForwarder();
-                if (sffNameSet.add(sffName)) {
-                    // TODO Bug 4495 - RPCs hiding heuristics using Strings -
-                    SffServicePathKey sffServicePathKey = new SffServicePathKey(new SfpName(rspName.getValue()));
-                    ServiceFunctionForwarderStateKey serviceFunctionForwarderStateKey =
-                            new ServiceFunctionForwarderStateKey(sffName);
-                    InstanceIdentifier<SffServicePath> sfStateIID =
-                            InstanceIdentifier.builder(ServiceFunctionForwardersState.class)
-                                    .child(ServiceFunctionForwarderState.class, serviceFunctionForwarderStateKey)
-                                    .child(SffServicePath.class, sffServicePathKey).build();
-                    if (SfcDataStoreAPI.deleteTransactionAPI(sfStateIID, LogicalDatastoreType.OPERATIONAL)) {
-                        ret = true;
-                    } else {
-                        ret = false;
-                        LOG.error("Could not delete Service Path {} from SFF {} operational state : {}", rspName,
-                                sffName);
-                    }
-                    List<SffServicePath> sffServicePathList = readSffState(sffName);
-                    if (sffServicePathList != null && sffServicePathList.isEmpty()
-                            && !deleteServiceFunctionForwarderState(sffName)) {
-                        ret = false;
-                    }
-                }
-            }
-        } else {
-            LOG.error("{}: Rendered Service Path {} does not exist", Thread.currentThread().getStackTrace()[1],
-                    serviceFunctionPath.getName());
-        }
-        printTraceStop(LOG);
-        return ret;
+        return deletePathFromServiceForwarderState(new RspName(serviceFunctionPath.getName().getValue()));
     }
 
     /**
@@ -325,7 +328,8 @@ public final class SfcProviderServiceForwarderAPI {
         RenderedServicePath renderedServicePath = SfcProviderRenderedPathAPI.readRenderedServicePath(rspName);
 
         if (renderedServicePath != null) {
-            Set<SffName> sffNameSet = new HashSet<>();
+            Set<SffName> sffNameSet = new LinkedHashSet<>();
+            List<ListenableFuture<Boolean>> writeResults = new ArrayList<>();
             List<RenderedServicePathHop> renderedServicePathHopList = renderedServicePath.getRenderedServicePathHop();
             for (RenderedServicePathHop renderedServicePathHop : renderedServicePathHopList) {
 
@@ -339,23 +343,25 @@ public final class SfcProviderServiceForwarderAPI {
                             InstanceIdentifier.builder(ServiceFunctionForwardersState.class)
                                     .child(ServiceFunctionForwarderState.class, serviceFunctionForwarderStateKey)
                                     .child(SffServicePath.class, sffServicePathKey).build();
-                    if (SfcDataStoreAPI.deleteTransactionAPI(sfStateIID, LogicalDatastoreType.OPERATIONAL)) {
-                        ret = true;
-                    } else {
-                        ret = false;
-                        LOG.error("Could not delete Service Path {} from SFF {} operational state : {}", rspName,
-                                sffname);
-                    }
-                    List<SffServicePath> sffServicePathList = readSffState(sffname);
-                    if (sffServicePathList != null && sffServicePathList.isEmpty()
-                            && !deleteServiceFunctionForwarderState(sffname)) {
-                        ret = false;
-                    }
+                    writeResults.add(SfcDataStoreAPI.deleteTransactionAPIAsync(sfStateIID,
+                            LogicalDatastoreType.OPERATIONAL));
+                }
+            }
+            if (!SfcDataStoreAPI.getWriteResult(SfcDataStoreAPI.combineWriteResults(writeResults))) {
+                ret = false;
+                LOG.error("Could not delete Service Path {} from SFF {} operational state", rspName, sffNameSet);
+            }
+
+            // SFF states left without paths are removed
+            for (SffName sffname : sffNameSet) {
+                List<SffServicePath> sffServicePathList = readSffState(sffname);
+                if (sffServicePathList != null && sffServicePathList.isEmpty()
+                        && !deleteServiceFunctionForwarderState(sffname)) {
+                    ret = false;
                 }
             }
         } else {
-            LOG.error("{}: Rendered Service Path {} does not exist", Thread.currentThread().getStackTrace()[1],
-                    rspName);
+            LOG.error("deletePathFromServiceForwarderState: Rendered Service Path {} does not exist", rspName);
         }
         printTraceStop(LOG);
         return ret;
@@ -383,7 +389,7 @@ public final class SfcProviderServiceForwarderAPI {
         if (SfcDataStoreAPI.deleteTransactionAPI(sffStateIID, LogicalDatastoreType.OPERATIONAL)) {
             ret = true;
         } else {
-            LOG.error("{}: Could not delete operational state for SFF: {}", Thread.currentThread().getStackTrace()[1],
+            LOG.error("deleteServiceFunctionForwarderState: Could not delete operational state for SFF: {}",
                     sffName);
         }
         return ret;
@@ -11,8 +11,11 @@ package org.opendaylight.sfc.provider.api;
 import static org.opendaylight.sfc.provider.SfcProviderDebug.printTraceStart;
 import static org.opendaylight.sfc.provider.SfcProviderDebug.printTraceStop;
 
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 import java.util.ArrayList;
 import java.util.List;
+import org.opendaylight.controller.md.sal.binding.api.WriteTransaction;
 import org.opendaylight.controller.md.sal.common.api.data.LogicalDatastoreType;
 import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.common.rev151017.RspName;
 import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.common.rev151017.SfName;
@@ -142,7 +145,8 @@ public final class SfcProviderServiceFunctionAPI {
         dataSfcStateObject = SfcDataStoreAPI.readTransactionAPI(sfStateIID, LogicalDatastoreType.OPERATIONAL);
         // Read the list of Service Function Path anchored by this SFF
         if (dataSfcStateObject != null) {
-            ret = dataSfcStateObject.augmentation(ServiceFunctionState1.class).getSfcSfDescMon();
+            ServiceFunctionState1 serviceFunctionState1 = dataSfcStateObject.augmentation(ServiceFunctionState1.class);
+            ret = serviceFunctionState1 != null ? serviceFunctionState1.getSfcSfDescMon() : null;
         } else {
             LOG.warn("readServiceFunctionDescriptionMonitor() Service Function {} has no operational state",
                     serviceFunctionName);
@@ -171,7 +175,7 @@ public final class SfcProviderServiceFunctionAPI {
         if (SfcDataStoreAPI.deleteTransactionAPI(sfStateIID, LogicalDatastoreType.OPERATIONAL)) {
             ret = true;
         } else {
-            LOG.error("{}: Could not delete operational state for SF: {}", Thread.currentThread().getStackTrace()[1],
+            LOG.error("deleteServiceFunctionState: Could not delete operational state for SF: {}",
                     serviceFunctionName);
         }
         return ret;
@@ -187,6 +191,26 @@ public final class SfcProviderServiceFunctionAPI {
      * @return true if SFP was added, false otherwise
      */
     public static boolean addPathToServiceFunctionState(RenderedServicePath renderedServicePath) {
+        if (SfcDataStoreAPI.getWriteResult(addPathToServiceFunctionStateAsync(renderedServicePath))) {
+            return true;
+        }
+        LOG.error("addPathToServiceFunctionState: Could not add SFP {} to operational state of its SFs",
+                renderedServicePath.getName());
+        return false;
+    }
+
+    /**
+     * This method adds a RSP name to the corresponding SF operational state
+     * without waiting for the writes to complete.
+     *
+     * <p>
+     *
+     * @param renderedServicePath
+     *            RSP object
+     * @return a future set to true if SFP was added, false otherwise
+     */
+    public static ListenableFuture<Boolean> addPathToServiceFunctionStateAsync(
+            RenderedServicePath renderedServicePath) {
         boolean ret = false;
         printTraceStart(LOG);
 
@@ -196,6 +220,7 @@ public final class SfcProviderServiceFunctionAPI {
         SfServicePathBuilder sfServicePathBuilder = new SfServicePathBuilder();
         sfServicePathBuilder.withKey(sfServicePathKey);
         sfServicePathBuilder.setName(sfpName);
+        List<ListenableFuture<Boolean>> writeResults = new ArrayList<>();
         List<RenderedServicePathHop> renderedServicePathHopList = renderedServicePath.getRenderedServicePathHop();
         for (RenderedServicePathHop renderedServicePathHop : renderedServicePathHopList) {
             SfName serviceFunctionName = renderedServicePathHop.getServiceFunctionName();
@@ -210,23 +235,46 @@ public final class SfcProviderServiceFunctionAPI {
                         .child(ServiceFunctionState.class, serviceFunctionStateKey)
                         .child(SfServicePath.class, sfServicePathKey).build();
 
-                if (SfcDataStoreAPI.writePutTransactionAPI(sfStateIID, sfServicePathBuilder.build(),
-                        LogicalDatastoreType.OPERATIONAL)) {
-                    ret = true;
-                } else {
-                    LOG.error("{}: Could not add SFP {} to operational state of SF: {}",
-                            Thread.currentThread().getStackTrace()[1], renderedServicePath.getName(),
-                            renderedServicePathHop.getServiceFunctionName());
-                }
+                writeResults.add(SfcDataStoreAPI.writePutTransactionAPIAsync(sfStateIID,
+                        sfServicePathBuilder.build(), LogicalDatastoreType.OPERATIONAL));
             } else if (serviceFunctionGroupName != null) {
-                LOG.info("{}: Could not add SFP {} to operational state of SFG: {}",
-                        Thread.currentThread().getStackTrace()[1], renderedServicePath.getName(),
-                        serviceFunctionGroupName);
+                LOG.info("addPathToServiceFunctionState: Could not add SFP {} to operational state of SFG: {}",
+                        renderedServicePath.getName(), serviceFunctionGroupName);
                 ret = true;
             }
         }
         printTraceStop(LOG);
-        return ret;
+        if (writeResults.isEmpty()) {
+            return Futures.immediateFuture(ret);
+        }
+        return SfcDataStoreAPI.combineWriteResults(writeResults);
+    }
+
+    /**
+     * This method adds a RSP name to the corresponding SF operational state,
+     * as part of the given transaction.
+     *
+     * <p>
+     *
+     * @param renderedServicePath
+     *            RSP object
+     * @param writeTx
+     *            the transaction to write the SF state with
+     */
+    public static void addPathToServiceFunctionState(RenderedServicePath renderedServicePath,
+            WriteTransaction writeTx) {
+        SfpName sfpName = new SfpName(renderedServicePath.getParentServiceFunctionPath().getValue());
+        SfServicePathKey sfServicePathKey = new SfServicePathKey(sfpName);
+        SfServicePath sfServicePath = new SfServicePathBuilder().withKey(sfServicePathKey).setName(sfpName).build();
+        for (RenderedServicePathHop renderedServicePathHop : renderedServicePath.getRenderedServicePathHop()) {
+            if (renderedServicePathHop.getServiceFunctionName() != null) {
+                InstanceIdentifier<SfServicePath> sfStateIID = InstanceIdentifier.builder(ServiceFunctionsState.class)
+                        .child(ServiceFunctionState.class,
+                                new ServiceFunctionStateKey(renderedServicePathHop.getServiceFunctionName()))
+                        .child(SfServicePath.class, sfServicePathKey).build();
+                writeTx.put(LogicalDatastoreType.OPERATIONAL, sfStateIID, sfServicePath, true);
+            }
+        }
     }
 
     /**
@@ -304,7 +352,7 @@ public final class SfcProviderServiceFunctionAPI {
         sfIID = InstanceIdentifier.builder(ServiceFunctions.class).child(ServiceFunction.class, serviceFunctionKey)
                 .build();
 
-        sf = SfcDataStoreAPI.readTransactionAPI(sfIID, LogicalDatastoreType.CONFIGURATION);
+        sf = SfcDataStoreReadCache.SERVICE_FUNCTIONS.get(serviceFunctionName, sfIID);
 
         printTraceStop(LOG);
         return sf;
@@ -342,6 +390,7 @@ public final class SfcProviderServiceFunctionAPI {
                 .readRenderedServicePath(rspNameFromSfpName);
 
         if (renderedServicePath != null) {
+            List<ListenableFuture<Boolean>> writeResults = new ArrayList<>();
             List<RenderedServicePathHop> renderedServicePathHopList = renderedServicePath.getRenderedServicePathHop();
             for (RenderedServicePathHop renderedServicePathHop : renderedServicePathHopList) {
                 SfName sfName = renderedServicePathHop.getServiceFunctionName();
@@ -355,16 +404,15 @@ public final class SfcProviderServiceFunctionAPI {
                 InstanceIdentifier<SfServicePath> sfStateIID = InstanceIdentifier.builder(ServiceFunctionsState.class)
                         .child(ServiceFunctionState.class, serviceFunctionStateKey)
                         .child(SfServicePath.class, sfServicePathKey).build();
-                if (SfcDataStoreAPI.deleteTransactionAPI(sfStateIID, LogicalDatastoreType.OPERATIONAL)) {
-                    ret = true;
-                } else {
-                    ret = false;
-                    LOG.error("{}: Could not delete Service Path {} from SF {} operational state",
-                            Thread.currentThread().getStackTrace()[1], rspName, sfName);
-                }
+                writeResults.add(SfcDataStoreAPI.deleteTransactionAPIAsync(sfStateIID,
+                        LogicalDatastoreType.OPERATIONAL));
+            }
+            ret = SfcDataStoreAPI.getWriteResult(SfcDataStoreAPI.combineWriteResults(writeResults));
+            if (!ret) {
+                LOG.error("Could not delete Service Path {} from SF operational state", renderedServicePath.getName());
             }
         } else {
-            LOG.error("{}: Rendered Service Path {} does not exist", Thread.currentThread().getStackTrace()[1],
+            LOG.error("deleteServicePathFromServiceFunctionState: Rendered Service Path {} does not exist",
                     sfpName);
         }
         printTraceStop(LOG);
@@ -401,6 +449,7 @@ public final class SfcProviderServiceFunctionAPI {
         RenderedServicePath renderedServicePath = SfcProviderRenderedPathAPI.readRenderedServicePath(rspName);
 
         if (renderedServicePath != null) {
+            List<ListenableFuture<Boolean>> writeResults = new ArrayList<>();
             List<RenderedServicePathHop> renderedServicePathHopList = renderedServicePath.getRenderedServicePathHop();
             for (RenderedServicePathHop renderedServicePathHop : renderedServicePathHopList) {
                 SfName sfName = renderedServicePathHop.getServiceFunctionName();
@@ -413,17 +462,15 @@ public final class SfcProviderServiceFunctionAPI {
                 InstanceIdentifier<SfServicePath> sfStateIID = InstanceIdentifier.builder(ServiceFunctionsState.class)
                         .child(ServiceFunctionState.class, serviceFunctionStateKey)
                         .child(SfServicePath.class, sfServicePathKey).build();
-                if (SfcDataStoreAPI.deleteTransactionAPI(sfStateIID, LogicalDatastoreType.OPERATIONAL)) {
-                    ret = true;
-                } else {
-                    ret = false;
-                    LOG.error("{}: Could not delete Rendered Service Path {} from SF {} operational state",
-                            Thread.currentThread().getStackTrace()[1], rspName, sfName);
-                }
+                writeResults.add(SfcDataStoreAPI.deleteTransactionAPIAsync(sfStateIID,
+                        LogicalDatastoreType.OPERATIONAL));
+            }
+            ret = SfcDataStoreAPI.getWriteResult(SfcDataStoreAPI.combineWriteResults(writeResults));
+            if (!ret) {
+                LOG.error("Could not delete Rendered Service Path {} from SF operational state", rspName);
             }
         } else {
-            LOG.error("{}: Rendered Service Path {} does not exist", Thread.currentThread().getStackTrace()[1],
-                    rspName);
+            LOG.error("deleteRspFromServiceFunctionState: Rendered Service Path {} does not exist", rspName);
         }
         printTraceStop(LOG);
         return ret;
@@ -81,7 +81,7 @@ public final class SfcProviderServiceFunctionGroupAPI {
         sfgIID = InstanceIdentifier.builder(ServiceFunctionGroups.class)
                 .child(ServiceFunctionGroup.class, serviceFunctionGroupKey).build();
 
-        sfg = SfcDataStoreAPI.readTransactionAPI(sfgIID, LogicalDatastoreType.CONFIGURATION);
+        sfg = SfcDataStoreReadCache.SERVICE_FUNCTION_GROUPS.get(serviceFunctionGroupName, sfgIID);
         printTraceStop(LOG);
         return sfg;
     }
@@ -11,8 +11,10 @@ package org.opendaylight.sfc.provider.api;
 import static org.opendaylight.sfc.provider.SfcProviderDebug.printTraceStart;
 import static org.opendaylight.sfc.provider.SfcProviderDebug.printTraceStop;
 
+import com.google.common.util.concurrent.ListenableFuture;
 import java.util.Collections;
 import java.util.List;
+import org.opendaylight.controller.md.sal.binding.api.WriteTransaction;
 import org.opendaylight.controller.md.sal.common.api.data.LogicalDatastoreType;
 import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.common.rev151017.RspName;
 import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.common.rev151017.SfpName;
@@ -80,6 +82,28 @@ public final class SfcProviderServicePathAPI {
      * @return Nothing.
      */
     public static boolean addRenderedPathToServicePathState(SfpName servicePathName, RspName renderedPathName) {
+        if (SfcDataStoreAPI.getWriteResult(addRenderedPathToServicePathStateAsync(servicePathName,
+                renderedPathName))) {
+            return true;
+        }
+        LOG.error("addRenderedPathToServicePathState: Failed to create Service Function Path {} state. "
+                + "Rendered Service Path: {}", servicePathName, renderedPathName);
+        return false;
+    }
+
+    /**
+     * Add a Rendered Path name to the Service Function Path operational state
+     * without waiting for the write to complete.
+     *
+     * @param servicePathName
+     *            Service Function Path name
+     * @param renderedPathName
+     *            Rendered Path name
+     * @return a future set to true if the Rendered Path was added, false
+     *         otherwise
+     */
+    public static ListenableFuture<Boolean> addRenderedPathToServicePathStateAsync(SfpName servicePathName,
+            RspName renderedPathName) {
         printTraceStart(LOG);
 
         SfpRenderedServicePathKey sfpRenderedServicePathKey = new SfpRenderedServicePathKey(renderedPathName);
@@ -91,15 +115,31 @@ public final class SfcProviderServicePathAPI {
                         .child(ServiceFunctionPathState.class, new ServiceFunctionPathStateKey(servicePathName))
                         .child(SfpRenderedServicePath.class, sfpRenderedServicePathKey).build();
 
-        if (SfcDataStoreAPI.writeMergeTransactionAPI(rspIID, sfpRenderedServicePathBuilder.build(),
-                LogicalDatastoreType.OPERATIONAL)) {
-            return true;
-        } else {
-            LOG.error("{}: Failed to create Service Function Path {} state. Rendered Service Path: {}",
-                    Thread.currentThread().getStackTrace()[1], servicePathName, renderedPathName);
-        }
         printTraceStop(LOG);
-        return false;
+        return SfcDataStoreAPI.writeMergeTransactionAPIAsync(rspIID, sfpRenderedServicePathBuilder.build(),
+                LogicalDatastoreType.OPERATIONAL);
+    }
+
+    /**
+     * Add a Rendered Path name to the Service Function Path operational
+     * state, as part of the given transaction.
+     *
+     * @param servicePathName
+     *            Service Function Path name
+     * @param renderedPathName
+     *            Rendered Path name
+     * @param writeTx
+     *            the transaction to write the SFP state with
+     */
+    public static void addRenderedPathToServicePathState(SfpName servicePathName, RspName renderedPathName,
+            WriteTransaction writeTx) {
+        SfpRenderedServicePathKey sfpRenderedServicePathKey = new SfpRenderedServicePathKey(renderedPathName);
+        InstanceIdentifier<SfpRenderedServicePath> rspIID =
+                InstanceIdentifier.builder(ServiceFunctionPathsState.class)
+                        .child(ServiceFunctionPathState.class, new ServiceFunctionPathStateKey(servicePathName))
+                        .child(SfpRenderedServicePath.class, sfpRenderedServicePathKey).build();
+        writeTx.merge(LogicalDatastoreType.OPERATIONAL, rspIID, new SfpRenderedServicePathBuilder()
+                .withKey(sfpRenderedServicePathKey).setName(renderedPathName).build(), true);
     }
 
     public static boolean deleteRenderedPathFromServicePathState(SfpName sfpName, RspName rspName) {
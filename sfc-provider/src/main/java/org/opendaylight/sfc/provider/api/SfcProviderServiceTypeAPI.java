@@ -113,7 +113,7 @@ public final class SfcProviderServiceTypeAPI {
         ServiceFunctionTypeKey serviceFunctionTypeKey = new ServiceFunctionTypeKey(serviceFunctionType);
         sftIID = InstanceIdentifier.builder(ServiceFunctionTypes.class)
                 .child(ServiceFunctionType.class, serviceFunctionTypeKey).build();
-        sft = SfcDataStoreAPI.readTransactionAPI(sftIID, LogicalDatastoreType.CONFIGURATION);
+        sft = SfcDataStoreReadCache.SERVICE_FUNCTION_TYPES.get(serviceFunctionType, sftIID);
         if (sft == null) {
             LOG.error("Could not read Service Function list for Type {} ", serviceFunctionType);
         }
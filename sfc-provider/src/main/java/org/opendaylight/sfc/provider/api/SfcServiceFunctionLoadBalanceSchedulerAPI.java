@@ -12,13 +12,11 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.common.rev151017.SfName;
-import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sf.rev140701.service.functions.ServiceFunction;
 import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sfc.rev140701.service.function.chain.grouping.ServiceFunctionChain;
 import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sfc.rev140701.service.function.chain.grouping.service.function.chain.SfcServiceFunction;
 import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sfp.rev140701.service.function.paths.ServiceFunctionPath;
 import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sft.rev140701.service.function.types.ServiceFunctionType;
 import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sft.rev140701.service.function.types.service.function.type.SftServiceFunctionName;
-import org.opendaylight.yang.gen.v1.urn.intel.params.xml.ns.sf.desc.mon.rev141201.service.functions.state.service.function.state.SfcSfDescMon;
 import org.opendaylight.yang.gen.v1.urn.intel.params.xml.ns.yang.sfc.sfst.rev150312.LoadBalance;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -51,40 +49,10 @@ public final class SfcServiceFunctionLoadBalanceSchedulerAPI extends SfcServiceF
      * SfcServiceFunctionSchedulerAPI and Interface?
      */
     private SfName getServiceFunctionByType(ServiceFunctionType serviceFunctionType) {
-        List<SftServiceFunctionName> sftServiceFunctionNameList = serviceFunctionType.getSftServiceFunctionName();
-        SfName sfName;
-        SfName sftServiceFunctionName = null;
-        java.lang.Long preCPUUtilization = java.lang.Long.MAX_VALUE;
-
-        // TODO As part of typedef refactor not message with SFTs
-        for (SftServiceFunctionName curSftServiceFunctionName : sftServiceFunctionNameList) {
-            sfName = new SfName(curSftServiceFunctionName.getName());
-
-            /* Check next one if curSftServiceFunctionName doesn't exist */
-            ServiceFunction serviceFunction = SfcProviderServiceFunctionAPI.readServiceFunction(sfName);
-            if (serviceFunction == null) {
-                LOG.error("ServiceFunction {} doesn't exist", sfName);
-                continue;
-            }
-
-            /* Read ServiceFunctionMonitor information */
-            SfcSfDescMon sfcSfDescMon = SfcProviderServiceFunctionAPI.readServiceFunctionDescriptionMonitor(sfName);
-            if (sfcSfDescMon == null) {
-                // TODO As part of typedef refactor not message with SFTs
-                sftServiceFunctionName = sfName;
-                LOG.error("Read monitor information from Data Store failed! serviceFunction: {}", sfName);
-                // Use sfName if no sfcSfDescMon is available
-                break;
-            }
-
-            java.lang.Long curCPUUtilization = sfcSfDescMon.getMonitoringInfo().getResourceUtilization()
-                    .getCPUUtilization();
-
-            if (preCPUUtilization > curCPUUtilization) {
-                preCPUUtilization = curCPUUtilization;
-                sftServiceFunctionName = sfName;
-            }
-        }
+        // The load view is fed by the SF description monitor listener
+        SfName sftServiceFunctionName = SfcServiceFunctionLoadCache.selectServiceFunction(
+                SfcDataStoreAPI.getDataProvider(), serviceFunctionType.getType().getValue(),
+                serviceFunctionType.getSftServiceFunctionName());
 
         if (sftServiceFunctionName == null) {
             LOG.error("Failed to get one available ServiceFunction for {}", serviceFunctionType.getType());
@@ -130,19 +98,37 @@ public final class SfcServiceFunctionLoadBalanceSchedulerAPI extends SfcServiceF
                 if (!sftServiceFunctionNameList.isEmpty()) {
                     // TODO As part of typedef refactor not message with SFTs
                     SfName sfName = getServiceFunctionByType(serviceFunctionType);
+                    if (sfName == null) {
+                        releaseServiceFunctions(sfNameList, sfp);
+                        return null;
+                    }
                     sfNameList.add(sfName);
                 } else {
                     LOG.error("Could not create path because there are no configured SFs of type: {}",
                             sfcServiceFunction.getType());
+                    releaseServiceFunctions(sfNameList, sfp);
                     return null;
                 }
             } else {
                 LOG.error("Could not create path because there are no configured SFs of type: {}",
                         sfcServiceFunction.getType());
+                releaseServiceFunctions(sfNameList, sfp);
                 return null;
             }
         }
 
         return sfNameList;
     }
+
+    @Override
+    public void releaseServiceFunctions(List<SfName> sfNames, ServiceFunctionPath sfp) {
+        // The SFs set in the path hops were not scheduled
+        Map<Short, SfName> sfpMapping = getSFPHopSfMapping(sfp);
+        for (int index = 0; index < sfNames.size(); index++) {
+            SfName sfName = sfNames.get(index);
+            if (sfName != null && !sfpMapping.containsKey((short) index)) {
+                SfcServiceFunctionLoadCache.releaseServiceFunction(SfcDataStoreAPI.getDataProvider(), sfName);
+            }
+        }
+    }
 }
@@ -0,0 +1,404 @@
+/*
+ * Copyright (c) 2018 Ericsson Inc. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.sfc.provider.api;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.common.rev151017.SfName;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sft.rev140701.service.function.types.service.function.type.SftServiceFunctionName;
+import org.opendaylight.yang.gen.v1.urn.intel.params.xml.ns.sf.desc.mon.rev141201.service.functions.state.service.function.state.SfcSfDescMon;
+import org.opendaylight.yang.gen.v1.urn.intel.params.xml.ns.sf.desc.mon.rpt.rev141105.sf.monitoring.info.ResourceUtilization;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class holds the in memory load view used by the load balance
+ * scheduler.
+ *
+ * <p>
+ * The CPU and bandwidth utilization of each SF are exponentially weighted
+ * moving averages of the samples received from the SF description monitor
+ * listener. The SFs of each type are kept ordered by load, so the least loaded
+ * SF is found in O(log n) without data store reads. Every RSP placed on a SF
+ * since its last sample adds {@link #PLACEMENT_LOAD} to its load, so that a
+ * burst of RSP creations is spread over the SFs of a type. The placements of
+ * an RSP that could not be created are released.
+ *
+ * <p>
+ * SFs not known yet are read from the data store once, the first time they are
+ * candidates, and skipped if they no longer exist. Until their first sample,
+ * SFs are assumed to be as loaded as the average sampled SF of their type. All
+ * the data is dropped when the data broker changes.
+ */
+public final class SfcServiceFunctionLoadCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SfcServiceFunctionLoadCache.class);
+
+    // Weight of a new sample in the moving averages
+    static final double EWMA_WEIGHT = 0.3;
+
+    // Utilization percentage expected from each RSP placed since the last sample
+    static final double PLACEMENT_LOAD = 5.0;
+
+    private static final Comparator<SfLoad> LOAD_ORDER = Comparator.comparingDouble(SfLoad::getLoad)
+            .thenComparingDouble(sfLoad -> sfLoad.bandwidth).thenComparing(sfLoad -> sfLoad.name);
+
+    private static final Object LOCK = new Object();
+
+    /* Guarded by LOCK */
+    private static final Map<String, SfLoad> LOADS = new HashMap<>();
+    private static final Map<String, TreeSet<SfLoad>> TYPE_LOADS = new HashMap<>();
+    private static Object owner = null;
+
+    /* Metrics */
+    private static final AtomicLong DATA_STORE_READS = new AtomicLong();
+
+    private SfcServiceFunctionLoadCache() {
+    }
+
+    /**
+     * Update the utilization of a Service Function with a new monitor sample.
+     *
+     * @param sfName
+     *            the service function name
+     * @param sfcSfDescMon
+     *            the description and monitoring information
+     */
+    public static void updateUtilization(SfName sfName, SfcSfDescMon sfcSfDescMon) {
+        ResourceUtilization resourceUtilization = getResourceUtilization(sfcSfDescMon);
+        if (resourceUtilization == null) {
+            return;
+        }
+        synchronized (LOCK) {
+            SfLoad sfLoad = LOADS.computeIfAbsent(sfName.getValue(), SfLoad::new);
+            TreeSet<SfLoad> typeLoads = removeTypeLoad(sfLoad);
+            sfLoad.addSample(resourceUtilization);
+            addTypeLoad(typeLoads, sfLoad);
+        }
+    }
+
+    /**
+     * Remove the utilization of a Service Function, it is considered unloaded
+     * until a new sample is received.
+     *
+     * @param sfName
+     *            the service function name
+     */
+    public static void removeUtilization(SfName sfName) {
+        synchronized (LOCK) {
+            SfLoad sfLoad = LOADS.get(sfName.getValue());
+            if (sfLoad != null) {
+                TreeSet<SfLoad> typeLoads = removeTypeLoad(sfLoad);
+                sfLoad.clearSamples();
+                if (typeLoads != null) {
+                    setAverageLoad(Collections.singletonList(sfLoad), typeLoads);
+                }
+                addTypeLoad(typeLoads, sfLoad);
+            }
+        }
+    }
+
+    /**
+     * Remove a Service Function from the load view.
+     *
+     * @param sfName
+     *            the service function name
+     */
+    public static void removeServiceFunction(SfName sfName) {
+        synchronized (LOCK) {
+            SfLoad sfLoad = LOADS.remove(sfName.getValue());
+            if (sfLoad != null) {
+                removeTypeLoad(sfLoad);
+                sfLoad.type = null;
+            }
+        }
+    }
+
+    /**
+     * Select the least loaded Service Function among the given candidates and
+     * account for the RSP that will be placed on it.
+     *
+     * @param dataOwner
+     *            the data broker the load data comes from
+     * @param sfType
+     *            the service function type of the candidates
+     * @param candidates
+     *            all the service functions of the type
+     * @return the selected service function name, null if there are no
+     *         existing candidates
+     */
+    public static SfName selectServiceFunction(Object dataOwner, String sfType,
+            List<SftServiceFunctionName> candidates) {
+        List<SfName> unknownSfNames = new ArrayList<>();
+        synchronized (LOCK) {
+            checkOwner(dataOwner);
+            for (SftServiceFunctionName candidate : candidates) {
+                if (!LOADS.containsKey(candidate.getName())) {
+                    unknownSfNames.add(new SfName(candidate.getName()));
+                }
+            }
+        }
+
+        // Read the SFs not known yet outside of the lock, they are only read
+        // once, afterwards the listeners keep them up to date. The type may
+        // still list SFs that no longer exist.
+        Set<String> missingSfNames = new HashSet<>();
+        Map<String, SfcSfDescMon> samples = new HashMap<>();
+        for (SfName sfName : unknownSfNames) {
+            DATA_STORE_READS.incrementAndGet();
+            if (SfcProviderServiceFunctionAPI.readServiceFunction(sfName) == null) {
+                LOG.debug("selectServiceFunction: skipping {} of type {}, it does not exist", sfName, sfType);
+                missingSfNames.add(sfName.getValue());
+                continue;
+            }
+            samples.put(sfName.getValue(), SfcProviderServiceFunctionAPI.readServiceFunctionDescriptionMonitor(sfName));
+        }
+
+        synchronized (LOCK) {
+            checkOwner(dataOwner);
+            TreeSet<SfLoad> typeLoads = TYPE_LOADS.computeIfAbsent(sfType, k -> new TreeSet<>(LOAD_ORDER));
+            Set<String> sfNames = new HashSet<>();
+            List<SfLoad> unsampledLoads = new ArrayList<>();
+            for (SftServiceFunctionName candidate : candidates) {
+                String sfName = candidate.getName();
+                if (missingSfNames.contains(sfName)) {
+                    continue;
+                }
+                sfNames.add(sfName);
+                SfLoad sfLoad = LOADS.get(sfName);
+                if (sfLoad == null) {
+                    sfLoad = new SfLoad(sfName);
+                    ResourceUtilization resourceUtilization = getResourceUtilization(samples.get(sfName));
+                    if (resourceUtilization != null) {
+                        sfLoad.addSample(resourceUtilization);
+                    }
+                    LOADS.put(sfName, sfLoad);
+                }
+                if (!sfType.equals(sfLoad.type)) {
+                    removeTypeLoad(sfLoad);
+                    sfLoad.type = sfType;
+                    if (sfLoad.sampled) {
+                        typeLoads.add(sfLoad);
+                    } else {
+                        unsampledLoads.add(sfLoad);
+                    }
+                }
+            }
+
+            // Drop the SFs that are no longer of this type
+            if (typeLoads.size() + unsampledLoads.size() > sfNames.size()) {
+                Iterator<SfLoad> iterator = typeLoads.iterator();
+                while (iterator.hasNext()) {
+                    SfLoad sfLoad = iterator.next();
+                    if (!sfNames.contains(sfLoad.name)) {
+                        iterator.remove();
+                        sfLoad.type = null;
+                    }
+                }
+            }
+
+            if (!unsampledLoads.isEmpty()) {
+                setAverageLoad(unsampledLoads, typeLoads);
+                typeLoads.addAll(unsampledLoads);
+            }
+
+            SfLoad selected = typeLoads.pollFirst();
+            if (selected == null) {
+                return null;
+            }
+            selected.placements++;
+            typeLoads.add(selected);
+            LOG.debug("selectServiceFunction: selected {} of type {} with load {}", selected.name, sfType,
+                    selected.getLoad());
+            return new SfName(selected.name);
+        }
+    }
+
+    /**
+     * Release a placement of a Service Function, made for an RSP that could
+     * not be created.
+     *
+     * @param dataOwner
+     *            the data broker the load data comes from
+     * @param sfName
+     *            the service function name
+     */
+    public static void releaseServiceFunction(Object dataOwner, SfName sfName) {
+        synchronized (LOCK) {
+            if (owner != dataOwner) {
+                return;
+            }
+            SfLoad sfLoad = LOADS.get(sfName.getValue());
+            // The placements are cleared by a new sample
+            if (sfLoad != null && sfLoad.placements > 0) {
+                TreeSet<SfLoad> typeLoads = removeTypeLoad(sfLoad);
+                sfLoad.placements--;
+                addTypeLoad(typeLoads, sfLoad);
+            }
+        }
+    }
+
+    /**
+     * Get the moving average of the CPU utilization of a Service Function.
+     *
+     * @param sfName
+     *            the service function name
+     * @return the CPU utilization percentage, null if no sample was received
+     */
+    public static Double getCpuUtilization(SfName sfName) {
+        synchronized (LOCK) {
+            SfLoad sfLoad = LOADS.get(sfName.getValue());
+            return sfLoad == null || !sfLoad.sampled ? null : sfLoad.cpu;
+        }
+    }
+
+    /**
+     * Get the moving average of the bandwidth utilization of a Service
+     * Function.
+     *
+     * @param sfName
+     *            the service function name
+     * @return the bandwidth utilization percentage, null if no sample was
+     *         received
+     */
+    public static Double getBandwidthUtilization(SfName sfName) {
+        synchronized (LOCK) {
+            SfLoad sfLoad = LOADS.get(sfName.getValue());
+            return sfLoad == null || !sfLoad.sampled ? null : sfLoad.bandwidth;
+        }
+    }
+
+    /**
+     * Get the number of RSPs placed on a Service Function since its last
+     * sample.
+     *
+     * @param sfName
+     *            the service function name
+     * @return the number of RSPs
+     */
+    public static int getPlacementCount(SfName sfName) {
+        synchronized (LOCK) {
+            SfLoad sfLoad = LOADS.get(sfName.getValue());
+            return sfLoad == null ? 0 : sfLoad.placements;
+        }
+    }
+
+    /**
+     * Number of Service Function monitor reads from the data store.
+     */
+    public static long getDataStoreReadCount() {
+        return DATA_STORE_READS.get();
+    }
+
+    private static void checkOwner(Object dataOwner) {
+        if (owner != dataOwner) {
+            LOG.debug("checkOwner: data owner changed, clearing the load view");
+            LOADS.clear();
+            TYPE_LOADS.clear();
+            owner = dataOwner;
+        }
+    }
+
+    private static TreeSet<SfLoad> removeTypeLoad(SfLoad sfLoad) {
+        TreeSet<SfLoad> typeLoads = sfLoad.type == null ? null : TYPE_LOADS.get(sfLoad.type);
+        if (typeLoads != null) {
+            typeLoads.remove(sfLoad);
+        }
+        return typeLoads;
+    }
+
+    private static void addTypeLoad(TreeSet<SfLoad> typeLoads, SfLoad sfLoad) {
+        if (typeLoads != null) {
+            typeLoads.add(sfLoad);
+        }
+    }
+
+    /*
+     * Set the utilization of SFs without a sample to the average utilization
+     * of the sampled SFs of their type, or to zero if there are none. The SFs
+     * must not be in their type set.
+     */
+    private static void setAverageLoad(Collection<SfLoad> unsampledLoads, Collection<SfLoad> typeLoads) {
+        double cpu = 0;
+        double bandwidth = 0;
+        int sampledCount = 0;
+        for (SfLoad sfLoad : typeLoads) {
+            if (sfLoad.sampled) {
+                cpu += sfLoad.cpu;
+                bandwidth += sfLoad.bandwidth;
+                sampledCount++;
+            }
+        }
+        for (SfLoad sfLoad : unsampledLoads) {
+            sfLoad.cpu = sampledCount == 0 ? 0 : cpu / sampledCount;
+            sfLoad.bandwidth = sampledCount == 0 ? 0 : bandwidth / sampledCount;
+        }
+    }
+
+    private static ResourceUtilization getResourceUtilization(SfcSfDescMon sfcSfDescMon) {
+        if (sfcSfDescMon == null || sfcSfDescMon.getMonitoringInfo() == null) {
+            return null;
+        }
+        return sfcSfDescMon.getMonitoringInfo().getResourceUtilization();
+    }
+
+    /*
+     * Fields that define the order are only modified while the load is out of
+     * its type set.
+     */
+    private static final class SfLoad {
+        private final String name;
+        private String type;
+        private double cpu;
+        private double bandwidth;
+        private boolean sampled;
+        private int placements;
+
+        SfLoad(String name) {
+            this.name = name;
+        }
+
+        double getLoad() {
+            return cpu + PLACEMENT_LOAD * placements;
+        }
+
+        void addSample(ResourceUtilization resourceUtilization) {
+            double newCpu = resourceUtilization.getCPUUtilization() == null ? 0
+                    : resourceUtilization.getCPUUtilization();
+            double newBandwidth = resourceUtilization.getBandwidthUtilization() == null ? 0
+                    : resourceUtilization.getBandwidthUtilization();
+            if (sampled) {
+                cpu += EWMA_WEIGHT * (newCpu - cpu);
+                bandwidth += EWMA_WEIGHT * (newBandwidth - bandwidth);
+            } else {
+                cpu = newCpu;
+                bandwidth = newBandwidth;
+                sampled = true;
+            }
+            // the sample accounts for the RSPs placed so far
+            placements = 0;
+        }
+
+        void clearSamples() {
+            cpu = 0;
+            bandwidth = 0;
+            sampled = false;
+        }
+    }
+}
@@ -12,7 +12,6 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.common.rev151017.SfName;
 import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.common.rev151017.SftTypeName;
 import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sfc.rev140701.service.function.chain.grouping.ServiceFunctionChain;
@@ -37,6 +36,10 @@ public final class SfcServiceFunctionRoundRobinSchedulerAPI extends SfcServiceFu
 
     private static final Logger LOG = LoggerFactory.getLogger(SfcServiceFunctionRoundRobinSchedulerAPI.class);
 
+    // RSPs created in bulk are scheduled concurrently
+    private static final Object LOCK = new Object();
+
+    /* Guarded by LOCK */
     private static Map<SftTypeName, Integer> MAP_COUNT_ROUND_ROBIN = new HashMap<>();
 
     protected SfcServiceFunctionRoundRobinSchedulerAPI() {
@@ -45,22 +48,21 @@ public final class SfcServiceFunctionRoundRobinSchedulerAPI extends SfcServiceFu
 
     private SfName getServiceFunctionByType(ServiceFunctionType serviceFunctionType) {
         List<SftServiceFunctionName> sftServiceFunctionNameList = serviceFunctionType.getSftServiceFunctionName();
-        int countRoundRobin = 0;
+        if (sftServiceFunctionNameList == null || sftServiceFunctionNameList.isEmpty()) {
+            return null;
+        }
+        int countRoundRobin;
 
-        if (!MAP_COUNT_ROUND_ROBIN.isEmpty()) {
-            for (Entry<SftTypeName, Integer> entry : MAP_COUNT_ROUND_ROBIN.entrySet()) {
-                SftTypeName sfType = entry.getKey();
-                if (sfType.equals(serviceFunctionType.getType())) {
-                    countRoundRobin = entry.getValue();
-                    LOG.debug("countRoundRobin: {}", countRoundRobin);
-                    break;
-                }
-            }
+        synchronized (LOCK) {
+            // The SFs of the type may have been removed since the last use
+            countRoundRobin = MAP_COUNT_ROUND_ROBIN.getOrDefault(serviceFunctionType.getType(), 0)
+                    % sftServiceFunctionNameList.size();
+            LOG.debug("countRoundRobin: {}", countRoundRobin);
+            MAP_COUNT_ROUND_ROBIN.put(serviceFunctionType.getType(),
+                    (countRoundRobin + 1) % sftServiceFunctionNameList.size());
         }
 
         SftServiceFunctionName sftServiceFunctionName = sftServiceFunctionNameList.get(countRoundRobin);
-        countRoundRobin = (countRoundRobin + 1) % sftServiceFunctionNameList.size();
-        MAP_COUNT_ROUND_ROBIN.put(serviceFunctionType.getType(), countRoundRobin);
         return new SfName(sftServiceFunctionName.getName());
     }
 
@@ -93,22 +95,13 @@ public final class SfcServiceFunctionRoundRobinSchedulerAPI extends SfcServiceFu
              */
             ServiceFunctionType serviceFunctionType;
             serviceFunctionType = SfcProviderServiceTypeAPI.readServiceFunctionType(sfcServiceFunction.getType());
-            if (serviceFunctionType != null) {
-                List<SftServiceFunctionName> sftServiceFunctionNameList = serviceFunctionType
-                        .getSftServiceFunctionName();
-                if (!sftServiceFunctionNameList.isEmpty()) {
-                    SfName sfName = getServiceFunctionByType(serviceFunctionType);
-                    sfNameList.add(sfName);
-                } else {
-                    LOG.error("Could not create path because there are no configured SFs of type: {}",
-                            sfcServiceFunction.getType());
-                    return null;
-                }
-            } else {
+            SfName sfName = serviceFunctionType == null ? null : getServiceFunctionByType(serviceFunctionType);
+            if (sfName == null) {
                 LOG.error("Could not create path because there are no configured SFs of type: {}",
                         sfcServiceFunction.getType());
                 return null;
             }
+            sfNameList.add(sfName);
         }
         return sfNameList;
     }
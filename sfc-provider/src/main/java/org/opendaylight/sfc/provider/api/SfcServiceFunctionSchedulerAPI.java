@@ -8,11 +8,17 @@
 
 package org.opendaylight.sfc.provider.api;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import org.opendaylight.controller.md.sal.binding.api.DataBroker;
+import org.opendaylight.sfc.provider.topology.SfcProviderGraph;
+import org.opendaylight.sfc.provider.topology.SfcProviderTopologyCache;
 import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.common.rev151017.SfName;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sf.rev140701.ServiceFunctions;
 import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sfc.rev140701.service.function.chain.grouping.ServiceFunctionChain;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sff.rev140701.ServiceFunctionForwarders;
 import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sfp.rev140701.service.function.paths.ServiceFunctionPath;
 import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sfp.rev140701.service.function.paths.service.function.path.ServicePathHop;
 
@@ -46,6 +52,19 @@ public abstract class SfcServiceFunctionSchedulerAPI {
     public abstract List<SfName> scheduleServiceFunctions(ServiceFunctionChain chain, int serviceIndex,
             ServiceFunctionPath sfp);
 
+    /**
+     * Release the Service Functions scheduled for a path that could not be
+     * created. Nothing to do unless the scheduler accounts for its
+     * placements.
+     *
+     * @param sfNames
+     *            the scheduled service functions, in chain order
+     * @param sfp
+     *            the service function path they were scheduled for
+     */
+    public void releaseServiceFunctions(List<SfName> sfNames, ServiceFunctionPath sfp) {
+    }
+
     protected Map<Short, SfName> getSFPHopSfMapping(ServiceFunctionPath sfp) {
         Map<Short, SfName> ret = new HashMap<>();
         List<ServicePathHop> hops = sfp.getServicePathHop();
@@ -56,4 +75,28 @@ public abstract class SfcServiceFunctionSchedulerAPI {
         }
         return ret;
     }
+
+    /**
+     * This method returns the shared topology graph comprised of all the SFs
+     * and SFFs. The graph is kept up to date by the SF and SFF listeners and
+     * it is seeded from the data store the first time it is used. The returned
+     * graph must not be modified.
+     *
+     * @return the topology graph
+     */
+    protected SfcProviderGraph getTopologyGraph() {
+        DataBroker dataBroker = SfcDataStoreAPI.getDataProvider();
+        SfcProviderGraph sfcProviderGraph = SfcProviderTopologyCache.getGraph(dataBroker);
+        if (sfcProviderGraph == null) {
+            ServiceFunctions sfs = SfcProviderServiceFunctionAPI.readAllServiceFunctions();
+            ServiceFunctionForwarders sffs = SfcProviderServiceForwarderAPI.readAllServiceFunctionForwarders();
+            SfcProviderTopologyCache.seed(dataBroker,
+                    sfs == null || sfs.getServiceFunction() == null ? Collections.emptyList()
+                            : sfs.getServiceFunction(),
+                    sffs == null || sffs.getServiceFunctionForwarder() == null ? Collections.emptyList()
+                            : sffs.getServiceFunctionForwarder());
+            sfcProviderGraph = SfcProviderTopologyCache.getGraph(dataBroker);
+        }
+        return sfcProviderGraph != null ? sfcProviderGraph : new SfcProviderGraph();
+    }
 }
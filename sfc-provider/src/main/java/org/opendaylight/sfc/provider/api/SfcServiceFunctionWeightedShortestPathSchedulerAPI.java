@@ -0,0 +1,188 @@
+/*
+ * Copyright (c) 2018 Ericsson Inc. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.sfc.provider.api;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import org.opendaylight.sfc.provider.topology.SfcProviderGraphIndex;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.common.rev151017.SfName;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sfc.rev140701.service.function.chain.grouping.ServiceFunctionChain;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sfc.rev140701.service.function.chain.grouping.service.function.chain.SfcServiceFunction;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sfp.rev140701.service.function.paths.ServiceFunctionPath;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sft.rev140701.service.function.types.ServiceFunctionType;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sft.rev140701.service.function.types.service.function.type.SftServiceFunctionName;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class implements weighted shortest path scheduling mode.
+ *
+ * <p>
+ * The cost of a link between two SFFs is the link cost of the connected SFF
+ * dictionary entry, other links cost 1. Instead of picking the closest SF hop
+ * by hop, the scheduler selects the SFs that minimize the cost of the whole
+ * chain: each chain hop is a layer of candidate SFs of the hop type, and the
+ * lowest cost to reach every candidate of a layer is computed from the lowest
+ * costs of the previous layer.
+ */
+public final class SfcServiceFunctionWeightedShortestPathSchedulerAPI extends SfcServiceFunctionSchedulerAPI {
+
+    private static final Logger LOG = LoggerFactory.getLogger(
+            SfcServiceFunctionWeightedShortestPathSchedulerAPI.class);
+
+    protected SfcServiceFunctionWeightedShortestPathSchedulerAPI() {
+        super.setSfcServiceFunctionSchedulerType(
+                org.opendaylight.yang.gen.v1.urn.intel.params.xml.ns.yang.sfc.sfst.rev150312.WeightedShortestPath
+                        .class);
+    }
+
+    /**
+     * This method finds out the Service Function Path with the lowest cost for
+     * the given Service Function Chain chain.
+     *
+     * <p>
+     * @param chain
+     *            Service Function Chain to render
+     * @param serviceIndex
+     *            Not used currently
+     * @param sfp
+     *            Service Function Path, its hops override the scheduling
+     * @return List&lt;SfName&gt; Service Function name list in the lowest cost
+     *         path, null if no path could be found
+     */
+    @Override
+    public List<SfName> scheduleServiceFunctions(ServiceFunctionChain chain, int serviceIndex,
+            ServiceFunctionPath sfp) {
+        Map<Short, SfName> sfpMapping = getSFPHopSfMapping(sfp);
+        SfcProviderGraphIndex sfcProviderGraphIndex = getTopologyGraph().getIndex();
+
+        /* Candidate SFs for each hop of the chain */
+        List<List<SfName>> candidateLayers = new ArrayList<>();
+        short index = 0;
+        for (SfcServiceFunction sfcServiceFunction : chain.getSfcServiceFunction()) {
+            SfName hopSf = sfpMapping.get(index++);
+            if (hopSf != null) {
+                candidateLayers.add(Collections.singletonList(hopSf));
+                continue;
+            }
+
+            ServiceFunctionType serviceFunctionType = SfcProviderServiceTypeAPI
+                    .readServiceFunctionType(sfcServiceFunction.getType());
+            if (serviceFunctionType == null || serviceFunctionType.getSftServiceFunctionName() == null) {
+                LOG.debug("No {} Service Function type", sfcServiceFunction.getName());
+                return null;
+            }
+            List<SfName> candidates = new ArrayList<>();
+            for (SftServiceFunctionName sftServiceFunctionName : serviceFunctionType.getSftServiceFunctionName()) {
+                if (sfcProviderGraphIndex.getNodeId(sftServiceFunctionName.getName())
+                        != SfcProviderGraphIndex.UNREACHABLE) {
+                    candidates.add(new SfName(sftServiceFunctionName.getName()));
+                }
+            }
+            if (candidates.isEmpty()) {
+                LOG.error("Couldn't find a reachable SF for ServiceFunctionType: {}", sfcServiceFunction.getType());
+                return null;
+            }
+            candidateLayers.add(candidates);
+        }
+
+        List<SfName> sfNameList = getLowestCostPath(candidateLayers, sfcProviderGraphIndex);
+        if (sfNameList == null) {
+            LOG.error("Couldn't find a path for ServiceFunctionChain: {}", chain.getName());
+        }
+        return sfNameList;
+    }
+
+    /**
+     * This method selects one Service Function per layer so that the sum of
+     * the costs between consecutive Service Functions is the lowest.
+     *
+     * <p>
+     * @param candidateLayers
+     *            Candidate Service Functions for each hop
+     * @param sfcProviderGraphIndex
+     *            Topology graph index comprised of all the SFs and SFFs
+     * @return List&lt;SfName&gt; the selected Service Functions, null if
+     *         consecutive layers are not connected
+     */
+    static List<SfName> getLowestCostPath(List<List<SfName>> candidateLayers,
+            SfcProviderGraphIndex sfcProviderGraphIndex) {
+        int numLayers = candidateLayers.size();
+        if (numLayers == 0) {
+            return new ArrayList<>();
+        }
+
+        // lowest cost to reach each candidate of a layer and the candidate of
+        // the previous layer it is reached from
+        long[][] costs = new long[numLayers][];
+        int[][] previous = new int[numLayers][];
+        costs[0] = new long[candidateLayers.get(0).size()];
+        previous[0] = new int[candidateLayers.get(0).size()];
+        for (int layer = 1; layer < numLayers; layer++) {
+            List<SfName> preCandidates = candidateLayers.get(layer - 1);
+            List<SfName> candidates = candidateLayers.get(layer);
+            costs[layer] = new long[candidates.size()];
+            previous[layer] = new int[candidates.size()];
+            Arrays.fill(costs[layer], SfcProviderGraphIndex.UNREACHABLE);
+            for (int pre = 0; pre < preCandidates.size(); pre++) {
+                if (costs[layer - 1][pre] == SfcProviderGraphIndex.UNREACHABLE) {
+                    continue;
+                }
+                for (int cur = 0; cur < candidates.size(); cur++) {
+                    long hopCost = getHopCost(preCandidates.get(pre), candidates.get(cur), sfcProviderGraphIndex);
+                    if (hopCost == SfcProviderGraphIndex.UNREACHABLE) {
+                        continue;
+                    }
+                    long cost = costs[layer - 1][pre] + hopCost;
+                    if (costs[layer][cur] == SfcProviderGraphIndex.UNREACHABLE || cost < costs[layer][cur]) {
+                        costs[layer][cur] = cost;
+                        previous[layer][cur] = pre;
+                    }
+                }
+            }
+        }
+
+        int last = -1;
+        long[] lastCosts = costs[numLayers - 1];
+        for (int cur = 0; cur < lastCosts.length; cur++) {
+            if (lastCosts[cur] != SfcProviderGraphIndex.UNREACHABLE
+                    && (last == -1 || lastCosts[cur] < lastCosts[last])) {
+                last = cur;
+            }
+        }
+        if (last == -1) {
+            return null;
+        }
+        LOG.debug("Lowest cost path cost: {}", lastCosts[last]);
+
+        SfName[] sfNames = new SfName[numLayers];
+        for (int layer = numLayers - 1; layer >= 0; layer--) {
+            sfNames[layer] = candidateLayers.get(layer).get(last);
+            last = previous[layer][last];
+        }
+        List<SfName> sfNameList = new ArrayList<>(numLayers);
+        Collections.addAll(sfNameList, sfNames);
+        return sfNameList;
+    }
+
+    /*
+     * SFs fixed by the SFP hops may not be part of the topology, the cost
+     * to or from them is unknown and counts as 0.
+     */
+    private static long getHopCost(SfName fromSfName, SfName toSfName, SfcProviderGraphIndex sfcProviderGraphIndex) {
+        if (sfcProviderGraphIndex.getNodeId(fromSfName.getValue()) == SfcProviderGraphIndex.UNREACHABLE
+                || sfcProviderGraphIndex.getNodeId(toSfName.getValue()) == SfcProviderGraphIndex.UNREACHABLE) {
+            return 0;
+        }
+        return sfcProviderGraphIndex.getPathCost(fromSfName.getValue(), toSfName.getValue());
+    }
+}
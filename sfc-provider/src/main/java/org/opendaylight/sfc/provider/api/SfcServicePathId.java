@@ -8,8 +8,22 @@
 
 package org.opendaylight.sfc.provider.api;
 
+import com.google.common.base.Optional;
+import com.google.common.util.concurrent.CheckedFuture;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Random;
+import java.util.TreeSet;
+import org.opendaylight.controller.md.sal.binding.api.DataBroker;
+import org.opendaylight.controller.md.sal.binding.api.ReadWriteTransaction;
 import org.opendaylight.controller.md.sal.common.api.data.LogicalDatastoreType;
+import org.opendaylight.controller.md.sal.common.api.data.OptimisticLockFailedException;
+import org.opendaylight.controller.md.sal.common.api.data.ReadFailedException;
+import org.opendaylight.controller.md.sal.common.api.data.TransactionCommitFailedException;
 import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.service.path.id.rev150804.GenerationAlgorithmEnum;
 import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.service.path.id.rev150804.ServicePathIds;
 import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.service.path.id.rev150804.ServicePathIdsBuilder;
@@ -17,11 +31,24 @@ import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.service.path.id
 import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.service.path.id.rev150804.service.path.ids.ServicePathIdBuilder;
 import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.service.path.id.rev150804.service.path.ids.ServicePathIdKey;
 import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * This class has the APIs to operate on the Service PathIds.
  *
  * <p>
+ * The service-path-ids bitarray is loaded once from the operational
+ * data store and kept in memory, so that looking for a free path-id does not
+ * require any data store access. Changes are tracked per bitarray word and
+ * flushed in a single read-write transaction; the flush re-reads the stored
+ * words so that path-ids allocated meanwhile by another controller instance
+ * are detected. A failed flush rolls its changes back from the in-memory
+ * image.
+ *
+ * <p>
+ * All the in-memory state is guarded by the {@link SfcConcurrencyAPI} path-id
+ * lock.
  *
  * @author Reinaldo Penno (rapenno@gmail.com)
  * @version 0.1
@@ -42,6 +69,26 @@ public final class SfcServicePathId {
     /* Determines the trade-off */
     private static final int N = 64;
 
+    /* Transactions tried per flush when other instances change the path-ids */
+    private static final int MAX_FLUSH_ATTEMPTS = 3;
+
+    private static final Logger LOG = LoggerFactory.getLogger(SfcServicePathId.class);
+
+    /*
+     * In-memory image of the path-id bitarray, keyed by path-id-key. Words use
+     * the natural bit order (bit n represents path-id key * 64 + n), the data
+     * store encoding is converted on load and flush.
+     */
+    private static final Map<Long, Long> PATH_ID_WORDS = new HashMap<>();
+
+    /* Bits allocated and freed since the last flush, per path-id-key */
+    private static final Map<Long, Long> ALLOCATED_BITS = new HashMap<>();
+    private static final Map<Long, Long> FREED_BITS = new HashMap<>();
+
+    /* Data broker the in-memory image was loaded from, null if not loaded */
+    private static DataBroker loadedFrom = null;
+    private static GenerationAlgorithmEnum generationAlgorithm = null;
+
     private SfcServicePathId() {
     }
 
@@ -55,21 +102,32 @@ public final class SfcServicePathId {
      * @return Pathid or error if none available
      */
     public static int generatePathIdRandomIncrements() {
-        int pathid;
-        int count = NUM_PATH_ID;
+        if (!SfcConcurrencyAPI.getPathIdLock()) {
+            return -1;
+        }
+        try {
+            if (!loadPathIds()) {
+                return -1;
+            }
+            int pathid;
+            int count = NUM_PATH_ID;
 
-        do {
-            nextPathId = nextPathId + RANDOM_GENERATOR.nextInt(NUM_PATH_ID) % N + 1;
-            pathid = MIN_PATH_ID + nextPathId % NUM_PATH_ID;
+            do {
+                nextPathId = nextPathId + RANDOM_GENERATOR.nextInt(NUM_PATH_ID) % N + 1;
+                pathid = MIN_PATH_ID + nextPathId % NUM_PATH_ID;
 
-            if (checkSuitablePathId(pathid)) {
-                return pathid;
+                if (isPathIdFree(pathid)) {
+                    return pathid;
+                }
+                count--;
             }
-            count--;
-        }
-        while (count > 0);
+            while (count > 0);
 
-        return -1;
+            // The random walk may step over the few remaining free ids
+            return (int) findFreePathId(MIN_PATH_ID + nextPathId % NUM_PATH_ID, MIN_PATH_ID, MAX_PATH_ID);
+        } finally {
+            SfcConcurrencyAPI.releasePathIdLock();
+        }
     }
 
     /**
@@ -80,21 +138,15 @@ public final class SfcServicePathId {
      * @return Pathid or error if none available
      */
     private static int generatePathIdSequentialIncrements() {
-        int pathid;
-        int count = NUM_PATH_ID;
-
-        do {
-            nextPathId = nextPathId + 1;
-            pathid = MIN_PATH_ID + nextPathId;
+        long first = MIN_PATH_ID + (long) nextPathId + 1;
+        long pathid = findFreePathId(first, first, first + NUM_PATH_ID - 1);
 
-            if (checkSuitablePathId(pathid) && allocatePathId(pathid)) {
-                return pathid;
-            }
-
-            count--;
+        if (pathid >= MIN_PATH_ID && allocatePathIdInMemory(pathid)) {
+            nextPathId = (int) pathid - MIN_PATH_ID;
+            return (int) pathid;
         }
-        while (count > 0);
 
+        nextPathId = nextPathId + NUM_PATH_ID;
         return -1;
     }
 
@@ -110,7 +162,7 @@ public final class SfcServicePathId {
     public static long chechAndAllocatePathId(long pathid) {
         if (SfcConcurrencyAPI.getPathIdLock()) {
             try {
-                if (checkSuitablePathId(pathid) && allocatePathId(pathid)) {
+                if (loadPathIds() && isPathIdFree(pathid) && allocatePathIdInMemory(pathid) && flushPathIds()) {
                     return pathid;
                 } else {
                     return -1;
@@ -133,30 +185,52 @@ public final class SfcServicePathId {
      * @return True if allocated, otherwise false.
      */
     public static long checkAndAllocateSymmetricPathId(long pathid) {
+        return checkAndAllocateSymmetricPathIds(Collections.singletonList(pathid)).get(0);
+    }
+
+    /**
+     * Check and allocate the symmetric pathids of a number of pathids. All of
+     * them are persisted in a single data store transaction.
+     *
+     * <p>
+     *
+     * @param pathids
+     *            the path ids to allocate symmetric path ids for
+     * @return the symmetric path ids, in the same order, -1 for those that
+     *         could not be allocated.
+     */
+    public static List<Long> checkAndAllocateSymmetricPathIds(List<Long> pathids) {
+        List<Long> symmetricIds = new ArrayList<>(Collections.nCopies(pathids.size(), -1L));
         if (SfcConcurrencyAPI.getPathIdLock()) {
             try {
-                long symmetricId = -1;
+                if (!loadPathIds()) {
+                    return symmetricIds;
+                }
                 GenerationAlgorithmEnum genAlg = getGenerationAlgorithm();
-                if (genAlg == GenerationAlgorithmEnum.Random) {
-                    symmetricId = pathid ^ 1 << 23;
-                    if (!checkSuitablePathId(symmetricId)) {
-                        symmetricId = -1;
+                for (int i = 0; i < pathids.size(); i++) {
+                    long symmetricId = -1;
+                    if (genAlg == GenerationAlgorithmEnum.Random) {
+                        symmetricId = pathids.get(i) ^ 1 << 23;
+                        if (!isPathIdFree(symmetricId)) {
+                            symmetricId = -1;
+                        }
+                    } else if (genAlg == GenerationAlgorithmEnum.Sequential) {
+                        symmetricId = generatePathIdSequentialIncrements();
+                    }
+
+                    if (symmetricId >= MIN_PATH_ID && allocatePathIdInMemory(symmetricId)) {
+                        symmetricIds.set(i, symmetricId);
                     }
-                } else if (genAlg == GenerationAlgorithmEnum.Sequential) {
-                    symmetricId = generatePathIdSequentialIncrements();
                 }
 
-                if (symmetricId >= MIN_PATH_ID && allocatePathId(symmetricId)) {
-                    return symmetricId;
-                } else {
-                    return -1;
+                if (!flushPathIds()) {
+                    Collections.fill(symmetricIds, -1L);
                 }
             } finally {
                 SfcConcurrencyAPI.releasePathIdLock();
             }
-        } else {
-            return -1;
         }
+        return symmetricIds;
     }
 
     /**
@@ -167,26 +241,50 @@ public final class SfcServicePathId {
      * @return True if allocated, otherwise false.
      */
     public static long checkAndAllocatePathId() {
+        List<Long> pathIds = checkAndAllocatePathIds(1);
+        return pathIds.isEmpty() ? -1 : pathIds.get(0);
+    }
+
+    /**
+     * Generate a number of pathids, check and allocate them if available.
+     * All of them are persisted in a single data store transaction.
+     *
+     * <p>
+     *
+     * @param count
+     *            the number of path ids to allocate
+     * @return the allocated path ids, empty if they could not be allocated.
+     */
+    public static List<Long> checkAndAllocatePathIds(int count) {
         if (SfcConcurrencyAPI.getPathIdLock()) {
             try {
-                long pathId = -1;
-                GenerationAlgorithmEnum genAlg = getGenerationAlgorithm();
-                if (genAlg == GenerationAlgorithmEnum.Random) {
-                    pathId = generatePathIdRandomIncrements();
-                } else if (genAlg == GenerationAlgorithmEnum.Sequential) {
-                    pathId = generatePathIdSequentialIncrements();
+                if (!loadPathIds()) {
+                    return Collections.emptyList();
                 }
+                GenerationAlgorithmEnum genAlg = getGenerationAlgorithm();
+                List<Long> pathIds = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    long pathId = -1;
+                    if (genAlg == GenerationAlgorithmEnum.Random) {
+                        pathId = generatePathIdRandomIncrements();
+                    } else if (genAlg == GenerationAlgorithmEnum.Sequential) {
+                        pathId = generatePathIdSequentialIncrements();
+                    }
 
-                if (pathId >= MIN_PATH_ID && allocatePathId(pathId)) {
-                    return pathId;
-                } else {
-                    return -1;
+                    if (pathId < MIN_PATH_ID || !allocatePathIdInMemory(pathId)) {
+                        LOG.error("checkAndAllocatePathIds: no path-id available after {} of {}", i, count);
+                        pathIds.forEach(SfcServicePathId::freePathIdInMemory);
+                        return Collections.emptyList();
+                    }
+                    pathIds.add(pathId);
                 }
+
+                return flushPathIds() ? pathIds : Collections.emptyList();
             } finally {
                 SfcConcurrencyAPI.releasePathIdLock();
             }
         } else {
-            return -1;
+            return Collections.emptyList();
         }
     }
 
@@ -200,16 +298,14 @@ public final class SfcServicePathId {
      * @return True if available, otherwise false.
      */
     public static boolean checkSuitablePathId(long pathid) {
-        ServicePathIdKey servicePathIdKey = new ServicePathIdKey(pathid / Long.SIZE);
-
-        /* Entry into the bitarray */
-        long bitEntry = pathid % Long.SIZE;
-
-        InstanceIdentifier<ServicePathId> spIID;
-        spIID = InstanceIdentifier.builder(ServicePathIds.class).child(ServicePathId.class, servicePathIdKey).build();
-        ServicePathId servicePathId = SfcDataStoreAPI.readTransactionAPI(spIID, LogicalDatastoreType.OPERATIONAL);
-
-        return servicePathId == null || (1L << 64 - bitEntry & servicePathId.getPathIdBitarray()) == 0;
+        if (SfcConcurrencyAPI.getPathIdLock()) {
+            try {
+                return loadPathIds() && isPathIdFree(pathid);
+            } finally {
+                SfcConcurrencyAPI.releasePathIdLock();
+            }
+        }
+        return false;
     }
 
     /**
@@ -222,28 +318,14 @@ public final class SfcServicePathId {
      * @return True if allocated, otherwise false.
      */
     public static boolean allocatePathId(long pathid) {
-        ServicePathIdKey servicePathIdKey = new ServicePathIdKey(pathid / Long.SIZE);
-
-        /* Entry into the bitarray */
-        long bitEntry = pathid % Long.SIZE;
-
-        long pathIdBitArray = 0;
-
-        InstanceIdentifier<ServicePathId> spIID;
-        spIID = InstanceIdentifier.builder(ServicePathIds.class).child(ServicePathId.class, servicePathIdKey).build();
-        ServicePathId servicePathId = SfcDataStoreAPI.readTransactionAPI(spIID, LogicalDatastoreType.OPERATIONAL);
-
-        if (servicePathId != null) {
-            pathIdBitArray = servicePathId.getPathIdBitarray() != null ? servicePathId.getPathIdBitarray() : 0;
+        if (SfcConcurrencyAPI.getPathIdLock()) {
+            try {
+                return loadPathIds() && allocatePathIdInMemory(pathid) && flushPathIds();
+            } finally {
+                SfcConcurrencyAPI.releasePathIdLock();
+            }
         }
-
-        ServicePathIdBuilder servicePathIdBuilder = new ServicePathIdBuilder();
-
-        servicePathIdBuilder.setPathIdBitarray(pathIdBitArray | 1L << Long.SIZE - bitEntry);
-        servicePathIdBuilder.withKey(servicePathIdKey);
-
-        return SfcDataStoreAPI.writeMergeTransactionAPI(spIID, servicePathIdBuilder.build(),
-                LogicalDatastoreType.OPERATIONAL);
+        return false;
     }
 
     /**
@@ -258,24 +340,7 @@ public final class SfcServicePathId {
     public static boolean freePathId(long pathid) {
         if (SfcConcurrencyAPI.getPathIdLock()) {
             try {
-                ServicePathIdKey servicePathIdKey = new ServicePathIdKey(pathid / Long.SIZE);
-
-                /* Entry into the bitarray */
-                long bitEntry = pathid % Long.SIZE;
-
-                InstanceIdentifier<ServicePathId> spIID;
-                spIID = InstanceIdentifier.builder(ServicePathIds.class).child(ServicePathId.class, servicePathIdKey)
-                        .build();
-                ServicePathId servicePathId = SfcDataStoreAPI.readTransactionAPI(spIID,
-                        LogicalDatastoreType.OPERATIONAL);
-
-                ServicePathIdBuilder servicePathIdBuilder = new ServicePathIdBuilder(servicePathId);
-                servicePathIdBuilder.withKey(servicePathIdKey);
-                servicePathIdBuilder
-                        .setPathIdBitarray(servicePathId.getPathIdBitarray() & ~(1L << Long.SIZE - bitEntry));
-
-                return SfcDataStoreAPI.writeMergeTransactionAPI(spIID, servicePathIdBuilder.build(),
-                        LogicalDatastoreType.OPERATIONAL);
+                return loadPathIds() && freePathIdInMemory(pathid) && flushPathIds();
             } finally {
                 SfcConcurrencyAPI.releasePathIdLock();
             }
@@ -284,32 +349,291 @@ public final class SfcServicePathId {
     }
 
     /**
-     * Get the Path-Id Generation-algorithm from the data-store.
+     * Free a number of Pathids in a single data store transaction.
      *
      * <p>
-     * If its not present, create it with the default value.
      *
-     * <p>
+     * @param pathids
+     *            Path Ids to be freed
+     * @return True if freed, otherwise false.
+     */
+    public static boolean freePathIds(List<Long> pathids) {
+        if (SfcConcurrencyAPI.getPathIdLock()) {
+            try {
+                if (!loadPathIds()) {
+                    return false;
+                }
+                pathids.forEach(SfcServicePathId::freePathIdInMemory);
+                return flushPathIds();
+            } finally {
+                SfcConcurrencyAPI.releasePathIdLock();
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Drop the in-memory image of the path-id bitarray, it will be reloaded
+     * from the data store on next use.
+     */
+    public static void invalidatePathIds() {
+        if (SfcConcurrencyAPI.getPathIdLock()) {
+            try {
+                clearPathIds();
+            } finally {
+                SfcConcurrencyAPI.releasePathIdLock();
+            }
+        }
+    }
+
+    private static void clearPathIds() {
+        PATH_ID_WORDS.clear();
+        ALLOCATED_BITS.clear();
+        FREED_BITS.clear();
+        generationAlgorithm = null;
+        loadedFrom = null;
+    }
+
+    /**
+     * Load the path-id bitarray and the generation algorithm from the
+     * operational data store, unless already loaded from the current data
+     * broker. Must be called with the path-id lock held.
      *
-     * @return generation-algorithm enum value
+     * @return True if the in-memory image is usable, otherwise false
      */
-    private static GenerationAlgorithmEnum getGenerationAlgorithm() {
+    private static boolean loadPathIds() {
+        DataBroker dataBroker = SfcDataStoreAPI.getDataProvider();
+        if (dataBroker == null) {
+            LOG.error("loadPathIds: dataProvider not initialized!");
+            return false;
+        }
+        if (dataBroker == loadedFrom) {
+            return true;
+        }
+
+        clearPathIds();
         InstanceIdentifier<ServicePathIds> spIID = InstanceIdentifier.builder(ServicePathIds.class).build();
         ServicePathIds servicePathIds = SfcDataStoreAPI.readTransactionAPI(spIID, LogicalDatastoreType.OPERATIONAL);
+        if (servicePathIds != null) {
+            generationAlgorithm = servicePathIds.getGenerationAlgorithm();
+            if (servicePathIds.getServicePathId() != null) {
+                for (ServicePathId servicePathId : servicePathIds.getServicePathId()) {
+                    if (servicePathId.getPathIdBitarray() != null) {
+                        PATH_ID_WORDS.put(servicePathId.getPathIdKey(),
+                                toNaturalOrder(servicePathId.getPathIdBitarray()));
+                    }
+                }
+            }
+        }
+        loadedFrom = dataBroker;
+        LOG.debug("loadPathIds: loaded {} path-id words", PATH_ID_WORDS.size());
+        return true;
+    }
 
-        if (servicePathIds == null) {
-            setGenerationAlgorithm(DEFAULT_GENERATION_ALGORITHM);
-            return GenerationAlgorithmEnum.forValue(DEFAULT_GENERATION_ALGORITHM);
+    /**
+     * Write the words changed since the last flush to the data store in a
+     * single transaction. Words are re-read in the same transaction so that
+     * path-ids freed or allocated meanwhile by other controller instances are
+     * preserved. If the transaction fails because of a concurrent change, it
+     * is done again with the words read anew. If any of the locally allocated
+     * path-ids was taken by somebody else, or the transaction fails, the flush
+     * fails and the changes are rolled back from the in-memory image.
+     *
+     * @return True if successful, otherwise false
+     */
+    private static boolean flushPathIds() {
+        if (ALLOCATED_BITS.isEmpty() && FREED_BITS.isEmpty()) {
+            return true;
+        }
+
+        for (int attempt = 1; attempt <= MAX_FLUSH_ATTEMPTS; attempt++) {
+            try {
+                return tryFlushPathIds();
+            } catch (OptimisticLockFailedException e) {
+                LOG.debug("flushPathIds: concurrent change on attempt {} of {}", attempt, MAX_FLUSH_ATTEMPTS, e);
+            } catch (ReadFailedException | TransactionCommitFailedException e) {
+                LOG.error("flushPathIds: Transaction failed", e);
+                break;
+            }
+        }
+        LOG.error("flushPathIds: could not flush the path-ids");
+        rollbackPathIds();
+        return false;
+    }
+
+    private static boolean tryFlushPathIds() throws ReadFailedException, TransactionCommitFailedException {
+        TreeSet<Long> dirtyKeys = new TreeSet<>(ALLOCATED_BITS.keySet());
+        dirtyKeys.addAll(FREED_BITS.keySet());
+
+        ReadWriteTransaction rwTx = loadedFrom.newReadWriteTransaction();
+        Map<Long, CheckedFuture<Optional<ServicePathId>, ReadFailedException>> reads = new LinkedHashMap<>();
+        for (Long key : dirtyKeys) {
+            reads.put(key, rwTx.read(LogicalDatastoreType.OPERATIONAL, getServicePathIdIID(key)));
+        }
+
+        Map<Long, Long> flushedWords = new HashMap<>();
+        for (Map.Entry<Long, CheckedFuture<Optional<ServicePathId>, ReadFailedException>> read : reads.entrySet()) {
+            Long key = read.getKey();
+            Optional<ServicePathId> stored;
+            try {
+                stored = read.getValue().checkedGet();
+            } catch (ReadFailedException e) {
+                rwTx.cancel();
+                throw e;
+            }
+            long storedWord = stored.isPresent() && stored.get().getPathIdBitarray() != null
+                    ? toNaturalOrder(stored.get().getPathIdBitarray()) : 0;
+            long allocated = ALLOCATED_BITS.getOrDefault(key, 0L);
+            long freed = FREED_BITS.getOrDefault(key, 0L);
+
+            if ((storedWord & allocated) != 0) {
+                LOG.warn("flushPathIds: path-ids {} of key {} allocated concurrently", storedWord & allocated, key);
+                rwTx.cancel();
+                rollbackPathIds();
+                // the stored word is more recent than the in-memory one
+                PATH_ID_WORDS.put(key, storedWord);
+                return false;
+            }
+
+            long word = storedWord & ~freed | allocated;
+            ServicePathIdBuilder servicePathIdBuilder = new ServicePathIdBuilder();
+            servicePathIdBuilder.withKey(new ServicePathIdKey(key));
+            servicePathIdBuilder.setPathIdBitarray(toDataStoreOrder(word));
+            rwTx.merge(LogicalDatastoreType.OPERATIONAL, getServicePathIdIID(key), servicePathIdBuilder.build(),
+                    true);
+            flushedWords.put(key, word);
+        }
+        rwTx.submit().checkedGet();
+
+        PATH_ID_WORDS.putAll(flushedWords);
+        ALLOCATED_BITS.clear();
+        FREED_BITS.clear();
+        return true;
+    }
+
+    /*
+     * Undoes the changes not flushed yet in the in-memory image.
+     */
+    private static void rollbackPathIds() {
+        ALLOCATED_BITS.forEach((key, bits) -> PATH_ID_WORDS.put(key, PATH_ID_WORDS.getOrDefault(key, 0L) & ~bits));
+        FREED_BITS.forEach((key, bits) -> PATH_ID_WORDS.put(key, PATH_ID_WORDS.getOrDefault(key, 0L) | bits));
+        ALLOCATED_BITS.clear();
+        FREED_BITS.clear();
+    }
+
+    private static boolean isPathIdFree(long pathid) {
+        return (PATH_ID_WORDS.getOrDefault(pathid / Long.SIZE, 0L) & 1L << pathid % Long.SIZE) == 0;
+    }
+
+    private static boolean allocatePathIdInMemory(long pathid) {
+        if (pathid < MIN_PATH_ID) {
+            return false;
         }
+        Long key = pathid / Long.SIZE;
+        long bit = 1L << pathid % Long.SIZE;
+        long word = PATH_ID_WORDS.getOrDefault(key, 0L);
+        if ((word & bit) != 0) {
+            return true;
+        }
+        PATH_ID_WORDS.put(key, word | bit);
+        if (!clearPendingBit(FREED_BITS, key, bit)) {
+            ALLOCATED_BITS.put(key, ALLOCATED_BITS.getOrDefault(key, 0L) | bit);
+        }
+        return true;
+    }
+
+    private static boolean freePathIdInMemory(long pathid) {
+        if (pathid < MIN_PATH_ID) {
+            return false;
+        }
+        Long key = pathid / Long.SIZE;
+        long bit = 1L << pathid % Long.SIZE;
+        long word = PATH_ID_WORDS.getOrDefault(key, 0L);
+        PATH_ID_WORDS.put(key, word & ~bit);
+        if (!clearPendingBit(ALLOCATED_BITS, key, bit)) {
+            FREED_BITS.put(key, FREED_BITS.getOrDefault(key, 0L) | bit);
+        }
+        return true;
+    }
+
+    /*
+     * Cancels a not yet flushed change, returns false if there was none.
+     */
+    private static boolean clearPendingBit(Map<Long, Long> pendingBits, Long key, long bit) {
+        Long word = pendingBits.get(key);
+        if (word == null || (word & bit) == 0) {
+            return false;
+        }
+        if ((word & ~bit) == 0) {
+            pendingBits.remove(key);
+        } else {
+            pendingBits.put(key, word & ~bit);
+        }
+        return true;
+    }
+
+    /**
+     * Find the first free path-id in [start, last], wrapping around to first
+     * once last is reached. Scans the bitarray a word at a time.
+     *
+     * @return the free path-id, or -1 if none available
+     */
+    private static long findFreePathId(long start, long first, long last) {
+        long pathid = findFreePathIdInRange(start, last);
+        if (pathid < 0 && start > first) {
+            pathid = findFreePathIdInRange(first, start - 1);
+        }
+        return pathid;
+    }
+
+    private static long findFreePathIdInRange(long from, long to) {
+        long pathid = from;
+        while (pathid <= to) {
+            long key = pathid / Long.SIZE;
+            long offset = pathid % Long.SIZE;
+            long free = ~PATH_ID_WORDS.getOrDefault(key, 0L) >>> offset;
+            if (free != 0) {
+                long candidate = pathid + Long.numberOfTrailingZeros(free);
+                return candidate <= to ? candidate : -1;
+            }
+            pathid = (key + 1) * Long.SIZE;
+        }
+        return -1;
+    }
+
+    private static InstanceIdentifier<ServicePathId> getServicePathIdIID(long key) {
+        return InstanceIdentifier.builder(ServicePathIds.class).child(ServicePathId.class, new ServicePathIdKey(key))
+                .build();
+    }
+
+    /*
+     * The data store bitarray stores path-id key * 64 + n in bit (64 - n) % 64.
+     */
+    private static long toNaturalOrder(long dataStoreWord) {
+        return Long.reverse(Long.rotateRight(dataStoreWord, 1));
+    }
 
-        GenerationAlgorithmEnum genAlgorithm = servicePathIds.getGenerationAlgorithm();
+    private static long toDataStoreOrder(long naturalWord) {
+        return Long.rotateLeft(Long.reverse(naturalWord), 1);
+    }
 
-        if (genAlgorithm == null) {
+    /**
+     * Get the Path-Id Generation-algorithm.
+     *
+     * <p>
+     * If its not present, create it with the default value. Must be called
+     * with the path-id lock held and the in-memory image loaded.
+     *
+     * <p>
+     *
+     * @return generation-algorithm enum value
+     */
+    private static GenerationAlgorithmEnum getGenerationAlgorithm() {
+        if (generationAlgorithm == null) {
             setGenerationAlgorithm(DEFAULT_GENERATION_ALGORITHM);
             return GenerationAlgorithmEnum.forValue(DEFAULT_GENERATION_ALGORITHM);
-        } else {
-            return genAlgorithm;
         }
+        return generationAlgorithm;
     }
 
     /**
@@ -340,7 +664,17 @@ public final class SfcServicePathId {
         ServicePathIdsBuilder servicePathIdsBuilder = new ServicePathIdsBuilder();
         servicePathIdsBuilder.setGenerationAlgorithm(genAlgorithm);
 
-        return SfcDataStoreAPI.writeMergeTransactionAPI(spIID, servicePathIdsBuilder.build(),
+        boolean ret = SfcDataStoreAPI.writeMergeTransactionAPI(spIID, servicePathIdsBuilder.build(),
                 LogicalDatastoreType.OPERATIONAL);
+        if (ret && SfcConcurrencyAPI.getPathIdLock()) {
+            try {
+                if (loadedFrom == SfcDataStoreAPI.getDataProvider()) {
+                    generationAlgorithm = genAlgorithm;
+                }
+            } finally {
+                SfcConcurrencyAPI.releasePathIdLock();
+            }
+        }
+        return ret;
     }
 }
@@ -9,6 +9,7 @@
 package org.opendaylight.sfc.provider.listeners;
 
 import java.util.Collections;
+import java.util.Objects;
 
 import javax.annotation.Nonnull;
 import javax.inject.Inject;
@@ -21,6 +22,7 @@ import org.opendaylight.sfc.provider.api.SfcProviderRenderedPathAPI;
 import org.opendaylight.sfc.provider.api.SfcProviderServicePathAPI;
 import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.rsp.rev140701.RenderedServicePaths;
 import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.rsp.rev140701.rendered.service.paths.RenderedServicePath;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.rsp.rev140701.rendered.service.paths.RenderedServicePathBuilder;
 import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sfp.rev140701.service.function.paths.ServiceFunctionPath;
 import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
 import org.slf4j.Logger;
@@ -55,6 +57,17 @@ public class RenderedServicePathListener extends AbstractSyncDataTreeChangeListe
 
         LOG.info("add: RSP: {}", renderedServicePath.getName().getValue());
 
+        // RSPs created in bulk are written in the Operational Data Store
+        // before the Config Data Store. An operational RSP of another path id
+        // is a stale one left by an earlier RSP of the same name.
+        RenderedServicePath operRenderedServicePath = SfcProviderRenderedPathAPI.readRenderedServicePath(
+                renderedServicePath.getName(), LogicalDatastoreType.OPERATIONAL);
+        if (operRenderedServicePath != null
+                && Objects.equals(operRenderedServicePath.getPathId(), renderedServicePath.getPathId())) {
+            LOG.debug("add: RSP {} already in operational", renderedServicePath.getName().getValue());
+            return;
+        }
+
         ServiceFunctionPath serviceFunctionPath = SfcProviderServicePathAPI
                 .readServiceFunctionPath(renderedServicePath.getParentServiceFunctionPath());
 
@@ -96,6 +109,15 @@ public class RenderedServicePathListener extends AbstractSyncDataTreeChangeListe
     public void update(@Nonnull InstanceIdentifier<RenderedServicePath> instanceIdentifier,
                        @Nonnull RenderedServicePath originalRenderedServicePath,
                        @Nonnull RenderedServicePath updatedRenderedServicePath) {
+        // The hops are repaired in place on SF and SFF updates, the
+        // operational RSP is written along with the config one
+        if (new RenderedServicePathBuilder(originalRenderedServicePath)
+                .setRenderedServicePathHop(updatedRenderedServicePath.getRenderedServicePathHop()).build()
+                .equals(updatedRenderedServicePath)) {
+            LOG.debug("update: RSP {} hops repaired", updatedRenderedServicePath.getName().getValue());
+            return;
+        }
+
         LOG.warn("Updating the RSP in config is not supported: {}",
                 updatedRenderedServicePath.getName().getValue());
     }
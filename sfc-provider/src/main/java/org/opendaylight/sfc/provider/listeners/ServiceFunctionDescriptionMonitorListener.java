@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2018 Ericsson Inc. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.sfc.provider.listeners;
+
+import javax.annotation.Nonnull;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import org.opendaylight.controller.md.sal.binding.api.DataBroker;
+import org.opendaylight.controller.md.sal.common.api.data.LogicalDatastoreType;
+import org.opendaylight.serviceutils.tools.mdsal.listener.AbstractSyncDataTreeChangeListener;
+import org.opendaylight.sfc.provider.api.SfcServiceFunctionLoadCache;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.common.rev151017.SfName;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sf.rev140701.ServiceFunctionsState;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sf.rev140701.service.functions.state.ServiceFunctionState;
+import org.opendaylight.yang.gen.v1.urn.intel.params.xml.ns.sf.desc.mon.rev141201.ServiceFunctionState1;
+import org.opendaylight.yang.gen.v1.urn.intel.params.xml.ns.sf.desc.mon.rev141201.service.functions.state.service.function.state.SfcSfDescMon;
+import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class listens to changes (addition, update, removal) in the Service
+ * Function description and monitoring information, feeding the load view of
+ * the load balance scheduler.
+ */
+@Singleton
+public class ServiceFunctionDescriptionMonitorListener extends AbstractSyncDataTreeChangeListener<SfcSfDescMon> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ServiceFunctionDescriptionMonitorListener.class);
+
+    @Inject
+    public ServiceFunctionDescriptionMonitorListener(DataBroker dataBroker) {
+        super(dataBroker, LogicalDatastoreType.OPERATIONAL,
+              InstanceIdentifier.create(ServiceFunctionsState.class).child(ServiceFunctionState.class)
+                      .augmentation(ServiceFunctionState1.class).child(SfcSfDescMon.class));
+    }
+
+    @Override
+    public void add(@Nonnull InstanceIdentifier<SfcSfDescMon> instanceIdentifier,
+                    @Nonnull SfcSfDescMon sfcSfDescMon) {
+        SfName sfName = getSfName(instanceIdentifier);
+        LOG.debug("add: monitoring information of Service Function {}", sfName);
+        SfcServiceFunctionLoadCache.updateUtilization(sfName, sfcSfDescMon);
+    }
+
+    @Override
+    public void remove(@Nonnull InstanceIdentifier<SfcSfDescMon> instanceIdentifier,
+                       @Nonnull SfcSfDescMon sfcSfDescMon) {
+        SfName sfName = getSfName(instanceIdentifier);
+        LOG.debug("remove: monitoring information of Service Function {}", sfName);
+        SfcServiceFunctionLoadCache.removeUtilization(sfName);
+    }
+
+    @Override
+    public void update(@Nonnull InstanceIdentifier<SfcSfDescMon> instanceIdentifier,
+                       @Nonnull SfcSfDescMon originalSfcSfDescMon,
+                       @Nonnull SfcSfDescMon updatedSfcSfDescMon) {
+        SfName sfName = getSfName(instanceIdentifier);
+        LOG.debug("update: monitoring information of Service Function {}", sfName);
+        SfcServiceFunctionLoadCache.updateUtilization(sfName, updatedSfcSfDescMon);
+    }
+
+    private static SfName getSfName(InstanceIdentifier<SfcSfDescMon> instanceIdentifier) {
+        return instanceIdentifier.firstKeyOf(ServiceFunctionState.class).getName();
+    }
+}
@@ -7,11 +7,12 @@
  */
 package org.opendaylight.sfc.provider.listeners;
 
-import com.google.common.collect.Sets;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
@@ -20,9 +21,12 @@ import javax.inject.Singleton;
 import org.opendaylight.controller.md.sal.binding.api.DataBroker;
 import org.opendaylight.controller.md.sal.common.api.data.LogicalDatastoreType;
 import org.opendaylight.serviceutils.tools.mdsal.listener.AbstractSyncDataTreeChangeListener;
+import org.opendaylight.sfc.provider.api.SfcDataStoreReadCache;
 import org.opendaylight.sfc.provider.api.SfcProviderRenderedPathAPI;
+import org.opendaylight.sfc.provider.api.SfcProviderRenderedPathRepairAPI;
 import org.opendaylight.sfc.provider.api.SfcProviderServiceForwarderAPI;
 import org.opendaylight.sfc.provider.api.SfcProviderServicePathAPI;
+import org.opendaylight.sfc.provider.topology.SfcProviderTopologyCache;
 import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.common.rev151017.RspName;
 import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.common.rev151017.SfName;
 import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.common.rev151017.SffDataPlaneLocatorName;
@@ -61,6 +65,8 @@ public class ServiceFunctionForwarderListener extends AbstractSyncDataTreeChange
     public void add(@Nonnull InstanceIdentifier<ServiceFunctionForwarder> instanceIdentifier,
                     @Nonnull ServiceFunctionForwarder serviceFunctionForwarder) {
         LOG.info("Adding Service Function Forwarder: {}", serviceFunctionForwarder.getName());
+        SfcDataStoreReadCache.SERVICE_FUNCTION_FORWARDERS.invalidate(serviceFunctionForwarder.getName());
+        SfcProviderTopologyCache.updateServiceFunctionForwarder(serviceFunctionForwarder);
     }
 
     @Override
@@ -69,6 +75,8 @@ public class ServiceFunctionForwarderListener extends AbstractSyncDataTreeChange
         SffName sffName = serviceFunctionForwarder.getName();
         // Get RSPs of SFF
         LOG.info("Deleting Service Function Forwarder {}", sffName);
+        SfcDataStoreReadCache.SERVICE_FUNCTION_FORWARDERS.invalidate(sffName);
+        SfcProviderTopologyCache.removeServiceFunctionForwarder(serviceFunctionForwarder);
         List<RspName> rspNames = SfcProviderServiceForwarderAPI.readRspNamesFromSffState(sffName);
 
         LOG.info("Deleting Service Function Paths for RSPs {}", rspNames);
@@ -84,11 +92,46 @@ public class ServiceFunctionForwarderListener extends AbstractSyncDataTreeChange
                        @Nonnull ServiceFunctionForwarder originalServiceFunctionForwarder,
                        @Nonnull ServiceFunctionForwarder updatedServiceFunctionForwarder) {
         LOG.info("Updating Service Function Forwarder: {}", originalServiceFunctionForwarder.getName());
-        List<RspName> rspNames = findAffectedRsp(originalServiceFunctionForwarder, updatedServiceFunctionForwarder);
+        SfcDataStoreReadCache.SERVICE_FUNCTION_FORWARDERS.invalidate(updatedServiceFunctionForwarder.getName());
+        SfcProviderTopologyCache.updateServiceFunctionForwarder(updatedServiceFunctionForwarder);
+        SffName sffName = originalServiceFunctionForwarder.getName();
+        List<RspName> rspNames = SfcProviderServiceForwarderAPI.readRspNamesFromSffState(sffName);
+        if (rspNames.isEmpty()) {
+            return;
+        }
 
-        LOG.info("Deleting Service Function Paths for RSPs {}", rspNames);
+        // SFs are gone from the SFF if they have no valid dictionary entry,
+        // the RSPs using them have to be rescheduled. The other affected RSPs
+        // are repaired in place.
+        Set<SfName> removedSfs = findRemovedSfs(originalServiceFunctionForwarder, updatedServiceFunctionForwarder);
+        Set<SfName> updatedSfs = findUpdatedSfs(originalServiceFunctionForwarder, updatedServiceFunctionForwarder);
+        boolean isDataPlaneUpdated =
+                isDataPlaneUpdated(originalServiceFunctionForwarder, updatedServiceFunctionForwarder);
+
+        List<RspName> repairRspNames = new ArrayList<>();
+        List<RspName> deleteRspNames = new ArrayList<>();
         for (RspName rspName : rspNames) {
             RenderedServicePath rsp = SfcProviderRenderedPathAPI.readRenderedServicePath(rspName);
+            if (rsp == null) {
+                continue;
+            }
+            if (usesSfs(rsp, sffName, removedSfs)) {
+                deleteRspNames.add(rspName);
+            } else if (isDataPlaneUpdated || usesSfs(rsp, sffName, updatedSfs)) {
+                repairRspNames.add(rspName);
+            }
+        }
+
+        LOG.info("Repairing RSPs {}", repairRspNames);
+        deleteRspNames.addAll(SfcProviderRenderedPathRepairAPI.repairRenderedServicePaths(repairRspNames, null,
+                updatedServiceFunctionForwarder));
+
+        LOG.info("Deleting Service Function Paths for RSPs {}", deleteRspNames);
+        for (RspName rspName : deleteRspNames) {
+            RenderedServicePath rsp = SfcProviderRenderedPathAPI.readRenderedServicePath(rspName);
+            if (rsp == null) {
+                continue;
+            }
             LOG.info("Deleting SFP {}", rsp.getParentServiceFunctionPath().getValue());
             // This will in-turn delete the RSP from config and oper
             SfcProviderServicePathAPI.deleteServiceFunctionPath(rsp.getParentServiceFunctionPath());
@@ -96,133 +139,128 @@ public class ServiceFunctionForwarderListener extends AbstractSyncDataTreeChange
     }
 
     /**
-     * Obtains the list of RSP affected by a change on the SFF.
+     * Checks whether the SFF data plane has changed for all its RSPs: the
+     * service node, the management address, the locators, or the locator the
+     * RSP hops reach the SFF with.
      *
      * @param originalSff the original SFF.
      * @param updatedSff  the updated SFF.
-     * @return a list of {@link RspName} of the affected RSP.
+     * @return true if the data plane has changed.
      */
-    private List<RspName> findAffectedRsp(ServiceFunctionForwarder originalSff, ServiceFunctionForwarder updatedSff) {
-        SffName sffName = originalSff.getName();
-        List<RspName> rspNames = SfcProviderServiceForwarderAPI.readRspNamesFromSffState(sffName);
-
-        // If service node changed, all RSPs are affected
+    private boolean isDataPlaneUpdated(ServiceFunctionForwarder originalSff, ServiceFunctionForwarder updatedSff) {
         SnName originalSnName = originalSff.getServiceNode();
         SnName updatedSnName = updatedSff.getServiceNode();
         if (!Objects.equals(originalSnName, updatedSnName)) {
             LOG.debug("SFF service node updated: original {} updated {}", originalSnName, updatedSnName);
-            return rspNames;
+            return true;
         }
 
-        // If ip address changed, all RSPs are affected
         IpAddress originalIpAddress = originalSff.getIpMgmtAddress();
         IpAddress updatedIpAddress = updatedSff.getIpMgmtAddress();
         if (!Objects.equals(originalIpAddress, updatedIpAddress)) {
             LOG.debug("SFF IpAddress updated: original {} updated {}", originalIpAddress, updatedIpAddress);
-            return rspNames;
-        }
-
-        List<SffDataPlaneLocator> updatedLocators = updatedSff.getSffDataPlaneLocator();
-        if (updatedLocators == null || updatedLocators.isEmpty()) {
-            LOG.debug("Updated SFF has no locators");
-            return rspNames;
+            return true;
         }
 
-        List<ServiceFunctionDictionary> updatedDictList = updatedSff.getServiceFunctionDictionary();
-        if (updatedDictList == null || updatedDictList.isEmpty()) {
-            LOG.debug("Updated SFF has no dictionary entries");
-            return rspNames;
+        Set<SffDataPlaneLocator> originalLocators = new HashSet<>(Optional.ofNullable(
+                originalSff.getSffDataPlaneLocator()).orElse(Collections.emptyList()));
+        Set<SffDataPlaneLocator> updatedLocators = new HashSet<>(Optional.ofNullable(
+                updatedSff.getSffDataPlaneLocator()).orElse(Collections.emptyList()));
+        if (!originalLocators.equals(updatedLocators)) {
+            LOG.debug("SFF locators updated: original {} updated {}", originalLocators, updatedLocators);
+            return true;
         }
 
-        List<SffDataPlaneLocator> originalLocators = originalSff.getSffDataPlaneLocator();
-        if (originalLocators == null || originalLocators.isEmpty()) {
-            LOG.debug("Original SFF has no locators");
-            return Collections.emptyList();
-        }
+        return !Objects.equals(SfcProviderRenderedPathAPI.getHopServiceFunctionForwarderLocator(originalSff),
+                SfcProviderRenderedPathAPI.getHopServiceFunctionForwarderLocator(updatedSff));
+    }
 
-        List<ServiceFunctionDictionary> originalDictList = originalSff.getServiceFunctionDictionary();
-        if (originalDictList == null || originalDictList.isEmpty()) {
-            LOG.debug("Original SFF has no dictionary entries");
-            return Collections.emptyList();
-        }
+    /**
+     * Obtains the SFs that are gone from the SFF: their dictionary entry was
+     * removed, or uses a removed locator.
+     *
+     * @param originalSff the original SFF.
+     * @param updatedSff  the updated SFF.
+     * @return the names of the SFs gone from the SFF.
+     */
+    private Set<SfName> findRemovedSfs(ServiceFunctionForwarder originalSff, ServiceFunctionForwarder updatedSff) {
+        List<ServiceFunctionDictionary> originalDictList =
+                Optional.ofNullable(originalSff.getServiceFunctionDictionary()).orElse(Collections.emptyList());
+        List<ServiceFunctionDictionary> updatedDictList =
+                Optional.ofNullable(updatedSff.getServiceFunctionDictionary()).orElse(Collections.emptyList());
 
-        // What follows might require quite a bit of processing for a big SFF.
-        // Enhancements to the data model could help in this regard.
+        // Find out about removed dictionary entries
+        Set<SfName> removedSfs = originalDictList.stream()
+                .map(ServiceFunctionDictionary::getName)
+                .collect(Collectors.toSet());
+        updatedDictList.forEach(dict -> removedSfs.remove(dict.getName()));
 
-        // Find out about removed locators
-        Set<SffDataPlaneLocatorName> removedLocatorNames;
-        removedLocatorNames = Sets.difference(new HashSet<>(originalLocators), new HashSet<>(updatedLocators)).stream()
-            .map(SffDataPlaneLocator::getName)
-            .collect(Collectors.toSet());
+        // Find out about removed locators, a modified locator is repaired
+        Set<SffDataPlaneLocatorName> removedLocatorNames = Optional.ofNullable(originalSff.getSffDataPlaneLocator())
+                .orElse(Collections.emptyList()).stream()
+                .map(SffDataPlaneLocator::getName)
+                .collect(Collectors.toSet());
+        Optional.ofNullable(updatedSff.getSffDataPlaneLocator()).orElse(Collections.emptyList())
+                .forEach(locator -> removedLocatorNames.remove(locator.getName()));
 
-        // Find out about removed dictionary entries
-        Set<ServiceFunctionDictionary> removedDictEntries;
-        removedDictEntries =  Sets.difference(new HashSet<>(originalDictList), new HashSet<>(updatedDictList));
-        Set<ServiceFunctionDictionary> invalidDictEntries = new HashSet<>(removedDictEntries);
         // A removed locator use in a dictionary entry invalidates it
         if (!removedLocatorNames.isEmpty()) {
-            invalidDictEntries = updatedDictList.stream().collect(
-                HashSet::new,
-                (hash, dict) -> {
-                    SffSfDataPlaneLocator sffSfDataPlaneLocator = dict.getSffSfDataPlaneLocator();
-                    if (sffSfDataPlaneLocator == null) {
-                        return;
-                    }
-                    boolean isInvalid = removedLocatorNames.contains(sffSfDataPlaneLocator.getSffDplName())
-                           || removedLocatorNames.contains(sffSfDataPlaneLocator.getSffForwardDplName())
-                           || removedLocatorNames.contains(sffSfDataPlaneLocator.getSffReverseDplName());
-                    if (isInvalid) {
-                        hash.add(dict);
-                    }
-                },
-                HashSet::addAll);
+            for (ServiceFunctionDictionary dict : updatedDictList) {
+                SffSfDataPlaneLocator sffSfDataPlaneLocator = dict.getSffSfDataPlaneLocator();
+                if (sffSfDataPlaneLocator == null) {
+                    continue;
+                }
+                boolean isInvalid = removedLocatorNames.contains(sffSfDataPlaneLocator.getSffDplName())
+                        || removedLocatorNames.contains(sffSfDataPlaneLocator.getSffForwardDplName())
+                        || removedLocatorNames.contains(sffSfDataPlaneLocator.getSffReverseDplName());
+                if (isInvalid) {
+                    removedSfs.add(dict.getName());
+                }
+            }
         }
-        // SFs cannot be used in the RSP if they have no dictionary entry
-        List<SfName> invalidSfs = invalidDictEntries.stream()
+
+        LOG.debug("SFs removed from SFF {}: {}", updatedSff.getName(), removedSfs);
+        return removedSfs;
+    }
+
+    /**
+     * Obtains the SFs whose dictionary entry was added or modified.
+     *
+     * @param originalSff the original SFF.
+     * @param updatedSff  the updated SFF.
+     * @return the names of the SFs with an updated dictionary entry.
+     */
+    private Set<SfName> findUpdatedSfs(ServiceFunctionForwarder originalSff, ServiceFunctionForwarder updatedSff) {
+        Set<ServiceFunctionDictionary> originalDicts = new HashSet<>(
+                Optional.ofNullable(originalSff.getServiceFunctionDictionary()).orElse(Collections.emptyList()));
+        return Optional.ofNullable(updatedSff.getServiceFunctionDictionary()).orElse(Collections.emptyList())
+                .stream()
+                .filter(dict -> !originalDicts.contains(dict))
                 .map(ServiceFunctionDictionary::getName)
-                .collect(Collectors.toList());
-        // Removed locators may not affect single SFF RSPs
-        boolean onlyAllowThisSff = removedLocatorNames.size() > 0;
-
-        // check affected RSPs
-        return rspNames.stream()
-                .filter(rspName -> !isRspValid(rspName, sffName, onlyAllowThisSff, invalidSfs))
-                .collect(Collectors.toList());
+                .collect(Collectors.toSet());
     }
 
     /**
-     * Inspect RSP validness according to the following criteria:
-     * If <code>isSingleSff</code> is set to <code>true</code>, it will
-     * be checked that the entire path traverses only <code>sffName</code>.
-     * It will also be checked that none of the service functions
-     * included in <code>invalidSfList</code> are used for the path
-     * in any hop along with <code>sffName</code>.
+     * Checks whether an RSP uses any of the given SFs along with the given
+     * SFF.
      *
-     * @param rspName       the RSP name.
-     * @param sffName       the SFF name.
-     * @param isSingleSff   if the RSP must have a single SFF and
-     *                      has to be <code>sffName</code>.
-     * @param invalidSfList the disallowed SFs to be used along with
-     *                      <code>sffName</code> for the RSP.
-     * @return true if the RSP is valid according to the criteria defined
-     *         above.
+     * @param renderedServicePath the RSP.
+     * @param sffName             the SFF name.
+     * @param sfNames             the SF names.
+     * @return true if a hop of the RSP uses one of the SFs on the SFF.
      */
-    private boolean isRspValid(final RspName rspName,
-                               final SffName sffName,
-                               final boolean isSingleSff,
-                               final List<SfName> invalidSfList) {
-        RenderedServicePath renderedServicePath = SfcProviderRenderedPathAPI.readRenderedServicePath(rspName);
+    private boolean usesSfs(final RenderedServicePath renderedServicePath,
+                            final SffName sffName,
+                            final Set<SfName> sfNames) {
+        if (sfNames.isEmpty() || renderedServicePath.getRenderedServicePathHop() == null) {
+            return false;
+        }
         for (RenderedServicePathHop hop : renderedServicePath.getRenderedServicePathHop()) {
-            SffName serviceFunctionForwarder = hop.getServiceFunctionForwarder();
-            SfName serviceFunctionName = hop.getServiceFunctionName();
-            boolean sameSff = sffName.equals(serviceFunctionForwarder);
-            if (!sameSff && isSingleSff) {
-                return false;
-            }
-            if (sameSff && invalidSfList.contains(serviceFunctionName)) {
-                return false;
+            if (sffName.equals(hop.getServiceFunctionForwarder())
+                    && sfNames.contains(hop.getServiceFunctionName())) {
+                return true;
             }
         }
-        return true;
+        return false;
     }
 }
@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2018 Ericsson Inc. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.sfc.provider.listeners;
+
+import javax.annotation.Nonnull;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import org.opendaylight.controller.md.sal.binding.api.DataBroker;
+import org.opendaylight.controller.md.sal.common.api.data.LogicalDatastoreType;
+import org.opendaylight.serviceutils.tools.mdsal.listener.AbstractSyncDataTreeChangeListener;
+import org.opendaylight.sfc.provider.api.SfcDataStoreReadCache;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sfg.rev150214.ServiceFunctionGroups;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sfg.rev150214.service.function.groups.ServiceFunctionGroup;
+import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class listens to changes (addition, update, removal) in Service
+ * Function groups, keeping the provider read cache consistent.
+ */
+@Singleton
+public class ServiceFunctionGroupListener extends AbstractSyncDataTreeChangeListener<ServiceFunctionGroup> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ServiceFunctionGroupListener.class);
+
+    @Inject
+    public ServiceFunctionGroupListener(DataBroker dataBroker) {
+        super(dataBroker, LogicalDatastoreType.CONFIGURATION,
+              InstanceIdentifier.create(ServiceFunctionGroups.class).child(ServiceFunctionGroup.class));
+    }
+
+    @Override
+    public void add(@Nonnull InstanceIdentifier<ServiceFunctionGroup> instanceIdentifier,
+                    @Nonnull ServiceFunctionGroup serviceFunctionGroup) {
+        LOG.debug("add: Service Function group {}", serviceFunctionGroup.getName());
+        SfcDataStoreReadCache.SERVICE_FUNCTION_GROUPS.invalidate(serviceFunctionGroup.getName());
+    }
+
+    @Override
+    public void remove(@Nonnull InstanceIdentifier<ServiceFunctionGroup> instanceIdentifier,
+                       @Nonnull ServiceFunctionGroup serviceFunctionGroup) {
+        LOG.debug("remove: Service Function group {}", serviceFunctionGroup.getName());
+        SfcDataStoreReadCache.SERVICE_FUNCTION_GROUPS.invalidate(serviceFunctionGroup.getName());
+    }
+
+    @Override
+    public void update(@Nonnull InstanceIdentifier<ServiceFunctionGroup> instanceIdentifier,
+                       @Nonnull ServiceFunctionGroup originalServiceFunctionGroup,
+                       @Nonnull ServiceFunctionGroup updatedServiceFunctionGroup) {
+        LOG.debug("update: Service Function group {}", updatedServiceFunctionGroup.getName());
+        SfcDataStoreReadCache.SERVICE_FUNCTION_GROUPS.invalidate(updatedServiceFunctionGroup.getName());
+    }
+}
@@ -9,18 +9,28 @@ package org.opendaylight.sfc.provider.listeners;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import javax.annotation.Nonnull;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import org.opendaylight.controller.md.sal.binding.api.DataBroker;
 import org.opendaylight.controller.md.sal.common.api.data.LogicalDatastoreType;
 import org.opendaylight.serviceutils.tools.mdsal.listener.AbstractSyncDataTreeChangeListener;
+import org.opendaylight.sfc.provider.api.SfcDataStoreReadCache;
+import org.opendaylight.sfc.provider.api.SfcProviderRenderedPathAPI;
+import org.opendaylight.sfc.provider.api.SfcProviderRenderedPathRepairAPI;
 import org.opendaylight.sfc.provider.api.SfcProviderServiceFunctionAPI;
 import org.opendaylight.sfc.provider.api.SfcProviderServicePathAPI;
 import org.opendaylight.sfc.provider.api.SfcProviderServiceTypeAPI;
+import org.opendaylight.sfc.provider.api.SfcServiceFunctionLoadCache;
+import org.opendaylight.sfc.provider.topology.SfcProviderTopologyCache;
 import org.opendaylight.sfc.provider.validators.util.SfcDatastoreCache;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.common.rev151017.RspName;
 import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.common.rev151017.SfName;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.common.rev151017.SfpName;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.rsp.rev140701.rendered.service.paths.RenderedServicePath;
 import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sf.rev140701.ServiceFunctions;
 import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sf.rev140701.service.function.base.SfDataPlaneLocator;
 import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sf.rev140701.service.functions.ServiceFunction;
@@ -52,6 +62,8 @@ public class ServiceFunctionListener extends AbstractSyncDataTreeChangeListener<
         LOG.debug("add: storing name [{}] type [{}]", serviceFunction.getName().getValue(),
                   serviceFunction.getType().getValue());
         SfcDatastoreCache.getSfToSfTypeCache().put(serviceFunction.getName(), serviceFunction.getType().getValue());
+        SfcDataStoreReadCache.SERVICE_FUNCTIONS.invalidate(serviceFunction.getName());
+        SfcProviderTopologyCache.updateServiceFunction(serviceFunction);
         if (!SfcProviderServiceTypeAPI.createServiceFunctionTypeEntry(serviceFunction)) {
             LOG.error("add:Failed to create Service Function: ", serviceFunction.getName());
         }
@@ -64,6 +76,9 @@ public class ServiceFunctionListener extends AbstractSyncDataTreeChangeListener<
 
         // delete cache
         SfcDatastoreCache.getSfToSfTypeCache().invalidate(serviceFunction.getName());
+        SfcDataStoreReadCache.SERVICE_FUNCTIONS.invalidate(serviceFunction.getName());
+        SfcProviderTopologyCache.removeServiceFunction(serviceFunction);
+        SfcServiceFunctionLoadCache.removeServiceFunction(serviceFunction.getName());
 
         deleteSfSfps(serviceFunction);
         if (!SfcProviderServiceTypeAPI.deleteServiceFunctionTypeEntry(serviceFunction)) {
@@ -76,6 +91,8 @@ public class ServiceFunctionListener extends AbstractSyncDataTreeChangeListener<
                        @Nonnull ServiceFunction originalServiceFunction,
                        @Nonnull ServiceFunction updatedServiceFunction) {
         LOG.debug("update:Updating Service Function: {}", originalServiceFunction.getName());
+        SfcDataStoreReadCache.SERVICE_FUNCTIONS.invalidate(updatedServiceFunction.getName());
+        SfcProviderTopologyCache.updateServiceFunction(updatedServiceFunction);
 
         if (!compareSfs(originalServiceFunction, updatedServiceFunction)) {
             // We only update SF type entry if type has changed
@@ -87,9 +104,18 @@ public class ServiceFunctionListener extends AbstractSyncDataTreeChangeListener<
                         .put(updatedServiceFunction.getName(), updatedServiceFunction.getType().getValue());
                 // We create a independent entry
                 SfcProviderServiceTypeAPI.createServiceFunctionTypeEntry(updatedServiceFunction);
+
+                // The SF no longer fits in the chains of its RSPs
+                deleteSfSfps(originalServiceFunction);
+                return;
             }
 
-            deleteSfSfps(originalServiceFunction);
+            // Repair the RSP hops in place, only the RSPs the SF is gone
+            // from are rescheduled
+            List<RspName> rspNames = SfcProviderServiceFunctionAPI.getRspsBySfName(updatedServiceFunction.getName());
+            List<RspName> unrepairedRspNames =
+                    SfcProviderRenderedPathRepairAPI.repairRenderedServicePaths(rspNames, updatedServiceFunction, null);
+            deleteRspSfps(updatedServiceFunction.getName(), unrepairedRspNames);
         }
     }
 
@@ -169,4 +195,26 @@ public class ServiceFunctionListener extends AbstractSyncDataTreeChangeListener<
          * the first place, (s)he is also responsible for updating it.
          */
     }
+
+    /**
+     * Removes the SFPs of the given RSPs of the Service Function, along with
+     * the references to the RSPs in the SF operational trees.
+     */
+    private void deleteRspSfps(SfName sfName, List<RspName> rspNames) {
+        Set<SfpName> sfpNames = new HashSet<>();
+        for (RspName rspName : rspNames) {
+            RenderedServicePath rsp = SfcProviderRenderedPathAPI.readRenderedServicePath(rspName);
+            if (rsp == null) {
+                continue;
+            }
+            if (!SfcProviderServiceFunctionAPI.deleteRspFromServiceFunctionState(rspName)) {
+                LOG.error("Failed to delete RSP {} from the SF operational state", rspName.getValue());
+            }
+            sfpNames.add(rsp.getParentServiceFunctionPath());
+        }
+        for (SfpName sfpName : sfpNames) {
+            LOG.info("Deleting SFP [{}] on SF [{}]", sfpName.getValue(), sfName);
+            SfcProviderServicePathAPI.deleteServiceFunctionPath(sfpName);
+        }
+    }
 }
@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2018 Ericsson Inc. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.sfc.provider.listeners;
+
+import javax.annotation.Nonnull;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import org.opendaylight.controller.md.sal.binding.api.DataBroker;
+import org.opendaylight.controller.md.sal.common.api.data.LogicalDatastoreType;
+import org.opendaylight.serviceutils.tools.mdsal.listener.AbstractSyncDataTreeChangeListener;
+import org.opendaylight.sfc.provider.api.SfcDataStoreReadCache;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sft.rev140701.ServiceFunctionTypes;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sft.rev140701.service.function.types.ServiceFunctionType;
+import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class listens to changes (addition, update, removal) in Service
+ * Function types, keeping the provider read cache consistent.
+ */
+@Singleton
+public class ServiceFunctionTypeListener extends AbstractSyncDataTreeChangeListener<ServiceFunctionType> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ServiceFunctionTypeListener.class);
+
+    @Inject
+    public ServiceFunctionTypeListener(DataBroker dataBroker) {
+        super(dataBroker, LogicalDatastoreType.CONFIGURATION,
+              InstanceIdentifier.create(ServiceFunctionTypes.class).child(ServiceFunctionType.class));
+    }
+
+    @Override
+    public void add(@Nonnull InstanceIdentifier<ServiceFunctionType> instanceIdentifier,
+                    @Nonnull ServiceFunctionType serviceFunctionType) {
+        LOG.debug("add: Service Function type {}", serviceFunctionType.getType());
+        SfcDataStoreReadCache.SERVICE_FUNCTION_TYPES.invalidate(serviceFunctionType.getType());
+    }
+
+    @Override
+    public void remove(@Nonnull InstanceIdentifier<ServiceFunctionType> instanceIdentifier,
+                       @Nonnull ServiceFunctionType serviceFunctionType) {
+        LOG.debug("remove: Service Function type {}", serviceFunctionType.getType());
+        SfcDataStoreReadCache.SERVICE_FUNCTION_TYPES.invalidate(serviceFunctionType.getType());
+    }
+
+    @Override
+    public void update(@Nonnull InstanceIdentifier<ServiceFunctionType> instanceIdentifier,
+                       @Nonnull ServiceFunctionType originalServiceFunctionType,
+                       @Nonnull ServiceFunctionType updatedServiceFunctionType) {
+        LOG.debug("update: Service Function type {}", updatedServiceFunctionType.getType());
+        SfcDataStoreReadCache.SERVICE_FUNCTION_TYPES.invalidate(updatedServiceFunctionType.getType());
+    }
+}
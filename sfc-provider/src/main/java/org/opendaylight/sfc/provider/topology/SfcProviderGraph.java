@@ -33,6 +33,7 @@ import org.slf4j.LoggerFactory;
  * @since 2015-03-13
  */
 public class SfcProviderGraph {
+    public static final long DEFAULT_EDGE_COST = 1L;
     private static final Logger LOG = LoggerFactory.getLogger(SfcProviderGraph.class);
     private static final TreeSet<SfcProviderTopologyNode> EMPTY_SET = new TreeSet<>();
     private static final int WHITE = 2;
@@ -40,10 +41,13 @@ public class SfcProviderGraph {
     private static final int BLACK = 0;
     private final HashMap<SfcProviderTopologyNode, TreeSet<SfcProviderTopologyNode>> sfcProviderTopoEdges;
     private final HashMap<String, SfcProviderTopologyNode> sfcProviderTopoNodes;
+    private final HashMap<String, HashMap<String, Long>> sfcProviderTopoEdgeCosts;
+    private volatile SfcProviderGraphIndex sfcProviderGraphIndex;
 
     public SfcProviderGraph() {
         sfcProviderTopoEdges = new HashMap<>();
         sfcProviderTopoNodes = new HashMap<>();
+        sfcProviderTopoEdgeCosts = new HashMap<>();
     }
 
     public SfcProviderTopologyNode addNode(String nodeName) {
@@ -53,6 +57,7 @@ public class SfcProviderGraph {
             node = new SfcProviderTopologyNode(nodeName);
             sfcProviderTopoNodes.put(nodeName, node);
             sfcProviderTopoEdges.put(node, new TreeSet<>());
+            sfcProviderGraphIndex = null;
         }
         return node;
     }
@@ -91,10 +96,52 @@ public class SfcProviderGraph {
             }
             sfcProviderTopoEdges.get(fromNode).add(toNode);
             sfcProviderTopoEdges.get(toNode).add(fromNode);
+            sfcProviderGraphIndex = null;
         }
         return true;
     }
 
+    /**
+     * Set the cost of going from one node to another, adding the edge
+     * between them if it does not exist.
+     *
+     * @param fromNodeName
+     *            the source node name
+     * @param toNodeName
+     *            the destination node name
+     * @param cost
+     *            the cost
+     */
+    public void setEdgeCost(String fromNodeName, String toNodeName, long cost) {
+        addEdge(fromNodeName, toNodeName);
+        sfcProviderTopoEdgeCosts.computeIfAbsent(fromNodeName, k -> new HashMap<>()).put(toNodeName, cost);
+        sfcProviderGraphIndex = null;
+    }
+
+    /**
+     * Get the cost of going from one node to a neighbor node. If the cost
+     * was only set for the opposite direction, that cost is used; if it was
+     * not set at all, the cost is {@link #DEFAULT_EDGE_COST}.
+     *
+     * @param fromNodeName
+     *            the source node name
+     * @param toNodeName
+     *            the destination node name
+     * @return the cost
+     */
+    public long getEdgeCost(String fromNodeName, String toNodeName) {
+        Long cost = getExplicitEdgeCost(fromNodeName, toNodeName);
+        if (cost == null) {
+            cost = getExplicitEdgeCost(toNodeName, fromNodeName);
+        }
+        return cost == null ? DEFAULT_EDGE_COST : cost;
+    }
+
+    private Long getExplicitEdgeCost(String fromNodeName, String toNodeName) {
+        HashMap<String, Long> costs = sfcProviderTopoEdgeCosts.get(fromNodeName);
+        return costs == null ? null : costs.get(toNodeName);
+    }
+
     public Iterable<SfcProviderTopologyNode> getNeighborNodes(String nodeName) {
         if (!hasNode(nodeName)) {
             return EMPTY_SET;
@@ -106,6 +153,27 @@ public class SfcProviderGraph {
         return sfcProviderTopoNodes.values();
     }
 
+    /**
+     * Get the integer indexed view of this graph used to compute hop
+     * distances and path costs. The view is built on first use and discarded
+     * whenever a node, an edge or an edge cost is added.
+     *
+     * @return the graph index
+     */
+    public SfcProviderGraphIndex getIndex() {
+        SfcProviderGraphIndex index = sfcProviderGraphIndex;
+        if (index == null) {
+            synchronized (this) {
+                index = sfcProviderGraphIndex;
+                if (index == null) {
+                    index = new SfcProviderGraphIndex(this);
+                    sfcProviderGraphIndex = index;
+                }
+            }
+        }
+        return index;
+    }
+
     private void breadthFirstSearch(String fromNodeName) {
         /* Reset all nodes' color, dist, parent */
         for (SfcProviderTopologyNode sfcNode : getAllNodes()) {
@@ -144,7 +212,11 @@ public class SfcProviderGraph {
         }
     }
 
-    public List<SfcProviderTopologyNode> getShortestPath(String fromNodeName, String toNodeName) {
+    /*
+     * The search state is kept in the nodes, so concurrent searches on a
+     * shared graph are serialized.
+     */
+    public synchronized List<SfcProviderTopologyNode> getShortestPath(String fromNodeName, String toNodeName) {
         SfcProviderTopologyNode fromNode = getNode(fromNodeName);
         SfcProviderTopologyNode toNode = getNode(toNodeName);
         if (fromNode == null || toNode == null) {
@@ -0,0 +1,243 @@
+/*
+ * Copyright (c) 2018 Ericsson Inc. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.sfc.provider.topology;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This class is an immutable, integer indexed view of a {@link SfcProviderGraph}
+ * used to compute hop distances and path costs. Nodes are numbered in name
+ * order and the adjacency is stored in compressed sparse row arrays: the
+ * neighbors of node {@code i} are {@code targets[offsets[i]]} to
+ * {@code targets[offsets[i + 1] - 1]}, with edge costs in {@code costs}.
+ *
+ * <p>
+ * A breadth first search, or a Dijkstra search for costs, computes the
+ * distances from a source node to every other node at once, so all the
+ * candidates of a scheduling hop are scored with a single search. The distance
+ * vectors are cached per source node for the lifetime of the index, that is
+ * until the topology changes. The search state is local to each search so the
+ * index can be used by concurrent schedulers.
+ */
+public final class SfcProviderGraphIndex {
+
+    /**
+     * Distance returned for nodes that are not reachable.
+     */
+    public static final int UNREACHABLE = -1;
+
+    // Bounds the memory used by the distance cache, each entry is a vector of
+    // nodeCount integers
+    private static final int MAX_CACHED_SOURCES = 256;
+
+    private final String[] names;
+    private final Map<String, Integer> ids;
+    private final int[] offsets;
+    private final int[] targets;
+    private final long[] costs;
+    private final Map<Integer, int[]> distances = new ConcurrentHashMap<>();
+    private final Map<Integer, long[]> pathCosts = new ConcurrentHashMap<>();
+    private final AtomicLong searchCount = new AtomicLong();
+
+    SfcProviderGraphIndex(SfcProviderGraph graph) {
+        List<String> nodeNames = new ArrayList<>();
+        for (SfcProviderTopologyNode node : graph.getAllNodes()) {
+            nodeNames.add(node.getName());
+        }
+        Collections.sort(nodeNames);
+
+        names = nodeNames.toArray(new String[nodeNames.size()]);
+        ids = new HashMap<>(names.length * 2);
+        for (int i = 0; i < names.length; i++) {
+            ids.put(names[i], i);
+        }
+
+        offsets = new int[names.length + 1];
+        List<Integer> adjacency = new ArrayList<>();
+        for (int i = 0; i < names.length; i++) {
+            offsets[i] = adjacency.size();
+            for (SfcProviderTopologyNode neighbor : graph.getNeighborNodes(names[i])) {
+                adjacency.add(ids.get(neighbor.getName()));
+            }
+        }
+        offsets[names.length] = adjacency.size();
+        targets = new int[adjacency.size()];
+        costs = new long[adjacency.size()];
+        for (int i = 0; i < names.length; i++) {
+            for (int j = offsets[i]; j < offsets[i + 1]; j++) {
+                targets[j] = adjacency.get(j);
+                costs[j] = graph.getEdgeCost(names[i], names[targets[j]]);
+            }
+        }
+    }
+
+    /**
+     * Get the number of nodes in the index.
+     *
+     * @return the number of nodes
+     */
+    public int getNodeCount() {
+        return names.length;
+    }
+
+    /**
+     * Get the integer id of a node.
+     *
+     * @param nodeName
+     *            the node name
+     * @return the node id or {@link #UNREACHABLE} if the node does not exist
+     */
+    public int getNodeId(String nodeName) {
+        Integer id = ids.get(nodeName);
+        return id == null ? UNREACHABLE : id;
+    }
+
+    /**
+     * Get the name of a node.
+     *
+     * @param nodeId
+     *            the node id
+     * @return the node name
+     */
+    public String getNodeName(int nodeId) {
+        return names[nodeId];
+    }
+
+    /**
+     * Get the number of hops between two nodes. The first call for a given
+     * source node computes the distances to all the nodes, subsequent calls
+     * are served from the cache.
+     *
+     * @param fromNodeName
+     *            the source node name
+     * @param toNodeName
+     *            the destination node name
+     * @return the number of hops or {@link #UNREACHABLE} if either node does
+     *         not exist or there is no path between them
+     */
+    public int getDistance(String fromNodeName, String toNodeName) {
+        int fromId = getNodeId(fromNodeName);
+        int toId = getNodeId(toNodeName);
+        if (fromId == UNREACHABLE || toId == UNREACHABLE) {
+            return UNREACHABLE;
+        }
+        return getDistances(fromId)[toId];
+    }
+
+    /**
+     * Get the lowest cost of going from one node to another, the cost of a
+     * path being the sum of the costs of its edges. The first call for a
+     * given source node computes the costs to all the nodes, subsequent calls
+     * are served from the cache.
+     *
+     * @param fromNodeName
+     *            the source node name
+     * @param toNodeName
+     *            the destination node name
+     * @return the path cost or {@link #UNREACHABLE} if either node does not
+     *         exist or there is no path between them
+     */
+    public long getPathCost(String fromNodeName, String toNodeName) {
+        int fromId = getNodeId(fromNodeName);
+        int toId = getNodeId(toNodeName);
+        if (fromId == UNREACHABLE || toId == UNREACHABLE) {
+            return UNREACHABLE;
+        }
+        return getPathCosts(fromId)[toId];
+    }
+
+    /**
+     * Get the number of searches performed on this index.
+     *
+     * @return the number of searches
+     */
+    public long getSearchCount() {
+        return searchCount.get();
+    }
+
+    private int[] getDistances(int fromId) {
+        int[] dist = distances.get(fromId);
+        if (dist == null) {
+            dist = breadthFirstSearch(fromId);
+            if (distances.size() < MAX_CACHED_SOURCES) {
+                distances.putIfAbsent(fromId, dist);
+            }
+        }
+        return dist;
+    }
+
+    private long[] getPathCosts(int fromId) {
+        long[] cost = pathCosts.get(fromId);
+        if (cost == null) {
+            cost = dijkstraSearch(fromId);
+            if (pathCosts.size() < MAX_CACHED_SOURCES) {
+                pathCosts.putIfAbsent(fromId, cost);
+            }
+        }
+        return cost;
+    }
+
+    private long[] dijkstraSearch(int fromId) {
+        searchCount.incrementAndGet();
+        long[] cost = new long[names.length];
+        Arrays.fill(cost, UNREACHABLE);
+        boolean[] settled = new boolean[names.length];
+        // entries are {cost, node id}, stale entries are skipped when polled
+        PriorityQueue<long[]> queue = new PriorityQueue<>(names.length,
+                (entry1, entry2) -> Long.compare(entry1[0], entry2[0]));
+        cost[fromId] = 0;
+        queue.add(new long[] {0, fromId});
+        while (!queue.isEmpty()) {
+            int node = (int) queue.poll()[1];
+            if (settled[node]) {
+                continue;
+            }
+            settled[node] = true;
+            for (int i = offsets[node]; i < offsets[node + 1]; i++) {
+                int neighbor = targets[i];
+                long newCost = cost[node] + costs[i];
+                if (!settled[neighbor] && (cost[neighbor] == UNREACHABLE || newCost < cost[neighbor])) {
+                    cost[neighbor] = newCost;
+                    queue.add(new long[] {newCost, neighbor});
+                }
+            }
+        }
+        return cost;
+    }
+
+    private int[] breadthFirstSearch(int fromId) {
+        searchCount.incrementAndGet();
+        int[] dist = new int[names.length];
+        Arrays.fill(dist, UNREACHABLE);
+        int[] queue = new int[names.length];
+        int head = 0;
+        int tail = 0;
+        dist[fromId] = 0;
+        queue[tail++] = fromId;
+        while (head < tail) {
+            int node = queue[head++];
+            for (int i = offsets[node]; i < offsets[node + 1]; i++) {
+                int neighbor = targets[i];
+                if (dist[neighbor] == UNREACHABLE) {
+                    dist[neighbor] = dist[node] + 1;
+                    queue[tail++] = neighbor;
+                }
+            }
+        }
+        return dist;
+    }
+}
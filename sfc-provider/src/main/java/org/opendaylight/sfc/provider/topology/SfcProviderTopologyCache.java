@@ -0,0 +1,357 @@
+/*
+ * Copyright (c) 2018 Ericsson Inc. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.sfc.provider.topology;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sf.rev140701.service.functions.ServiceFunction;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sff.rev140701.service.function.forwarders.ServiceFunctionForwarder;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sff.rev140701.service.function.forwarders.service.function.forwarder.ConnectedSffDictionary;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sff.rev140701.service.function.forwarders.service.function.forwarder.ServiceFunctionDictionary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class holds the long-lived SFC topology shared by all the schedulers.
+ * Nodes are the SFs and SFFs, edges are the ones declared by the SFF service
+ * function and connected SFF dictionaries, along with the connected SFF link
+ * costs.
+ *
+ * <p>
+ * The topology is updated incrementally from the SF and SFF data tree
+ * listeners. Schedulers get a {@link SfcProviderGraph} snapshot that is only
+ * rebuilt on the first read after a topology change; snapshots are never
+ * modified once published and must not be modified by the readers either.
+ *
+ * <p>
+ * The topology is seeded from the data store the first time it is used with a
+ * given data broker; entries already updated by the listeners at that time are
+ * not overwritten by the seed. Those updates are only tracked until the seed.
+ */
+public final class SfcProviderTopologyCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SfcProviderTopologyCache.class);
+
+    private static final Object LOCK = new Object();
+
+    /* Guarded by LOCK */
+    private static final Set<String> SERVICE_FUNCTIONS = new HashSet<>();
+    // SFF name to neighbor node name to link cost, null if not set
+    private static final Map<String, Map<String, Long>> FORWARDER_EDGES = new HashMap<>();
+    // nodes updated by the listeners before the seed, empty once seeded
+    private static final Set<String> UPDATED_NODES = new HashSet<>();
+    private static Object owner = null;
+    private static boolean seeded = false;
+
+    /* Written under LOCK, read without it to validate the published snapshot */
+    private static final AtomicLong VERSION = new AtomicLong();
+    private static volatile Snapshot snapshot = null;
+
+    /* Metrics */
+    private static final AtomicLong UPDATE_COUNT = new AtomicLong();
+    private static final AtomicLong UPDATE_NANOS = new AtomicLong();
+    private static final AtomicLong LAST_UPDATE_NANOS = new AtomicLong();
+    private static final AtomicLong SNAPSHOT_COUNT = new AtomicLong();
+    private static final AtomicLong LAST_SNAPSHOT_NANOS = new AtomicLong();
+
+    private SfcProviderTopologyCache() {
+    }
+
+    /**
+     * Add or update a Service Function node.
+     *
+     * @param serviceFunction
+     *            the service function
+     */
+    public static void updateServiceFunction(ServiceFunction serviceFunction) {
+        final long start = System.nanoTime();
+        String sfName = serviceFunction.getName().getValue();
+        synchronized (LOCK) {
+            trackUpdate(sfName);
+            if (SERVICE_FUNCTIONS.add(sfName)) {
+                VERSION.incrementAndGet();
+            }
+        }
+        recordUpdate(start);
+    }
+
+    /**
+     * Remove a Service Function node. Edges declared towards it by SFFs are
+     * kept, like the SFF dictionaries are.
+     *
+     * @param serviceFunction
+     *            the service function
+     */
+    public static void removeServiceFunction(ServiceFunction serviceFunction) {
+        final long start = System.nanoTime();
+        String sfName = serviceFunction.getName().getValue();
+        synchronized (LOCK) {
+            trackUpdate(sfName);
+            if (SERVICE_FUNCTIONS.remove(sfName)) {
+                VERSION.incrementAndGet();
+            }
+        }
+        recordUpdate(start);
+    }
+
+    /**
+     * Add or update a Service Function Forwarder node and the edges declared
+     * by its dictionaries.
+     *
+     * @param serviceFunctionForwarder
+     *            the service function forwarder
+     */
+    public static void updateServiceFunctionForwarder(ServiceFunctionForwarder serviceFunctionForwarder) {
+        final long start = System.nanoTime();
+        String sffName = serviceFunctionForwarder.getName().getValue();
+        Map<String, Long> edges = getForwarderEdges(serviceFunctionForwarder);
+        synchronized (LOCK) {
+            trackUpdate(sffName);
+            if (!edges.equals(FORWARDER_EDGES.put(sffName, edges))) {
+                VERSION.incrementAndGet();
+            }
+        }
+        recordUpdate(start);
+    }
+
+    /**
+     * Remove a Service Function Forwarder node and the edges declared by its
+     * dictionaries.
+     *
+     * @param serviceFunctionForwarder
+     *            the service function forwarder
+     */
+    public static void removeServiceFunctionForwarder(ServiceFunctionForwarder serviceFunctionForwarder) {
+        final long start = System.nanoTime();
+        String sffName = serviceFunctionForwarder.getName().getValue();
+        synchronized (LOCK) {
+            trackUpdate(sffName);
+            if (FORWARDER_EDGES.remove(sffName) != null) {
+                VERSION.incrementAndGet();
+            }
+        }
+        recordUpdate(start);
+    }
+
+    /*
+     * Keep the seed from overwriting a node updated by the listeners. Once
+     * seeded, the listeners are the only source of updates and nothing needs
+     * to be tracked. Must be called holding LOCK.
+     */
+    private static void trackUpdate(String nodeName) {
+        if (!seeded) {
+            UPDATED_NODES.add(nodeName);
+        }
+    }
+
+    /**
+     * Drop all the topology data, the topology must be seeded again.
+     */
+    public static void clear() {
+        synchronized (LOCK) {
+            SERVICE_FUNCTIONS.clear();
+            FORWARDER_EDGES.clear();
+            UPDATED_NODES.clear();
+            owner = null;
+            seeded = false;
+            VERSION.incrementAndGet();
+        }
+    }
+
+    /**
+     * Check whether the topology has been seeded for the given owner.
+     *
+     * @param dataOwner
+     *            the data broker the topology data comes from
+     * @return True if seeded, otherwise false
+     */
+    public static boolean isSeeded(Object dataOwner) {
+        synchronized (LOCK) {
+            return seeded && dataOwner == owner;
+        }
+    }
+
+    /**
+     * Seed the topology with the data read from the data store. If the owner
+     * changed, all the topology data is dropped first. Nodes already updated
+     * by the listeners are not overwritten.
+     *
+     * @param dataOwner
+     *            the data broker the data was read from
+     * @param serviceFunctions
+     *            all the service functions
+     * @param serviceFunctionForwarders
+     *            all the service function forwarders
+     */
+    public static void seed(Object dataOwner, Collection<ServiceFunction> serviceFunctions,
+            Collection<ServiceFunctionForwarder> serviceFunctionForwarders) {
+        synchronized (LOCK) {
+            if (owner != null && owner != dataOwner) {
+                LOG.debug("seed: data owner changed, clearing the topology");
+                clear();
+            }
+            owner = dataOwner;
+            if (seeded) {
+                return;
+            }
+
+            for (ServiceFunction serviceFunction : serviceFunctions) {
+                String sfName = serviceFunction.getName().getValue();
+                if (!UPDATED_NODES.contains(sfName)) {
+                    SERVICE_FUNCTIONS.add(sfName);
+                }
+            }
+            for (ServiceFunctionForwarder serviceFunctionForwarder : serviceFunctionForwarders) {
+                String sffName = serviceFunctionForwarder.getName().getValue();
+                if (!UPDATED_NODES.contains(sffName)) {
+                    FORWARDER_EDGES.put(sffName, getForwarderEdges(serviceFunctionForwarder));
+                }
+            }
+            seeded = true;
+            UPDATED_NODES.clear();
+            VERSION.incrementAndGet();
+            LOG.debug("seed: {} SFs, {} SFFs", SERVICE_FUNCTIONS.size(), FORWARDER_EDGES.size());
+        }
+    }
+
+    /**
+     * Get the number of nodes updated by the listeners that the seed must not
+     * overwrite.
+     *
+     * @return the number of nodes
+     */
+    static int getUpdatedNodeCount() {
+        synchronized (LOCK) {
+            return UPDATED_NODES.size();
+        }
+    }
+
+    /**
+     * Get a snapshot of the topology graph comprised of all the SFs and SFFs.
+     * The returned graph must not be modified.
+     *
+     * @param dataOwner
+     *            the data broker the topology data should come from
+     * @return the topology graph or null if the topology has not been seeded
+     *         for that owner
+     */
+    public static SfcProviderGraph getGraph(Object dataOwner) {
+        Snapshot current = snapshot;
+        if (current != null && current.owner == dataOwner && current.version == VERSION.get()) {
+            return current.graph;
+        }
+
+        synchronized (LOCK) {
+            if (!seeded || dataOwner != owner) {
+                return null;
+            }
+            current = snapshot;
+            if (current != null && current.owner == dataOwner && current.version == VERSION.get()) {
+                return current.graph;
+            }
+
+            final long start = System.nanoTime();
+            SfcProviderGraph graph = new SfcProviderGraph();
+            for (String sfName : SERVICE_FUNCTIONS) {
+                graph.addNode(sfName);
+            }
+            for (Map.Entry<String, Map<String, Long>> forwarderEdges : FORWARDER_EDGES.entrySet()) {
+                String sffName = forwarderEdges.getKey();
+                graph.addNode(sffName);
+                for (Map.Entry<String, Long> edge : forwarderEdges.getValue().entrySet()) {
+                    if (edge.getValue() != null) {
+                        graph.setEdgeCost(sffName, edge.getKey(), edge.getValue());
+                    } else {
+                        graph.addEdge(sffName, edge.getKey());
+                    }
+                }
+            }
+            snapshot = new Snapshot(graph, owner, VERSION.get());
+            LAST_SNAPSHOT_NANOS.set(System.nanoTime() - start);
+            SNAPSHOT_COUNT.incrementAndGet();
+            LOG.debug("getGraph: built topology snapshot version {} in {} ns", VERSION.get(),
+                    LAST_SNAPSHOT_NANOS.get());
+            return graph;
+        }
+    }
+
+    /**
+     * Number of topology updates received from the listeners.
+     */
+    public static long getUpdateCount() {
+        return UPDATE_COUNT.get();
+    }
+
+    /**
+     * Accumulated time spent applying topology updates, in nanoseconds.
+     */
+    public static long getUpdateNanos() {
+        return UPDATE_NANOS.get();
+    }
+
+    /**
+     * Time spent applying the last topology update, in nanoseconds.
+     */
+    public static long getLastUpdateNanos() {
+        return LAST_UPDATE_NANOS.get();
+    }
+
+    /**
+     * Number of graph snapshots built.
+     */
+    public static long getSnapshotCount() {
+        return SNAPSHOT_COUNT.get();
+    }
+
+    /**
+     * Time spent building the last graph snapshot, in nanoseconds.
+     */
+    public static long getLastSnapshotNanos() {
+        return LAST_SNAPSHOT_NANOS.get();
+    }
+
+    private static final class Snapshot {
+        private final SfcProviderGraph graph;
+        private final Object owner;
+        private final long version;
+
+        Snapshot(SfcProviderGraph graph, Object owner, long version) {
+            this.graph = graph;
+            this.owner = owner;
+            this.version = version;
+        }
+    }
+
+    private static void recordUpdate(long start) {
+        long elapsed = System.nanoTime() - start;
+        UPDATE_COUNT.incrementAndGet();
+        UPDATE_NANOS.addAndGet(elapsed);
+        LAST_UPDATE_NANOS.set(elapsed);
+    }
+
+    private static Map<String, Long> getForwarderEdges(ServiceFunctionForwarder serviceFunctionForwarder) {
+        Map<String, Long> edges = new LinkedHashMap<>();
+        if (serviceFunctionForwarder.getServiceFunctionDictionary() != null) {
+            for (ServiceFunctionDictionary dictionary : serviceFunctionForwarder.getServiceFunctionDictionary()) {
+                edges.put(dictionary.getName().getValue(), null);
+            }
+        }
+        if (serviceFunctionForwarder.getConnectedSffDictionary() != null) {
+            for (ConnectedSffDictionary dictionary : serviceFunctionForwarder.getConnectedSffDictionary()) {
+                edges.put(dictionary.getName().getValue(), dictionary.getLinkCost());
+            }
+        }
+        return edges;
+    }
+}
@@ -7,10 +7,10 @@
  */
 package org.opendaylight.sfc.provider.validators;
 
-import com.google.common.collect.ImmutableSet;
 import com.google.common.util.concurrent.FluentFuture;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Iterator;
+import java.util.List;
 import javassist.ClassPool;
 import org.opendaylight.mdsal.binding.dom.codec.gen.impl.StreamWriterGenerator;
 import org.opendaylight.mdsal.binding.dom.codec.impl.BindingNormalizedNodeCodecRegistry;
@@ -25,11 +25,10 @@ import org.opendaylight.mdsal.dom.api.DOMDataTreeCommitCohort;
 import org.opendaylight.sfc.provider.validators.util.ValidationConstants;
 import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sfp.rev140701.service.function.paths.ServiceFunctionPath;
 import org.opendaylight.yangtools.util.concurrent.FluentFutures;
-import org.opendaylight.yangtools.yang.binding.DataObject;
-import org.opendaylight.yangtools.yang.binding.YangModuleInfo;
 import org.opendaylight.yangtools.yang.data.api.schema.MapEntryNode;
 import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidateNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.ModificationType;
 import org.opendaylight.yangtools.yang.model.api.SchemaContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -41,71 +40,74 @@ import org.slf4j.LoggerFactory;
  * After registration, the canCommit() method will be invoked in order to
  * validate SFP object creations / modifications. This validation will check
  * coherence with referenced SF, SFC type definitions
+ *
+ * <p>
+ * The binding codec context is built once per schema context and reused by
+ * all the commits, and only the SFPs created or modified by the transaction
+ * are deserialized and validated, all of them in one pass.
  */
 public class ServiceFunctionPathCohort implements DOMDataTreeCommitCohort {
 
     private static final Logger LOG = LoggerFactory.getLogger(ServiceFunctionPathCohort.class);
     private final ModuleInfoBackedContext moduleContext = ModuleInfoBackedContext.create();
-    private final ImmutableSet<YangModuleInfo> infos = BindingReflections.loadModuleInfos();
-    private BindingRuntimeContext bindingContext;
     private final BindingNormalizedNodeCodecRegistry codecRegistry = new BindingNormalizedNodeCodecRegistry(
             StreamWriterGenerator.create(JavassistUtils.forClassPool(ClassPool.getDefault())));
     private final ServiceFunctionPathValidator sfpv;
+    // the schema context the codec registry was last updated with
+    private volatile SchemaContext codecSchemaContext;
 
     public ServiceFunctionPathCohort(ServiceFunctionPathValidator sfpv) {
         this.sfpv = sfpv;
+        moduleContext.addModuleInfos(BindingReflections.loadModuleInfos());
     }
 
     @Override
-    @SuppressWarnings({ "rawtypes", "unchecked" })
     public FluentFuture<PostCanCommitStep> canCommit(Object txId, SchemaContext ctx,
             Collection<DOMDataTreeCandidate> candidates) {
 
+        List<ServiceFunctionPath> sfps = new ArrayList<>();
         for (DOMDataTreeCandidate candidate : candidates) {
             LOG.debug("canCommit:called! txId={}, candidate={}, context={} ", txId, candidate, ctx);
 
+            // the candidate root is the SFP list, its children are the SFPs
+            // touched by the transaction
             DataTreeCandidateNode candidateRoot = candidate.getRootNode();
-            NormalizedNode nn = candidateRoot.getDataAfter().orElse(null);
-            if (nn == null) {
-                LOG.debug("canCommit:no sfp after the change");
-                continue;
+            for (DataTreeCandidateNode sfpNode : candidateRoot.getChildNodes()) {
+                if (sfpNode.getModificationType() == ModificationType.UNMODIFIED) {
+                    continue;
+                }
+                NormalizedNode<?, ?> nn = sfpNode.getDataAfter().orElse(null);
+                if (!(nn instanceof MapEntryNode)) {
+                    LOG.debug("canCommit:no sfp after the change of {}", sfpNode.getIdentifier());
+                    continue;
+                }
+                LOG.debug("canCommit:sfp to process: {}", nn);
+                sfps.add((ServiceFunctionPath) getCodecRegistry(ctx)
+                        .fromNormalizedNode(ValidationConstants.SFP_PATH_YII, nn).getValue());
             }
+        }
 
-            LOG.debug("canCommit:updating codec contexts");
-            moduleContext.addModuleInfos(infos);
-            bindingContext = BindingRuntimeContext.create(moduleContext, ctx);
-            codecRegistry.onBindingRuntimeContextUpdated(bindingContext);
+        try {
+            if (!sfpv.validateServiceFunctionPaths(sfps)) {
+                return ValidationConstants.FAILED_CAN_COMMIT_SFP_FUTURE;
+            }
+        } catch (DataValidationFailedException dvfe) {
+            return FluentFutures.immediateFailedFluentFuture(dvfe);
+        }
 
-            LOG.debug("canCommit:Mapping service ready");
+        return PostCanCommitStep.NOOP_SUCCESSFUL_FUTURE;
+    }
 
-            LOG.debug("canCommit:before deserializing:  {}", nn);
-            // (nn is an immutableMapNode). Contains an unmodifiable collection
-            // reference of all this thing
-            // https://wiki.opendaylight.org/view/OpenDaylight_Controller:MD-SAL:Design:Normalized_DOM_Model
-            Collection collection = (Collection<MapEntryNode>) nn.getValue();
-            LOG.debug("canCommit:collection containing the sfs:  {}", collection);
-            Iterator<MapEntryNode> menIter = collection.iterator();
-            while (menIter.hasNext()) {
-                MapEntryNode meNode = menIter.next();
-                LOG.debug("canCommit:sfp to process: {}", meNode);
-                LOG.debug("canCommit:the first SF (as nn):  {}", meNode);
-                DataObject dobj = codecRegistry.fromNormalizedNode(ValidationConstants.SFP_PATH_YII, meNode)
-                        .getValue();
-                LOG.debug("canCommit:registerValidationCohorts:the first SFP (as dataobject):  {}", dobj);
-                ServiceFunctionPath sfp = (ServiceFunctionPath) dobj;
-                LOG.debug("canCommit:registerValidationCohorts:the implemented interface: {}",
-                        dobj.getImplementedInterface());
-                LOG.debug("canCommit:the first SF (as binding representation):  {}", sfp);
-                try {
-                    if (!sfpv.validateServiceFunctionPath(sfp)) {
-                        return ValidationConstants.FAILED_CAN_COMMIT_SFP_FUTURE;
-                    }
-                } catch (DataValidationFailedException dvfe) {
-                    return FluentFutures.immediateFailedFluentFuture(dvfe);
+    private BindingNormalizedNodeCodecRegistry getCodecRegistry(SchemaContext ctx) {
+        if (codecSchemaContext != ctx) {
+            synchronized (this) {
+                if (codecSchemaContext != ctx) {
+                    LOG.debug("canCommit:updating codec contexts");
+                    codecRegistry.onBindingRuntimeContextUpdated(BindingRuntimeContext.create(moduleContext, ctx));
+                    codecSchemaContext = ctx;
                 }
             }
         }
-
-        return PostCanCommitStep.NOOP_SUCCESSFUL_FUTURE;
+        return codecRegistry;
     }
 }
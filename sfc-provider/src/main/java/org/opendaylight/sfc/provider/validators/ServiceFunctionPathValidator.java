@@ -7,6 +7,7 @@
  */
 package org.opendaylight.sfc.provider.validators;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.concurrent.ExecutionException;
 import javax.inject.Inject;
@@ -49,6 +50,28 @@ public class ServiceFunctionPathValidator {
         LOG.info("registerValidationCohorts:initialized. registered cohort: {}", myCohort);
     }
 
+    /**
+     * Performs validation of the service function paths of a transaction,
+     * stopping at the first one that does not pass it.
+     *
+     * @param serviceFunctionPaths
+     *            the candidate SFPs that are being added / updated in a
+     *            currently open transaction
+     * @return true when validation is passed by all the SFPs, false otherwise
+     * @throws DataValidationFailedWithMessageException
+     *             when validation cannot be performed because some of the
+     *             referenced SFs / SFCs do not exist
+     */
+    protected boolean validateServiceFunctionPaths(Collection<ServiceFunctionPath> serviceFunctionPaths)
+            throws DataValidationFailedWithMessageException {
+        for (ServiceFunctionPath serviceFunctionPath : serviceFunctionPaths) {
+            if (!validateServiceFunctionPath(serviceFunctionPath)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     /**
      * Performs validation of a service function path.
      *
@@ -15,7 +15,10 @@ import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import org.junit.After;
@@ -32,10 +35,16 @@ import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.common.rev1
 import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.common.rev151017.SfDataPlaneLocatorName;
 import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.common.rev151017.SfName;
 import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.common.rev151017.SfcName;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.common.rev151017.SfpName;
 import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.common.rev151017.SftTypeName;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.rsp.rev140701.CreateRenderedPathsInputBuilder;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.rsp.rev140701.CreateRenderedPathsOutput;
 import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.rsp.rev140701.ReadRenderedServicePathFirstHopInput;
 import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.rsp.rev140701.ReadRenderedServicePathFirstHopInputBuilder;
 import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.rsp.rev140701.ReadRenderedServicePathFirstHopOutput;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.rsp.rev140701.create.rendered.paths.input.RenderedPath;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.rsp.rev140701.create.rendered.paths.input.RenderedPathBuilder;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.rsp.rev140701.create.rendered.paths.output.RenderedPathResult;
 import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.rsp.rev140701.rendered.service.paths.RenderedServicePath;
 import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.scf.rev140701.ServiceFunctionClassifiers;
 import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.scf.rev140701.service.function.classifiers.ServiceFunctionClassifier;
@@ -85,6 +94,7 @@ public class SfcProviderRpcTest extends AbstractSfcRendererServicePathAPITest {
 
     @After
     public void after() throws ExecutionException, InterruptedException {
+        sfcProviderRpc.close();
         close();
     }
 
@@ -188,6 +198,112 @@ public class SfcProviderRpcTest extends AbstractSfcRendererServicePathAPITest {
         assertNull(sfcProviderRpc.instantiateServiceFunctionChain(instantiateServiceFunctionChainInput.build()));
     }
 
+    @Test
+    public void createRenderedPathsTest() throws Exception {
+        init();
+
+        List<RenderedPath> renderedPaths = new ArrayList<>();
+        renderedPaths.add(new RenderedPathBuilder().setParentServiceFunctionPath(SFP_NAME).setName(RSP_NAME).build());
+        renderedPaths.add(new RenderedPathBuilder().setParentServiceFunctionPath(SFP_NAME).build());
+        renderedPaths.add(new RenderedPathBuilder().setParentServiceFunctionPath(new SfpName("unittest-sfp-2"))
+                .build());
+        RpcResult<CreateRenderedPathsOutput> result = sfcProviderRpc.createRenderedPaths(
+                new CreateRenderedPathsInputBuilder().setRenderedPath(renderedPaths).build()).get();
+        assertTrue(result.isSuccessful());
+
+        List<RenderedPathResult> renderedPathResults = result.getResult().getRenderedPathResult();
+        assertEquals(3, renderedPathResults.size());
+
+        // the named path and its symmetric path
+        RenderedPathResult renderedPathResult = renderedPathResults.get(0);
+        assertNull(renderedPathResult.getError());
+        assertEquals(RSP_NAME, renderedPathResult.getName());
+        assertNotNull(renderedPathResult.getSymmetricPathId());
+        RenderedServicePath operRsp = SfcProviderRenderedPathAPI.readRenderedServicePath(RSP_NAME,
+                LogicalDatastoreType.OPERATIONAL);
+        assertNotNull(operRsp);
+        assertEquals(renderedPathResult.getPathId(), operRsp.getPathId());
+        assertNotNull(SfcProviderRenderedPathAPI.readRenderedServicePath(RSP_NAME,
+                LogicalDatastoreType.CONFIGURATION));
+        RspName reverseRspName = SfcProviderRenderedPathAPI.generateReversedPathName(RSP_NAME);
+        RenderedServicePath reverseRsp = SfcProviderRenderedPathAPI.readRenderedServicePath(reverseRspName,
+                LogicalDatastoreType.OPERATIONAL);
+        assertNotNull(reverseRsp);
+        assertEquals(renderedPathResult.getSymmetricPathId(), reverseRsp.getPathId());
+
+        // the path with a generated name
+        renderedPathResult = renderedPathResults.get(1);
+        assertNull(renderedPathResult.getError());
+        assertEquals(SFP_NAME.getValue() + "-Path-" + renderedPathResult.getPathId(),
+                renderedPathResult.getName().getValue());
+        assertNotNull(SfcProviderRenderedPathAPI.readRenderedServicePath(renderedPathResult.getName(),
+                LogicalDatastoreType.CONFIGURATION));
+
+        // the path of a missing SFP
+        renderedPathResult = renderedPathResults.get(2);
+        assertNotNull(renderedPathResult.getError());
+        assertNull(renderedPathResult.getName());
+
+        // check the operational state of the created paths
+        List<SffServicePath> sffServicePathList = SfcProviderServiceForwarderAPI.readSffState(SFF_NAMES.get(1));
+        assertNotNull(sffServicePathList);
+        assertEquals(4, sffServicePathList.size());
+        List<SfpRenderedServicePath> sfpRenderedServicePathList = SfcProviderServicePathAPI
+                .readServicePathState(SFP_NAME);
+        assertEquals(4, sfpRenderedServicePathList.size());
+    }
+
+    @Test
+    public void createRenderedPathsNameConflictTest() throws Exception {
+        init();
+
+        // a name given twice in the request
+        List<RenderedPath> renderedPaths = new ArrayList<>();
+        renderedPaths.add(new RenderedPathBuilder().setParentServiceFunctionPath(SFP_NAME).setName(RSP_NAME).build());
+        renderedPaths.add(new RenderedPathBuilder().setParentServiceFunctionPath(SFP_NAME).setName(RSP_NAME).build());
+        RpcResult<CreateRenderedPathsOutput> result = sfcProviderRpc.createRenderedPaths(
+                new CreateRenderedPathsInputBuilder().setRenderedPath(renderedPaths).build()).get();
+        assertTrue(result.isSuccessful());
+        List<RenderedPathResult> renderedPathResults = result.getResult().getRenderedPathResult();
+        assertNull(renderedPathResults.get(0).getError());
+        assertNotNull(renderedPathResults.get(1).getError());
+        Long pathId = renderedPathResults.get(0).getPathId();
+
+        // the name of an existing RSP
+        result = sfcProviderRpc.createRenderedPaths(new CreateRenderedPathsInputBuilder()
+                .setRenderedPath(Collections.singletonList(renderedPaths.get(0))).build()).get();
+        assertTrue(result.isSuccessful());
+        assertNotNull(result.getResult().getRenderedPathResult().get(0).getError());
+
+        // the existing RSP is left as it is
+        assertEquals(pathId, SfcProviderRenderedPathAPI.readRenderedServicePath(RSP_NAME,
+                LogicalDatastoreType.CONFIGURATION).getPathId());
+    }
+
+    @Test
+    public void createRenderedPathsBatchTest() throws Exception {
+        init();
+
+        // The 12 bit path-id space does not fit 10000 paths
+        for (int batchSize : new int[] {100, 1000}) {
+            List<RenderedPath> renderedPaths = new ArrayList<>(batchSize);
+            for (int i = 0; i < batchSize; i++) {
+                renderedPaths.add(new RenderedPathBuilder().setParentServiceFunctionPath(SFP_NAME).build());
+            }
+
+            RpcResult<CreateRenderedPathsOutput> result = sfcProviderRpc.createRenderedPaths(
+                    new CreateRenderedPathsInputBuilder().setRenderedPath(renderedPaths).build()).get();
+
+            assertTrue(result.isSuccessful());
+            Set<Long> pathIds = new HashSet<>();
+            for (RenderedPathResult renderedPathResult : result.getResult().getRenderedPathResult()) {
+                assertNull(renderedPathResult.getError());
+                assertTrue(pathIds.add(renderedPathResult.getPathId()));
+            }
+            assertEquals(batchSize, pathIds.size());
+        }
+    }
+
     private void createRenderedServicePath(RspName pathName) {
         ServiceFunctionPath serviceFunctionPath = SfcProviderServicePathAPI.readServiceFunctionPath(SFP_NAME);
         RenderedServicePath configRsp = SfcProviderRenderedPathAPI.createRenderedServicePathInConfig(
@@ -0,0 +1,192 @@
+/*
+ * Copyright (c) 2018 Ericsson Inc. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.sfc.provider.api;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.opendaylight.controller.md.sal.binding.api.DataBroker;
+import org.opendaylight.controller.md.sal.binding.api.WriteTransaction;
+import org.opendaylight.controller.md.sal.common.api.data.LogicalDatastoreType;
+import org.opendaylight.controller.md.sal.common.api.data.TransactionCommitFailedException;
+import org.opendaylight.sfc.provider.AbstractDataStoreManager;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.common.rev151017.SfName;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.common.rev151017.SftTypeName;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sf.rev140701.ServiceFunctions;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sf.rev140701.service.functions.ServiceFunction;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sf.rev140701.service.functions.ServiceFunctionBuilder;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sf.rev140701.service.functions.ServiceFunctionKey;
+import org.opendaylight.yangtools.yang.binding.DataObject;
+import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
+
+/**
+ * This class contains unit tests for SfcDataStoreBatchWriter and the
+ * asynchronous SfcDataStoreAPI.
+ */
+public class SfcDataStoreBatchWriterTest extends AbstractDataStoreManager {
+
+    private static final int THREADS = 8;
+    private static final int WRITES_PER_THREAD = 100;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+    @Before
+    public void before() {
+        setupSfc();
+    }
+
+    @After
+    public void after() throws Exception {
+        executor.shutdownNow();
+        close();
+    }
+
+    /**
+     * Writes from concurrent callers share transactions.
+     */
+    @Test
+    public void testConcurrentWritesAreBatched() throws Exception {
+        SfcDataStoreBatchWriter batchWriter = new SfcDataStoreBatchWriter(getDataBroker(), 1000, 1);
+
+        List<Future<List<ListenableFuture<Boolean>>>> threadResults = new ArrayList<>();
+        for (int thread = 0; thread < THREADS; thread++) {
+            final int threadIndex = thread;
+            threadResults.add(executor.submit(() -> {
+                List<ListenableFuture<Boolean>> writeResults = new ArrayList<>();
+                for (int i = 0; i < WRITES_PER_THREAD; i++) {
+                    ServiceFunction sf = buildServiceFunction("batched-sf-" + threadIndex + "-" + i);
+                    writeResults.add(batchWriter.put(LogicalDatastoreType.CONFIGURATION, getIid(sf), sf));
+                }
+                return writeResults;
+            }));
+        }
+        List<ListenableFuture<Boolean>> writeResults = new ArrayList<>();
+        for (Future<List<ListenableFuture<Boolean>>> threadResult : threadResults) {
+            writeResults.addAll(threadResult.get());
+        }
+        assertTrue(SfcDataStoreAPI.getWriteResult(SfcDataStoreAPI.combineWriteResults(writeResults)));
+
+        ServiceFunctions sfs = SfcProviderServiceFunctionAPI.readAllServiceFunctions();
+        assertEquals(THREADS * WRITES_PER_THREAD, sfs.getServiceFunction().size());
+        assertEquals(THREADS * WRITES_PER_THREAD, batchWriter.getOperationCount());
+        assertTrue(batchWriter.getTransactionCount() < batchWriter.getOperationCount());
+
+        batchWriter.close();
+    }
+
+    /**
+     * A full batch is submitted without waiting for the tick.
+     */
+    @Test
+    public void testFullBatchIsSubmitted() throws Exception {
+        SfcDataStoreBatchWriter batchWriter = new SfcDataStoreBatchWriter(getDataBroker(), 10,
+                TimeUnit.HOURS.toMillis(1));
+
+        List<ListenableFuture<Boolean>> writeResults = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            ServiceFunction sf = buildServiceFunction("full-batch-sf-" + i);
+            writeResults.add(batchWriter.put(LogicalDatastoreType.CONFIGURATION, getIid(sf), sf));
+        }
+        assertTrue(SfcDataStoreAPI.combineWriteResults(writeResults).get(10, TimeUnit.SECONDS));
+        assertEquals(1, batchWriter.getTransactionCount());
+
+        ServiceFunction sf = buildServiceFunction("full-batch-sf-0");
+        ListenableFuture<Boolean> deleteResult = batchWriter.delete(LogicalDatastoreType.CONFIGURATION, getIid(sf));
+        batchWriter.flush();
+        assertTrue(deleteResult.get(10, TimeUnit.SECONDS));
+        assertNull(SfcProviderServiceFunctionAPI.readServiceFunction(sf.getName()));
+
+        batchWriter.close();
+        assertFalse(batchWriter.put(LogicalDatastoreType.CONFIGURATION, getIid(sf), sf).get());
+    }
+
+    /**
+     * Only the write that fails in a failed batch reports a failure.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testFailedWriteIsIsolated() throws Exception {
+        ServiceFunction badSf = buildServiceFunction("bad-sf");
+        DataBroker dataBroker = mock(DataBroker.class);
+        when(dataBroker.newWriteOnlyTransaction()).thenAnswer(newTx -> {
+            List<InstanceIdentifier<?>> iids = new ArrayList<>();
+            WriteTransaction writeTx = mock(WriteTransaction.class);
+            doAnswer(put -> iids.add((InstanceIdentifier<?>) put.getArguments()[1])).when(writeTx)
+                    .put(any(LogicalDatastoreType.class), any(InstanceIdentifier.class), any(DataObject.class),
+                            anyBoolean());
+            when(writeTx.submit()).thenAnswer(submit -> iids.contains(getIid(badSf))
+                    ? Futures.immediateFailedCheckedFuture(new TransactionCommitFailedException("test"))
+                    : Futures.immediateCheckedFuture(null));
+            return writeTx;
+        });
+        SfcDataStoreBatchWriter batchWriter = new SfcDataStoreBatchWriter(dataBroker, 3,
+                TimeUnit.HOURS.toMillis(1));
+
+        ServiceFunction firstSf = buildServiceFunction("first-sf");
+        ServiceFunction lastSf = buildServiceFunction("last-sf");
+        ListenableFuture<Boolean> firstResult = batchWriter.put(LogicalDatastoreType.CONFIGURATION,
+                getIid(firstSf), firstSf);
+        ListenableFuture<Boolean> badResult = batchWriter.put(LogicalDatastoreType.CONFIGURATION, getIid(badSf),
+                badSf);
+        ListenableFuture<Boolean> lastResult = batchWriter.put(LogicalDatastoreType.CONFIGURATION, getIid(lastSf),
+                lastSf);
+
+        assertTrue(firstResult.get(10, TimeUnit.SECONDS));
+        assertFalse(badResult.get(10, TimeUnit.SECONDS));
+        assertTrue(lastResult.get(10, TimeUnit.SECONDS));
+        // the failed batch, then each of its writes on its own
+        assertEquals(4, batchWriter.getTransactionCount());
+
+        batchWriter.close();
+    }
+
+    /**
+     * Asynchronous reads and writes through SfcDataStoreAPI.
+     */
+    @Test
+    public void testAsyncDataStoreAPI() throws Exception {
+        ServiceFunction sf = buildServiceFunction("async-sf");
+        assertNull(SfcDataStoreAPI.readTransactionAPIAsync(getIid(sf), LogicalDatastoreType.CONFIGURATION).get());
+
+        assertTrue(SfcDataStoreAPI.writeMergeTransactionAPIAsync(getIid(sf), sf, LogicalDatastoreType.CONFIGURATION)
+                .get());
+        assertEquals(sf.getName(), SfcDataStoreAPI
+                .readTransactionAPIAsync(getIid(sf), LogicalDatastoreType.CONFIGURATION).get().getName());
+
+        assertTrue(SfcDataStoreAPI.deleteTransactionAPIAsync(getIid(sf), LogicalDatastoreType.CONFIGURATION).get());
+        assertNull(SfcDataStoreAPI.readTransactionAPI(getIid(sf), LogicalDatastoreType.CONFIGURATION));
+    }
+
+    private static ServiceFunction buildServiceFunction(String name) {
+        return new ServiceFunctionBuilder().setName(new SfName(name)).setType(new SftTypeName("firewall")).build();
+    }
+
+    private static InstanceIdentifier<ServiceFunction> getIid(ServiceFunction sf) {
+        return InstanceIdentifier.builder(ServiceFunctions.class)
+                .child(ServiceFunction.class, new ServiceFunctionKey(sf.getName())).build();
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2018 Ericsson Inc. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.sfc.provider.api;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.cache.CacheStats;
+import java.util.Collections;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.opendaylight.controller.md.sal.binding.api.WriteTransaction;
+import org.opendaylight.controller.md.sal.common.api.data.LogicalDatastoreType;
+import org.opendaylight.sfc.provider.AbstractDataStoreManager;
+import org.opendaylight.sfc.provider.listeners.ServiceFunctionTypeListener;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.common.rev151017.SfName;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.common.rev151017.SftTypeName;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sf.rev140701.ServiceFunctions;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sf.rev140701.service.functions.ServiceFunction;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sf.rev140701.service.functions.ServiceFunctionBuilder;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sf.rev140701.service.functions.ServiceFunctionKey;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sft.rev140701.ServiceFunctionTypes;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sft.rev140701.service.function.types.ServiceFunctionType;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sft.rev140701.service.function.types.ServiceFunctionTypeBuilder;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sft.rev140701.service.function.types.ServiceFunctionTypeKey;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sft.rev140701.service.function.types.service.function.type.SftServiceFunctionName;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sft.rev140701.service.function.types.service.function.type.SftServiceFunctionNameBuilder;
+import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
+
+/**
+ * This class contains unit tests for SfcDataStoreReadCache.
+ */
+public class SfcDataStoreReadCacheTest extends AbstractDataStoreManager {
+
+    private static final SfName SF_NAME = new SfName("cached-sf");
+    private static final SftTypeName SFT_NAME = new SftTypeName("cached-type");
+
+    private static final InstanceIdentifier<ServiceFunction> SF_IID = InstanceIdentifier
+            .builder(ServiceFunctions.class).child(ServiceFunction.class, new ServiceFunctionKey(SF_NAME)).build();
+    private static final InstanceIdentifier<ServiceFunctionType> SFT_IID = InstanceIdentifier
+            .builder(ServiceFunctionTypes.class).child(ServiceFunctionType.class, new ServiceFunctionTypeKey(SFT_NAME))
+            .build();
+
+    @Before
+    public void before() {
+        setupSfc();
+    }
+
+    @After
+    public void after() throws Exception {
+        close();
+    }
+
+    /**
+     * Repeated reads hit the cache, writes through SfcDataStoreAPI invalidate
+     * it.
+     */
+    @Test
+    public void testReadThroughAndWriteInvalidation() {
+        ServiceFunction sf = new ServiceFunctionBuilder().setName(SF_NAME).setType(new SftTypeName("firewall"))
+                .build();
+        assertTrue(SfcDataStoreAPI.writePutTransactionAPI(SF_IID, sf, LogicalDatastoreType.CONFIGURATION));
+
+        CacheStats before = SfcDataStoreReadCache.SERVICE_FUNCTIONS.getStats();
+        assertEquals(sf, SfcProviderServiceFunctionAPI.readServiceFunction(SF_NAME));
+        assertEquals(sf, SfcProviderServiceFunctionAPI.readServiceFunction(SF_NAME));
+        CacheStats stats = SfcDataStoreReadCache.SERVICE_FUNCTIONS.getStats().minus(before);
+        assertEquals(1, stats.missCount());
+        assertEquals(1, stats.hitCount());
+
+        ServiceFunction updatedSf = new ServiceFunctionBuilder(sf).setType(new SftTypeName("dpi")).build();
+        assertTrue(SfcDataStoreAPI.writePutTransactionAPI(SF_IID, updatedSf, LogicalDatastoreType.CONFIGURATION));
+        assertEquals(updatedSf, SfcProviderServiceFunctionAPI.readServiceFunction(SF_NAME));
+
+        assertTrue(SfcDataStoreAPI.deleteTransactionAPI(SF_IID, LogicalDatastoreType.CONFIGURATION));
+        assertNull(SfcProviderServiceFunctionAPI.readServiceFunction(SF_NAME));
+    }
+
+    /**
+     * Writes that do not go through SfcDataStoreAPI are seen once the
+     * listener receives them.
+     */
+    @Test
+    public void testListenerInvalidation() throws Exception {
+        ServiceFunctionType sft = buildServiceFunctionType("sf1");
+        writeDirectly(sft);
+        assertEquals(sft, SfcProviderServiceTypeAPI.readServiceFunctionType(SFT_NAME));
+
+        ServiceFunctionType updatedSft = buildServiceFunctionType("sf2");
+        writeDirectly(updatedSft);
+        assertEquals(sft, SfcProviderServiceTypeAPI.readServiceFunctionType(SFT_NAME));
+
+        new ServiceFunctionTypeListener(getDataBroker()).update(SFT_IID, sft, updatedSft);
+        assertEquals(updatedSft, SfcProviderServiceTypeAPI.readServiceFunctionType(SFT_NAME));
+    }
+
+    private void writeDirectly(ServiceFunctionType sft) throws Exception {
+        WriteTransaction writeTx = getDataBroker().newWriteOnlyTransaction();
+        writeTx.put(LogicalDatastoreType.CONFIGURATION, SFT_IID, sft, true);
+        writeTx.submit().get();
+    }
+
+    private static ServiceFunctionType buildServiceFunctionType(String sfName) {
+        SftServiceFunctionName sftServiceFunctionName = new SftServiceFunctionNameBuilder()
+                .setName(new SfName(sfName)).build();
+        return new ServiceFunctionTypeBuilder().setType(SFT_NAME)
+                .setSftServiceFunctionName(Collections.singletonList(sftServiceFunctionName)).build();
+    }
+}
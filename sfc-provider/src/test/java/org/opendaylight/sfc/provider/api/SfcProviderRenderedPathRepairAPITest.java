@@ -0,0 +1,202 @@
+/*
+ * Copyright (c) 2018 Ericsson Inc. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.sfc.provider.api;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.junit.Before;
+import org.junit.Test;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.common.rev151017.RspName;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.common.rev151017.SfDataPlaneLocatorName;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.common.rev151017.SfName;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.common.rev151017.SffDataPlaneLocatorName;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.common.rev151017.SffName;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.rsp.rev140701.rendered.service.paths.RenderedServicePath;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.rsp.rev140701.rendered.service.paths.RenderedServicePathBuilder;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.rsp.rev140701.rendered.service.paths.rendered.service.path.RenderedServicePathHop;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.rsp.rev140701.rendered.service.paths.rendered.service.path.RenderedServicePathHopBuilder;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sf.rev140701.service.function.base.SfDataPlaneLocator;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sf.rev140701.service.function.base.SfDataPlaneLocatorBuilder;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sf.rev140701.service.functions.ServiceFunction;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sf.rev140701.service.functions.ServiceFunctionBuilder;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sff.rev140701.service.function.forwarder.base.SffDataPlaneLocator;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sff.rev140701.service.function.forwarder.base.SffDataPlaneLocatorBuilder;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sff.rev140701.service.function.forwarders.ServiceFunctionForwarder;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sff.rev140701.service.function.forwarders.ServiceFunctionForwarderBuilder;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sff.rev140701.service.function.forwarders.service.function.forwarder.ServiceFunctionDictionary;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sff.rev140701.service.function.forwarders.service.function.forwarder.ServiceFunctionDictionaryBuilder;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sff.rev140701.service.function.forwarders.service.function.forwarder.service.function.dictionary.SffSfDataPlaneLocatorBuilder;
+import org.opendaylight.yang.gen.v1.urn.ericsson.params.xml.ns.yang.sfc.sff.logical.rev160620.DpnIdType;
+import org.opendaylight.yang.gen.v1.urn.ericsson.params.xml.ns.yang.sfc.sff.logical.rev160620.RspLogicalSffAugmentation;
+import org.opendaylight.yang.gen.v1.urn.ericsson.params.xml.ns.yang.sfc.sff.logical.rev160620.RspLogicalSffAugmentationBuilder;
+
+/**
+ * This class contains unit tests for SfcProviderRenderedPathRepairAPI.
+ */
+public class SfcProviderRenderedPathRepairAPITest {
+
+    private static final SfName SF1 = new SfName("sf1");
+    private static final SfName SF2 = new SfName("sf2");
+    private static final SfName SF3 = new SfName("sf3");
+    private static final SffName SFF1 = new SffName("sff1");
+    private static final SffName SFF2 = new SffName("sff2");
+
+    private final Map<SfName, ServiceFunction> sfs = new HashMap<>();
+    private final Map<SffName, ServiceFunctionForwarder> sffs = new HashMap<>();
+    private RenderedServicePath rsp;
+
+    @Before
+    public void before() {
+        sfs.put(SF1, buildSf(SF1, SFF1));
+        sfs.put(SF2, buildSf(SF2, SFF2));
+        sffs.put(SFF1, buildSff(SFF1, Collections.singletonList(SF1), true));
+        sffs.put(SFF2, buildSff(SFF2, Collections.singletonList(SF2), true));
+
+        List<RenderedServicePathHop> hops = new ArrayList<>();
+        hops.add(buildHop(0, SF1, SFF1, "sff1-net"));
+        hops.add(buildHop(1, SF2, SFF2, "sff2-net"));
+        rsp = new RenderedServicePathBuilder().setName(new RspName("rsp1")).setPathId(5L)
+                .setRenderedServicePathHop(hops).build();
+    }
+
+    @Test
+    public void repairUnchanged() {
+        List<RenderedServicePathHop> repairedHops = repair();
+        assertNotNull(repairedHops);
+        assertSame(rsp.getRenderedServicePathHop().get(0), repairedHops.get(0));
+        assertSame(rsp.getRenderedServicePathHop().get(1), repairedHops.get(1));
+    }
+
+    @Test
+    public void repairMovedSf() {
+        // sf1 moves to sff2, only its hop is rewritten
+        sfs.put(SF1, buildSf(SF1, SFF2));
+        sffs.put(SFF2, buildSff(SFF2, Arrays.asList(SF1, SF2), true));
+
+        List<RenderedServicePathHop> repairedHops = repair();
+        assertNotNull(repairedHops);
+        RenderedServicePathHop repairedHop = repairedHops.get(0);
+        assertEquals(SFF2, repairedHop.getServiceFunctionForwarder());
+        assertEquals(new SffDataPlaneLocatorName("sff2-net"), repairedHop.getServiceFunctionForwarderLocator());
+        assertEquals(SF1, repairedHop.getServiceFunctionName());
+        assertEquals(Short.valueOf((short) 0), repairedHop.getHopNumber());
+        assertEquals(Short.valueOf((short) 255), repairedHop.getServiceIndex());
+        assertSame(rsp.getRenderedServicePathHop().get(1), repairedHops.get(1));
+    }
+
+    @Test
+    public void repairMovedSfLogicalSffInfo() {
+        // The dpn id of the previous SFF is not kept in the rewritten hop
+        RspLogicalSffAugmentation augmentation =
+                new RspLogicalSffAugmentationBuilder().setDpnId(new DpnIdType(BigInteger.ONE)).build();
+        rsp = new RenderedServicePathBuilder(rsp).setRenderedServicePathHop(rsp.getRenderedServicePathHop().stream()
+                .map(hop -> new RenderedServicePathHopBuilder(hop).addAugmentation(RspLogicalSffAugmentation.class,
+                        augmentation).build())
+                .collect(Collectors.toList())).build();
+        sfs.put(SF1, buildSf(SF1, SFF2));
+        sffs.put(SFF2, buildSff(SFF2, Arrays.asList(SF1, SF2), true));
+
+        List<RenderedServicePathHop> repairedHops = repair();
+        assertNotNull(repairedHops);
+        assertEquals(SFF2, repairedHops.get(0).getServiceFunctionForwarder());
+        assertNull(repairedHops.get(0).getAugmentation(RspLogicalSffAugmentation.class));
+        assertEquals(augmentation, repairedHops.get(1).getAugmentation(RspLogicalSffAugmentation.class));
+    }
+
+    @Test
+    public void repairSfWithoutLocator() {
+        sfs.put(SF1, new ServiceFunctionBuilder(sfs.get(SF1)).setSfDataPlaneLocator(Collections.emptyList()).build());
+        assertNull(repair());
+    }
+
+    @Test
+    public void repairRemovedSf() {
+        sfs.remove(SF1);
+        assertNull(repair());
+    }
+
+    @Test
+    public void repairSfWithoutDictionaryEntry() {
+        // sf1 moves to sff2, which does not know about it
+        sfs.put(SF1, buildSf(SF1, SFF2));
+        assertNull(repair());
+    }
+
+    @Test
+    public void repairUnreachableSff() {
+        // All the sff1 locators are used by SFs, the hop can no longer reach
+        // it from sff2
+        sffs.put(SFF1, buildSff(SFF1, Arrays.asList(SF1, SF3), false));
+        assertNull(repair());
+    }
+
+    @Test
+    public void repairSingleSffLocator() {
+        // A single SFF RSP does not need its SFF to be reachable
+        sfs.put(SF2, buildSf(SF2, SFF1));
+        sffs.put(SFF1, buildSff(SFF1, Arrays.asList(SF1, SF2), false));
+        rsp = new RenderedServicePathBuilder(rsp).setRenderedServicePathHop(Arrays.asList(
+                buildHop(0, SF1, SFF1, "sff1-net"), buildHop(1, SF2, SFF1, "sff1-net"))).build();
+
+        List<RenderedServicePathHop> repairedHops = repair();
+        assertNotNull(repairedHops);
+        repairedHops.forEach(hop -> assertNull(hop.getServiceFunctionForwarderLocator()));
+    }
+
+    private List<RenderedServicePathHop> repair() {
+        return SfcProviderRenderedPathRepairAPI.repairRenderedServicePathHops(rsp, sfs::get, sffs::get);
+    }
+
+    private static RenderedServicePathHop buildHop(int hopNumber, SfName sfName, SffName sffName,
+            String sffLocatorName) {
+        return new RenderedServicePathHopBuilder().setHopNumber((short) hopNumber)
+                .setServiceIndex((short) (255 - hopNumber)).setServiceFunctionName(sfName)
+                .setServiceFunctionForwarder(sffName)
+                .setServiceFunctionForwarderLocator(new SffDataPlaneLocatorName(sffLocatorName)).build();
+    }
+
+    private static ServiceFunction buildSf(SfName sfName, SffName sffName) {
+        SfDataPlaneLocator sfDpl = new SfDataPlaneLocatorBuilder()
+                .setName(new SfDataPlaneLocatorName(sfName.getValue() + "-dpl")).setServiceFunctionForwarder(sffName)
+                .build();
+        return new ServiceFunctionBuilder().setName(sfName).setSfDataPlaneLocator(Collections.singletonList(sfDpl))
+                .build();
+    }
+
+    private static ServiceFunctionForwarder buildSff(SffName sffName, List<SfName> sfNames, boolean hasNetLocator) {
+        List<SffDataPlaneLocator> sffDpls = new ArrayList<>();
+        List<ServiceFunctionDictionary> sffDicts = new ArrayList<>();
+        for (SfName sfName : sfNames) {
+            SffDataPlaneLocatorName sffDplName =
+                    new SffDataPlaneLocatorName(sffName.getValue() + "-" + sfName.getValue());
+            sffDpls.add(new SffDataPlaneLocatorBuilder().setName(sffDplName).build());
+            sffDicts.add(new ServiceFunctionDictionaryBuilder().setName(sfName)
+                    .setSffSfDataPlaneLocator(new SffSfDataPlaneLocatorBuilder().setSffDplName(sffDplName)
+                            .setSfDplName(new SfDataPlaneLocatorName(sfName.getValue() + "-dpl")).build())
+                    .build());
+        }
+        if (hasNetLocator) {
+            sffDpls.add(new SffDataPlaneLocatorBuilder()
+                    .setName(new SffDataPlaneLocatorName(sffName.getValue() + "-net")).build());
+        }
+        return new ServiceFunctionForwarderBuilder().setName(sffName).setSffDataPlaneLocator(sffDpls)
+                .setServiceFunctionDictionary(sffDicts).build();
+    }
+}
@@ -10,8 +10,10 @@ package org.opendaylight.sfc.provider.api;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import org.junit.Before;
 import org.junit.Test;
@@ -274,6 +276,79 @@ public class SfcServiceFunctionLoadBalanceSchedulerAPITest extends AbstractDataS
         assertEquals("Must be equal", serviceFunctionNameArrayList.get(2).getValue(), "simple_nat_100");
     }
 
+    @Test
+    public void testServiceFunctionLoadBalanceSchedulerBurst() {
+        SfcProviderServiceChainAPI.putServiceFunctionChain(sfChain);
+
+        // the first schedule reads the monitor information of the candidates
+        List<SfName> firstHops = new ArrayList<>();
+        firstHops.add(scheduler.scheduleServiceFunctions(sfChain, 255, sfPath).get(0));
+        long dataStoreReads = SfcServiceFunctionLoadCache.getDataStoreReadCount();
+        assertEquals(105.0, SfcServiceFunctionLoadCache.getCpuUtilization(new SfName("simple_fw_100")), 0);
+
+        // each RSP placed adds load until a new sample is received, simple_fw_100
+        // starts 10 below simple_fw_110
+        for (int i = 0; i < 3; i++) {
+            firstHops.add(scheduler.scheduleServiceFunctions(sfChain, 255, sfPath).get(0));
+        }
+        assertEquals(dataStoreReads, SfcServiceFunctionLoadCache.getDataStoreReadCount());
+        assertEquals("Must be equal", Arrays.asList(new SfName("simple_fw_100"), new SfName("simple_fw_100"),
+                new SfName("simple_fw_100"), new SfName("simple_fw_110")), firstHops);
+        assertEquals(3, SfcServiceFunctionLoadCache.getPlacementCount(new SfName("simple_fw_100")));
+
+        // a new sample accounts for the placed RSPs and is averaged
+        ResourceUtilization resrcUtil = new ResourceUtilizationBuilder().setCPUUtilization(5L).build();
+        MonitoringInfo monInfo = new MonitoringInfoBuilder().setResourceUtilization(resrcUtil).build();
+        SfcServiceFunctionLoadCache.updateUtilization(new SfName("simple_fw_120"),
+                new SfcSfDescMonBuilder().setMonitoringInfo(monInfo).build());
+        assertEquals(125.0 + SfcServiceFunctionLoadCache.EWMA_WEIGHT * (5.0 - 125.0),
+                SfcServiceFunctionLoadCache.getCpuUtilization(new SfName("simple_fw_120")), 0.001);
+        assertEquals(0, SfcServiceFunctionLoadCache.getPlacementCount(new SfName("simple_fw_120")));
+        assertEquals("Must be equal", "simple_fw_120",
+                scheduler.scheduleServiceFunctions(sfChain, 255, sfPath).get(0).getValue());
+    }
+
+    @Test
+    public void testServiceFunctionLoadBalanceSchedulerUnknownLoad() {
+        // simple_fw_130 has no monitor information yet, simple_fw_140 is only
+        // left in the firewall type
+        ServiceFunction unsampledSf = SimpleTestEntityBuilder.buildServiceFunction(new SfName("simple_fw_130"),
+                new SftTypeName("firewall"), new IpAddress(new Ipv4Address("192.168.130.101")), sfDPLList.get(0),
+                Boolean.FALSE);
+        ServiceFunction missingSf = SimpleTestEntityBuilder.buildServiceFunction(new SfName("simple_fw_140"),
+                new SftTypeName("firewall"), new IpAddress(new Ipv4Address("192.168.140.101")), sfDPLList.get(1),
+                Boolean.FALSE);
+        SfcProviderServiceFunctionAPI.putServiceFunction(unsampledSf);
+        SfcProviderServiceTypeAPI.createServiceFunctionTypeEntry(unsampledSf);
+        SfcProviderServiceTypeAPI.createServiceFunctionTypeEntry(missingSf);
+        SfcProviderServiceChainAPI.putServiceFunctionChain(sfChain);
+
+        // simple_fw_130 is as loaded as the average firewall, simple_fw_110
+        List<SfName> firstHops = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            firstHops.add(scheduler.scheduleServiceFunctions(sfChain, 255, sfPath).get(0));
+        }
+        assertEquals("Must be equal", Arrays.asList(new SfName("simple_fw_100"), new SfName("simple_fw_100"),
+                new SfName("simple_fw_100"), new SfName("simple_fw_110"), new SfName("simple_fw_130")), firstHops);
+        assertNull(SfcServiceFunctionLoadCache.getCpuUtilization(new SfName("simple_fw_130")));
+        assertEquals(0, SfcServiceFunctionLoadCache.getPlacementCount(new SfName("simple_fw_140")));
+    }
+
+    @Test
+    public void testServiceFunctionLoadBalanceSchedulerRelease() {
+        SfcProviderServiceChainAPI.putServiceFunctionChain(sfChain);
+
+        List<SfName> sfNames = scheduler.scheduleServiceFunctions(sfChain, 255, sfPath);
+        assertEquals(1, SfcServiceFunctionLoadCache.getPlacementCount(new SfName("simple_fw_100")));
+
+        // the RSP could not be created, the next one gets the same SFs
+        scheduler.releaseServiceFunctions(sfNames, sfPath);
+        for (SfName sfName : sfNames) {
+            assertEquals(0, SfcServiceFunctionLoadCache.getPlacementCount(sfName));
+        }
+        assertEquals("Must be equal", sfNames, scheduler.scheduleServiceFunctions(sfChain, 255, sfPath));
+    }
+
     @Test
     public void loadBalance__OverrideSingleHop() {
         Long pathId = 1L;
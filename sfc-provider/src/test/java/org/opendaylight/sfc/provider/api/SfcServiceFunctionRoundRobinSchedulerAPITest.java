@@ -13,6 +13,7 @@ import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import org.junit.Before;
@@ -133,6 +134,20 @@ public class SfcServiceFunctionRoundRobinSchedulerAPITest extends AbstractDataSt
         assertTrue("Must be true", transactionSuccessful);
     }
 
+    /*
+     * the SFs of a type are all removed while a path is being scheduled
+     */
+    @Test
+    public void testServiceFunctionRoundRobinSchedulerNoServiceFunction() throws Exception {
+        SfcServiceFunctionRoundRobinSchedulerAPI scheduler = new SfcServiceFunctionRoundRobinSchedulerAPI();
+        ServiceFunctionType serviceFunctionType = new ServiceFunctionTypeBuilder()
+                .setSftServiceFunctionName(Collections.emptyList()).setType(new SftTypeName("firewall")).build();
+
+        SfName result = Whitebox.invokeMethod(scheduler, "getServiceFunctionByType", serviceFunctionType);
+
+        assertNull("Must be null", result);
+    }
+
     // create service function chain with three entries
     private ServiceFunctionChain createServiceFunctionChain() {
         SfcServiceFunctionBuilder sfcServiceFunctionBuilder = new SfcServiceFunctionBuilder();
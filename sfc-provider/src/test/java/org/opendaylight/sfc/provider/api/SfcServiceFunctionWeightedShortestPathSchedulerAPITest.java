@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2018 Ericsson Inc. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.sfc.provider.api;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+import org.opendaylight.sfc.provider.AbstractDataStoreManager;
+import org.opendaylight.sfc.provider.topology.SfcProviderGraph;
+import org.opendaylight.sfc.provider.topology.SfcProviderGraphIndex;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.common.rev151017.SfName;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.common.rev151017.SfcName;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.common.rev151017.SffName;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.common.rev151017.SfpName;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.common.rev151017.SftTypeName;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sf.rev140701.service.functions.ServiceFunction;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sf.rev140701.service.functions.ServiceFunctionBuilder;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sfc.rev140701.service.function.chain.grouping.ServiceFunctionChain;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sfc.rev140701.service.function.chain.grouping.ServiceFunctionChainBuilder;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sfc.rev140701.service.function.chain.grouping.service.function.chain.SfcServiceFunction;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sfc.rev140701.service.function.chain.grouping.service.function.chain.SfcServiceFunctionBuilder;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sff.rev140701.service.function.forwarders.ServiceFunctionForwarderBuilder;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sff.rev140701.service.function.forwarders.service.function.forwarder.ConnectedSffDictionary;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sff.rev140701.service.function.forwarders.service.function.forwarder.ConnectedSffDictionaryBuilder;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sff.rev140701.service.function.forwarders.service.function.forwarder.ServiceFunctionDictionary;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sff.rev140701.service.function.forwarders.service.function.forwarder.ServiceFunctionDictionaryBuilder;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sfp.rev140701.service.function.paths.ServiceFunctionPath;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sfp.rev140701.service.function.paths.ServiceFunctionPathBuilder;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sfp.rev140701.service.function.paths.service.function.path.ServicePathHop;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sfp.rev140701.service.function.paths.service.function.path.ServicePathHopBuilder;
+
+/**
+ * This class contains unit tests for SfcServiceFunctionWeightedShortestPathSchedulerAPI.
+ */
+public class SfcServiceFunctionWeightedShortestPathSchedulerAPITest extends AbstractDataStoreManager {
+
+    private ServiceFunctionChain sfChain;
+
+    /*
+     * fw1 is attached to SFF1, dpi1 to SFF2 and dpi2 to SFF3. SFF1 reaches
+     * SFF2 through a direct link with cost 100 and SFF3 through SFF4 with
+     * links without cost.
+     */
+    @Before
+    public void before() {
+        setupSfc();
+
+        putServiceFunction("fw1", "firewall");
+        putServiceFunction("dpi1", "dpi");
+        putServiceFunction("dpi2", "dpi");
+
+        putServiceFunctionForwarder("SFF1", Collections.singletonList("fw1"),
+                Arrays.asList(buildConnectedSff("SFF2", 100L), buildConnectedSff("SFF4", null)));
+        putServiceFunctionForwarder("SFF2", Collections.singletonList("dpi1"),
+                Collections.singletonList(buildConnectedSff("SFF1", null)));
+        putServiceFunctionForwarder("SFF3", Collections.singletonList("dpi2"),
+                Collections.singletonList(buildConnectedSff("SFF4", null)));
+        putServiceFunctionForwarder("SFF4", Collections.emptyList(),
+                Arrays.asList(buildConnectedSff("SFF1", null), buildConnectedSff("SFF3", null)));
+
+        List<SfcServiceFunction> sfcServiceFunctionList = new ArrayList<>();
+        sfcServiceFunctionList.add(new SfcServiceFunctionBuilder().setName("firewall")
+                .setType(new SftTypeName("firewall")).build());
+        sfcServiceFunctionList.add(new SfcServiceFunctionBuilder().setName("dpi")
+                .setType(new SftTypeName("dpi")).build());
+        sfChain = new ServiceFunctionChainBuilder().setName(new SfcName("weighted-unittest-chain"))
+                .setSfcServiceFunction(sfcServiceFunctionList).setSymmetric(false).build();
+    }
+
+    @Test
+    public void testWeightedShortestPathScheduler() {
+        ServiceFunctionPath sfp = buildServiceFunctionPath(Collections.emptyList());
+
+        List<SfName> greedyPath = new SfcServiceFunctionShortestPathSchedulerAPI()
+                .scheduleServiceFunctions(sfChain, 255, sfp);
+        List<SfName> weightedPath = new SfcServiceFunctionWeightedShortestPathSchedulerAPI()
+                .scheduleServiceFunctions(sfChain, 255, sfp);
+
+        // fewer hops to dpi1 but the lowest cost path is the one to dpi2
+        assertEquals(Arrays.asList(new SfName("fw1"), new SfName("dpi1")), greedyPath);
+        assertEquals(Arrays.asList(new SfName("fw1"), new SfName("dpi2")), weightedPath);
+
+        SfcProviderGraphIndex index = new SfcServiceFunctionWeightedShortestPathSchedulerAPI().getTopologyGraph()
+                .getIndex();
+        assertEquals(102L, index.getPathCost("fw1", "dpi1"));
+        assertEquals(4L, index.getPathCost("fw1", "dpi2"));
+    }
+
+    @Test
+    public void testWeightedShortestPathSchedulerOverrideHop() {
+        List<ServicePathHop> sphs = new ArrayList<>();
+        sphs.add(new ServicePathHopBuilder().setHopNumber((short) 1).setServiceFunctionForwarder(new SffName("SFF2"))
+                .setServiceFunctionName(new SfName("hop-dpi")).build());
+        ServiceFunctionPath sfp = buildServiceFunctionPath(sphs);
+
+        List<SfName> weightedPath = new SfcServiceFunctionWeightedShortestPathSchedulerAPI()
+                .scheduleServiceFunctions(sfChain, 255, sfp);
+        assertEquals(Arrays.asList(new SfName("fw1"), new SfName("hop-dpi")), weightedPath);
+    }
+
+    @Test
+    public void testLowestCostPathAcrossLayers() {
+        // napt1 is the closest to fw1 but only napt2 has a cheap path to dpi1
+        SfcProviderGraph graph = new SfcProviderGraph();
+        graph.setEdgeCost("fw1", "napt1", 1);
+        graph.setEdgeCost("fw1", "napt2", 2);
+        graph.setEdgeCost("napt1", "dpi1", 100);
+        graph.setEdgeCost("napt2", "dpi1", 1);
+        graph.addNode("dpi2");
+
+        List<List<SfName>> candidateLayers = new ArrayList<>();
+        candidateLayers.add(Collections.singletonList(new SfName("fw1")));
+        candidateLayers.add(Arrays.asList(new SfName("napt1"), new SfName("napt2")));
+        candidateLayers.add(Collections.singletonList(new SfName("dpi1")));
+        assertEquals(Arrays.asList(new SfName("fw1"), new SfName("napt2"), new SfName("dpi1")),
+                SfcServiceFunctionWeightedShortestPathSchedulerAPI.getLowestCostPath(candidateLayers,
+                        graph.getIndex()));
+
+        // no path to the last layer
+        candidateLayers.set(2, Collections.singletonList(new SfName("dpi2")));
+        assertNull(SfcServiceFunctionWeightedShortestPathSchedulerAPI.getLowestCostPath(candidateLayers,
+                graph.getIndex()));
+
+        assertTrue(SfcServiceFunctionWeightedShortestPathSchedulerAPI
+                .getLowestCostPath(Collections.emptyList(), graph.getIndex()).isEmpty());
+    }
+
+    private static void putServiceFunction(String name, String type) {
+        ServiceFunction serviceFunction = new ServiceFunctionBuilder().setName(new SfName(name))
+                .setType(new SftTypeName(type)).build();
+        assertTrue(SfcProviderServiceTypeAPI.createServiceFunctionTypeEntry(serviceFunction));
+        assertTrue(SfcProviderServiceFunctionAPI.putServiceFunction(serviceFunction));
+    }
+
+    private static void putServiceFunctionForwarder(String name, List<String> sfNames,
+            List<ConnectedSffDictionary> connectedSffs) {
+        List<ServiceFunctionDictionary> sfDictionary = new ArrayList<>();
+        for (String sfName : sfNames) {
+            sfDictionary.add(new ServiceFunctionDictionaryBuilder().setName(new SfName(sfName)).build());
+        }
+        assertTrue(SfcProviderServiceForwarderAPI.putServiceFunctionForwarder(new ServiceFunctionForwarderBuilder()
+                .setName(new SffName(name)).setServiceFunctionDictionary(sfDictionary)
+                .setConnectedSffDictionary(connectedSffs).build()));
+    }
+
+    private static ConnectedSffDictionary buildConnectedSff(String name, Long linkCost) {
+        return new ConnectedSffDictionaryBuilder().setName(new SffName(name)).setLinkCost(linkCost).build();
+    }
+
+    private ServiceFunctionPath buildServiceFunctionPath(List<ServicePathHop> sphs) {
+        return new ServiceFunctionPathBuilder().setName(new SfpName("weighted-unittest-path"))
+                .setServiceChainName(sfChain.getName()).setServicePathHop(sphs).build();
+    }
+}
@@ -12,12 +12,27 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
+import com.google.common.base.Optional;
+import com.google.common.util.concurrent.Futures;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
 import org.junit.Before;
 import org.junit.Test;
+import org.opendaylight.controller.md.sal.binding.api.DataBroker;
+import org.opendaylight.controller.md.sal.binding.api.ReadWriteTransaction;
+import org.opendaylight.controller.md.sal.common.api.data.OptimisticLockFailedException;
 import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.service.path.id.rev150804.GenerationAlgorithmEnum;
 
 /**
@@ -169,4 +184,103 @@ public class SfcServicePathIdTest extends AbstractSfcRendererServicePathAPITest
             assertTrue(SfcServicePathId.freePathId(pathId));
         }
     }
+
+    @Test
+    public void testCheckAndAllocatePathIds() throws Exception {
+        final int numPathIds = 100;
+        List<Long> pathIds = SfcServicePathId.checkAndAllocatePathIds(numPathIds);
+        assertEquals(numPathIds, pathIds.size());
+        assertEquals(numPathIds, new HashSet<>(pathIds).size());
+        for (Long pathId : pathIds) {
+            assertFalse(SfcServicePathId.checkSuitablePathId(pathId));
+        }
+
+        // the in-memory image must match what was persisted
+        SfcServicePathId.invalidatePathIds();
+        for (Long pathId : pathIds) {
+            assertFalse(SfcServicePathId.checkSuitablePathId(pathId));
+        }
+        for (Long pathId : pathIds) {
+            assertTrue(SfcServicePathId.freePathId(pathId));
+        }
+        SfcServicePathId.invalidatePathIds();
+        for (Long pathId : pathIds) {
+            assertTrue(SfcServicePathId.checkSuitablePathId(pathId));
+        }
+    }
+
+    @Test
+    public void testCheckAndAllocatePathIdConcurrently() throws Exception {
+        final int numPathIds = 200;
+        List<Future<Long>> futures = new ArrayList<>();
+        Callable<Long> allocate = SfcServicePathId::checkAndAllocatePathId;
+        for (int i = 0; i < numPathIds; i++) {
+            futures.add(executor.submit(allocate));
+        }
+        Set<Long> pathIds = new HashSet<>();
+        for (Future<Long> future : futures) {
+            long pathId = future.get();
+            assertNotEquals(-1, pathId);
+            assertTrue(pathIds.add(pathId));
+        }
+        for (Long pathId : pathIds) {
+            assertTrue(SfcServicePathId.freePathId(pathId));
+        }
+    }
+
+    @Test
+    public void testFlushRetriedOnOptimisticLockFailure() throws Exception {
+        DataBroker failingBroker = mockFailingBroker(2);
+        try {
+            SfcDataStoreAPI.setDataProviderAux(failingBroker);
+            assertEquals(100, SfcServicePathId.chechAndAllocatePathId(100));
+        } finally {
+            SfcDataStoreAPI.setDataProviderAux(dataBroker);
+        }
+
+        // the allocation was persisted by the last attempt
+        assertFalse(SfcServicePathId.checkSuitablePathId(100));
+        assertTrue(SfcServicePathId.freePathId(100));
+    }
+
+    @Test
+    public void testFailedFlushIsRolledBack() throws Exception {
+        assertNotEquals(-1, SfcServicePathId.chechAndAllocatePathId(200));
+        DataBroker failingBroker = mockFailingBroker(Integer.MAX_VALUE);
+        try {
+            SfcDataStoreAPI.setDataProviderAux(failingBroker);
+            assertEquals(-1, SfcServicePathId.chechAndAllocatePathId(100));
+            assertFalse(SfcServicePathId.freePathId(200));
+
+            // checked against the in-memory image, not reloaded
+            assertTrue(SfcServicePathId.checkSuitablePathId(100));
+            assertFalse(SfcServicePathId.checkSuitablePathId(200));
+        } finally {
+            SfcDataStoreAPI.setDataProviderAux(dataBroker);
+        }
+        assertTrue(SfcServicePathId.freePathId(200));
+    }
+
+    /*
+     * A data broker whose first read-write transactions fail on a concurrent
+     * change, the other transactions are handed over to the test data broker.
+     */
+    private DataBroker mockFailingBroker(int failures) {
+        DataBroker failingBroker = mock(DataBroker.class);
+        when(failingBroker.newReadOnlyTransaction()).thenAnswer(invocation -> dataBroker.newReadOnlyTransaction());
+        when(failingBroker.newWriteOnlyTransaction()).thenAnswer(invocation -> dataBroker.newWriteOnlyTransaction());
+        int[] remaining = {failures};
+        when(failingBroker.newReadWriteTransaction()).thenAnswer(invocation -> {
+            if (remaining[0] == 0) {
+                return dataBroker.newReadWriteTransaction();
+            }
+            remaining[0]--;
+            ReadWriteTransaction failingTx = mock(ReadWriteTransaction.class);
+            doReturn(Futures.immediateCheckedFuture(Optional.absent())).when(failingTx).read(any(), any());
+            doReturn(Futures.immediateFailedCheckedFuture(new OptimisticLockFailedException("test")))
+                    .when(failingTx).submit();
+            return failingTx;
+        });
+        return failingBroker;
+    }
 }
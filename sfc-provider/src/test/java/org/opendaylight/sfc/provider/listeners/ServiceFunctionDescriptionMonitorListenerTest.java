@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2018 Ericsson Inc. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.sfc.provider.listeners;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.opendaylight.sfc.provider.AbstractDataStoreManager;
+import org.opendaylight.sfc.provider.api.SfcServiceFunctionLoadCache;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.common.rev151017.SfName;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sf.rev140701.ServiceFunctionsState;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sf.rev140701.service.functions.state.ServiceFunctionState;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sf.rev140701.service.functions.state.ServiceFunctionStateKey;
+import org.opendaylight.yang.gen.v1.urn.intel.params.xml.ns.sf.desc.mon.rev141201.ServiceFunctionState1;
+import org.opendaylight.yang.gen.v1.urn.intel.params.xml.ns.sf.desc.mon.rev141201.service.functions.state.service.function.state.SfcSfDescMon;
+import org.opendaylight.yang.gen.v1.urn.intel.params.xml.ns.sf.desc.mon.rev141201.service.functions.state.service.function.state.SfcSfDescMonBuilder;
+import org.opendaylight.yang.gen.v1.urn.intel.params.xml.ns.sf.desc.mon.rev141201.service.functions.state.service.function.state.sfc.sf.desc.mon.MonitoringInfoBuilder;
+import org.opendaylight.yang.gen.v1.urn.intel.params.xml.ns.sf.desc.mon.rpt.rev141105.sf.monitoring.info.ResourceUtilizationBuilder;
+import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
+
+/**
+ * Test Suite to test the ServiceFunctionDescriptionMonitorListener class.
+ */
+public class ServiceFunctionDescriptionMonitorListenerTest extends AbstractDataStoreManager {
+
+    private static final SfName SF_NAME = new SfName("listenerSfDescMon");
+
+    private static final InstanceIdentifier<SfcSfDescMon> SF_DESC_MON_IID = InstanceIdentifier
+            .create(ServiceFunctionsState.class).child(ServiceFunctionState.class, new ServiceFunctionStateKey(SF_NAME))
+            .augmentation(ServiceFunctionState1.class).child(SfcSfDescMon.class);
+
+    // Class under test
+    private ServiceFunctionDescriptionMonitorListener serviceFunctionDescriptionMonitorListener;
+
+    @Before
+    public void before() {
+        setupSfc();
+        serviceFunctionDescriptionMonitorListener = new ServiceFunctionDescriptionMonitorListener(getDataBroker());
+    }
+
+    @After
+    public void after() throws Exception {
+        close();
+    }
+
+    /**
+     * Feeds monitoring samples to the listener and checks the load view.
+     */
+    @Test
+    public void testOnServiceFunctionDescriptionMonitorChanged() {
+        SfcSfDescMon firstSample = buildSfcSfDescMon(50L, 20L);
+        serviceFunctionDescriptionMonitorListener.add(SF_DESC_MON_IID, firstSample);
+        assertEquals(50.0, SfcServiceFunctionLoadCache.getCpuUtilization(SF_NAME), 0);
+        assertEquals(20.0, SfcServiceFunctionLoadCache.getBandwidthUtilization(SF_NAME), 0);
+
+        SfcSfDescMon secondSample = buildSfcSfDescMon(10L, 40L);
+        serviceFunctionDescriptionMonitorListener.update(SF_DESC_MON_IID, firstSample, secondSample);
+        assertEquals(50.0 + 0.3 * (10.0 - 50.0), SfcServiceFunctionLoadCache.getCpuUtilization(SF_NAME), 0.001);
+        assertEquals(20.0 + 0.3 * (40.0 - 20.0), SfcServiceFunctionLoadCache.getBandwidthUtilization(SF_NAME),
+                0.001);
+
+        serviceFunctionDescriptionMonitorListener.remove(SF_DESC_MON_IID, secondSample);
+        assertNull(SfcServiceFunctionLoadCache.getCpuUtilization(SF_NAME));
+
+        SfcServiceFunctionLoadCache.removeServiceFunction(SF_NAME);
+    }
+
+    private static SfcSfDescMon buildSfcSfDescMon(long cpuUtilization, long bandwidthUtilization) {
+        return new SfcSfDescMonBuilder().setMonitoringInfo(new MonitoringInfoBuilder()
+                .setResourceUtilization(new ResourceUtilizationBuilder().setCPUUtilization(cpuUtilization)
+                        .setBandwidthUtilization(bandwidthUtilization).build()).build()).build();
+    }
+}
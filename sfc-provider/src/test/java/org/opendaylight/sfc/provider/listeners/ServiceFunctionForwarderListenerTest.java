@@ -186,13 +186,12 @@ public class ServiceFunctionForwarderListenerTest extends AbstractDataStoreManag
         updatedServiceFunctionForwarderBuilder.setIpMgmtAddress(updatedIpMgmtAddress);
         ServiceFunctionForwarder updatedServiceFunctionForwarder = updatedServiceFunctionForwarderBuilder.build();
 
-        // The listener will remove the Original Service Function Forwarder Entry and associated RSPs
+        // The listener will repair the associated RSPs in place
         serviceFunctionForwarderListener.update(InstanceIdentifier.create(ServiceFunctionForwarder.class),
                                                 originalServiceFunctionForwarder, updatedServiceFunctionForwarder);
-        assertNull(SfcProviderServicePathAPI.readServiceFunctionPath(
+        assertNotNull(SfcProviderServicePathAPI.readServiceFunctionPath(
                 renderedServicePath.getParentServiceFunctionPath()));
-
-        // The SFP state is removed in the SFP listener
+        assertRspRepaired(renderedServicePath, sffName);
 
         assertTrue(SfcDataStoreAPI.deleteTransactionAPI(SfcInstanceIdentifiers.SFF_IID,
                 LogicalDatastoreType.CONFIGURATION));
@@ -209,7 +208,7 @@ public class ServiceFunctionForwarderListenerTest extends AbstractDataStoreManag
      * trigger a more complete code coverage within the listener. In order to
      * simulate a removal from the data store this test does the following: -
      * Create RSP - Update the Service node used by the SFF by setting it to
-     * null, which should cause the RSP to be deleted. - creates a IID and add
+     * null, which should cause the RSP to be repaired. - creates a IID and add
      * to removedPaths data structure. This IID points to the SFF objects stored
      * in the original data - Call listener explicitly. - Cleans up
      */
@@ -230,14 +229,12 @@ public class ServiceFunctionForwarderListenerTest extends AbstractDataStoreManag
         updatedServiceFunctionForwarderBuilder.setServiceNode(null);
         ServiceFunctionForwarder updatedServiceFunctionForwarder = updatedServiceFunctionForwarderBuilder.build();
 
-        // The listener will remove the Original Service Function Forwarder
-        // Entry and associated RSPs
+        // The listener will repair the associated RSPs in place
         serviceFunctionForwarderListener.update(InstanceIdentifier.create(ServiceFunctionForwarder.class),
                                                 originalServiceFunctionForwarder, updatedServiceFunctionForwarder);
-        assertNull(SfcProviderServicePathAPI.readServiceFunctionPath(
+        assertNotNull(SfcProviderServicePathAPI.readServiceFunctionPath(
                 renderedServicePath.getParentServiceFunctionPath()));
-
-        // The SFP state is removed in the SFP listener
+        assertRspRepaired(renderedServicePath, sffName);
 
         assertTrue(SfcDataStoreAPI.deleteTransactionAPI(SfcInstanceIdentifiers.SFF_IID,
                 LogicalDatastoreType.CONFIGURATION));
@@ -418,11 +415,17 @@ public class ServiceFunctionForwarderListenerTest extends AbstractDataStoreManag
         removeSffDpl(updatedServiceFunctionForwarderBuilder, "196.168.66.106");
         ServiceFunctionForwarder updatedServiceFunctionForwarder = updatedServiceFunctionForwarderBuilder.build();
 
-        // The listener will NOT remove the RSP
+        // The listener will NOT remove the RSP, the hops no longer reach the
+        // SFF through the removed locator
         serviceFunctionForwarderListener.update(InstanceIdentifier.create(ServiceFunctionForwarder.class),
                                                 originalServiceFunctionForwarder, updatedServiceFunctionForwarder);
 
-        assertNotNull(SfcProviderRenderedPathAPI.readRenderedServicePath(renderedServicePath.getName()));
+        RenderedServicePath repairedRenderedServicePath =
+                SfcProviderRenderedPathAPI.readRenderedServicePath(renderedServicePath.getName());
+        assertNotNull(repairedRenderedServicePath);
+        assertEquals(renderedServicePath.getPathId(), repairedRenderedServicePath.getPathId());
+        repairedRenderedServicePath.getRenderedServicePathHop()
+                .forEach(hop -> assertNull(hop.getServiceFunctionForwarderLocator()));
 
         // Verify that State was NOT removed
         List<SffServicePath> sffServicePathList = SfcProviderServiceForwarderAPI.readSffState(sffName);
@@ -478,6 +481,17 @@ public class ServiceFunctionForwarderListenerTest extends AbstractDataStoreManag
                 LogicalDatastoreType.CONFIGURATION));
     }
 
+    private void assertRspRepaired(RenderedServicePath renderedServicePath, SffName sffName) {
+        RenderedServicePath repairedRenderedServicePath =
+                SfcProviderRenderedPathAPI.readRenderedServicePath(renderedServicePath.getName());
+        assertNotNull(repairedRenderedServicePath);
+        assertEquals(renderedServicePath.getPathId(), repairedRenderedServicePath.getPathId());
+        assertEquals(renderedServicePath.getRenderedServicePathHop(),
+                repairedRenderedServicePath.getRenderedServicePathHop());
+        assertTrue(SfcProviderServiceForwarderAPI.readRspNamesFromSffState(sffName)
+                .contains(renderedServicePath.getName()));
+    }
+
     private void addSfToSfDict(ServiceFunctionForwarderBuilder sffBuilder) {
         List<ServiceFunctionDictionary> sffSfDict = sffBuilder.getServiceFunctionDictionary();
         List<ServiceFunctionDictionary> newSffSfDict = new ArrayList<>();
@@ -248,17 +248,22 @@ public class ServiceFunctionListenerTest extends AbstractDataStoreManager {
         // The original SF type is only deleted if the SF type changes
         assertNotNull(SfcProviderServiceTypeAPI.readServiceFunctionTypeEntry(originalServiceFunction));
         assertNotNull(SfcProviderServiceTypeAPI.readServiceFunctionTypeEntry(updatedServiceFunction));
-        assertNull(SfcProviderServicePathAPI.readServiceFunctionPath(
+
+        // The RSP is repaired in place, keeping its SFP and path id
+        assertNotNull(SfcProviderServicePathAPI.readServiceFunctionPath(
                 renderedServicePath.getParentServiceFunctionPath()));
+        RenderedServicePath repairedRenderedServicePath =
+                SfcProviderRenderedPathAPI.readRenderedServicePath(renderedServicePath.getName());
+        assertNotNull(repairedRenderedServicePath);
+        assertEquals(renderedServicePath.getPathId(), repairedRenderedServicePath.getPathId());
+        assertEquals(renderedServicePath.getRenderedServicePathHop(),
+                repairedRenderedServicePath.getRenderedServicePathHop());
+        assertTrue(SfcProviderServiceFunctionAPI.getRspsBySfName(originalServiceFunction.getName())
+                .contains(renderedServicePath.getName()));
 
         // Clean-up
         assertTrue(SfcProviderServiceTypeAPI.deleteServiceFunctionTypeEntry(updatedServiceFunction));
-        List<RspName> rspNameList = SfcProviderServiceFunctionAPI.getRspsBySfName(originalServiceFunction.getName());
-        if (rspNameList != null) {
-            for (RspName rspName : rspNameList) {
-                assertNotEquals(rspName, renderedServicePath.getName());
-            }
-        }
+        assertTrue(SfcProviderRenderedPathAPI.deleteRenderedServicePath(renderedServicePath.getName()));
 
         assertTrue(SfcDataStoreAPI.deleteTransactionAPI(SfcInstanceIdentifiers.SFF_IID,
                 LogicalDatastoreType.CONFIGURATION));
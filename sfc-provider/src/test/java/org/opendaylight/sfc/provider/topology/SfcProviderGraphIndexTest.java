@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2018 Ericsson Inc. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.sfc.provider.topology;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.Test;
+
+/**
+ * This class contains unit tests for SfcProviderGraphIndex.
+ */
+public class SfcProviderGraphIndexTest {
+
+    private static final int NUM_SFFS = 5000;
+
+    @Test
+    public void testDistance() {
+        SfcProviderGraph graph = new SfcProviderGraph();
+        graph.addEdge("sf1", "sff1");
+        graph.addEdge("sff1", "sff2");
+        graph.addEdge("sff2", "sf2");
+        graph.addNode("sf3");
+
+        SfcProviderGraphIndex index = graph.getIndex();
+        assertSame(index, graph.getIndex());
+        assertEquals(5, index.getNodeCount());
+        assertEquals("sf1", index.getNodeName(index.getNodeId("sf1")));
+        assertEquals(0, index.getDistance("sf1", "sf1"));
+        assertEquals(3, index.getDistance("sf1", "sf2"));
+        assertEquals(3, index.getDistance("sf2", "sf1"));
+        assertEquals(SfcProviderGraphIndex.UNREACHABLE, index.getDistance("sf1", "sf3"));
+        assertEquals(SfcProviderGraphIndex.UNREACHABLE, index.getDistance("sf1", "sf4"));
+        assertEquals(SfcProviderGraphIndex.UNREACHABLE, index.getNodeId("sf4"));
+
+        // one search per source node
+        assertEquals(2, index.getSearchCount());
+
+        // the index is rebuilt after a topology change
+        graph.addEdge("sf1", "sff2");
+        SfcProviderGraphIndex newIndex = graph.getIndex();
+        assertNotSame(index, newIndex);
+        assertEquals(2, newIndex.getDistance("sf1", "sf2"));
+    }
+
+    @Test
+    public void testLargeMesh() throws Exception {
+        SfcProviderGraph graph = buildMesh();
+        SfcProviderGraphIndex index = graph.getIndex();
+        assertEquals(2 * NUM_SFFS, index.getNodeCount());
+
+        // same distances as the node based search
+        for (int i = 1; i < NUM_SFFS; i += 499) {
+            int pathSize = graph.getShortestPath("sf0", "sf" + i).size();
+            assertEquals(pathSize - 1, index.getDistance("sf0", "sf" + i));
+        }
+
+        // all the candidates of a hop are scored from a single search
+        long searches = index.getSearchCount();
+        for (int i = 0; i < NUM_SFFS; i++) {
+            index.getDistance("sf1", "sf" + i);
+        }
+        assertEquals(searches + 1, index.getSearchCount());
+
+        // concurrent schedulers get consistent distances
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                final String fromNodeName = "sf" + i * 7;
+                Callable<Integer> task = () -> index.getDistance(fromNodeName, "sf0");
+                futures.add(executor.submit(task));
+            }
+            for (int i = 0; i < 16; i++) {
+                assertEquals(index.getDistance("sf0", "sf" + i * 7), (int) futures.get(i).get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /*
+     * Every SFF hosts one SF and is connected to the next SFF and to the one
+     * 7 positions ahead in a ring.
+     */
+    private static SfcProviderGraph buildMesh() {
+        SfcProviderGraph graph = new SfcProviderGraph();
+        for (int i = 0; i < NUM_SFFS; i++) {
+            graph.addEdge("sff" + i, "sf" + i);
+            graph.addEdge("sff" + i, "sff" + (i + 1) % NUM_SFFS);
+            graph.addEdge("sff" + i, "sff" + (i + 7) % NUM_SFFS);
+        }
+        return graph;
+    }
+}
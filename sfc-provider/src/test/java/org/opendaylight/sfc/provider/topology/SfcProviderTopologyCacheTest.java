@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2018 Ericsson Inc. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.sfc.provider.topology;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.common.rev151017.SfName;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.common.rev151017.SffName;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sf.rev140701.service.functions.ServiceFunction;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sf.rev140701.service.functions.ServiceFunctionBuilder;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sff.rev140701.service.function.forwarders.ServiceFunctionForwarder;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sff.rev140701.service.function.forwarders.ServiceFunctionForwarderBuilder;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sff.rev140701.service.function.forwarders.service.function.forwarder.ConnectedSffDictionary;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sff.rev140701.service.function.forwarders.service.function.forwarder.ConnectedSffDictionaryBuilder;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sff.rev140701.service.function.forwarders.service.function.forwarder.ServiceFunctionDictionary;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sff.rev140701.service.function.forwarders.service.function.forwarder.ServiceFunctionDictionaryBuilder;
+
+/**
+ * This class contains unit tests for SfcProviderTopologyCache.
+ */
+public class SfcProviderTopologyCacheTest {
+
+    private Object owner;
+
+    @Before
+    public void init() {
+        // a new owner drops whatever previous tests left in the cache
+        owner = new Object();
+        SfcProviderTopologyCache.seed(owner, Collections.emptyList(), Collections.emptyList());
+    }
+
+    @Test
+    public void testSnapshotIsReusedUntilChanged() {
+        SfcProviderGraph graph = SfcProviderTopologyCache.getGraph(owner);
+        assertNotNull(graph);
+        assertSame(graph, SfcProviderTopologyCache.getGraph(owner));
+
+        SfcProviderTopologyCache.updateServiceFunction(buildSf("sf1"));
+        SfcProviderGraph newGraph = SfcProviderTopologyCache.getGraph(owner);
+        assertNotSame(graph, newGraph);
+        assertTrue(newGraph.hasNode("sf1"));
+        // published snapshots are never modified
+        assertFalse(graph.hasNode("sf1"));
+
+        // an update that does not change the topology keeps the snapshot
+        SfcProviderTopologyCache.updateServiceFunction(buildSf("sf1"));
+        assertSame(newGraph, SfcProviderTopologyCache.getGraph(owner));
+    }
+
+    @Test
+    public void testForwarderEdges() {
+        SfcProviderTopologyCache.updateServiceFunction(buildSf("sf1"));
+        SfcProviderTopologyCache.updateServiceFunction(buildSf("sf2"));
+        SfcProviderTopologyCache.updateServiceFunctionForwarder(buildSff("sff1", Arrays.asList("sf1"),
+                Arrays.asList("sff2")));
+        SfcProviderTopologyCache.updateServiceFunctionForwarder(buildSff("sff2", Arrays.asList("sf2"),
+                Arrays.asList("sff1")));
+
+        SfcProviderGraph graph = SfcProviderTopologyCache.getGraph(owner);
+        assertTrue(graph.hasEdge("sf1", "sff1"));
+        assertTrue(graph.hasEdge("sff1", "sff2"));
+        assertTrue(graph.hasEdge("sff2", "sf2"));
+        assertEquals(4, graph.getShortestPath("sf1", "sf2").size());
+
+        // sf2 moves to sff1
+        SfcProviderTopologyCache.updateServiceFunctionForwarder(buildSff("sff1", Arrays.asList("sf1", "sf2"),
+                Arrays.asList("sff2")));
+        SfcProviderTopologyCache.updateServiceFunctionForwarder(buildSff("sff2", Collections.emptyList(),
+                Arrays.asList("sff1")));
+        graph = SfcProviderTopologyCache.getGraph(owner);
+        assertFalse(graph.hasEdge("sff2", "sf2"));
+        assertEquals(3, graph.getShortestPath("sf1", "sf2").size());
+
+        // edges declared by the remaining SFF are kept
+        SfcProviderTopologyCache.removeServiceFunctionForwarder(buildSff("sff1", Collections.emptyList(),
+                Collections.emptyList()));
+        graph = SfcProviderTopologyCache.getGraph(owner);
+        assertFalse(graph.hasEdge("sf1", "sff1"));
+        assertTrue(graph.hasEdge("sff2", "sff1"));
+    }
+
+    @Test
+    public void testSeedDoesNotOverwriteListenerUpdates() {
+        Object newOwner = new Object();
+        assertNull(SfcProviderTopologyCache.getGraph(newOwner));
+
+        SfcProviderTopologyCache.seed(newOwner, Collections.emptyList(), Collections.emptyList());
+        assertTrue(SfcProviderTopologyCache.isSeeded(newOwner));
+        assertFalse(SfcProviderTopologyCache.isSeeded(owner));
+        assertNull(SfcProviderTopologyCache.getGraph(owner));
+
+        // listener updates received before the seed prevail over it
+        SfcProviderTopologyCache.clear();
+        assertFalse(SfcProviderTopologyCache.isSeeded(newOwner));
+        SfcProviderTopologyCache.updateServiceFunctionForwarder(buildSff("sff1", Arrays.asList("sf2"),
+                Collections.emptyList()));
+        SfcProviderTopologyCache.seed(owner, Collections.singletonList(buildSf("sf1")),
+                Collections.singletonList(buildSff("sff1", Arrays.asList("sf1"), Collections.emptyList())));
+        SfcProviderGraph graph = SfcProviderTopologyCache.getGraph(owner);
+        assertTrue(graph.hasNode("sf1"));
+        assertFalse(graph.hasEdge("sff1", "sf1"));
+    }
+
+    @Test
+    public void testListenerUpdatesNotTrackedOnceSeeded() {
+        SfcProviderTopologyCache.clear();
+        SfcProviderTopologyCache.updateServiceFunction(buildSf("sf1"));
+        SfcProviderTopologyCache.removeServiceFunctionForwarder(buildSff("sff1", Collections.emptyList(),
+                Collections.emptyList()));
+        assertEquals(2, SfcProviderTopologyCache.getUpdatedNodeCount());
+
+        SfcProviderTopologyCache.seed(owner, Collections.emptyList(), Collections.emptyList());
+        assertEquals(0, SfcProviderTopologyCache.getUpdatedNodeCount());
+
+        for (int i = 0; i < 100; i++) {
+            SfcProviderTopologyCache.updateServiceFunction(buildSf("sf" + i));
+            SfcProviderTopologyCache.removeServiceFunction(buildSf("sf" + i));
+        }
+        assertEquals(0, SfcProviderTopologyCache.getUpdatedNodeCount());
+        assertFalse(SfcProviderTopologyCache.getGraph(owner).hasNode("sf0"));
+    }
+
+    @Test
+    public void testLargeTopology() {
+        final int numSffs = 5000;
+        List<ServiceFunction> sfs = new ArrayList<>(numSffs);
+        List<ServiceFunctionForwarder> sffs = new ArrayList<>(numSffs);
+        for (int i = 0; i < numSffs; i++) {
+            sfs.add(buildSf("sf" + i));
+            sffs.add(buildSff("sff" + i, Arrays.asList("sf" + i),
+                    Arrays.asList("sff" + (i + 1) % numSffs, "sff" + (i + 7) % numSffs)));
+        }
+        owner = new Object();
+        SfcProviderTopologyCache.seed(owner, sfs, sffs);
+
+        long snapshots = SfcProviderTopologyCache.getSnapshotCount();
+        SfcProviderGraph graph = SfcProviderTopologyCache.getGraph(owner);
+        assertFalse(graph.getShortestPath("sf0", "sf" + numSffs / 2).isEmpty());
+        for (int i = 0; i < 100; i++) {
+            assertSame(graph, SfcProviderTopologyCache.getGraph(owner));
+        }
+        assertEquals(snapshots + 1, SfcProviderTopologyCache.getSnapshotCount());
+
+        long updates = SfcProviderTopologyCache.getUpdateCount();
+        SfcProviderTopologyCache.updateServiceFunction(buildSf("sf" + numSffs));
+        assertEquals(updates + 1, SfcProviderTopologyCache.getUpdateCount());
+        assertTrue(SfcProviderTopologyCache.getLastUpdateNanos() >= 0);
+        assertTrue(SfcProviderTopologyCache.getGraph(owner).hasNode("sf" + numSffs));
+    }
+
+    private static ServiceFunction buildSf(String name) {
+        return new ServiceFunctionBuilder().setName(new SfName(name)).build();
+    }
+
+    private static ServiceFunctionForwarder buildSff(String name, List<String> sfNames, List<String> sffNames) {
+        List<ServiceFunctionDictionary> sfDictionary = new ArrayList<>();
+        for (String sfName : sfNames) {
+            sfDictionary.add(new ServiceFunctionDictionaryBuilder().setName(new SfName(sfName)).build());
+        }
+        List<ConnectedSffDictionary> sffDictionary = new ArrayList<>();
+        for (String sffName : sffNames) {
+            sffDictionary.add(new ConnectedSffDictionaryBuilder().setName(new SffName(sffName)).build());
+        }
+        return new ServiceFunctionForwarderBuilder().setName(new SffName(name))
+                .setServiceFunctionDictionary(sfDictionary).setConnectedSffDictionary(sffDictionary).build();
+    }
+}
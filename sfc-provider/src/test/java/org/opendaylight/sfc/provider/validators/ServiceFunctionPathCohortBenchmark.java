@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2018 Ericsson Inc. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.sfc.provider.validators;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.BeforeClass;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.opendaylight.mdsal.dom.api.DOMDataTreeCandidate;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidateNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.ModificationType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reports the cost of the SFP validation cohort per candidate. The validator
+ * is mocked, so the figures measure the codec context handling and the
+ * deserialization of the candidates, not the data store reads.
+ *
+ * <p>
+ * Timing figures are not stable enough for the regular build, so this is an
+ * opt-in harness: remove the {@link Ignore} annotation and run it on its own,
+ * e.g. {@code mvn test -Dtest=ServiceFunctionPathCohortBenchmark}.
+ */
+@Ignore("opt-in benchmark")
+public class ServiceFunctionPathCohortBenchmark {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ServiceFunctionPathCohortBenchmark.class);
+
+    private static final int CANDIDATE_COUNT = 5000;
+
+    @BeforeClass
+    public static void setUpCodec() {
+        ServiceFunctionPathCohortTest.setUpCodec();
+    }
+
+    @Test
+    public void canCommitValidationCost() throws Exception {
+        ServiceFunctionPathValidator sfpv = mock(ServiceFunctionPathValidator.class);
+        when(sfpv.validateServiceFunctionPaths(any())).thenReturn(true);
+        ServiceFunctionPathCohort cohort = new ServiceFunctionPathCohort(sfpv);
+
+        List<DataTreeCandidateNode> sfpNodes = new ArrayList<>();
+        List<Collection<DOMDataTreeCandidate>> singleCandidates = new ArrayList<>();
+        for (int i = 0; i < CANDIDATE_COUNT; i++) {
+            DataTreeCandidateNode sfpNode = ServiceFunctionPathCohortTest.buildSfpNode(ModificationType.WRITE,
+                    ServiceFunctionPathCohortTest.buildSfp(i));
+            sfpNodes.add(sfpNode);
+            singleCandidates.add(Collections.singletonList(
+                    ServiceFunctionPathCohortTest.buildCandidate(Collections.singletonList(sfpNode))));
+        }
+        Collection<DOMDataTreeCandidate> bulkCandidates = Collections.singletonList(
+                ServiceFunctionPathCohortTest.buildCandidate(sfpNodes));
+
+        // the first commit builds the codec context
+        long start = System.nanoTime();
+        cohort.canCommit("tx-0", ServiceFunctionPathCohortTest.schemaContext, singleCandidates.get(0));
+        long firstCommitNanos = System.nanoTime() - start;
+
+        // one candidate per transaction
+        start = System.nanoTime();
+        for (Collection<DOMDataTreeCandidate> candidates : singleCandidates) {
+            cohort.canCommit("tx", ServiceFunctionPathCohortTest.schemaContext, candidates);
+        }
+        long singleNanos = System.nanoTime() - start;
+
+        // all the candidates in one transaction
+        start = System.nanoTime();
+        cohort.canCommit("tx-bulk", ServiceFunctionPathCohortTest.schemaContext, bulkCandidates);
+        long bulkNanos = System.nanoTime() - start;
+
+        LOG.info("SFP validation: first commit {} us, {} single-SFP commits {} us/SFP, "
+                + "one {}-SFP commit {} us/SFP", TimeUnit.NANOSECONDS.toMicros(firstCommitNanos), CANDIDATE_COUNT,
+                TimeUnit.NANOSECONDS.toMicros(singleNanos) / (double) CANDIDATE_COUNT, CANDIDATE_COUNT,
+                TimeUnit.NANOSECONDS.toMicros(bulkNanos) / (double) CANDIDATE_COUNT);
+    }
+}
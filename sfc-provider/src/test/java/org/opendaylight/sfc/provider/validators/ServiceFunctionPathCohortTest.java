@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 2018 Ericsson Inc. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.sfc.provider.validators;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import javassist.ClassPool;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.opendaylight.mdsal.binding.dom.codec.gen.impl.StreamWriterGenerator;
+import org.opendaylight.mdsal.binding.dom.codec.impl.BindingNormalizedNodeCodecRegistry;
+import org.opendaylight.mdsal.binding.generator.impl.ModuleInfoBackedContext;
+import org.opendaylight.mdsal.binding.generator.util.BindingRuntimeContext;
+import org.opendaylight.mdsal.binding.generator.util.JavassistUtils;
+import org.opendaylight.mdsal.binding.spec.reflect.BindingReflections;
+import org.opendaylight.mdsal.common.api.PostCanCommitStep;
+import org.opendaylight.mdsal.dom.api.DOMDataTreeCandidate;
+import org.opendaylight.sfc.provider.validators.util.ValidationConstants;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.common.rev151017.SfName;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.common.rev151017.SfcName;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.common.rev151017.SfpName;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sfp.rev140701.ServiceFunctionPaths;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sfp.rev140701.service.function.paths.ServiceFunctionPath;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sfp.rev140701.service.function.paths.ServiceFunctionPathBuilder;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sfp.rev140701.service.function.paths.ServiceFunctionPathKey;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sfp.rev140701.service.function.paths.service.function.path.ServicePathHopBuilder;
+import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidateNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.ModificationType;
+import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+
+/**
+ * Tests the SFP validation cohort with SFP candidates serialized by a binding
+ * codec of its own. The validator is mocked.
+ */
+public class ServiceFunctionPathCohortTest {
+
+    private static final int CANDIDATE_COUNT = 100;
+
+    static SchemaContext schemaContext;
+    private static BindingNormalizedNodeCodecRegistry codecRegistry;
+
+    private ServiceFunctionPathValidator sfpv;
+    private ServiceFunctionPathCohort cohort;
+
+    @BeforeClass
+    public static void setUpCodec() {
+        ModuleInfoBackedContext moduleContext = ModuleInfoBackedContext.create();
+        moduleContext.addModuleInfos(BindingReflections.loadModuleInfos());
+        schemaContext = moduleContext.tryToCreateSchemaContext().get();
+        codecRegistry = new BindingNormalizedNodeCodecRegistry(
+                StreamWriterGenerator.create(JavassistUtils.forClassPool(ClassPool.getDefault())));
+        codecRegistry.onBindingRuntimeContextUpdated(BindingRuntimeContext.create(moduleContext, schemaContext));
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        sfpv = mock(ServiceFunctionPathValidator.class);
+        when(sfpv.validateServiceFunctionPaths(any())).thenReturn(true);
+        cohort = new ServiceFunctionPathCohort(sfpv);
+    }
+
+    @Test
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    public void canCommitValidatesModifiedSfps() throws Exception {
+        DOMDataTreeCandidate candidate = buildCandidate(Arrays.asList(
+                buildSfpNode(ModificationType.WRITE, buildSfp(1)),
+                buildSfpNode(ModificationType.SUBTREE_MODIFIED, buildSfp(2)),
+                buildSfpNode(ModificationType.UNMODIFIED, buildSfp(3)),
+                buildSfpNode(ModificationType.DELETE, null)));
+
+        assertSame(PostCanCommitStep.NOOP_SUCCESSFUL_FUTURE,
+                cohort.canCommit("tx", schemaContext, Collections.singletonList(candidate)));
+
+        ArgumentCaptor<Collection> sfps = ArgumentCaptor.forClass(Collection.class);
+        verify(sfpv).validateServiceFunctionPaths(sfps.capture());
+        assertEquals(Arrays.asList("SFP-1", "SFP-2"), ((Collection<ServiceFunctionPath>) sfps.getValue()).stream()
+                .map(sfp -> sfp.getName().getValue()).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void canCommitFailsOnInvalidSfp() throws Exception {
+        when(sfpv.validateServiceFunctionPaths(any())).thenReturn(false);
+        DOMDataTreeCandidate candidate = buildCandidate(
+                Collections.singletonList(buildSfpNode(ModificationType.WRITE, buildSfp(1))));
+
+        assertSame(ValidationConstants.FAILED_CAN_COMMIT_SFP_FUTURE,
+                cohort.canCommit("tx", schemaContext, Collections.singletonList(candidate)));
+    }
+
+    @Test
+    @SuppressWarnings("rawtypes")
+    public void canCommitValidatesAllSfpsOfATransactionAtOnce() throws Exception {
+        List<DataTreeCandidateNode> sfpNodes = new ArrayList<>();
+        List<Collection<DOMDataTreeCandidate>> singleCandidates = new ArrayList<>();
+        for (int i = 0; i < CANDIDATE_COUNT; i++) {
+            DataTreeCandidateNode sfpNode = buildSfpNode(ModificationType.WRITE, buildSfp(i));
+            sfpNodes.add(sfpNode);
+            singleCandidates.add(Collections.singletonList(buildCandidate(Collections.singletonList(sfpNode))));
+        }
+        Collection<DOMDataTreeCandidate> bulkCandidates = Collections.singletonList(buildCandidate(sfpNodes));
+
+        // one candidate per transaction
+        for (Collection<DOMDataTreeCandidate> candidates : singleCandidates) {
+            cohort.canCommit("tx", schemaContext, candidates);
+        }
+        // all the candidates in one transaction
+        cohort.canCommit("tx-bulk", schemaContext, bulkCandidates);
+
+        ArgumentCaptor<Collection> sfps = ArgumentCaptor.forClass(Collection.class);
+        verify(sfpv, times(CANDIDATE_COUNT + 1)).validateServiceFunctionPaths(sfps.capture());
+        assertEquals(CANDIDATE_COUNT, sfps.getValue().size());
+    }
+
+    static DOMDataTreeCandidate buildCandidate(Collection<DataTreeCandidateNode> sfpNodes) {
+        DataTreeCandidateNode root = mock(DataTreeCandidateNode.class);
+        when(root.getModificationType()).thenReturn(ModificationType.SUBTREE_MODIFIED);
+        when(root.getChildNodes()).thenReturn(sfpNodes);
+        DOMDataTreeCandidate candidate = mock(DOMDataTreeCandidate.class);
+        when(candidate.getRootNode()).thenReturn(root);
+        return candidate;
+    }
+
+    static DataTreeCandidateNode buildSfpNode(ModificationType modificationType, ServiceFunctionPath sfp) {
+        DataTreeCandidateNode sfpNode = mock(DataTreeCandidateNode.class);
+        when(sfpNode.getModificationType()).thenReturn(modificationType);
+        if (sfp == null) {
+            doReturn(Optional.empty()).when(sfpNode).getDataAfter();
+        } else {
+            InstanceIdentifier<ServiceFunctionPath> sfpIid = InstanceIdentifier.create(ServiceFunctionPaths.class)
+                    .child(ServiceFunctionPath.class, sfp.key());
+            NormalizedNode<?, ?> sfpData = codecRegistry.toNormalizedNode(sfpIid, sfp).getValue();
+            doReturn(Optional.of(sfpData)).when(sfpNode).getDataAfter();
+        }
+        return sfpNode;
+    }
+
+    static ServiceFunctionPath buildSfp(int index) {
+        SfpName sfpName = new SfpName("SFP-" + index);
+        return new ServiceFunctionPathBuilder()
+                .setName(sfpName)
+                .withKey(new ServiceFunctionPathKey(sfpName))
+                .setServiceChainName(new SfcName("SFC-" + index))
+                .setServicePathHop(Arrays.asList(
+                        new ServicePathHopBuilder().setHopNumber((short) 0).setServiceFunctionName(new SfName("SF-1"))
+                                .build(),
+                        new ServicePathHopBuilder().setHopNumber((short) 1).setServiceFunctionName(new SfName("SF-2"))
+                                .build()))
+                .build();
+    }
+}
@@ -8,14 +8,22 @@
 
 package org.opendaylight.sfc.renderers.openflow;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
 import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import org.opendaylight.controller.md.sal.binding.api.DataBroker;
+import org.opendaylight.controller.md.sal.common.api.data.LogicalDatastoreType;
 import org.opendaylight.controller.sal.binding.api.NotificationProviderService;
+import org.opendaylight.infrautils.utils.concurrent.Executors;
 import org.opendaylight.mdsal.binding.api.RpcConsumerRegistry;
+import org.opendaylight.sfc.provider.api.SfcDataStoreAPI;
 import org.opendaylight.sfc.renderers.openflow.listeners.SfcOfRendererDataListener;
 import org.opendaylight.sfc.renderers.openflow.listeners.SfcOfRspDataListener;
+import org.opendaylight.sfc.renderers.openflow.listeners.SfcOfSfLoadDataListener;
 import org.opendaylight.sfc.renderers.openflow.listeners.SfcOfSfgDataListener;
 import org.opendaylight.sfc.renderers.openflow.openflow.SfcIpv4PacketInHandler;
 import org.opendaylight.sfc.renderers.openflow.openflow.SfcOfFlowProgrammerImpl;
@@ -24,8 +32,14 @@ import org.opendaylight.sfc.renderers.openflow.processors.SfcOfRspProcessor;
 import org.opendaylight.sfc.renderers.openflow.utils.SfcOfBaseProviderUtils;
 import org.opendaylight.sfc.renderers.openflow.utils.SfcOfProviderUtils;
 import org.opendaylight.sfc.renderers.openflow.utils.SfcSynchronizer;
+import org.opendaylight.sfc.util.openflow.writer.SfcOfFlowReconciler;
 import org.opendaylight.sfc.util.openflow.writer.SfcOfFlowWriterImpl;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.rsp.rev140701.RenderedServicePaths;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.rsp.rev140701.rendered.service.paths.RenderedServicePath;
+import org.opendaylight.yang.gen.v1.urn.ericsson.params.xml.ns.yang.sfc.of.renderer.rev151123.SfcOfRendererConfig;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.service.rev130819.SalFlowService;
 import org.opendaylight.yangtools.concepts.Registration;
+import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -36,13 +50,18 @@ import org.slf4j.LoggerFactory;
 public final class SfcOfRenderer implements AutoCloseable {
     private static final Logger LOG = LoggerFactory.getLogger(SfcOfRenderer.class);
 
+    // Number of workers rendering RSPs in parallel
+    private static final int RSP_RENDER_WORKERS = 4;
+
     private final SfcOfRspProcessor sfcOfRspProcessor;
     private final SfcOfFlowProgrammerInterface sfcOfFlowProgrammer;
     private final Registration pktInRegistration;
     private final SfcSynchronizer sfcSynchronizer;
+    private final ExecutorService reconcileExecutor;
 
     private SfcOfRspDataListener openflowRspDataListener;
     private SfcOfSfgDataListener sfcOfSfgDataListener;
+    private SfcOfSfLoadDataListener sfcOfSfLoadDataListener;
     private SfcIpv4PacketInHandler packetInHandler;
     private SfcOfRendererDataListener sfcOfRendererListener;
 
@@ -54,14 +73,21 @@ public final class SfcOfRenderer implements AutoCloseable {
         this.sfcSynchronizer = new SfcSynchronizer();
         SfcOfFlowWriterImpl sfcofflowwriterimpl = new SfcOfFlowWriterImpl();
         sfcofflowwriterimpl.setDataProvider(dataBroker);
+        sfcofflowwriterimpl.setSalFlowService(rpcRegistry.getRpcService(SalFlowService.class));
         this.sfcOfFlowProgrammer = new SfcOfFlowProgrammerImpl(sfcofflowwriterimpl);
         SfcOfBaseProviderUtils sfcOfProviderUtils = new SfcOfProviderUtils();
         this.sfcOfRspProcessor = new SfcOfRspProcessor(sfcOfFlowProgrammer, sfcOfProviderUtils, sfcSynchronizer,
-                rpcRegistry, dataBroker);
+                rpcRegistry, dataBroker, RSP_RENDER_WORKERS);
 
+        this.sfcOfRendererListener = new SfcOfRendererDataListener(dataBroker, sfcOfFlowProgrammer, sfcSynchronizer);
+        // The flows of the existing RSPs are reconciled in the background, the
+        // RSPs notified meanwhile are processed once the reconciliation completed
+        this.reconcileExecutor = Executors.newSingleThreadExecutor("SfcOfFlowReconciler", LOG);
+        sfcOfRspProcessor.reconcileRenderedServicePathsAsync(this::readRenderedServicePaths,
+                new SfcOfFlowReconciler(sfcofflowwriterimpl), reconcileExecutor);
         this.openflowRspDataListener = new SfcOfRspDataListener(dataBroker, sfcOfRspProcessor);
         this.sfcOfSfgDataListener = new SfcOfSfgDataListener(dataBroker, sfcOfFlowProgrammer, sfcOfProviderUtils);
-        this.sfcOfRendererListener = new SfcOfRendererDataListener(dataBroker, sfcOfFlowProgrammer, sfcSynchronizer);
+        this.sfcOfSfLoadDataListener = new SfcOfSfLoadDataListener(dataBroker, sfcOfSfgDataListener);
 
         this.packetInHandler = new SfcIpv4PacketInHandler((SfcOfFlowProgrammerImpl) sfcOfFlowProgrammer);
         this.pktInRegistration = notificationService.registerNotificationListener(packetInHandler);
@@ -69,6 +95,27 @@ public final class SfcOfRenderer implements AutoCloseable {
         LOG.info("SfcOfRenderer successfully started the SfcOfRenderer plugin");
     }
 
+    /**
+     * Apply the configured table offsets and read the existing RSPs, whose
+     * flows are reconciled with the flows installed in the CONFIGURATION
+     * inventory.
+     *
+     * @return the existing RSPs
+     */
+    private Collection<RenderedServicePath> readRenderedServicePaths() {
+        SfcOfRendererConfig config = SfcDataStoreAPI.readTransactionAPI(
+                InstanceIdentifier.create(SfcOfRendererConfig.class), LogicalDatastoreType.CONFIGURATION);
+        if (config != null) {
+            sfcOfRendererListener.applyConfig(config);
+        }
+
+        RenderedServicePaths rsps = SfcDataStoreAPI.readTransactionAPI(
+                InstanceIdentifier.create(RenderedServicePaths.class), LogicalDatastoreType.OPERATIONAL);
+        List<RenderedServicePath> rspList = rsps == null || rsps.getRenderedServicePath() == null
+                ? Collections.emptyList() : rsps.getRenderedServicePath();
+        return rspList;
+    }
+
     /**
      * Implemented from the AutoCloseable interface.
      */
@@ -77,13 +124,18 @@ public final class SfcOfRenderer implements AutoCloseable {
     public void close() throws Exception {
         LOG.info("SfcOfRenderer auto-closed");
         try {
+            openflowRspDataListener.close();
+            sfcOfSfLoadDataListener.closeDataChangeListener();
+            sfcOfSfgDataListener.closeDataChangeListener();
+            reconcileExecutor.shutdown();
+            // let the pending RSPs be rendered before shutting down the writer
+            sfcOfRspProcessor.close();
             if (sfcOfFlowProgrammer != null) {
                 sfcOfFlowProgrammer.shutdown();
             }
             if (pktInRegistration != null) {
                 pktInRegistration.close();
             }
-            openflowRspDataListener.close();
         } finally {
             openflowRspDataListener = null;
         }
@@ -74,23 +74,53 @@ public class SfcOfRendererDataListener extends SfcOfAbstractDataListener<SfcOfRe
      *            the configuration details
      */
     private void processConfig(SfcOfRendererConfig config) {
-        if (verifyMaxTableId(config.getSfcOfTableOffset(), this.sfcOfFlowProgrammer.getMaxTableOffset()) == null) {
+        if (!isValidConfig(config)) {
             return;
         }
 
+        UpdateOpenFlowTableOffsets updateThread = new UpdateOpenFlowTableOffsets(config.getSfcOfTableOffset(),
+                config.getSfcOfAppEgressTableOffset());
+
+        threadExecutor.execute(updateThread);
+    }
+
+    /**
+     * Apply an OpenFlow Renderer configuration in the calling thread, used on
+     * startup so the table offsets are known before the flows are reconciled.
+     *
+     * @param config
+     *            the configuration details
+     */
+    public void applyConfig(SfcOfRendererConfig config) {
+        if (isValidConfig(config)) {
+            new UpdateOpenFlowTableOffsets(config.getSfcOfTableOffset(), config.getSfcOfAppEgressTableOffset()).run();
+        }
+    }
+
+    private boolean isValidConfig(SfcOfRendererConfig config) {
+        // The config may only set the SF group options
+        if (config.getSfcOfTableOffset() == null || config.getSfcOfAppEgressTableOffset() == null) {
+            LOG.debug("No SFC OF table offsets in config {}", config);
+            return false;
+        }
+
+        if (verifyMaxTableId(config.getSfcOfTableOffset(), this.sfcOfFlowProgrammer.getMaxTableOffset()) == null) {
+            return false;
+        }
+
         if (verifyMaxTableId(config.getSfcOfAppEgressTableOffset(), (short) 0) == null) {
-            return;
+            return false;
         }
 
         if (config.getSfcOfTableOffset() < MAGIC_NUMBER_IN_SFCOFLOWPROGRAMMERIMPL) {
             LOG.error("Error SfcOfTableOffset value [{}]", config.getSfcOfTableOffset());
-            return;
+            return false;
         }
 
         // Cant set the egress table negative
         if (config.getSfcOfAppEgressTableOffset() < 0) {
             LOG.error("Error SfcOfAppEgressTableOffset value [{}]", config.getSfcOfAppEgressTableOffset());
-            return;
+            return false;
         }
 
         // Check that the egress value is not set in the middle of the SFC table
@@ -105,13 +135,10 @@ public class SfcOfRendererDataListener extends SfcOfAbstractDataListener<SfcOfRe
                     config.getSfcOfAppEgressTableOffset(), config.getSfcOfTableOffset(),
                     config.getSfcOfTableOffset() + this.sfcOfFlowProgrammer.getMaxTableOffset());
 
-            return;
+            return false;
         }
 
-        UpdateOpenFlowTableOffsets updateThread = new UpdateOpenFlowTableOffsets(config.getSfcOfTableOffset(),
-                config.getSfcOfAppEgressTableOffset());
-
-        threadExecutor.execute(updateThread);
+        return true;
     }
 
     /**
@@ -9,6 +9,7 @@
 package org.opendaylight.sfc.renderers.openflow.listeners;
 
 import java.util.Collection;
+import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
 import org.opendaylight.controller.md.sal.binding.api.DataBroker;
 import org.opendaylight.controller.md.sal.binding.api.DataObjectModification;
@@ -19,6 +20,9 @@ import org.opendaylight.controller.md.sal.common.api.data.LogicalDatastoreType;
 import org.opendaylight.sfc.provider.api.SfcInstanceIdentifiers;
 import org.opendaylight.sfc.renderers.openflow.processors.SfcOfRspProcessor;
 import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.rsp.rev140701.rendered.service.paths.RenderedServicePath;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.rsp.rev140701.rendered.service.paths.RenderedServicePathBuilder;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.rsp.rev140701.rendered.service.paths.rendered.service.path.RenderedServicePathHopBuilder;
+import org.opendaylight.yang.gen.v1.urn.ericsson.params.xml.ns.yang.sfc.sff.logical.rev160620.RspLogicalSffAugmentation;
 import org.opendaylight.yangtools.concepts.ListenerRegistration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -53,12 +57,20 @@ public class SfcOfRspDataListener implements DataTreeChangeListener<RenderedServ
                     if (rootNode.getDataBefore() == null && rootNode.getDataAfter() != null) {
                         LOG.info("SfcOfRspDataListener.onDataTreeChanged create RSP {}", rootNode.getDataAfter());
                         sfcOfRspProcessor.processRenderedServicePath(rootNode.getDataAfter());
-                    } else if (rootNode.getDataAfter().equals(rootNode.getDataBefore())) {
+                    } else if (rootNode.getDataAfter() != null && isRenderingUpdated(rootNode.getDataBefore(),
+                            rootNode.getDataAfter())) {
                         LOG.info("SfcOfRspDataListener.onDataTreeChanged update RSP Before:{} After:{}",
-                                rootNode.getDataAfter(), rootNode.getDataBefore());
-                        // This clause supports re-rendering of unmodified RSPs
-                        sfcOfRspProcessor.deleteRenderedServicePath(rootNode.getDataBefore());
-                        sfcOfRspProcessor.processRenderedServicePath(rootNode.getDataAfter());
+                                rootNode.getDataBefore(), rootNode.getDataAfter());
+                        // This clause supports re-rendering of unmodified RSPs,
+                        // and of RSPs whose hops were repaired in place after
+                        // an SF or SFF update. Only the flows that changed are
+                        // rewritten, the flows no longer rendered are deleted
+                        sfcOfRspProcessor.updateRenderedServicePath(rootNode.getDataAfter());
+                    } else if (rootNode.getDataAfter() != null) {
+                        // The logical SFF dpn ids written in the hops by the
+                        // renderer itself do not need a re-render
+                        LOG.debug("SfcOfRspDataListener.onDataTreeChanged logical SFF info of RSP {} updated",
+                                rootNode.getDataAfter().getName().getValue());
                     }
                     break;
                 case DELETE:
@@ -73,6 +85,39 @@ public class SfcOfRspDataListener implements DataTreeChangeListener<RenderedServ
         }
     }
 
+    /**
+     * Check whether an RSP update has to be rendered: either the RSP is
+     * unmodified and is re-rendered on request, or its path attributes or
+     * hops, other than the logical SFF information, changed.
+     *
+     * @param before
+     *            the RSP before the update
+     * @param after
+     *            the RSP after the update
+     * @return true if the RSP has to be rendered, false otherwise
+     */
+    private static boolean isRenderingUpdated(RenderedServicePath before, RenderedServicePath after) {
+        return after.equals(before) || !withoutLogicalSffInfo(after).equals(withoutLogicalSffInfo(before));
+    }
+
+    /**
+     * Get a copy of an RSP without the logical SFF information the renderer
+     * writes in its hops.
+     *
+     * @param rsp
+     *            the RSP
+     * @return the RSP without the logical SFF augmentation of its hops
+     */
+    private static RenderedServicePath withoutLogicalSffInfo(RenderedServicePath rsp) {
+        if (rsp.getRenderedServicePathHop() == null) {
+            return rsp;
+        }
+        return new RenderedServicePathBuilder(rsp).setRenderedServicePathHop(rsp.getRenderedServicePathHop().stream()
+                .map(hop -> new RenderedServicePathHopBuilder(hop).removeAugmentation(RspLogicalSffAugmentation.class)
+                        .build())
+                .collect(Collectors.toList())).build();
+    }
+
     @Override
     public void close() throws Exception {
         rspListenerRegistration.close();
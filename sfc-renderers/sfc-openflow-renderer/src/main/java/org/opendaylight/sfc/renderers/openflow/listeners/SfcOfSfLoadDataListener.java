@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2018 Ericsson Inc. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.sfc.renderers.openflow.listeners;
+
+import java.util.Collection;
+import org.opendaylight.controller.md.sal.binding.api.DataBroker;
+import org.opendaylight.controller.md.sal.binding.api.DataObjectModification;
+import org.opendaylight.controller.md.sal.binding.api.DataTreeModification;
+import org.opendaylight.controller.md.sal.common.api.data.LogicalDatastoreType;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.common.rev151017.SfName;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sf.rev140701.ServiceFunctionsState;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sf.rev140701.service.functions.state.ServiceFunctionState;
+import org.opendaylight.yang.gen.v1.urn.intel.params.xml.ns.sf.desc.mon.rev141201.ServiceFunctionState1;
+import org.opendaylight.yang.gen.v1.urn.intel.params.xml.ns.sf.desc.mon.rev141201.service.functions.state.service.function.state.SfcSfDescMon;
+import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class listens to the SF description and monitoring information, and
+ * re-weights the buckets of the SF groups programmed by the SFG listener.
+ */
+public class SfcOfSfLoadDataListener extends SfcOfAbstractDataListener<SfcSfDescMon> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SfcOfSfLoadDataListener.class);
+
+    private final SfcOfSfgDataListener sfcOfSfgDataListener;
+
+    public SfcOfSfLoadDataListener(DataBroker dataBroker, SfcOfSfgDataListener sfcOfSfgDataListener) {
+        this.sfcOfSfgDataListener = sfcOfSfgDataListener;
+
+        registerAsDataChangeListener(dataBroker, LogicalDatastoreType.OPERATIONAL,
+                InstanceIdentifier.create(ServiceFunctionsState.class).child(ServiceFunctionState.class)
+                        .augmentation(ServiceFunctionState1.class).child(SfcSfDescMon.class));
+    }
+
+    @Override
+    public void onDataTreeChanged(Collection<DataTreeModification<SfcSfDescMon>> changes) {
+        for (DataTreeModification<SfcSfDescMon> change : changes) {
+            DataObjectModification<SfcSfDescMon> rootNode = change.getRootNode();
+            SfName sfName = change.getRootPath().getRootIdentifier().firstKeyOf(ServiceFunctionState.class)
+                    .getName();
+            switch (rootNode.getModificationType()) {
+                case SUBTREE_MODIFIED:
+                case WRITE:
+                    LOG.debug("SfcOfSfLoadDataListener.onDataTreeChanged update SF {} load", sfName);
+                    sfcOfSfgDataListener.updateServiceFunctionLoad(sfName, rootNode.getDataAfter());
+                    break;
+                case DELETE:
+                    LOG.debug("SfcOfSfLoadDataListener.onDataTreeChanged remove SF {} load", sfName);
+                    sfcOfSfgDataListener.updateServiceFunctionLoad(sfName, null);
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+}
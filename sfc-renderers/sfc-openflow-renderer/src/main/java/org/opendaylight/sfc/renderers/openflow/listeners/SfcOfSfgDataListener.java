@@ -10,17 +10,22 @@ package org.opendaylight.sfc.renderers.openflow.listeners;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import org.opendaylight.controller.md.sal.binding.api.DataBroker;
 import org.opendaylight.controller.md.sal.binding.api.DataObjectModification;
 import org.opendaylight.controller.md.sal.binding.api.DataTreeModification;
 import org.opendaylight.controller.md.sal.common.api.data.LogicalDatastoreType;
+import org.opendaylight.sfc.provider.api.SfcDataStoreAPI;
 import org.opendaylight.sfc.provider.api.SfcInstanceIdentifiers;
 import org.opendaylight.sfc.provider.api.SfcProviderServiceForwarderAPI;
 import org.opendaylight.sfc.provider.api.SfcProviderServiceFunctionAPI;
 import org.opendaylight.sfc.provider.api.SfcProviderServiceFunctionGroupAlgAPI;
 import org.opendaylight.sfc.renderers.openflow.openflow.SfcOfFlowProgrammerInterface;
 import org.opendaylight.sfc.renderers.openflow.sfg.GroupBucketInfo;
+import org.opendaylight.sfc.renderers.openflow.sfg.GroupBucketPolicy;
 import org.opendaylight.sfc.renderers.openflow.utils.SfcOfBaseProviderUtils;
 import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.common.rev151017.SfName;
 import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.common.rev151017.SffName;
@@ -36,7 +41,11 @@ import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sl.rev14070
 import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sl.rev140701.data.plane.locator.LocatorType;
 import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sl.rev140701.data.plane.locator.locator.type.Ip;
 import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sl.rev140701.data.plane.locator.locator.type.Mac;
+import org.opendaylight.yang.gen.v1.urn.ericsson.params.xml.ns.yang.sfc.of.renderer.rev151123.SfcOfRendererConfig;
+import org.opendaylight.yang.gen.v1.urn.intel.params.xml.ns.sf.desc.mon.rev141201.service.functions.state.service.function.state.SfcSfDescMon;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.group.types.rev131018.GroupTypes;
 import org.opendaylight.yangtools.yang.binding.DataContainer;
+import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -44,6 +53,12 @@ import org.slf4j.LoggerFactory;
  * This class has will be notified when changes are mad to Service function
  * group.
  *
+ * <p>
+ * The buckets of the select groups are weighted with the capacity and the load
+ * of their SFs, see {@link GroupBucketPolicy}, and re-weighted in place when
+ * the load of a SF changes. With the sfc-of-sfg-consistent-hash renderer
+ * option, the SFs keep their bucket when the group changes.
+ *
  * @author Shlomi Alfasi (shlomi.alfasi@contextream.com)
  * @version 0.1
  * @since 2015-18-04
@@ -53,8 +68,15 @@ public class SfcOfSfgDataListener extends SfcOfAbstractDataListener<ServiceFunct
     private final SfcOfFlowProgrammerInterface sfcOfFlowProgrammer;
     private final SfcOfBaseProviderUtils sfcOfProviderUtils;
 
+    /* Guarded by this */
+    private final Map<String, SfcSfDescMon> sfDescMons = new HashMap<>();
+    private final Map<String, ProgrammedGroup> programmedGroups = new HashMap<>();
+
     private static final Logger LOG = LoggerFactory.getLogger(SfcOfSfgDataListener.class);
 
+    // Smallest change of a bucket weight written to the switch on a load change
+    static final int WEIGHT_HYSTERESIS = 5;
+
     public SfcOfSfgDataListener(DataBroker dataBroker, SfcOfFlowProgrammerInterface sfcOfFlowProgrammer,
             SfcOfBaseProviderUtils sfcOfProviderUtils) {
         this.sfcOfFlowProgrammer = sfcOfFlowProgrammer;
@@ -86,15 +108,54 @@ public class SfcOfSfgDataListener extends SfcOfAbstractDataListener<ServiceFunct
         }
     }
 
-    private void buildGroup(ServiceFunctionGroup sfg, boolean isAdd) {
-        List<SfcServiceFunction> sfs = sfg.getSfcServiceFunction();
-        SfName sfName = new SfName(sfs.get(0).getName());
-        ServiceFunction sf = SfcProviderServiceFunctionAPI.readServiceFunction(sfName);
+    /**
+     * Update the description and monitoring information of a SF, and the
+     * weights of its buckets in the select groups programmed so far. Only the
+     * weights that changed by at least {@link #WEIGHT_HYSTERESIS} are written,
+     * the groups are not rebuilt.
+     *
+     * @param sfName
+     *            the SF name
+     * @param sfDescMon
+     *            the description and monitoring information, null if it was
+     *            removed
+     */
+    public synchronized void updateServiceFunctionLoad(SfName sfName, SfcSfDescMon sfDescMon) {
+        sfDescMons.put(sfName.getValue(), sfDescMon);
+        for (ProgrammedGroup group : programmedGroups.values()) {
+            if (!group.isSelect() || !group.slots.contains(sfName.getValue())) {
+                continue;
+            }
+            Map<Long, Integer> bucketWeights = weighBuckets(group, WEIGHT_HYSTERESIS);
+            if (!bucketWeights.isEmpty()) {
+                LOG.debug("updateServiceFunctionLoad: SF {} load changed, new weights of group {}: {}", sfName,
+                        group.groupId, bucketWeights);
+                sfcOfFlowProgrammer.configureGroupBucketWeights(group.nodeName, group.groupId, bucketWeights);
+            }
+        }
+    }
+
+    private synchronized void buildGroup(ServiceFunctionGroup sfg, boolean isAdd) {
+        ProgrammedGroup previous = isAdd ? programmedGroups.get(sfg.getName())
+                : programmedGroups.remove(sfg.getName());
+        if (!isAdd && previous != null) {
+            // the SFs and the SFF may be gone already
+            removeGroup(sfg.getName(), previous);
+            return;
+        }
+
+        Map<String, ServiceFunction> sfs = new HashMap<>();
+        List<String> sfNames = new ArrayList<>();
+        for (SfcServiceFunction sfcServiceFunction : sfg.getSfcServiceFunction()) {
+            SfName sfName = sfcServiceFunction.getName();
+            sfNames.add(sfName.getValue());
+            sfs.put(sfName.getValue(), SfcProviderServiceFunctionAPI.readServiceFunction(sfName));
+        }
         // assuming all SF's have the same SFF
         // should use the ovs id
-        SffName sffName = sf.getSfDataPlaneLocator().get(0).getServiceFunctionForwarder();
-        String sffNodeId;
-        sffNodeId = getSffOpenFlowNodeName(sffName);
+        SffName sffName = sfs.get(sfNames.get(0)).getSfDataPlaneLocator().get(0).getServiceFunctionForwarder();
+        ServiceFunctionForwarder sff = SfcProviderServiceForwarderAPI.readServiceFunctionForwarder(sffName);
+        String sffNodeId = sfcOfProviderUtils.getSffOpenFlowNodeName(sff);
 
         if (sffNodeId == null) {
             LOG.warn("failed to find switch configuration: sffName: {}- \naborting", sffName);
@@ -103,22 +164,98 @@ public class SfcOfSfgDataListener extends SfcOfAbstractDataListener<ServiceFunct
 
         ServiceFunctionGroupAlgorithm algorithm = SfcProviderServiceFunctionGroupAlgAPI
                 .readServiceFunctionGroupAlg(sfg.getAlgorithm());
+        int groupType = algorithm.getAlgorithmType().getIntValue();
 
-        List<GroupBucketInfo> bucketsInfo = new ArrayList<>();
-
-        ServiceFunctionForwarder sff = SfcProviderServiceForwarderAPI.readServiceFunctionForwarder(sffName);
+        List<String> slots = sfNames;
+        if (isAdd && groupType == GroupTypes.GroupSelect.getIntValue() && isConsistentHash()) {
+            slots = GroupBucketPolicy.assignSlots(previous == null ? Collections.emptyList() : previous.slots,
+                    sfNames);
+        }
 
-        int index = 0;
-        for (SfcServiceFunction sfcServiceFunction : sfg.getSfcServiceFunction()) {
-            sfName = new SfName(sfcServiceFunction.getName());
-            sf = SfcProviderServiceFunctionAPI.readServiceFunction(sfName);
-            ServiceFunctionDictionary sffSfDict = sfcOfProviderUtils.getSffSfDictionary(sff, sfName);
+        List<GroupBucketInfo> bucketsInfo = new ArrayList<>();
+        for (int index = 0; index < slots.size(); index++) {
+            String sfName = slots.get(index);
+            if (sfName == null) {
+                // a free slot keeps the bucket of its last SF, with no weight
+                bucketsInfo.add(previous.bucketsInfo.get(index));
+                continue;
+            }
+            ServiceFunctionDictionary sffSfDict = sfcOfProviderUtils.getSffSfDictionary(sff, new SfName(sfName));
             String outPort = sfcOfProviderUtils.getDictPortInfoPort(sff, sffSfDict);
-            bucketsInfo.add(buildBucket(sf, outPort, index));
-            index++;
+            bucketsInfo.add(buildBucket(sfs.get(sfName), outPort, index));
+        }
+
+        ProgrammedGroup group = new ProgrammedGroup(sffName.getValue(), sffNodeId, sfg.getGroupId(), groupType,
+                slots, bucketsInfo);
+        if (isAdd && group.isSelect()) {
+            weighBuckets(group, 0);
+        }
+        if (previous != null && (!previous.nodeName.equals(group.nodeName) || previous.groupId != group.groupId)) {
+            removeGroup(sfg.getName(), previous);
         }
         this.sfcOfFlowProgrammer.configureGroup(sffName.getValue(), sffNodeId, sfg.getName(), sfg.getGroupId(),
-                algorithm.getAlgorithmType().getIntValue(), bucketsInfo, isAdd);
+                groupType, bucketsInfo, isAdd);
+        if (isAdd) {
+            programmedGroups.put(sfg.getName(), group);
+        }
+    }
+
+    private void removeGroup(String sfgName, ProgrammedGroup group) {
+        this.sfcOfFlowProgrammer.configureGroup(group.sffName, group.nodeName, sfgName, group.groupId,
+                group.groupType, group.bucketsInfo, false);
+    }
+
+    /**
+     * Weigh the buckets of a select group with the load of their SFs.
+     *
+     * @param group
+     *            the group
+     * @param hysteresis
+     *            the smallest change of the weight of a bucket applied
+     * @return the new weights, by bucket id, of the buckets whose weight
+     *         changed
+     */
+    private Map<Long, Integer> weighBuckets(ProgrammedGroup group, int hysteresis) {
+        List<SfcSfDescMon> groupSfDescMons = new ArrayList<>();
+        List<GroupBucketInfo> sfBucketsInfo = new ArrayList<>();
+        for (int index = 0; index < group.slots.size(); index++) {
+            String sfName = group.slots.get(index);
+            if (sfName == null) {
+                group.bucketsInfo.get(index).setWeight(GroupBucketPolicy.FREE_SLOT_WEIGHT);
+            } else {
+                groupSfDescMons.add(getSfDescMon(sfName));
+                sfBucketsInfo.add(group.bucketsInfo.get(index));
+            }
+        }
+
+        List<Integer> weights = GroupBucketPolicy.getWeights(groupSfDescMons);
+        Map<Long, Integer> bucketWeights = new HashMap<>();
+        for (int i = 0; i < sfBucketsInfo.size(); i++) {
+            GroupBucketInfo bucketInfo = sfBucketsInfo.get(i);
+            Integer current = bucketInfo.getWeight();
+            int weight = weights.get(i);
+            if (current == null || current != weight && Math.abs(current - weight) >= hysteresis) {
+                bucketInfo.setWeight(weight);
+                bucketWeights.put((long) bucketInfo.getIndex(), weight);
+            }
+        }
+        return bucketWeights;
+    }
+
+    // The SFs not known yet are read once, afterwards they are updated by the
+    // SF load listener
+    private SfcSfDescMon getSfDescMon(String sfName) {
+        if (!sfDescMons.containsKey(sfName)) {
+            sfDescMons.put(sfName, SfcProviderServiceFunctionAPI.readServiceFunctionDescriptionMonitor(
+                    new SfName(sfName)));
+        }
+        return sfDescMons.get(sfName);
+    }
+
+    private boolean isConsistentHash() {
+        SfcOfRendererConfig config = SfcDataStoreAPI.readTransactionAPI(
+                InstanceIdentifier.create(SfcOfRendererConfig.class), LogicalDatastoreType.CONFIGURATION);
+        return config != null && Boolean.TRUE.equals(config.isSfcOfSfgConsistentHash());
     }
 
     private GroupBucketInfo buildBucket(ServiceFunction sf, String outPort, int index) {
@@ -160,8 +297,30 @@ public class SfcOfSfgDataListener extends SfcOfAbstractDataListener<ServiceFunct
         return sfIp;
     }
 
-    private String getSffOpenFlowNodeName(final SffName sffName) {
-        ServiceFunctionForwarder sff = SfcProviderServiceForwarderAPI.readServiceFunctionForwarder(sffName);
-        return sfcOfProviderUtils.getSffOpenFlowNodeName(sff);
+    /**
+     * A group as programmed on its switch.
+     */
+    private static final class ProgrammedGroup {
+        private final String sffName;
+        private final String nodeName;
+        private final long groupId;
+        private final int groupType;
+        // the SF name of each bucket, null for the free slots
+        private final List<String> slots;
+        private final List<GroupBucketInfo> bucketsInfo;
+
+        ProgrammedGroup(String sffName, String nodeName, long groupId, int groupType, List<String> slots,
+                List<GroupBucketInfo> bucketsInfo) {
+            this.sffName = sffName;
+            this.nodeName = nodeName;
+            this.groupId = groupId;
+            this.groupType = groupType;
+            this.slots = slots;
+            this.bucketsInfo = bucketsInfo;
+        }
+
+        boolean isSelect() {
+            return groupType == GroupTypes.GroupSelect.getIntValue();
+        }
     }
 }
@@ -0,0 +1,236 @@
+/*
+ * Copyright (c) 2018 Ericsson Inc. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.sfc.renderers.openflow.openflow;
+
+/**
+ * Buffer of the IPv4 src/dst address pairs already handled by the
+ * {@link SfcIpv4PacketInHandler}, so only the first PacketIn of a pair
+ * installs flows.
+ *
+ * <p>
+ * The pairs are packed into a long and stored in open addressing tables of
+ * primitive longs, split in segments with a lock each, so concurrent
+ * PacketIns only contend when they hash to the same segment. Each segment
+ * expires its entries with a timer wheel: every insertion is recorded in the
+ * slot of its tick, and the slots older than the buffer time are drained as
+ * time goes by, so no full scan of the buffer is ever needed. Apart from
+ * growing the tables, no objects are allocated per packet.
+ */
+public final class SfcIpv4PacketInBuffer {
+
+    private static final int SEGMENT_COUNT = 16;
+    private static final int WHEEL_SLOTS = 64;
+    private static final int INITIAL_SEGMENT_CAPACITY = 64;
+    private static final int INITIAL_SLOT_CAPACITY = 16;
+
+    private final Segment[] segments;
+    private final long maxBufferTime;
+    private final long tickMillis;
+    private final long timeoutTicks;
+    private final long startNanos;
+
+    /**
+     * Create an empty buffer.
+     *
+     * @param maxBufferTime
+     *            the time in milliseconds a src/dst pair stays buffered
+     */
+    public SfcIpv4PacketInBuffer(long maxBufferTime) {
+        this.maxBufferTime = Math.max(0, maxBufferTime);
+        // the wheel has to cover the buffer time plus the current tick
+        this.tickMillis = Math.max(1, (this.maxBufferTime + WHEEL_SLOTS - 3) / (WHEEL_SLOTS - 2));
+        this.timeoutTicks = (this.maxBufferTime + tickMillis - 1) / tickMillis;
+        this.startNanos = System.nanoTime();
+        this.segments = new Segment[SEGMENT_COUNT];
+        for (int i = 0; i < SEGMENT_COUNT; i++) {
+            segments[i] = new Segment();
+        }
+    }
+
+    public static long getKey(int srcIp, int dstIp) {
+        return (long) srcIp << 32 | dstIp & 0xFFFFFFFFL;
+    }
+
+    /**
+     * Decide if packets with the same src/dst IP have already been processed.
+     * If they haven't been processed, or if they were processed longer than
+     * the buffer time ago, store the pair so it will be considered processed.
+     *
+     * @param key
+     *            the src/dst pair, as returned by {@link #getKey(int, int)}
+     * @return True if the src/dst IP has already been processed, False
+     *         otherwise
+     */
+    public boolean bufferPktIn(long key) {
+        long hash = mix(key);
+        return segments[(int) (hash >>> 60) & SEGMENT_COUNT - 1].buffer(key, (int) hash, now());
+    }
+
+    /**
+     * Forget a src/dst pair, so its next packet is processed again.
+     *
+     * @param key
+     *            the src/dst pair, as returned by {@link #getKey(int, int)}
+     */
+    public void remove(long key) {
+        long hash = mix(key);
+        segments[(int) (hash >>> 60) & SEGMENT_COUNT - 1].remove(key, (int) hash);
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    public long getMaxBufferTime() {
+        return maxBufferTime;
+    }
+
+    // milliseconds since creation, never 0 so 0 can mark the empty entries
+    private long now() {
+        return (System.nanoTime() - startNanos) / 1000000L + 1;
+    }
+
+    private static long mix(long key) {
+        long hash = (key ^ key >>> 33) * 0xFF51AFD7ED558CCDL;
+        hash = (hash ^ hash >>> 33) * 0xC4CEB9FE1A85EC53L;
+        return hash ^ hash >>> 33;
+    }
+
+    private final class Segment {
+        private long[] keys = new long[INITIAL_SEGMENT_CAPACITY];
+        private long[] stamps = new long[INITIAL_SEGMENT_CAPACITY];
+        private int count;
+
+        private final long[][] slotKeys = new long[WHEEL_SLOTS][INITIAL_SLOT_CAPACITY];
+        private final int[] slotSizes = new int[WHEEL_SLOTS];
+        private long expiredTick = -1;
+
+        synchronized boolean buffer(long key, int hash, long now) {
+            expire(now);
+
+            int index = find(key, hash);
+            if (index >= 0) {
+                if (now - stamps[index] <= maxBufferTime) {
+                    return true;
+                }
+                // The entry is old, refresh it
+                stamps[index] = now;
+            } else {
+                if ((count + 1) * 2 > keys.length) {
+                    grow();
+                    index = find(key, hash);
+                }
+                index = -index - 1;
+                keys[index] = key;
+                stamps[index] = now;
+                count++;
+            }
+            addToWheel(key, now / tickMillis);
+
+            return false;
+        }
+
+        synchronized void remove(long key, int hash) {
+            int index = find(key, hash);
+            if (index >= 0) {
+                delete(index);
+            }
+        }
+
+        synchronized int size() {
+            return count;
+        }
+
+        // Returns the index of the key, or -(insertion index) - 1
+        private int find(long key, int hash) {
+            int mask = keys.length - 1;
+            int index = hash & mask;
+            while (stamps[index] != 0) {
+                if (keys[index] == key) {
+                    return index;
+                }
+                index = index + 1 & mask;
+            }
+            return -index - 1;
+        }
+
+        // Backward shift deletion, keeps the probe sequences without tombstones
+        private void delete(int index) {
+            int mask = keys.length - 1;
+            int hole = index;
+            int next = hole + 1 & mask;
+            while (stamps[next] != 0) {
+                int ideal = (int) mix(keys[next]) & mask;
+                if ((next - ideal & mask) >= (next - hole & mask)) {
+                    keys[hole] = keys[next];
+                    stamps[hole] = stamps[next];
+                    hole = next;
+                }
+                next = next + 1 & mask;
+            }
+            stamps[hole] = 0;
+            count--;
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            long[] oldStamps = stamps;
+            keys = new long[oldKeys.length * 2];
+            stamps = new long[oldStamps.length * 2];
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldStamps[i] != 0) {
+                    int index = -find(oldKeys[i], (int) mix(oldKeys[i])) - 1;
+                    keys[index] = oldKeys[i];
+                    stamps[index] = oldStamps[i];
+                }
+            }
+        }
+
+        private void addToWheel(long key, long tick) {
+            int slot = (int) (tick % WHEEL_SLOTS);
+            if (slotSizes[slot] == slotKeys[slot].length) {
+                long[] grown = new long[slotKeys[slot].length * 2];
+                System.arraycopy(slotKeys[slot], 0, grown, 0, slotSizes[slot]);
+                slotKeys[slot] = grown;
+            }
+            slotKeys[slot][slotSizes[slot]++] = key;
+        }
+
+        // Drain the slots whose entries are all older than the buffer time
+        private void expire(long now) {
+            long lastExpiredTick = now / tickMillis - timeoutTicks - 1;
+            if (lastExpiredTick <= expiredTick) {
+                return;
+            }
+            // After a long idle time, every slot only holds expired entries
+            long firstTick = Math.max(expiredTick + 1, lastExpiredTick - WHEEL_SLOTS + 1);
+            for (long tick = firstTick; tick <= lastExpiredTick; tick++) {
+                drainSlot((int) (tick % WHEEL_SLOTS), now);
+            }
+            expiredTick = lastExpiredTick;
+        }
+
+        private void drainSlot(int slot, long now) {
+            long[] slotKeyList = slotKeys[slot];
+            for (int i = 0; i < slotSizes[slot]; i++) {
+                long key = slotKeyList[i];
+                int index = find(key, (int) mix(key));
+                // Refreshed entries are also recorded in a later slot
+                if (index >= 0 && now - stamps[index] > maxBufferTime) {
+                    delete(index);
+                }
+            }
+            slotSizes[slot] = 0;
+        }
+    }
+}
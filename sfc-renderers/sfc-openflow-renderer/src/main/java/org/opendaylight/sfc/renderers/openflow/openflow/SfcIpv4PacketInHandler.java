@@ -9,13 +9,10 @@
 package org.opendaylight.sfc.renderers.openflow.openflow;
 
 import java.math.BigInteger;
-import java.net.InetAddress;
-import java.net.UnknownHostException;
-import java.util.Arrays;
-import java.util.HashMap;
-import java.util.Iterator;
-import java.util.Map;
-import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.nodes.Node;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.nodes.NodeKey;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.model.match.types.rev131026.match.Metadata;
@@ -39,6 +36,13 @@ import org.slf4j.LoggerFactory;
  * the SF will establish a connection with the client (send TCP SynAck to
  * client), and then establish a separate connection with the server (send TCP
  * Syn to server).
+ *
+ * <p>
+ * PacketIns may be received concurrently and at a high rate, so the addresses
+ * are read as ints straight from the payload, the already handled src/dst
+ * pairs are kept in a {@link SfcIpv4PacketInBuffer}, and the flow installs are
+ * rate limited per switch. Pairs whose install was rate limited are not
+ * buffered, so one of their next PacketIns installs the flows.
  */
 
 public class SfcIpv4PacketInHandler implements PacketProcessingListener, AutoCloseable {
@@ -49,35 +53,51 @@ public class SfcIpv4PacketInHandler implements PacketProcessingListener, AutoClo
     private static final int PACKET_OFFSET_IP_SRC = PACKET_OFFSET_IP + 12;
     private static final int PACKET_OFFSET_IP_DST = PACKET_OFFSET_IP + 16;
     public static final int ETHERTYPE_IPV4 = 0x0800;
-    private static final int DEFAULT_MAX_BUFFER_TIME = 60000; // 60 milliseconds
+    private static final int DEFAULT_MAX_BUFFER_TIME = 60000; // 60 seconds
     private static final int DEFAULT_PACKET_COUNT_PURGE = 100;
+    private static final int DEFAULT_MAX_INSTALL_RATE = 1000; // per second and switch
 
     private final SfcOfFlowProgrammerImpl flowProgrammer;
-    private final Map<String, Long> pktInBuffer;
-    private int maxBufferTime;
-    private int packetCountPurge;
-    private int packetCount;
+    private final ConcurrentMap<String, InstallRateLimiter> installRateLimiters = new ConcurrentHashMap<>();
+    private final AtomicLong rateLimitedCount = new AtomicLong();
+    private volatile SfcIpv4PacketInBuffer pktInBuffer;
+    private volatile int packetCountPurge;
+    private volatile int maxInstallRate;
 
     public SfcIpv4PacketInHandler(SfcOfFlowProgrammerImpl flowProgrammer) {
         this.flowProgrammer = flowProgrammer;
-        pktInBuffer = new HashMap<>();
-        maxBufferTime = DEFAULT_MAX_BUFFER_TIME;
+        pktInBuffer = new SfcIpv4PacketInBuffer(DEFAULT_MAX_BUFFER_TIME);
         packetCountPurge = DEFAULT_PACKET_COUNT_PURGE;
-        packetCount = 0;
+        maxInstallRate = DEFAULT_MAX_INSTALL_RATE;
     }
 
     public int getMaxBufferTime() {
-        return maxBufferTime;
+        return (int) pktInBuffer.getMaxBufferTime();
     }
 
+    /**
+     * Set the time a src/dst pair stays buffered. The pairs buffered so far
+     * are discarded.
+     *
+     * @param maxBufferTime
+     *            the buffer time in milliseconds
+     */
     public void setMaxBufferTime(int maxBufferTime) {
-        this.maxBufferTime = maxBufferTime;
+        this.pktInBuffer = new SfcIpv4PacketInBuffer(maxBufferTime);
     }
 
     public int getPacketCountPurge() {
         return packetCountPurge;
     }
 
+    /**
+     * Kept for compatibility, the buffer is no longer purged every given
+     * number of packets but expires its entries as time goes by.
+     *
+     * @param packetCountPurge
+     *            ignored
+     */
+    @Deprecated
     public void setPacketCountPurge(int packetCountPurge) {
         this.packetCountPurge = packetCountPurge;
     }
@@ -86,6 +106,32 @@ public class SfcIpv4PacketInHandler implements PacketProcessingListener, AutoClo
         return pktInBuffer.size();
     }
 
+    public int getMaxInstallRate() {
+        return maxInstallRate;
+    }
+
+    /**
+     * Set the maximum number of src/dst pairs whose flows are installed per
+     * second on each switch. It takes effect on the switches seen afterwards.
+     *
+     * @param maxInstallRate
+     *            the installs per second and switch
+     */
+    public void setMaxInstallRate(int maxInstallRate) {
+        this.maxInstallRate = maxInstallRate;
+        installRateLimiters.clear();
+    }
+
+    /**
+     * Get the number of PacketIns whose flows were not installed because
+     * their switch exceeded the install rate.
+     *
+     * @return the number of rate limited PacketIns
+     */
+    public long getRateLimitedCount() {
+        return rateLimitedCount.get();
+    }
+
     /**
      * The handler function for IPv4 PktIn packets.
      *
@@ -98,12 +144,6 @@ public class SfcIpv4PacketInHandler implements PacketProcessingListener, AutoClo
             return;
         }
 
-        ++packetCount;
-        if (packetCount > packetCountPurge) {
-            packetCount = 0;
-            purgePktInBuffer();
-        }
-
         // Make sure the PacketIn is due to our Classification table pktInAction
         if (!this.flowProgrammer.compareClassificationTableCookie(packetIn.getFlowCookie())) {
             LOG.debug("SfcIpv4PacketInHandler discarding packet by Flow Cookie");
@@ -114,34 +154,30 @@ public class SfcIpv4PacketInHandler implements PacketProcessingListener, AutoClo
         // the packet for us
 
         final byte[] rawPacket = packetIn.getPayload();
+        if (rawPacket == null || rawPacket.length < PACKET_OFFSET_IP_DST + 4) {
+            LOG.debug("SfcIpv4PacketInHandler discarding truncated packet");
+            return;
+        }
 
         // Get the EtherType and check that its an IP packet
-        if (getEtherType(rawPacket) != ETHERTYPE_IPV4) {
+        if (getUnsignedShort(rawPacket, PACKET_OFFSET_ETHERTYPE) != ETHERTYPE_IPV4) {
             LOG.debug("SfcIpv4PacketInHandler discarding NON-IPv4");
             return;
         }
 
         // Get the SrcIp and DstIp Addresses
-        String pktSrcIpStr = getSrcIpStr(rawPacket);
-        if (pktSrcIpStr == null) {
-            LOG.error("SfcIpv4PacketInHandler Cant get Src IP address, discarding packet");
-            return;
-        }
-
-        String pktDstIpStr = getDstIpStr(rawPacket);
-        if (pktDstIpStr == null) {
-            LOG.error("SfcIpv4PacketInHandler Cant get Src IP address, discarding packet");
-            return;
-        }
+        final int pktSrcIp = getInt(rawPacket, PACKET_OFFSET_IP_SRC);
+        final int pktDstIp = getInt(rawPacket, PACKET_OFFSET_IP_DST);
 
         // Since all packets sent to SF are PktIn, only need to handle the first
         // one
         // In OpenFlow 1.5 we'll be able to do the PktIn on TCP Syn only
-        if (bufferPktIn(pktSrcIpStr, pktDstIpStr)) {
-            LOG.info("SfcIpv4PacketInHandler PacketIn buffered");
+        final SfcIpv4PacketInBuffer buffer = pktInBuffer;
+        final long bufferKey = SfcIpv4PacketInBuffer.getKey(pktSrcIp, pktDstIp);
+        if (buffer.bufferPktIn(bufferKey)) {
+            LOG.trace("SfcIpv4PacketInHandler PacketIn buffered");
             return;
         }
-        LOG.info("SfcIpv4PacketInHandler PacketIn NOT buffered");
 
         // Get the metadata
         if (packetIn.getMatch() == null) {
@@ -160,9 +196,6 @@ public class SfcIpv4PacketInHandler implements PacketProcessingListener, AutoClo
         // Assuming the RSP is symmetric
         short dlPathId = (short) (ulPathId + 1);
 
-        LOG.info("SfcIpv4PacketInHandler Src IP [{}] Dst IP [{}] ulPathId [{}] dlPathId [{}]", pktSrcIpStr, pktDstIpStr,
-                ulPathId, dlPathId);
-
         // Get the Node name, by getting the following
         // - Ingress nodeConnectorRef
         // - instanceID for the Node in the tree above us
@@ -170,6 +203,38 @@ public class SfcIpv4PacketInHandler implements PacketProcessingListener, AutoClo
         final String nodeName = packetIn.getIngress().getValue().firstKeyOf(Node.class, NodeKey.class).getId()
                 .getValue();
 
+        if (!getInstallRateLimiter(nodeName).tryAcquire()) {
+            // Forget the pair, so a later PacketIn installs its flows
+            buffer.remove(bufferKey);
+            rateLimitedCount.incrementAndGet();
+            LOG.debug("SfcIpv4PacketInHandler install rate exceeded on [{}], discarding packet", nodeName);
+            return;
+        }
+
+        final String pktSrcIpStr = toIpv4String(pktSrcIp);
+        final String pktDstIpStr = toIpv4String(pktDstIp);
+        LOG.debug("SfcIpv4PacketInHandler Src IP [{}] Dst IP [{}] ulPathId [{}] dlPathId [{}]", pktSrcIpStr,
+                pktDstIpStr, ulPathId, dlPathId);
+
+        configurePathMapperAclFlows(nodeName, pktSrcIpStr, pktDstIpStr, ulPathId, dlPathId);
+    }
+
+    @Override
+    public void close() throws Exception {
+    }
+
+    private InstallRateLimiter getInstallRateLimiter(String nodeName) {
+        InstallRateLimiter limiter = installRateLimiters.get(nodeName);
+        if (limiter == null) {
+            limiter = installRateLimiters.computeIfAbsent(nodeName, name -> new InstallRateLimiter(maxInstallRate));
+        }
+        return limiter;
+    }
+
+    // The flow RSP id is state of the shared flow programmer, so concurrent
+    // PacketIns install their flows one at a time
+    private synchronized void configurePathMapperAclFlows(String nodeName, String pktSrcIpStr, String pktDstIpStr,
+            short ulPathId, short dlPathId) {
         // Configure the uplink packet
         if (ulPathId >= 0) {
             this.flowProgrammer.setFlowRspId((long) ulPathId);
@@ -183,122 +248,66 @@ public class SfcIpv4PacketInHandler implements PacketProcessingListener, AutoClo
         }
     }
 
-    @Override
-    public void close() throws Exception {
-    }
-
-    /**
-     * Given a raw packet, return the EtherType.
-     *
-     * @param rawPacket packet
-     * @return etherType
-     */
-    private short getEtherType(final byte[] rawPacket) {
-        final byte[] etherTypeBytes = Arrays.copyOfRange(rawPacket, PACKET_OFFSET_ETHERTYPE,
-                PACKET_OFFSET_ETHERTYPE + 2);
-        return packShort(etherTypeBytes);
-    }
-
     /**
-     * Given a raw packet, return the SrcIp.
+     * Read a big endian unsigned short from a raw packet.
      *
      * @param rawPacket packet
-     * @return srcIp String
+     * @param offset offset of the short in the packet
+     * @return the short, as a positive int
      */
-    private String getSrcIpStr(final byte[] rawPacket) {
-        final byte[] ipSrcBytes = Arrays.copyOfRange(rawPacket, PACKET_OFFSET_IP_SRC, PACKET_OFFSET_IP_SRC + 4);
-        String pktSrcIpStr = null;
-        try {
-            pktSrcIpStr = InetAddress.getByAddress(ipSrcBytes).getHostAddress();
-        } catch (UnknownHostException e) {
-            LOG.error("Exception getting Src IP address [{}]", e.getMessage(), e);
-        }
-        return pktSrcIpStr;
+    private static int getUnsignedShort(final byte[] rawPacket, int offset) {
+        return (rawPacket[offset] & 0xff) << 8 | rawPacket[offset + 1] & 0xff;
     }
 
     /**
-     * Given a raw packet, return the DstIp.
+     * Read a big endian int from a raw packet.
      *
      * @param rawPacket packet
-     * @return dstIp String
+     * @param offset offset of the int in the packet
+     * @return the int
      */
-    private String getDstIpStr(final byte[] rawPacket) {
-        final byte[] ipDstBytes = Arrays.copyOfRange(rawPacket, PACKET_OFFSET_IP_DST, PACKET_OFFSET_IP_DST + 4);
-        String pktDstIpStr = null;
-        try {
-            pktDstIpStr = InetAddress.getByAddress(ipDstBytes).getHostAddress();
-        } catch (UnknownHostException e) {
-            LOG.error("Exception getting Dst IP address [{}]", e.getMessage(), e);
-        }
-        return pktDstIpStr;
+    private static int getInt(final byte[] rawPacket, int offset) {
+        return (rawPacket[offset] & 0xff) << 24 | (rawPacket[offset + 1] & 0xff) << 16
+                | (rawPacket[offset + 2] & 0xff) << 8 | rawPacket[offset + 3] & 0xff;
     }
 
     /**
-     * Simple internal utility function to convert from a 2-byte array to a
-     * short.
+     * Format an IPv4 address in dotted decimal notation.
      *
-     * @param bytes byte array
-     * @return the bytes packed into a short
+     * @param ip the address
+     * @return the address String
      */
-    private short packShort(byte[] bytes) {
-        short val = (short) 0;
-        for (int i = 0; i < 2; i++) {
-            val <<= 8;
-            val |= bytes[i] & 0xff;
-        }
-
-        return val;
+    static String toIpv4String(int ip) {
+        return new StringBuilder(15).append(ip >>> 24).append('.').append(ip >>> 16 & 0xff).append('.')
+                .append(ip >>> 8 & 0xff).append('.').append(ip & 0xff).toString();
     }
 
     /**
-     * Decide if packets with the same src/dst IP have already been processed.
-     * If they haven't been processed, store the IPs so they will be considered
-     * processed.
-     *
-     * @param srcIpStr source IP
-     * @param dstIpStr destination IP
-     * @return True if the src/dst IP has already been processed, False
-     *         otherwise
+     * Token bucket limiting the flow installs on a switch, allowing bursts of
+     * up to one second of installs.
      */
-    private boolean bufferPktIn(final String srcIpStr, final String dstIpStr) {
-        String key = srcIpStr + dstIpStr;
-        long currentMillis = System.currentTimeMillis();
-
-        Long bufferedTime = pktInBuffer.get(key);
-
-        // If the entry does not exist, add it and return false indicating the
-        // packet needs to be processed
-        if (bufferedTime == null) {
-            // Add the entry
-            pktInBuffer.put(key, currentMillis);
-            return false;
-        }
-
-        // If the entry is old, update it and return false indicating the packet
-        // needs to be processed
-        if (currentMillis - bufferedTime > maxBufferTime) {
-            // Update the entry
-            pktInBuffer.put(key, currentMillis);
-            return false;
+    private static final class InstallRateLimiter {
+        private final double maxTokens;
+        private final double tokensPerNano;
+        private double tokens;
+        private long lastRefillNanos;
+
+        InstallRateLimiter(int installsPerSecond) {
+            this.maxTokens = Math.max(1, installsPerSecond);
+            this.tokensPerNano = maxTokens / TimeUnit.SECONDS.toNanos(1);
+            this.tokens = maxTokens;
+            this.lastRefillNanos = System.nanoTime();
         }
 
-        return true;
-    }
-
-    /**
-     * Purge packets that have been in the PktIn buffer too long.
-     */
-    private void purgePktInBuffer() {
-        long currentMillis = System.currentTimeMillis();
-        Iterator<Entry<String, Long>> iter = pktInBuffer.entrySet().iterator();
-        while (iter.hasNext()) {
-            Entry<String, Long> entry = iter.next();
-            Long bufferedTime = entry.getValue();
-            if (currentMillis - bufferedTime > maxBufferTime) {
-                // This also removes the entry from the pktInBuffer map and
-                // doesnt invalidate iteration
-                iter.remove();
+        synchronized boolean tryAcquire() {
+            long now = System.nanoTime();
+            tokens = Math.min(maxTokens, tokens + (now - lastRefillNanos) * tokensPerNano);
+            lastRefillNanos = now;
+            if (tokens < 1) {
+                return false;
             }
+            tokens--;
+            return true;
         }
     }
 }
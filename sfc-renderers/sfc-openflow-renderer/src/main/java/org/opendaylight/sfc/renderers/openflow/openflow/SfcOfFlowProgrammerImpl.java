@@ -12,7 +12,7 @@ import com.google.common.net.InetAddresses;
 import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.StringJoiner;
@@ -22,6 +22,7 @@ import org.opendaylight.sfc.genius.util.appcoexistence.SfcTableIndexMapper;
 import org.opendaylight.sfc.ovs.provider.SfcOvsUtil;
 import org.opendaylight.sfc.renderers.openflow.sfg.GroupBucketInfo;
 import org.opendaylight.sfc.util.openflow.OpenflowConstants;
+import org.opendaylight.sfc.util.openflow.SfcOpenflowCookie;
 import org.opendaylight.sfc.util.openflow.SfcOpenflowUtils;
 import org.opendaylight.sfc.util.openflow.writer.SfcOfFlowWriterInterface;
 import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.inet.types.rev130715.IpAddress;
@@ -70,46 +71,53 @@ public class SfcOfFlowProgrammerImpl implements SfcOfFlowProgrammerInterface {
 
     public static final int COOKIE_BIGINT_HEX_RADIX = 16;
 
-    // A common SFC Transport Egress Cookie Base String, allowing
-    // all SFC flows to be matched by using cookieStr.startsWith()
-    public static final String TRANSPORT_EGRESS_COOKIE_STR_BASE = "BA5EBA11";
-    // The 000001** cookies are for NSH VXGPE Transport Egress flows
-    public static final String TRANSPORT_EGRESS_NSH_VXGPE_COOKIE = "00000101";
-    public static final String TRANSPORT_EGRESS_NSH_VXGPE_NSC_COOKIE = "00000102";
-    public static final String TRANSPORT_EGRESS_NSH_VXGPE_LASTHOP_COOKIE = "00000103";
-    public static final String TRANSPORT_EGRESS_NSH_VXGPE_APPCOEXIST_COOKIE = "00000104";
-    // The 000002** cookies are for NSH Eth Transport Egress flows
-    public static final String TRANSPORT_EGRESS_NSH_ETH_COOKIE = "00000201";
-    public static final String TRANSPORT_EGRESS_NSH_ETH_LOGICAL_COOKIE = "00000202";
-    public static final String TRANSPORT_EGRESS_NSH_ETH_LASTHOP_PIPELINE_COOKIE = "00000203";
-    public static final String TRANSPORT_EGRESS_NSH_ETH_LASTHOP_TUNNEL_REMOTE_COOKIE = "00000204";
-    public static final String TRANSPORT_EGRESS_NSH_ETH_LASTHOP_TUNNEL_LOCAL_COOKIE = "00000205";
-    public static final String TRANSPORT_EGRESS_NSH_ETH_LASTHOP_NSH_REMOTE_COOKIE = "00000206";
-    public static final String TRANSPORT_EGRESS_NSH_ETH_LASTHOP_NSH_LOCAL_COOKIE = "00000207";
-    // The 000003** cookies are for VXGEP NSH Transport Egress flows
-    public static final String TRANSPORT_EGRESS_VLAN_COOKIE = "00000301";
-    public static final String TRANSPORT_EGRESS_VLAN_SF_COOKIE = "00000302";
-    public static final String TRANSPORT_EGRESS_VLAN_LASTHOP_COOKIE = "00000303";
-    // The 000004** cookies are for VXGEP NSH Transport Egress flows
-    public static final String TRANSPORT_EGRESS_MPLS_COOKIE = "00000401";
-    public static final String TRANSPORT_EGRESS_MPLS_LASTHOP_COOKIE = "00000402";
-    public static final String TRANSPORT_EGRESS_MAX_COOKIE = "00000FFF";
-
-
-    // The 000005** cookies are for MAC Chaining Transport Egress flows
-    public static final String TRANSPORT_EGRESS_MAC_CHAINING_COOKIE = "00000501";
+    // Flow kinds of the Transport Egress flows, set in their cookie along with
+    // the table index and the RSP path id, see SfcOpenflowCookie
+    // The 0x01** kinds are for NSH VXGPE Transport Egress flows
+    public static final int TRANSPORT_EGRESS_NSH_VXGPE_COOKIE = 0x0101;
+    public static final int TRANSPORT_EGRESS_NSH_VXGPE_NSC_COOKIE = 0x0102;
+    public static final int TRANSPORT_EGRESS_NSH_VXGPE_LASTHOP_COOKIE = 0x0103;
+    public static final int TRANSPORT_EGRESS_NSH_VXGPE_APPCOEXIST_COOKIE = 0x0104;
+    // The 0x02** kinds are for NSH Eth Transport Egress flows
+    public static final int TRANSPORT_EGRESS_NSH_ETH_COOKIE = 0x0201;
+    public static final int TRANSPORT_EGRESS_NSH_ETH_LOGICAL_COOKIE = 0x0202;
+    public static final int TRANSPORT_EGRESS_NSH_ETH_LASTHOP_PIPELINE_COOKIE = 0x0203;
+    public static final int TRANSPORT_EGRESS_NSH_ETH_LASTHOP_TUNNEL_REMOTE_COOKIE = 0x0204;
+    public static final int TRANSPORT_EGRESS_NSH_ETH_LASTHOP_TUNNEL_LOCAL_COOKIE = 0x0205;
+    public static final int TRANSPORT_EGRESS_NSH_ETH_LASTHOP_NSH_REMOTE_COOKIE = 0x0206;
+    public static final int TRANSPORT_EGRESS_NSH_ETH_LASTHOP_NSH_LOCAL_COOKIE = 0x0207;
+    // The 0x03** kinds are for VLAN Transport Egress flows
+    public static final int TRANSPORT_EGRESS_VLAN_COOKIE = 0x0301;
+    public static final int TRANSPORT_EGRESS_VLAN_SF_COOKIE = 0x0302;
+    public static final int TRANSPORT_EGRESS_VLAN_LASTHOP_COOKIE = 0x0303;
+    // The 0x04** kinds are for MPLS Transport Egress flows
+    public static final int TRANSPORT_EGRESS_MPLS_COOKIE = 0x0401;
+    public static final int TRANSPORT_EGRESS_MPLS_LASTHOP_COOKIE = 0x0402;
+    public static final int TRANSPORT_EGRESS_MAX_COOKIE = 0x0FFF;
+
+
+    // The 0x05** kinds are for MAC Chaining Transport Egress flows
+    public static final int TRANSPORT_EGRESS_MAC_CHAINING_COOKIE = 0x0501;
+
+    // The flows of the other tables have no particular kind
+    private static final int DEFAULT_FLOW_KIND = 0;
 
     // Which bits in the metadata field to set, Assuming 4095 PathId's
     public static final BigInteger METADATA_MASK_SFP_MATCH = new BigInteger("FFFFFFFFFFFFFFFF",
             COOKIE_BIGINT_HEX_RADIX);
-    public static final short TABLE_INDEX_CLASSIFIER = 0;
-    public static final short TABLE_INDEX_TRANSPORT_INGRESS = 1;
-    public static final short TABLE_INDEX_PATH_MAPPER = 2;
-    public static final short TABLE_INDEX_PATH_MAPPER_ACL = 3;
-    public static final short TABLE_INDEX_NEXT_HOP = 4;
-    public static final short TABLE_INDEX_TRANSPORT_EGRESS = 10;
+    public static final short TABLE_INDEX_CLASSIFIER = OpenflowConstants.TABLE_INDEX_CLASSIFIER;
+    public static final short TABLE_INDEX_TRANSPORT_INGRESS = OpenflowConstants.TABLE_INDEX_TRANSPORT_INGRESS;
+    public static final short TABLE_INDEX_PATH_MAPPER = OpenflowConstants.TABLE_INDEX_PATH_MAPPER;
+    public static final short TABLE_INDEX_PATH_MAPPER_ACL = OpenflowConstants.TABLE_INDEX_PATH_MAPPER_ACL;
+    public static final short TABLE_INDEX_NEXT_HOP = OpenflowConstants.TABLE_INDEX_NEXT_HOP;
+    public static final short TABLE_INDEX_TRANSPORT_EGRESS = OpenflowConstants.TABLE_INDEX_TRANSPORT_EGRESS;
 
     public static final short TABLE_INDEX_MAX_OFFSET = TABLE_INDEX_TRANSPORT_EGRESS;
+
+    // The SFC table indexes, used to find the index of a flow table
+    private static final short[] TABLE_INDEXES = {TABLE_INDEX_CLASSIFIER, TABLE_INDEX_TRANSPORT_INGRESS,
+        TABLE_INDEX_PATH_MAPPER, TABLE_INDEX_PATH_MAPPER_ACL, TABLE_INDEX_NEXT_HOP, TABLE_INDEX_TRANSPORT_EGRESS};
+
     public static final int OF_PRIORITY_TRANSPORT_INGRESS = 250;
     public static final int OF_PRIORITY_ARP_TRANSPORT_INGRESS = 300;
     public static final int OF_PRIORITY_PATH_MAPPER = 350;
@@ -157,6 +165,19 @@ public class SfcOfFlowProgrammerImpl implements SfcOfFlowProgrammerInterface {
         this.sfcOfFlowWriter = writer;
     }
 
+    @Override
+    public SfcOfFlowWriterInterface getFlowWriter() {
+        return sfcOfFlowWriter;
+    }
+
+    @Override
+    public SfcOfFlowProgrammerInterface newFlowProgrammer(SfcOfFlowWriterInterface writer) {
+        SfcOfFlowProgrammerImpl flowProgrammer = new SfcOfFlowProgrammerImpl(writer);
+        flowProgrammer.setTableBase(tableBase);
+        flowProgrammer.setTableEgress(tableEgress);
+        return flowProgrammer;
+    }
+
     // This method should only be called by SfcOfRenderer.close()
     @Override
     public void shutdown() throws ExecutionException, InterruptedException {
@@ -224,9 +245,9 @@ public class SfcOfFlowProgrammerImpl implements SfcOfFlowProgrammerInterface {
      *         otherwise
      */
     public boolean compareClassificationTableCookie(FlowCookie cookie) {
-        return cookie != null && cookie.getValue() != null && cookie.toString().toUpperCase(Locale.getDefault())
-                .startsWith(TRANSPORT_EGRESS_COOKIE_STR_BASE);
-
+        long cookieValue = SfcOpenflowCookie.getValue(cookie);
+        return SfcOpenflowCookie.isSfcCookie(cookieValue)
+                && SfcOpenflowCookie.getTableIndex(cookieValue) == TABLE_INDEX_TRANSPORT_EGRESS;
     }
 
     //
@@ -256,7 +277,7 @@ public class SfcOfFlowProgrammerImpl implements SfcOfFlowProgrammerInterface {
 
         FlowBuilder flowBuilder = configureTableMatchAnyFlow(getTableId(TABLE_INDEX_CLASSIFIER),
                 getTableId(TABLE_INDEX_TRANSPORT_INGRESS));
-        sfcOfFlowWriter.writeFlow(flowRspId, sffNodeName, flowBuilder);
+        writeFlow(sffNodeName, flowBuilder);
     }
 
     /**
@@ -292,7 +313,7 @@ public class SfcOfFlowProgrammerImpl implements SfcOfFlowProgrammerInterface {
         FlowBuilder classifierDpdkOutputFlow = SfcOpenflowUtils.createFlowBuilder(getTableId(TABLE_INDEX_CLASSIFIER),
                 OF_PRIORITY_CLASSIFIER, flowName.toString(), match, isb);
 
-        sfcOfFlowWriter.writeFlow(flowRspId, sffNodeName, classifierDpdkOutputFlow);
+        writeFlow(sffNodeName, classifierDpdkOutputFlow);
     }
 
     /**
@@ -327,7 +348,7 @@ public class SfcOfFlowProgrammerImpl implements SfcOfFlowProgrammerInterface {
         FlowBuilder classifierDpdkInputFlow = SfcOpenflowUtils.createFlowBuilder(getTableId(TABLE_INDEX_CLASSIFIER),
                 OF_PRIORITY_CLASSIFIER, flowName.toString(), match, isb);
 
-        sfcOfFlowWriter.writeFlow(flowRspId, sffNodeName, classifierDpdkInputFlow);
+        writeFlow(sffNodeName, classifierDpdkInputFlow);
     }
 
     /**
@@ -344,7 +365,7 @@ public class SfcOfFlowProgrammerImpl implements SfcOfFlowProgrammerInterface {
         }
 
         FlowBuilder flowBuilder = configureTableMatchAnyDropFlow(getTableId(TABLE_INDEX_TRANSPORT_INGRESS));
-        sfcOfFlowWriter.writeFlow(flowRspId, sffNodeName, flowBuilder);
+        writeFlow(sffNodeName, flowBuilder);
     }
 
     /**
@@ -364,7 +385,7 @@ public class SfcOfFlowProgrammerImpl implements SfcOfFlowProgrammerInterface {
 
         FlowBuilder flowBuilder = configureTableMatchAnyFlowResubmit(getTableId(TABLE_INDEX_TRANSPORT_INGRESS),
                  nextTableId);
-        sfcOfFlowWriter.writeFlow(flowRspId, sffNodeName, flowBuilder);
+        writeFlow(sffNodeName, flowBuilder);
     }
 
     /**
@@ -378,7 +399,7 @@ public class SfcOfFlowProgrammerImpl implements SfcOfFlowProgrammerInterface {
     public void configurePathMapperTableMatchAny(final String sffNodeName) {
         FlowBuilder flowBuilder = configureTableMatchAnyFlow(getTableId(TABLE_INDEX_PATH_MAPPER),
                 getTableId(TABLE_INDEX_PATH_MAPPER_ACL));
-        sfcOfFlowWriter.writeFlow(flowRspId, sffNodeName, flowBuilder);
+        writeFlow(sffNodeName, flowBuilder);
     }
 
     /**
@@ -392,7 +413,7 @@ public class SfcOfFlowProgrammerImpl implements SfcOfFlowProgrammerInterface {
     public void configurePathMapperAclTableMatchAny(final String sffNodeName) {
         FlowBuilder flowBuilder = configureTableMatchAnyFlow(getTableId(TABLE_INDEX_PATH_MAPPER_ACL),
                 getTableId(TABLE_INDEX_NEXT_HOP));
-        sfcOfFlowWriter.writeFlow(flowRspId, sffNodeName, flowBuilder);
+        writeFlow(sffNodeName, flowBuilder);
     }
 
     /**
@@ -406,7 +427,7 @@ public class SfcOfFlowProgrammerImpl implements SfcOfFlowProgrammerInterface {
     public void configureNextHopTableMatchAny(final String sffNodeName) {
         FlowBuilder flowBuilder = configureTableMatchAnyFlow(getTableId(TABLE_INDEX_NEXT_HOP),
                 getTableId(TABLE_INDEX_TRANSPORT_EGRESS));
-        sfcOfFlowWriter.writeFlow(flowRspId, sffNodeName, flowBuilder);
+        writeFlow(sffNodeName, flowBuilder);
     }
 
     /**
@@ -420,7 +441,7 @@ public class SfcOfFlowProgrammerImpl implements SfcOfFlowProgrammerInterface {
         // This is the last table, can't set next table AND doDrop should be
         // false
         FlowBuilder flowBuilder = configureTableMatchAnyDropFlow(getTableId(TABLE_INDEX_TRANSPORT_EGRESS));
-        sfcOfFlowWriter.writeFlow(flowRspId, sffNodeName, flowBuilder);
+        writeFlow(sffNodeName, flowBuilder);
     }
 
     @Override
@@ -428,7 +449,7 @@ public class SfcOfFlowProgrammerImpl implements SfcOfFlowProgrammerInterface {
 
         FlowBuilder flowBuilder = configureTableMatchAnyFlowResubmit(getTableId(TABLE_INDEX_TRANSPORT_EGRESS),
                 nextTableId);
-        sfcOfFlowWriter.writeFlow(flowRspId, sffNodeName, flowBuilder);
+        writeFlow(sffNodeName, flowBuilder);
     }
 
     /**
@@ -537,11 +558,11 @@ public class SfcOfFlowProgrammerImpl implements SfcOfFlowProgrammerInterface {
     public void configureIpv4TransportIngressFlow(final String sffNodeName) {
         FlowBuilder transportIngressFlowTcp = configureTransportIngressFlow(SfcOpenflowUtils.ETHERTYPE_IPV4,
                 SfcOpenflowUtils.IP_PROTOCOL_TCP, OpenflowConstants.OF_NAME_TRANSPORT_INGRESS_TCP);
-        sfcOfFlowWriter.writeFlow(flowRspId, sffNodeName, transportIngressFlowTcp);
+        writeFlow(sffNodeName, transportIngressFlowTcp);
 
         FlowBuilder transportIngressFlowUdp = configureTransportIngressFlow(SfcOpenflowUtils.ETHERTYPE_IPV4,
                 SfcOpenflowUtils.IP_PROTOCOL_UDP, OpenflowConstants.OF_NAME_TRANSPORT_INGRESS_UDP);
-        sfcOfFlowWriter.writeFlow(flowRspId, sffNodeName, transportIngressFlowUdp);
+        writeFlow(sffNodeName, transportIngressFlowUdp);
     }
 
     /**
@@ -564,7 +585,7 @@ public class SfcOfFlowProgrammerImpl implements SfcOfFlowProgrammerInterface {
 
         FlowBuilder transportIngressFlow =
                 configureTransportIngressFlow(match, OpenflowConstants.OF_NAME_TRANSPORT_INGRESS_VLAN);
-        sfcOfFlowWriter.writeFlow(flowRspId, sffNodeName, transportIngressFlow);
+        writeFlow(sffNodeName, transportIngressFlow);
     }
 
     /**
@@ -579,7 +600,7 @@ public class SfcOfFlowProgrammerImpl implements SfcOfFlowProgrammerInterface {
 
         FlowBuilder transportIngressFlow =
                 configureTransportIngressFlow(match, OpenflowConstants.OF_NAME_TRANSPORT_INGRESS_MAC);
-        sfcOfFlowWriter.writeFlow(flowRspId, sffNodeName, transportIngressFlow);
+        writeFlow(sffNodeName, transportIngressFlow);
     }
 
     /**
@@ -595,7 +616,7 @@ public class SfcOfFlowProgrammerImpl implements SfcOfFlowProgrammerInterface {
                 (short) -1,
                 getTableId(TABLE_INDEX_NEXT_HOP),
                 OpenflowConstants.OF_NAME_TRANSPORT_INGRESS_ETH_NSH);
-        sfcOfFlowWriter.writeFlow(flowRspId, sffNodeName, transportIngressFlow);
+        writeFlow(sffNodeName, transportIngressFlow);
     }
 
     /**
@@ -619,7 +640,7 @@ public class SfcOfFlowProgrammerImpl implements SfcOfFlowProgrammerInterface {
                 getTableId(TABLE_INDEX_NEXT_HOP),
                 OpenflowConstants.OF_NAME_TRANSPORT_INGRESS_NSH,
                 actionList);
-        sfcOfFlowWriter.writeFlow(flowRspId, sffNodeName, transportIngressFlow);
+        writeFlow(sffNodeName, transportIngressFlow);
     }
 
     /**
@@ -633,7 +654,7 @@ public class SfcOfFlowProgrammerImpl implements SfcOfFlowProgrammerInterface {
     public void configureMplsTransportIngressFlow(final String sffNodeName) {
         FlowBuilder transportIngressFlow = configureTransportIngressFlow(
                 SfcOpenflowUtils.ETHERTYPE_MPLS_UCAST, OpenflowConstants.OF_NAME_TRANSPORT_INGRESS_MPLS);
-        sfcOfFlowWriter.writeFlow(flowRspId, sffNodeName, transportIngressFlow);
+        writeFlow(sffNodeName, transportIngressFlow);
     }
 
     /**
@@ -758,7 +779,7 @@ public class SfcOfFlowProgrammerImpl implements SfcOfFlowProgrammerInterface {
                 getTableId(TABLE_INDEX_TRANSPORT_INGRESS), OF_PRIORITY_ARP_TRANSPORT_INGRESS,
                 flowName.toString(), match, isb);
 
-        sfcOfFlowWriter.writeFlow(flowRspId, sffNodeName, arpTransportIngressFlow);
+        writeFlow(sffNodeName, arpTransportIngressFlow);
     }
 
     @Override
@@ -786,7 +807,7 @@ public class SfcOfFlowProgrammerImpl implements SfcOfFlowProgrammerInterface {
         FlowBuilder sfFlow = SfcOpenflowUtils.createFlowBuilder(getTableId(TABLE_INDEX_TRANSPORT_INGRESS),
                 OF_PRIORITY_ARP_TRANSPORT_INGRESS, flowName.toString(), match, isb);
 
-        sfcOfFlowWriter.writeFlow(flowRspId, sffNodeName, sfFlow);
+        writeFlow(sffNodeName, sfFlow);
     }
 
     @Override
@@ -813,7 +834,7 @@ public class SfcOfFlowProgrammerImpl implements SfcOfFlowProgrammerInterface {
         FlowBuilder sfFlow = SfcOpenflowUtils.createFlowBuilder(getTableId(TABLE_INDEX_TRANSPORT_INGRESS),
                 OF_PRIORITY_ARP_TRANSPORT_INGRESS, flowName.toString(), match, isb);
 
-        sfcOfFlowWriter.writeFlow(flowRspId, sffNodeName, sfFlow);
+        writeFlow(sffNodeName, sfFlow);
     }
 
     //
@@ -847,7 +868,7 @@ public class SfcOfFlowProgrammerImpl implements SfcOfFlowProgrammerInterface {
         } else {
             pathMapperFlow = configurePathMapperFlow(pathId, match, actionList);
         }
-        sfcOfFlowWriter.writeFlow(flowRspId, sffNodeName, pathMapperFlow);
+        writeFlow(sffNodeName, pathMapperFlow);
     }
 
     /**
@@ -877,7 +898,7 @@ public class SfcOfFlowProgrammerImpl implements SfcOfFlowProgrammerInterface {
         } else {
             pathMapperFlow = configurePathMapperFlow(pathId, match, actionList);
         }
-        sfcOfFlowWriter.writeFlow(flowRspId, sffNodeName, pathMapperFlow);
+        writeFlow(sffNodeName, pathMapperFlow);
     }
 
     /**
@@ -986,7 +1007,7 @@ public class SfcOfFlowProgrammerImpl implements SfcOfFlowProgrammerInterface {
         // Set an idle timeout on this flow
         ingressFlow.setIdleTimeout(PKTIN_IDLE_TIMEOUT);
 
-        sfcOfFlowWriter.writeFlow(flowRspId, sffNodeName, ingressFlow);
+        writeFlow(sffNodeName, ingressFlow);
     }
 
     //
@@ -1032,7 +1053,7 @@ public class SfcOfFlowProgrammerImpl implements SfcOfFlowProgrammerInterface {
         flowName.add(OpenflowConstants.OF_NAME_NEXT_HOP).add(String.valueOf(pathId)).add(srcMac).add(dstMac);
 
         FlowBuilder nextHopFlow = configureNextHopFlow(match, actionList, flowPriority, flowName.toString());
-        sfcOfFlowWriter.writeFlow(flowRspId, sffNodeName, nextHopFlow);
+        writeFlow(sffNodeName, nextHopFlow);
     }
 
     /**
@@ -1077,7 +1098,7 @@ public class SfcOfFlowProgrammerImpl implements SfcOfFlowProgrammerInterface {
         flowName.add(OpenflowConstants.OF_NAME_NEXT_HOP).add(vmac).add(nextVMac).add(dstSfMac);
 
         FlowBuilder nextHopFlow = configureNextHopFlow(match, actionList, OF_PRIORITY_NEXT_HOP, flowName.toString());
-        sfcOfFlowWriter.writeFlow(flowRspId, sffNodeName, nextHopFlow);
+        writeFlow(sffNodeName, nextHopFlow);
     }
 
     /**
@@ -1118,7 +1139,7 @@ public class SfcOfFlowProgrammerImpl implements SfcOfFlowProgrammerInterface {
         flowName.add(OpenflowConstants.OF_NAME_NEXT_HOP).add(String.valueOf(nshNsi)).add(String.valueOf(nshNsp));
 
         FlowBuilder nextHopFlow = configureNextHopFlow(match, actionList, flowName.toString());
-        sfcOfFlowWriter.writeFlow(flowRspId, sffNodeName, nextHopFlow);
+        writeFlow(sffNodeName, nextHopFlow);
     }
 
     /**
@@ -1149,7 +1170,7 @@ public class SfcOfFlowProgrammerImpl implements SfcOfFlowProgrammerInterface {
         MatchBuilder match = SfcOpenflowUtils.getNshMatches(nsp, nsi);
 
         FlowBuilder nextHopFlow = configureNextHopFlow(match, actionList, flowName.toString());
-        sfcOfFlowWriter.writeFlow(flowRspId, sffNodeName, nextHopFlow);
+        writeFlow(sffNodeName, nextHopFlow);
     }
 
     /**
@@ -1218,7 +1239,7 @@ public class SfcOfFlowProgrammerImpl implements SfcOfFlowProgrammerInterface {
                                                                        OF_PRIORITY_TRANSPORT_EGRESS,
                                                                        TRANSPORT_EGRESS_MAC_CHAINING_COOKIE,
                                                                        flowName.toString());
-        sfcOfFlowWriter.writeFlow(flowRspId, sffNodeName, transportEgressFlow);
+        writeFlow(sffNodeName, transportEgressFlow);
     }
 
     @Override
@@ -1244,7 +1265,7 @@ public class SfcOfFlowProgrammerImpl implements SfcOfFlowProgrammerInterface {
 
         FlowBuilder transportEgressFlow = configureMacTransportEgressFlow(match, actionList, port, pathId, srcMac,
                 dstMac, TRANSPORT_EGRESS_VLAN_SF_COOKIE);
-        sfcOfFlowWriter.writeFlow(flowRspId, sffNodeName, transportEgressFlow);
+        writeFlow(sffNodeName, transportEgressFlow);
     }
 
     /**
@@ -1319,11 +1340,11 @@ public class SfcOfFlowProgrammerImpl implements SfcOfFlowProgrammerInterface {
      *            - the switch port to send the packet out on
      * @param pathId
      *            - the RSP path id to match on
-     * @param cookieStr
-     *            - The cookie to use
+     * @param flowKind
+     *            - the kind of flow, set in its cookie
      */
     public void configureVlanTransportEgressFlow(final String sffNodeName, final String srcMac, final String dstMac,
-            final int dstVlan, String port, final long pathId, final String cookieStr) {
+            final int dstVlan, String port, final long pathId, final int flowKind) {
 
         // Match on the metadata pathId
         MatchBuilder match = new MatchBuilder();
@@ -1334,8 +1355,8 @@ public class SfcOfFlowProgrammerImpl implements SfcOfFlowProgrammerInterface {
         actionList.add(SfcOpenflowUtils.createActionSetVlanId(dstVlan, actionList.size()));
 
         FlowBuilder transportEgressFlow = configureMacTransportEgressFlow(match, actionList, port, pathId, srcMac,
-                dstMac, cookieStr);
-        sfcOfFlowWriter.writeFlow(flowRspId, sffNodeName, transportEgressFlow);
+                dstMac, flowKind);
+        writeFlow(sffNodeName, transportEgressFlow);
     }
 
     /**
@@ -1410,11 +1431,11 @@ public class SfcOfFlowProgrammerImpl implements SfcOfFlowProgrammerInterface {
      *            - the switch port to send the packet out on
      * @param pathId
      *            - the RSP path id to match on
-     * @param cookieStr
-     *            - the cookie to set on the flow
+     * @param flowKind
+     *            - the kind of flow, set in its cookie
      */
     public void configureMplsTransportEgressFlow(final String sffNodeName, final String srcMac, final String dstMac,
-            final long mplsLabel, String port, final long pathId, final String cookieStr) {
+            final long mplsLabel, String port, final long pathId, final int flowKind) {
         // Match on the metadata pathId
         MatchBuilder match = new MatchBuilder();
         SfcOpenflowUtils.addMatchMetada(match, getMetadataSFP(pathId), METADATA_MASK_SFP_MATCH);
@@ -1424,8 +1445,8 @@ public class SfcOfFlowProgrammerImpl implements SfcOfFlowProgrammerInterface {
         actionList.add(SfcOpenflowUtils.createActionSetMplsLabel(mplsLabel, actionList.size()));
 
         FlowBuilder transportEgressFlow = configureMacTransportEgressFlow(match, actionList, port, pathId, srcMac,
-                dstMac, cookieStr);
-        sfcOfFlowWriter.writeFlow(flowRspId, sffNodeName, transportEgressFlow);
+                dstMac, flowKind);
+        writeFlow(sffNodeName, transportEgressFlow);
     }
 
     /**
@@ -1493,7 +1514,7 @@ public class SfcOfFlowProgrammerImpl implements SfcOfFlowProgrammerInterface {
 
         FlowBuilder transportEgressFlow = configureTransportEgressFlow(match, actionList, theOutPortToSet, flowPriority,
                 TRANSPORT_EGRESS_NSH_VXGPE_LASTHOP_COOKIE, flowName.toString());
-        sfcOfFlowWriter.writeFlow(flowRspId, sffNodeName, transportEgressFlow);
+        writeFlow(sffNodeName, transportEgressFlow);
     }
 
     /**
@@ -1546,15 +1567,13 @@ public class SfcOfFlowProgrammerImpl implements SfcOfFlowProgrammerInterface {
                 .add(sfMacAddress.getValue());
 
         // Make the cookie
-        BigInteger cookie = new BigInteger(
-                TRANSPORT_EGRESS_COOKIE_STR_BASE + TRANSPORT_EGRESS_NSH_ETH_LASTHOP_PIPELINE_COOKIE,
-                COOKIE_BIGINT_HEX_RADIX);
+        BigInteger cookie = getCookie(TABLE_INDEX_TRANSPORT_EGRESS, TRANSPORT_EGRESS_NSH_ETH_LASTHOP_PIPELINE_COOKIE);
 
         // Create and return the flow
         FlowBuilder fb = SfcOpenflowUtils.createFlowBuilder(getTableId(TABLE_INDEX_TRANSPORT_EGRESS),
                 OF_PRIORITY_TRANSPORT_EGRESS_PIPELINE, cookie, flowName.toString(), match, isb);
 
-        sfcOfFlowWriter.writeFlow(flowRspId, sffNodeName, fb);
+        writeFlow(sffNodeName, fb);
     }
 
     @Override
@@ -1635,15 +1654,14 @@ public class SfcOfFlowProgrammerImpl implements SfcOfFlowProgrammerInterface {
                 .add(outport);
 
         // Make the cookie
-        BigInteger cookie = new BigInteger(
-                TRANSPORT_EGRESS_COOKIE_STR_BASE + TRANSPORT_EGRESS_NSH_ETH_LASTHOP_TUNNEL_REMOTE_COOKIE,
-                COOKIE_BIGINT_HEX_RADIX);
+        BigInteger cookie = getCookie(TABLE_INDEX_TRANSPORT_EGRESS,
+                TRANSPORT_EGRESS_NSH_ETH_LASTHOP_TUNNEL_REMOTE_COOKIE);
 
         // Create and return the flow
         FlowBuilder fb = SfcOpenflowUtils.createFlowBuilder(getTableId(TABLE_INDEX_TRANSPORT_EGRESS),
                 OF_PRIORITY_TRANSPORT_EGRESS_TUNNEL_REMOTE, cookie, flowName.toString(), match, isb);
 
-        sfcOfFlowWriter.writeFlow(flowRspId, sffNodeName, fb);
+        writeFlow(sffNodeName, fb);
     }
 
     /**
@@ -1703,15 +1721,14 @@ public class SfcOfFlowProgrammerImpl implements SfcOfFlowProgrammerInterface {
                 .add(sffIpAddress);
 
         // Make the cookie
-        BigInteger cookie = new BigInteger(
-                TRANSPORT_EGRESS_COOKIE_STR_BASE + TRANSPORT_EGRESS_NSH_ETH_LASTHOP_TUNNEL_LOCAL_COOKIE,
-                COOKIE_BIGINT_HEX_RADIX);
+        BigInteger cookie = getCookie(TABLE_INDEX_TRANSPORT_EGRESS,
+                TRANSPORT_EGRESS_NSH_ETH_LASTHOP_TUNNEL_LOCAL_COOKIE);
 
         // Create and return the flow
         FlowBuilder fb = SfcOpenflowUtils.createFlowBuilder(getTableId(TABLE_INDEX_TRANSPORT_EGRESS),
                 OF_PRIORITY_TRANSPORT_EGRESS_TUNNEL_LOCAL, cookie, flowName.toString(), match, isb);
 
-        sfcOfFlowWriter.writeFlow(flowRspId, sffNodeName, fb);
+        writeFlow(sffNodeName, fb);
     }
 
     /**
@@ -1757,15 +1774,13 @@ public class SfcOfFlowProgrammerImpl implements SfcOfFlowProgrammerInterface {
                 .add(sffIpAddress);
 
         // Make the cookie
-        BigInteger cookie = new BigInteger(
-                TRANSPORT_EGRESS_COOKIE_STR_BASE + TRANSPORT_EGRESS_NSH_ETH_LASTHOP_NSH_LOCAL_COOKIE,
-                COOKIE_BIGINT_HEX_RADIX);
+        BigInteger cookie = getCookie(TABLE_INDEX_TRANSPORT_EGRESS, TRANSPORT_EGRESS_NSH_ETH_LASTHOP_NSH_LOCAL_COOKIE);
 
         // Create and return the flow
         FlowBuilder fb = SfcOpenflowUtils.createFlowBuilder(getTableId(TABLE_INDEX_TRANSPORT_EGRESS),
                 OF_PRIORITY_TRANSPORT_EGRESS_NSH_LOCAL, cookie, flowName.toString(), match, isb);
 
-        sfcOfFlowWriter.writeFlow(flowRspId, sffNodeName, fb);
+        writeFlow(sffNodeName, fb);
     }
 
     /**
@@ -1814,15 +1829,13 @@ public class SfcOfFlowProgrammerImpl implements SfcOfFlowProgrammerInterface {
                 .add(outport);
 
         // Make the cookie
-        BigInteger cookie = new BigInteger(
-                TRANSPORT_EGRESS_COOKIE_STR_BASE + TRANSPORT_EGRESS_NSH_ETH_LASTHOP_NSH_REMOTE_COOKIE,
-                COOKIE_BIGINT_HEX_RADIX);
+        BigInteger cookie = getCookie(TABLE_INDEX_TRANSPORT_EGRESS, TRANSPORT_EGRESS_NSH_ETH_LASTHOP_NSH_REMOTE_COOKIE);
 
         // Create and return the flow
         FlowBuilder fb = SfcOpenflowUtils.createFlowBuilder(getTableId(TABLE_INDEX_TRANSPORT_EGRESS),
                 OF_PRIORITY_TRANSPORT_EGRESS_NSH_REMOTE, cookie, flowName.toString(), match, isb);
 
-        sfcOfFlowWriter.writeFlow(flowRspId, sffNodeName, fb);
+        writeFlow(sffNodeName, fb);
     }
 
     @Override
@@ -1877,7 +1890,7 @@ public class SfcOfFlowProgrammerImpl implements SfcOfFlowProgrammerInterface {
 
         FlowBuilder transportEgressFlow = configureTransportEgressFlow(match, actionList, theOutPortToSet, flowPriority,
                 TRANSPORT_EGRESS_NSH_VXGPE_COOKIE, flowName.toString());
-        sfcOfFlowWriter.writeFlow(flowRspId, sffNodeName, transportEgressFlow);
+        writeFlow(sffNodeName, transportEgressFlow);
     }
 
     /**
@@ -1915,7 +1928,7 @@ public class SfcOfFlowProgrammerImpl implements SfcOfFlowProgrammerInterface {
 
         FlowBuilder transportEgressFlow = configureTransportEgressFlow(match, actionList, port,
                 OF_PRIORITY_TRANSPORT_EGRESS + 10, TRANSPORT_EGRESS_NSH_VXGPE_NSC_COOKIE, flowName.toString());
-        sfcOfFlowWriter.writeFlow(flowRspId, sffNodeName, transportEgressFlow);
+        writeFlow(sffNodeName, transportEgressFlow);
     }
 
     @Override
@@ -1948,7 +1961,7 @@ public class SfcOfFlowProgrammerImpl implements SfcOfFlowProgrammerInterface {
 
         FlowBuilder transportEgressFlow = configureTransportEgressFlow(match, actionList, EMPTY_SWITCH_PORT,
                 OF_PRIORITY_TRANSPORT_EGRESS + 10, TRANSPORT_EGRESS_NSH_VXGPE_APPCOEXIST_COOKIE, flowName.toString());
-        sfcOfFlowWriter.writeFlow(flowRspId, sffNodeName, transportEgressFlow);
+        writeFlow(sffNodeName, transportEgressFlow);
     }
 
     /**
@@ -1975,7 +1988,7 @@ public class SfcOfFlowProgrammerImpl implements SfcOfFlowProgrammerInterface {
         List<Action> actionList = new ArrayList<>();
         FlowBuilder transportEgressFlow = configureTransportEgressFlow(match, actionList, port,
                 OF_PRIORITY_TRANSPORT_EGRESS, TRANSPORT_EGRESS_NSH_ETH_COOKIE, flowName.toString());
-        sfcOfFlowWriter.writeFlow(flowRspId, sffNodeName, transportEgressFlow);
+        writeFlow(sffNodeName, transportEgressFlow);
     }
 
     @Override
@@ -2010,7 +2023,7 @@ public class SfcOfFlowProgrammerImpl implements SfcOfFlowProgrammerInterface {
      * @return a FlowBuilder with the created Path Mapper flow
      */
     private FlowBuilder configureMacTransportEgressFlow(MatchBuilder match, List<Action> actionList, String port,
-            final long pathId, final String srcMac, final String dstMac, String cookieStr) {
+            final long pathId, final String srcMac, final String dstMac, int flowKind) {
 
         // Optionally match on the dstMac
         int flowPriority = OF_PRIORITY_TRANSPORT_EGRESS;
@@ -2031,7 +2044,7 @@ public class SfcOfFlowProgrammerImpl implements SfcOfFlowProgrammerInterface {
         flowName.add(OpenflowConstants.OF_NAME_TRANSPORT_EGRESS)
                 .add(port).add(String.valueOf(pathId)).add(srcMac).add(dstMac);
 
-        return configureTransportEgressFlow(match, actionList, port, flowPriority, cookieStr, flowName.toString());
+        return configureTransportEgressFlow(match, actionList, port, flowPriority, flowKind, flowName.toString());
     }
 
     /**
@@ -2050,7 +2063,7 @@ public class SfcOfFlowProgrammerImpl implements SfcOfFlowProgrammerInterface {
      * @return a FlowBuilder with the created Path Mapper flow
      */
     private FlowBuilder configureTransportEgressFlow(MatchBuilder match, List<Action> actionList, String port,
-            int flowPriority, String cookieStr, String flowName) {
+            int flowPriority, int flowKind, String flowName) {
         LOG.debug("SfcProviderSffFlowWriter.ConfigureTransportEgressFlow");
 
         if (port.equals(EMPTY_SWITCH_PORT) && getTableEgress() > APP_COEXISTENCE_NOT_SET) {
@@ -2066,7 +2079,7 @@ public class SfcOfFlowProgrammerImpl implements SfcOfFlowProgrammerInterface {
         InstructionsBuilder isb = SfcOpenflowUtils.wrapActionsIntoApplyActionsInstruction(actionList);
 
         // Make the cookie
-        BigInteger cookie = new BigInteger(TRANSPORT_EGRESS_COOKIE_STR_BASE + cookieStr, COOKIE_BIGINT_HEX_RADIX);
+        BigInteger cookie = getCookie(TABLE_INDEX_TRANSPORT_EGRESS, flowKind);
 
         // Create and return the flow
         return SfcOpenflowUtils.createFlowBuilder(getTableId(TABLE_INDEX_TRANSPORT_EGRESS), flowPriority, cookie,
@@ -2074,7 +2087,7 @@ public class SfcOfFlowProgrammerImpl implements SfcOfFlowProgrammerInterface {
     }
 
     private void configureTransportEgressFlow(String openflowName, long nshNsp, short nshNsi, List<Action> actionList,
-            int flowPriority, String cookieStr, String flowName) {
+            int flowPriority, int flowKind, String flowName) {
 
         LOG.debug("configureTransportEgressFlow:starting. ofname:{} instructions: {}", openflowName, actionList);
 
@@ -2082,11 +2095,11 @@ public class SfcOfFlowProgrammerImpl implements SfcOfFlowProgrammerInterface {
         InstructionsBuilder isb = SfcOpenflowUtils.wrapActionsIntoApplyActionsInstruction(actionList);
 
         // Make the cookie
-        BigInteger cookie = new BigInteger(TRANSPORT_EGRESS_COOKIE_STR_BASE + cookieStr, COOKIE_BIGINT_HEX_RADIX);
+        BigInteger cookie = getCookie(TABLE_INDEX_TRANSPORT_EGRESS, flowKind);
 
         FlowBuilder transportEgressFlowBuilder = SfcOpenflowUtils.createFlowBuilder(
                 getTableId(TABLE_INDEX_TRANSPORT_EGRESS), flowPriority, cookie, flowName, match, isb);
-        sfcOfFlowWriter.writeFlow(flowRspId, openflowName, transportEgressFlowBuilder);
+        writeFlow(openflowName, transportEgressFlowBuilder);
     }
 
     @Override
@@ -2114,11 +2127,19 @@ public class SfcOfFlowProgrammerImpl implements SfcOfFlowProgrammerInterface {
         sfcOfFlowWriter.writeGroupToDataStore(nodeName, gb, isAddGroup);
     }
 
+    @Override
+    public void configureGroupBucketWeights(String openflowNodeId, long sfgId, Map<Long, Integer> bucketWeights) {
+        LOG.debug("configuring group bucket weights: ofNodeId {}, id {}, weights {}", openflowNodeId, sfgId,
+                bucketWeights);
+        sfcOfFlowWriter.writeGroupBucketWeightsToDataStore(openflowNodeId, sfgId, bucketWeights);
+    }
+
     private Bucket buildBucket(BucketBuilder bb, GroupBucketInfo bucketInfo) {
         int order = 0;
         BucketId bucketId = new BucketId((long) bucketInfo.getIndex());
         bb.setBucketId(bucketId);
         bb.withKey(new BucketKey(bucketId));
+        bb.setWeight(bucketInfo.getWeight());
         String sfMac = bucketInfo.getSfMac();
         String sfIp = bucketInfo.getSfIp();
         List<Action> actionList = new ArrayList<>();
@@ -2190,13 +2211,53 @@ public class SfcOfFlowProgrammerImpl implements SfcOfFlowProgrammerInterface {
         // Create and configure the FlowBuilder
         FlowBuilder nextHopFlow = SfcOpenflowUtils.createFlowBuilder(getTableId(TABLE_INDEX_NEXT_HOP), flowPriority,
                 OpenflowConstants.OF_NAME_NEXT_HOP, match, isb);
-        sfcOfFlowWriter.writeFlow(flowRspId, sffNodeName, nextHopFlow);
+        writeFlow(sffNodeName, nextHopFlow);
     }
 
     private static BigInteger getMetadataSFP(long sfpId) {
         return BigInteger.valueOf(sfpId).and(METADATA_MASK_SFP_MATCH);
     }
 
+    /**
+     * Write a flow of the current RSP. Flows not given a cookie yet get the
+     * default cookie of their table, so every flow of the RSP can be selected
+     * by its path id.
+     *
+     * @param sffNodeName
+     *            - the SFF node to write the flow to
+     * @param flow
+     *            - the flow to write
+     */
+    private void writeFlow(String sffNodeName, FlowBuilder flow) {
+        if (!SfcOpenflowCookie.isSfcCookie(SfcOpenflowCookie.getValue(flow.getCookie()))) {
+            FlowCookie cookie = new FlowCookie(getCookie(getTableIndex(flow.getTableId()), DEFAULT_FLOW_KIND));
+            flow.setCookie(cookie);
+            flow.setCookieMask(cookie);
+        }
+        sfcOfFlowWriter.writeFlow(flowRspId, sffNodeName, flow);
+    }
+
+    private BigInteger getCookie(short tableIndex, int flowKind) {
+        return BigInteger.valueOf(SfcOpenflowCookie.build(tableIndex, flowKind, flowRspId));
+    }
+
+    /**
+     * Inverse of {@link #getTableId(short)}.
+     *
+     * @param tableId
+     *            - the table id of a flow
+     * @return the index of the SFC table, or the table id itself if the table
+     *         is not an SFC table
+     */
+    private short getTableIndex(short tableId) {
+        for (short tableIndex : TABLE_INDEXES) {
+            if (getTableId(tableIndex) == tableId) {
+                return tableIndex;
+            }
+        }
+        return tableId;
+    }
+
     /**
      * getTableId Having a TableBase allows us to "offset" the SFF tables by
      * this.tableBase tables. This is used for App Coexistence. When a
@@ -9,6 +9,7 @@
 package org.opendaylight.sfc.renderers.openflow.openflow;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
 import org.opendaylight.sfc.genius.util.appcoexistence.SfcTableIndexMapper;
@@ -66,6 +67,13 @@ public interface SfcOfFlowProgrammerInterface {
     // Set FlowWriter implementation
     void setFlowWriter(SfcOfFlowWriterInterface sfcOfFlowWriter);
 
+    // Get the FlowWriter implementation
+    SfcOfFlowWriterInterface getFlowWriter();
+
+    // Create a FlowProgrammer with the same table configuration writing to the
+    // given FlowWriter, used to render an RSP with its own programmer state
+    SfcOfFlowProgrammerInterface newFlowProgrammer(SfcOfFlowWriterInterface sfcOfFlowWriter);
+
     //
     // Configure Table 1, Transport Ingress
     //
@@ -219,6 +227,18 @@ public interface SfcOfFlowProgrammerInterface {
     void configureGroup(String sffNodeName, String openflowNodeId, String sfgName, long sfgId, int groupType,
             List<GroupBucketInfo> bucketInfos, boolean isAddGroup);
 
+    /**
+     * Update the weights of some buckets of a group without rebuilding it.
+     *
+     * @param openflowNodeId
+     *            the openflow node of the group
+     * @param sfgId
+     *            the group id
+     * @param bucketWeights
+     *            the new weights, by bucket id
+     */
+    void configureGroupBucketWeights(String openflowNodeId, long sfgId, Map<Long, Integer> bucketWeights);
+
     /**
      * Used by logical sff processor in order to write chain egress flows.
      * The sff ip address is optional, if not provided it is assumed that
@@ -8,15 +8,29 @@
 
 package org.opendaylight.sfc.renderers.openflow.processors;
 
+import com.google.common.util.concurrent.Striped;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import org.opendaylight.controller.md.sal.binding.api.DataBroker;
 import org.opendaylight.genius.mdsalutil.NwConstants;
+import org.opendaylight.infrautils.utils.concurrent.Executors;
 import org.opendaylight.mdsal.binding.api.RpcConsumerRegistry;
 import org.opendaylight.sfc.genius.util.SfcGeniusDataUtils;
 import org.opendaylight.sfc.genius.util.SfcGeniusRpcClient;
@@ -27,6 +41,10 @@ import org.opendaylight.sfc.renderers.openflow.utils.SfcSynchronizer;
 import org.opendaylight.sfc.renderers.openflow.utils.operdsupdate.OperDsUpdateHandlerInterface;
 import org.opendaylight.sfc.renderers.openflow.utils.operdsupdate.OperDsUpdateHandlerLSFFImpl;
 import org.opendaylight.sfc.util.openflow.OpenflowConstants;
+import org.opendaylight.sfc.util.openflow.writer.FlowDetails;
+import org.opendaylight.sfc.util.openflow.writer.SfcOfFlowReconciler;
+import org.opendaylight.sfc.util.openflow.writer.SfcOfRspFlowWriter;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.common.rev151017.RspName;
 import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.common.rev151017.SfName;
 import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.common.rev151017.SffDataPlaneLocatorName;
 import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.common.rev151017.SffName;
@@ -49,15 +67,52 @@ import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.NodeId;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-public class SfcOfRspProcessor {
+/**
+ * Renders RSPs into OpenFlow flows.
+ *
+ * <p>
+ * By default RSPs are rendered one at a time in the calling thread, holding the
+ * exclusive SfcSynchronizer lock and using the shared flow programmer. When
+ * created with render workers, each RSP is rendered on a bounded pool of
+ * workers with a context of its own: a flow programmer, a transport processor
+ * and a flow writer buffering its flows. Independent RSPs are then rendered in
+ * parallel, holding the SfcSynchronizer lock in shared mode, and only the
+ * hand-off of the flows of the same SFF node to the shared flow writer is
+ * serialized. An RSP is always processed by the same worker, so its renders
+ * and deletions are processed in order.
+ *
+ * <p>
+ * When an existing RSP is rendered again, its new flows are compared with the
+ * flows it owns, and only the flows that differ are written or deleted.
+ *
+ * <p>
+ * On startup, the flows of the existing RSPs are reconciled with the installed
+ * ones in the background. The RSPs notified meanwhile are processed once the
+ * reconciliation completed, and the first processing of each reconciled RSP is
+ * skipped if the RSP did not change.
+ */
+public class SfcOfRspProcessor implements AutoCloseable {
     private static final Logger LOG = LoggerFactory.getLogger(SfcOfRspProcessor.class);
+    private static final long SHUTDOWN_TIME = 5;
+    // SFF nodes sharing a lock only serialize their flow hand-offs
+    private static final int SFF_NODE_LOCK_STRIPES = 64;
     private final SfcOfFlowProgrammerInterface sfcOfFlowProgrammer;
     private final SfcOfBaseProviderUtils sfcOfProviderUtils;
     private final SfcSynchronizer sfcSynchronizer;
     private final Map<NodeId, Boolean> sffInitialized;
     private final OperDsUpdateHandlerInterface operDsHandler;
+    private final Map<String, Supplier<SfcRspTransportProcessorBase>> rspTransportProcessorFactories;
     private final Map<String, SfcRspTransportProcessorBase> rspTransportProcessors;
     private final SfcGeniusRpcClient theGeniusRpcClient;
+    private final List<ExecutorService> renderWorkers;
+    private final Striped<Lock> sffNodeLocks;
+    // RSPs whose flows were reconciled, and not processed since then
+    private final Map<RspName, RenderedServicePath> reconciledRsps;
+    // Completed once the flows of the existing RSPs are reconciled
+    private volatile CompletableFuture<Void> reconciliation = CompletableFuture.completedFuture(null);
+    // RSP updates completed, and flows written or deleted by them
+    private final AtomicLong rspUpdateCount = new AtomicLong();
+    private final AtomicLong rspUpdateFlowCount = new AtomicLong();
     private static final String TRANSPORT_ENCAP_SEPARATOR_STRING = "//";
 
     /*
@@ -72,39 +127,258 @@ public class SfcOfRspProcessor {
     public SfcOfRspProcessor(SfcOfFlowProgrammerInterface sfcOfFlowProgrammer,
                              SfcOfBaseProviderUtils sfcOfProviderUtils, SfcSynchronizer sfcSynchronizer,
                              RpcConsumerRegistry rpcRegistry, DataBroker dataBroker) {
+        this(sfcOfFlowProgrammer, sfcOfProviderUtils, sfcSynchronizer, rpcRegistry, dataBroker, 0);
+    }
+
+    /**
+     * Create an RSP processor.
+     *
+     * @param sfcOfFlowProgrammer
+     *            the shared flow programmer
+     * @param sfcOfProviderUtils
+     *            the provider utils
+     * @param sfcSynchronizer
+     *            the synchronizer shared with the renderer configuration
+     * @param rpcRegistry
+     *            the RPC registry
+     * @param dataBroker
+     *            the data broker
+     * @param renderWorkerCount
+     *            the number of workers rendering RSPs in parallel, 0 to render
+     *            them in the calling thread
+     */
+    public SfcOfRspProcessor(SfcOfFlowProgrammerInterface sfcOfFlowProgrammer,
+                             SfcOfBaseProviderUtils sfcOfProviderUtils, SfcSynchronizer sfcSynchronizer,
+                             RpcConsumerRegistry rpcRegistry, DataBroker dataBroker, int renderWorkerCount) {
         this.sfcOfFlowProgrammer = sfcOfFlowProgrammer;
         this.sfcOfProviderUtils = sfcOfProviderUtils;
         this.sfcSynchronizer = sfcSynchronizer;
-        this.sffInitialized = new HashMap<>();
+        this.sffInitialized = new ConcurrentHashMap<>();
         this.theGeniusRpcClient = new SfcGeniusRpcClient(rpcRegistry);
         this.operDsHandler = new OperDsUpdateHandlerLSFFImpl(dataBroker);
+        this.rspTransportProcessorFactories = new HashMap<>();
         this.rspTransportProcessors = new HashMap<>();
-
-        this.rspTransportProcessors.put(getTransportEncapName(VxlanGpe.class.getName(), Nsh.class.getName()),
-                new SfcRspProcessorNshVxgpe());
-        this.rspTransportProcessors.put(getTransportEncapName(Mac.class.getName(), Nsh.class.getName()),
-                new SfcRspProcessorNshEth());
-        this.rspTransportProcessors.put(getTransportEncapName(Mpls.class.getName(), Transport.class.getName()),
-                new SfcRspProcessorMpls());
-        this.rspTransportProcessors.put(getTransportEncapName(Mac.class.getName(), Transport.class.getName()),
-                new SfcRspProcessorVlan());
-        this.rspTransportProcessors.put(getTransportEncapName(Mac.class.getName(), MacChaining.class.getName()),
-                new SfcRspProcessorMacChaining());
-        this.rspTransportProcessors.put(LOGICAL_SFF_TRANSPORT_PROCESSOR_KEY,
-                new SfcRspProcessorLogicalSff(getGeniusRpcClient(), getOperDsHandler()));
+        this.sffNodeLocks = Striped.lock(SFF_NODE_LOCK_STRIPES);
+        this.reconciledRsps = new ConcurrentHashMap<>();
+
+        this.rspTransportProcessorFactories.put(getTransportEncapName(VxlanGpe.class.getName(), Nsh.class.getName()),
+                SfcRspProcessorNshVxgpe::new);
+        this.rspTransportProcessorFactories.put(getTransportEncapName(Mac.class.getName(), Nsh.class.getName()),
+                SfcRspProcessorNshEth::new);
+        this.rspTransportProcessorFactories.put(
+                getTransportEncapName(Mpls.class.getName(), Transport.class.getName()), SfcRspProcessorMpls::new);
+        this.rspTransportProcessorFactories.put(getTransportEncapName(Mac.class.getName(), Transport.class.getName()),
+                SfcRspProcessorVlan::new);
+        this.rspTransportProcessorFactories.put(
+                getTransportEncapName(Mac.class.getName(), MacChaining.class.getName()),
+                SfcRspProcessorMacChaining::new);
+        this.rspTransportProcessorFactories.put(LOGICAL_SFF_TRANSPORT_PROCESSOR_KEY,
+                () -> new SfcRspProcessorLogicalSff(getGeniusRpcClient(), getOperDsHandler()));
+        rspTransportProcessorFactories.forEach((key, value) -> rspTransportProcessors.put(key, value.get()));
         rspTransportProcessors.forEach((key, value) -> value.setFlowProgrammer(sfcOfFlowProgrammer));
         rspTransportProcessors.forEach((key, value) -> value.setSfcProviderUtils(sfcOfProviderUtils));
+
+        List<ExecutorService> workers = new ArrayList<>(renderWorkerCount);
+        for (int i = 0; i < renderWorkerCount; i++) {
+            workers.add(Executors.newSingleThreadExecutor("SfcOfRspRenderer-" + i, LOG));
+        }
+        this.renderWorkers = Collections.unmodifiableList(workers);
     }
 
     /**
      * Main entry point for processing an RSP. Orchestrates logic to call
-     * different FlowProgrammer flow creation methods.
+     * different FlowProgrammer flow creation methods. With render workers,
+     * the RSP is rendered asynchronously.
      *
      * @param rsp
      *            - a newly created/updated Rendered Service Path
      */
     public void processRenderedServicePath(RenderedServicePath rsp) {
-        // if this method takes too long, consider launching it in a thread
+        if (renderWorkers.isEmpty()) {
+            if (!isReconciled(rsp)) {
+                renderRenderedServicePath(rsp);
+            }
+        } else {
+            getRenderWorker(rsp).execute(() -> {
+                if (!isReconciled(rsp)) {
+                    renderRenderedServicePathInParallel(rsp);
+                }
+            });
+        }
+    }
+
+    /**
+     * Deletes the OpenFlow flows associated with this Rendered Service Path.
+     * With render workers, the RSP is deleted asynchronously, once any of its
+     * pending renders completed.
+     *
+     * @param rsp
+     *            - the Rendered Service Path to delete
+     */
+    public void deleteRenderedServicePath(RenderedServicePath rsp) {
+        if (renderWorkers.isEmpty()) {
+            forgetReconciled(rsp);
+            removeRenderedServicePath(rsp);
+        } else {
+            getRenderWorker(rsp).execute(() -> {
+                forgetReconciled(rsp);
+                removeRenderedServicePath(rsp);
+            });
+        }
+    }
+
+    /**
+     * Renders an existing RSP again, writing and deleting only the flows that
+     * differ from the flows already owned by the RSP, in one transaction per
+     * SFF. The flows of the RSP are kept if it cannot be rendered. With render
+     * workers, the RSP is updated asynchronously.
+     *
+     * @param rsp
+     *            - the Rendered Service Path to render again
+     */
+    public void updateRenderedServicePath(RenderedServicePath rsp) {
+        if (renderWorkers.isEmpty()) {
+            forgetReconciled(rsp);
+            updateRenderedServicePathFlows(rsp);
+        } else {
+            getRenderWorker(rsp).execute(() -> {
+                forgetReconciled(rsp);
+                updateRenderedServicePathFlows(rsp);
+            });
+        }
+    }
+
+    /**
+     * Get the number of RSP updates completed.
+     *
+     * @return the number of RSP updates
+     */
+    public long getRspUpdateCount() {
+        return rspUpdateCount.get();
+    }
+
+    /**
+     * Get the number of flows written or deleted by all the RSP updates.
+     *
+     * @return the number of flows touched by RSP updates
+     */
+    public long getRspUpdateFlowCount() {
+        return rspUpdateFlowCount.get();
+    }
+
+    /**
+     * Reconcile the installed flows with the flows of the given RSPs, typically
+     * on startup, before the RSPs are processed. The flows of the RSPs are
+     * rendered without being written, then only the difference with the
+     * installed flows is pushed to the data store, and the flow writer learns
+     * which RSP owns each flow.
+     *
+     * @param rsps
+     *            - all the existing Rendered Service Paths
+     * @param flowReconciler
+     *            - the reconciler of the shared flow writer
+     */
+    public void reconcileRenderedServicePaths(Collection<RenderedServicePath> rsps,
+            SfcOfFlowReconciler flowReconciler) {
+        List<FlowDetails> expectedFlows = new ArrayList<>();
+        try {
+            sfcSynchronizer.lock();
+
+            for (RenderedServicePath rsp : rsps) {
+                try {
+                    sfcOfProviderUtils.addRsp(rsp.getPathId());
+
+                    SfcOfRspFlowWriter flowWriter = new SfcOfRspFlowWriter(sfcOfFlowProgrammer.getFlowWriter());
+                    RspRenderContext context = buildFlows(rsp, flowWriter);
+
+                    expectedFlows.addAll(flowWriter.getFlows());
+                    reconciledRsps.put(rsp.getName(), rsp);
+                    context.transportProcessor.updateOperationalDSInfo(context.sffGraph, rsp);
+                } catch (SfcRenderingException e) {
+                    LOG.error("SfcRenderingException in reconcileRenderedServicePaths: ", e.getMessage(), e);
+                } finally {
+                    sfcOfProviderUtils.removeRsp(rsp.getPathId());
+                }
+            }
+
+            flowReconciler.reconcile(expectedFlows);
+            LOG.info("Reconciliation complete for {} RSPs", reconciledRsps.size());
+        } finally {
+            sfcSynchronizer.unlock();
+        }
+    }
+
+    /**
+     * Reconcile asynchronously the installed flows with the flows of the
+     * existing RSPs, see
+     * {@link #reconcileRenderedServicePaths(Collection, SfcOfFlowReconciler)}.
+     * The RSPs processed, updated or deleted meanwhile wait for the
+     * reconciliation to complete, successfully or not.
+     *
+     * @param rspsSupplier
+     *            - supplies all the existing Rendered Service Paths, once the
+     *            reconciliation started
+     * @param flowReconciler
+     *            - the reconciler of the shared flow writer
+     * @param executor
+     *            - the executor running the reconciliation
+     * @return the future completed once the flows are reconciled
+     */
+    public CompletableFuture<Void> reconcileRenderedServicePathsAsync(
+            Supplier<Collection<RenderedServicePath>> rspsSupplier, SfcOfFlowReconciler flowReconciler,
+            Executor executor) {
+        CompletableFuture<Void> result = CompletableFuture.runAsync(
+            () -> reconcileRenderedServicePaths(rspsSupplier.get(), flowReconciler), executor);
+        reconciliation = result.handle((ignored, throwable) -> {
+            if (throwable != null) {
+                LOG.error("Failed to reconcile the flows of the existing RSPs", throwable);
+            }
+            return null;
+        });
+        return result;
+    }
+
+    /**
+     * Stop the render workers, waiting for the pending RSPs to be processed.
+     */
+    @Override
+    public void close() throws InterruptedException {
+        renderWorkers.forEach(ExecutorService::shutdown);
+        for (ExecutorService renderWorker : renderWorkers) {
+            if (!renderWorker.awaitTermination(SHUTDOWN_TIME, TimeUnit.SECONDS)) {
+                List<Runnable> droppedTasks = renderWorker.shutdownNow();
+                LOG.error("SfcOfRspProcessor render worker was abruptly shut down. [{}] RSPs will not be processed.",
+                        droppedTasks.size());
+            }
+        }
+    }
+
+    /*
+     * Whether the flows of an RSP were reconciled and the RSP did not change
+     * since then, waiting for the reconciliation to complete.
+     */
+    private boolean isReconciled(RenderedServicePath rsp) {
+        reconciliation.join();
+        if (rsp.equals(reconciledRsps.remove(rsp.getName()))) {
+            LOG.debug("processRenderedServicePath: flows of RSP [{}] already reconciled", rsp.getName());
+            return true;
+        }
+        return false;
+    }
+
+    private void forgetReconciled(RenderedServicePath rsp) {
+        reconciliation.join();
+        reconciledRsps.remove(rsp.getName());
+    }
+
+    /**
+     * Render an RSP in the calling thread, using the shared flow programmer
+     * and transport processors.
+     *
+     * @param rsp
+     *            - the Rendered Service Path to render
+     */
+    private void renderRenderedServicePath(RenderedServicePath rsp) {
         try {
             // This call blocks until the lock is obtained
             sfcSynchronizer.lock();
@@ -115,46 +389,15 @@ public class SfcOfRspProcessor {
             // Populate the SFF Connection Graph
             //
             SffGraph sffGraph = populateSffGraph(rsp);
-            SfcRspTransportProcessorBase transportProcessor = getTransportProcessor(sffGraph, rsp);
-
-            //
-            // Populate the SFF ingress and egress DPLs from the sffGraph
-            //
-            transportProcessor.processSffDpls();
-
-            //
-            // Internally calculate and set the RSP transport values
-            //
-            transportProcessor.setRspTransports();
-
-            //
-            // Now process the entries in the SFF Graph and populate the flow
-            // tables
-            //
-            SffGraph.SffGraphEntry entry;
-            Iterator<SffGraph.SffGraphEntry> sffGraphIter = sffGraph.getGraphEntryIterator();
-            sfcOfFlowProgrammer.setTableIndexMapper(transportProcessor.getTableIndexMapper().isPresent()
-                    ? transportProcessor.getTableIndexMapper().get()
-                    : null);
-            while (sffGraphIter.hasNext()) {
-                entry = sffGraphIter.next();
-                LOG.debug("build flows of entry: {}", entry);
-                // The flows created by initializeSff dont belong to any
-                // particular RSP
-                sfcOfFlowProgrammer.setFlowRspId(OpenflowConstants.SFC_FLOWS);
-                initializeSff(entry, transportProcessor);
-                sfcOfFlowProgrammer.setFlowRspId(rsp.getPathId());
-                configureTransportIngressFlows(entry, sffGraph, transportProcessor);
-                configurePathMapperFlows(entry, sffGraph, transportProcessor);
-                configureNextHopFlows(entry, sffGraph, transportProcessor);
-                configureTransportEgressFlows(entry, sffGraph, transportProcessor);
-            }
+            RspRenderContext context = new RspRenderContext(rsp, sffGraph, getTransportProcessor(sffGraph, rsp),
+                    sfcOfFlowProgrammer);
+            buildFlows(context);
 
             // Flush the flows to the data store
             this.sfcOfFlowProgrammer.flushFlows();
 
             // Update the operational datastore if necessary (without blocking)
-            transportProcessor.updateOperationalDSInfo(sffGraph, rsp);
+            context.transportProcessor.updateOperationalDSInfo(sffGraph, rsp);
 
             LOG.info("Processing complete for RSP: name [{}] Id [{}]", rsp.getName(), rsp.getPathId());
 
@@ -169,16 +412,173 @@ public class SfcOfRspProcessor {
         }
     }
 
+    /**
+     * Render an RSP on a render worker, with a context of its own. The flows
+     * are buffered in the RSP flow writer and handed to the shared flow writer
+     * one SFF node at a time, holding the lock of the node.
+     *
+     * @param rsp
+     *            - the Rendered Service Path to render
+     */
+    private void renderRenderedServicePathInParallel(RenderedServicePath rsp) {
+        try {
+            // Renders only exclude changes of the renderer configuration
+            sfcSynchronizer.lockShared();
+
+            sfcOfProviderUtils.addRsp(rsp.getPathId());
+
+            SfcOfRspFlowWriter flowWriter = new SfcOfRspFlowWriter(sfcOfFlowProgrammer.getFlowWriter());
+            RspRenderContext context = buildFlows(rsp, flowWriter);
+
+            // Flows are only written if the whole RSP could be rendered
+            for (String sffNodeName : new ArrayList<>(flowWriter.getSffNodeNames())) {
+                Lock sffNodeLock = sffNodeLocks.get(sffNodeName);
+                sffNodeLock.lock();
+                try {
+                    flowWriter.flushFlows(sffNodeName);
+                } finally {
+                    sffNodeLock.unlock();
+                }
+            }
+
+            context.transportProcessor.updateOperationalDSInfo(context.sffGraph, rsp);
+
+            LOG.info("Processing complete for RSP: name [{}] Id [{}]", rsp.getName(), rsp.getPathId());
+
+        } catch (SfcRenderingException e) {
+            LOG.error("SfcRenderingException in processRenderedServicePath: ", e.getMessage(), e);
+        } finally {
+            sfcSynchronizer.unlockShared();
+            sfcOfProviderUtils.removeRsp(rsp.getPathId());
+        }
+    }
+
+    /**
+     * Render an existing RSP again with a context of its own, and apply only
+     * the difference with the flows it owns.
+     *
+     * @param rsp
+     *            - the Rendered Service Path to render again
+     */
+    private void updateRenderedServicePathFlows(RenderedServicePath rsp) {
+        try {
+            // The flows owned by the RSP must not change while being compared
+            sfcSynchronizer.lock();
+
+            sfcOfProviderUtils.addRsp(rsp.getPathId());
+
+            SfcOfRspFlowWriter flowWriter = new SfcOfRspFlowWriter(sfcOfFlowProgrammer.getFlowWriter());
+            RspRenderContext context = buildFlows(rsp, flowWriter);
+
+            // The initialization flows of newly used SFFs are not owned by the RSP
+            Map<Boolean, List<FlowDetails>> flowsByOwner = flowWriter.getFlows().stream()
+                    .collect(Collectors.partitioningBy(flow -> flow.getRspId() == OpenflowConstants.SFC_FLOWS));
+            flowWriter.flushFlows(flowsByOwner.get(true));
+            int flowCount = flowWriter.updateRspFlows(rsp.getPathId(), flowsByOwner.get(false));
+
+            context.transportProcessor.updateOperationalDSInfo(context.sffGraph, rsp);
+
+            rspUpdateCount.incrementAndGet();
+            rspUpdateFlowCount.addAndGet(flowCount);
+            LOG.info("Update complete for RSP: name [{}] Id [{}], {} flows touched", rsp.getName(), rsp.getPathId(),
+                    flowCount);
+
+        } catch (SfcRenderingException e) {
+            LOG.error("SfcRenderingException in updateRenderedServicePath: ", e.getMessage(), e);
+        } finally {
+            sfcSynchronizer.unlock();
+            sfcOfProviderUtils.removeRsp(rsp.getPathId());
+        }
+    }
+
+    /**
+     * Create the flows of an RSP with a context of its own, buffering them in
+     * the given RSP flow writer.
+     *
+     * @param rsp
+     *            - the Rendered Service Path to render
+     * @param flowWriter
+     *            - the flow writer of the RSP
+     * @return the RSP render context
+     */
+    private RspRenderContext buildFlows(RenderedServicePath rsp, SfcOfRspFlowWriter flowWriter) {
+        SffGraph sffGraph = populateSffGraph(rsp);
+        SfcOfFlowProgrammerInterface flowProgrammer = sfcOfFlowProgrammer.newFlowProgrammer(flowWriter);
+        RspRenderContext context = new RspRenderContext(rsp, sffGraph,
+                newTransportProcessor(sffGraph, rsp, flowProgrammer), flowProgrammer);
+        buildFlows(context);
+        return context;
+    }
+
+    /**
+     * Create the flows of an RSP through the flow programmer of its context.
+     *
+     * @param context
+     *            - the RSP render context
+     */
+    private void buildFlows(RspRenderContext context) {
+        SffGraph sffGraph = context.sffGraph;
+        SfcRspTransportProcessorBase transportProcessor = context.transportProcessor;
+        SfcOfFlowProgrammerInterface flowProgrammer = context.flowProgrammer;
+
+        //
+        // Populate the SFF ingress and egress DPLs from the sffGraph
+        //
+        transportProcessor.processSffDpls();
+
+        //
+        // Internally calculate and set the RSP transport values
+        //
+        transportProcessor.setRspTransports();
+
+        //
+        // Now process the entries in the SFF Graph and populate the flow
+        // tables
+        //
+        SffGraph.SffGraphEntry entry;
+        Iterator<SffGraph.SffGraphEntry> sffGraphIter = sffGraph.getGraphEntryIterator();
+        flowProgrammer.setTableIndexMapper(transportProcessor.getTableIndexMapper().isPresent()
+                ? transportProcessor.getTableIndexMapper().get()
+                : null);
+        try {
+            while (sffGraphIter.hasNext()) {
+                entry = sffGraphIter.next();
+                LOG.debug("build flows of entry: {}", entry);
+                // The flows created by initializeSff dont belong to any
+                // particular RSP
+                flowProgrammer.setFlowRspId(OpenflowConstants.SFC_FLOWS);
+                initializeSff(entry, transportProcessor, flowProgrammer, context.initializedSffs);
+                flowProgrammer.setFlowRspId(context.rsp.getPathId());
+                configureTransportIngressFlows(entry, sffGraph, transportProcessor);
+                configurePathMapperFlows(entry, sffGraph, transportProcessor);
+                configureNextHopFlows(entry, sffGraph, transportProcessor);
+                configureTransportEgressFlows(entry, sffGraph, transportProcessor);
+            }
+        } catch (SfcRenderingException e) {
+            // The initialization flows of a failed RSP are never written, so
+            // the SFFs it initialized must be initialized again by the next RSP
+            context.initializedSffs.forEach(sffNodeId -> setSffInitialized(sffNodeId, false));
+            throw e;
+        }
+    }
+
     /**
      * Deletes the OpenFlow flows associated with this Rendered Service Path.
      *
      * @param rsp
      *            - the Rendered Service Path to delete
      */
-    public void deleteRenderedServicePath(RenderedServicePath rsp) {
-        Set<NodeId> clearedSffNodeIDs = sfcOfFlowProgrammer.deleteRspFlows(rsp.getPathId());
-        for (NodeId sffNodeId : clearedSffNodeIDs) {
-            setSffInitialized(sffNodeId, false);
+    private void removeRenderedServicePath(RenderedServicePath rsp) {
+        try {
+            // The flows of all the RSPs are looked up to clear the SFFs
+            sfcSynchronizer.lock();
+
+            Set<NodeId> clearedSffNodeIDs = sfcOfFlowProgrammer.deleteRspFlows(rsp.getPathId());
+            for (NodeId sffNodeId : clearedSffNodeIDs) {
+                setSffInitialized(sffNodeId, false);
+            }
+        } finally {
+            sfcSynchronizer.unlock();
         }
 
         // not necessary to build a transport processor; simply update SFF state
@@ -204,9 +604,8 @@ public class SfcOfRspProcessor {
      * @return an RSP Transport Processor for the RSP.
      */
     private SfcRspTransportProcessorBase getReusableTransportProcessor(SffGraph sffGraph, RenderedServicePath rsp) {
-        String transportProcessorKey = sffGraph.isUsingLogicalSFF() ? LOGICAL_SFF_TRANSPORT_PROCESSOR_KEY
-                : getTransportEncapName(rsp.getTransportType().getName(), rsp.getSfcEncapsulation().getName());
-        SfcRspTransportProcessorBase transportProcessor = rspTransportProcessors.get(transportProcessorKey);
+        SfcRspTransportProcessorBase transportProcessor = rspTransportProcessors.get(
+                getTransportProcessorKey(sffGraph, rsp));
         if (transportProcessor == null) {
             throw new SfcRenderingException("getTransportProcessor no processor for transport ["
                     + rsp.getTransportType().getName() + "] encap [" + rsp.getSfcEncapsulation() + "] ");
@@ -234,6 +633,44 @@ public class SfcOfRspProcessor {
         return transportProcessor;
     }
 
+    /**
+     * Given the RSP transport type + encapsulation, create a new Rsp Transport
+     * Processor, used only for the given RSP.
+     *
+     * @param sffGraph
+     *            - the graph used for rsp generation
+     * @param rsp
+     *            - contains the RSP transport type and encapsulation
+     * @param flowProgrammer
+     *            - the flow programmer of the RSP
+     *
+     * @return an RSP Transport Processor for the RSP.
+     */
+    private SfcRspTransportProcessorBase newTransportProcessor(SffGraph sffGraph, RenderedServicePath rsp,
+            SfcOfFlowProgrammerInterface flowProgrammer) {
+        Supplier<SfcRspTransportProcessorBase> transportProcessorFactory = rspTransportProcessorFactories.get(
+                getTransportProcessorKey(sffGraph, rsp));
+        if (transportProcessorFactory == null) {
+            throw new SfcRenderingException("getTransportProcessor no processor for transport ["
+                    + rsp.getTransportType().getName() + "] encap [" + rsp.getSfcEncapsulation() + "] ");
+        }
+        SfcRspTransportProcessorBase transportProcessor = transportProcessorFactory.get();
+        transportProcessor.setFlowProgrammer(flowProgrammer);
+        transportProcessor.setSfcProviderUtils(sfcOfProviderUtils);
+        transportProcessor.setRsp(rsp);
+        transportProcessor.setSffGraph(sffGraph);
+        return transportProcessor;
+    }
+
+    private String getTransportProcessorKey(SffGraph sffGraph, RenderedServicePath rsp) {
+        return sffGraph.isUsingLogicalSFF() ? LOGICAL_SFF_TRANSPORT_PROCESSOR_KEY
+                : getTransportEncapName(rsp.getTransportType().getName(), rsp.getSfcEncapsulation().getName());
+    }
+
+    private ExecutorService getRenderWorker(RenderedServicePath rsp) {
+        return renderWorkers.get((int) Math.floorMod(rsp.getPathId(), (long) renderWorkers.size()));
+    }
+
     /**
      * Given an RSP, create and populate an SffGraph.
      *
@@ -521,8 +958,14 @@ public class SfcOfRspProcessor {
      * @param transportProcessor
      *            the transport processor to use when initialization flows are
      *            transport-dependent
+     * @param flowProgrammer
+     *            the flow programmer of the RSP
+     * @param initializedSffs
+     *            the SFFs initialized by the RSP, the SFF is added to them if
+     *            it gets initialized
      */
-    private void initializeSff(SffGraph.SffGraphEntry entry, SfcRspTransportProcessorBase transportProcessor) {
+    private void initializeSff(SffGraph.SffGraphEntry entry, SfcRspTransportProcessorBase transportProcessor,
+            SfcOfFlowProgrammerInterface flowProgrammer, Set<NodeId> initializedSffs) {
         if (entry.getDstSff().equals(SffGraph.EGRESS)) {
             return;
         }
@@ -533,34 +976,46 @@ public class SfcOfRspProcessor {
             throw new SfcRenderingException("initializeSff SFF [" + entry.getDstSff().getValue() + "] does not exist");
         }
 
+        // The SFF is marked as initialized before creating the flows, so that
+        // RSPs rendered in parallel initialize it only once
         NodeId sffNodeId = new NodeId(sffNodeName);
-        if (!getSffInitialized(sffNodeId)) {
+        if (Boolean.TRUE.equals(sffInitialized.put(sffNodeId, Boolean.TRUE))) {
+            return;
+        }
+
+        boolean isInitialized = false;
+        try {
             LOG.debug("Initializing SFF [{}] node [{}]", entry.getDstSff().getValue(), sffNodeName);
 
             /* For OVS DPDK, add default NORMAL action flows */
             Long outputPort = SfcOvsUtil.getDpdkOfPort(sffNodeName, null);
             if (outputPort != null) {
-                this.sfcOfFlowProgrammer.configureClassifierTableDpdkOutput(sffNodeName, outputPort);
-                this.sfcOfFlowProgrammer.configureClassifierTableDpdkInput(sffNodeName, outputPort);
+                flowProgrammer.configureClassifierTableDpdkOutput(sffNodeName, outputPort);
+                flowProgrammer.configureClassifierTableDpdkInput(sffNodeName, outputPort);
             }
 
             transportProcessor.configureClassifierTableMatchAny(sffNodeName);
             if (entry.usesLogicalSFF()) {
                 this.sfcOfProviderUtils.setTableOffsets(entry.getDstSff(), NwConstants.SFC_TRANSPORT_CLASSIFIER_TABLE);
-                this.sfcOfFlowProgrammer.configureTransportIngressTableMatchAnyResubmit(sffNodeName,
+                flowProgrammer.configureTransportIngressTableMatchAnyResubmit(sffNodeName,
                         NwConstants.LPORT_DISPATCHER_TABLE);
-                this.sfcOfFlowProgrammer.configureTransportEgressTableMatchAnyResubmit(sffNodeName,
+                flowProgrammer.configureTransportEgressTableMatchAnyResubmit(sffNodeName,
                         NwConstants.LPORT_DISPATCHER_TABLE);
             } else {
-                this.sfcOfProviderUtils.setTableOffsets(entry.getDstSff(), sfcOfFlowProgrammer.getTableBase());
-                this.sfcOfFlowProgrammer.configureTransportIngressTableMatchAny(sffNodeName);
-                this.sfcOfFlowProgrammer.configureTransportEgressTableMatchAny(sffNodeName);
+                this.sfcOfProviderUtils.setTableOffsets(entry.getDstSff(), flowProgrammer.getTableBase());
+                flowProgrammer.configureTransportIngressTableMatchAny(sffNodeName);
+                flowProgrammer.configureTransportEgressTableMatchAny(sffNodeName);
             }
-            this.sfcOfFlowProgrammer.configurePathMapperTableMatchAny(sffNodeName);
-            this.sfcOfFlowProgrammer.configurePathMapperAclTableMatchAny(sffNodeName);
-            this.sfcOfFlowProgrammer.configureNextHopTableMatchAny(sffNodeName);
+            flowProgrammer.configurePathMapperTableMatchAny(sffNodeName);
+            flowProgrammer.configurePathMapperAclTableMatchAny(sffNodeName);
+            flowProgrammer.configureNextHopTableMatchAny(sffNodeName);
 
-            setSffInitialized(sffNodeId, true);
+            isInitialized = true;
+            initializedSffs.add(sffNodeId);
+        } finally {
+            if (!isInitialized) {
+                setSffInitialized(sffNodeId, false);
+            }
         }
     }
 
@@ -568,24 +1023,6 @@ public class SfcOfRspProcessor {
     // Internal util methods
     //
 
-    /**
-     * Given an SFF name, determine if its been initialized yet or not. Called
-     * by initializeSff()
-     *
-     * @param sffNodeId
-     *            The SFF node ID to check
-     * @return true if its been initialized, false otherwise
-     */
-    private boolean getSffInitialized(final NodeId sffNodeId) {
-        Boolean isInitialized = sffInitialized.get(sffNodeId);
-
-        if (isInitialized == null) {
-            return false;
-        }
-
-        return isInitialized;
-    }
-
     /**
      * Set a given SFF as initialized. Called by initializeSff()
      *
@@ -654,4 +1091,23 @@ public class SfcOfRspProcessor {
         return dpnId;
     }
 
+    /**
+     * The state of an RSP while it is rendered.
+     */
+    private static final class RspRenderContext {
+        private final RenderedServicePath rsp;
+        private final SffGraph sffGraph;
+        private final SfcRspTransportProcessorBase transportProcessor;
+        private final SfcOfFlowProgrammerInterface flowProgrammer;
+        // SFFs initialized while rendering the RSP
+        private final Set<NodeId> initializedSffs = new HashSet<>();
+
+        RspRenderContext(RenderedServicePath rsp, SffGraph sffGraph, SfcRspTransportProcessorBase transportProcessor,
+                SfcOfFlowProgrammerInterface flowProgrammer) {
+            this.rsp = rsp;
+            this.sffGraph = sffGraph;
+            this.transportProcessor = transportProcessor;
+            this.flowProgrammer = flowProgrammer;
+        }
+    }
 }
@@ -14,6 +14,7 @@ public class GroupBucketInfo {
     private String sfIp;
     private String outPort;
     private int index;
+    private Integer weight;
 
     public String getSfMac() {
         return sfMac;
@@ -47,8 +48,17 @@ public class GroupBucketInfo {
         this.index = index;
     }
 
+    public Integer getWeight() {
+        return weight;
+    }
+
+    public void setWeight(Integer weight) {
+        this.weight = weight;
+    }
+
     @Override
     public String toString() {
-        return "GroupBucketInfo [sfMac=" + sfMac + ", sfIp=" + sfIp + ", outPort=" + outPort + ", index=" + index + "]";
+        return "GroupBucketInfo [sfMac=" + sfMac + ", sfIp=" + sfIp + ", outPort=" + outPort + ", index=" + index
+                + ", weight=" + weight + "]";
     }
 }
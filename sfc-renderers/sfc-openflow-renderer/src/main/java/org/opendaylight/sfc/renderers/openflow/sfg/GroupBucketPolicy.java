@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2018 Ericsson Inc. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.sfc.renderers.openflow.sfg;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import org.opendaylight.yang.gen.v1.urn.intel.params.xml.ns.sf.desc.mon.rev141201.service.functions.state.service.function.state.SfcSfDescMon;
+
+/**
+ * Weights and bucket slots of the select groups of the SF groups.
+ *
+ * <p>
+ * The weight of a bucket is the share of its SF in the capacity of the group,
+ * scaled by the CPU headroom of the SF. The capacity is the supported
+ * bandwidth in the SF description, and is only taken into account when all the
+ * SFs of the group report it. A SF without monitoring information is
+ * considered idle.
+ *
+ * <p>
+ * The switch selects a bucket by hashing the flow with each bucket id, so a
+ * bucket keeps its flows as long as its id does. The bucket id is the position
+ * of the bucket in the group, and in the consistent mode the SFs keep their
+ * slot: a removed SF leaves a free slot, programmed with a weight of zero so
+ * it is never selected, and an added SF takes the first free slot or a new one
+ * at the end. Only the flows of the removed or added SF are then remapped. The
+ * free slots are kept until they are reused, the groups are merged in the data
+ * store so a dropped bucket would stay on the switch.
+ */
+public final class GroupBucketPolicy {
+
+    // The weight of an idle SF with the largest capacity of its group
+    public static final int MAX_WEIGHT = 100;
+
+    // The weight of a free slot, never selected
+    public static final int FREE_SLOT_WEIGHT = 0;
+
+    private GroupBucketPolicy() {
+    }
+
+    /**
+     * Get the weight of a bucket.
+     *
+     * @param capacity
+     *            the capacity of the SF, null if it is not known
+     * @param maxCapacity
+     *            the largest capacity of the SFs of the group
+     * @param cpuUtilization
+     *            the CPU utilization percentage of the SF, null if it is not
+     *            known
+     * @return the weight, between 1 and {@link #MAX_WEIGHT}
+     */
+    public static int getWeight(Long capacity, long maxCapacity, Long cpuUtilization) {
+        double share = capacity == null || maxCapacity <= 0 ? 1.0 : (double) capacity / maxCapacity;
+        double headroom = cpuUtilization == null ? 1.0 : (100 - Math.min(100, Math.max(0, cpuUtilization))) / 100.0;
+        return (int) Math.max(1, Math.min(MAX_WEIGHT, Math.round(MAX_WEIGHT * share * headroom)));
+    }
+
+    /**
+     * Get the weights of the buckets of a group.
+     *
+     * @param sfDescMons
+     *            the description and monitoring information of the SFs of
+     *            the group, in bucket order, null for the SFs without it
+     * @return the weights, in bucket order
+     */
+    public static List<Integer> getWeights(List<SfcSfDescMon> sfDescMons) {
+        long maxCapacity = 0;
+        for (SfcSfDescMon sfDescMon : sfDescMons) {
+            Long capacity = getCapacity(sfDescMon);
+            if (capacity == null) {
+                maxCapacity = 0;
+                break;
+            }
+            maxCapacity = Math.max(maxCapacity, capacity);
+        }
+        List<Integer> weights = new ArrayList<>(sfDescMons.size());
+        for (SfcSfDescMon sfDescMon : sfDescMons) {
+            weights.add(getWeight(maxCapacity == 0 ? null : getCapacity(sfDescMon), maxCapacity,
+                    getCpuUtilization(sfDescMon)));
+        }
+        return weights;
+    }
+
+    /**
+     * Assign the SFs of a group to the bucket slots, keeping the slot of the
+     * SFs already assigned one.
+     *
+     * @param previousSlots
+     *            the SF names of the slots assigned so far, null for the free
+     *            slots
+     * @param sfNames
+     *            the SF names of the group
+     * @return the SF names of the slots, null for the free slots
+     */
+    public static List<String> assignSlots(List<String> previousSlots, Collection<String> sfNames) {
+        Set<String> members = new HashSet<>(sfNames);
+        List<String> slots = new ArrayList<>(previousSlots.size() + sfNames.size());
+        Set<String> assigned = new HashSet<>();
+        for (String sfName : previousSlots) {
+            boolean kept = sfName != null && members.contains(sfName) && assigned.add(sfName);
+            slots.add(kept ? sfName : null);
+        }
+
+        // the new SFs are assigned in name order, so that the assignment does
+        // not depend on the order of the SFs in the group
+        int freeSlot = 0;
+        for (String sfName : new TreeSet<>(members)) {
+            if (assigned.contains(sfName)) {
+                continue;
+            }
+            while (freeSlot < slots.size() && slots.get(freeSlot) != null) {
+                freeSlot++;
+            }
+            if (freeSlot < slots.size()) {
+                slots.set(freeSlot, sfName);
+            } else {
+                slots.add(sfName);
+            }
+        }
+        return slots;
+    }
+
+    /**
+     * Get the capacity of a SF.
+     *
+     * @param sfDescMon
+     *            the description and monitoring information of the SF
+     * @return the supported bandwidth, null if it is not known
+     */
+    public static Long getCapacity(SfcSfDescMon sfDescMon) {
+        if (sfDescMon == null || sfDescMon.getDescriptionInfo() == null
+                || sfDescMon.getDescriptionInfo().getCapabilities() == null) {
+            return null;
+        }
+        return sfDescMon.getDescriptionInfo().getCapabilities().getSupportedBandwidth();
+    }
+
+    /**
+     * Get the CPU utilization of a SF.
+     *
+     * @param sfDescMon
+     *            the description and monitoring information of the SF
+     * @return the CPU utilization percentage, null if it is not known
+     */
+    public static Long getCpuUtilization(SfcSfDescMon sfDescMon) {
+        if (sfDescMon == null || sfDescMon.getMonitoringInfo() == null
+                || sfDescMon.getMonitoringInfo().getResourceUtilization() == null) {
+            return null;
+        }
+        return sfDescMon.getMonitoringInfo().getResourceUtilization().getCPUUtilization();
+    }
+}
@@ -9,10 +9,9 @@
 package org.opendaylight.sfc.renderers.openflow.utils;
 
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import org.opendaylight.controller.md.sal.common.api.data.LogicalDatastoreType;
 import org.opendaylight.sfc.ovs.provider.SfcOvsUtil;
 import org.opendaylight.sfc.provider.api.SfcDataStoreAPI;
@@ -53,23 +52,20 @@ public class SfcOfProviderUtils extends SfcOfBaseProviderUtils {
     // store these objects per RSP id to avoid collisions
     private static class RspContext {
 
-        // store the SFs and SFFs internally so we dont have to
-        // query the DataStore repeatedly for the same thing
-        private final Map<SfName, ServiceFunction> serviceFunctions;
-        private final Map<String, ServiceFunctionGroup> serviceFunctionGroups;
+        // SFs, SFGs and SFTs come from the provider read cache shared by all
+        // the RSPs, only the SFFs augmented with their OpenFlow node id are
+        // kept per RSP since the augmentation reads the OVSDB topology
         private final Map<SffName, ServiceFunctionForwarder> serviceFunctionFowarders;
 
         RspContext() {
-            serviceFunctions = Collections.synchronizedMap(new HashMap<SfName, ServiceFunction>());
-            serviceFunctionGroups = Collections.synchronizedMap(new HashMap<String, ServiceFunctionGroup>());
-            serviceFunctionFowarders = Collections.synchronizedMap(new HashMap<SffName, ServiceFunctionForwarder>());
+            serviceFunctionFowarders = new ConcurrentHashMap<>();
         }
     }
 
     private final Map<Long, RspContext> rspIdToContext;
 
     public SfcOfProviderUtils() {
-        rspIdToContext = new HashMap<>();
+        rspIdToContext = new ConcurrentHashMap<>();
     }
 
     @Override
@@ -83,9 +79,7 @@ public class SfcOfProviderUtils extends SfcOfBaseProviderUtils {
     }
 
     /**
-     * Return the named ServiceFunction Acts as a local cache to not have to go
-     * to DataStore so often First look in internal storage, if its not there
-     * get it from the DataStore and store it internally.
+     * Return the named ServiceFunction, read through the provider read cache.
      *
      * @param sfName
      *            - The SF Name to search for
@@ -98,17 +92,7 @@ public class SfcOfProviderUtils extends SfcOfBaseProviderUtils {
             return null;
         }
 
-        RspContext rspContext = rspIdToContext.get(rspId);
-
-        ServiceFunction sf = rspContext.serviceFunctions.get(sfName);
-        if (sf == null) {
-            sf = SfcProviderServiceFunctionAPI.readServiceFunction(sfName);
-            if (sf != null) {
-                rspContext.serviceFunctions.put(sfName, sf);
-            }
-        }
-
-        return sf;
+        return SfcProviderServiceFunctionAPI.readServiceFunction(sfName);
     }
 
     /**
@@ -125,8 +109,9 @@ public class SfcOfProviderUtils extends SfcOfBaseProviderUtils {
 
     /**
      * Return the named ServiceFunctionForwarder Acts as a local cache to not
-     * have to go to DataStore so often First look in internal storage, if its
-     * not there get it from the DataStore and store it internally.
+     * have to go to the OVSDB topology so often First look in internal
+     * storage, if its not there read it through the provider read cache,
+     * augment it with its OpenFlow node id and store it internally.
      *
      * @param sffName
      *            - The SFF Name to search for
@@ -155,17 +140,7 @@ public class SfcOfProviderUtils extends SfcOfBaseProviderUtils {
 
     @Override
     public ServiceFunctionGroup getServiceFunctionGroup(final String sfgName, long rspId) {
-        RspContext rspContext = rspIdToContext.get(rspId);
-
-        ServiceFunctionGroup sfg = rspContext.serviceFunctionGroups.get(sfgName);
-        if (sfg == null) {
-            sfg = SfcProviderServiceFunctionGroupAPI.readServiceFunctionGroup(sfgName);
-            if (sfg != null) {
-                rspContext.serviceFunctionGroups.put(sfgName, sfg);
-            }
-        }
-
-        return sfg;
+        return SfcProviderServiceFunctionGroupAPI.readServiceFunctionGroup(sfgName);
     }
 
     /**
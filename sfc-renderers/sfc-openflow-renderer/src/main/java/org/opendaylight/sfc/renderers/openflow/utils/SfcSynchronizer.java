@@ -8,27 +8,45 @@
 
 package org.opendaylight.sfc.renderers.openflow.utils;
 
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * A simple synchronization class used to synchronize different events in SFC.
- * Encapsulates the usage of a ReentrantLock.
+ * Encapsulates the usage of a ReentrantReadWriteLock: lock() is exclusive,
+ * while lockShared() may be held by several threads at once, so that RSPs can
+ * be rendered in parallel while configuration changes are serialized with
+ * all of them.
  *
  * @author ebrjohn
  *
  */
 public class SfcSynchronizer {
-    private final ReentrantLock lock;
+    private final ReentrantReadWriteLock lock;
 
     public SfcSynchronizer() {
-        lock = new ReentrantLock();
+        lock = new ReentrantReadWriteLock();
     }
 
     /**
      * To be called by threads that need to lock. This is a blocking call.
      */
     public void lock() {
-        lock.lock();
+        lock.writeLock().lock();
+    }
+
+    /**
+     * To be called by threads that can run along with other shared lock
+     * holders, but not with an exclusive one. This is a blocking call.
+     */
+    public void lockShared() {
+        lock.readLock().lock();
+    }
+
+    /**
+     * Release the shared lock.
+     */
+    public void unlockShared() {
+        lock.readLock().unlock();
     }
 
     /**
@@ -37,13 +55,13 @@ public class SfcSynchronizer {
      * @return true if no threads are waiting on the lock, false otherwise
      */
     public boolean isLocked() {
-        return lock.isLocked();
+        return lock.isWriteLocked() || lock.getReadLockCount() > 0;
     }
 
     /**
      * Release the lock.
      */
     public void unlock() {
-        lock.unlock();
+        lock.writeLock().unlock();
     }
 }
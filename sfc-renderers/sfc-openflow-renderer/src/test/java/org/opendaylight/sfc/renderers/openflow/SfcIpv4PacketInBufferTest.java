@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2018 Ericsson Inc. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.sfc.renderers.openflow;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.opendaylight.sfc.renderers.openflow.openflow.SfcIpv4PacketInBuffer;
+
+public class SfcIpv4PacketInBufferTest {
+
+    // synthetic PacketIns, one new src/dst pair in PAIR_RATIO
+    private static final int PACKET_COUNT = 100000;
+    private static final int PAIR_RATIO = 10;
+
+    @Test
+    public void bufferPktIn() {
+        SfcIpv4PacketInBuffer buffer = new SfcIpv4PacketInBuffer(10000);
+        long key = SfcIpv4PacketInBuffer.getKey(0x0a0a0001, 0x0b0b0001);
+
+        assertFalse(buffer.bufferPktIn(key));
+        assertTrue(buffer.bufferPktIn(key));
+        // the reverse direction is another pair
+        assertFalse(buffer.bufferPktIn(SfcIpv4PacketInBuffer.getKey(0x0b0b0001, 0x0a0a0001)));
+        assertEquals(2, buffer.size());
+
+        buffer.remove(key);
+        assertEquals(1, buffer.size());
+        assertFalse(buffer.bufferPktIn(key));
+    }
+
+    @Test
+    public void bufferPktInExpiry() throws InterruptedException {
+        SfcIpv4PacketInBuffer buffer = new SfcIpv4PacketInBuffer(1);
+        for (int i = 0; i < 1000; i++) {
+            assertFalse(buffer.bufferPktIn(SfcIpv4PacketInBuffer.getKey(i, -i)));
+        }
+        assertEquals(1000, buffer.size());
+
+        // let the buffer time expire, the next packets drain the wheel
+        Thread.sleep(10);
+        for (int i = 0; i < 1000; i++) {
+            assertFalse(buffer.bufferPktIn(SfcIpv4PacketInBuffer.getKey(i, -i)));
+        }
+        Thread.sleep(10);
+        buffer.bufferPktIn(SfcIpv4PacketInBuffer.getKey(0, 0));
+        assertTrue(buffer.size() < 1000);
+    }
+
+    @Test
+    public void bufferPktInManyPairs() {
+        SfcIpv4PacketInBuffer buffer = new SfcIpv4PacketInBuffer(60000);
+        int pairs = PACKET_COUNT / PAIR_RATIO;
+        int buffered = 0;
+
+        for (int i = 0; i < PACKET_COUNT; i++) {
+            int pair = i % pairs;
+            if (buffer.bufferPktIn(SfcIpv4PacketInBuffer.getKey(0x0a000000 | pair, 0x0b000000 | pair))) {
+                buffered++;
+            }
+        }
+
+        assertEquals(PACKET_COUNT - pairs, buffered);
+        assertEquals(pairs, buffer.size());
+    }
+}
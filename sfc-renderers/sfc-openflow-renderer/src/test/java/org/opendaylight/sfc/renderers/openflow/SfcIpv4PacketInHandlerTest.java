@@ -141,6 +141,24 @@ public class SfcIpv4PacketInHandlerTest {
         assertEquals(this.pktInHandler.getBufferSize(), 1);
     }
 
+    @Test
+    public void pktInInstallRateLimited() {
+        this.pktInHandler.setMaxInstallRate(1);
+
+        this.pktInHandler.onPacketReceived(createPacket());
+        verify(this.flowProgrammerMock, times(2)).setFlowRspId(anyLong());
+        assertEquals(this.pktInHandler.getRateLimitedCount(), 0);
+
+        // Another src/dst pair on the same switch exceeds the install rate,
+        // and is not buffered so a later packet installs its flows
+        resetFlowProgrammerMock();
+        this.pktInHandler.onPacketReceived(createPacket("0c0c0001", "0d0d0001"));
+        verify(this.flowProgrammerMock, times(1)).compareClassificationTableCookie((FlowCookie) anyObject());
+        verifyNoMoreInteractions(this.flowProgrammerMock);
+        assertEquals(this.pktInHandler.getRateLimitedCount(), 1);
+        assertEquals(this.pktInHandler.getBufferSize(), 1);
+    }
+
     // When we want to reset the method call counters,
     // it also resets the stubs, so do both together
     private void resetFlowProgrammerMock() {
@@ -149,6 +167,10 @@ public class SfcIpv4PacketInHandlerTest {
     }
 
     private PacketReceived createPacket() {
+        return createPacket("0a0a0001", "0b0b0001");
+    }
+
+    private PacketReceived createPacket(String ipSrc, String ipDst) {
         PacketReceived pktMock = mock(PacketReceived.class);
 
         // Stub the PacketReceived methods
@@ -158,7 +180,7 @@ public class SfcIpv4PacketInHandlerTest {
         // MacSrc=a1a1a1a1a1a1, MacDst=b2b2b2b2b2b2, etherType=0800
         // IpHdrStuff=000000000000000000000000, IpSrc=0a0a0001, IpDst=0b0b0001
         byte[] payload = hexStringToByteArray(
-                "a1a1a1a1a1a1b2b2b2b2b2b20800" + "0000000000000000000000000" + "a0a00010b0b0001");
+                "a1a1a1a1a1a1b2b2b2b2b2b20800" + "000000000000000000000000" + ipSrc + ipDst);
         when(pktMock.getPayload()).thenReturn(payload);
 
         // getMatch(), getMatch().getMetadata()
@@ -16,6 +16,7 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.Futures;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -456,4 +457,37 @@ public class SfcOfRspTransactionalProcessorTest {
         // assure that the SFFs don't have any initialization flows
         Assert.assertTrue(areSffsFreeOfInitializationFlows(rspToFlowsMap4));
     }
+
+    /*
+     * Create RSP, then render it again. Check that no flow is written nor
+     * deleted, and that the RSP still owns the same flows.
+     */
+    @Test
+    public void testRspUpdate() {
+        WriteTransaction updateTx = Mockito.mock(WriteTransaction.class);
+        Mockito.when(updateTx.submit()).thenReturn(Futures.immediateCheckedFuture(null));
+        DataBroker updateDataBroker = Mockito.mock(DataBroker.class);
+        Mockito.when(updateDataBroker.newWriteOnlyTransaction()).thenReturn(updateTx);
+        ((SfcOfFlowWriterImpl) sfcFlowWriterTestMock).setDataProvider(updateDataBroker);
+
+        this.nshRsp = rspBuilder.createRspFromSfTypes(serviceFunctionChain1, VxlanGpe.class, Nsh.class);
+        this.sfcOfRspProcessor.processRenderedServicePath(nshRsp);
+
+        Map<Long, Map<String, List<FlowDetails>>> rspToFlowsMap = Whitebox.getInternalState(sfcFlowWriterTestMock,
+                "rspNameToFlowsMap");
+        Set<FlowDetails> flowsBeforeUpdate = rspToFlowsMap.get(nshRsp.getPathId()).values().stream()
+                .flatMap(List::stream).collect(Collectors.toSet());
+        Assert.assertFalse(flowsBeforeUpdate.isEmpty());
+
+        this.sfcOfRspProcessor.updateRenderedServicePath(nshRsp);
+
+        verify(sfcFlowWriterTestMock).updateRspFlows(Matchers.eq(nshRsp.getPathId()),
+                Matchers.anyCollectionOf(FlowDetails.class));
+        Assert.assertEquals(1, sfcOfRspProcessor.getRspUpdateCount());
+        Assert.assertEquals(0, sfcOfRspProcessor.getRspUpdateFlowCount());
+        Set<FlowDetails> flowsAfterUpdate = rspToFlowsMap.get(nshRsp.getPathId()).values().stream()
+                .flatMap(List::stream).collect(Collectors.toSet());
+        Assert.assertEquals(flowsBeforeUpdate, flowsAfterUpdate);
+        Mockito.verifyZeroInteractions(updateTx);
+    }
 }
@@ -13,6 +13,7 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
+import java.math.BigInteger;
 import java.util.Collection;
 import java.util.Collections;
 import org.junit.Before;
@@ -25,8 +26,13 @@ import org.opendaylight.controller.md.sal.binding.api.DataObjectModification;
 import org.opendaylight.controller.md.sal.binding.api.DataTreeModification;
 import org.opendaylight.sfc.renderers.openflow.processors.SfcOfRspProcessor;
 import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.common.rev151017.RspName;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.common.rev151017.SffName;
 import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.rsp.rev140701.rendered.service.paths.RenderedServicePath;
 import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.rsp.rev140701.rendered.service.paths.RenderedServicePathBuilder;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.rsp.rev140701.rendered.service.paths.rendered.service.path.RenderedServicePathHopBuilder;
+import org.opendaylight.yang.gen.v1.urn.ericsson.params.xml.ns.yang.sfc.sff.logical.rev160620.DpnIdType;
+import org.opendaylight.yang.gen.v1.urn.ericsson.params.xml.ns.yang.sfc.sff.logical.rev160620.RspLogicalSffAugmentation;
+import org.opendaylight.yang.gen.v1.urn.ericsson.params.xml.ns.yang.sfc.sff.logical.rev160620.RspLogicalSffAugmentationBuilder;
 
 @RunWith(MockitoJUnitRunner.class)
 public class SfcOfRspDataListenerTest {
@@ -70,17 +76,44 @@ public class SfcOfRspDataListenerTest {
         when(dataObjectModificationRsp.getDataAfter()).thenReturn(rerenderRsp);
         when(dataObjectModificationRsp.getDataBefore()).thenReturn(rerenderRsp);
         sfcOfRspDataListener.onDataTreeChanged(rspModifications);
-        verify(sfcOfRspProcessor).processRenderedServicePath(same(rerenderRsp));
-        verify(sfcOfRspProcessor).deleteRenderedServicePath(same(rerenderRsp));
+        verify(sfcOfRspProcessor).updateRenderedServicePath(same(rerenderRsp));
         verifyNoMoreInteractions(sfcOfRspProcessor);
     }
 
     @Test
-    public void onDataTreeChangedUpdateUnsupported() throws Exception {
-        RenderedServicePath oldRsp = new RenderedServicePathBuilder().setName(new RspName("RSP1")).build();
-        RenderedServicePath newRsp = new RenderedServicePathBuilder().setName(new RspName("RSP2")).build();
+    public void onDataTreeChangedRepair() throws Exception {
+        RenderedServicePath oldRsp = new RenderedServicePathBuilder().setName(new RspName("RSP1")).setPathId(1L)
+                .setRenderedServicePathHop(Collections.singletonList(new RenderedServicePathHopBuilder()
+                        .setHopNumber((short) 0).setServiceFunctionForwarder(new SffName("SFF1")).build()))
+                .build();
+        RenderedServicePath repairedRsp = new RenderedServicePathBuilder(oldRsp)
+                .setRenderedServicePathHop(Collections.singletonList(new RenderedServicePathHopBuilder()
+                        .setHopNumber((short) 0).setServiceFunctionForwarder(new SffName("SFF2")).build()))
+                .build();
         when(dataObjectModificationRsp.getModificationType()).thenReturn(DataObjectModification.ModificationType.WRITE);
-        when(dataObjectModificationRsp.getDataAfter()).thenReturn(newRsp);
+        when(dataObjectModificationRsp.getDataAfter()).thenReturn(repairedRsp);
+        when(dataObjectModificationRsp.getDataBefore()).thenReturn(oldRsp);
+        sfcOfRspDataListener.onDataTreeChanged(rspModifications);
+        verify(sfcOfRspProcessor).updateRenderedServicePath(same(repairedRsp));
+        verifyNoMoreInteractions(sfcOfRspProcessor);
+    }
+
+    @Test
+    public void onDataTreeChangedLogicalSffInfo() throws Exception {
+        RenderedServicePath oldRsp = new RenderedServicePathBuilder().setName(new RspName("RSP1")).setPathId(1L)
+                .setRenderedServicePathHop(Collections.singletonList(new RenderedServicePathHopBuilder()
+                        .setHopNumber((short) 0).setServiceFunctionForwarder(new SffName("SFF1")).build()))
+                .build();
+        RenderedServicePath updatedRsp = new RenderedServicePathBuilder(oldRsp)
+                .setRenderedServicePathHop(Collections.singletonList(new RenderedServicePathHopBuilder(
+                        oldRsp.getRenderedServicePathHop().get(0))
+                        .addAugmentation(RspLogicalSffAugmentation.class, new RspLogicalSffAugmentationBuilder()
+                                .setDpnId(new DpnIdType(BigInteger.ONE)).build())
+                        .build()))
+                .build();
+        when(dataObjectModificationRsp.getModificationType())
+                .thenReturn(DataObjectModification.ModificationType.SUBTREE_MODIFIED);
+        when(dataObjectModificationRsp.getDataAfter()).thenReturn(updatedRsp);
         when(dataObjectModificationRsp.getDataBefore()).thenReturn(oldRsp);
         sfcOfRspDataListener.onDataTreeChanged(rspModifications);
         verifyNoMoreInteractions(sfcOfRspProcessor);
@@ -0,0 +1,297 @@
+/*
+ * Copyright (c) 2018 Ericsson Inc. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.sfc.renderers.openflow.listeners;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.anyMap;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+import static org.mockito.MockitoAnnotations.initMocks;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.opendaylight.controller.md.sal.binding.api.DataBroker;
+import org.opendaylight.controller.md.sal.binding.api.DataObjectModification;
+import org.opendaylight.controller.md.sal.binding.api.DataObjectModification.ModificationType;
+import org.opendaylight.controller.md.sal.binding.api.DataTreeModification;
+import org.opendaylight.controller.md.sal.common.api.data.LogicalDatastoreType;
+import org.opendaylight.sfc.provider.api.SfcDataStoreAPI;
+import org.opendaylight.sfc.provider.api.SfcProviderServiceForwarderAPI;
+import org.opendaylight.sfc.provider.api.SfcProviderServiceFunctionAPI;
+import org.opendaylight.sfc.provider.api.SfcProviderServiceFunctionGroupAlgAPI;
+import org.opendaylight.sfc.renderers.openflow.openflow.SfcOfFlowProgrammerInterface;
+import org.opendaylight.sfc.renderers.openflow.sfg.GroupBucketInfo;
+import org.opendaylight.sfc.renderers.openflow.sfg.GroupBucketPolicy;
+import org.opendaylight.sfc.renderers.openflow.utils.SfcOfBaseProviderUtils;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.common.rev151017.SfDataPlaneLocatorName;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.common.rev151017.SfName;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.common.rev151017.SffName;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sf.rev140701.service.function.base.SfDataPlaneLocatorBuilder;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sf.rev140701.service.functions.ServiceFunction;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sf.rev140701.service.functions.ServiceFunctionBuilder;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sff.rev140701.service.function.forwarders.ServiceFunctionForwarder;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sff.rev140701.service.function.forwarders.ServiceFunctionForwarderBuilder;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sfg.alg.rev150214.ServiceFunctionGroupAlgorithmEntry.AlgorithmType;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sfg.alg.rev150214.service.function.group.algorithms.ServiceFunctionGroupAlgorithmBuilder;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sfg.rev150214.service.function.group.entry.SfcServiceFunction;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sfg.rev150214.service.function.group.entry.SfcServiceFunctionBuilder;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sfg.rev150214.service.function.groups.ServiceFunctionGroup;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sfg.rev150214.service.function.groups.ServiceFunctionGroupBuilder;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sl.rev140701.data.plane.locator.locator.type.MacBuilder;
+import org.opendaylight.yang.gen.v1.urn.ericsson.params.xml.ns.yang.sfc.of.renderer.rev151123.SfcOfRendererConfig;
+import org.opendaylight.yang.gen.v1.urn.ericsson.params.xml.ns.yang.sfc.of.renderer.rev151123.SfcOfRendererConfigBuilder;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.yang.types.rev130715.MacAddress;
+import org.opendaylight.yang.gen.v1.urn.intel.params.xml.ns.sf.desc.mon.rev141201.service.functions.state.service.function.state.SfcSfDescMon;
+import org.opendaylight.yang.gen.v1.urn.intel.params.xml.ns.sf.desc.mon.rev141201.service.functions.state.service.function.state.SfcSfDescMonBuilder;
+import org.opendaylight.yang.gen.v1.urn.intel.params.xml.ns.sf.desc.mon.rev141201.service.functions.state.service.function.state.sfc.sf.desc.mon.MonitoringInfoBuilder;
+import org.opendaylight.yang.gen.v1.urn.intel.params.xml.ns.sf.desc.mon.rpt.rev141105.sf.monitoring.info.ResourceUtilizationBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.group.types.rev131018.GroupTypes;
+import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+/**
+ * Tests the SF group listener: the bucket weights programmed with the groups,
+ * the re-weighting on SF load changes and the bucket slots kept by the SFs.
+ */
+@RunWith(PowerMockRunner.class)
+@PrepareForTest({ SfcProviderServiceFunctionAPI.class, SfcProviderServiceForwarderAPI.class,
+        SfcProviderServiceFunctionGroupAlgAPI.class, SfcDataStoreAPI.class })
+public class SfcOfSfgDataListenerTest {
+
+    private static final String SFG_NAME = "SFG1";
+    private static final long GROUP_ID = 1L;
+    private static final String ALGORITHM_NAME = "select";
+    private static final String SFF_NAME = "SFF1";
+    private static final String SFF_NODE_NAME = "openflow:1";
+    private static final List<String> SF_NAMES = Arrays.asList("SF1", "SF2", "SF3", "SF4");
+
+    @Mock
+    private DataBroker dataBroker;
+
+    @Mock
+    private SfcOfFlowProgrammerInterface sfcOfFlowProgrammer;
+
+    @Mock
+    private SfcOfBaseProviderUtils sfcOfProviderUtils;
+
+    @Mock
+    private DataTreeModification<ServiceFunctionGroup> dataTreeModificationSfg;
+
+    @Mock
+    private DataObjectModification<ServiceFunctionGroup> dataObjectModificationSfg;
+
+    @Captor
+    private ArgumentCaptor<List<GroupBucketInfo>> bucketsInfoCaptor;
+
+    private SfcOfSfgDataListener sfcOfSfgDataListener;
+
+    @Before
+    public void setup() {
+        initMocks(this);
+        PowerMockito.mockStatic(SfcProviderServiceFunctionAPI.class);
+        PowerMockito.mockStatic(SfcProviderServiceForwarderAPI.class);
+        PowerMockito.mockStatic(SfcProviderServiceFunctionGroupAlgAPI.class);
+        PowerMockito.mockStatic(SfcDataStoreAPI.class);
+
+        for (String sfName : SF_NAMES) {
+            when(SfcProviderServiceFunctionAPI.readServiceFunction(new SfName(sfName)))
+                    .thenReturn(buildServiceFunction(sfName));
+        }
+        ServiceFunctionForwarder sff = new ServiceFunctionForwarderBuilder().setName(new SffName(SFF_NAME)).build();
+        when(SfcProviderServiceForwarderAPI.readServiceFunctionForwarder(new SffName(SFF_NAME))).thenReturn(sff);
+        when(sfcOfProviderUtils.getSffOpenFlowNodeName(sff)).thenReturn(SFF_NODE_NAME);
+        when(sfcOfProviderUtils.getDictPortInfoPort(eq(sff), any())).thenReturn("1");
+        AlgorithmType selectType = Arrays.stream(AlgorithmType.values())
+                .filter(type -> type.getIntValue() == GroupTypes.GroupSelect.getIntValue()).findFirst().get();
+        when(SfcProviderServiceFunctionGroupAlgAPI.readServiceFunctionGroupAlg(ALGORITHM_NAME))
+                .thenReturn(new ServiceFunctionGroupAlgorithmBuilder().setName(ALGORITHM_NAME)
+                        .setAlgorithmType(selectType).build());
+        setConsistentHash(false);
+
+        sfcOfSfgDataListener = new SfcOfSfgDataListener(dataBroker, sfcOfFlowProgrammer, sfcOfProviderUtils);
+        when(dataTreeModificationSfg.getRootNode()).thenReturn(dataObjectModificationSfg);
+    }
+
+    @Test
+    public void updateServiceFunctionLoad() {
+        writeGroup("SF1", "SF2", "SF3");
+        assertEquals(Arrays.asList(100, 100, 100), getWeights(verifyConfigureGroup(true)));
+
+        sfcOfSfgDataListener.updateServiceFunctionLoad(new SfName("SF2"), buildSfDescMon(50L));
+        verify(sfcOfFlowProgrammer).configureGroupBucketWeights(SFF_NODE_NAME, GROUP_ID,
+                Collections.singletonMap(1L, 50));
+
+        // the SFs of no programmed group are only recorded
+        sfcOfSfgDataListener.updateServiceFunctionLoad(new SfName("SF4"), buildSfDescMon(50L));
+        verifyNoMoreInteractions(sfcOfFlowProgrammer);
+
+        // the load recorded is used when the group is rebuilt
+        reset(sfcOfFlowProgrammer);
+        writeGroup("SF1", "SF2", "SF3", "SF4");
+        assertEquals(Arrays.asList(100, 50, 100, 50), getWeights(verifyConfigureGroup(true)));
+    }
+
+    @Test
+    public void updateServiceFunctionLoadHysteresis() {
+        writeGroup("SF1", "SF2");
+        verifyConfigureGroup(true);
+
+        sfcOfSfgDataListener.updateServiceFunctionLoad(new SfName("SF1"), buildSfDescMon(50L));
+        verify(sfcOfFlowProgrammer).configureGroupBucketWeights(SFF_NODE_NAME, GROUP_ID,
+                Collections.singletonMap(0L, 50));
+        reset(sfcOfFlowProgrammer);
+
+        // a change of the weight smaller than the hysteresis is not written
+        sfcOfSfgDataListener.updateServiceFunctionLoad(new SfName("SF1"),
+                buildSfDescMon(50L + SfcOfSfgDataListener.WEIGHT_HYSTERESIS - 1));
+        verify(sfcOfFlowProgrammer, never()).configureGroupBucketWeights(anyString(), anyLong(), anyMap());
+
+        // nor does it move the reference weight: the changes add up
+        sfcOfSfgDataListener.updateServiceFunctionLoad(new SfName("SF1"),
+                buildSfDescMon(50L + SfcOfSfgDataListener.WEIGHT_HYSTERESIS));
+        verify(sfcOfFlowProgrammer).configureGroupBucketWeights(SFF_NODE_NAME, GROUP_ID,
+                Collections.singletonMap(0L, 50 - SfcOfSfgDataListener.WEIGHT_HYSTERESIS));
+        verifyNoMoreInteractions(sfcOfFlowProgrammer);
+    }
+
+    @Test
+    public void deleteProgrammedGroup() {
+        writeGroup("SF1", "SF2");
+        List<GroupBucketInfo> bucketsInfo = verifyConfigureGroup(true);
+
+        // the SFs are removed before the group, the programmed group is
+        // removed as it is
+        when(SfcProviderServiceFunctionAPI.readServiceFunction(any())).thenReturn(null);
+        deleteGroup("SF1", "SF2");
+        assertEquals(bucketsInfo, verifyConfigureGroup(false));
+
+        // the group is not re-weighted once removed
+        sfcOfSfgDataListener.updateServiceFunctionLoad(new SfName("SF1"), buildSfDescMon(50L));
+        verifyNoMoreInteractions(sfcOfFlowProgrammer);
+    }
+
+    @Test
+    public void consistentHashSlots() {
+        setConsistentHash(true);
+        writeGroup("SF3", "SF1", "SF2");
+        List<GroupBucketInfo> bucketsInfo = verifyConfigureGroup(true);
+        assertEquals(Arrays.asList("SF1", "SF2", "SF3"), getSfNames(bucketsInfo));
+
+        // the removed SF leaves a free slot, with no weight
+        writeGroup("SF1", "SF3");
+        bucketsInfo = verifyConfigureGroup(true);
+        assertEquals(Arrays.asList("SF1", "SF2", "SF3"), getSfNames(bucketsInfo));
+        assertEquals(Arrays.asList(100, GroupBucketPolicy.FREE_SLOT_WEIGHT, 100), getWeights(bucketsInfo));
+
+        // the free slot is not re-weighted with the load of its last SF
+        sfcOfSfgDataListener.updateServiceFunctionLoad(new SfName("SF2"), buildSfDescMon(50L));
+        verifyNoMoreInteractions(sfcOfFlowProgrammer);
+
+        // the added SF takes the free slot
+        writeGroup("SF1", "SF3", "SF4");
+        bucketsInfo = verifyConfigureGroup(true);
+        assertEquals(Arrays.asList("SF1", "SF4", "SF3"), getSfNames(bucketsInfo));
+        assertEquals(Arrays.asList(100, 100, 100), getWeights(bucketsInfo));
+    }
+
+    @Test
+    public void indexSlots() {
+        writeGroup("SF1", "SF2", "SF3");
+        verifyConfigureGroup(true);
+
+        // without the consistent hash option the buckets follow the SFs
+        writeGroup("SF1", "SF3");
+        assertEquals(Arrays.asList("SF1", "SF3"), getSfNames(verifyConfigureGroup(true)));
+    }
+
+    private void writeGroup(String... sfNames) {
+        when(dataObjectModificationSfg.getModificationType()).thenReturn(ModificationType.WRITE);
+        when(dataObjectModificationSfg.getDataAfter()).thenReturn(buildServiceFunctionGroup(sfNames));
+        sfcOfSfgDataListener.onDataTreeChanged(Collections.singletonList(dataTreeModificationSfg));
+    }
+
+    private void deleteGroup(String... sfNames) {
+        when(dataObjectModificationSfg.getModificationType()).thenReturn(ModificationType.DELETE);
+        when(dataObjectModificationSfg.getDataBefore()).thenReturn(buildServiceFunctionGroup(sfNames));
+        sfcOfSfgDataListener.onDataTreeChanged(Collections.singletonList(dataTreeModificationSfg));
+    }
+
+    // verify the group was configured, and reset the programmer for the next
+    // verifications
+    private List<GroupBucketInfo> verifyConfigureGroup(boolean isAdd) {
+        verify(sfcOfFlowProgrammer).configureGroup(eq(SFF_NAME), eq(SFF_NODE_NAME), eq(SFG_NAME), eq(GROUP_ID),
+                eq(GroupTypes.GroupSelect.getIntValue()), bucketsInfoCaptor.capture(), eq(isAdd));
+        verifyNoMoreInteractions(sfcOfFlowProgrammer);
+        reset(sfcOfFlowProgrammer);
+        return bucketsInfoCaptor.getValue();
+    }
+
+    private void setConsistentHash(boolean consistentHash) {
+        SfcOfRendererConfig config = new SfcOfRendererConfigBuilder().setSfcOfSfgConsistentHash(consistentHash)
+                .build();
+        when(SfcDataStoreAPI.readTransactionAPI(InstanceIdentifier.create(SfcOfRendererConfig.class),
+                LogicalDatastoreType.CONFIGURATION)).thenReturn(config);
+    }
+
+    private static List<Integer> getWeights(List<GroupBucketInfo> bucketsInfo) {
+        return bucketsInfo.stream().map(GroupBucketInfo::getWeight).collect(Collectors.toList());
+    }
+
+    // the SF of a bucket is told apart by its MAC address, a free slot keeps
+    // the bucket of its last SF
+    private static List<String> getSfNames(List<GroupBucketInfo> bucketsInfo) {
+        return bucketsInfo.stream().map(bucketInfo -> "SF" + Integer.parseInt(bucketInfo.getSfMac().substring(15)))
+                .collect(Collectors.toList());
+    }
+
+    private static ServiceFunctionGroup buildServiceFunctionGroup(String... sfNames) {
+        List<SfcServiceFunction> sfcServiceFunctions = Arrays.stream(sfNames)
+                .map(sfName -> new SfcServiceFunctionBuilder().setName(new SfName(sfName)).build())
+                .collect(Collectors.toList());
+        return new ServiceFunctionGroupBuilder().setName(SFG_NAME).setGroupId(GROUP_ID).setAlgorithm(ALGORITHM_NAME)
+                .setSfcServiceFunction(sfcServiceFunctions).build();
+    }
+
+    private static ServiceFunction buildServiceFunction(String sfName) {
+        String mac = String.format("00:00:00:00:00:%02d", Integer.parseInt(sfName.substring(2)));
+        return new ServiceFunctionBuilder().setName(new SfName(sfName))
+                .setSfDataPlaneLocator(Collections.singletonList(new SfDataPlaneLocatorBuilder()
+                        .setName(new SfDataPlaneLocatorName(sfName + "-dpl"))
+                        .setLocatorType(new MacBuilder().setMac(new MacAddress(mac)).build())
+                        .setServiceFunctionForwarder(new SffName(SFF_NAME))
+                        .build()))
+                .build();
+    }
+
+    private static SfcSfDescMon buildSfDescMon(Long cpuUtilization) {
+        return new SfcSfDescMonBuilder()
+                .setMonitoringInfo(new MonitoringInfoBuilder()
+                        .setResourceUtilization(new ResourceUtilizationBuilder()
+                                .setCPUUtilization(cpuUtilization).build())
+                        .build())
+                .build();
+    }
+}
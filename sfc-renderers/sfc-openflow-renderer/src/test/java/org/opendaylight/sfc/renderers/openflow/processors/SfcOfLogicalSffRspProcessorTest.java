@@ -53,6 +53,7 @@ import org.opendaylight.sfc.renderers.openflow.utils.SfcOfProviderUtilsTestMock;
 import org.opendaylight.sfc.renderers.openflow.utils.SfcSynchronizer;
 import org.opendaylight.sfc.renderers.openflow.utils.operdsupdate.OperDsUpdateHandlerLSFFImpl;
 import org.opendaylight.sfc.util.openflow.OpenflowConstants;
+import org.opendaylight.sfc.util.openflow.SfcOpenflowCookie;
 import org.opendaylight.sfc.util.openflow.writer.FlowDetails;
 import org.opendaylight.sfc.util.openflow.writer.SfcOfFlowWriterImpl;
 import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.common.rev151017.SftTypeName;
@@ -973,51 +974,28 @@ public class SfcOfLogicalSffRspProcessorTest {
                                               long theOutputPort) {
         assertThat(theFlow.getCookie(), notNullValue());
         assertThat(theFlow.getCookie().getValue(), notNullValue());
-        BigInteger cookie = theFlow.getCookie().getValue();
-
-        BigInteger egresspipelineCookie = new BigInteger(SfcOfFlowProgrammerImpl.TRANSPORT_EGRESS_COOKIE_STR_BASE
-                                                                 + SfcOfFlowProgrammerImpl
-                .TRANSPORT_EGRESS_NSH_ETH_LASTHOP_PIPELINE_COOKIE,
-                                                         SfcOfFlowProgrammerImpl.COOKIE_BIGINT_HEX_RADIX);
-        if (cookie.equals(egresspipelineCookie)) {
-            assertTransportEgressLastHopPipelineFlow(theFlow, theNsp, theNsi, theSfMacAddress);
-            return;
-        }
-
-        BigInteger remoteTunnelCookie = new BigInteger(SfcOfFlowProgrammerImpl.TRANSPORT_EGRESS_COOKIE_STR_BASE
-                                                               + SfcOfFlowProgrammerImpl
-                .TRANSPORT_EGRESS_NSH_ETH_LASTHOP_TUNNEL_REMOTE_COOKIE,
-                                                       SfcOfFlowProgrammerImpl.COOKIE_BIGINT_HEX_RADIX);
-        if (cookie.equals(remoteTunnelCookie)) {
-            assertTransportEgressLastHopRemoteTunnel(theFlow, theNsp, theNsi, theOutputPort);
-            return;
-        }
-
-        BigInteger localTunnelCookie = new BigInteger(SfcOfFlowProgrammerImpl.TRANSPORT_EGRESS_COOKIE_STR_BASE
-                                                              + SfcOfFlowProgrammerImpl
-                .TRANSPORT_EGRESS_NSH_ETH_LASTHOP_TUNNEL_LOCAL_COOKIE,
-                                                      SfcOfFlowProgrammerImpl.COOKIE_BIGINT_HEX_RADIX);
-        if (cookie.equals(localTunnelCookie)) {
-            assertTransportEgressLastHopLocalTunnel(theFlow, theNsp, theNsi, theSffIpAddress);
-            return;
-        }
-
-        BigInteger remoteNshCookie = new BigInteger(SfcOfFlowProgrammerImpl.TRANSPORT_EGRESS_COOKIE_STR_BASE
-                                                            + SfcOfFlowProgrammerImpl
-                .TRANSPORT_EGRESS_NSH_ETH_LASTHOP_NSH_REMOTE_COOKIE,
-                                                    SfcOfFlowProgrammerImpl.COOKIE_BIGINT_HEX_RADIX);
-        if (cookie.equals(remoteNshCookie)) {
-            assertTransportEgressLastHopRemoteNsh(theFlow, theNsp, theNsi, theOutputPort);
-            return;
-        }
-
-        BigInteger localNshCookie = new BigInteger(SfcOfFlowProgrammerImpl.TRANSPORT_EGRESS_COOKIE_STR_BASE
-                                                           + SfcOfFlowProgrammerImpl
-                .TRANSPORT_EGRESS_NSH_ETH_LASTHOP_NSH_LOCAL_COOKIE,
-                                                   SfcOfFlowProgrammerImpl.COOKIE_BIGINT_HEX_RADIX);
-        if (cookie.equals(localNshCookie)) {
-            assertTransportEgressLastHopLocalNsh(theFlow, theNsp, theNsi, theSffIpAddress);
-            return;
+        long cookie = SfcOpenflowCookie.getValue(theFlow.getCookie());
+        assertThat(SfcOpenflowCookie.getTableIndex(cookie), is(SfcOfFlowProgrammerImpl.TABLE_INDEX_TRANSPORT_EGRESS));
+        assertThat(SfcOpenflowCookie.getPathId(cookie), is(theNsp));
+
+        switch (SfcOpenflowCookie.getFlowKind(cookie)) {
+            case SfcOfFlowProgrammerImpl.TRANSPORT_EGRESS_NSH_ETH_LASTHOP_PIPELINE_COOKIE:
+                assertTransportEgressLastHopPipelineFlow(theFlow, theNsp, theNsi, theSfMacAddress);
+                return;
+            case SfcOfFlowProgrammerImpl.TRANSPORT_EGRESS_NSH_ETH_LASTHOP_TUNNEL_REMOTE_COOKIE:
+                assertTransportEgressLastHopRemoteTunnel(theFlow, theNsp, theNsi, theOutputPort);
+                return;
+            case SfcOfFlowProgrammerImpl.TRANSPORT_EGRESS_NSH_ETH_LASTHOP_TUNNEL_LOCAL_COOKIE:
+                assertTransportEgressLastHopLocalTunnel(theFlow, theNsp, theNsi, theSffIpAddress);
+                return;
+            case SfcOfFlowProgrammerImpl.TRANSPORT_EGRESS_NSH_ETH_LASTHOP_NSH_REMOTE_COOKIE:
+                assertTransportEgressLastHopRemoteNsh(theFlow, theNsp, theNsi, theOutputPort);
+                return;
+            case SfcOfFlowProgrammerImpl.TRANSPORT_EGRESS_NSH_ETH_LASTHOP_NSH_LOCAL_COOKIE:
+                assertTransportEgressLastHopLocalNsh(theFlow, theNsp, theNsi, theSffIpAddress);
+                return;
+            default:
+                break;
         }
 
         assert false : "Unrecognized cookie on last hop egress flow, cookie = " + cookie;
@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2018 Ericsson Inc. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.sfc.renderers.openflow.processors;
+
+import static org.mockito.Matchers.anyCollectionOf;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.opendaylight.mdsal.binding.api.RpcConsumerRegistry;
+import org.opendaylight.sfc.renderers.openflow.RspBuilder;
+import org.opendaylight.sfc.renderers.openflow.openflow.SfcOfFlowProgrammerImpl;
+import org.opendaylight.sfc.renderers.openflow.utils.SfcOfProviderUtilsTestMock;
+import org.opendaylight.sfc.renderers.openflow.utils.SfcSynchronizer;
+import org.opendaylight.sfc.util.openflow.OpenflowConstants;
+import org.opendaylight.sfc.util.openflow.writer.FlowDetails;
+import org.opendaylight.sfc.util.openflow.writer.SfcOfFlowWriterInterface;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.common.rev151017.RspName;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.common.rev151017.SftTypeName;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.rsp.rev140701.rendered.service.paths.RenderedServicePath;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.rsp.rev140701.rendered.service.paths.RenderedServicePathBuilder;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.rsp.rev140701.rendered.service.paths.RenderedServicePathKey;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sl.rev140701.Nsh;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sl.rev140701.VxlanGpe;
+
+/**
+ * Renders RSPs on a pool of render workers for several pool sizes and checks
+ * that all of them are rendered with the same flows whatever the pool size.
+ * The flow writer is mocked.
+ */
+public class SfcOfRspProcessorParallelTest {
+
+    private static final int RSP_COUNT = 5000;
+    // each RSP template has two hops on two SFFs of its own
+    private static final int SFF_COUNT = 200;
+    private static final int[] RENDER_WORKER_COUNTS = {1, 4, 16};
+
+    private final List<RenderedServicePath> rsps = new ArrayList<>();
+    private final AtomicLong flowCount = new AtomicLong();
+    private final Set<Long> rspIds = ConcurrentHashMap.newKeySet();
+    private final Set<String> sffNodeNames = ConcurrentHashMap.newKeySet();
+    private volatile CountDownLatch renderedRsps;
+    private SfcOfProviderUtilsTestMock sfcUtilsTestMock;
+    private SfcOfFlowWriterInterface flowWriter;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void before() {
+        sfcUtilsTestMock = new SfcOfProviderUtilsTestMock() {
+            // called once the rendering of an RSP completes
+            @Override
+            public void removeRsp(long rspId) {
+                renderedRsps.countDown();
+            }
+        };
+        RspBuilder rspBuilder = new RspBuilder(sfcUtilsTestMock);
+        List<SftTypeName> sfTypes = Arrays.asList(new SftTypeName("firewall"), new SftTypeName("dpi"));
+        List<RenderedServicePath> templates = new ArrayList<>();
+        for (int i = 0; i < SFF_COUNT / sfTypes.size(); i++) {
+            templates.add(rspBuilder.createRspFromSfTypes(sfTypes, VxlanGpe.class, Nsh.class));
+        }
+        for (int i = 0; i < RSP_COUNT; i++) {
+            RspName rspName = new RspName("RSP_PARALLEL_" + i);
+            rsps.add(new RenderedServicePathBuilder(templates.get(i % templates.size()))
+                    .withKey(new RenderedServicePathKey(rspName)).setName(rspName).setPathId((long) i + 1).build());
+        }
+
+        // the shared flow writer only accounts for the flows handed to it
+        flowWriter = mock(SfcOfFlowWriterInterface.class);
+        doAnswer(invocation -> {
+            Collection<FlowDetails> flows = (Collection<FlowDetails>) invocation.getArguments()[0];
+            flows.forEach(flow -> {
+                rspIds.add(flow.getRspId());
+                sffNodeNames.add(flow.getSffNodeName());
+            });
+            flowCount.addAndGet(flows.size());
+            return null;
+        }).when(flowWriter).flushFlows(anyCollectionOf(FlowDetails.class));
+    }
+
+    @Test
+    public void testParallelRenderingIsComplete() throws Exception {
+        long expectedFlowCount = -1;
+        for (int renderWorkerCount : RENDER_WORKER_COUNTS) {
+            flowCount.set(0);
+            rspIds.clear();
+            sffNodeNames.clear();
+            renderedRsps = new CountDownLatch(RSP_COUNT);
+            SfcOfRspProcessor sfcOfRspProcessor = new SfcOfRspProcessor(new SfcOfFlowProgrammerImpl(flowWriter),
+                    sfcUtilsTestMock, new SfcSynchronizer(), mock(RpcConsumerRegistry.class), null,
+                    renderWorkerCount);
+
+            rsps.forEach(sfcOfRspProcessor::processRenderedServicePath);
+            Assert.assertTrue(renderedRsps.await(5, TimeUnit.MINUTES));
+            sfcOfRspProcessor.close();
+
+            // every RSP and the SFF initialization flows were handed over
+            Assert.assertEquals(RSP_COUNT + 1, rspIds.size());
+            Assert.assertTrue(rspIds.contains(OpenflowConstants.SFC_FLOWS));
+            Assert.assertEquals(SFF_COUNT, sffNodeNames.size());
+            if (expectedFlowCount < 0) {
+                expectedFlowCount = flowCount.get();
+            }
+            Assert.assertEquals(expectedFlowCount, flowCount.get());
+        }
+    }
+}
@@ -16,7 +16,10 @@ import static org.mockito.Matchers.anyShort;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
@@ -177,6 +180,29 @@ public class SfcOfRspProcessorTest {
         verifyNoMoreInteractions(this.flowProgrammerTestMoc);
     }
 
+    @Test
+    public void testSffInitializedAgainAfterFailure() {
+        LOG.info("SfcOfRspProcessorTest testSffInitializedAgainAfterFailure");
+
+        // the RSP fails once SFF_0 has been initialized
+        doThrow(new SfcRenderingException("test")).when(this.flowProgrammerTestMoc)
+                .configureVlanTransportIngressFlow(anyString());
+        RenderedServicePath vlanRsp = rspBuilder.createRspFromSfTypes(this.sfTypes, Mac.class, Transport.class);
+        this.sfcOfRspProcessor.processRenderedServicePath(vlanRsp);
+
+        verify(this.flowProgrammerTestMoc).configureClassifierTableMatchAny(eq("SFF_0"));
+        verify(this.flowProgrammerTestMoc, never()).flushFlows();
+        verify(this.flowProgrammerTestMoc).purgeFlows();
+
+        // the flows of SFF_0 were purged, the next RSP initializes it again
+        reset(this.flowProgrammerTestMoc);
+        this.sfcOfRspProcessor.processRenderedServicePath(vlanRsp);
+
+        assertMatchAnyMethodsCalled("SFF_0");
+        assertMatchAnyMethodsCalled("SFF_1");
+        verify(this.flowProgrammerTestMoc).flushFlows();
+    }
+
     @Test
     public void testMplsFlowCreation() {
         LOG.info("SfcOfRspProcessorTest testMplsFlowCreation");
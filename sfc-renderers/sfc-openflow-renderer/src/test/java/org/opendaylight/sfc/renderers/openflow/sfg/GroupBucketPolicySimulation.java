@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2018 Ericsson Inc. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.sfc.renderers.openflow.sfg;
+
+import static org.opendaylight.sfc.renderers.openflow.sfg.GroupBucketPolicyTest.FLOW_COUNT;
+import static org.opendaylight.sfc.renderers.openflow.sfg.GroupBucketPolicyTest.SF_COUNT;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.BeforeClass;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.opendaylight.yang.gen.v1.urn.intel.params.xml.ns.sf.desc.mon.rev141201.service.functions.state.service.function.state.SfcSfDescMon;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reports the distribution skew of the SF groups and the fraction of the flows
+ * remapped when the group or the load changes, with the switch selection
+ * simulated by {@link GroupBucketPolicyTest}.
+ *
+ * <p>
+ * The report is not needed by the regular build, so this is an opt-in
+ * harness: remove the {@link Ignore} annotation and run it on its own, e.g.
+ * {@code mvn test -Dtest=GroupBucketPolicySimulation}.
+ */
+@Ignore("opt-in simulation")
+public class GroupBucketPolicySimulation {
+
+    private static final Logger LOG = LoggerFactory.getLogger(GroupBucketPolicySimulation.class);
+
+    @BeforeClass
+    public static void setUpFlows() {
+        GroupBucketPolicyTest.setUpFlows();
+    }
+
+    @Test
+    public void distributionSkew() {
+        List<Integer> weights = Collections.nCopies(SF_COUNT, GroupBucketPolicy.MAX_WEIGHT);
+        LOG.info("SF group of {} equally weighted SFs: distribution skew {}%", SF_COUNT,
+                percent(GroupBucketPolicyTest.getSkew(GroupBucketPolicyTest.select(weights), weights)));
+
+        List<SfcSfDescMon> sfDescMons = new ArrayList<>();
+        for (int i = 0; i < SF_COUNT; i++) {
+            sfDescMons.add(GroupBucketPolicyTest.buildSfDescMon(10L * (1 + i % 2), 10L * (i % 4)));
+        }
+        weights = GroupBucketPolicy.getWeights(sfDescMons);
+        int[] flows = GroupBucketPolicyTest.select(weights);
+        LOG.info("SF group of {} SFs with weights {}: flows {}, distribution skew {}%", SF_COUNT, weights,
+                Arrays.toString(flows), percent(GroupBucketPolicyTest.getSkew(flows, weights)));
+    }
+
+    @Test
+    public void remappedFlowsOnRemoval() {
+        List<String> sfNames = GroupBucketPolicyTest.buildSfNames(SF_COUNT);
+        List<String> remainingSfNames = new ArrayList<>(sfNames);
+        String removedSfName = remainingSfNames.remove(SF_COUNT / 2);
+
+        List<String> slots = GroupBucketPolicy.assignSlots(Collections.emptyList(), sfNames);
+        List<String> newSlots = GroupBucketPolicy.assignSlots(slots, remainingSfNames);
+        LOG.info("SF removed from a group of {}: {}% flows remapped in index mode, {}% in consistent mode, "
+                + "{}% flows on the removed SF", SF_COUNT,
+                percent(GroupBucketPolicyTest.getRemappedFraction(sfNames, remainingSfNames)),
+                percent(GroupBucketPolicyTest.getRemappedFraction(slots, newSlots)),
+                percent(GroupBucketPolicyTest.getShare(slots, removedSfName)));
+    }
+
+    @Test
+    public void remappedFlowsOnAddition() {
+        List<String> sfNames = GroupBucketPolicyTest.buildSfNames(SF_COUNT);
+        List<String> newSfNames = new ArrayList<>(sfNames);
+        String addedSfName = "SF-00";
+        newSfNames.add(0, addedSfName);
+
+        List<String> slots = GroupBucketPolicy.assignSlots(Collections.emptyList(), sfNames);
+        List<String> newSlots = GroupBucketPolicy.assignSlots(slots, newSfNames);
+        LOG.info("SF added to a group of {}: {}% flows remapped in index mode, {}% in consistent mode, "
+                + "{}% flows on the added SF", SF_COUNT,
+                percent(GroupBucketPolicyTest.getRemappedFraction(sfNames, newSfNames)),
+                percent(GroupBucketPolicyTest.getRemappedFraction(slots, newSlots)),
+                percent(GroupBucketPolicyTest.getShare(newSlots, addedSfName)));
+    }
+
+    @Test
+    public void remappedFlowsOnReweighting() {
+        List<Integer> weights = new ArrayList<>(Collections.nCopies(SF_COUNT, GroupBucketPolicy.MAX_WEIGHT));
+        int[] flows = GroupBucketPolicyTest.select(weights);
+        int[] selected = GroupBucketPolicyTest.selectEach(weights);
+
+        weights.set(0, GroupBucketPolicy.MAX_WEIGHT / 2);
+        int[] newFlows = GroupBucketPolicyTest.select(weights);
+        int[] newSelected = GroupBucketPolicyTest.selectEach(weights);
+        int remapped = 0;
+        for (int i = 0; i < FLOW_COUNT; i++) {
+            if (selected[i] != newSelected[i]) {
+                remapped++;
+            }
+        }
+        LOG.info("SF weight halved in a group of {}: {}% flows remapped, flows of the SF from {} to {}", SF_COUNT,
+                percent((double) remapped / FLOW_COUNT), flows[0], newFlows[0]);
+    }
+
+    private static String percent(double fraction) {
+        return String.format("%.1f", fraction * 100);
+    }
+}
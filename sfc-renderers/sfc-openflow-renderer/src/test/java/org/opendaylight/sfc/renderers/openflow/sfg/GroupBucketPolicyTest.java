@@ -0,0 +1,295 @@
+/*
+ * Copyright (c) 2018 Ericsson Inc. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.sfc.renderers.openflow.sfg;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.opendaylight.yang.gen.v1.urn.intel.params.xml.ns.sf.desc.mon.rev141201.service.functions.state.service.function.state.SfcSfDescMon;
+import org.opendaylight.yang.gen.v1.urn.intel.params.xml.ns.sf.desc.mon.rev141201.service.functions.state.service.function.state.SfcSfDescMonBuilder;
+import org.opendaylight.yang.gen.v1.urn.intel.params.xml.ns.sf.desc.mon.rev141201.service.functions.state.service.function.state.sfc.sf.desc.mon.DescriptionInfoBuilder;
+import org.opendaylight.yang.gen.v1.urn.intel.params.xml.ns.sf.desc.mon.rev141201.service.functions.state.service.function.state.sfc.sf.desc.mon.MonitoringInfoBuilder;
+import org.opendaylight.yang.gen.v1.urn.intel.params.xml.ns.sf.desc.mon.rpt.rev141105.sf.description.CapabilitiesBuilder;
+import org.opendaylight.yang.gen.v1.urn.intel.params.xml.ns.sf.desc.mon.rpt.rev141105.sf.monitoring.info.ResourceUtilizationBuilder;
+
+/**
+ * Tests the bucket weights and slots of the SF groups, and simulates the
+ * bucket selection of the switch to check the distribution skew and the
+ * fraction of the flows remapped when the group or the load changes. The
+ * figures themselves are reported by {@link GroupBucketPolicySimulation}.
+ *
+ * <p>
+ * The switch selection is the one of the OVS select groups: each bucket scores
+ * a hash of the flow and of its bucket id, truncated to 16 bits, multiplied by
+ * its weight, and the bucket with the highest score is selected.
+ */
+public class GroupBucketPolicyTest {
+
+    static final int FLOW_COUNT = 100000;
+    static final int SF_COUNT = 8;
+
+    private static int[] flowHashes;
+
+    @BeforeClass
+    public static void setUpFlows() {
+        Random random = new Random(0);
+        flowHashes = new int[FLOW_COUNT];
+        for (int i = 0; i < FLOW_COUNT; i++) {
+            flowHashes[i] = random.nextInt();
+        }
+    }
+
+    @Test
+    public void getWeight() {
+        assertEquals(GroupBucketPolicy.MAX_WEIGHT, GroupBucketPolicy.getWeight(null, 0, null));
+        assertEquals(50, GroupBucketPolicy.getWeight(5L, 10, null));
+        assertEquals(20, GroupBucketPolicy.getWeight(null, 0, 80L));
+        assertEquals(10, GroupBucketPolicy.getWeight(5L, 10, 80L));
+        assertEquals(1, GroupBucketPolicy.getWeight(10L, 10, 100L));
+        assertEquals(1, GroupBucketPolicy.getWeight(0L, 10, null));
+    }
+
+    @Test
+    public void getWeights() {
+        assertEquals(Arrays.asList(25, 100, 40), GroupBucketPolicy.getWeights(Arrays.asList(
+                buildSfDescMon(10L, null), buildSfDescMon(40L, null), buildSfDescMon(40L, 60L))));
+
+        // the capacities are ignored unless all the SFs report one
+        assertEquals(Arrays.asList(100, 100, 40), GroupBucketPolicy.getWeights(Arrays.asList(
+                buildSfDescMon(10L, null), null, buildSfDescMon(40L, 60L))));
+    }
+
+    @Test
+    public void assignSlots() {
+        List<String> slots = GroupBucketPolicy.assignSlots(Collections.emptyList(), Arrays.asList("C", "A", "B"));
+        assertEquals(Arrays.asList("A", "B", "C"), slots);
+
+        slots = GroupBucketPolicy.assignSlots(slots, Arrays.asList("C", "A"));
+        assertEquals(Arrays.asList("A", null, "C"), slots);
+
+        slots = GroupBucketPolicy.assignSlots(slots, Arrays.asList("C", "A", "E", "D"));
+        assertEquals(Arrays.asList("A", "D", "C", "E"), slots);
+
+        slots = GroupBucketPolicy.assignSlots(slots, Arrays.asList("A", "D"));
+        assertEquals(Arrays.asList("A", "D", null, null), slots);
+
+        slots = GroupBucketPolicy.assignSlots(slots, Arrays.asList("A", "D", "B"));
+        assertEquals(Arrays.asList("A", "D", "B", null), slots);
+    }
+
+    @Test
+    public void distributionSkew() {
+        // equal weights
+        List<Integer> weights = Collections.nCopies(SF_COUNT, GroupBucketPolicy.MAX_WEIGHT);
+        double equalSkew = getSkew(select(weights), weights);
+        assertTrue(equalSkew < 0.05);
+
+        // SFs of different capacities and loads
+        List<SfcSfDescMon> sfDescMons = new ArrayList<>();
+        for (int i = 0; i < SF_COUNT; i++) {
+            sfDescMons.add(buildSfDescMon(10L * (1 + i % 2), 10L * (i % 4)));
+        }
+        weights = GroupBucketPolicy.getWeights(sfDescMons);
+        assertEquals(Arrays.asList(50, 90, 40, 70, 50, 90, 40, 70), weights);
+        int[] flows = select(weights);
+        double weightedSkew = getSkew(flows, weights);
+
+        // the switch selection favours the buckets with more weight, but not
+        // in proportion of the weight: the heaviest buckets take more than
+        // their share, the lightest ones much less
+        assertTrue(weightedSkew > 0.5);
+        long totalWeight = weights.stream().mapToLong(Integer::longValue).sum();
+        for (int i = 0; i < SF_COUNT; i++) {
+            double share = (double) weights.get(i) / totalWeight;
+            if (weights.get(i) == 90) {
+                assertTrue(flows[i] > share * FLOW_COUNT);
+            } else if (weights.get(i) == 40) {
+                assertTrue(flows[i] < share * FLOW_COUNT);
+            }
+        }
+
+        // the flows of the buckets still rank with their weight
+        for (int i = 0; i < SF_COUNT; i++) {
+            for (int j = 0; j < SF_COUNT; j++) {
+                if (weights.get(i) > weights.get(j)) {
+                    assertTrue(flows[i] > flows[j]);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void remappedFlowsOnRemoval() {
+        List<String> sfNames = buildSfNames(SF_COUNT);
+        List<String> remainingSfNames = new ArrayList<>(sfNames);
+        String removedSfName = remainingSfNames.remove(SF_COUNT / 2);
+
+        // index mode, the buckets after the removed one change of id
+        double indexRemapped = getRemappedFraction(sfNames, remainingSfNames);
+
+        // consistent mode, the removed SF leaves a free slot
+        List<String> slots = GroupBucketPolicy.assignSlots(Collections.emptyList(), sfNames);
+        List<String> newSlots = GroupBucketPolicy.assignSlots(slots, remainingSfNames);
+        double consistentRemapped = getRemappedFraction(slots, newSlots);
+        double removedShare = getShare(slots, removedSfName);
+
+        assertEquals(removedShare, consistentRemapped, 0);
+        assertTrue(indexRemapped > 2 * consistentRemapped);
+    }
+
+    @Test
+    public void remappedFlowsOnAddition() {
+        List<String> sfNames = buildSfNames(SF_COUNT);
+        List<String> newSfNames = new ArrayList<>(sfNames);
+        String addedSfName = "SF-00";
+        newSfNames.add(0, addedSfName);
+
+        // index mode, the SF is added at the beginning of the group
+        double indexRemapped = getRemappedFraction(sfNames, newSfNames);
+
+        // consistent mode, the added SF takes a new slot
+        List<String> slots = GroupBucketPolicy.assignSlots(Collections.emptyList(), sfNames);
+        List<String> newSlots = GroupBucketPolicy.assignSlots(slots, newSfNames);
+        double consistentRemapped = getRemappedFraction(slots, newSlots);
+        double addedShare = getShare(newSlots, addedSfName);
+
+        assertEquals(addedShare, consistentRemapped, 0);
+        assertTrue(indexRemapped > 2 * consistentRemapped);
+    }
+
+    @Test
+    public void remappedFlowsOnReweighting() {
+        List<Integer> weights = new ArrayList<>(Collections.nCopies(SF_COUNT, GroupBucketPolicy.MAX_WEIGHT));
+        int[] flows = select(weights);
+        int[] selected = selectEach(weights);
+
+        // the load of a SF raises, its weight is halved in place
+        weights.set(0, GroupBucketPolicy.MAX_WEIGHT / 2);
+        int[] newFlows = select(weights);
+        int[] newSelected = selectEach(weights);
+        int remapped = 0;
+        for (int i = 0; i < FLOW_COUNT; i++) {
+            if (selected[i] != newSelected[i]) {
+                // the flows only move away from the re-weighted SF
+                assertEquals(0, selected[i]);
+                remapped++;
+            }
+        }
+
+        assertEquals(flows[0] - newFlows[0], remapped);
+    }
+
+    /*
+     * Switch selection simulation
+     */
+
+    private static int selectBucket(List<Integer> weights, int flowHash) {
+        int bestBucket = -1;
+        long bestScore = -1;
+        for (int bucketId = 0; bucketId < weights.size(); bucketId++) {
+            long score = (hash(bucketId, flowHash) & 0xffff) * (long) weights.get(bucketId);
+            if (weights.get(bucketId) > 0 && score >= bestScore) {
+                bestBucket = bucketId;
+                bestScore = score;
+            }
+        }
+        return bestBucket;
+    }
+
+    // murmur3 finalizer of the bucket id mixed with the flow hash
+    private static int hash(int bucketId, int flowHash) {
+        int hash = bucketId * 0x9e3779b9 ^ flowHash;
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        hash ^= hash >>> 16;
+        return hash;
+    }
+
+    static int[] selectEach(List<Integer> weights) {
+        int[] selected = new int[FLOW_COUNT];
+        for (int i = 0; i < FLOW_COUNT; i++) {
+            selected[i] = selectBucket(weights, flowHashes[i]);
+        }
+        return selected;
+    }
+
+    static int[] select(List<Integer> weights) {
+        int[] flows = new int[weights.size()];
+        for (int bucketId : selectEach(weights)) {
+            flows[bucketId]++;
+        }
+        return flows;
+    }
+
+    // the weights of slots: free slots are never selected
+    private static List<Integer> getSlotWeights(List<String> slots) {
+        List<Integer> weights = new ArrayList<>();
+        for (String sfName : slots) {
+            weights.add(sfName == null ? GroupBucketPolicy.FREE_SLOT_WEIGHT : GroupBucketPolicy.MAX_WEIGHT);
+        }
+        return weights;
+    }
+
+    static double getRemappedFraction(List<String> slots, List<String> newSlots) {
+        int[] selected = selectEach(getSlotWeights(slots));
+        int[] newSelected = selectEach(getSlotWeights(newSlots));
+        int remapped = 0;
+        for (int i = 0; i < FLOW_COUNT; i++) {
+            if (!slots.get(selected[i]).equals(newSlots.get(newSelected[i]))) {
+                remapped++;
+            }
+        }
+        return (double) remapped / FLOW_COUNT;
+    }
+
+    static double getShare(List<String> slots, String sfName) {
+        return (double) select(getSlotWeights(slots))[slots.indexOf(sfName)] / FLOW_COUNT;
+    }
+
+    // the largest relative difference between the flows of a bucket and its
+    // share of the weights
+    static double getSkew(int[] flows, List<Integer> weights) {
+        long totalWeight = weights.stream().mapToLong(Integer::longValue).sum();
+        double skew = 0;
+        for (int i = 0; i < flows.length; i++) {
+            double expected = (double) FLOW_COUNT * weights.get(i) / totalWeight;
+            skew = Math.max(skew, Math.abs(flows[i] - expected) / expected);
+        }
+        return skew;
+    }
+
+    static List<String> buildSfNames(int count) {
+        List<String> sfNames = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            sfNames.add("SF-" + i);
+        }
+        return sfNames;
+    }
+
+    static SfcSfDescMon buildSfDescMon(Long capacity, Long cpuUtilization) {
+        return new SfcSfDescMonBuilder()
+                .setDescriptionInfo(new DescriptionInfoBuilder()
+                        .setCapabilities(new CapabilitiesBuilder().setSupportedBandwidth(capacity).build())
+                        .build())
+                .setMonitoringInfo(new MonitoringInfoBuilder()
+                        .setResourceUtilization(new ResourceUtilizationBuilder()
+                                .setCPUUtilization(cpuUtilization).build())
+                        .build())
+                .build();
+    }
+}
@@ -7,7 +7,6 @@
  */
 package org.opendaylight.sfc.sbrest.provider.listener;
 
-import java.util.concurrent.ExecutorService;
 import javax.annotation.Nonnull;
 import javax.inject.Inject;
 import javax.inject.Singleton;
@@ -17,6 +16,7 @@ import org.opendaylight.serviceutils.tools.mdsal.listener.AbstractSyncDataTreeCh
 import org.opendaylight.sfc.provider.api.SfcInstanceIdentifiers;
 import org.opendaylight.sfc.sbrest.provider.task.RestOperation;
 import org.opendaylight.sfc.sbrest.provider.task.SbRestAclTask;
+import org.opendaylight.sfc.sbrest.provider.task.SbRestDispatcher;
 import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.access.control.list.rev160218.access.lists.Acl;
 import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
 import org.slf4j.Logger;
@@ -27,12 +27,12 @@ public class SbRestAclEntryDataListener extends AbstractSyncDataTreeChangeListen
 
     private static final Logger LOG = LoggerFactory.getLogger(SbRestAclEntryDataListener.class);
 
-    private final ExecutorService executorService;
+    private final SbRestDispatcher dispatcher;
 
     @Inject
-    public SbRestAclEntryDataListener(DataBroker dataBroker, ExecutorService executorService) {
+    public SbRestAclEntryDataListener(DataBroker dataBroker, SbRestDispatcher dispatcher) {
         super(dataBroker, LogicalDatastoreType.CONFIGURATION, SfcInstanceIdentifiers.ACL_ENTRY_IID);
-        this.executorService = executorService;
+        this.dispatcher = dispatcher;
     }
 
     @Override
@@ -43,13 +43,13 @@ public class SbRestAclEntryDataListener extends AbstractSyncDataTreeChangeListen
     @Override
     public void remove(@Nonnull InstanceIdentifier<Acl> instanceIdentifier, @Nonnull Acl acl) {
         LOG.debug("Deleted Access List Name: {}", acl.getAclName());
-        new SbRestAclTask(RestOperation.DELETE, acl, executorService).run();
+        new SbRestAclTask(RestOperation.DELETE, acl, dispatcher).run();
     }
 
     @Override
     public void update(@Nonnull InstanceIdentifier<Acl> instanceIdentifier,
                        @Nonnull Acl originalAcl, @Nonnull Acl updatedAcl) {
         LOG.debug("Updated Access List Name: {}", updatedAcl.getAclName());
-        new SbRestAclTask(RestOperation.PUT, updatedAcl, executorService).run();
+        new SbRestAclTask(RestOperation.PUT, updatedAcl, dispatcher).run();
     }
 }
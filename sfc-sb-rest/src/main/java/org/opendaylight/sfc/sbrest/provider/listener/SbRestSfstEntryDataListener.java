@@ -7,7 +7,6 @@
  */
 package org.opendaylight.sfc.sbrest.provider.listener;
 
-import java.util.concurrent.ExecutorService;
 import javax.annotation.Nonnull;
 import javax.inject.Inject;
 import javax.inject.Singleton;
@@ -16,6 +15,7 @@ import org.opendaylight.controller.md.sal.common.api.data.LogicalDatastoreType;
 import org.opendaylight.serviceutils.tools.mdsal.listener.AbstractSyncDataTreeChangeListener;
 import org.opendaylight.sfc.provider.api.SfcInstanceIdentifiers;
 import org.opendaylight.sfc.sbrest.provider.task.RestOperation;
+import org.opendaylight.sfc.sbrest.provider.task.SbRestDispatcher;
 import org.opendaylight.sfc.sbrest.provider.task.SbRestSfstTask;
 import org.opendaylight.yang.gen.v1.urn.intel.params.xml.ns.yang.sfc.sfst.rev150312.service.function.scheduler.types.ServiceFunctionSchedulerType;
 
@@ -28,12 +28,12 @@ public class SbRestSfstEntryDataListener extends AbstractSyncDataTreeChangeListe
 
     private static final Logger LOG = LoggerFactory.getLogger(SbRestSfstEntryDataListener.class);
 
-    private final ExecutorService executorService;
+    private final SbRestDispatcher dispatcher;
 
     @Inject
-    public SbRestSfstEntryDataListener(DataBroker dataBroker, ExecutorService executorService) {
+    public SbRestSfstEntryDataListener(DataBroker dataBroker, SbRestDispatcher dispatcher) {
         super(dataBroker, LogicalDatastoreType.CONFIGURATION, SfcInstanceIdentifiers.SFST_ENTRY_IID);
-        this.executorService = executorService;
+        this.dispatcher = dispatcher;
     }
 
     @Override
@@ -46,7 +46,7 @@ public class SbRestSfstEntryDataListener extends AbstractSyncDataTreeChangeListe
     public void remove(@Nonnull InstanceIdentifier<ServiceFunctionSchedulerType> instanceIdentifier,
                        @Nonnull ServiceFunctionSchedulerType serviceFunctionSchedulerType) {
         LOG.debug("Deleted Service Function Schedule Type Name: {}", serviceFunctionSchedulerType.getName());
-        new SbRestSfstTask(RestOperation.DELETE, serviceFunctionSchedulerType, executorService).run();
+        new SbRestSfstTask(RestOperation.DELETE, serviceFunctionSchedulerType, dispatcher).run();
     }
 
     @Override
@@ -54,6 +54,6 @@ public class SbRestSfstEntryDataListener extends AbstractSyncDataTreeChangeListe
                        @Nonnull ServiceFunctionSchedulerType originalServiceFunctionSchedulerType,
                        @Nonnull ServiceFunctionSchedulerType updatedServiceFunctionSchedulerType) {
         LOG.debug("Updated Service Function Schedule Type Name: {}", updatedServiceFunctionSchedulerType.getName());
-        new SbRestSfstTask(RestOperation.PUT, updatedServiceFunctionSchedulerType, executorService).run();
+        new SbRestSfstTask(RestOperation.PUT, updatedServiceFunctionSchedulerType, dispatcher).run();
     }
 }
@@ -7,7 +7,6 @@
  */
 package org.opendaylight.sfc.sbrest.provider.listener;
 
-import java.util.concurrent.ExecutorService;
 import javax.annotation.Nonnull;
 import javax.inject.Inject;
 import javax.inject.Singleton;
@@ -16,6 +15,7 @@ import org.opendaylight.controller.md.sal.common.api.data.LogicalDatastoreType;
 import org.opendaylight.serviceutils.tools.mdsal.listener.AbstractSyncDataTreeChangeListener;
 import org.opendaylight.sfc.provider.api.SfcInstanceIdentifiers;
 import org.opendaylight.sfc.sbrest.provider.task.RestOperation;
+import org.opendaylight.sfc.sbrest.provider.task.SbRestDispatcher;
 import org.opendaylight.sfc.sbrest.provider.task.SbRestSfstateTask;
 import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sf.rev140701.service.functions.state.ServiceFunctionState;
 
@@ -28,12 +28,12 @@ public class SbRestSfstateEntryDataListener extends AbstractSyncDataTreeChangeLi
 
     private static final Logger LOG = LoggerFactory.getLogger(SbRestSfstateEntryDataListener.class);
 
-    private final ExecutorService executorService;
+    private final SbRestDispatcher dispatcher;
 
     @Inject
-    public SbRestSfstateEntryDataListener(DataBroker dataBroker, ExecutorService executorService) {
+    public SbRestSfstateEntryDataListener(DataBroker dataBroker, SbRestDispatcher dispatcher) {
         super(dataBroker, LogicalDatastoreType.CONFIGURATION, SfcInstanceIdentifiers.SFSTATE_ENTRY_IID);
-        this.executorService = executorService;
+        this.dispatcher = dispatcher;
     }
 
     @Override
@@ -46,7 +46,7 @@ public class SbRestSfstateEntryDataListener extends AbstractSyncDataTreeChangeLi
     public void remove(@Nonnull InstanceIdentifier<ServiceFunctionState> instanceIdentifier,
                        @Nonnull ServiceFunctionState serviceFunctionState) {
         LOG.debug("Deleted Service Function State Name: {}", serviceFunctionState.getName());
-        new SbRestSfstateTask(RestOperation.DELETE, serviceFunctionState, executorService).run();
+        new SbRestSfstateTask(RestOperation.DELETE, serviceFunctionState, dispatcher).run();
     }
 
     @Override
@@ -54,6 +54,6 @@ public class SbRestSfstateEntryDataListener extends AbstractSyncDataTreeChangeLi
                        @Nonnull ServiceFunctionState originalServiceFunctionState,
                        @Nonnull ServiceFunctionState updatedServiceFunctionState) {
         LOG.debug("Updated Service Function State Name: {}", updatedServiceFunctionState.getName());
-        new SbRestSfstateTask(RestOperation.PUT, updatedServiceFunctionState, executorService).run();
+        new SbRestSfstateTask(RestOperation.PUT, updatedServiceFunctionState, dispatcher).run();
     }
 }
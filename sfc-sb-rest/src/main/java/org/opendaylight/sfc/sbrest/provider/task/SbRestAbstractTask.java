@@ -10,8 +10,9 @@ package org.opendaylight.sfc.sbrest.provider.task;
 import com.google.common.annotations.VisibleForTesting;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
+import java.util.Set;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import org.opendaylight.sfc.sbrest.json.ExporterFactory;
@@ -19,15 +20,16 @@ import org.opendaylight.yangtools.yang.binding.DataObject;
 
 public abstract class SbRestAbstractTask implements Runnable {
 
-    private final ExecutorService odlExecutor;
+    private final SbRestDispatcher dispatcher;
     private final RestOperation restOperation;
     private final String jsonObject;
-    private final List<String> restUriList = new ArrayList<>();
+    // the same URI may be reached through several hops or classifiers
+    private final Set<String> restUris = new LinkedHashSet<>();
 
     public SbRestAbstractTask(@Nonnull RestOperation restOperation, @Nonnull ExporterFactory exporterFactory,
-            @Nullable DataObject dataObject, @Nonnull ExecutorService odlExecutor) {
+            @Nullable DataObject dataObject, @Nonnull SbRestDispatcher dispatcher) {
         this.restOperation = restOperation;
-        this.odlExecutor = odlExecutor;
+        this.dispatcher = dispatcher;
 
         if (dataObject == null) {
             this.jsonObject = null;
@@ -44,13 +46,13 @@ public abstract class SbRestAbstractTask implements Runnable {
 
     @Override
     public void run() {
-        for (String restUri : this.restUriList) {
-            odlExecutor.execute(new WsTask(restUri, restOperation, jsonObject));
+        for (String restUri : this.restUris) {
+            dispatcher.submit(new WsTask(restUri, restOperation, jsonObject));
         }
     }
 
     protected void addRestUri(String uri) {
-        restUriList.add(uri);
+        restUris.add(uri);
     }
 
     @VisibleForTesting
@@ -60,6 +62,6 @@ public abstract class SbRestAbstractTask implements Runnable {
 
     @VisibleForTesting
     List<String> getRestUriListCopy() {
-        return Collections.unmodifiableList(restUriList);
+        return Collections.unmodifiableList(new ArrayList<>(restUris));
     }
 }
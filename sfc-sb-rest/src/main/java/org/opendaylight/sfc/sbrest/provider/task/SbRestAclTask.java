@@ -8,7 +8,6 @@
 package org.opendaylight.sfc.sbrest.provider.task;
 
 import java.util.List;
-import java.util.concurrent.ExecutorService;
 import org.opendaylight.sfc.provider.api.SfcProviderAclAPI;
 import org.opendaylight.sfc.provider.api.SfcProviderServiceClassifierAPI;
 import org.opendaylight.sfc.provider.api.SfcProviderServiceForwarderAPI;
@@ -29,20 +28,20 @@ public class SbRestAclTask extends SbRestAbstractTask {
     private static final String ACL_REST_URI = "/config/ietf-access-control-list:access-lists/acl/";
     private static final Logger LOG = LoggerFactory.getLogger(SbRestAclTask.class);
 
-    public SbRestAclTask(RestOperation restOperation, Acl dataObject, ExecutorService odlExecutor) {
-        super(restOperation, new AclExporterFactory(), dataObject, odlExecutor);
+    public SbRestAclTask(RestOperation restOperation, Acl dataObject, SbRestDispatcher dispatcher) {
+        super(restOperation, new AclExporterFactory(), dataObject, dispatcher);
         setRestUriList(dataObject);
     }
 
     public SbRestAclTask(RestOperation restOperation, Acl dataObject,
-            List<SclServiceFunctionForwarder> sclServiceForwarderList, ExecutorService odlExecutor) {
-        super(restOperation, new AclExporterFactory(), dataObject, odlExecutor);
+            List<SclServiceFunctionForwarder> sclServiceForwarderList, SbRestDispatcher dispatcher) {
+        super(restOperation, new AclExporterFactory(), dataObject, dispatcher);
         setRestUriList(dataObject, sclServiceForwarderList);
     }
 
     public SbRestAclTask(RestOperation restOperation, String aclName, java.lang.Class<? extends AclBase> aclType,
-            List<SclServiceFunctionForwarder> sclServiceForwarderList, ExecutorService odlExecutor) {
-        super(restOperation, new AclExporterFactory(), null, odlExecutor);
+            List<SclServiceFunctionForwarder> sclServiceForwarderList, SbRestDispatcher dispatcher) {
+        super(restOperation, new AclExporterFactory(), null, dispatcher);
         setRestUriList(aclName, aclType, sclServiceForwarderList);
     }
 
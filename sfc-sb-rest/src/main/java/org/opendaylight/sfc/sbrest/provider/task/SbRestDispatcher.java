@@ -0,0 +1,383 @@
+/*
+ * Copyright (c) 2018 Ericsson Inc. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.sfc.sbrest.provider.task;
+
+import com.google.common.annotations.VisibleForTesting;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import javax.ws.rs.ProcessingException;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.ClientBuilder;
+import javax.ws.rs.core.Response;
+import org.glassfish.jersey.client.ClientProperties;
+import org.opendaylight.infrautils.utils.concurrent.Executors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Sends the REST requests of the SB REST tasks to the agents.
+ *
+ * <p>
+ * The requests are queued per agent and coalesced by URL: a request replaces
+ * the request for the same URL that is still queued, so only the latest PUT
+ * or DELETE of an object is sent. At most one request per URL and a bounded
+ * number of requests per agent are in flight at a time, all of them through
+ * one shared client that keeps the connections to the agents alive. Requests
+ * that fail with an I/O or server error are retried with exponential
+ * backoff, unless a newer request for the same URL has been queued meanwhile.
+ * The send rate, queue depth and failures of each agent are logged
+ * periodically.
+ */
+@Singleton
+public class SbRestDispatcher implements AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SbRestDispatcher.class);
+
+    // the JDK keeps up to 5 idle connections alive per agent by default
+    // (http.maxConnections), match it so the connections are reused
+    private static final int MAX_AGENT_REQUESTS = 5;
+    private static final int MAX_RETRIES = 3;
+    private static final long RETRY_DELAY_MILLIS = 500;
+    private static final int CONNECT_TIMEOUT_MILLIS = 5000;
+    private static final int READ_TIMEOUT_MILLIS = 10000;
+    private static final long REPORT_INTERVAL_SECONDS = 60;
+
+    private final Executor executor;
+    private final int maxAgentRequests;
+    private final int maxRetries;
+    private final long retryDelayMillis;
+    private final ScheduledExecutorService scheduler =
+            Executors.newSingleThreadScheduledExecutor("SbRestDispatcher", LOG);
+    private final ConcurrentMap<String, AgentQueue> agents = new ConcurrentHashMap<>();
+    private Client client;
+
+    @Inject
+    public SbRestDispatcher(ExecutorService executorService) {
+        this(executorService, MAX_AGENT_REQUESTS, MAX_RETRIES, RETRY_DELAY_MILLIS);
+    }
+
+    @VisibleForTesting
+    SbRestDispatcher(Executor executor, int maxAgentRequests, int maxRetries, long retryDelayMillis) {
+        this.executor = executor;
+        this.maxAgentRequests = maxAgentRequests;
+        this.maxRetries = maxRetries;
+        this.retryDelayMillis = retryDelayMillis;
+        scheduler.scheduleAtFixedRate(this::report, REPORT_INTERVAL_SECONDS, REPORT_INTERVAL_SECONDS,
+                TimeUnit.SECONDS);
+    }
+
+    /**
+     * Queues a request, replacing the queued request for the same URL if any.
+     *
+     * @param task the request to send
+     */
+    public void submit(WsTask task) {
+        AgentQueue agent = agents.computeIfAbsent(task.getAgent(), AgentQueue::new);
+        List<WsTask> ready;
+        synchronized (agent) {
+            if (agent.pending.put(task.getUrl(), task) != null) {
+                agent.coalesced++;
+            }
+            ready = poll(agent);
+        }
+        execute(agent, ready);
+    }
+
+    /**
+     * Returns the statistics of an agent.
+     *
+     * @param agent the scheme and authority of the agent URI
+     * @return the statistics of the agent, null if nothing was sent to it
+     */
+    public AgentStatistics getStatistics(String agent) {
+        AgentQueue agentQueue = agents.get(agent);
+        if (agentQueue == null) {
+            return null;
+        }
+        synchronized (agentQueue) {
+            return new AgentStatistics(agentQueue);
+        }
+    }
+
+    @Override
+    @PreDestroy
+    public void close() {
+        scheduler.shutdownNow();
+        synchronized (this) {
+            if (client != null) {
+                client.close();
+                client = null;
+            }
+        }
+        for (AgentQueue agent : agents.values()) {
+            synchronized (agent) {
+                if (!agent.pending.isEmpty()) {
+                    LOG.warn("Dropping {} requests queued for SB REST agent {}", agent.pending.size(), agent.name);
+                    agent.pending.clear();
+                }
+            }
+        }
+    }
+
+    /**
+     * Sends a request.
+     *
+     * @param task the request to send
+     * @return the HTTP status code of the response
+     */
+    @VisibleForTesting
+    int send(WsTask task) {
+        return task.send(getClient());
+    }
+
+    private synchronized Client getClient() {
+        if (client == null) {
+            client = ClientBuilder.newBuilder()
+                    .property(ClientProperties.CONNECT_TIMEOUT, CONNECT_TIMEOUT_MILLIS)
+                    .property(ClientProperties.READ_TIMEOUT, READ_TIMEOUT_MILLIS)
+                    .build();
+        }
+        return client;
+    }
+
+    // Takes the queued requests that can be sent now, must hold the agent lock
+    private List<WsTask> poll(AgentQueue agent) {
+        List<WsTask> ready = Collections.emptyList();
+        Iterator<WsTask> iterator = agent.pending.values().iterator();
+        while (agent.inFlight < maxAgentRequests && iterator.hasNext()) {
+            WsTask task = iterator.next();
+            if (agent.busyUrls.add(task.getUrl())) {
+                iterator.remove();
+                agent.inFlight++;
+                if (ready.isEmpty()) {
+                    ready = new ArrayList<>();
+                }
+                ready.add(task);
+            }
+        }
+        return ready;
+    }
+
+    private void execute(AgentQueue agent, List<WsTask> ready) {
+        for (WsTask task : ready) {
+            try {
+                executor.execute(() -> process(agent, task));
+            } catch (RejectedExecutionException e) {
+                LOG.error("{} operation to {} rejected", task.getRestOperation(), task.getUrl(), e);
+                synchronized (agent) {
+                    agent.inFlight--;
+                    agent.failed++;
+                    agent.busyUrls.remove(task.getUrl());
+                }
+            }
+        }
+    }
+
+    @SuppressWarnings("checkstyle:IllegalCatch")
+    private void process(AgentQueue agent, WsTask task) {
+        boolean succeeded = false;
+        boolean retriable = true;
+        try {
+            int status = send(task);
+            Response.Status.Family family = Response.Status.Family.familyOf(status);
+            succeeded = family == Response.Status.Family.SUCCESSFUL;
+            retriable = family == Response.Status.Family.SERVER_ERROR;
+            if (!succeeded) {
+                LOG.warn("{} operation to {} failed with HTTP status code {}", task.getRestOperation(),
+                        task.getUrl(), status);
+            }
+        } catch (WebApplicationException | ProcessingException e) {
+            LOG.warn("{} operation to {} failed", task.getRestOperation(), task.getUrl(), e);
+        } catch (RuntimeException e) {
+            // e.g. a malformed URL, it fails the same way on every attempt;
+            // caught so the URL and the agent slot are released below
+            LOG.warn("{} operation to {} cannot be sent", task.getRestOperation(), task.getUrl(), e);
+            retriable = false;
+        }
+
+        boolean retry = !succeeded && retriable && task.getAttempt() < maxRetries;
+        List<WsTask> ready;
+        synchronized (agent) {
+            agent.inFlight--;
+            if (succeeded) {
+                agent.sent++;
+            } else if (retry) {
+                agent.retried++;
+            } else {
+                agent.failed++;
+            }
+            // the URL stays busy while the retry waits, so no newer request overtakes it
+            if (!retry) {
+                agent.busyUrls.remove(task.getUrl());
+            }
+            ready = poll(agent);
+        }
+        execute(agent, ready);
+
+        if (retry) {
+            long delay = retryDelayMillis << task.getAttempt();
+            try {
+                scheduler.schedule(() -> retry(agent, task.nextAttempt()), delay, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                LOG.debug("{} operation to {} not retried, the dispatcher is closed", task.getRestOperation(),
+                        task.getUrl());
+            }
+        } else if (!succeeded) {
+            LOG.error("{} operation to {} failed after {} attempts", task.getRestOperation(), task.getUrl(),
+                    task.getAttempt() + 1);
+        }
+    }
+
+    private void retry(AgentQueue agent, WsTask task) {
+        List<WsTask> ready;
+        synchronized (agent) {
+            agent.busyUrls.remove(task.getUrl());
+            // a request queued meanwhile for the same URL supersedes the retried one
+            agent.pending.putIfAbsent(task.getUrl(), task);
+            ready = poll(agent);
+        }
+        execute(agent, ready);
+    }
+
+    private void report() {
+        long now = System.nanoTime();
+        for (AgentQueue agent : agents.values()) {
+            AgentStatistics stats;
+            synchronized (agent) {
+                double seconds = (now - agent.lastReportNanos) / 1e9;
+                agent.sendRate = seconds > 0 ? (agent.sent - agent.lastReportSent) / seconds : 0;
+                boolean idle = agent.sent == agent.lastReportSent && agent.failed == agent.lastReportFailed
+                        && agent.pending.isEmpty();
+                agent.lastReportNanos = now;
+                agent.lastReportSent = agent.sent;
+                agent.lastReportFailed = agent.failed;
+                if (idle) {
+                    continue;
+                }
+                stats = new AgentStatistics(agent);
+            }
+            LOG.info("SB REST agent {}: {}", agent.name, stats);
+        }
+    }
+
+    private static final class AgentQueue {
+        private final String name;
+        private final Map<String, WsTask> pending = new LinkedHashMap<>();
+        private final Set<String> busyUrls = new HashSet<>();
+        private int inFlight;
+        private long sent;
+        private long failed;
+        private long retried;
+        private long coalesced;
+        private double sendRate;
+        private long lastReportNanos = System.nanoTime();
+        private long lastReportSent;
+        private long lastReportFailed;
+
+        AgentQueue(String name) {
+            this.name = name;
+        }
+    }
+
+    /**
+     * Snapshot of the statistics of an agent.
+     */
+    public static final class AgentStatistics {
+        private final long sentCount;
+        private final long failedCount;
+        private final long retriedCount;
+        private final long coalescedCount;
+        private final int queueDepth;
+        private final int inFlightCount;
+        private final double sendRate;
+
+        private AgentStatistics(AgentQueue agent) {
+            this.sentCount = agent.sent;
+            this.failedCount = agent.failed;
+            this.retriedCount = agent.retried;
+            this.coalescedCount = agent.coalesced;
+            this.queueDepth = agent.pending.size();
+            this.inFlightCount = agent.inFlight;
+            this.sendRate = agent.sendRate;
+        }
+
+        /**
+         * Returns the number of requests sent successfully.
+         */
+        public long getSentCount() {
+            return sentCount;
+        }
+
+        /**
+         * Returns the number of requests that failed after all their attempts.
+         */
+        public long getFailedCount() {
+            return failedCount;
+        }
+
+        /**
+         * Returns the number of failed attempts that were retried.
+         */
+        public long getRetriedCount() {
+            return retriedCount;
+        }
+
+        /**
+         * Returns the number of queued requests replaced by a newer request.
+         */
+        public long getCoalescedCount() {
+            return coalescedCount;
+        }
+
+        /**
+         * Returns the number of requests waiting to be sent.
+         */
+        public int getQueueDepth() {
+            return queueDepth;
+        }
+
+        /**
+         * Returns the number of requests being sent.
+         */
+        public int getInFlightCount() {
+            return inFlightCount;
+        }
+
+        /**
+         * Returns the requests sent per second over the last report interval.
+         */
+        public double getSendRate() {
+            return sendRate;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d requests sent (%.2f per second), %d failed, %d retried, %d coalesced, "
+                    + "%d queued, %d in flight", sentCount, sendRate, failedCount, retriedCount, coalescedCount,
+                    queueDepth, inFlightCount);
+        }
+    }
+}
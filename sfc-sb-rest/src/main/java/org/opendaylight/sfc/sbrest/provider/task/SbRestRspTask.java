@@ -7,11 +7,13 @@
  */
 package org.opendaylight.sfc.sbrest.provider.task;
 
+import java.util.HashSet;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
+import java.util.Set;
 import org.opendaylight.sfc.provider.api.SfcProviderServiceForwarderAPI;
 import org.opendaylight.sfc.sbrest.json.RspExporterFactory;
 import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.common.rev151017.RspName;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.common.rev151017.SffName;
 import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.rsp.rev140701.rendered.service.paths.RenderedServicePath;
 import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.rsp.rev140701.rendered.service.paths.rendered.service.path.RenderedServicePathHop;
 import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sff.rev140701.service.function.forwarders.ServiceFunctionForwarder;
@@ -24,8 +26,8 @@ public class SbRestRspTask extends SbRestAbstractTask {
             "/operational/rendered-service-path:rendered-service-paths/rendered-service-path/";
     private static final Logger LOG = LoggerFactory.getLogger(SbRestRspTask.class);
 
-    public SbRestRspTask(RestOperation restOperation, RenderedServicePath dataObject, ExecutorService odlExecutor) {
-        super(restOperation, new RspExporterFactory(), dataObject, odlExecutor);
+    public SbRestRspTask(RestOperation restOperation, RenderedServicePath dataObject, SbRestDispatcher dispatcher) {
+        super(restOperation, new RspExporterFactory(), dataObject, dispatcher);
         setRestUriList(dataObject);
     }
 
@@ -33,7 +35,12 @@ public class SbRestRspTask extends SbRestAbstractTask {
         List<RenderedServicePathHop> hopList = obj.getRenderedServicePathHop();
 
         if (hopList != null) {
+            // consecutive hops usually share the SFF, read each SFF once
+            Set<SffName> sffNames = new HashSet<>();
             for (RenderedServicePathHop hop : hopList) {
+                if (!sffNames.add(hop.getServiceFunctionForwarder())) {
+                    continue;
+                }
                 ServiceFunctionForwarder sff = SfcProviderServiceForwarderAPI
                         .readServiceFunctionForwarder(hop.getServiceFunctionForwarder());
                 if (sff != null && sff.getRestUri() != null) {
@@ -7,7 +7,6 @@
  */
 package org.opendaylight.sfc.sbrest.provider.task;
 
-import java.util.concurrent.ExecutorService;
 import org.opendaylight.sfc.provider.api.SfcProviderServiceFunctionAPI;
 import org.opendaylight.sfc.sbrest.json.SfstateExporterFactory;
 import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.common.rev151017.SfName;
@@ -22,8 +21,8 @@ public class SbRestSfstateTask extends SbRestAbstractTask {
     private static final Logger LOG = LoggerFactory.getLogger(SbRestSfstateTask.class);
 
     public SbRestSfstateTask(RestOperation restOperation, ServiceFunctionState dataObject,
-            ExecutorService odlExecutor) {
-        super(restOperation, new SfstateExporterFactory(), dataObject, odlExecutor);
+            SbRestDispatcher dispatcher) {
+        super(restOperation, new SfstateExporterFactory(), dataObject, dispatcher);
         setRestUriList(dataObject);
     }
 
@@ -7,62 +7,101 @@
  */
 package org.opendaylight.sfc.sbrest.provider.task;
 
-import javax.ws.rs.ProcessingException;
-import javax.ws.rs.WebApplicationException;
+import java.net.URI;
+import java.net.URISyntaxException;
 import javax.ws.rs.client.Client;
-import javax.ws.rs.client.ClientBuilder;
 import javax.ws.rs.client.Entity;
 import javax.ws.rs.client.Invocation.Builder;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
-public class WsTask implements Runnable {
+/**
+ * A REST request to an SB REST agent. The requests are queued and sent by the
+ * {@link SbRestDispatcher}, which keeps only the latest request for each URL.
+ */
+public class WsTask {
 
     protected static final String HTTP_ERROR_MSG = "Failed, HTTP error code : ";
-    private static final Logger LOG = LoggerFactory.getLogger(WsTask.class);
 
-    String url;
-    RestOperation restOperation;
-    String json;
+    private final String url;
+    private final RestOperation restOperation;
+    private final String json;
+    private final int attempt;
 
     public WsTask(String url, RestOperation restOperation, String json) {
+        this(url, restOperation, json, 0);
+    }
+
+    private WsTask(String url, RestOperation restOperation, String json, int attempt) {
         this.url = url;
         this.restOperation = restOperation;
         this.json = json;
+        this.attempt = attempt;
     }
 
-    @Override
-    public void run() {
-        Client client = ClientBuilder.newClient();
+    public String getUrl() {
+        return url;
+    }
 
-        final Entity<String> entity = Entity.entity(json, MediaType.APPLICATION_JSON);
-        Builder wrb = client.target(url).request(MediaType.APPLICATION_JSON);
+    public RestOperation getRestOperation() {
+        return restOperation;
+    }
 
+    /**
+     * Returns the agent the request is sent to, i.e. the scheme and authority
+     * of its URL, or the whole URL if it cannot be parsed.
+     *
+     * @return the agent of the request
+     */
+    public String getAgent() {
         try {
-            Response response;
-            switch (restOperation) {
-                case PUT:
-                    response = wrb.put(entity);
-                    break;
-                case POST:
-                    response = wrb.post(entity);
-                    break;
-                case DELETE:
-                    response = wrb.delete();
-                    break;
-                default:
-                    LOG.warn("{} operation not implemented", restOperation);
-                    return;
+            URI uri = new URI(url);
+            if (uri.getScheme() != null && uri.getRawAuthority() != null) {
+                return uri.getScheme() + "://" + uri.getRawAuthority();
             }
+        } catch (URISyntaxException e) {
+            // fall through, the request will fail when sent
+        }
+        return url;
+    }
 
-            if (response.getStatus() != Response.Status.OK.getStatusCode()) {
-                LOG.error("{} operation to {} failed with HTTP status code {}", restOperation, url,
-                        response.getStatus());
-            }
-        } catch (WebApplicationException | ProcessingException e) {
-            LOG.error("{} operation to {} failed", restOperation, url, e);
+    int getAttempt() {
+        return attempt;
+    }
+
+    WsTask nextAttempt() {
+        return new WsTask(url, restOperation, json, attempt + 1);
+    }
+
+    /**
+     * Sends the request with the given client. The response is closed, so
+     * the connection is released to the keep-alive pool of the client.
+     *
+     * @param client the client to send the request with
+     * @return the HTTP status code of the response
+     * @throws javax.ws.rs.ProcessingException if the request cannot be sent
+     */
+    int send(Client client) {
+        Builder wrb = client.target(url).request(MediaType.APPLICATION_JSON);
+        Response response;
+        switch (restOperation) {
+            case PUT:
+                response = wrb.put(Entity.entity(json, MediaType.APPLICATION_JSON));
+                break;
+            case POST:
+                response = wrb.post(Entity.entity(json, MediaType.APPLICATION_JSON));
+                break;
+            case DELETE:
+                response = wrb.delete();
+                break;
+            default:
+                throw new IllegalStateException(restOperation + " operation not implemented");
+        }
+
+        try {
+            return response.getStatus();
+        } finally {
+            response.close();
         }
     }
 }
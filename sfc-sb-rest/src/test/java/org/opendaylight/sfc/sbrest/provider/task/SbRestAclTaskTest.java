@@ -18,7 +18,6 @@ import com.fasterxml.jackson.databind.node.ObjectNode;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import org.junit.Before;
 import org.junit.Test;
@@ -67,13 +66,13 @@ public class SbRestAclTaskTest {
     private static final SffName SFF_NAME = new SffName("Dummy_SFF");
     private static final String REST_URI = "http://localhost:5000";
 
-    private ExecutorService executorService;
+    private SbRestDispatcher dispatcher;
     private final ObjectMapper mapper = new ObjectMapper();
 
     @Before
     // some mocked methods are prepared here
     public void init() {
-        executorService = Executors.newFixedThreadPool(10);
+        dispatcher = new SbRestDispatcher(Executors.newFixedThreadPool(10));
 
         PowerMockito
                 .stub(PowerMockito.method(SfcProviderAclAPI.class, "readAccessListState", String.class, Class.class))
@@ -89,7 +88,7 @@ public class SbRestAclTaskTest {
 
     @Test
     public void testSbRestAclTask() throws IOException {
-        SbRestAclTask sbRestAclTask = new SbRestAclTask(RestOperation.PUT, this.buildAccessList(), executorService);
+        SbRestAclTask sbRestAclTask = new SbRestAclTask(RestOperation.PUT, this.buildAccessList(), dispatcher);
 
         JsonNode jsonObject = mapper.readTree(sbRestAclTask.getJsonObject());
         assertTrue(jsonObject.equals(this.buildAccessListObjectNode()));
@@ -98,7 +97,7 @@ public class SbRestAclTaskTest {
 
     @Test
     public void testSbRestAclTask1() throws IOException {
-        SbRestAclTask sbRestAclTask = new SbRestAclTask(RestOperation.DELETE, this.buildAccessList(), executorService);
+        SbRestAclTask sbRestAclTask = new SbRestAclTask(RestOperation.DELETE, this.buildAccessList(), dispatcher);
 
         JsonNode jsonObject = mapper.readTree(sbRestAclTask.getJsonObject());
         assertTrue(jsonObject.equals(this.buildAccessListObjectNode()));
@@ -111,7 +110,7 @@ public class SbRestAclTaskTest {
         Mockito.when(SfcProviderServiceForwarderAPI.readServiceFunctionForwarder(SFF_NAME))
                 .thenReturn(new ServiceFunctionForwarderBuilder().build());
 
-        SbRestAclTask sbRestAclTask = new SbRestAclTask(RestOperation.PUT, this.buildAccessList(), executorService);
+        SbRestAclTask sbRestAclTask = new SbRestAclTask(RestOperation.PUT, this.buildAccessList(), dispatcher);
 
         JsonNode jsonObject = mapper.readTree(sbRestAclTask.getJsonObject());
         assertTrue(jsonObject.equals(this.buildAccessListObjectNode()));
@@ -121,7 +120,7 @@ public class SbRestAclTaskTest {
     @Test
     public void testSbRestAclTaskAclNameForwarderList() throws IOException {
         SbRestAclTask sbRestAclTask = new SbRestAclTask(RestOperation.PUT, ACL_NAME, ACL_TYPE,
-                this.buildServiceFunctionClassifier().getSclServiceFunctionForwarder(), executorService);
+                this.buildServiceFunctionClassifier().getSclServiceFunctionForwarder(), dispatcher);
 
         assertNull(sbRestAclTask.getJsonObject());
         assertTrue(sbRestAclTask.getRestUriListCopy().get(0).contains(REST_URI));
@@ -130,7 +129,7 @@ public class SbRestAclTaskTest {
     @Test
     public void testSbRestAclTaskAclObjectForwarderList() throws IOException {
         SbRestAclTask sbRestAclTask = new SbRestAclTask(RestOperation.PUT, this.buildAccessList(),
-                this.buildServiceFunctionClassifier().getSclServiceFunctionForwarder(), executorService);
+                this.buildServiceFunctionClassifier().getSclServiceFunctionForwarder(), dispatcher);
 
         JsonNode jsonObject = mapper.readTree(sbRestAclTask.getJsonObject());
         assertTrue(jsonObject.equals(this.buildAccessListObjectNode()));
@@ -147,7 +146,7 @@ public class SbRestAclTaskTest {
         sclServiceFunctionForwarderList.add(sclServiceFunctionForwarderBuilder.build());
 
         SbRestAclTask sbRestAclTask = new SbRestAclTask(RestOperation.PUT, this.buildAccessList(),
-                sclServiceFunctionForwarderList, executorService);
+                sclServiceFunctionForwarderList, dispatcher);
 
         JsonNode jsonObject = mapper.readTree(sbRestAclTask.getJsonObject());
         assertTrue(jsonObject.equals(this.buildAccessListObjectNode()));
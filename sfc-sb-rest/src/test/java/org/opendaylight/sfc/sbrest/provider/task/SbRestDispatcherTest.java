@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2018 Ericsson Inc. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.sfc.sbrest.provider.task;
+
+import static org.junit.Assert.assertEquals;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+import javax.ws.rs.ProcessingException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * This class contains unit tests for SbRestDispatcher.
+ */
+public class SbRestDispatcherTest {
+
+    private static final String AGENT = "http://localhost:5000";
+    private static final String SF_URL = AGENT + "/config/service-function:service-functions/service-function/";
+
+    // the sends run only when the test runs them
+    private final Queue<Runnable> executor = new LinkedList<>();
+    private final List<WsTask> sent = new ArrayList<>();
+    private int status = 200;
+    private SbRestDispatcher dispatcher;
+
+    @Before
+    public void init() {
+        dispatcher = new SbRestDispatcher(executor::add, 2, 0, 0) {
+            @Override
+            int send(WsTask task) {
+                sent.add(task);
+                // as the client does for a malformed URL
+                URI.create(task.getUrl());
+                if (status < 0) {
+                    throw new ProcessingException("Connection refused");
+                }
+                return status;
+            }
+        };
+    }
+
+    @After
+    public void close() {
+        dispatcher.close();
+    }
+
+    @Test
+    public void testCoalescing() {
+        dispatcher.submit(new WsTask(SF_URL + "SF1", RestOperation.PUT, "1"));
+        dispatcher.submit(new WsTask(SF_URL + "SF1", RestOperation.PUT, "2"));
+        dispatcher.submit(new WsTask(SF_URL + "SF1", RestOperation.DELETE, "3"));
+
+        // the first PUT is in flight, the second one is replaced by the DELETE
+        assertEquals(1, executor.size());
+        assertEquals(1, dispatcher.getStatistics(AGENT).getQueueDepth());
+        assertEquals(1, dispatcher.getStatistics(AGENT).getCoalescedCount());
+
+        runAll();
+
+        assertEquals(2, sent.size());
+        assertEquals(RestOperation.PUT, sent.get(0).getRestOperation());
+        assertEquals(RestOperation.DELETE, sent.get(1).getRestOperation());
+        assertEquals(2, dispatcher.getStatistics(AGENT).getSentCount());
+        assertEquals(0, dispatcher.getStatistics(AGENT).getQueueDepth());
+    }
+
+    @Test
+    public void testAgentConcurrency() {
+        dispatcher.submit(new WsTask(SF_URL + "SF1", RestOperation.PUT, "1"));
+        dispatcher.submit(new WsTask(SF_URL + "SF2", RestOperation.PUT, "2"));
+        dispatcher.submit(new WsTask(SF_URL + "SF3", RestOperation.PUT, "3"));
+        dispatcher.submit(new WsTask("http://localhost:6000/config/SF4", RestOperation.PUT, "4"));
+
+        // two requests in flight for the first agent, one for the second
+        assertEquals(3, executor.size());
+        assertEquals(2, dispatcher.getStatistics(AGENT).getInFlightCount());
+        assertEquals(1, dispatcher.getStatistics(AGENT).getQueueDepth());
+
+        runAll();
+
+        assertEquals(4, sent.size());
+        assertEquals(3, dispatcher.getStatistics(AGENT).getSentCount());
+        assertEquals(1, dispatcher.getStatistics("http://localhost:6000").getSentCount());
+    }
+
+    @Test
+    public void testFailures() {
+        status = 404;
+        dispatcher.submit(new WsTask(SF_URL + "SF1", RestOperation.PUT, "1"));
+        runAll();
+        status = -1;
+        dispatcher.submit(new WsTask(SF_URL + "SF1", RestOperation.PUT, "1"));
+        runAll();
+
+        assertEquals(2, sent.size());
+        assertEquals(0, dispatcher.getStatistics(AGENT).getSentCount());
+        assertEquals(2, dispatcher.getStatistics(AGENT).getFailedCount());
+    }
+
+    @Test
+    public void testMalformedUrl() {
+        String url = "http://[localhost:5000/config/SF1";
+        dispatcher.submit(new WsTask(url, RestOperation.PUT, "1"));
+        runAll();
+
+        assertEquals(1, sent.size());
+        assertEquals(1, dispatcher.getStatistics(url).getFailedCount());
+        assertEquals(0, dispatcher.getStatistics(url).getInFlightCount());
+
+        // the URL is not left busy
+        dispatcher.submit(new WsTask(url, RestOperation.PUT, "2"));
+        assertEquals(1, executor.size());
+        runAll();
+
+        assertEquals(2, sent.size());
+        assertEquals(2, dispatcher.getStatistics(url).getFailedCount());
+        assertEquals(0, dispatcher.getStatistics(url).getQueueDepth());
+    }
+
+    private void runAll() {
+        while (!executor.isEmpty()) {
+            executor.poll().run();
+        }
+    }
+}
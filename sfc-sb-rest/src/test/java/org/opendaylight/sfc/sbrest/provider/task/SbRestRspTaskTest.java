@@ -8,6 +8,7 @@
 
 package org.opendaylight.sfc.sbrest.provider.task;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 import com.fasterxml.jackson.databind.JsonNode;
@@ -16,8 +17,8 @@ import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import org.junit.Before;
 import org.junit.Test;
@@ -54,11 +55,11 @@ public class SbRestRspTaskTest {
     private static final SffName SFF_NAME = new SffName("Dummy_SFF");
     private static final String REST_URI = "http://localhost:5000";
     private final ObjectMapper mapper = new ObjectMapper();
-    private ExecutorService executorService;
+    private SbRestDispatcher dispatcher;
 
     @Before
     public void init() {
-        executorService = Executors.newFixedThreadPool(10);
+        dispatcher = new SbRestDispatcher(Executors.newFixedThreadPool(10));
 
         PowerMockito.mockStatic(SfcProviderServiceForwarderAPI.class);
         Mockito.when(SfcProviderServiceForwarderAPI.readServiceFunctionForwarder(SFF_NAME))
@@ -68,7 +69,7 @@ public class SbRestRspTaskTest {
     @Test
     public void testSbRestRspTask() throws IOException {
         SbRestRspTask sbRestRspTask = new SbRestRspTask(RestOperation.PUT, this.buildRenderedServicePath(),
-                executorService);
+                dispatcher);
 
         JsonNode jsonObject = mapper.readTree(sbRestRspTask.getJsonObject());
         assertTrue("Must be true", jsonObject.equals(this.buildRenderedServicePathObjectNode()));
@@ -78,7 +79,7 @@ public class SbRestRspTaskTest {
     @Test
     public void testSbRestRspTask1() throws IOException {
         SbRestRspTask sbRestRspTask = new SbRestRspTask(RestOperation.DELETE, this.buildRenderedServicePath(),
-                executorService);
+                dispatcher);
 
         JsonNode jsonObject = mapper.readTree(sbRestRspTask.getJsonObject());
         assertTrue("Must be true", jsonObject.equals(this.buildRenderedServicePathObjectNode1()));
@@ -92,13 +93,24 @@ public class SbRestRspTaskTest {
                 .thenReturn(new ServiceFunctionForwarderBuilder().build());
 
         SbRestRspTask sbRestRspTask = new SbRestRspTask(RestOperation.PUT, new RenderedServicePathBuilder().build(),
-                executorService);
+                dispatcher);
 
         JsonNode jsonObject = mapper.readTree(sbRestRspTask.getJsonObject());
         assertTrue("Must be true", jsonObject.equals(this.buildRenderedServicePathTopNode()));
         assertTrue("Must be empty", sbRestRspTask.getRestUriListCopy().isEmpty());
     }
 
+    @Test
+    public void testSbRestRspTaskSameSff() {
+        RenderedServicePathHop hop = new RenderedServicePathHopBuilder().setServiceFunctionForwarder(SFF_NAME).build();
+        RenderedServicePath renderedServicePath = new RenderedServicePathBuilder().setName(RSP_NAME)
+                .setRenderedServicePathHop(Arrays.asList(hop, hop)).build();
+
+        SbRestRspTask sbRestRspTask = new SbRestRspTask(RestOperation.PUT, renderedServicePath, dispatcher);
+
+        assertEquals("Must be equal", 1, sbRestRspTask.getRestUriListCopy().size());
+    }
+
     // build rendered service path, which is needed to create SbRestRspTask
     // object
     private RenderedServicePath buildRenderedServicePath() {
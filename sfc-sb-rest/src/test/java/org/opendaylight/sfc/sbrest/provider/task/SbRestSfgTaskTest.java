@@ -16,7 +16,6 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import java.io.IOException;
-import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import org.junit.Before;
 import org.junit.Test;
@@ -40,11 +39,11 @@ public class SbRestSfgTaskTest {
     private static final String SFG_NAME = "Dummy_SFG";
     private static final String REST_URI = "http://localhost:5000";
     private final ObjectMapper mapper = new ObjectMapper();
-    private ExecutorService executorService;
+    private SbRestDispatcher dispatcher;
 
     @Before
     public void init() {
-        executorService = Executors.newFixedThreadPool(10);
+        dispatcher = new SbRestDispatcher(Executors.newFixedThreadPool(10));
     }
 
     @Test
@@ -55,7 +54,7 @@ public class SbRestSfgTaskTest {
     // this jsonObject is then compared with object node created in this class
     public void testSbRestSfgTask() throws IOException {
         SbRestSfgTask sbRestSfgTask = new SbRestSfgTask(RestOperation.PUT, this.buildServiceFunctionGroup(),
-                executorService);
+                dispatcher);
 
         JsonNode jsonObject = mapper.readTree(sbRestSfgTask.getJsonObject());
         assertNotNull("Must not be null", sbRestSfgTask.getRestUriListCopy());
@@ -66,7 +65,7 @@ public class SbRestSfgTaskTest {
     @Test
     public void testSbRestSfgTask1() throws IOException {
         SbRestSfgTask sbRestSfgTask = new SbRestSfgTask(RestOperation.DELETE, this.buildServiceFunctionGroup1(),
-                executorService);
+                dispatcher);
 
         JsonNode jsonObject = mapper.readTree(sbRestSfgTask.getJsonObject());
         assertTrue("Must be empty", sbRestSfgTask.getRestUriListCopy().isEmpty());
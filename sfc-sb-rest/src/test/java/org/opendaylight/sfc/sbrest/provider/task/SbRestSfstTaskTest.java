@@ -15,7 +15,6 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import java.io.IOException;
-import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import org.junit.Before;
 import org.junit.Test;
@@ -38,11 +37,11 @@ public class SbRestSfstTaskTest {
     private static final String SFST_REST_URI =
             "/config/service-function-scheduler-type:service-function-scheduler-types/service-function-scheduler-type/";
     private final ObjectMapper mapper = new ObjectMapper();
-    private ExecutorService executorService;
+    private SbRestDispatcher dispatcher;
 
     @Before
     public void init() {
-        executorService = Executors.newFixedThreadPool(10);
+        dispatcher = new SbRestDispatcher(Executors.newFixedThreadPool(10));
     }
 
     @Test
@@ -53,7 +52,7 @@ public class SbRestSfstTaskTest {
     // this jsonObject is then compared with object node created in this class
     public void testSbRestSfstTask() throws IOException {
         SbRestSfstTask sbRestSfstTask = new SbRestSfstTask(RestOperation.PUT, this.buildServiceFunctionSchedulerType(),
-                executorService);
+                dispatcher);
 
         JsonNode jsonObject = mapper.readTree(sbRestSfstTask.getJsonObject());
         assertTrue("Must be true", jsonObject.equals(this.buildServiceFunctionSchedulerTypeObjectNode()));
@@ -63,7 +62,7 @@ public class SbRestSfstTaskTest {
     @Test
     public void testSbRestSfstTask1() throws IOException {
         SbRestSfstTask sbRestSfstTask = new SbRestSfstTask(RestOperation.DELETE,
-                this.buildServiceFunctionSchedulerType(), executorService);
+                this.buildServiceFunctionSchedulerType(), dispatcher);
 
         JsonNode jsonObject = mapper.readTree(sbRestSfstTask.getJsonObject());
         assertTrue("Must be true", jsonObject.equals(buildServiceFunctionSchedulerTypeObjectNode()));
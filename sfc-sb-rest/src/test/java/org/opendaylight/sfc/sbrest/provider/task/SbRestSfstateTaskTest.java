@@ -15,7 +15,6 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import java.io.IOException;
-import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import org.junit.Before;
 import org.junit.Test;
@@ -50,11 +49,11 @@ public class SbRestSfstateTaskTest {
     private static final String REST_URI = "http://localhost:5000";
 
     private final ObjectMapper mapper = new ObjectMapper();
-    private ExecutorService executorService;
+    private SbRestDispatcher dispatcher;
 
     @Before
     public void init() {
-        executorService = Executors.newFixedThreadPool(10);
+        dispatcher = new SbRestDispatcher(Executors.newFixedThreadPool(10));
         PowerMockito.mockStatic(SfcProviderServiceFunctionAPI.class);
         Mockito.when(SfcProviderServiceFunctionAPI.readServiceFunction(SFSTATE_NAME))
                 .thenReturn(this.buildServiceFunction());
@@ -63,7 +62,7 @@ public class SbRestSfstateTaskTest {
     @Test
     public void testSbRestSfstateTask() throws IOException {
         SbRestSfstateTask sbRestSfstateTask = new SbRestSfstateTask(RestOperation.PUT, this.buildServiceFunctionState(),
-                executorService);
+                dispatcher);
 
         JsonNode jsonObject = mapper.readTree(sbRestSfstateTask.getJsonObject());
         assertTrue("Must be true", jsonObject.equals(this.buildServiceFunctionStateObjectNode()));
@@ -73,7 +72,7 @@ public class SbRestSfstateTaskTest {
     @Test
     public void testSbRestSfstateTask1() throws IOException {
         SbRestSfstateTask sbRestSfstateTask = new SbRestSfstateTask(RestOperation.DELETE,
-                this.buildServiceFunctionState(), executorService);
+                this.buildServiceFunctionState(), dispatcher);
 
         JsonNode jsonObject = mapper.readTree(sbRestSfstateTask.getJsonObject());
         assertTrue("Must be true", jsonObject.equals(buildServiceFunctionStateObjectNode1()));
@@ -83,7 +82,7 @@ public class SbRestSfstateTaskTest {
     @Test
     public void testSbRestSfstateTaskEmpty() throws IOException {
         SbRestSfstateTask sbRestSfstateTask = new SbRestSfstateTask(RestOperation.PUT,
-                new ServiceFunctionStateBuilder().build(), executorService);
+                new ServiceFunctionStateBuilder().build(), dispatcher);
         PowerMockito.mockStatic(SfcProviderServiceFunctionAPI.class);
         Mockito.when(SfcProviderServiceFunctionAPI.readServiceFunction(SFSTATE_NAME))
                 .thenReturn(new ServiceFunctionBuilder().build());
@@ -69,7 +69,7 @@ public final class SfcStatisticsFactory {
         SfcStatisticsReaderBase statsReader = getStatsReader(rsp, sff);
         return statsReader == null
                 ? null
-                : new SfStatisticsHandler(statsReader);
+                : new SfStatisticsHandler(statsReader, rsp, sff);
     }
 
     private static SfcStatisticsReaderBase getStatsReader(RenderedServicePath rsp, ServiceFunctionForwarder sff) {
@@ -0,0 +1,359 @@
+/*
+ * Copyright (c) 2018 Ericsson Inc. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.sfc.statistics.collector;
+
+import java.math.BigInteger;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.opendaylight.controller.md.sal.common.api.data.LogicalDatastoreType;
+import org.opendaylight.infrautils.utils.concurrent.Executors;
+import org.opendaylight.sfc.provider.api.SfcDataStoreAPI;
+import org.opendaylight.sfc.provider.api.SfcProviderServiceForwarderAPI;
+import org.opendaylight.sfc.provider.api.SfcProviderServiceFunctionAPI;
+import org.opendaylight.sfc.statistics.SfcStatisticsFactory;
+import org.opendaylight.sfc.statistics.handlers.SfcStatisticsHandlerBase;
+import org.opendaylight.sfc.statistics.readers.SfcOpenFlowStatisticsCache;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.common.rev151017.SfName;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.common.rev151017.SffName;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.rsp.rev140701.RenderedServicePaths;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.rsp.rev140701.rendered.service.paths.RenderedServicePath;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.rsp.rev140701.rendered.service.paths.rendered.service.path.RenderedServicePathHop;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sf.rev140701.service.functions.ServiceFunction;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sff.rev140701.service.function.forwarders.ServiceFunctionForwarder;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.ss.rev140701.service.statistics.group.StatisticByTimestamp;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.ss.rev140701.service.statistics.group.StatisticByTimestampBuilder;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.ss.rev140701.service.statistics.group.StatisticByTimestampKey;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.ss.rev140701.statistic.fields.ServiceStatistic;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.ss.rev140701.statistic.fields.ServiceStatisticBuilder;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.yang.types.rev130715.ZeroBasedCounter64;
+import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Polls the statistics of all the RSPs, and of the SFFs and SFs of their
+ * hops, on a schedule and keeps the last samples of each in a
+ * {@link RspStatisticsHistory}, so the statistics RPCs are answered from
+ * memory instead of reading the switches while the caller waits. The
+ * histories of the RSPs, SFFs and SFs no longer present are dropped on the
+ * next poll.
+ */
+public class RspStatisticsCollector implements AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RspStatisticsCollector.class);
+
+    public static final long DEFAULT_POLL_INTERVAL_SECONDS = 10;
+    // one hour of samples with the default poll interval
+    public static final int DEFAULT_HISTORY_SIZE = 360;
+
+    private final long pollIntervalSeconds;
+    private final int historySize;
+    // RSP name -> samples
+    private final ConcurrentMap<String, RspStatisticsHistory> histories = new ConcurrentHashMap<>();
+    // SFF name -> samples
+    private final ConcurrentMap<String, RspStatisticsHistory> sffHistories = new ConcurrentHashMap<>();
+    // SF name -> samples, summed over all the RSPs of the SF
+    private final ConcurrentMap<String, RspStatisticsHistory> sfHistories = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler =
+            Executors.newSingleThreadScheduledExecutor("RspStatisticsCollector", LOG);
+    private volatile boolean polled;
+
+    public RspStatisticsCollector() {
+        this(DEFAULT_POLL_INTERVAL_SECONDS, DEFAULT_HISTORY_SIZE);
+    }
+
+    public RspStatisticsCollector(long pollIntervalSeconds, int historySize) {
+        this.pollIntervalSeconds = pollIntervalSeconds;
+        this.historySize = historySize;
+    }
+
+    /**
+     * Start polling, called by blueprint.
+     */
+    public void start() {
+        LOG.info("RspStatisticsCollector polling every {} seconds, keeping {} samples per RSP", pollIntervalSeconds,
+                historySize);
+        scheduler.scheduleWithFixedDelay(this::poll, 0, pollIntervalSeconds, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    // A failed poll must not cancel the next ones
+    @SuppressWarnings("checkstyle:IllegalCatch")
+    private void poll() {
+        try {
+            collectAll();
+        } catch (RuntimeException e) {
+            LOG.error("RspStatisticsCollector failed collecting the RSP statistics", e);
+        }
+    }
+
+    /**
+     * Collect a sample of every RSP and of the SFFs and SFs of their hops, and
+     * drop the histories of the ones no longer present. The flows of each
+     * switch are read once per poll and shared by all its RSPs, SFFs and SFs.
+     */
+    public void collectAll() {
+        SfcOpenFlowStatisticsCache.invalidateFlowSnapshots();
+        BigInteger timestamp = BigInteger.valueOf(System.currentTimeMillis());
+        List<RenderedServicePath> rsps = readRenderedServicePaths();
+        Set<String> rspNames = new HashSet<>();
+        Map<String, StatisticsSum> sffStats = new HashMap<>();
+        Map<String, StatisticsSum> sfStats = new HashMap<>();
+        for (RenderedServicePath rsp : rsps) {
+            rspNames.add(rsp.getName().getValue());
+            collect(rsp);
+            collectSffsAndSfs(rsp, sffStats, sfStats);
+        }
+        histories.keySet().retainAll(rspNames);
+        addSamples(sffHistories, sffStats, timestamp);
+        addSamples(sfHistories, sfStats, timestamp);
+        polled = true;
+        LOG.debug("RspStatisticsCollector collected the statistics of {} RSPs", rsps.size());
+    }
+
+    /**
+     * Whether all the RSPs were polled at least once.
+     *
+     * @return true once a poll of all the RSPs completed
+     */
+    public boolean isPolled() {
+        return polled;
+    }
+
+    /**
+     * Collect a sample of an RSP and add it to its history.
+     *
+     * @param rsp
+     *            the RSP
+     * @return the sample, empty when the statistics can not be read
+     */
+    public Optional<StatisticByTimestamp> collect(RenderedServicePath rsp) {
+        Optional<ServiceFunctionForwarder> sff = getFirstSffFromRsp(rsp);
+        if (!sff.isPresent()) {
+            LOG.warn("There are no SFFs on this RSP [{}]", rsp.getName().getValue());
+            return Optional.empty();
+        }
+
+        SfcStatisticsHandlerBase rspStatsHandler = SfcStatisticsFactory.getRspHandler(rsp, sff.get());
+        if (rspStatsHandler == null) {
+            LOG.warn("Unable to get RspHandler for SFF [{}]", sff.get().getName().getValue());
+            return Optional.empty();
+        }
+
+        List<StatisticByTimestamp> rspStatsList = rspStatsHandler.getStatistics(rsp);
+        if (rspStatsList.isEmpty()) {
+            LOG.warn("No statistics available for RSP [{}]", rsp.getName().getValue());
+            return Optional.empty();
+        }
+
+        RspStatisticsHistory history = histories.computeIfAbsent(rsp.getName().getValue(),
+            name -> new RspStatisticsHistory(historySize));
+        rspStatsList.forEach(history::add);
+        return history.getLatest();
+    }
+
+    public Optional<RspStatisticsHistory> getHistory(String rspName) {
+        return Optional.ofNullable(histories.get(rspName));
+    }
+
+    public Optional<RspStatisticsHistory> getSffHistory(String sffName) {
+        return Optional.ofNullable(sffHistories.get(sffName));
+    }
+
+    public Optional<RspStatisticsHistory> getSfHistory(String sfName) {
+        return Optional.ofNullable(sfHistories.get(sfName));
+    }
+
+    /**
+     * Get the names of the RSPs having statistics samples.
+     *
+     * @return the RSP names
+     */
+    public Collection<String> getRspNames() {
+        return Collections.unmodifiableSet(histories.keySet());
+    }
+
+    public Collection<String> getSffNames() {
+        return Collections.unmodifiableSet(sffHistories.keySet());
+    }
+
+    public Collection<String> getSfNames() {
+        return Collections.unmodifiableSet(sfHistories.keySet());
+    }
+
+    // Each SFF is read once per poll, with the first RSP found on it, and the
+    // SFs are summed over the hops of all their RSPs
+    private static void collectSffsAndSfs(RenderedServicePath rsp, Map<String, StatisticsSum> sffStats,
+            Map<String, StatisticsSum> sfStats) {
+        List<RenderedServicePathHop> rspHopList = rsp.getRenderedServicePathHop();
+        if (rspHopList == null) {
+            return;
+        }
+
+        // SFF -> SFs of the RSP served by the SFF
+        Map<SffName, Set<SfName>> sfsBySff = new LinkedHashMap<>();
+        for (RenderedServicePathHop rspHop : rspHopList) {
+            if (rspHop.getServiceFunctionForwarder() == null) {
+                continue;
+            }
+            Set<SfName> sfNames = sfsBySff.computeIfAbsent(rspHop.getServiceFunctionForwarder(),
+                sffName -> new LinkedHashSet<>());
+            if (rspHop.getServiceFunctionName() != null) {
+                sfNames.add(rspHop.getServiceFunctionName());
+            }
+        }
+
+        for (Map.Entry<SffName, Set<SfName>> sfsOfSff : sfsBySff.entrySet()) {
+            ServiceFunctionForwarder sff =
+                    SfcProviderServiceForwarderAPI.readServiceFunctionForwarder(sfsOfSff.getKey());
+            if (sff == null) {
+                continue;
+            }
+
+            if (!sffStats.containsKey(sff.getName().getValue())) {
+                StatisticsSum sffSum = new StatisticsSum();
+                SfcStatisticsHandlerBase sffStatsHandler = SfcStatisticsFactory.getSffHandler(rsp, sff);
+                if (sffStatsHandler != null) {
+                    sffStatsHandler.getStatistics(sff).forEach(sffSum::add);
+                }
+                sffStats.put(sff.getName().getValue(), sffSum);
+            }
+
+            SfcStatisticsHandlerBase sfStatsHandler = SfcStatisticsFactory.getSfHandler(rsp, sff);
+            if (sfStatsHandler == null) {
+                continue;
+            }
+            for (SfName sfName : sfsOfSff.getValue()) {
+                ServiceFunction sf = SfcProviderServiceFunctionAPI.readServiceFunction(sfName);
+                if (sf == null) {
+                    continue;
+                }
+                StatisticsSum sfSum = sfStats.computeIfAbsent(sfName.getValue(), name -> new StatisticsSum());
+                sfStatsHandler.getStatistics(sf).forEach(sfSum::add);
+            }
+        }
+    }
+
+    private void addSamples(ConcurrentMap<String, RspStatisticsHistory> targetHistories,
+            Map<String, StatisticsSum> stats, BigInteger timestamp) {
+        Set<String> names = new HashSet<>();
+        for (Map.Entry<String, StatisticsSum> entry : stats.entrySet()) {
+            if (entry.getValue().isEmpty()) {
+                continue;
+            }
+            names.add(entry.getKey());
+            targetHistories.computeIfAbsent(entry.getKey(), name -> new RspStatisticsHistory(historySize))
+                    .add(entry.getValue().build(timestamp));
+        }
+        targetHistories.keySet().retainAll(names);
+    }
+
+    private static List<RenderedServicePath> readRenderedServicePaths() {
+        RenderedServicePaths rsps = SfcDataStoreAPI.readTransactionAPI(InstanceIdentifier.create(
+                RenderedServicePaths.class), LogicalDatastoreType.OPERATIONAL);
+
+        if (rsps == null) {
+            LOG.debug("No RSPs exist");
+            return Collections.emptyList();
+        }
+
+        List<RenderedServicePath> rspList = rsps.getRenderedServicePath();
+        return rspList == null
+                ? Collections.emptyList()
+                : rspList;
+    }
+
+    private static Optional<ServiceFunctionForwarder> getFirstSffFromRsp(RenderedServicePath rsp) {
+        List<RenderedServicePathHop> rspHopList = rsp.getRenderedServicePathHop();
+        if (rspHopList == null || rspHopList.isEmpty()) {
+            return Optional.empty();
+        }
+
+        RenderedServicePathHop firstHop = rspHopList.get(0);
+        if (firstHop == null) {
+            return Optional.empty();
+        }
+
+        SffName sffName = firstHop.getServiceFunctionForwarder();
+        if (sffName == null) {
+            return Optional.empty();
+        }
+
+        ServiceFunctionForwarder sff =
+                SfcProviderServiceForwarderAPI.readServiceFunctionForwarder(sffName);
+
+        return Optional.ofNullable(sff);
+    }
+
+    // Sum of statistics samples, a counter is only set if a sample has it
+    private static final class StatisticsSum {
+        private BigInteger bytesIn;
+        private BigInteger packetsIn;
+        private BigInteger bytesOut;
+        private BigInteger packetsOut;
+        private boolean empty = true;
+
+        void add(StatisticByTimestamp sample) {
+            ServiceStatistic stats = sample.getServiceStatistic();
+            if (stats == null) {
+                return;
+            }
+            bytesIn = add(bytesIn, stats.getBytesIn());
+            packetsIn = add(packetsIn, stats.getPacketsIn());
+            bytesOut = add(bytesOut, stats.getBytesOut());
+            packetsOut = add(packetsOut, stats.getPacketsOut());
+            empty = false;
+        }
+
+        boolean isEmpty() {
+            return empty;
+        }
+
+        StatisticByTimestamp build(BigInteger timestamp) {
+            ServiceStatisticBuilder srvStatsBuilder = new ServiceStatisticBuilder();
+            srvStatsBuilder.setBytesIn(toCounter(bytesIn));
+            srvStatsBuilder.setPacketsIn(toCounter(packetsIn));
+            srvStatsBuilder.setBytesOut(toCounter(bytesOut));
+            srvStatsBuilder.setPacketsOut(toCounter(packetsOut));
+
+            return new StatisticByTimestampBuilder()
+                    .setTimestamp(timestamp)
+                    .withKey(new StatisticByTimestampKey(timestamp))
+                    .setServiceStatistic(srvStatsBuilder.build())
+                    .build();
+        }
+
+        private static BigInteger add(BigInteger sum, ZeroBasedCounter64 counter) {
+            if (counter == null) {
+                return sum;
+            }
+            return sum == null ? counter.getValue() : sum.add(counter.getValue());
+        }
+
+        private static ZeroBasedCounter64 toCounter(BigInteger sum) {
+            return sum == null ? null : new ZeroBasedCounter64(sum);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2018 Ericsson Inc. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.sfc.statistics.collector;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.ss.rev140701.service.statistics.group.StatisticByTimestamp;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.ss.rev140701.statistic.fields.ServiceStatistic;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.yang.types.rev130715.ZeroBasedCounter64;
+import org.opendaylight.yang.gen.v1.urn.inocybe.params.xml.ns.yang.sfc.stats.ops.rev171215.statistic.rates.group.StatisticRates;
+import org.opendaylight.yang.gen.v1.urn.inocybe.params.xml.ns.yang.sfc.stats.ops.rev171215.statistic.rates.group.StatisticRatesBuilder;
+
+/**
+ * Ring buffer of the last statistics samples of an RSP, an SFF or an SF,
+ * ordered by timestamp. Once full, each new sample replaces the oldest one.
+ */
+public class RspStatisticsHistory {
+
+    private static final int RATE_SCALE = 3;
+    private static final BigDecimal MILLIS_PER_SECOND = BigDecimal.valueOf(1000);
+
+    private final StatisticByTimestamp[] samples;
+    // index of the next sample to write
+    private int next;
+    private int size;
+
+    public RspStatisticsHistory(int capacity) {
+        this.samples = new StatisticByTimestamp[Math.max(2, capacity)];
+    }
+
+    /**
+     * Add a sample. A sample with the timestamp of the latest sample replaces
+     * it, and a sample older than the latest sample is ignored.
+     *
+     * @param sample
+     *            the sample to add
+     */
+    public synchronized void add(StatisticByTimestamp sample) {
+        if (size > 0) {
+            int cmp = sample.getTimestamp().compareTo(get(size - 1).getTimestamp());
+            if (cmp < 0) {
+                return;
+            }
+            if (cmp == 0) {
+                samples[index(size - 1)] = sample;
+                return;
+            }
+        }
+        samples[next] = sample;
+        next = (next + 1) % samples.length;
+        if (size < samples.length) {
+            size++;
+        }
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized Optional<StatisticByTimestamp> getLatest() {
+        return size == 0 ? Optional.empty() : Optional.of(get(size - 1));
+    }
+
+    /**
+     * Get the samples in a time range, oldest first.
+     *
+     * @param startTime
+     *            the start of the range in milliseconds, included
+     * @param endTime
+     *            the end of the range in milliseconds, included
+     * @return the samples in the range
+     */
+    public synchronized List<StatisticByTimestamp> getRange(long startTime, long endTime) {
+        List<StatisticByTimestamp> range = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            StatisticByTimestamp sample = get(i);
+            long timestamp = sample.getTimestamp().longValue();
+            if (timestamp > endTime) {
+                break;
+            }
+            if (timestamp >= startTime) {
+                range.add(sample);
+            }
+        }
+        return range;
+    }
+
+    /**
+     * Compute the packet and byte rates from the last two samples. A counter
+     * going backwards, as when its flow is installed again, gives a 0 rate.
+     *
+     * @return the rates, empty with less than two samples
+     */
+    public synchronized Optional<StatisticRates> getRates() {
+        if (size < 2) {
+            return Optional.empty();
+        }
+        StatisticByTimestamp previous = get(size - 2);
+        StatisticByTimestamp latest = get(size - 1);
+        BigDecimal seconds = new BigDecimal(latest.getTimestamp().subtract(previous.getTimestamp()))
+                .divide(MILLIS_PER_SECOND);
+        ServiceStatistic previousStats = previous.getServiceStatistic();
+        ServiceStatistic latestStats = latest.getServiceStatistic();
+        if (previousStats == null || latestStats == null) {
+            return Optional.empty();
+        }
+
+        return Optional.of(new StatisticRatesBuilder()
+                .setBytesInRate(getRate(previousStats.getBytesIn(), latestStats.getBytesIn(), seconds))
+                .setBytesOutRate(getRate(previousStats.getBytesOut(), latestStats.getBytesOut(), seconds))
+                .setPacketsInRate(getRate(previousStats.getPacketsIn(), latestStats.getPacketsIn(), seconds))
+                .setPacketsOutRate(getRate(previousStats.getPacketsOut(), latestStats.getPacketsOut(), seconds))
+                .build());
+    }
+
+    private static BigDecimal getRate(ZeroBasedCounter64 previous, ZeroBasedCounter64 latest, BigDecimal seconds) {
+        if (previous == null || latest == null) {
+            return null;
+        }
+        BigInteger delta = latest.getValue().subtract(previous.getValue());
+        if (delta.signum() < 0) {
+            return BigDecimal.ZERO.setScale(RATE_SCALE);
+        }
+        return new BigDecimal(delta).divide(seconds, RATE_SCALE, RoundingMode.HALF_UP);
+    }
+
+    // the i-th sample, oldest first
+    private StatisticByTimestamp get(int index) {
+        return samples[index(index)];
+    }
+
+    private int index(int index) {
+        return (next - size + index + samples.length) % samples.length;
+    }
+}
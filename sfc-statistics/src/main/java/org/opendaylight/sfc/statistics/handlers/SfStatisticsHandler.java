@@ -8,29 +8,105 @@
 
 package org.opendaylight.sfc.statistics.handlers;
 
+import java.math.BigInteger;
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 
 import org.opendaylight.sfc.statistics.readers.SfcStatisticsReaderBase;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.rsp.rev140701.rendered.service.paths.RenderedServicePath;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.rsp.rev140701.rendered.service.paths.rendered.service.path.RenderedServicePathHop;
 import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sf.rev140701.service.functions.ServiceFunction;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sff.rev140701.service.function.forwarders.ServiceFunctionForwarder;
 import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.ss.rev140701.service.statistics.group.StatisticByTimestamp;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.ss.rev140701.service.statistics.group.StatisticByTimestampBuilder;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.ss.rev140701.service.statistics.group.StatisticByTimestampKey;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.ss.rev140701.statistic.fields.ServiceStatistic;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.ss.rev140701.statistic.fields.ServiceStatisticBuilder;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.yang.types.rev130715.ZeroBasedCounter64;
 import org.opendaylight.yangtools.yang.binding.DataObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Statistics of an SF on the hops of an RSP served by an SFF. The packets
+ * sent to the SF are counted by the NextHop flow of the service index of the
+ * hop, and the packets returned by the SF by the NextHop flow of the next
+ * service index on the same SFF, when there is one.
+ */
 public class SfStatisticsHandler extends SfcStatisticsHandlerBase {
 
     private static final Logger LOG = LoggerFactory.getLogger(SfStatisticsHandler.class);
-    private ServiceFunction sf;
+    private final RenderedServicePath rsp;
+    private final ServiceFunctionForwarder sff;
 
-    public SfStatisticsHandler(SfcStatisticsReaderBase statsReader) {
+    public SfStatisticsHandler(SfcStatisticsReaderBase statsReader, RenderedServicePath rsp,
+            ServiceFunctionForwarder sff) {
         super(statsReader);
+        this.rsp = rsp;
+        this.sff = sff;
     }
 
     @Override
     public <T extends DataObject> List<StatisticByTimestamp> getStatistics(T data) {
-        LOG.warn("SfStatisticsHandler::getStatistics NOT implemented yet");
 
-        return Collections.emptyList();
+        ServiceFunction sf = (ServiceFunction) data;
+
+        LOG.debug("SfStatisticsHandler::getStatistics firing");
+
+        List<RenderedServicePathHop> rspHops = rsp.getRenderedServicePathHop();
+        if (rspHops == null) {
+            return Collections.emptyList();
+        }
+
+        BigInteger bytesIn = BigInteger.ZERO;
+        BigInteger packetsIn = BigInteger.ZERO;
+        BigInteger bytesOut = BigInteger.ZERO;
+        BigInteger packetsOut = BigInteger.ZERO;
+        boolean found = false;
+        for (RenderedServicePathHop rspHop : rspHops) {
+            if (!sf.getName().equals(rspHop.getServiceFunctionName())
+                    || !sff.getName().equals(rspHop.getServiceFunctionForwarder())
+                    || rspHop.getServiceIndex() == null) {
+                continue;
+            }
+
+            short nsi = rspHop.getServiceIndex();
+            Optional<ServiceStatistic> inStats = getStatsReader().getNextHopStatistics(
+                    true, sff, rsp.getPathId(), nsi);
+            if (!inStats.isPresent()) {
+                continue;
+            }
+            found = true;
+            bytesIn = bytesIn.add(inStats.get().getBytesIn().getValue());
+            packetsIn = packetsIn.add(inStats.get().getPacketsIn().getValue());
+
+            Optional<ServiceStatistic> outStats = getStatsReader().getNextHopStatistics(
+                    false, sff, rsp.getPathId(), (short) (nsi - 1));
+            if (outStats.isPresent()) {
+                bytesOut = bytesOut.add(outStats.get().getBytesOut().getValue());
+                packetsOut = packetsOut.add(outStats.get().getPacketsOut().getValue());
+            }
+        }
+
+        if (!found) {
+            LOG.warn("SfStatisticsHandler cant get stats for SF [{}] on RSP [{}]", sf.getName().getValue(),
+                    rsp.getName().getValue());
+            return Collections.emptyList();
+        }
+
+        ServiceStatisticBuilder srvStatsBuilder = new ServiceStatisticBuilder();
+        srvStatsBuilder.setBytesIn(new ZeroBasedCounter64(bytesIn));
+        srvStatsBuilder.setPacketsIn(new ZeroBasedCounter64(packetsIn));
+        srvStatsBuilder.setBytesOut(new ZeroBasedCounter64(bytesOut));
+        srvStatsBuilder.setPacketsOut(new ZeroBasedCounter64(packetsOut));
+
+        StatisticByTimestampKey timestampKey = getTimestampKey();
+        StatisticByTimestampBuilder statsBuilder = new StatisticByTimestampBuilder();
+        statsBuilder.setTimestamp(timestampKey.getTimestamp());
+        statsBuilder.withKey(timestampKey);
+        statsBuilder.setServiceStatistic(srvStatsBuilder.build());
+
+        return Collections.singletonList(statsBuilder.build());
     }
 }
@@ -10,13 +10,24 @@ package org.opendaylight.sfc.statistics.handlers;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 
 import org.opendaylight.sfc.statistics.readers.SfcStatisticsReaderBase;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sff.rev140701.service.function.forwarders.ServiceFunctionForwarder;
 import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.ss.rev140701.service.statistics.group.StatisticByTimestamp;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.ss.rev140701.service.statistics.group.StatisticByTimestampBuilder;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.ss.rev140701.service.statistics.group.StatisticByTimestampKey;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.ss.rev140701.statistic.fields.ServiceStatistic;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.ss.rev140701.statistic.fields.ServiceStatisticBuilder;
 import org.opendaylight.yangtools.yang.binding.DataObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Statistics of an SFF: the SFC packets received by the SFF, counted by its
+ * transport ingress flows, and the SFC packets it sent, counted by its
+ * transport egress flows, whatever their RSP.
+ */
 public class SffStatisticsHandler extends SfcStatisticsHandlerBase {
 
     private static final Logger LOG = LoggerFactory.getLogger(SffStatisticsHandler.class);
@@ -27,8 +38,34 @@ public class SffStatisticsHandler extends SfcStatisticsHandlerBase {
 
     @Override
     public <T extends DataObject> List<StatisticByTimestamp> getStatistics(T data) {
-        LOG.warn("SffStatisticsHandler::getStatistics NOT implemented yet");
 
-        return Collections.emptyList();
+        ServiceFunctionForwarder sff = (ServiceFunctionForwarder) data;
+
+        LOG.debug("SffStatisticsHandler::getStatistics firing");
+
+        Optional<ServiceStatistic> inStats = getStatsReader().getTransportIngressStatistics(sff);
+        Optional<ServiceStatistic> outStats = getStatsReader().getTransportEgressStatistics(sff);
+        if (!inStats.isPresent() && !outStats.isPresent()) {
+            LOG.warn("SffStatisticsHandler cant get stats for SFF [{}]", sff.getName().getValue());
+            return Collections.emptyList();
+        }
+
+        ServiceStatisticBuilder srvStatsBuilder = new ServiceStatisticBuilder();
+        inStats.ifPresent(stats -> {
+            srvStatsBuilder.setBytesIn(stats.getBytesIn());
+            srvStatsBuilder.setPacketsIn(stats.getPacketsIn());
+        });
+        outStats.ifPresent(stats -> {
+            srvStatsBuilder.setBytesOut(stats.getBytesOut());
+            srvStatsBuilder.setPacketsOut(stats.getPacketsOut());
+        });
+
+        StatisticByTimestampKey timestampKey = getTimestampKey();
+        StatisticByTimestampBuilder statsBuilder = new StatisticByTimestampBuilder();
+        statsBuilder.setTimestamp(timestampKey.getTimestamp());
+        statsBuilder.withKey(timestampKey);
+        statsBuilder.setServiceStatistic(srvStatsBuilder.build());
+
+        return Collections.singletonList(statsBuilder.build());
     }
 }
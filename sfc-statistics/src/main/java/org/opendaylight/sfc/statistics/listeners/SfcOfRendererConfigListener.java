@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2018 Ericsson Inc. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.sfc.statistics.listeners;
+
+import javax.annotation.Nonnull;
+import org.opendaylight.controller.md.sal.binding.api.DataBroker;
+import org.opendaylight.controller.md.sal.common.api.data.LogicalDatastoreType;
+import org.opendaylight.serviceutils.tools.mdsal.listener.AbstractSyncDataTreeChangeListener;
+import org.opendaylight.sfc.statistics.readers.SfcOpenFlowStatisticsCache;
+import org.opendaylight.yang.gen.v1.urn.ericsson.params.xml.ns.yang.sfc.of.renderer.rev151123.SfcOfRendererConfig;
+import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class listens to changes in the SFC OpenFlow renderer configuration,
+ * which moves the SFC tables, to invalidate the cached table offsets of the
+ * statistics readers.
+ */
+public class SfcOfRendererConfigListener extends AbstractSyncDataTreeChangeListener<SfcOfRendererConfig> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SfcOfRendererConfigListener.class);
+
+    public SfcOfRendererConfigListener(DataBroker dataBroker) {
+        super(dataBroker, LogicalDatastoreType.CONFIGURATION, InstanceIdentifier.create(SfcOfRendererConfig.class));
+    }
+
+    @Override
+    public void add(@Nonnull InstanceIdentifier<SfcOfRendererConfig> instanceIdentifier,
+                    @Nonnull SfcOfRendererConfig sfcOfRendererConfig) {
+        LOG.debug("add: SFC OpenFlow renderer config {}", sfcOfRendererConfig);
+        SfcOpenFlowStatisticsCache.invalidateTableOffsets();
+    }
+
+    @Override
+    public void remove(@Nonnull InstanceIdentifier<SfcOfRendererConfig> instanceIdentifier,
+                       @Nonnull SfcOfRendererConfig sfcOfRendererConfig) {
+        LOG.debug("remove: SFC OpenFlow renderer config {}", sfcOfRendererConfig);
+        SfcOpenFlowStatisticsCache.invalidateTableOffsets();
+    }
+
+    @Override
+    public void update(@Nonnull InstanceIdentifier<SfcOfRendererConfig> instanceIdentifier,
+                       @Nonnull SfcOfRendererConfig originalSfcOfRendererConfig,
+                       @Nonnull SfcOfRendererConfig updatedSfcOfRendererConfig) {
+        LOG.debug("update: SFC OpenFlow renderer config {}", updatedSfcOfRendererConfig);
+        SfcOpenFlowStatisticsCache.invalidateTableOffsets();
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2018 Ericsson Inc. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.sfc.statistics.listeners;
+
+import javax.annotation.Nonnull;
+import org.opendaylight.controller.md.sal.binding.api.DataBroker;
+import org.opendaylight.controller.md.sal.common.api.data.LogicalDatastoreType;
+import org.opendaylight.serviceutils.tools.mdsal.listener.AbstractSyncDataTreeChangeListener;
+import org.opendaylight.sfc.statistics.readers.SfcOpenFlowStatisticsCache;
+import org.opendaylight.yang.gen.v1.urn.ericsson.params.xml.ns.yang.sfc.of.renderer.rev151123.SfcOfTableOffsets;
+import org.opendaylight.yang.gen.v1.urn.ericsson.params.xml.ns.yang.sfc.of.renderer.rev151123.sfc.of.table.offsets.SfcOfTablesByBaseTable;
+import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class listens to the table offsets written by the SFC OpenFlow renderer
+ * for each SFF, to invalidate the offsets cached by the statistics readers.
+ */
+public class SfcOfTableOffsetsListener extends AbstractSyncDataTreeChangeListener<SfcOfTablesByBaseTable> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SfcOfTableOffsetsListener.class);
+
+    public SfcOfTableOffsetsListener(DataBroker dataBroker) {
+        super(dataBroker, LogicalDatastoreType.OPERATIONAL,
+              InstanceIdentifier.create(SfcOfTableOffsets.class).child(SfcOfTablesByBaseTable.class));
+    }
+
+    @Override
+    public void add(@Nonnull InstanceIdentifier<SfcOfTablesByBaseTable> instanceIdentifier,
+                    @Nonnull SfcOfTablesByBaseTable sfcOfTablesByBaseTable) {
+        LOG.debug("add: table offsets of SFF {}", sfcOfTablesByBaseTable.getSffName());
+        SfcOpenFlowStatisticsCache.invalidateTableOffsets(sfcOfTablesByBaseTable.getSffName());
+    }
+
+    @Override
+    public void remove(@Nonnull InstanceIdentifier<SfcOfTablesByBaseTable> instanceIdentifier,
+                       @Nonnull SfcOfTablesByBaseTable sfcOfTablesByBaseTable) {
+        LOG.debug("remove: table offsets of SFF {}", sfcOfTablesByBaseTable.getSffName());
+        SfcOpenFlowStatisticsCache.invalidateTableOffsets(sfcOfTablesByBaseTable.getSffName());
+    }
+
+    @Override
+    public void update(@Nonnull InstanceIdentifier<SfcOfTablesByBaseTable> instanceIdentifier,
+                       @Nonnull SfcOfTablesByBaseTable originalSfcOfTablesByBaseTable,
+                       @Nonnull SfcOfTablesByBaseTable updatedSfcOfTablesByBaseTable) {
+        LOG.debug("update: table offsets of SFF {}", updatedSfcOfTablesByBaseTable.getSffName());
+        SfcOpenFlowStatisticsCache.invalidateTableOffsets(updatedSfcOfTablesByBaseTable.getSffName());
+    }
+}
@@ -47,4 +47,11 @@ public class SfcOpenFlowLogicalSffStatisticsReader extends SfcOpenFlowStatistics
 
         return Optional.empty();
     }
+
+    // A logical SFF spans the switches of all its SFs, and the statistics of
+    // the whole SFF can not be told from the hops of a single RSP
+    @Override
+    protected Optional<NodeId> getSffNodeId(ServiceFunctionForwarder sff) {
+        return Optional.empty();
+    }
 }
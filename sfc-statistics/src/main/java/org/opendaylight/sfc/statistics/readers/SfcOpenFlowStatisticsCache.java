@@ -0,0 +1,333 @@
+/*
+ * Copyright (c) 2018 Ericsson Inc. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.sfc.statistics.readers;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.math.BigInteger;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.opendaylight.controller.md.sal.common.api.data.LogicalDatastoreType;
+import org.opendaylight.sfc.provider.api.SfcDataStoreAPI;
+import org.opendaylight.sfc.util.openflow.SfcOpenflowCookie;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.common.rev151017.SffName;
+import org.opendaylight.yang.gen.v1.urn.ericsson.params.xml.ns.yang.sfc.of.renderer.rev151123.SfcOfTableOffsets;
+import org.opendaylight.yang.gen.v1.urn.ericsson.params.xml.ns.yang.sfc.of.renderer.rev151123.sfc.of.table.offsets.SfcOfTablesByBaseTable;
+import org.opendaylight.yang.gen.v1.urn.ericsson.params.xml.ns.yang.sfc.of.renderer.rev151123.sfc.of.table.offsets.SfcOfTablesByBaseTableKey;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.FlowCapableNode;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.tables.Table;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.tables.TableKey;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.tables.table.Flow;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.statistics.rev130819.FlowStatisticsData;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.NodeId;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.Nodes;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.nodes.Node;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.nodes.NodeKey;
+import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Caches the OpenFlow data read by the statistics readers, so collecting the
+ * statistics of many RSPs does not read the switches once per RSP.
+ *
+ * <p>
+ * The table offsets are cached per SFF until they are written again or the
+ * OpenFlow renderer configuration changes, offsets that do not exist are not
+ * cached. The flows of
+ * a switch are read in one go into a snapshot, either the flows of a table
+ * indexed by flow name, or the statistics of all the SFC flows of the switch
+ * summed by the path id and by the SFC table of their cookie. The snapshots are kept for a short
+ * time, the flow statistics of the operational data store being themselves
+ * polled from the switches.
+ *
+ * <p>
+ * Entries belong to the data broker they were read from, all the entries are
+ * cleared when it changes, and nothing is cached without one.
+ */
+public final class SfcOpenFlowStatisticsCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SfcOpenFlowStatisticsCache.class);
+
+    public static final long SNAPSHOT_TTL_MILLIS = 1000;
+
+    private static final Cache<SffName, SfcOfTablesByBaseTable> TABLE_OFFSETS = CacheBuilder.newBuilder().build();
+
+    // table -> flow name -> statistics
+    private static final Cache<InstanceIdentifier<Table>, Map<String, FlowStatisticsData>> TABLE_SNAPSHOTS =
+            CacheBuilder.newBuilder().expireAfterWrite(SNAPSHOT_TTL_MILLIS, TimeUnit.MILLISECONDS).build();
+
+    // switch -> statistics of the SFC flows by path id and by table
+    private static final Cache<InstanceIdentifier<FlowCapableNode>, NodeFlowStatistics> NODE_SNAPSHOTS =
+            CacheBuilder.newBuilder().expireAfterWrite(SNAPSHOT_TTL_MILLIS, TimeUnit.MILLISECONDS).build();
+
+    private static final Object LOCK = new Object();
+
+    /* Guarded by LOCK */
+    private static long generation = 0;
+    private static Object owner = null;
+
+    private SfcOpenFlowStatisticsCache() {
+    }
+
+    /**
+     * Get the table offsets of an SFF, reading them from the operational data
+     * store if they are not cached.
+     *
+     * @param sffName
+     *            the SFF name
+     * @return the table offsets, null if they do not exist
+     */
+    public static SfcOfTablesByBaseTable getTableOffsets(SffName sffName) {
+        InstanceIdentifier<SfcOfTablesByBaseTable> iid = InstanceIdentifier.create(SfcOfTableOffsets.class)
+                .child(SfcOfTablesByBaseTable.class, new SfcOfTablesByBaseTableKey(sffName));
+
+        long loadGeneration;
+        synchronized (LOCK) {
+            if (!checkOwner()) {
+                return SfcDataStoreAPI.readTransactionAPI(iid, LogicalDatastoreType.OPERATIONAL);
+            }
+            SfcOfTablesByBaseTable tableOffsets = TABLE_OFFSETS.getIfPresent(sffName);
+            if (tableOffsets != null) {
+                return tableOffsets;
+            }
+            loadGeneration = generation;
+        }
+
+        SfcOfTablesByBaseTable tableOffsets = SfcDataStoreAPI.readTransactionAPI(iid,
+                LogicalDatastoreType.OPERATIONAL);
+        if (tableOffsets != null) {
+            synchronized (LOCK) {
+                // Do not cache offsets read before an invalidation
+                if (generation == loadGeneration) {
+                    TABLE_OFFSETS.put(sffName, tableOffsets);
+                }
+            }
+        }
+        return tableOffsets;
+    }
+
+    /**
+     * Get the statistics of the flows of a table, by flow name. Flows without
+     * statistics are left out.
+     *
+     * @param nodeId
+     *            the switch
+     * @param tableId
+     *            the table
+     * @return the statistics by flow name, empty if the table does not exist
+     */
+    public static Map<String, FlowStatisticsData> getTableFlowStatistics(NodeId nodeId, short tableId) {
+        InstanceIdentifier<Table> iid = InstanceIdentifier.builder(Nodes.class)
+                .child(Node.class, new NodeKey(nodeId))
+                .augmentation(FlowCapableNode.class)
+                .child(Table.class, new TableKey(tableId)).build();
+
+        return getSnapshot(TABLE_SNAPSHOTS, iid, () -> {
+            Table table = SfcDataStoreAPI.readTransactionAPI(iid, LogicalDatastoreType.OPERATIONAL);
+            return indexTableFlows(table);
+        }, Collections.emptyMap());
+    }
+
+    /**
+     * Get the statistics of the SFC flows of a switch, summed by the path id
+     * and by the SFC table of their cookie.
+     *
+     * @param nodeId
+     *            the switch
+     * @return the statistics of the switch, empty if the switch has no flows
+     */
+    public static NodeFlowStatistics getNodeFlowStatistics(NodeId nodeId) {
+        InstanceIdentifier<FlowCapableNode> iid = InstanceIdentifier.builder(Nodes.class)
+                .child(Node.class, new NodeKey(nodeId))
+                .augmentation(FlowCapableNode.class).build();
+
+        return getSnapshot(NODE_SNAPSHOTS, iid, () -> {
+            FlowCapableNode flowCapableNode = SfcDataStoreAPI.readTransactionAPI(iid,
+                    LogicalDatastoreType.OPERATIONAL);
+            return new NodeFlowStatistics(flowCapableNode);
+        }, NodeFlowStatistics.EMPTY);
+    }
+
+    /**
+     * Invalidate the table offsets of an SFF.
+     *
+     * @param sffName
+     *            the SFF name
+     */
+    public static void invalidateTableOffsets(SffName sffName) {
+        synchronized (LOCK) {
+            generation++;
+            TABLE_OFFSETS.invalidate(sffName);
+        }
+    }
+
+    /**
+     * Invalidate the table offsets of all the SFFs.
+     */
+    public static void invalidateTableOffsets() {
+        synchronized (LOCK) {
+            generation++;
+            TABLE_OFFSETS.invalidateAll();
+        }
+    }
+
+    /**
+     * Invalidate the flow snapshots of all the switches, so the next
+     * statistics are read from the data store.
+     */
+    public static void invalidateFlowSnapshots() {
+        TABLE_SNAPSHOTS.invalidateAll();
+        NODE_SNAPSHOTS.invalidateAll();
+    }
+
+    // Returns false when there is no data broker to cache the data of
+    private static boolean checkOwner() {
+        Object dataOwner = SfcDataStoreAPI.getDataProvider();
+        if (dataOwner == null) {
+            return false;
+        }
+        if (owner != dataOwner) {
+            TABLE_OFFSETS.invalidateAll();
+            invalidateFlowSnapshots();
+            owner = dataOwner;
+            generation++;
+        }
+        return true;
+    }
+
+    private static <I extends InstanceIdentifier<?>, V> V getSnapshot(Cache<I, V> snapshots, I iid,
+            Supplier<V> loader, V empty) {
+        synchronized (LOCK) {
+            if (!checkOwner()) {
+                return loader.get();
+            }
+        }
+
+        // Concurrent readers of the same switch wait for a single read
+        try {
+            return snapshots.get(iid, loader::get);
+        } catch (ExecutionException e) {
+            LOG.warn("getSnapshot failed reading [{}]", iid, e);
+            return empty;
+        }
+    }
+
+    private static Map<String, FlowStatisticsData> indexTableFlows(Table table) {
+        if (table == null || table.getFlow() == null) {
+            return Collections.emptyMap();
+        }
+
+        Map<String, FlowStatisticsData> flowStats = new HashMap<>();
+        for (Flow flow : table.getFlow()) {
+            FlowStatisticsData flowStatsData = flow.augmentation(FlowStatisticsData.class);
+            if (flowStatsData != null && flowStatsData.getFlowStatistics() != null && flow.getId() != null) {
+                flowStats.put(flow.getId().getValue(), flowStatsData);
+            }
+        }
+        LOG.debug("indexTableFlows table [{}] flows [{}] with statistics [{}]", table.getId(),
+                table.getFlow().size(), flowStats.size());
+        return flowStats;
+    }
+
+    /**
+     * The statistics of the SFC flows of a switch, summed by the path id and
+     * by the SFC table of their cookie. The SFF initialization flows, not
+     * belonging to any RSP, are left out of the table sums.
+     */
+    public static final class NodeFlowStatistics {
+        private static final NodeFlowStatistics EMPTY = new NodeFlowStatistics(null);
+
+        private final Map<Long, FlowStatisticsSum> pathStats = new HashMap<>();
+        private final Map<Short, FlowStatisticsSum> tableStats = new HashMap<>();
+
+        private NodeFlowStatistics(FlowCapableNode flowCapableNode) {
+            if (flowCapableNode == null || flowCapableNode.getTable() == null) {
+                return;
+            }
+            for (Table table : flowCapableNode.getTable()) {
+                if (table.getFlow() == null) {
+                    continue;
+                }
+                for (Flow flow : table.getFlow()) {
+                    add(flow);
+                }
+            }
+        }
+
+        private void add(Flow flow) {
+            FlowStatisticsData flowStatsData = flow.augmentation(FlowStatisticsData.class);
+            long cookie = SfcOpenflowCookie.getValue(flow.getCookie());
+            if (flowStatsData == null || flowStatsData.getFlowStatistics() == null
+                    || !SfcOpenflowCookie.isSfcCookie(cookie)) {
+                return;
+            }
+            long pathId = SfcOpenflowCookie.getPathId(cookie);
+            pathStats.computeIfAbsent(pathId, id -> new FlowStatisticsSum()).add(flowStatsData);
+            if (!SfcOpenflowCookie.isInitFlowCookie(cookie)) {
+                tableStats.computeIfAbsent(SfcOpenflowCookie.getTableIndex(cookie), index -> new FlowStatisticsSum())
+                        .add(flowStatsData);
+            }
+        }
+
+        /**
+         * Get the statistics of the flows of an RSP.
+         *
+         * @param pathId
+         *            the path id of the RSP
+         * @return the statistics, null if the RSP has no flows on the switch
+         */
+        public FlowStatisticsSum getPathStatistics(long pathId) {
+            return pathStats.get(pathId);
+        }
+
+        /**
+         * Get the statistics of the RSP flows of an SFC table.
+         *
+         * @param tableIndex
+         *            the index of the SFC table, independent of the table
+         *            offsets
+         * @return the statistics, null if the table has no RSP flows
+         */
+        public FlowStatisticsSum getTableStatistics(short tableIndex) {
+            return tableStats.get(tableIndex);
+        }
+    }
+
+    /**
+     * The summed statistics of a set of flows.
+     */
+    public static final class FlowStatisticsSum {
+        private BigInteger byteCount = BigInteger.ZERO;
+        private BigInteger packetCount = BigInteger.ZERO;
+        private int flowCount;
+
+        private void add(FlowStatisticsData flowStatsData) {
+            byteCount = byteCount.add(flowStatsData.getFlowStatistics().getByteCount().getValue());
+            packetCount = packetCount.add(flowStatsData.getFlowStatistics().getPacketCount().getValue());
+            flowCount++;
+        }
+
+        public BigInteger getByteCount() {
+            return byteCount;
+        }
+
+        public BigInteger getPacketCount() {
+            return packetCount;
+        }
+
+        public int getFlowCount() {
+            return flowCount;
+        }
+    }
+}
@@ -8,32 +8,21 @@
 
 package org.opendaylight.sfc.statistics.readers;
 
+import java.math.BigInteger;
+import java.util.Map;
 import java.util.Optional;
 import java.util.StringJoiner;
 
-import org.opendaylight.controller.md.sal.common.api.data.LogicalDatastoreType;
-import org.opendaylight.sfc.provider.api.SfcDataStoreAPI;
+import org.opendaylight.sfc.statistics.readers.SfcOpenFlowStatisticsCache.FlowStatisticsSum;
 import org.opendaylight.sfc.util.openflow.OpenflowConstants;
 import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sff.ovs.rev140701.SffOvsBridgeAugmentation;
 import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sff.rev140701.service.function.forwarders.ServiceFunctionForwarder;
 import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.ss.rev140701.statistic.fields.ServiceStatistic;
 import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.ss.rev140701.statistic.fields.ServiceStatisticBuilder;
-import org.opendaylight.yang.gen.v1.urn.ericsson.params.xml.ns.yang.sfc.of.renderer.rev151123.SfcOfTableOffsets;
 import org.opendaylight.yang.gen.v1.urn.ericsson.params.xml.ns.yang.sfc.of.renderer.rev151123.sfc.of.table.offsets.SfcOfTablesByBaseTable;
-import org.opendaylight.yang.gen.v1.urn.ericsson.params.xml.ns.yang.sfc.of.renderer.rev151123.sfc.of.table.offsets.SfcOfTablesByBaseTableKey;
 import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.yang.types.rev130715.ZeroBasedCounter64;
-import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.FlowCapableNode;
-import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.FlowId;
-import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.tables.Table;
-import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.tables.TableKey;
-import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.tables.table.Flow;
-import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.tables.table.FlowKey;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.statistics.rev130819.FlowStatisticsData;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.NodeId;
-import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.Nodes;
-import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.nodes.Node;
-import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.nodes.NodeKey;
-import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -43,15 +32,16 @@ public class SfcOpenFlowStatisticsReader extends SfcStatisticsReaderBase {
 
     public SfcOpenFlowStatisticsReader(ServiceFunctionForwarder sff) {
         // Get the table offsets for the SFF
-        InstanceIdentifier<SfcOfTablesByBaseTable> iid = InstanceIdentifier.create(SfcOfTableOffsets.class)
-                .child(SfcOfTablesByBaseTable.class, new SfcOfTablesByBaseTableKey(sff.getName()));
-
-        this.sfcOfTableOffsets = SfcDataStoreAPI.readTransactionAPI(iid, LogicalDatastoreType.OPERATIONAL);
+        this.sfcOfTableOffsets = SfcOpenFlowStatisticsCache.getTableOffsets(sff.getName());
         if (this.sfcOfTableOffsets == null) {
             throw new IllegalArgumentException("No OfTableOffsets exist for SFF: " + sff.getName().getValue());
         }
     }
 
+    /**
+     * Get the statistics of the NextHop flow of an RSP hop, from the snapshot
+     * of the NextHop table of the SFF switch shared by all its RSPs.
+     */
     @Override
     public Optional<ServiceStatistic>
         getNextHopStatistics(boolean inputStats, ServiceFunctionForwarder sff, long nsp, short nsi) {
@@ -61,23 +51,11 @@ public class SfcOpenFlowStatisticsReader extends SfcStatisticsReaderBase {
         }
 
         String flowName = getNextHopFlowName(nsp, nsi);
-        FlowKey flowKey = new FlowKey(new FlowId(flowName));
-
-        InstanceIdentifier<Flow> iidFlow = InstanceIdentifier.builder(Nodes.class)
-                .child(Node.class, new NodeKey(nodeId.get()))
-                .augmentation(FlowCapableNode.class)
-                .child(Table.class, new TableKey(this.sfcOfTableOffsets.getNextHopTable().shortValue()))
-                .child(Flow.class, flowKey).build();
-        Flow flow = SfcDataStoreAPI.readTransactionAPI(iidFlow, LogicalDatastoreType.OPERATIONAL);
-        if (flow == null) {
-            LOG.warn("getSffNextHopStats flow null for flowName [{}]", flowName);
-            return Optional.empty();
-        }
-
-        FlowStatisticsData flowStatsData = flow.augmentation(FlowStatisticsData.class);
+        Map<String, FlowStatisticsData> tableFlowStats = SfcOpenFlowStatisticsCache.getTableFlowStatistics(
+                nodeId.get(), this.sfcOfTableOffsets.getNextHopTable().shortValue());
+        FlowStatisticsData flowStatsData = tableFlowStats.get(flowName);
         if (flowStatsData == null) {
-            LOG.warn("getSffNextHopStats flowStatsData null for nsp [{}] nsi [{}]",
-                    nsp, nsi);
+            LOG.warn("getSffNextHopStats no flow statistics for flowName [{}]", flowName);
             return Optional.empty();
         }
 
@@ -88,32 +66,93 @@ public class SfcOpenFlowStatisticsReader extends SfcStatisticsReaderBase {
         return Optional.of(getStats(inputStats, flowStatsData));
     }
 
+    /**
+     * Sum the statistics of all the flows of an RSP on an SFF, selecting them
+     * by the path id in their cookie, whatever their table.
+     */
+    @Override
+    public Optional<ServiceStatistic>
+        getRspStatistics(boolean inputStats, ServiceFunctionForwarder sff, long nsp, short nsi) {
+        Optional<NodeId> nodeId = getSffNodeId(sff, nsp, nsi);
+        if (! nodeId.isPresent()) {
+            return Optional.empty();
+        }
+
+        FlowStatisticsSum rspFlowStats = SfcOpenFlowStatisticsCache.getNodeFlowStatistics(nodeId.get())
+                .getPathStatistics(nsp);
+        if (rspFlowStats == null) {
+            LOG.warn("getRspStatistics no flow statistics for nsp [{}] on node [{}]", nsp, nodeId.get().getValue());
+            return Optional.empty();
+        }
+
+        LOG.debug("Stats nsp [{}] flows [{}] bytes [{}] packets [{}]", nsp, rspFlowStats.getFlowCount(),
+                rspFlowStats.getByteCount(), rspFlowStats.getPacketCount());
+
+        return Optional.of(getStats(inputStats, rspFlowStats.getByteCount(), rspFlowStats.getPacketCount()));
+    }
+
+    /**
+     * Sum the statistics of the transport ingress flows of all the RSPs on an
+     * SFF, counting the SFC packets received by the SFF.
+     */
     @Override
     public Optional<ServiceStatistic> getTransportIngressStatistics(ServiceFunctionForwarder sff) {
-        // Not implemented yet
-        return Optional.empty();
+        return getTableStatistics(true, sff, OpenflowConstants.TABLE_INDEX_TRANSPORT_INGRESS);
     }
 
+    /**
+     * Sum the statistics of the transport egress flows of all the RSPs on an
+     * SFF, counting the SFC packets sent by the SFF.
+     */
     @Override
     public Optional<ServiceStatistic> getTransportEgressStatistics(ServiceFunctionForwarder sff) {
-        // Not implemented yet
-        return Optional.empty();
+        return getTableStatistics(false, sff, OpenflowConstants.TABLE_INDEX_TRANSPORT_EGRESS);
+    }
+
+    private Optional<ServiceStatistic> getTableStatistics(boolean inputStats, ServiceFunctionForwarder sff,
+            short tableIndex) {
+        Optional<NodeId> nodeId = getSffNodeId(sff);
+        if (! nodeId.isPresent()) {
+            return Optional.empty();
+        }
+
+        FlowStatisticsSum tableFlowStats = SfcOpenFlowStatisticsCache.getNodeFlowStatistics(nodeId.get())
+                .getTableStatistics(tableIndex);
+        if (tableFlowStats == null) {
+            LOG.debug("getTableStatistics no flow statistics for table [{}] on node [{}]", tableIndex,
+                    nodeId.get().getValue());
+            return Optional.empty();
+        }
+
+        LOG.debug("Stats table [{}] flows [{}] bytes [{}] packets [{}]", tableIndex, tableFlowStats.getFlowCount(),
+                tableFlowStats.getByteCount(), tableFlowStats.getPacketCount());
+
+        return Optional.of(getStats(inputStats, tableFlowStats.getByteCount(), tableFlowStats.getPacketCount()));
     }
 
     private ServiceStatistic getStats(boolean inputStats, FlowStatisticsData flowStatsData) {
+        return getStats(inputStats, flowStatsData.getFlowStatistics().getByteCount().getValue(),
+                flowStatsData.getFlowStatistics().getPacketCount().getValue());
+    }
+
+    private ServiceStatistic getStats(boolean inputStats, BigInteger byteCount, BigInteger packetCount) {
         ServiceStatisticBuilder srvStatsBuilder = new ServiceStatisticBuilder();
         if (inputStats) {
-            srvStatsBuilder.setBytesIn(new ZeroBasedCounter64(flowStatsData.getFlowStatistics().getByteCount()));
-            srvStatsBuilder.setPacketsIn(new ZeroBasedCounter64(flowStatsData.getFlowStatistics().getPacketCount()));
+            srvStatsBuilder.setBytesIn(new ZeroBasedCounter64(byteCount));
+            srvStatsBuilder.setPacketsIn(new ZeroBasedCounter64(packetCount));
         } else {
-            srvStatsBuilder.setBytesOut(new ZeroBasedCounter64(flowStatsData.getFlowStatistics().getByteCount()));
-            srvStatsBuilder.setPacketsOut(new ZeroBasedCounter64(flowStatsData.getFlowStatistics().getPacketCount()));
+            srvStatsBuilder.setBytesOut(new ZeroBasedCounter64(byteCount));
+            srvStatsBuilder.setPacketsOut(new ZeroBasedCounter64(packetCount));
         }
 
         return srvStatsBuilder.build();
     }
 
     protected Optional<NodeId> getSffNodeId(ServiceFunctionForwarder sff, long nsp, short nsi) {
+        return getSffNodeId(sff);
+    }
+
+    protected Optional<NodeId> getSffNodeId(ServiceFunctionForwarder sff) {
 
         SffOvsBridgeAugmentation sffOvsBridgeAugmentation = sff.augmentation(SffOvsBridgeAugmentation.class);
         if (sffOvsBridgeAugmentation == null) {
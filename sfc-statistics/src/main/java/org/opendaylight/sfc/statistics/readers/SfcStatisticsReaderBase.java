@@ -21,4 +21,10 @@ public abstract class SfcStatisticsReaderBase {
     public abstract Optional<ServiceStatistic> getTransportIngressStatistics(ServiceFunctionForwarder sff);
 
     public abstract Optional<ServiceStatistic> getTransportEgressStatistics(ServiceFunctionForwarder sff);
+
+    // Statistics of all the flows of an RSP on an SFF, when the SFF can tell them apart
+    public Optional<ServiceStatistic>
+        getRspStatistics(boolean inputStats, ServiceFunctionForwarder sff, long nsp, short nsi) {
+        return Optional.empty();
+    }
 }
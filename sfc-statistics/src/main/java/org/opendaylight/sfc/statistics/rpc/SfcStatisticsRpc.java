@@ -11,33 +11,37 @@ package org.opendaylight.sfc.statistics.rpc;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
-import org.opendaylight.controller.md.sal.common.api.data.LogicalDatastoreType;
-import org.opendaylight.sfc.provider.api.SfcDataStoreAPI;
+import java.util.function.Function;
 import org.opendaylight.sfc.provider.api.SfcProviderRenderedPathAPI;
 import org.opendaylight.sfc.provider.api.SfcProviderServiceForwarderAPI;
-import org.opendaylight.sfc.statistics.SfcStatisticsFactory;
-import org.opendaylight.sfc.statistics.handlers.SfcStatisticsHandlerBase;
+import org.opendaylight.sfc.provider.api.SfcProviderServiceFunctionAPI;
+import org.opendaylight.sfc.statistics.collector.RspStatisticsCollector;
+import org.opendaylight.sfc.statistics.collector.RspStatisticsHistory;
 import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.common.rev151017.RspName;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.common.rev151017.SfName;
 import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.common.rev151017.SffName;
-import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.rsp.rev140701.RenderedServicePaths;
 import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.rsp.rev140701.rendered.service.paths.RenderedServicePath;
-import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.rsp.rev140701.rendered.service.paths.rendered.service.path.RenderedServicePathHop;
-import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sff.rev140701.service.function.forwarders.ServiceFunctionForwarder;
 import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.ss.rev140701.service.statistics.group.StatisticByTimestamp;
+import org.opendaylight.yang.gen.v1.urn.inocybe.params.xml.ns.yang.sfc.stats.ops.rev171215.GetRspStatisticsHistoryInput;
+import org.opendaylight.yang.gen.v1.urn.inocybe.params.xml.ns.yang.sfc.stats.ops.rev171215.GetRspStatisticsHistoryOutput;
+import org.opendaylight.yang.gen.v1.urn.inocybe.params.xml.ns.yang.sfc.stats.ops.rev171215.GetRspStatisticsHistoryOutputBuilder;
 import org.opendaylight.yang.gen.v1.urn.inocybe.params.xml.ns.yang.sfc.stats.ops.rev171215.GetRspStatisticsInput;
 import org.opendaylight.yang.gen.v1.urn.inocybe.params.xml.ns.yang.sfc.stats.ops.rev171215.GetRspStatisticsOutput;
 import org.opendaylight.yang.gen.v1.urn.inocybe.params.xml.ns.yang.sfc.stats.ops.rev171215.GetRspStatisticsOutputBuilder;
 import org.opendaylight.yang.gen.v1.urn.inocybe.params.xml.ns.yang.sfc.stats.ops.rev171215.GetSfStatisticsInput;
 import org.opendaylight.yang.gen.v1.urn.inocybe.params.xml.ns.yang.sfc.stats.ops.rev171215.GetSfStatisticsOutput;
+import org.opendaylight.yang.gen.v1.urn.inocybe.params.xml.ns.yang.sfc.stats.ops.rev171215.GetSfStatisticsOutputBuilder;
 import org.opendaylight.yang.gen.v1.urn.inocybe.params.xml.ns.yang.sfc.stats.ops.rev171215.GetSffStatisticsInput;
 import org.opendaylight.yang.gen.v1.urn.inocybe.params.xml.ns.yang.sfc.stats.ops.rev171215.GetSffStatisticsOutput;
+import org.opendaylight.yang.gen.v1.urn.inocybe.params.xml.ns.yang.sfc.stats.ops.rev171215.GetSffStatisticsOutputBuilder;
 import org.opendaylight.yang.gen.v1.urn.inocybe.params.xml.ns.yang.sfc.stats.ops.rev171215.SfcStatisticsOperationsService;
 import org.opendaylight.yang.gen.v1.urn.inocybe.params.xml.ns.yang.sfc.stats.ops.rev171215.get.rsp.statistics.output.Statistics;
 import org.opendaylight.yang.gen.v1.urn.inocybe.params.xml.ns.yang.sfc.stats.ops.rev171215.get.rsp.statistics.output.StatisticsBuilder;
-import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
+import org.opendaylight.yang.gen.v1.urn.inocybe.params.xml.ns.yang.sfc.stats.ops.rev171215.statistic.rates.group.StatisticRates;
 import org.opendaylight.yangtools.yang.common.RpcError;
 import org.opendaylight.yangtools.yang.common.RpcResult;
 import org.opendaylight.yangtools.yang.common.RpcResultBuilder;
@@ -48,48 +52,49 @@ public class SfcStatisticsRpc implements SfcStatisticsOperationsService {
 
     private static final Logger LOG = LoggerFactory.getLogger(SfcStatisticsRpc.class);
 
+    private final RspStatisticsCollector rspStatsCollector;
+
+    // Without a started collector, the statistics are collected when requested
+    public SfcStatisticsRpc() {
+        this(new RspStatisticsCollector());
+    }
+
+    public SfcStatisticsRpc(RspStatisticsCollector rspStatsCollector) {
+        this.rspStatsCollector = rspStatsCollector;
+    }
+
+    /**
+     * Get the latest statistics of an RSP, or of all the RSPs when no name is
+     * given, from the samples of the collector. An RSP not collected yet is
+     * collected on demand.
+     */
     @Override
     public ListenableFuture<RpcResult<GetRspStatisticsOutput>> getRspStatistics(GetRspStatisticsInput input) {
-        List<RenderedServicePath> rspList;
+        Collection<String> rspNames;
 
         if (input.getName() == null) {
             // If the name is not present, then return the stats for ALL RSPs
-            rspList = getAllRenderedServicePaths();
+            if (!rspStatsCollector.isPolled()) {
+                rspStatsCollector.collectAll();
+            }
+            rspNames = rspStatsCollector.getRspNames();
         } else {
-            RenderedServicePath rsp = SfcProviderRenderedPathAPI.readRenderedServicePath(new RspName(input.getName()));
-            if (rsp == null) {
-                return RpcResultBuilder.<GetRspStatisticsOutput>failed().withError(
-                                RpcError.ErrorType.APPLICATION, "RSP does not exist.").buildFuture();
+            if (!rspStatsCollector.getHistory(input.getName()).isPresent()) {
+                RenderedServicePath rsp = SfcProviderRenderedPathAPI.readRenderedServicePath(
+                        new RspName(input.getName()));
+                if (rsp == null) {
+                    return RpcResultBuilder.<GetRspStatisticsOutput>failed().withError(
+                                    RpcError.ErrorType.APPLICATION, "RSP does not exist.").buildFuture();
+                }
+                rspStatsCollector.collect(rsp);
             }
 
-            rspList = Collections.singletonList(rsp);
+            rspNames = Collections.singletonList(input.getName());
         }
 
-        List<Statistics> statsList = new ArrayList<>();
-        for (RenderedServicePath rsp : rspList) {
-            Optional<ServiceFunctionForwarder> sff = getFirstSffFromRsp(rsp);
-            if (!sff.isPresent()) {
-                LOG.warn("There are no SFFs on this RSP [{}]", rsp.getName().getValue());
-                continue;
-            }
-
-            SfcStatisticsHandlerBase rspStatsHandler = SfcStatisticsFactory.getRspHandler(rsp, sff.get());
-            if (rspStatsHandler == null) {
-                LOG.warn("Unable to get RspHandler for SFF [{}]", sff.get().getName().getValue());
-                continue;
-            }
-
-            List<StatisticByTimestamp> rspStatsList = rspStatsHandler.getStatistics(rsp);
-            if (rspStatsList.isEmpty()) {
-                LOG.warn("No statistics available for RSP [{}]", rsp.getName().getValue());
-                continue;
-            }
-
-            StatisticsBuilder statsBuilder = new StatisticsBuilder();
-            statsBuilder.setName(rsp.getName().getValue());
-            statsBuilder.setStatisticByTimestamp(rspStatsList);
-            statsList.add(statsBuilder.build());
-        }
+        List<Statistics> statsList = buildLatestStatistics("RSP", rspNames, rspStatsCollector::getHistory,
+                (name, statisticByTimestamp, rates) -> new StatisticsBuilder().setName(name)
+                        .setStatisticByTimestamp(statisticByTimestamp).setStatisticRates(rates).build());
 
         // No stats were collected
         if (statsList.isEmpty()) {
@@ -105,55 +110,143 @@ public class SfcStatisticsRpc implements SfcStatisticsOperationsService {
     }
 
     @Override
-    public ListenableFuture<RpcResult<GetSffStatisticsOutput>> getSffStatistics(GetSffStatisticsInput input) {
-        return RpcResultBuilder.<GetSffStatisticsOutput>failed().withError(
-                        RpcError.ErrorType.APPLICATION, "SFF statistics is not implemented yet.").buildFuture();
+    public ListenableFuture<RpcResult<GetRspStatisticsHistoryOutput>> getRspStatisticsHistory(
+            GetRspStatisticsHistoryInput input) {
+        Optional<RspStatisticsHistory> history = input.getName() == null
+                ? Optional.empty()
+                : rspStatsCollector.getHistory(input.getName());
+        if (!history.isPresent()) {
+            return RpcResultBuilder.<GetRspStatisticsHistoryOutput>failed().withError(
+                    RpcError.ErrorType.APPLICATION, "No statistics collected for the RSP.").buildFuture();
+        }
+
+        long startTime = input.getStartTime() == null ? 0 : input.getStartTime().longValue();
+        long endTime = input.getEndTime() == null ? Long.MAX_VALUE : input.getEndTime().longValue();
+
+        GetRspStatisticsHistoryOutputBuilder output = new GetRspStatisticsHistoryOutputBuilder();
+        output.setStatistics(Collections.singletonList(
+                new org.opendaylight.yang.gen.v1.urn.inocybe.params.xml.ns.yang.sfc.stats.ops.rev171215.get.rsp
+                        .statistics.history.output.StatisticsBuilder()
+                        .setName(input.getName())
+                        .setStatisticByTimestamp(history.get().getRange(startTime, endTime))
+                        .build()));
+
+        return RpcResultBuilder.success(output).buildFuture();
     }
 
+    /**
+     * Get the latest statistics of an SFF, or of all the SFFs of the RSPs when
+     * no name is given, from the samples of the collector.
+     */
     @Override
-    public ListenableFuture<RpcResult<GetSfStatisticsOutput>> getSfStatistics(GetSfStatisticsInput input) {
-        return RpcResultBuilder.<GetSfStatisticsOutput>failed().withError(
-                        RpcError.ErrorType.APPLICATION, "SF statistics is not implemented yet.").buildFuture();
-    }
+    public ListenableFuture<RpcResult<GetSffStatisticsOutput>> getSffStatistics(GetSffStatisticsInput input) {
+        if (input.getName() != null
+                && SfcProviderServiceForwarderAPI.readServiceFunctionForwarder(new SffName(input.getName())) == null) {
+            return RpcResultBuilder.<GetSffStatisticsOutput>failed().withError(
+                    RpcError.ErrorType.APPLICATION, "SFF does not exist.").buildFuture();
+        }
+
+        // The SFF statistics are only collected with all the RSPs
+        if (!rspStatsCollector.isPolled()) {
+            rspStatsCollector.collectAll();
+        }
+
+        Collection<String> sffNames = input.getName() == null
+                ? rspStatsCollector.getSffNames()
+                : Collections.singletonList(input.getName());
 
-    private List<RenderedServicePath> getAllRenderedServicePaths() {
-        RenderedServicePaths rsps = SfcDataStoreAPI.readTransactionAPI(InstanceIdentifier.create(
-                RenderedServicePaths.class), LogicalDatastoreType.OPERATIONAL);
+        List<org.opendaylight.yang.gen.v1.urn.inocybe.params.xml.ns.yang.sfc.stats.ops.rev171215.get.sff.statistics
+                .output.Statistics> statsList = buildLatestStatistics("SFF", sffNames,
+                    rspStatsCollector::getSffHistory, (name, statisticByTimestamp, rates) -> new org.opendaylight
+                            .yang.gen.v1.urn.inocybe.params.xml.ns.yang.sfc.stats.ops.rev171215.get.sff.statistics
+                            .output.StatisticsBuilder().setName(name).setStatisticByTimestamp(statisticByTimestamp)
+                            .setStatisticRates(rates).build());
 
-        if (rsps == null) {
-            LOG.warn("No RSPs exist");
-            return Collections.emptyList();
+        if (statsList.isEmpty()) {
+            return RpcResultBuilder.<GetSffStatisticsOutput>failed().withError(
+                    RpcError.ErrorType.APPLICATION, "No SFF statistics available.").buildFuture();
         }
 
-        List<RenderedServicePath> rspList = rsps.getRenderedServicePath();
-        return rspList == null
-                ? Collections.emptyList()
-                : rspList;
+        GetSffStatisticsOutputBuilder output = new GetSffStatisticsOutputBuilder();
+        output.setStatistics(statsList);
+
+        return RpcResultBuilder.success(output).buildFuture();
     }
 
-    private Optional<ServiceFunctionForwarder> getFirstSffFromRsp(RenderedServicePath rsp) {
-        List<RenderedServicePathHop> rspHopList = rsp.getRenderedServicePathHop();
-        if (rspHopList == null) {
-            return Optional.empty();
+    /**
+     * Get the latest statistics of an SF, or of all the SFs of the RSPs when
+     * no name is given, from the samples of the collector. The statistics of
+     * an SF are summed over all its RSPs.
+     */
+    @Override
+    public ListenableFuture<RpcResult<GetSfStatisticsOutput>> getSfStatistics(GetSfStatisticsInput input) {
+        if (input.getName() != null
+                && SfcProviderServiceFunctionAPI.readServiceFunction(new SfName(input.getName())) == null) {
+            return RpcResultBuilder.<GetSfStatisticsOutput>failed().withError(
+                    RpcError.ErrorType.APPLICATION, "SF does not exist.").buildFuture();
         }
 
-        if (rspHopList.isEmpty()) {
-            return Optional.empty();
+        // The SF statistics are only collected with all the RSPs
+        if (!rspStatsCollector.isPolled()) {
+            rspStatsCollector.collectAll();
         }
 
-        RenderedServicePathHop firstHop = rspHopList.get(0);
-        if (firstHop == null) {
-            return Optional.empty();
-        }
+        Collection<String> sfNames = input.getName() == null
+                ? rspStatsCollector.getSfNames()
+                : Collections.singletonList(input.getName());
 
-        SffName sffName = firstHop.getServiceFunctionForwarder();
-        if (sffName == null) {
-            return Optional.empty();
+        List<org.opendaylight.yang.gen.v1.urn.inocybe.params.xml.ns.yang.sfc.stats.ops.rev171215.get.sf.statistics
+                .output.Statistics> statsList = buildLatestStatistics("SF", sfNames,
+                    rspStatsCollector::getSfHistory, (name, statisticByTimestamp, rates) -> new org.opendaylight
+                            .yang.gen.v1.urn.inocybe.params.xml.ns.yang.sfc.stats.ops.rev171215.get.sf.statistics
+                            .output.StatisticsBuilder().setName(name).setStatisticByTimestamp(statisticByTimestamp)
+                            .setStatisticRates(rates).build());
+
+        if (statsList.isEmpty()) {
+            return RpcResultBuilder.<GetSfStatisticsOutput>failed().withError(
+                    RpcError.ErrorType.APPLICATION, "No SF statistics available.").buildFuture();
         }
 
-        ServiceFunctionForwarder sff =
-                SfcProviderServiceForwarderAPI.readServiceFunctionForwarder(sffName);
+        GetSfStatisticsOutputBuilder output = new GetSfStatisticsOutputBuilder();
+        output.setStatistics(statsList);
+
+        return RpcResultBuilder.success(output).buildFuture();
+    }
+
+    /**
+     * Build the output statistics of a number of RSPs, SFFs or SFs from the
+     * latest sample of their history. Those not sampled yet are skipped.
+     *
+     * @param kind
+     *            the kind of element, for logging
+     * @param names
+     *            the names of the elements
+     * @param histories
+     *            gets the statistics history of an element by name
+     * @param factory
+     *            builds the output statistics of an element
+     * @return the output statistics
+     */
+    private static <T> List<T> buildLatestStatistics(String kind, Collection<String> names,
+            Function<String, Optional<RspStatisticsHistory>> histories, StatisticsFactory<T> factory) {
+        List<T> statsList = new ArrayList<>();
+        for (String name : names) {
+            Optional<RspStatisticsHistory> history = histories.apply(name);
+            Optional<StatisticByTimestamp> latest = history.flatMap(RspStatisticsHistory::getLatest);
+            if (!latest.isPresent()) {
+                LOG.warn("No statistics available for {} [{}]", kind, name);
+                continue;
+            }
+
+            statsList.add(factory.build(name, Collections.singletonList(latest.get()),
+                    history.get().getRates().orElse(null)));
+        }
+        return statsList;
+    }
 
-        return Optional.ofNullable(sff);
+    // The output statistics of each RPC are of a distinct generated type
+    @FunctionalInterface
+    private interface StatisticsFactory<T> {
+        T build(String name, List<StatisticByTimestamp> statisticByTimestamp, StatisticRates rates);
     }
 }
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2018 Ericsson Inc. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.sfc.statistics.collector;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.List;
+import java.util.Optional;
+import org.junit.Test;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.ss.rev140701.service.statistics.group.StatisticByTimestamp;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.ss.rev140701.service.statistics.group.StatisticByTimestampBuilder;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.ss.rev140701.service.statistics.group.StatisticByTimestampKey;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.ss.rev140701.statistic.fields.ServiceStatisticBuilder;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.yang.types.rev130715.ZeroBasedCounter64;
+import org.opendaylight.yang.gen.v1.urn.inocybe.params.xml.ns.yang.sfc.stats.ops.rev171215.statistic.rates.group.StatisticRates;
+
+public class RspStatisticsHistoryTest {
+
+    @Test
+    public void ringBufferTest() {
+        RspStatisticsHistory history = new RspStatisticsHistory(3);
+        assertFalse(history.getLatest().isPresent());
+
+        for (int i = 1; i <= 5; i++) {
+            history.add(buildSample(i * 1000, i * 100, i * 10));
+        }
+
+        // only the last 3 samples are kept
+        assertEquals(3, history.size());
+        assertEquals(5000, history.getLatest().get().getTimestamp().longValue());
+        List<StatisticByTimestamp> range = history.getRange(0, Long.MAX_VALUE);
+        assertEquals(3, range.size());
+        assertEquals(3000, range.get(0).getTimestamp().longValue());
+
+        range = history.getRange(3500, 4000);
+        assertEquals(1, range.size());
+        assertEquals(4000, range.get(0).getTimestamp().longValue());
+
+        // an older sample is ignored, one with the same timestamp replaces the latest
+        history.add(buildSample(1000, 0, 0));
+        history.add(buildSample(5000, 600, 60));
+        assertEquals(3, history.size());
+        assertEquals(600, history.getLatest().get().getServiceStatistic().getBytesIn().getValue().longValue());
+    }
+
+    @Test
+    public void ratesTest() {
+        RspStatisticsHistory history = new RspStatisticsHistory(10);
+        history.add(buildSample(10000, 1000, 10));
+        assertFalse(history.getRates().isPresent());
+
+        history.add(buildSample(12000, 5000, 50));
+        Optional<StatisticRates> rates = history.getRates();
+        assertTrue(rates.isPresent());
+        assertEquals(0, new BigDecimal(2000).compareTo(rates.get().getBytesInRate()));
+        assertEquals(0, new BigDecimal(2000).compareTo(rates.get().getBytesOutRate()));
+        assertEquals(0, new BigDecimal(20).compareTo(rates.get().getPacketsInRate()));
+        assertEquals(0, new BigDecimal(20).compareTo(rates.get().getPacketsOutRate()));
+
+        // the counters were reset
+        history.add(buildSample(13000, 10, 1));
+        assertEquals(0, BigDecimal.ZERO.compareTo(history.getRates().get().getPacketsInRate()));
+    }
+
+    private static StatisticByTimestamp buildSample(long timestamp, long bytes, long packets) {
+        ServiceStatisticBuilder serviceStatistic = new ServiceStatisticBuilder()
+                .setBytesIn(new ZeroBasedCounter64(BigInteger.valueOf(bytes)))
+                .setBytesOut(new ZeroBasedCounter64(BigInteger.valueOf(bytes)))
+                .setPacketsIn(new ZeroBasedCounter64(BigInteger.valueOf(packets)))
+                .setPacketsOut(new ZeroBasedCounter64(BigInteger.valueOf(packets)));
+        return new StatisticByTimestampBuilder()
+                .withKey(new StatisticByTimestampKey(BigInteger.valueOf(timestamp)))
+                .setTimestamp(BigInteger.valueOf(timestamp))
+                .setServiceStatistic(serviceStatistic.build())
+                .build();
+    }
+}
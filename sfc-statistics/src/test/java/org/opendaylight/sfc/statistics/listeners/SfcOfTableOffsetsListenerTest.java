@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2018 Ericsson Inc. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.sfc.statistics.listeners;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.function.BooleanSupplier;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.opendaylight.controller.md.sal.common.api.data.LogicalDatastoreType;
+import org.opendaylight.sfc.provider.api.SfcDataStoreAPI;
+import org.opendaylight.sfc.statistics.readers.SfcOpenFlowStatisticsCache;
+import org.opendaylight.sfc.statistics.testutils.AbstractDataStoreManager;
+import org.opendaylight.sfc.statistics.testutils.SfcStatisticsTestUtils;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.common.rev151017.SffName;
+import org.opendaylight.yang.gen.v1.urn.ericsson.params.xml.ns.yang.sfc.of.renderer.rev151123.SfcOfRendererConfig;
+import org.opendaylight.yang.gen.v1.urn.ericsson.params.xml.ns.yang.sfc.of.renderer.rev151123.SfcOfRendererConfigBuilder;
+import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
+
+/**
+ * Checks that the table offsets cached by the statistics readers are
+ * invalidated through the registered listeners.
+ */
+public class SfcOfTableOffsetsListenerTest extends AbstractDataStoreManager {
+
+    private static final SffName SFF_NAME = SfcStatisticsTestUtils.SFF_NAMES.get(0);
+    private static final long TIMEOUT_MILLIS = 5000;
+
+    private SfcStatisticsTestUtils sfcStatsTestUtils;
+    private SfcOfTableOffsetsListener sfcOfTableOffsetsListener;
+    private SfcOfRendererConfigListener sfcOfRendererConfigListener;
+
+    @Before
+    public void setUp() {
+        setupSfc();
+        sfcStatsTestUtils = new SfcStatisticsTestUtils();
+        sfcOfTableOffsetsListener = new SfcOfTableOffsetsListener(dataBroker);
+        sfcOfTableOffsetsListener.register();
+        sfcOfRendererConfigListener = new SfcOfRendererConfigListener(dataBroker);
+        sfcOfRendererConfigListener.register();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        sfcOfTableOffsetsListener.close();
+        sfcOfRendererConfigListener.close();
+    }
+
+    @Test
+    public void tableOffsetsUpdated() {
+        sfcStatsTestUtils.setTableOffsets(SFF_NAME, 0);
+        assertEquals(4L, SfcOpenFlowStatisticsCache.getTableOffsets(SFF_NAME).getNextHopTable().longValue());
+
+        // The cached offsets are only replaced once the listener invalidated them
+        sfcStatsTestUtils.setTableOffsets(SFF_NAME, 20);
+        awaitTrue(() -> SfcOpenFlowStatisticsCache.getTableOffsets(SFF_NAME).getNextHopTable() == 24L);
+    }
+
+    @Test
+    public void rendererConfigUpdated() throws Exception {
+        sfcStatsTestUtils.setTableOffsets(SFF_NAME, 0);
+        assertEquals(4L, SfcOpenFlowStatisticsCache.getTableOffsets(SFF_NAME).getNextHopTable().longValue());
+
+        // Close the table offsets listener, only the renderer config
+        // listener is left to invalidate the cached offsets
+        sfcOfTableOffsetsListener.close();
+        sfcStatsTestUtils.setTableOffsets(SFF_NAME, 20);
+        SfcDataStoreAPI.writePutTransactionAPI(InstanceIdentifier.create(SfcOfRendererConfig.class),
+                new SfcOfRendererConfigBuilder().setSfcOfTableOffset((short) 20)
+                        .setSfcOfAppEgressTableOffset((short) 0).build(),
+                LogicalDatastoreType.CONFIGURATION);
+        awaitTrue(() -> SfcOpenFlowStatisticsCache.getTableOffsets(SFF_NAME).getNextHopTable() == 24L);
+    }
+
+    // The listeners are notified asynchronously
+    private static void awaitTrue(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("The cached table offsets were not invalidated");
+            }
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail("Interrupted");
+            }
+        }
+    }
+}
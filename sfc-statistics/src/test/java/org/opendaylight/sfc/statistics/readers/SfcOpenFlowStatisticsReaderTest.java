@@ -20,12 +20,16 @@ import java.util.Optional;
 import org.junit.Before;
 import org.junit.Test;
 
+import org.opendaylight.controller.md.sal.common.api.data.LogicalDatastoreType;
+import org.opendaylight.sfc.provider.api.SfcDataStoreAPI;
 import org.opendaylight.sfc.statistics.testutils.AbstractDataStoreManager;
 import org.opendaylight.sfc.statistics.testutils.SfcStatisticsTestUtils;
 import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.rsp.rev140701.rendered.service.paths.RenderedServicePath;
 import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.rsp.rev140701.rendered.service.paths.rendered.service.path.RenderedServicePathHop;
 import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sff.rev140701.service.function.forwarders.ServiceFunctionForwarder;
 import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.ss.rev140701.statistic.fields.ServiceStatistic;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.Nodes;
+import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
 
 
 public class SfcOpenFlowStatisticsReaderTest extends AbstractDataStoreManager {
@@ -81,6 +85,115 @@ public class SfcOpenFlowStatisticsReaderTest extends AbstractDataStoreManager {
                 sfcStatsTestUtils.STATS_COUNTER_BYTES, sfcStatsTestUtils.STATS_COUNTER_PACKETS);
     }
 
+    @Test
+    public void getRspStatisticsTest() {
+        List<RenderedServicePath> rspList = sfcStatsTestUtils.createOperationalRsps(1, false);
+        assertEquals(1, rspList.size());
+        RenderedServicePath rsp = rspList.get(0);
+
+        // All the hops of the RSP are on the same node, each with a NextHop flow
+        int hopCount = rsp.getRenderedServicePathHop().size();
+        ServiceFunctionForwarder sff = sfcStatsTestUtils.getSffFromRsp(rsp, 0);
+        SfcOpenFlowStatisticsReader sfcOpenFlowStatsReader = new SfcOpenFlowStatisticsReader(sff);
+        Optional<ServiceStatistic> stats =
+                sfcOpenFlowStatsReader.getRspStatistics(true, sff, rsp.getPathId(), rsp.getStartingIndex());
+        assertTrue(stats.isPresent());
+        sfcStatsTestUtils.checkStatistics(stats.get(), true,
+                sfcStatsTestUtils.STATS_COUNTER_BYTES * hopCount, sfcStatsTestUtils.STATS_COUNTER_PACKETS * hopCount);
+
+        // No flow has the cookie of another RSP
+        stats = sfcOpenFlowStatsReader.getRspStatistics(true, sff, rsp.getPathId() + 1, rsp.getStartingIndex());
+        assertFalse(stats.isPresent());
+    }
+
+    @Test
+    public void flowSnapshotTest() {
+        List<RenderedServicePath> rspList = sfcStatsTestUtils.createOperationalRsps(1, false);
+        assertEquals(1, rspList.size());
+        RenderedServicePath rsp = rspList.get(0);
+        ServiceFunctionForwarder sff = sfcStatsTestUtils.getSffFromRsp(rsp, 0);
+        SfcOpenFlowStatisticsReader sfcOpenFlowStatsReader = new SfcOpenFlowStatisticsReader(sff);
+        assertTrue(sfcOpenFlowStatsReader.getNextHopStatistics(
+                true, sff, rsp.getPathId(), rsp.getStartingIndex()).isPresent());
+        assertTrue(sfcOpenFlowStatsReader.getRspStatistics(
+                true, sff, rsp.getPathId(), rsp.getStartingIndex()).isPresent());
+
+        // The flows are served from the snapshots until they are invalidated
+        SfcDataStoreAPI.deleteTransactionAPI(InstanceIdentifier.create(Nodes.class), LogicalDatastoreType.OPERATIONAL);
+        assertTrue(sfcOpenFlowStatsReader.getNextHopStatistics(
+                true, sff, rsp.getPathId(), rsp.getStartingIndex()).isPresent());
+        assertTrue(sfcOpenFlowStatsReader.getRspStatistics(
+                true, sff, rsp.getPathId(), rsp.getStartingIndex()).isPresent());
+
+        SfcOpenFlowStatisticsCache.invalidateFlowSnapshots();
+        assertFalse(sfcOpenFlowStatsReader.getNextHopStatistics(
+                true, sff, rsp.getPathId(), rsp.getStartingIndex()).isPresent());
+        assertFalse(sfcOpenFlowStatsReader.getRspStatistics(
+                true, sff, rsp.getPathId(), rsp.getStartingIndex()).isPresent());
+    }
+
+    @Test
+    public void tableOffsetsCacheTest() {
+        List<RenderedServicePath> rspList = sfcStatsTestUtils.createOperationalRsps(1, false);
+        assertEquals(1, rspList.size());
+        RenderedServicePath rsp = rspList.get(0);
+        ServiceFunctionForwarder sff = sfcStatsTestUtils.getSffFromRsp(rsp, 0);
+        assertEquals(4L, SfcOpenFlowStatisticsCache.getTableOffsets(sff.getName()).getNextHopTable().longValue());
+
+        // The cached offsets are used until they are invalidated
+        sfcStatsTestUtils.setTableOffsets(sff.getName(), 20);
+        assertEquals(4L, SfcOpenFlowStatisticsCache.getTableOffsets(sff.getName()).getNextHopTable().longValue());
+        assertTrue(new SfcOpenFlowStatisticsReader(sff).getNextHopStatistics(
+                true, sff, rsp.getPathId(), rsp.getStartingIndex()).isPresent());
+
+        SfcOpenFlowStatisticsCache.invalidateTableOffsets(sff.getName());
+        assertEquals(24L, SfcOpenFlowStatisticsCache.getTableOffsets(sff.getName()).getNextHopTable().longValue());
+        // There are no flows in the new NextHop table
+        assertFalse(new SfcOpenFlowStatisticsReader(sff).getNextHopStatistics(
+                true, sff, rsp.getPathId(), rsp.getStartingIndex()).isPresent());
+    }
+
+    @Test
+    public void getTransportStatisticsTest() {
+        List<RenderedServicePath> rspList = sfcStatsTestUtils.createOperationalRsps(2, false);
+        assertEquals(2, rspList.size());
+        rspList.forEach(sfcStatsTestUtils::createTransportFlows);
+
+        // The transport flows of both RSPs are summed
+        ServiceFunctionForwarder sff = sfcStatsTestUtils.getSffFromRsp(rspList.get(0), 0);
+        SfcOpenFlowStatisticsReader sfcOpenFlowStatsReader = new SfcOpenFlowStatisticsReader(sff);
+        Optional<ServiceStatistic> stats = sfcOpenFlowStatsReader.getTransportIngressStatistics(sff);
+        assertTrue(stats.isPresent());
+        sfcStatsTestUtils.checkStatistics(stats.get(), true,
+                sfcStatsTestUtils.STATS_COUNTER_BYTES * 2, sfcStatsTestUtils.STATS_COUNTER_PACKETS * 2);
+
+        stats = sfcOpenFlowStatsReader.getTransportEgressStatistics(sff);
+        assertTrue(stats.isPresent());
+        sfcStatsTestUtils.checkStatistics(stats.get(), false,
+                sfcStatsTestUtils.STATS_COUNTER_BYTES * 2, sfcStatsTestUtils.STATS_COUNTER_PACKETS * 2);
+    }
+
+    @Test
+    public void getTransportStatisticsWithInitFlowsTest() {
+        List<RenderedServicePath> rspList = sfcStatsTestUtils.createOperationalRsps(1, false);
+        assertEquals(1, rspList.size());
+        sfcStatsTestUtils.createTransportFlows(rspList.get(0));
+        sfcStatsTestUtils.createTransportInitFlows();
+
+        // The initialization flows are not counted
+        ServiceFunctionForwarder sff = sfcStatsTestUtils.getSffFromRsp(rspList.get(0), 0);
+        SfcOpenFlowStatisticsReader sfcOpenFlowStatsReader = new SfcOpenFlowStatisticsReader(sff);
+        Optional<ServiceStatistic> stats = sfcOpenFlowStatsReader.getTransportIngressStatistics(sff);
+        assertTrue(stats.isPresent());
+        sfcStatsTestUtils.checkStatistics(stats.get(), true,
+                sfcStatsTestUtils.STATS_COUNTER_BYTES, sfcStatsTestUtils.STATS_COUNTER_PACKETS);
+
+        stats = sfcOpenFlowStatsReader.getTransportEgressStatistics(sff);
+        assertTrue(stats.isPresent());
+        sfcStatsTestUtils.checkStatistics(stats.get(), false,
+                sfcStatsTestUtils.STATS_COUNTER_BYTES, sfcStatsTestUtils.STATS_COUNTER_PACKETS);
+    }
+
     @Test
     public void getTransportIngressStatisticsTest() {
         List<ServiceFunctionForwarder> sffList =
@@ -90,7 +203,7 @@ public class SfcOpenFlowStatisticsReaderTest extends AbstractDataStoreManager {
         SfcOpenFlowStatisticsReader sfcOpenFlowStatsReader = new SfcOpenFlowStatisticsReader(sffList.get(0));
         Optional<ServiceStatistic> stats = sfcOpenFlowStatsReader.getTransportIngressStatistics(sffList.get(0));
 
-        // sfcOpenFlowStatsReader.getTransportIngressStatistics() isnt implemented yet, so it should be empty
+        // There are no transport flows on the SFF, so it should be empty
         assertFalse(stats.isPresent());
     }
 
@@ -103,7 +216,7 @@ public class SfcOpenFlowStatisticsReaderTest extends AbstractDataStoreManager {
         SfcOpenFlowStatisticsReader sfcOpenFlowStatsReader = new SfcOpenFlowStatisticsReader(sffList.get(0));
         Optional<ServiceStatistic> stats = sfcOpenFlowStatsReader.getTransportEgressStatistics(sffList.get(0));
 
-        // sfcOpenFlowStatsReader.getTransportEgressStatistics() isnt implemented yet, so it should be empty
+        // There are no transport flows on the SFF, so it should be empty
         assertFalse(stats.isPresent());
     }
 }
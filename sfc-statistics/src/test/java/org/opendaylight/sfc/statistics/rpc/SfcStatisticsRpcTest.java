@@ -14,6 +14,7 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
+import java.math.BigInteger;
 import java.util.Collection;
 import java.util.List;
 import java.util.concurrent.ExecutionException;
@@ -25,6 +26,9 @@ import org.junit.Test;
 import org.opendaylight.sfc.statistics.testutils.AbstractDataStoreManager;
 import org.opendaylight.sfc.statistics.testutils.SfcStatisticsTestUtils;
 import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.rsp.rev140701.rendered.service.paths.RenderedServicePath;
+import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.rsp.rev140701.rendered.service.paths.rendered.service.path.RenderedServicePathHop;
+import org.opendaylight.yang.gen.v1.urn.inocybe.params.xml.ns.yang.sfc.stats.ops.rev171215.GetRspStatisticsHistoryInputBuilder;
+import org.opendaylight.yang.gen.v1.urn.inocybe.params.xml.ns.yang.sfc.stats.ops.rev171215.GetRspStatisticsHistoryOutput;
 import org.opendaylight.yang.gen.v1.urn.inocybe.params.xml.ns.yang.sfc.stats.ops.rev171215.GetRspStatisticsInputBuilder;
 import org.opendaylight.yang.gen.v1.urn.inocybe.params.xml.ns.yang.sfc.stats.ops.rev171215.GetRspStatisticsOutput;
 import org.opendaylight.yang.gen.v1.urn.inocybe.params.xml.ns.yang.sfc.stats.ops.rev171215.GetSfStatisticsInputBuilder;
@@ -143,6 +147,34 @@ public class SfcStatisticsRpcTest extends AbstractDataStoreManager {
         }
     }
 
+    @Test
+    public void getRspStatisticsHistoryTest() throws Exception {
+        List<RenderedServicePath> rspList = sfcStatsTestUtils.createOperationalRsps(1, false);
+        RenderedServicePath rsp = rspList.get(0);
+        GetRspStatisticsHistoryInputBuilder historyInputBuilder = new GetRspStatisticsHistoryInputBuilder();
+        historyInputBuilder.setName(rsp.getName().getValue());
+
+        // Nothing was collected for the RSP yet
+        Future<RpcResult<GetRspStatisticsHistoryOutput>> result =
+                sfcStatisticsRpc.getRspStatisticsHistory(historyInputBuilder.build());
+        assertFalse(result.get().isSuccessful());
+
+        // Collect a sample, through the RSP statistics
+        assertTrue(sfcStatisticsRpc.getRspStatistics(new GetRspStatisticsInputBuilder()
+                .setName(rsp.getName().getValue()).build()).get().isSuccessful());
+
+        result = sfcStatisticsRpc.getRspStatisticsHistory(historyInputBuilder.build());
+        assertTrue(result.get().isSuccessful());
+        GetRspStatisticsHistoryOutput output = result.get().getResult();
+        assertEquals(1, output.getStatistics().size());
+        assertEquals(1, output.getStatistics().get(0).getStatisticByTimestamp().size());
+
+        // A time range before the sample
+        historyInputBuilder.setEndTime(BigInteger.ONE);
+        result = sfcStatisticsRpc.getRspStatisticsHistory(historyInputBuilder.build());
+        assertTrue(result.get().getResult().getStatistics().get(0).getStatisticByTimestamp().isEmpty());
+    }
+
     //
     // SFF Statistics tests
     //
@@ -153,7 +185,7 @@ public class SfcStatisticsRpcTest extends AbstractDataStoreManager {
         Future<RpcResult<GetSffStatisticsOutput>> result =
                 sfcStatisticsRpc.getSffStatistics(getSffStatisticsInputBuilder.build());
 
-        // getSffStatistics is not implemented yet, so it should return an error
+        // There are no RSPs, so there are no SFF statistics and it should return an error
 
         assertNotNull(result);
         assertNotNull(result.get());
@@ -166,6 +198,31 @@ public class SfcStatisticsRpcTest extends AbstractDataStoreManager {
         assertEquals(RpcError.ErrorType.APPLICATION, rpcErrors.iterator().next().getErrorType());
     }
 
+    @Test
+    public void getSffStatisticsAllSffsTest() throws Exception {
+        // Create 2 RSPs on the same SFF, the SFF counts the transport flows of both
+        List<RenderedServicePath> rspList = sfcStatsTestUtils.createOperationalRsps(2, false);
+        rspList.forEach(sfcStatsTestUtils::createTransportFlows);
+
+        Future<RpcResult<GetSffStatisticsOutput>> result =
+                sfcStatisticsRpc.getSffStatistics(new GetSffStatisticsInputBuilder().build());
+        assertTrue(result.get().isSuccessful());
+
+        GetSffStatisticsOutput output = result.get().getResult();
+        assertEquals(1, output.getStatistics().size());
+        assertEquals(rspList.get(0).getRenderedServicePathHop().get(0).getServiceFunctionForwarder().getValue(),
+                output.getStatistics().get(0).getName());
+        sfcStatsTestUtils.checkStatistics(
+                output.getStatistics().get(0).getStatisticByTimestamp().get(0).getServiceStatistic(),
+                sfcStatsTestUtils.STATS_COUNTER_BYTES * 2, sfcStatsTestUtils.STATS_COUNTER_BYTES * 2,
+                sfcStatsTestUtils.STATS_COUNTER_PACKETS * 2, sfcStatsTestUtils.STATS_COUNTER_PACKETS * 2);
+
+        // An SFF that does not exist
+        result = sfcStatisticsRpc.getSffStatistics(
+                new GetSffStatisticsInputBuilder().setName("SffDoesntExist").build());
+        assertFalse(result.get().isSuccessful());
+    }
+
     //
     // SF Statistics tests
     //
@@ -176,7 +233,7 @@ public class SfcStatisticsRpcTest extends AbstractDataStoreManager {
         Future<RpcResult<GetSfStatisticsOutput>> result =
                 sfcStatisticsRpc.getSfStatistics(getSfStatisticsInputBuilder.build());
 
-        // getSfStatistics is not implemented yet, so it should return an error
+        // There are no RSPs, so there are no SF statistics and it should return an error
 
         assertNotNull(result);
         assertNotNull(result.get());
@@ -188,4 +245,33 @@ public class SfcStatisticsRpcTest extends AbstractDataStoreManager {
         assertEquals(1, rpcErrors.size());
         assertEquals(RpcError.ErrorType.APPLICATION, rpcErrors.iterator().next().getErrorType());
     }
+
+    @Test
+    public void getSfStatisticsByNameTest() throws Exception {
+        List<RenderedServicePath> rspList = sfcStatsTestUtils.createOperationalRsps(1, false);
+        List<RenderedServicePathHop> rspHops = rspList.get(0).getRenderedServicePathHop();
+        assertEquals(2, rspHops.size());
+
+        // The packets sent to the first SF are counted by its NextHop flow, and the
+        // packets it returned by the NextHop flow of the second SF
+        String sfName = rspHops.get(0).getServiceFunctionName().getValue();
+        Future<RpcResult<GetSfStatisticsOutput>> result =
+                sfcStatisticsRpc.getSfStatistics(new GetSfStatisticsInputBuilder().setName(sfName).build());
+        assertTrue(result.get().isSuccessful());
+        GetSfStatisticsOutput output = result.get().getResult();
+        assertEquals(1, output.getStatistics().size());
+        assertEquals(sfName, output.getStatistics().get(0).getName());
+        sfcStatsTestUtils.checkStatistics(
+                output.getStatistics().get(0).getStatisticByTimestamp().get(0).getServiceStatistic(),
+                sfcStatsTestUtils.STATS_COUNTER_BYTES, sfcStatsTestUtils.STATS_COUNTER_BYTES,
+                sfcStatsTestUtils.STATS_COUNTER_PACKETS, sfcStatsTestUtils.STATS_COUNTER_PACKETS);
+
+        // The packets returned by the last SF leave the chain without a NextHop flow
+        sfName = rspHops.get(1).getServiceFunctionName().getValue();
+        result = sfcStatisticsRpc.getSfStatistics(new GetSfStatisticsInputBuilder().setName(sfName).build());
+        assertTrue(result.get().isSuccessful());
+        sfcStatsTestUtils.checkStatistics(
+                result.get().getResult().getStatistics().get(0).getStatisticByTimestamp().get(0).getServiceStatistic(),
+                sfcStatsTestUtils.STATS_COUNTER_BYTES, 0, sfcStatsTestUtils.STATS_COUNTER_PACKETS, 0);
+    }
 }
@@ -27,6 +27,7 @@ import org.opendaylight.sfc.provider.api.SfcProviderServiceForwarderAPI;
 import org.opendaylight.sfc.provider.api.SfcProviderServicePathAPI;
 import org.opendaylight.sfc.provider.api.SfcProviderServiceTypeAPI;
 import org.opendaylight.sfc.util.openflow.OpenflowConstants;
+import org.opendaylight.sfc.util.openflow.SfcOpenflowCookie;
 import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.common.rev151017.RspName;
 import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.common.rev151017.SfDataPlaneLocatorName;
 import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.common.rev151017.SfName;
@@ -657,6 +658,53 @@ public class SfcStatisticsTestUtils {
         return null;
     }
 
+    /**
+     * Create a transport ingress and a transport egress flow for the RSP, as
+     * counted by the SFF statistics.
+     *
+     * @param rsp - the RSP to create the flows for
+     */
+    public void createTransportFlows(RenderedServicePath rsp) {
+        createFlow("transportIngress_" + rsp.getPathId(), OpenflowConstants.TABLE_INDEX_TRANSPORT_INGRESS,
+                rsp.getPathId());
+        createFlow("transportEgress_" + rsp.getPathId(), OpenflowConstants.TABLE_INDEX_TRANSPORT_EGRESS,
+                rsp.getPathId());
+    }
+
+    /**
+     * Create a transport ingress and a transport egress initialization flow,
+     * as written by the renderer for every SFF, not counted by the SFF
+     * statistics.
+     */
+    public void createTransportInitFlows() {
+        createFlow("transportIngress_init", OpenflowConstants.TABLE_INDEX_TRANSPORT_INGRESS,
+                OpenflowConstants.SFC_FLOWS);
+        createFlow("transportEgress_init", OpenflowConstants.TABLE_INDEX_TRANSPORT_EGRESS,
+                OpenflowConstants.SFC_FLOWS);
+    }
+
+    private void createFlow(String flowName, short tableIndex, long pathId) {
+        FlowKey flowKey = new FlowKey(new FlowId(flowName));
+        FlowBuilder flowBuilder = new FlowBuilder();
+        flowBuilder.setFlowName(flowName);
+        flowBuilder.withKey(flowKey);
+        flowBuilder.setCookie(SfcOpenflowCookie.toFlowCookie(SfcOpenflowCookie.build(tableIndex, 0, pathId)));
+
+        FlowStatisticsBuilder flowStatsBuilder = new FlowStatisticsBuilder();
+        flowStatsBuilder.setByteCount(new Counter64(new BigInteger(STATS_COUNTER_BYTES_STR)));
+        flowStatsBuilder.setPacketCount(new Counter64(new BigInteger(STATS_COUNTER_PACKETS_STR)));
+        FlowStatisticsDataBuilder flowStatsDataBuilder = new FlowStatisticsDataBuilder();
+        flowStatsDataBuilder.setFlowStatistics(flowStatsBuilder.build());
+        flowBuilder.addAugmentation(FlowStatisticsData.class, flowStatsDataBuilder.build());
+
+        InstanceIdentifier<Flow> iidFlow = InstanceIdentifier.builder(Nodes.class)
+                .child(Node.class, new NodeKey(new NodeId(OPENFLOW_NODEID)))
+                .augmentation(FlowCapableNode.class)
+                .child(Table.class, new TableKey((short) (BASE_TABLE_NUMBER + tableIndex)))
+                .child(Flow.class, flowKey).build();
+        SfcDataStoreAPI.writeMergeTransactionAPI(iidFlow, flowBuilder.build(), LogicalDatastoreType.OPERATIONAL);
+    }
+
     private void createNextHopFlow(RenderedServicePath rsp) {
         // Create a NextHop flow for each RSP hop
         for (RenderedServicePathHop rspHop : rsp.getRenderedServicePathHop()) {
@@ -669,6 +717,8 @@ public class SfcStatisticsTestUtils {
             FlowBuilder flowBuilder = new FlowBuilder();
             flowBuilder.setFlowName(flowName.toString());
             flowBuilder.withKey(flowKey);
+            flowBuilder.setCookie(SfcOpenflowCookie.toFlowCookie(
+                    SfcOpenflowCookie.build((short) 4, 0, rsp.getPathId())));
 
             FlowStatisticsBuilder flowStatsBuilder = new FlowStatisticsBuilder();
             flowStatsBuilder.setByteCount(new Counter64(new BigInteger(STATS_COUNTER_BYTES_STR)));
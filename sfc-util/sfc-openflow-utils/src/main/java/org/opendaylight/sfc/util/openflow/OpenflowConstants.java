@@ -24,6 +24,15 @@ public final class OpenflowConstants {
     // NSH constants
     public static final short NSH_MDTYPE_1 = 1;
 
+    // SFC OpenFlow table indexes, relative to the SFC table base:
+    //   used by both OpenflowRenderer and SFC statistics
+    public static final short TABLE_INDEX_CLASSIFIER = 0;
+    public static final short TABLE_INDEX_TRANSPORT_INGRESS = 1;
+    public static final short TABLE_INDEX_PATH_MAPPER = 2;
+    public static final short TABLE_INDEX_PATH_MAPPER_ACL = 3;
+    public static final short TABLE_INDEX_NEXT_HOP = 4;
+    public static final short TABLE_INDEX_TRANSPORT_EGRESS = 10;
+
     // OpenFlow table names and related:
     //   used by both OpenflowRenderer and SFC statistics
     public static final String OF_NAME_DELIMITER = "_";
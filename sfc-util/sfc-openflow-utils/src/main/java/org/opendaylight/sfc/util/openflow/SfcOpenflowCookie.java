@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2018 Ericsson Inc. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.sfc.util.openflow;
+
+import java.math.BigInteger;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.types.rev131026.FlowCookie;
+
+/**
+ * Layout of the cookies of the flows written by the SFC OpenFlow renderer.
+ *
+ * <p>
+ * The cookie is made of fixed bit fields, so the flows of an RSP can be
+ * selected on a switch or in the statistics with a cookie mask:
+ * <pre>
+ *   63    56 55    48 47            32 31                             0
+ *  +--------+--------+----------------+--------------------------------+
+ *  | marker |  table |   flow kind    |          RSP path id           |
+ *  +--------+--------+----------------+--------------------------------+
+ * </pre>
+ * The marker identifies the SFC flows, the table is the index of the SFC
+ * table of the flow, independent of the table offsets, and the flow kind
+ * tells apart the flows of the same table. The initialization flows of the
+ * SFFs use {@link OpenflowConstants#SFC_FLOWS} as path id. The most
+ * significant bit is never set, so a cookie always fits in a positive long.
+ */
+public final class SfcOpenflowCookie {
+
+    public static final long SFC_MARKER = 0x5FL;
+
+    private static final int MARKER_SHIFT = 56;
+    private static final int TABLE_SHIFT = 48;
+    private static final int FLOW_KIND_SHIFT = 32;
+
+    private static final long MARKER_MASK = 0xFFL << MARKER_SHIFT;
+    private static final long TABLE_MASK = 0xFFL << TABLE_SHIFT;
+    private static final long FLOW_KIND_MASK = 0xFFFFL << FLOW_KIND_SHIFT;
+    private static final long PATH_ID_MASK = 0xFFFFFFFFL;
+
+    // Selects all the flows of an RSP, whatever their table and kind
+    public static final long RSP_COOKIE_MASK = MARKER_MASK | PATH_ID_MASK;
+
+    private SfcOpenflowCookie() {
+    }
+
+    /**
+     * Build a cookie.
+     *
+     * @param tableIndex
+     *            the index of the SFC table of the flow
+     * @param flowKind
+     *            the kind of flow within its table
+     * @param pathId
+     *            the path id of the RSP owning the flow
+     * @return the cookie
+     */
+    public static long build(short tableIndex, int flowKind, long pathId) {
+        return SFC_MARKER << MARKER_SHIFT
+                | ((long) tableIndex << TABLE_SHIFT & TABLE_MASK)
+                | ((long) flowKind << FLOW_KIND_SHIFT & FLOW_KIND_MASK)
+                | pathId & PATH_ID_MASK;
+    }
+
+    /**
+     * Build the cookie selecting all the flows of an RSP when used with
+     * {@link #RSP_COOKIE_MASK}.
+     *
+     * @param pathId
+     *            the path id of the RSP
+     * @return the cookie
+     */
+    public static long buildRspCookie(long pathId) {
+        return SFC_MARKER << MARKER_SHIFT | pathId & PATH_ID_MASK;
+    }
+
+    public static boolean isSfcCookie(long cookie) {
+        return (cookie & MARKER_MASK) == SFC_MARKER << MARKER_SHIFT;
+    }
+
+    public static boolean isRspCookie(long cookie, long pathId) {
+        return (cookie & RSP_COOKIE_MASK) == buildRspCookie(pathId);
+    }
+
+    /**
+     * Check if a cookie is the one of an initialization flow of an SFF. The
+     * path id of the cookie is compared as unsigned, unlike
+     * {@link OpenflowConstants#SFC_FLOWS} which is a negative long.
+     *
+     * @param cookie
+     *            the cookie
+     * @return true if the cookie has {@link OpenflowConstants#SFC_FLOWS} as
+     *         path id
+     */
+    public static boolean isInitFlowCookie(long cookie) {
+        return isRspCookie(cookie, OpenflowConstants.SFC_FLOWS);
+    }
+
+    public static short getTableIndex(long cookie) {
+        return (short) ((cookie & TABLE_MASK) >>> TABLE_SHIFT);
+    }
+
+    public static int getFlowKind(long cookie) {
+        return (int) ((cookie & FLOW_KIND_MASK) >>> FLOW_KIND_SHIFT);
+    }
+
+    public static long getPathId(long cookie) {
+        return cookie & PATH_ID_MASK;
+    }
+
+    /**
+     * Get the value of a flow cookie. Cookies not fitting in a positive long
+     * cannot be SFC cookies and are returned as 0.
+     *
+     * @param flowCookie
+     *            the flow cookie, may be null
+     * @return the cookie
+     */
+    public static long getValue(FlowCookie flowCookie) {
+        if (flowCookie == null || flowCookie.getValue() == null || flowCookie.getValue().bitLength() > 63) {
+            return 0;
+        }
+        return flowCookie.getValue().longValue();
+    }
+
+    public static FlowCookie toFlowCookie(long cookie) {
+        return new FlowCookie(BigInteger.valueOf(cookie));
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2018 Ericsson Inc. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.sfc.util.openflow.writer;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import org.opendaylight.controller.md.sal.binding.api.DataBroker;
+import org.opendaylight.controller.md.sal.binding.api.WriteTransaction;
+import org.opendaylight.controller.md.sal.common.api.data.LogicalDatastoreType;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.FlowCapableNode;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.tables.Table;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.tables.table.Flow;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.NodeId;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.Nodes;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.nodes.Node;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.nodes.NodeKey;
+import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A thread class used to update the flows of an SFF on the data store. It
+ * receives the flows to write and the flows to remove at object instantiation
+ * time, and both are applied together in a single data store transaction.
+ */
+public class FlowSetUpdaterTask implements Runnable {
+    private static final Logger LOG = LoggerFactory.getLogger(FlowSetUpdaterTask.class);
+    private final List<FlowDetails> flowsToWrite;
+    private final List<FlowDetails> flowsToDelete;
+    private final DataBroker dataProvider;
+
+    public FlowSetUpdaterTask(DataBroker dataProvider, Collection<FlowDetails> flowsToWrite,
+            Collection<FlowDetails> flowsToDelete) {
+        this.dataProvider = dataProvider;
+        this.flowsToWrite = new ArrayList<>(flowsToWrite);
+        this.flowsToDelete = new ArrayList<>(flowsToDelete);
+    }
+
+    @Override
+    public void run() {
+        try {
+            submit();
+        } catch (ExecutionException | InterruptedException e) {
+            LOG.error("FlowSetUpdaterTask: Transaction failed. Message: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Apply the flows in a single transaction and wait for its commit.
+     *
+     * @throws ExecutionException
+     *             when the transaction fails
+     * @throws InterruptedException
+     *             when interrupted while waiting for the commit
+     */
+    public void submit() throws ExecutionException, InterruptedException {
+        WriteTransaction trans = dataProvider.newWriteOnlyTransaction();
+
+        LOG.debug("FlowSetUpdaterTask: starting addition of {} flows and deletion of {} flows", flowsToWrite.size(),
+                flowsToDelete.size());
+
+        for (FlowDetails f : flowsToDelete) {
+            trans.delete(LogicalDatastoreType.CONFIGURATION, getFlowIid(f));
+        }
+        for (FlowDetails f : flowsToWrite) {
+            trans.put(LogicalDatastoreType.CONFIGURATION, getFlowIid(f), f.getFlow(), true);
+        }
+
+        ListenableFuture<Void> submitFuture = trans.submit();
+        submitFuture.get();
+    }
+
+    private static InstanceIdentifier<Flow> getFlowIid(FlowDetails f) {
+        return InstanceIdentifier.builder(Nodes.class).child(Node.class, new NodeKey(new NodeId(f.getSffNodeName())))
+                .augmentation(FlowCapableNode.class).child(Table.class, f.getTableKey())
+                .child(Flow.class, f.getFlowKey()).build();
+    }
+}
@@ -9,6 +9,7 @@
 package org.opendaylight.sfc.util.openflow.writer;
 
 import com.google.common.util.concurrent.ListenableFuture;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
@@ -37,7 +38,7 @@ public class FlowSetWriterTask implements Runnable {
     private WriteTransaction tx;
     private DataBroker dataProvider = null;
 
-    public FlowSetWriterTask(DataBroker dataProvider, Set<FlowDetails> flowsToWrite) {
+    public FlowSetWriterTask(DataBroker dataProvider, Collection<FlowDetails> flowsToWrite) {
         tx = null;
         this.dataProvider = dataProvider;
         this.flowsToWrite.addAll(flowsToWrite);
@@ -0,0 +1,612 @@
+/*
+ * Copyright (c) 2018 Ericsson Inc. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.sfc.util.openflow.writer;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import org.opendaylight.infrautils.utils.concurrent.Executors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Writes and deletes flows on the data store through workers partitioned by
+ * SFF node, so the flows of a node are always applied in order by the same
+ * worker while different nodes are written in parallel.
+ *
+ * <p>
+ * The flows queued on a worker are indexed by node, table and flow key: a
+ * write or delete of a flow still queued replaces the queued one, so only the
+ * last state of each flow is committed. Tasks acting on a node, like removing
+ * flows from the switch, are run by the worker of the node in order with its
+ * flows: flows queued after a task are neither merged with the flows queued
+ * before it nor committed before it ran. The queue of each worker is bounded,
+ * and callers queuing new flows on a full worker wait until it drains.
+ * The flows of a failed batch are retried one per transaction before the
+ * flows queued after them, so a failing flow does not hold back the rest of
+ * its batch. A flow failing on its own is retried with exponential backoff, up
+ * to a maximum number of attempts, after which it is handed to the dropped
+ * flow handler. A worker interrupted while committing queues its batch again
+ * and is restarted by the next flows queued.
+ */
+public class PartitionedFlowWriter {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PartitionedFlowWriter.class);
+
+    public static final int DEFAULT_MAX_QUEUE_DEPTH = 10000;
+    private static final int MAX_PARTITIONS = 8;
+    private static final int MAX_BATCH_SIZE = 1000;
+    private static final int MAX_ATTEMPTS = 5;
+    private static final long INITIAL_BACKOFF_MILLIS = 100;
+    private static final long MAX_BACKOFF_MILLIS = 10000;
+
+    /**
+     * Commits a batch of flows of a worker in a single transaction.
+     */
+    @FunctionalInterface
+    public interface FlowBatchCommitter {
+        void commit(List<FlowDetails> flowsToWrite, List<FlowDetails> flowsToDelete)
+                throws ExecutionException, InterruptedException;
+    }
+
+    /**
+     * Handles the flows given up after the maximum number of attempts.
+     */
+    @FunctionalInterface
+    public interface DroppedFlowHandler {
+        void dropped(FlowDetails flow, boolean delete);
+    }
+
+    private final FlowBatchCommitter committer;
+    private final DroppedFlowHandler droppedFlowHandler;
+    private final Partition[] partitions;
+    private final int maxQueueDepth;
+    private final long initialBackoffMillis;
+    private final ExecutorService workerExecutor;
+
+    // metrics
+    private final AtomicLong mergedFlows = new AtomicLong();
+    private final AtomicLong retriedFlows = new AtomicLong();
+    private final AtomicLong droppedFlows = new AtomicLong();
+    private long commitCount;
+    private long committedFlows;
+    private long commitNanos;
+    private long lastCommitNanos;
+    private long rateWindowStartNanos = System.nanoTime();
+    private long rateWindowFlows;
+    private double flowsPerSecond;
+
+    public PartitionedFlowWriter(FlowBatchCommitter committer) {
+        this(committer, (flow, delete) -> { });
+    }
+
+    public PartitionedFlowWriter(FlowBatchCommitter committer, DroppedFlowHandler droppedFlowHandler) {
+        this(committer, droppedFlowHandler, Math.min(MAX_PARTITIONS, Runtime.getRuntime().availableProcessors()),
+                DEFAULT_MAX_QUEUE_DEPTH, INITIAL_BACKOFF_MILLIS);
+    }
+
+    public PartitionedFlowWriter(FlowBatchCommitter committer, int partitionCount, int maxQueueDepth,
+            long initialBackoffMillis) {
+        this(committer, (flow, delete) -> { }, partitionCount, maxQueueDepth, initialBackoffMillis);
+    }
+
+    /**
+     * Create a writer.
+     *
+     * @param committer
+     *            commits the batches of flows
+     * @param droppedFlowHandler
+     *            handles the flows given up after the maximum number of
+     *            attempts
+     * @param partitionCount
+     *            the number of workers
+     * @param maxQueueDepth
+     *            the maximum number of flows queued per worker
+     * @param initialBackoffMillis
+     *            the time to wait before the first retry of a failed commit,
+     *            doubled on each consecutive failure
+     */
+    public PartitionedFlowWriter(FlowBatchCommitter committer, DroppedFlowHandler droppedFlowHandler,
+            int partitionCount, int maxQueueDepth, long initialBackoffMillis) {
+        this.committer = committer;
+        this.droppedFlowHandler = droppedFlowHandler;
+        this.maxQueueDepth = Math.max(1, maxQueueDepth);
+        this.initialBackoffMillis = initialBackoffMillis;
+        this.partitions = new Partition[Math.max(1, partitionCount)];
+        for (int i = 0; i < partitions.length; i++) {
+            partitions[i] = new Partition();
+        }
+        this.workerExecutor = Executors.newFixedThreadPool(partitions.length, "PartitionedFlowWriter", LOG);
+    }
+
+    /**
+     * Queue flows to be written.
+     *
+     * @param flows
+     *            the flows to write
+     */
+    public void write(Collection<FlowDetails> flows) {
+        submit(flows, false);
+    }
+
+    /**
+     * Queue flows to be deleted.
+     *
+     * @param flows
+     *            the flows to delete
+     */
+    public void delete(Collection<FlowDetails> flows) {
+        submit(flows, true);
+    }
+
+    private void submit(Collection<FlowDetails> flows, boolean delete) {
+        if (flows.isEmpty()) {
+            return;
+        }
+        List<List<FlowOperation>> operationsPerPartition = new ArrayList<>(partitions.length);
+        for (int i = 0; i < partitions.length; i++) {
+            operationsPerPartition.add(new ArrayList<>());
+        }
+        for (FlowDetails flow : flows) {
+            operationsPerPartition.get(getPartitionIndex(flow.getSffNodeName()))
+                    .add(new FlowOperation(flow, delete));
+        }
+        for (int i = 0; i < partitions.length; i++) {
+            if (!operationsPerPartition.get(i).isEmpty()) {
+                partitions[i].enqueue(operationsPerPartition.get(i));
+            }
+        }
+    }
+
+    /**
+     * Run a task on the worker of a node, once the flows of the node queued
+     * before the task are committed, and before the flows queued after it.
+     *
+     * @param sffNodeName
+     *            the node the task acts on
+     * @param task
+     *            the task, expected not to block for long
+     */
+    public void execute(String sffNodeName, Runnable task) {
+        partitions[getPartitionIndex(sffNodeName)].enqueue(task);
+    }
+
+    /**
+     * Stop the workers once they have committed the queued flows.
+     *
+     * @param timeout
+     *            the maximum time to wait
+     * @param unit
+     *            the unit of the timeout
+     * @return the number of flows not committed
+     * @throws InterruptedException
+     *             when interrupted while waiting for the workers
+     */
+    public int shutdown(long timeout, TimeUnit unit) throws InterruptedException {
+        for (Partition partition : partitions) {
+            partition.close();
+        }
+        workerExecutor.shutdown();
+        if (!workerExecutor.awaitTermination(timeout, unit)) {
+            workerExecutor.shutdownNow();
+        }
+        return getQueueDepth();
+    }
+
+    private int getPartitionIndex(String sffNodeName) {
+        return Math.floorMod(sffNodeName.hashCode(), partitions.length);
+    }
+
+    static FlowDetails getKey(FlowDetails flow) {
+        return new FlowDetails(flow.getSffNodeName(), flow.getFlowKey(), flow.getTableKey());
+    }
+
+    /**
+     * Get the number of flows queued and not committed yet.
+     *
+     * @return the queue depth, all workers included
+     */
+    public int getQueueDepth() {
+        int depth = 0;
+        for (Partition partition : partitions) {
+            depth += partition.size();
+        }
+        return depth;
+    }
+
+    public long getMergedFlowCount() {
+        return mergedFlows.get();
+    }
+
+    public long getRetriedFlowCount() {
+        return retriedFlows.get();
+    }
+
+    public long getDroppedFlowCount() {
+        return droppedFlows.get();
+    }
+
+    public synchronized long getCommitCount() {
+        return commitCount;
+    }
+
+    public synchronized long getCommittedFlowCount() {
+        return committedFlows;
+    }
+
+    public synchronized double getAverageCommitLatencyMillis() {
+        return commitCount == 0 ? 0 : (double) commitNanos / commitCount / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    public synchronized double getLastCommitLatencyMillis() {
+        return (double) lastCommitNanos / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * Get the rate of the flows committed, measured over the last window of
+     * at least one second ending with a commit.
+     *
+     * @return the committed flows per second
+     */
+    public synchronized double getFlowsPerSecond() {
+        return flowsPerSecond;
+    }
+
+    private synchronized void recordCommit(int flows, long nanos) {
+        commitCount++;
+        committedFlows += flows;
+        commitNanos += nanos;
+        lastCommitNanos = nanos;
+
+        long now = System.nanoTime();
+        rateWindowFlows += flows;
+        long windowNanos = now - rateWindowStartNanos;
+        if (windowNanos >= TimeUnit.SECONDS.toNanos(1)) {
+            flowsPerSecond = (double) rateWindowFlows * TimeUnit.SECONDS.toNanos(1) / windowNanos;
+            rateWindowStartNanos = now;
+            rateWindowFlows = 0;
+        }
+    }
+
+    private static final class FlowOperation {
+        private final FlowDetails flow;
+        private final boolean delete;
+        private int attempts;
+
+        FlowOperation(FlowDetails flow, boolean delete) {
+            this.flow = flow;
+            this.delete = delete;
+        }
+    }
+
+    // Operations queued on a worker, ended by the task to run once they are
+    // committed
+    private static final class Segment {
+        // (SFF node, table, flow id) -> last operation queued on the flow
+        private final Map<FlowDetails, FlowOperation> operations = new LinkedHashMap<>();
+        private Runnable task;
+    }
+
+    private final class Partition implements Runnable {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition notEmpty = lock.newCondition();
+        private final Condition notFull = lock.newCondition();
+        // the first segment is the one being committed
+        private final Deque<Segment> segments = new ArrayDeque<>();
+        // operations of a failed batch, retried one per transaction before
+        // the operations of the first segment
+        private final Deque<FlowOperation> isolated = new ArrayDeque<>();
+        private int queuedFlows;
+        // whether a worker is running or scheduled
+        private boolean started;
+        private boolean closed;
+        private int consecutiveFailures;
+
+        void enqueue(List<FlowOperation> operations) {
+            lock.lock();
+            try {
+                startWorker();
+                for (FlowOperation operation : operations) {
+                    FlowDetails key = getKey(operation.flow);
+                    if (!getLastSegment().operations.containsKey(key)) {
+                        awaitNotFull();
+                    }
+                    if (getLastSegment().operations.put(key, operation) != null) {
+                        mergedFlows.incrementAndGet();
+                    } else {
+                        queuedFlows++;
+                    }
+                }
+                notEmpty.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void enqueue(Runnable task) {
+            lock.lock();
+            try {
+                startWorker();
+                getLastSegment().task = task;
+                notEmpty.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        // Must hold the lock. The segment operations can be queued in.
+        private Segment getLastSegment() {
+            Segment segment = segments.peekLast();
+            if (segment == null || segment.task != null) {
+                segment = new Segment();
+                segments.addLast(segment);
+            }
+            return segment;
+        }
+
+        // Must hold the lock. The segment the batch being committed was
+        // taken from, it is removed from the queue by the next takeWork().
+        private Segment getFirstSegment() {
+            Segment segment = segments.peekFirst();
+            if (segment == null) {
+                segment = new Segment();
+                segments.addFirst(segment);
+            }
+            return segment;
+        }
+
+        // Must hold the lock. Fails when the workers are shut down.
+        private void startWorker() {
+            if (!started && !closed) {
+                started = true;
+                try {
+                    workerExecutor.execute(this);
+                } catch (RejectedExecutionException e) {
+                    started = false;
+                    throw e;
+                }
+            }
+        }
+
+        // Back-pressure: wait for the worker to drain, restarting it if it
+        // was interrupted meanwhile. Flows are never dropped, so when the
+        // caller is interrupted the flow is queued anyway.
+        private void awaitNotFull() {
+            while (queuedFlows >= maxQueueDepth && !closed) {
+                startWorker();
+                notEmpty.signal();
+                try {
+                    notFull.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+
+        // Must hold the lock. Whether a newer operation on the flow was
+        // queued since the batch being committed was taken.
+        private boolean isSuperseded(FlowOperation operation) {
+            Segment first = segments.peekFirst();
+            return first != null && first.operations.containsKey(getKey(operation.flow));
+        }
+
+        // The operations of a failed batch are retried one at a time, in
+        // order, to find out which ones fail. No attempt is counted, the
+        // failure is not known to be theirs.
+        void isolate(List<FlowOperation> operations) {
+            lock.lock();
+            try {
+                for (int i = operations.size() - 1; i >= 0; i--) {
+                    FlowOperation operation = operations.get(i);
+                    if (!isSuperseded(operation)) {
+                        isolated.addFirst(operation);
+                        retriedFlows.incrementAndGet();
+                        queuedFlows++;
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        // A failed operation committed on its own is retried before the
+        // others, unless a newer one on the same flow was queued meanwhile
+        void retry(FlowOperation operation) {
+            boolean dropped = false;
+            lock.lock();
+            try {
+                if (isSuperseded(operation)) {
+                    return;
+                }
+                if (++operation.attempts >= MAX_ATTEMPTS) {
+                    droppedFlows.incrementAndGet();
+                    LOG.error("PartitionedFlowWriter: giving up on flow {} of node {} after {} attempts",
+                            operation.flow.getFlowKey().getId().getValue(), operation.flow.getSffNodeName(),
+                            operation.attempts);
+                    dropped = true;
+                } else {
+                    isolated.addFirst(operation);
+                    retriedFlows.incrementAndGet();
+                    queuedFlows++;
+                }
+            } finally {
+                lock.unlock();
+            }
+            if (dropped) {
+                droppedFlowHandler.dropped(operation.flow, operation.delete);
+            }
+        }
+
+        // Operations not committed because the worker was interrupted are
+        // queued again without counting an attempt
+        void restore(List<FlowOperation> operations) {
+            lock.lock();
+            try {
+                Segment segment = getFirstSegment();
+                for (FlowOperation operation : operations) {
+                    if (segment.operations.putIfAbsent(getKey(operation.flow), operation) == null) {
+                        queuedFlows++;
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        int size() {
+            lock.lock();
+            try {
+                return queuedFlows;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void close() {
+            lock.lock();
+            try {
+                closed = true;
+                notEmpty.signalAll();
+                notFull.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                Segment work;
+                while ((work = takeWork()) != null) {
+                    if (work.task != null) {
+                        runTask(work.task);
+                    } else {
+                        commitBatch(new ArrayList<>(work.operations.values()));
+                    }
+                }
+            } catch (InterruptedException e) {
+                LOG.warn("PartitionedFlowWriter: worker interrupted, {} flows queued", size());
+                Thread.currentThread().interrupt();
+            } finally {
+                // the next flows queued start a new worker, callers waiting
+                // for the queue to drain start it right away
+                lock.lock();
+                try {
+                    started = false;
+                    notFull.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+
+        // Returns either a batch of operations of the first segment, or its
+        // task once its operations are committed; null when closed and drained
+        private Segment takeWork() throws InterruptedException {
+            lock.lock();
+            try {
+                while (true) {
+                    if (!isolated.isEmpty()) {
+                        FlowOperation operation = isolated.removeFirst();
+                        Segment batch = new Segment();
+                        batch.operations.put(getKey(operation.flow), operation);
+                        queuedFlows--;
+                        notFull.signalAll();
+                        return batch;
+                    }
+                    Segment first = segments.peekFirst();
+                    if (first == null) {
+                        if (closed) {
+                            return null;
+                        }
+                        notEmpty.await();
+                        continue;
+                    }
+                    if (first.operations.isEmpty()) {
+                        segments.removeFirst();
+                        if (first.task != null) {
+                            return first;
+                        }
+                        continue;
+                    }
+                    Segment batch = new Segment();
+                    Iterator<Entry<FlowDetails, FlowOperation>> iterator = first.operations.entrySet().iterator();
+                    while (iterator.hasNext() && batch.operations.size() < MAX_BATCH_SIZE) {
+                        Entry<FlowDetails, FlowOperation> operation = iterator.next();
+                        batch.operations.put(operation.getKey(), operation.getValue());
+                        iterator.remove();
+                    }
+                    queuedFlows -= batch.operations.size();
+                    notFull.signalAll();
+                    return batch;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @SuppressWarnings("checkstyle:IllegalCatch")
+        private void runTask(Runnable task) {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                LOG.warn("PartitionedFlowWriter: task failed", e);
+            }
+        }
+
+        @SuppressWarnings("checkstyle:IllegalCatch")
+        private void commitBatch(List<FlowOperation> batch) throws InterruptedException {
+            List<FlowDetails> flowsToWrite = new ArrayList<>();
+            List<FlowDetails> flowsToDelete = new ArrayList<>();
+            for (FlowOperation operation : batch) {
+                (operation.delete ? flowsToDelete : flowsToWrite).add(operation.flow);
+            }
+
+            long start = System.nanoTime();
+            try {
+                committer.commit(flowsToWrite, flowsToDelete);
+                recordCommit(batch.size(), System.nanoTime() - start);
+                consecutiveFailures = 0;
+            } catch (InterruptedException e) {
+                restore(batch);
+                throw e;
+            } catch (ExecutionException | RuntimeException e) {
+                if (batch.size() > 1) {
+                    LOG.warn("PartitionedFlowWriter: commit of {} flows failed, retrying them one by one",
+                            batch.size(), e);
+                    isolate(batch);
+                    return;
+                }
+                consecutiveFailures++;
+                long backoffMillis = Math.min(MAX_BACKOFF_MILLIS,
+                        initialBackoffMillis << Math.min(consecutiveFailures - 1, 30));
+                FlowOperation operation = batch.get(0);
+                LOG.warn("PartitionedFlowWriter: commit of flow {} of node {} failed, retrying in {} ms",
+                        operation.flow.getFlowKey().getId().getValue(), operation.flow.getSffNodeName(),
+                        backoffMillis, e);
+                retry(operation);
+                TimeUnit.MILLISECONDS.sleep(backoffMillis);
+            }
+        }
+    }
+}
@@ -0,0 +1,241 @@
+/*
+ * Copyright (c) 2018 Ericsson Inc. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.sfc.util.openflow.writer;
+
+import com.google.common.collect.ImmutableSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import org.opendaylight.controller.md.sal.common.api.data.LogicalDatastoreType;
+import org.opendaylight.sfc.provider.api.SfcDataStoreAPI;
+import org.opendaylight.sfc.util.openflow.OpenflowConstants;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.FlowCapableNode;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.tables.Table;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.tables.table.Flow;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.tables.table.FlowKey;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.Nodes;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.nodes.Node;
+import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reconciles the flows installed in the CONFIGURATION inventory with the flows
+ * expected for the existing RSPs, on the renderer startup, when the flow writer
+ * has lost track of the flows of each RSP.
+ *
+ * <p>
+ * The flows are matched by SFF node, table and flow id, and compared with
+ * {@link #isSameFlow(Flow, Flow)}. Expected flows already installed unchanged
+ * are only recorded as owned by their RSP in the flow writer, the missing or
+ * changed ones are written, and the installed SFC flows not expected by any
+ * RSP are deleted. A flow is considered an SFC flow when its id starts with one
+ * of the names given to the flows by the SFC renderer, so flows of other
+ * applications sharing the tables are left untouched.
+ */
+public class SfcOfFlowReconciler {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SfcOfFlowReconciler.class);
+
+    private static final InstanceIdentifier<Nodes> NODES_IID = InstanceIdentifier.create(Nodes.class);
+
+    // First token of the ids of the flows written by the SFC renderer
+    private static final Set<String> SFC_FLOW_NAMES = ImmutableSet.of(
+            OpenflowConstants.OF_NAME_MATCH_ANY,
+            OpenflowConstants.OF_NAME_MATCH_ANY_DROP,
+            OpenflowConstants.OF_NAME_MATCH_ANY_RESUBMIT,
+            OpenflowConstants.OF_NAME_CLASS_DPDK_OUT,
+            OpenflowConstants.OF_NAME_CLASS_DPDK_IN,
+            OpenflowConstants.OF_NAME_TRANSPORT_INGRESS,
+            OpenflowConstants.OF_NAME_TRANSPORT_INGRESS_NSH,
+            OpenflowConstants.OF_NAME_TRANSPORT_INGRESS_ETH_NSH,
+            OpenflowConstants.OF_NAME_TRANSPORT_INGRESS_ARP,
+            OpenflowConstants.OF_NAME_TRANSPORT_INGRESS_MAC,
+            OpenflowConstants.OF_NAME_TRANSPORT_INGRESS_MPLS,
+            OpenflowConstants.OF_NAME_TRANSPORT_INGRESS_TCP,
+            OpenflowConstants.OF_NAME_TRANSPORT_INGRESS_UDP,
+            OpenflowConstants.OF_NAME_TRANSPORT_INGRESS_VLAN,
+            OpenflowConstants.OF_NAME_PATH_MAPPER,
+            OpenflowConstants.OF_NAME_PATH_MAPPER_ACL,
+            OpenflowConstants.OF_NAME_NEXT_HOP,
+            OpenflowConstants.OF_NAME_TRANSPORT_EGRESS,
+            OpenflowConstants.OF_NAME_LASTHOP_TRANSPORT_EGRESS,
+            OpenflowConstants.OF_NAME_APPCOEXIST_TRANSPORT_EGRESS,
+            OpenflowConstants.OF_NAME_SF_LOOPBACK_INGRESS,
+            OpenflowConstants.OF_NAME_SF_LOOPBACK_EGRESS);
+
+    private final SfcOfFlowWriterInterface flowWriter;
+
+    public SfcOfFlowReconciler(SfcOfFlowWriterInterface flowWriter) {
+        this.flowWriter = flowWriter;
+    }
+
+    /**
+     * Reconcile the installed flows with the expected ones, pushing only the
+     * difference to the data store.
+     *
+     * @param expectedFlows
+     *            the flows of all the existing RSPs, with the ID of their RSP
+     * @return the result of the reconciliation
+     */
+    public ReconciliationResult reconcile(Collection<FlowDetails> expectedFlows) {
+        long start = System.nanoTime();
+        ReconciliationResult result = compare(expectedFlows, readInstalledFlows());
+
+        flowWriter.storeFlowDetails(result.getUnchangedFlows());
+        flowWriter.flushFlows(result.getFlowsToWrite());
+        flowWriter.removeFlows(result.getFlowsToDelete());
+        flowWriter.deleteFlowSet();
+
+        LOG.info("reconcile: {} flows unchanged, {} flows written, {} flows deleted in {} ms",
+                result.getUnchangedFlows().size(), result.getFlowsToWrite().size(),
+                result.getFlowsToDelete().size(), (System.nanoTime() - start) / 1000000);
+        return result;
+    }
+
+    /**
+     * Compare the installed flows with the expected ones.
+     *
+     * @param expectedFlows
+     *            the flows of all the existing RSPs
+     * @param installedFlows
+     *            the flows installed in the data store
+     * @return the result of the comparison
+     */
+    public ReconciliationResult compare(Collection<FlowDetails> expectedFlows,
+            Collection<FlowDetails> installedFlows) {
+        // (SFF node, table, flow id) -> installed flow
+        Map<FlowDetails, Flow> installedFlowsByKey = new HashMap<>(installedFlows.size() * 4 / 3 + 1);
+        installedFlows.forEach(flow -> installedFlowsByKey.put(getKey(flow), flow.getFlow()));
+
+        List<FlowDetails> unchangedFlows = new ArrayList<>();
+        List<FlowDetails> flowsToWrite = new ArrayList<>();
+        Set<FlowDetails> expectedKeys = new HashSet<>(expectedFlows.size() * 4 / 3 + 1);
+        for (FlowDetails expectedFlow : expectedFlows) {
+            FlowDetails key = getKey(expectedFlow);
+            expectedKeys.add(key);
+            Flow installedFlow = installedFlowsByKey.get(key);
+            if (installedFlow != null && isSameFlow(installedFlow, expectedFlow.getFlow())) {
+                unchangedFlows.add(expectedFlow);
+            } else {
+                flowsToWrite.add(expectedFlow);
+            }
+        }
+
+        List<FlowDetails> flowsToDelete = new ArrayList<>();
+        installedFlowsByKey.keySet().stream()
+                .filter(key -> !expectedKeys.contains(key) && isSfcFlow(key.getFlowKey()))
+                .forEach(flowsToDelete::add);
+
+        return new ReconciliationResult(unchangedFlows, flowsToWrite, flowsToDelete);
+    }
+
+    /**
+     * Read the flows of all the nodes from the CONFIGURATION inventory.
+     *
+     * @return the installed flows, not owned by any RSP yet
+     */
+    public List<FlowDetails> readInstalledFlows() {
+        List<FlowDetails> installedFlows = new ArrayList<>();
+        Nodes nodes = SfcDataStoreAPI.readTransactionAPI(NODES_IID, LogicalDatastoreType.CONFIGURATION);
+        if (nodes == null || nodes.getNode() == null) {
+            return installedFlows;
+        }
+
+        for (Node node : nodes.getNode()) {
+            FlowCapableNode flowCapableNode = node.augmentation(FlowCapableNode.class);
+            if (flowCapableNode == null || flowCapableNode.getTable() == null) {
+                continue;
+            }
+            String sffNodeName = node.getId().getValue();
+            for (Table table : flowCapableNode.getTable()) {
+                if (table.getFlow() == null) {
+                    continue;
+                }
+                table.getFlow().forEach(flow -> installedFlows.add(
+                        new FlowDetails(sffNodeName, flow.key(), table.key(), flow, null)));
+            }
+        }
+        LOG.debug("readInstalledFlows: read {} flows", installedFlows.size());
+        return installedFlows;
+    }
+
+    /**
+     * Check whether a flow was written by the SFC renderer, given its id.
+     *
+     * @param flowKey
+     *            the flow key
+     * @return true if the flow is an SFC flow
+     */
+    public static boolean isSfcFlow(FlowKey flowKey) {
+        String flowId = flowKey.getId().getValue();
+        int end = flowId.indexOf(OpenflowConstants.OF_NAME_DELIMITER);
+        return SFC_FLOW_NAMES.contains(end < 0 ? flowId : flowId.substring(0, end));
+    }
+
+    /**
+     * Check whether an installed flow behaves as the expected one. Only the
+     * match, the instructions, the priority and the cookie are compared: the
+     * other attributes of the flows, like their name or timeouts, do not
+     * change the way the packets are handled or the RSP owning the flow.
+     *
+     * @param installedFlow
+     *            the installed flow
+     * @param expectedFlow
+     *            the expected flow
+     * @return true if the installed flow does not need to be written again
+     */
+    public static boolean isSameFlow(Flow installedFlow, Flow expectedFlow) {
+        return Objects.equals(installedFlow.getMatch(), expectedFlow.getMatch())
+                && Objects.equals(installedFlow.getInstructions(), expectedFlow.getInstructions())
+                && Objects.equals(installedFlow.getPriority(), expectedFlow.getPriority())
+                && Objects.equals(installedFlow.getCookie(), expectedFlow.getCookie());
+    }
+
+    private static FlowDetails getKey(FlowDetails flow) {
+        return new FlowDetails(flow.getSffNodeName(), flow.getFlowKey(), flow.getTableKey());
+    }
+
+    /**
+     * The flows to write and delete found by a reconciliation.
+     */
+    public static final class ReconciliationResult {
+        private final List<FlowDetails> unchangedFlows;
+        private final List<FlowDetails> flowsToWrite;
+        private final List<FlowDetails> flowsToDelete;
+
+        ReconciliationResult(List<FlowDetails> unchangedFlows, List<FlowDetails> flowsToWrite,
+                List<FlowDetails> flowsToDelete) {
+            this.unchangedFlows = Collections.unmodifiableList(unchangedFlows);
+            this.flowsToWrite = Collections.unmodifiableList(flowsToWrite);
+            this.flowsToDelete = Collections.unmodifiableList(flowsToDelete);
+        }
+
+        // Expected flows already installed
+        public List<FlowDetails> getUnchangedFlows() {
+            return unchangedFlows;
+        }
+
+        // Expected flows missing or differing from the installed ones
+        public List<FlowDetails> getFlowsToWrite() {
+            return flowsToWrite;
+        }
+
+        // Installed SFC flows not expected by any RSP
+        public List<FlowDetails> getFlowsToDelete() {
+            return flowsToDelete;
+        }
+    }
+}
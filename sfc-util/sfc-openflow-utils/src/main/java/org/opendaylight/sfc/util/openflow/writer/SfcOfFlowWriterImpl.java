@@ -9,8 +9,12 @@
 package org.opendaylight.sfc.util.openflow.writer;
 
 import com.google.common.eventbus.EventBus;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.MoreExecutors;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -22,25 +26,41 @@ import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import org.opendaylight.controller.md.sal.binding.api.DataBroker;
+import org.opendaylight.controller.md.sal.binding.api.ReadWriteTransaction;
 import org.opendaylight.controller.md.sal.binding.api.WriteTransaction;
 import org.opendaylight.controller.md.sal.common.api.data.LogicalDatastoreType;
+import org.opendaylight.controller.md.sal.common.api.data.ReadFailedException;
 import org.opendaylight.sfc.provider.api.SfcDataStoreAPI;
 import org.opendaylight.sfc.util.openflow.OpenflowConstants;
+import org.opendaylight.sfc.util.openflow.SfcOpenflowCookie;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.FlowCapableNode;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.tables.TableKey;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.tables.table.FlowBuilder;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.tables.table.FlowKey;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.service.rev130819.RemoveFlowInput;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.service.rev130819.RemoveFlowInputBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.service.rev130819.RemoveFlowOutput;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.service.rev130819.SalFlowService;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.group.types.rev131018.BucketId;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.group.types.rev131018.GroupId;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.group.types.rev131018.group.Buckets;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.group.types.rev131018.group.buckets.Bucket;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.group.types.rev131018.group.buckets.BucketBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.group.types.rev131018.group.buckets.BucketKey;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.group.types.rev131018.groups.Group;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.group.types.rev131018.groups.GroupBuilder;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.group.types.rev131018.groups.GroupKey;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.NodeId;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.NodeRef;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.Nodes;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.nodes.Node;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.nodes.NodeKey;
 import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
+import org.opendaylight.yangtools.yang.common.RpcResult;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -57,11 +77,18 @@ import org.slf4j.LoggerFactory;
 
 public class SfcOfFlowWriterImpl implements SfcOfFlowWriterInterface {
     private static final long SHUTDOWN_TIME = 5;
+    // seconds a flow removal may hold the writes to its switch
+    private static final long REMOVE_FLOW_TIMEOUT = 5;
     private static final String LOGSTR_THREAD_EXCEPTION = "Exception executing Thread: {}";
     private static final Logger LOG = LoggerFactory.getLogger(SfcOfFlowWriterImpl.class);
+    // OpenFlow table id selecting all the tables
+    private static final short OFPTT_ALL = 0xFF;
 
     private final ExecutorService threadPoolExecutorService;
 
+    // Writes the flows to the data store unless the transaction is shared
+    private final PartitionedFlowWriter partitionedFlowWriter;
+
     private FlowBuilder flowBuilder;
 
     // Store all flows associated w/ each rendered service path,
@@ -75,14 +102,24 @@ public class SfcOfFlowWriterImpl implements SfcOfFlowWriterInterface {
     // flushFlows() is called
     private final Set<FlowDetails> setOfFlowsToAdd;
 
-    private DataBroker dataProvider;
+    private volatile DataBroker dataProvider;
+
+    private SalFlowService salFlowService;
 
     private WriteTransaction tx;
 
+    // Whether the transaction is shared with other writers, through
+    // injectTransaction() or the transaction listeners. Flows are then
+    // written through the shared transaction instead of the partitioned
+    // writer.
+    private volatile boolean transactionShared;
+
     private final EventBus eventBus;
 
     public SfcOfFlowWriterImpl() {
         this.threadPoolExecutorService = Executors.newSingleThreadExecutor();
+        this.partitionedFlowWriter = new PartitionedFlowWriter((flowsToWrite, flowsToDelete) ->
+                new FlowSetUpdaterTask(dataProvider, flowsToWrite, flowsToDelete).submit(), this::releaseDroppedFlow);
         this.rspNameToFlowsMap = new ConcurrentHashMap<>();
         this.flowBuilder = null;
         this.setOfFlowsToDelete = new HashSet<>();
@@ -100,8 +137,31 @@ public class SfcOfFlowWriterImpl implements SfcOfFlowWriterInterface {
         dataProvider = dataBroker;
     }
 
+    /**
+     * Set the service used to remove all the flows of an RSP from a switch at
+     * once, matching their cookie. When not set, the flows are only removed
+     * one by one through the data store.
+     *
+     * @param flowService
+     *            the flow RPC service
+     */
+    public void setSalFlowService(SalFlowService flowService) {
+        salFlowService = flowService;
+    }
+
+    /**
+     * Get the writer partitioned by SFF node used to write the flows, mainly
+     * to read its metrics.
+     *
+     * @return the partitioned flow writer
+     */
+    public PartitionedFlowWriter getPartitionedFlowWriter() {
+        return partitionedFlowWriter;
+    }
+
     @Override
     public void injectTransaction(WriteTransaction theTx) {
+        transactionShared = true;
         tx = theTx;
         eventBus.post(tx);
     }
@@ -119,6 +179,10 @@ public class SfcOfFlowWriterImpl implements SfcOfFlowWriterInterface {
     @Override
     public void shutdown() throws ExecutionException, InterruptedException {
         // When we close this service we need to shutdown our executor!
+        int unwrittenFlows = partitionedFlowWriter.shutdown(SHUTDOWN_TIME, TimeUnit.SECONDS);
+        if (unwrittenFlows > 0) {
+            LOG.error("SfcOfFlowProgrammerImpl [{}] flows will not be written.", unwrittenFlows);
+        }
         threadPoolExecutorService.shutdown();
         if (!threadPoolExecutorService.awaitTermination(SHUTDOWN_TIME, TimeUnit.SECONDS)) {
             LOG.error("SfcOfFlowProgrammerImpl Executor did not terminate in the specified time.");
@@ -130,6 +194,7 @@ public class SfcOfFlowWriterImpl implements SfcOfFlowWriterInterface {
 
     @Override
     public void registerTransactionListener(Object interestedParty) {
+        transactionShared = true;
         eventBus.register(interestedParty);
     }
 
@@ -155,11 +220,12 @@ public class SfcOfFlowWriterImpl implements SfcOfFlowWriterInterface {
         LOG.debug("writeFlow storing flow to Node {}, table {}", sffNodeName, flow.getTableId());
 
         // Add the flow to the set of flows to be added in a single transaction
-        setOfFlowsToAdd.add(new FlowDetails(sffNodeName, flow.key(), new TableKey(flow.getTableId()),
-                flowBuilder.build(), rspId));
+        FlowDetails flowDetails = new FlowDetails(sffNodeName, flow.key(), new TableKey(flow.getTableId()),
+                flowBuilder.build(), rspId);
+        setOfFlowsToAdd.add(flowDetails);
 
         // This will store the flow info and rspId for removal later
-        storeFlowDetails(rspId, sffNodeName, flow.key(), flow.getTableId());
+        storeFlowDetails(flowDetails);
     }
 
     @Override
@@ -170,14 +236,12 @@ public class SfcOfFlowWriterImpl implements SfcOfFlowWriterInterface {
         // Add the flow to the set of flows to be added in a single transaction
         setOfFlowsToAdd.add(theFlowData);
 
-        storeFlowDetails(theFlowData.getRspId(), theFlowData.getSffNodeName(), theFlowData.getFlowKey(),
-                theFlowData.getTableKey().getId());
+        storeFlowDetails(theFlowData);
     }
 
     @Override
     public boolean writeFlows(Collection<FlowDetails> theFlows) {
-        theFlows.forEach(flow -> storeFlowDetails(flow.getRspId(), flow.getSffNodeName(), flow.getFlowKey(),
-                flow.getTableKey().getId()));
+        storeFlowDetails(theFlows);
         return setOfFlowsToAdd.addAll(theFlows);
     }
 
@@ -216,6 +280,12 @@ public class SfcOfFlowWriterImpl implements SfcOfFlowWriterInterface {
             return;
         }
 
+        if (!transactionShared) {
+            partitionedFlowWriter.write(setOfFlowsToAdd);
+            setOfFlowsToAdd.clear();
+            return;
+        }
+
         FlowSetWriterTask writerThread = tx == null ? new FlowSetWriterTask(dataProvider, setOfFlowsToAdd)
                 : new FlowSetWriterTask(setOfFlowsToAdd, tx);
 
@@ -230,6 +300,128 @@ public class SfcOfFlowWriterImpl implements SfcOfFlowWriterInterface {
         setOfFlowsToAdd.clear();
     }
 
+    /**
+     * Write the given flows in their own transaction. Unlike flushFlows(), the
+     * shared set of flows to be added is not used, so callers rendering
+     * different RSPs in parallel do not interfere with each other.
+     *
+     * @param theFlows
+     *            the flows to write
+     */
+    @Override
+    @SuppressWarnings("checkstyle:IllegalCatch")
+    public void flushFlows(Collection<FlowDetails> theFlows) {
+        LOG.debug("flushFlows: creating flowWriter task, writing [{}] flows.", theFlows.size());
+
+        if (theFlows.isEmpty()) {
+            return;
+        }
+
+        storeFlowDetails(theFlows);
+        partitionedFlowWriter.write(theFlows);
+    }
+
+    @Override
+    public void storeFlowDetails(Collection<FlowDetails> theFlows) {
+        theFlows.forEach(this::storeFlowDetails);
+    }
+
+    /**
+     * Write and delete only the flows of an RSP that changed, compared with
+     * the flows the RSP owns. The flows of each SFF are queued together on the
+     * partitioned writer, so they are committed in the same transaction.
+     *
+     * @param rspId
+     *            the ID of the RSP
+     * @param theFlows
+     *            all the flows of the RSP, as rendered now
+     * @return the number of flows written or deleted
+     */
+    @Override
+    public int updateRspFlows(Long rspId, Collection<FlowDetails> theFlows) {
+        // SFF node name -> flows to write or delete
+        List<FlowDetails> flowsToWrite = new ArrayList<>();
+        List<FlowDetails> flowsToDelete = new ArrayList<>();
+
+        synchronized (rspNameToFlowsMap) {
+            // (SFF node, table, flow id) -> owned flow
+            Map<FlowDetails, FlowDetails> ownedFlows = new HashMap<>();
+            rspNameToFlowsMap.getOrDefault(rspId, Collections.emptyMap()).values()
+                    .forEach(flows -> flows.forEach(flow -> ownedFlows.put(getKey(flow), flow)));
+
+            Map<String, List<FlowDetails>> newOwnedFlows = new HashMap<>();
+            Set<FlowDetails> newFlowKeys = new HashSet<>();
+            for (FlowDetails flow : theFlows) {
+                newOwnedFlows.computeIfAbsent(flow.getSffNodeName(), k -> new ArrayList<>()).add(flow);
+                FlowDetails key = getKey(flow);
+                if (!newFlowKeys.add(key)) {
+                    // the same flow is written more than once by the RSP
+                    continue;
+                }
+                FlowDetails ownedFlow = ownedFlows.get(key);
+                if (ownedFlow == null || ownedFlow.getFlow() == null || !ownedFlow.getFlow().equals(flow.getFlow())) {
+                    flowsToWrite.add(flow);
+                }
+            }
+            for (Entry<FlowDetails, FlowDetails> ownedFlow : ownedFlows.entrySet()) {
+                if (!newFlowKeys.contains(ownedFlow.getKey())) {
+                    flowsToDelete.add(ownedFlow.getValue());
+                }
+            }
+
+            if (newOwnedFlows.isEmpty()) {
+                rspNameToFlowsMap.remove(rspId);
+            } else {
+                rspNameToFlowsMap.put(rspId, newOwnedFlows);
+            }
+        }
+
+        partitionedFlowWriter.delete(flowsToDelete);
+        partitionedFlowWriter.write(flowsToWrite);
+
+        LOG.debug("updateRspFlows: RSP [{}] {} flows written, {} flows deleted", rspId, flowsToWrite.size(),
+                flowsToDelete.size());
+        return flowsToWrite.size() + flowsToDelete.size();
+    }
+
+    private static FlowDetails getKey(FlowDetails flow) {
+        return PartitionedFlowWriter.getKey(flow);
+    }
+
+    /**
+     * A flow the partitioned writer gave up writing is no longer owned by its
+     * RSP, so the next update of the RSP writes it again. A flow given up
+     * deleting was already released by its RSP.
+     *
+     * @param flow
+     *            the flow given up
+     * @param delete
+     *            whether the flow was to be deleted
+     */
+    private void releaseDroppedFlow(FlowDetails flow, boolean delete) {
+        if (delete) {
+            LOG.error("releaseDroppedFlow: flow {} may be left on node {}", flow.getFlowKey().getId().getValue(),
+                    flow.getSffNodeName());
+            return;
+        }
+        synchronized (rspNameToFlowsMap) {
+            Map<String, List<FlowDetails>> flowsPerSff = rspNameToFlowsMap.get(flow.getRspId());
+            List<FlowDetails> flows = flowsPerSff == null ? null : flowsPerSff.get(flow.getSffNodeName());
+            // only if the RSP still owns this version of the flow
+            if (flows == null || !flows.remove(flow)) {
+                return;
+            }
+            if (flows.isEmpty()) {
+                flowsPerSff.remove(flow.getSffNodeName());
+            }
+            if (flowsPerSff.isEmpty()) {
+                rspNameToFlowsMap.remove(flow.getRspId());
+            }
+        }
+        LOG.warn("releaseDroppedFlow: flow {} of RSP [{}] on node {} no longer owned", flow.getFlowKey().getId()
+                .getValue(), flow.getRspId(), flow.getSffNodeName());
+    }
+
     /**
      * Purge any unwritten flows not written-deleted yet. This should be called
      * upon errors, when the remaining buffered flows should not be persisted
@@ -242,27 +434,20 @@ public class SfcOfFlowWriterImpl implements SfcOfFlowWriterInterface {
 
     /**
      * storeFlowDetails Store the flow details so the flows are easy to delete.
-     * later
+     * later. The flow itself is kept so that the flows of an RSP can be
+     * compared when the RSP is updated.
      *
-     * @param sffNodeName
-     *            - the SFF the flow is written to
-     * @param flowKey
-     *            - the flow key of the new flow
-     * @param tableId
-     *            - the table the flow was written to
+     * @param flowDetails
+     *            - the flow written, with the ID of its RSP
      */
-    private void storeFlowDetails(final Long rspId, final String sffNodeName, FlowKey flowKey, short tableId) {
-        LOG.debug("storeFlowDetails - gonna store rspId: {}, sffName: {}", rspId, sffNodeName);
-        if (!rspNameToFlowsMap.containsKey(rspId)) {
-            rspNameToFlowsMap.put(rspId, new HashMap<>());
+    private void storeFlowDetails(FlowDetails flowDetails) {
+        LOG.debug("storeFlowDetails - gonna store rspId: {}, sffName: {}", flowDetails.getRspId(),
+                flowDetails.getSffNodeName());
+        synchronized (rspNameToFlowsMap) {
+            rspNameToFlowsMap.computeIfAbsent(flowDetails.getRspId(), k -> new HashMap<>())
+                    .computeIfAbsent(flowDetails.getSffNodeName(), k -> new ArrayList<>())
+                    .add(flowDetails);
         }
-
-        if (!rspNameToFlowsMap.get(rspId).containsKey(sffNodeName)) {
-            rspNameToFlowsMap.get(rspId).put(sffNodeName, new ArrayList<>());
-        }
-
-        rspNameToFlowsMap.get(rspId).get(sffNodeName)
-                .add(new FlowDetails(sffNodeName, flowKey, new TableKey(tableId), rspId));
     }
 
     @Override
@@ -286,6 +471,52 @@ public class SfcOfFlowWriterImpl implements SfcOfFlowWriterInterface {
         }
     }
 
+    @Override
+    public void writeGroupBucketWeightsToDataStore(String sffNodeName, long groupId,
+            Map<Long, Integer> bucketWeights) {
+        InstanceIdentifier<Group> groupIID = InstanceIdentifier.builder(Nodes.class)
+                .child(Node.class, new NodeKey(new NodeId(sffNodeName))).augmentation(FlowCapableNode.class)
+                .child(Group.class, new GroupKey(new GroupId(groupId))).build();
+
+        // only the weight leaves are merged, the actions of the buckets are
+        // kept as they are. The weights are merged in the same transaction
+        // the group is read, so a group removed meanwhile is not re-created
+        // without its type and actions: the transaction then fails on commit.
+        ReadWriteTransaction rwTx = dataProvider.newReadWriteTransaction();
+        try {
+            if (!rwTx.read(LogicalDatastoreType.CONFIGURATION, groupIID).checkedGet().isPresent()) {
+                LOG.debug("Group {} on node {} does not exist, not writing the bucket weights", groupId,
+                        sffNodeName);
+                rwTx.cancel();
+                return;
+            }
+        } catch (ReadFailedException e) {
+            LOG.warn("Failed to read group {} on node {}, not writing the bucket weights", groupId, sffNodeName, e);
+            rwTx.cancel();
+            return;
+        }
+
+        for (Entry<Long, Integer> bucketWeight : bucketWeights.entrySet()) {
+            BucketKey bucketKey = new BucketKey(new BucketId(bucketWeight.getKey()));
+            Bucket bucket = new BucketBuilder().withKey(bucketKey).setWeight(bucketWeight.getValue()).build();
+            LOG.debug("about to write the weight of bucket {} of group {} on node {}: {}", bucketWeight.getKey(),
+                    groupId, sffNodeName, bucketWeight.getValue());
+            rwTx.merge(LogicalDatastoreType.CONFIGURATION, groupIID.child(Buckets.class).child(Bucket.class, bucketKey),
+                    bucket);
+        }
+        Futures.addCallback(rwTx.submit(), new FutureCallback<Void>() {
+            @Override
+            public void onSuccess(Void result) {
+                LOG.debug("Wrote the bucket weights of group {} on node {}", groupId, sffNodeName);
+            }
+
+            @Override
+            public void onFailure(Throwable throwable) {
+                LOG.warn("Failed to write the bucket weights of group {} to data store", groupId, throwable);
+            }
+        }, MoreExecutors.directExecutor());
+    }
+
     /**
      * Return the last flow builder Used mainly in Unit Testing.
      */
@@ -304,25 +535,102 @@ public class SfcOfFlowWriterImpl implements SfcOfFlowWriterInterface {
      */
     @Override
     public void deleteRspFlows(final Long rspId) {
-        if (!rspNameToFlowsMap.containsKey(rspId)) {
-            LOG.warn("deleteRspFlows() Attempting to delete RSP [{}], and it does not exist", rspId);
-            return;
+        List<FlowDetails> flowDetailsList = new ArrayList<>();
+        Set<String> sffNodeNames;
+        synchronized (rspNameToFlowsMap) {
+            if (!rspNameToFlowsMap.containsKey(rspId)) {
+                LOG.warn("deleteRspFlows() Attempting to delete RSP [{}], and it does not exist", rspId);
+                return;
+            }
+
+            sffNodeNames = new HashSet<>(rspNameToFlowsMap.get(rspId).keySet());
+            rspNameToFlowsMap.get(rspId).forEach((sffName, flowsPerSff) -> {
+                flowDetailsList.addAll(flowsPerSff);
+                flowsPerSff.clear();
+            });
+
+            if (flowDetailsList.isEmpty()) {
+                LOG.warn("deleteRspFlows() no flows exist for RSP [{}]", rspId);
+                return;
+            }
+
+            rspNameToFlowsMap.remove(rspId);
         }
+        setOfFlowsToDelete.addAll(flowDetailsList);
+        LOG.debug("deleteRspFlows() added {} flows to the delete list", setOfFlowsToDelete.size());
 
-        List<FlowDetails> flowDetailsList = new ArrayList<>();
-        rspNameToFlowsMap.get(rspId).forEach((sffName, flowsPerSff) -> {
-            flowDetailsList.addAll(flowsPerSff);
-            flowsPerSff.clear();
-        });
+        // The initialization flows are shared by the RSPs and have no RSP cookie
+        if (salFlowService != null && rspId != OpenflowConstants.SFC_FLOWS) {
+            removeRspFlowsFromSwitches(rspId, sffNodeNames);
+        }
+    }
 
-        if (flowDetailsList.isEmpty()) {
-            LOG.warn("deleteRspFlows() no flows exist for RSP [{}]", rspId);
+    /**
+     * Remove all the flows of an RSP from its switches with a single flow
+     * removal per switch, matching the RSP cookie.
+     *
+     * <p>
+     * This does not replace the deletion of the flows from the config data
+     * store by {@link #deleteFlowSet()}: the forwarding rules manager
+     * reconciles the switches with the config data store, so flows left there
+     * would be installed again on the next reconciliation, and the data store
+     * has no cookie-masked delete. The removal takes the RSP off the switches
+     * in one flow mod each, without waiting for the forwarding rules manager
+     * to remove the flows one by one, which then finds them already gone. It
+     * also removes the flows of the RSP the data store does not know about,
+     * like the ones left on a switch by an earlier run of the renderer.
+     *
+     * <p>
+     * The removals are run in order with the flows written, on the worker of
+     * each switch or on the executor of the shared transactions, so they do
+     * not remove the flows written afterwards by an RSP reusing the path id.
+     *
+     * @param rspId
+     *            the path id of the RSP
+     * @param sffNodeNames
+     *            the SFF nodes having flows of the RSP
+     */
+    @SuppressWarnings("checkstyle:IllegalCatch")
+    private void removeRspFlowsFromSwitches(long rspId, Set<String> sffNodeNames) {
+        if (!transactionShared) {
+            sffNodeNames.forEach(sffNodeName -> partitionedFlowWriter.execute(sffNodeName,
+                () -> removeRspFlowsFromSwitch(rspId, sffNodeName)));
             return;
         }
 
-        rspNameToFlowsMap.remove(rspId);
-        setOfFlowsToDelete.addAll(flowDetailsList);
-        LOG.debug("deleteRspFlows() added {} flows to the delete list", setOfFlowsToDelete.size());
+        try {
+            threadPoolExecutorService.execute(
+                () -> sffNodeNames.forEach(sffNodeName -> removeRspFlowsFromSwitch(rspId, sffNodeName)));
+        } catch (Exception ex) {
+            LOG.error(LOGSTR_THREAD_EXCEPTION, ex.toString(), ex);
+        }
+    }
+
+    private void removeRspFlowsFromSwitch(long rspId, String sffNodeName) {
+        InstanceIdentifier<Node> nodeIid = InstanceIdentifier.create(Nodes.class)
+                .child(Node.class, new NodeKey(new NodeId(sffNodeName)));
+        RemoveFlowInput input = new RemoveFlowInputBuilder()
+                .setNode(new NodeRef(nodeIid))
+                .setTableId(OFPTT_ALL)
+                .setCookie(SfcOpenflowCookie.toFlowCookie(SfcOpenflowCookie.buildRspCookie(rspId)))
+                .setCookieMask(SfcOpenflowCookie.toFlowCookie(SfcOpenflowCookie.RSP_COOKIE_MASK))
+                .setStrict(false)
+                .build();
+        try {
+            RpcResult<RemoveFlowOutput> result = salFlowService.removeFlow(input)
+                    .get(REMOVE_FLOW_TIMEOUT, TimeUnit.SECONDS);
+            if (!result.isSuccessful()) {
+                LOG.warn("removeRspFlowsFromSwitch() failed removing the flows of RSP [{}] from [{}]: {}",
+                        rspId, sffNodeName, result.getErrors());
+            }
+        } catch (InterruptedException e) {
+            LOG.warn("removeRspFlowsFromSwitch() interrupted removing the flows of RSP [{}] from [{}]",
+                    rspId, sffNodeName);
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            LOG.warn("removeRspFlowsFromSwitch() failed removing the flows of RSP [{}] from [{}]",
+                    rspId, sffNodeName, e);
+        }
     }
 
     @Override
@@ -333,6 +641,13 @@ public class SfcOfFlowWriterImpl implements SfcOfFlowWriterInterface {
         if (setOfFlowsToDelete.isEmpty()) {
             return;
         }
+
+        if (!transactionShared) {
+            partitionedFlowWriter.delete(setOfFlowsToDelete);
+            setOfFlowsToDelete.clear();
+            return;
+        }
+
         FlowSetRemoverTask fsrt = tx == null ? new FlowSetRemoverTask(dataProvider, setOfFlowsToDelete)
                 : new FlowSetRemoverTask(setOfFlowsToDelete, tx);
 
@@ -358,27 +673,31 @@ public class SfcOfFlowWriterImpl implements SfcOfFlowWriterInterface {
     public Set<NodeId> clearSffsIfNoRspExists() {
         Set<NodeId> sffNodeIDs = new HashSet<>();
 
-        if (!rspNameToFlowsMap.containsKey(OpenflowConstants.SFC_FLOWS)) {
-            LOG.warn("clearSffsIfNoRspExists() - Attempting to delete initialization flows, and they do not exist");
-            return sffNodeIDs;
-        }
+        synchronized (rspNameToFlowsMap) {
+            if (!rspNameToFlowsMap.containsKey(OpenflowConstants.SFC_FLOWS)) {
+                LOG.warn("clearSffsIfNoRspExists() - Attempting to delete initialization flows, "
+                        + "and they do not exist");
+                return sffNodeIDs;
+            }
 
-        Map<String, List<FlowDetails>> theInitializationFlows = rspNameToFlowsMap.get(OpenflowConstants.SFC_FLOWS);
+            Map<String, List<FlowDetails>> theInitializationFlows = rspNameToFlowsMap
+                    .get(OpenflowConstants.SFC_FLOWS);
 
-        // an orphan SFF is a forwarder not featured in any RSP
-        Predicate<String> isOrphanSff = sffName -> this.timesFeaturedInRsps(sffName) == 1;
+            // an orphan SFF is a forwarder not featured in any RSP
+            Predicate<String> isOrphanSff = sffName -> this.timesFeaturedInRsps(sffName) == 1;
 
-        Set<String> orphanSffs = theInitializationFlows.entrySet().stream().map(Entry::getKey).filter(isOrphanSff)
-                .collect(Collectors.toSet());
+            Set<String> orphanSffs = theInitializationFlows.entrySet().stream().map(Entry::getKey)
+                    .filter(isOrphanSff).collect(Collectors.toSet());
 
-        orphanSffs.forEach(sffName -> {
-            // mark this SFF as orphan
-            sffNodeIDs.add(new NodeId(sffName));
-            // mark the set of flows to remove from the switches
-            setOfFlowsToDelete.addAll(theInitializationFlows.get(sffName));
-            // delete the cache of initialization flows of orphan SFFs
-            theInitializationFlows.remove(sffName);
-        });
+            orphanSffs.forEach(sffName -> {
+                // mark this SFF as orphan
+                sffNodeIDs.add(new NodeId(sffName));
+                // mark the set of flows to remove from the switches
+                setOfFlowsToDelete.addAll(theInitializationFlows.get(sffName));
+                // delete the cache of initialization flows of orphan SFFs
+                theInitializationFlows.remove(sffName);
+            });
+        }
 
         return sffNodeIDs;
     }
@@ -9,6 +9,7 @@
 package org.opendaylight.sfc.util.openflow.writer;
 
 import java.util.Collection;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
 import org.opendaylight.controller.md.sal.binding.api.WriteTransaction;
@@ -55,6 +56,19 @@ public interface SfcOfFlowWriterInterface {
     // Write group to MD-SAL datastore
     void writeGroupToDataStore(String sffNodeName, GroupBuilder gb, boolean isAdd);
 
+    /**
+     * Update the weights of some buckets of a group, leaving the rest of the
+     * group as it is.
+     *
+     * @param sffNodeName
+     *            the openflow node name of the group
+     * @param groupId
+     *            the group id
+     * @param bucketWeights
+     *            the new weights, by bucket id
+     */
+    void writeGroupBucketWeightsToDataStore(String sffNodeName, long groupId, Map<Long, Integer> bucketWeights);
+
     /**
      * Delete all flows created for a particular RSP.
      *
@@ -77,6 +91,37 @@ public interface SfcOfFlowWriterInterface {
     // Flush any flows that havent been written to the data store yet
     void flushFlows();
 
+    /**
+     * Write the given flows to the data store in a single transaction of
+     * their own, without going through the buffered flows. It may be called
+     * concurrently from several threads.
+     *
+     * @param theFlows
+     *            the flows to write
+     */
+    void flushFlows(Collection<FlowDetails> theFlows);
+
+    /**
+     * Record the RSP owning each of the given flows, without writing them.
+     * Used for flows found already installed when reconciling.
+     *
+     * @param theFlows
+     *            the installed flows, with the ID of the RSP owning them
+     */
+    void storeFlowDetails(Collection<FlowDetails> theFlows);
+
+    /**
+     * Bring the flows of an RSP to the given flows, writing and deleting only
+     * the flows differing from the ones the RSP owns.
+     *
+     * @param rspId
+     *            the ID of the RSP
+     * @param theFlows
+     *            all the flows of the RSP
+     * @return the number of flows written or deleted
+     */
+    int updateRspFlows(Long rspId, Collection<FlowDetails> theFlows);
+
     // Performs the deletion of any flows that havent been deleted from the data
     // store yet
     void deleteFlowSet();
@@ -0,0 +1,195 @@
+/*
+ * Copyright (c) 2018 Ericsson Inc. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.sfc.util.openflow.writer;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.opendaylight.controller.md.sal.binding.api.WriteTransaction;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.tables.TableKey;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.tables.table.FlowBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.tables.table.FlowKey;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.group.types.rev131018.groups.GroupBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.NodeId;
+
+/**
+ * Flow writer holding the flows of a single RSP while it is being rendered.
+ *
+ * <p>
+ * The flows are kept in memory, grouped by SFF node, until they are flushed
+ * to the shared flow writer, one SFF node at a time if needed. Everything not
+ * related to adding flows is delegated to the shared flow writer. An instance
+ * is meant to be used by a single thread.
+ */
+public class SfcOfRspFlowWriter implements SfcOfFlowWriterInterface {
+
+    private final SfcOfFlowWriterInterface sharedFlowWriter;
+
+    // SFF node name -> flows to be added
+    private final Map<String, List<FlowDetails>> flowsToAdd = new LinkedHashMap<>();
+
+    private FlowBuilder flowBuilder;
+
+    public SfcOfRspFlowWriter(SfcOfFlowWriterInterface sharedFlowWriter) {
+        this.sharedFlowWriter = sharedFlowWriter;
+    }
+
+    /**
+     * Get the SFF nodes having flows waiting to be flushed.
+     *
+     * @return the SFF node names
+     */
+    public Set<String> getSffNodeNames() {
+        return Collections.unmodifiableSet(flowsToAdd.keySet());
+    }
+
+    /**
+     * Get the flows waiting to be flushed, of all the SFF nodes.
+     *
+     * @return the flows
+     */
+    public List<FlowDetails> getFlows() {
+        List<FlowDetails> flows = new ArrayList<>();
+        flowsToAdd.values().forEach(flows::addAll);
+        return flows;
+    }
+
+    /**
+     * Hand the flows of one SFF node to the shared flow writer.
+     *
+     * @param sffNodeName
+     *            the SFF node name
+     */
+    public void flushFlows(String sffNodeName) {
+        List<FlowDetails> flows = flowsToAdd.remove(sffNodeName);
+        if (flows != null) {
+            sharedFlowWriter.flushFlows(flows);
+        }
+    }
+
+    @Override
+    public void writeFlow(Long rspId, String sffNodeName, FlowBuilder flow) {
+        this.flowBuilder = flow;
+        writeFlow(new FlowDetails(sffNodeName, flow.key(), new TableKey(flow.getTableId()), flow.build(), rspId));
+    }
+
+    @Override
+    public void writeFlow(FlowDetails theFlowData) {
+        flowsToAdd.computeIfAbsent(theFlowData.getSffNodeName(), k -> new ArrayList<>()).add(theFlowData);
+    }
+
+    @Override
+    public boolean writeFlows(Collection<FlowDetails> theFlows) {
+        theFlows.forEach(this::writeFlow);
+        return !theFlows.isEmpty();
+    }
+
+    @Override
+    public void flushFlows() {
+        new ArrayList<>(flowsToAdd.keySet()).forEach(this::flushFlows);
+    }
+
+    @Override
+    public void flushFlows(Collection<FlowDetails> theFlows) {
+        sharedFlowWriter.flushFlows(theFlows);
+    }
+
+    @Override
+    public void storeFlowDetails(Collection<FlowDetails> theFlows) {
+        sharedFlowWriter.storeFlowDetails(theFlows);
+    }
+
+    @Override
+    public int updateRspFlows(Long rspId, Collection<FlowDetails> theFlows) {
+        return sharedFlowWriter.updateRspFlows(rspId, theFlows);
+    }
+
+    @Override
+    public void purgeFlows() {
+        flowsToAdd.clear();
+    }
+
+    @Override
+    public FlowBuilder getFlowBuilder() {
+        return flowBuilder;
+    }
+
+    @Override
+    public void injectTransaction(WriteTransaction theTx) {
+        sharedFlowWriter.injectTransaction(theTx);
+    }
+
+    @Override
+    public void updateTransactionObject() {
+        sharedFlowWriter.updateTransactionObject();
+    }
+
+    @Override
+    public void registerTransactionListener(Object interestedParty) {
+        sharedFlowWriter.registerTransactionListener(interestedParty);
+    }
+
+    @Override
+    public void deregisterTransactionListener(Object interestedParty) {
+        sharedFlowWriter.deregisterTransactionListener(interestedParty);
+    }
+
+    @Override
+    public void removeFlow(String sffNodeName, FlowKey flowKey, TableKey tableKey) {
+        sharedFlowWriter.removeFlow(sffNodeName, flowKey, tableKey);
+    }
+
+    @Override
+    public void removeFlow(FlowDetails theFlowData) {
+        sharedFlowWriter.removeFlow(theFlowData);
+    }
+
+    @Override
+    public boolean removeFlows(Collection<FlowDetails> theFlows) {
+        return sharedFlowWriter.removeFlows(theFlows);
+    }
+
+    @Override
+    public void writeGroupToDataStore(String sffNodeName, GroupBuilder gb, boolean isAdd) {
+        sharedFlowWriter.writeGroupToDataStore(sffNodeName, gb, isAdd);
+    }
+
+    @Override
+    public void writeGroupBucketWeightsToDataStore(String sffNodeName, long groupId,
+            Map<Long, Integer> bucketWeights) {
+        sharedFlowWriter.writeGroupBucketWeightsToDataStore(sffNodeName, groupId, bucketWeights);
+    }
+
+    @Override
+    public void deleteRspFlows(Long rspId) {
+        sharedFlowWriter.deleteRspFlows(rspId);
+    }
+
+    @Override
+    public Set<NodeId> clearSffsIfNoRspExists() {
+        return sharedFlowWriter.clearSffsIfNoRspExists();
+    }
+
+    @Override
+    public void deleteFlowSet() {
+        sharedFlowWriter.deleteFlowSet();
+    }
+
+    /**
+     * The shared flow writer is shut down by its owner, not by the writers of
+     * the RSPs.
+     */
+    @Override
+    public void shutdown() {
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2018 Ericsson Inc. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.sfc.util.openflow;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigInteger;
+import org.junit.Test;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.types.rev131026.FlowCookie;
+
+public class SfcOpenflowCookieTest {
+
+    @Test
+    public void testBuild() {
+        long cookie = SfcOpenflowCookie.build((short) 10, 0x0203, 0xFFFFFFFFL);
+
+        assertTrue(SfcOpenflowCookie.isSfcCookie(cookie));
+        assertTrue(cookie > 0);
+        assertEquals(10, SfcOpenflowCookie.getTableIndex(cookie));
+        assertEquals(0x0203, SfcOpenflowCookie.getFlowKind(cookie));
+        assertEquals(0xFFFFFFFFL, SfcOpenflowCookie.getPathId(cookie));
+    }
+
+    @Test
+    public void testRspCookie() {
+        long cookie = SfcOpenflowCookie.build((short) 4, 0, 42);
+
+        assertTrue(SfcOpenflowCookie.isRspCookie(cookie, 42));
+        assertFalse(SfcOpenflowCookie.isRspCookie(cookie, 43));
+        assertEquals(SfcOpenflowCookie.buildRspCookie(42), cookie & SfcOpenflowCookie.RSP_COOKIE_MASK);
+        // a cookie of another application with the same low bits
+        assertFalse(SfcOpenflowCookie.isRspCookie(42, 42));
+    }
+
+    @Test
+    public void testInitFlowCookie() {
+        long cookie = SfcOpenflowCookie.build((short) 1, 0, OpenflowConstants.SFC_FLOWS);
+
+        assertTrue(SfcOpenflowCookie.isInitFlowCookie(cookie));
+        // the path id is unsigned, unlike the sign extended constant
+        assertEquals(OpenflowConstants.SFC_FLOWS & 0xFFFFFFFFL, SfcOpenflowCookie.getPathId(cookie));
+        assertFalse(SfcOpenflowCookie.isInitFlowCookie(SfcOpenflowCookie.build((short) 1, 0, 42)));
+    }
+
+    @Test
+    public void testFlowCookie() {
+        long cookie = SfcOpenflowCookie.build((short) 2, 1, 7);
+
+        assertEquals(cookie, SfcOpenflowCookie.getValue(SfcOpenflowCookie.toFlowCookie(cookie)));
+        assertEquals(0, SfcOpenflowCookie.getValue(null));
+        assertEquals(0, SfcOpenflowCookie.getValue(new FlowCookie(new BigInteger("FFFFFFFFFFFFFFFF", 16))));
+        assertFalse(SfcOpenflowCookie.isSfcCookie(SfcOpenflowCookie.getValue(new FlowCookie(BigInteger.TEN))));
+    }
+}
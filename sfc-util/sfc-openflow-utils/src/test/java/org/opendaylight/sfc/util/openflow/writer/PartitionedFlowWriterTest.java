@@ -0,0 +1,274 @@
+/*
+ * Copyright (c) 2018 Ericsson Inc. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.sfc.util.openflow.writer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.Assert;
+import org.junit.Test;
+import org.opendaylight.sfc.util.openflow.SfcOpenflowUtils;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.tables.TableKey;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.tables.table.FlowBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.types.rev131026.flow.InstructionsBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.types.rev131026.flow.MatchBuilder;
+
+public class PartitionedFlowWriterTest {
+
+    private static final short TABLE_ID = 2;
+    private static final long TIMEOUT_SECONDS = 10;
+
+    @Test
+    public void testMergeQueuedFlows() throws Exception {
+        CountDownLatch firstCommitStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirstCommit = new CountDownLatch(1);
+        List<FlowDetails> written = Collections.synchronizedList(new ArrayList<>());
+        List<FlowDetails> deleted = Collections.synchronizedList(new ArrayList<>());
+        PartitionedFlowWriter writer = new PartitionedFlowWriter((flowsToWrite, flowsToDelete) -> {
+            firstCommitStarted.countDown();
+            releaseFirstCommit.await();
+            written.addAll(flowsToWrite);
+            deleted.addAll(flowsToDelete);
+        }, 1, 100, 1);
+
+        // keep the worker busy, so the next flows stay queued
+        writer.write(Collections.singletonList(buildFlow("openflow:1", 0, 1)));
+        Assert.assertTrue(firstCommitStarted.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+        writer.write(Collections.singletonList(buildFlow("openflow:1", 1, 1)));
+        writer.write(Collections.singletonList(buildFlow("openflow:1", 1, 2)));
+        writer.write(Collections.singletonList(buildFlow("openflow:1", 2, 1)));
+        writer.delete(Collections.singletonList(buildFlow("openflow:1", 2, 1)));
+        Assert.assertEquals(2, writer.getQueueDepth());
+        Assert.assertEquals(2, writer.getMergedFlowCount());
+
+        releaseFirstCommit.countDown();
+        Assert.assertEquals(0, writer.shutdown(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+        // only the last version of each flow is committed
+        Assert.assertEquals(2, written.size());
+        Assert.assertEquals(buildFlow("openflow:1", 1, 2), written.get(1));
+        Assert.assertEquals(1, deleted.size());
+        Assert.assertEquals(3, writer.getCommittedFlowCount());
+    }
+
+    @Test
+    public void testTaskOrderedWithFlows() throws Exception {
+        CountDownLatch firstCommitStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirstCommit = new CountDownLatch(1);
+        List<Object> events = Collections.synchronizedList(new ArrayList<>());
+        PartitionedFlowWriter writer = new PartitionedFlowWriter((flowsToWrite, flowsToDelete) -> {
+            firstCommitStarted.countDown();
+            releaseFirstCommit.await();
+            events.addAll(flowsToWrite);
+        }, 1, 100, 1);
+
+        writer.write(Collections.singletonList(buildFlow("openflow:1", 0, 1)));
+        Assert.assertTrue(firstCommitStarted.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+        writer.write(Collections.singletonList(buildFlow("openflow:1", 1, 1)));
+        writer.execute("openflow:1", () -> events.add("task"));
+        writer.write(Collections.singletonList(buildFlow("openflow:1", 1, 2)));
+
+        // the flow queued after the task is not merged with the one before
+        Assert.assertEquals(2, writer.getQueueDepth());
+        Assert.assertEquals(0, writer.getMergedFlowCount());
+
+        releaseFirstCommit.countDown();
+        Assert.assertEquals(0, writer.shutdown(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+        Assert.assertEquals(Arrays.asList(buildFlow("openflow:1", 0, 1), buildFlow("openflow:1", 1, 1), "task",
+                buildFlow("openflow:1", 1, 2)), events);
+    }
+
+    @Test
+    public void testTaskWaitsForRetriedFlows() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        List<Object> events = Collections.synchronizedList(new ArrayList<>());
+        PartitionedFlowWriter writer = new PartitionedFlowWriter((flowsToWrite, flowsToDelete) -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new ExecutionException(new IllegalStateException("commit failed"));
+            }
+            events.addAll(flowsToDelete);
+        }, 1, 100, 1);
+
+        writer.delete(Collections.singletonList(buildFlow("openflow:1", 1, 1)));
+        writer.execute("openflow:1", () -> events.add("task"));
+        Assert.assertEquals(0, writer.shutdown(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+        Assert.assertEquals(Arrays.asList(buildFlow("openflow:1", 1, 1), "task"), events);
+    }
+
+    @Test
+    public void testRetryFailedCommit() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        List<FlowDetails> written = Collections.synchronizedList(new ArrayList<>());
+        PartitionedFlowWriter writer = new PartitionedFlowWriter((flowsToWrite, flowsToDelete) -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new ExecutionException(new IllegalStateException("commit failed"));
+            }
+            written.addAll(flowsToWrite);
+        }, 1, 100, 1);
+
+        writer.write(Collections.singletonList(buildFlow("openflow:1", 1, 1)));
+        Assert.assertEquals(0, writer.shutdown(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+        Assert.assertEquals(3, attempts.get());
+        Assert.assertEquals(1, written.size());
+        Assert.assertEquals(2, writer.getRetriedFlowCount());
+        Assert.assertEquals(0, writer.getDroppedFlowCount());
+        Assert.assertEquals(1, writer.getCommitCount());
+    }
+
+    @Test
+    public void testDropFlowAfterMaxAttempts() throws Exception {
+        List<FlowDetails> dropped = Collections.synchronizedList(new ArrayList<>());
+        PartitionedFlowWriter writer = new PartitionedFlowWriter((flowsToWrite, flowsToDelete) -> {
+            throw new ExecutionException(new IllegalStateException("commit failed"));
+        }, (flow, delete) -> dropped.add(flow), 1, 100, 1);
+
+        writer.write(Collections.singletonList(buildFlow("openflow:1", 1, 1)));
+        Assert.assertEquals(0, writer.shutdown(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+        Assert.assertEquals(1, writer.getDroppedFlowCount());
+        Assert.assertEquals(0, writer.getCommitCount());
+        Assert.assertEquals(Collections.singletonList(buildFlow("openflow:1", 1, 1)), dropped);
+    }
+
+    @Test
+    public void testIsolateFailedBatch() throws Exception {
+        FlowDetails failingFlow = buildFlow("openflow:1", 2, 1);
+        AtomicInteger failingCommits = new AtomicInteger();
+        List<FlowDetails> written = Collections.synchronizedList(new ArrayList<>());
+        List<FlowDetails> dropped = Collections.synchronizedList(new ArrayList<>());
+        PartitionedFlowWriter writer = new PartitionedFlowWriter((flowsToWrite, flowsToDelete) -> {
+            if (flowsToWrite.contains(failingFlow)) {
+                failingCommits.incrementAndGet();
+                throw new ExecutionException(new IllegalStateException("commit failed"));
+            }
+            written.addAll(flowsToWrite);
+        }, (flow, delete) -> dropped.add(flow), 1, 100, 1);
+
+        writer.write(Arrays.asList(buildFlow("openflow:1", 1, 1), failingFlow, buildFlow("openflow:1", 3, 1)));
+        Assert.assertEquals(0, writer.shutdown(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+        // the other flows of the batch are committed in order, only the
+        // failing flow counts attempts: the batch commit plus MAX_ATTEMPTS
+        Assert.assertEquals(Arrays.asList(buildFlow("openflow:1", 1, 1), buildFlow("openflow:1", 3, 1)), written);
+        Assert.assertEquals(Collections.singletonList(failingFlow), dropped);
+        Assert.assertEquals(6, failingCommits.get());
+        Assert.assertEquals(2, writer.getCommitCount());
+    }
+
+    @Test
+    public void testRestartInterruptedWorker() throws Exception {
+        CountDownLatch firstCommitStarted = new CountDownLatch(1);
+        AtomicReference<Thread> worker = new AtomicReference<>();
+        List<FlowDetails> written = Collections.synchronizedList(new ArrayList<>());
+        PartitionedFlowWriter writer = new PartitionedFlowWriter((flowsToWrite, flowsToDelete) -> {
+            if (worker.compareAndSet(null, Thread.currentThread())) {
+                firstCommitStarted.countDown();
+                // wait until interrupted
+                new CountDownLatch(1).await();
+            }
+            written.addAll(flowsToWrite);
+        }, 1, 1, 1);
+
+        writer.write(Collections.singletonList(buildFlow("openflow:1", 0, 1)));
+        Assert.assertTrue(firstCommitStarted.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        worker.get().interrupt();
+
+        // the queue is full with the interrupted flow, the caller restarts
+        // the worker instead of waiting forever
+        CountDownLatch writeDone = new CountDownLatch(1);
+        Thread caller = new Thread(() -> {
+            writer.write(Collections.singletonList(buildFlow("openflow:1", 1, 1)));
+            writeDone.countDown();
+        });
+        caller.start();
+        Assert.assertTrue(writeDone.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        Assert.assertEquals(0, writer.shutdown(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+        Assert.assertEquals(2, written.size());
+        Assert.assertEquals(buildFlow("openflow:1", 0, 1), written.get(0));
+        Assert.assertEquals(0, writer.getDroppedFlowCount());
+    }
+
+    @Test
+    public void testBackPressure() throws Exception {
+        CountDownLatch firstCommitStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirstCommit = new CountDownLatch(1);
+        PartitionedFlowWriter writer = new PartitionedFlowWriter((flowsToWrite, flowsToDelete) -> {
+            firstCommitStarted.countDown();
+            releaseFirstCommit.await();
+        }, 1, 2, 1);
+
+        writer.write(Collections.singletonList(buildFlow("openflow:1", 0, 1)));
+        Assert.assertTrue(firstCommitStarted.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+        List<FlowDetails> flows = new ArrayList<>();
+        for (int i = 1; i <= 5; i++) {
+            flows.add(buildFlow("openflow:1", i, 1));
+        }
+        CountDownLatch writeDone = new CountDownLatch(1);
+        Thread caller = new Thread(() -> {
+            writer.write(flows);
+            writeDone.countDown();
+        });
+        caller.start();
+
+        // the caller waits while the queue is full
+        Assert.assertFalse(writeDone.await(200, TimeUnit.MILLISECONDS));
+        Assert.assertEquals(2, writer.getQueueDepth());
+
+        releaseFirstCommit.countDown();
+        Assert.assertTrue(writeDone.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        Assert.assertEquals(0, writer.shutdown(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        Assert.assertEquals(6, writer.getCommittedFlowCount());
+    }
+
+    @Test
+    public void testPartitionedByNode() throws Exception {
+        List<String> committedNodes = Collections.synchronizedList(new ArrayList<>());
+        PartitionedFlowWriter writer = new PartitionedFlowWriter((flowsToWrite, flowsToDelete) -> {
+            // a batch only holds flows of nodes of the same partition
+            long partitions = flowsToWrite.stream().map(flow -> Math.floorMod(flow.getSffNodeName().hashCode(), 4))
+                    .distinct().count();
+            Assert.assertEquals(1, partitions);
+            flowsToWrite.forEach(flow -> committedNodes.add(flow.getSffNodeName()));
+        }, 4, 100, 1);
+
+        List<FlowDetails> flows = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            flows.add(buildFlow("openflow:" + i % 8, i, 1));
+        }
+        writer.write(flows);
+        Assert.assertEquals(0, writer.shutdown(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+        Assert.assertEquals(40, committedNodes.size());
+        Assert.assertEquals(40, writer.getCommittedFlowCount());
+        Assert.assertTrue(writer.getCommitCount() >= 1);
+        Assert.assertTrue(writer.getAverageCommitLatencyMillis() >= 0);
+    }
+
+    private static FlowDetails buildFlow(String sffNodeName, int index, int priority) {
+        MatchBuilder match = new MatchBuilder();
+        SfcOpenflowUtils.addMatchNshNsp(match, index);
+        InstructionsBuilder isb = SfcOpenflowUtils.appendGotoTableInstruction(new InstructionsBuilder(),
+                (short) (TABLE_ID + 1));
+        FlowBuilder flow = SfcOpenflowUtils.createFlowBuilder(TABLE_ID, priority, "nextHop_" + index, match, isb);
+        return new FlowDetails(sffNodeName, flow.key(), new TableKey(TABLE_ID), flow.build(), 1L);
+    }
+}
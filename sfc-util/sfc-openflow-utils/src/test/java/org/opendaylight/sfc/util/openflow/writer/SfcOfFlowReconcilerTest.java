@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2018 Ericsson Inc. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.sfc.util.openflow.writer;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+import org.opendaylight.sfc.util.openflow.OpenflowConstants;
+import org.opendaylight.sfc.util.openflow.SfcOpenflowUtils;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.tables.TableKey;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.tables.table.Flow;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.tables.table.FlowBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.tables.table.FlowKey;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.types.rev131026.FlowCookie;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.types.rev131026.flow.InstructionsBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.types.rev131026.flow.MatchBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.FlowId;
+
+/**
+ * Compares 100k expected flows with the installed ones. The flows are not read
+ * from nor written to the data store.
+ */
+public class SfcOfFlowReconcilerTest {
+
+    private static final int FLOW_COUNT = 100000;
+    private static final int NODE_COUNT = 100;
+    private static final int RSP_COUNT = 1000;
+    private static final short TABLE_ID = 2;
+    private static final int PRIORITY = 350;
+    // one installed flow in MISMATCH_RATIO is missing, changed or stale
+    private static final int MISMATCH_RATIO = 100;
+
+    @Test
+    public void testReconcile() {
+        List<FlowDetails> expectedFlows = new ArrayList<>(FLOW_COUNT);
+        List<FlowDetails> installedFlows = new ArrayList<>(FLOW_COUNT);
+        int missingFlows = 0;
+        int changedFlows = 0;
+        int staleFlows = 0;
+        for (int i = 0; i < FLOW_COUNT; i++) {
+            String sffNodeName = "openflow:" + i % NODE_COUNT;
+            long rspId = i % RSP_COUNT + 1;
+            FlowDetails expectedFlow = buildFlow(sffNodeName, OpenflowConstants.OF_NAME_PATH_MAPPER, i, PRIORITY,
+                    rspId);
+            expectedFlows.add(expectedFlow);
+
+            switch (i % MISMATCH_RATIO) {
+                case 0:
+                    missingFlows++;
+                    break;
+                case 1:
+                    changedFlows++;
+                    installedFlows.add(buildFlow(sffNodeName, OpenflowConstants.OF_NAME_PATH_MAPPER, i,
+                            PRIORITY + 1, null));
+                    break;
+                case 2:
+                    staleFlows++;
+                    installedFlows.add(buildFlow(sffNodeName, OpenflowConstants.OF_NAME_NEXT_HOP, i, PRIORITY,
+                            null));
+                    installedFlows.add(buildFlow(sffNodeName, OpenflowConstants.OF_NAME_PATH_MAPPER, i, PRIORITY,
+                            null));
+                    break;
+                case 3:
+                    // flows of other applications are never deleted
+                    installedFlows.add(buildFlow(sffNodeName, "netvirt", i, PRIORITY, null));
+                    installedFlows.add(buildFlow(sffNodeName, OpenflowConstants.OF_NAME_PATH_MAPPER, i, PRIORITY,
+                            null));
+                    break;
+                default:
+                    installedFlows.add(buildFlow(sffNodeName, OpenflowConstants.OF_NAME_PATH_MAPPER, i, PRIORITY,
+                            null));
+                    break;
+            }
+        }
+
+        SfcOfFlowReconciler reconciler = new SfcOfFlowReconciler(new SfcOfFlowWriterImpl());
+        SfcOfFlowReconciler.ReconciliationResult result = reconciler.compare(expectedFlows, installedFlows);
+
+        Assert.assertEquals(missingFlows + changedFlows, result.getFlowsToWrite().size());
+        Assert.assertEquals(FLOW_COUNT - missingFlows - changedFlows, result.getUnchangedFlows().size());
+        Assert.assertEquals(staleFlows, result.getFlowsToDelete().size());
+        result.getFlowsToDelete().forEach(flow -> Assert.assertTrue(
+                flow.getFlowKey().getId().getValue().startsWith(OpenflowConstants.OF_NAME_NEXT_HOP)));
+        // the flows to write keep the RSP owning them
+        result.getFlowsToWrite().forEach(flow -> Assert.assertTrue(flow.getRspId() > 0));
+    }
+
+    @Test
+    public void testIsSameFlow() {
+        Flow flow = buildFlow("openflow:1", OpenflowConstants.OF_NAME_PATH_MAPPER, 1, PRIORITY, 1L).getFlow();
+
+        // the attributes not changing the packet handling are ignored
+        Assert.assertTrue(SfcOfFlowReconciler.isSameFlow(new FlowBuilder(flow).setFlowName("installed")
+                .setHardTimeout(10).setIdleTimeout(10).setBarrier(true).build(), flow));
+
+        Assert.assertFalse(SfcOfFlowReconciler.isSameFlow(new FlowBuilder(flow).setPriority(PRIORITY + 1).build(),
+                flow));
+        Assert.assertFalse(SfcOfFlowReconciler.isSameFlow(new FlowBuilder(flow)
+                .setCookie(new FlowCookie(BigInteger.TEN)).build(), flow));
+        Assert.assertFalse(SfcOfFlowReconciler.isSameFlow(
+                buildFlow("openflow:1", OpenflowConstants.OF_NAME_PATH_MAPPER, 2, PRIORITY, 1L).getFlow(), flow));
+    }
+
+    @Test
+    public void testIsSfcFlow() {
+        Assert.assertTrue(SfcOfFlowReconciler.isSfcFlow(new FlowKey(new FlowId("nextHop_1_2"))));
+        Assert.assertTrue(SfcOfFlowReconciler.isSfcFlow(new FlowKey(new FlowId("matchAnyDrop_4"))));
+        Assert.assertTrue(
+                SfcOfFlowReconciler.isSfcFlow(new FlowKey(new FlowId("transportEgressLastHop_Pipeline_1_2"))));
+        Assert.assertFalse(SfcOfFlowReconciler.isSfcFlow(new FlowKey(new FlowId("nextHopper_1"))));
+        Assert.assertFalse(SfcOfFlowReconciler.isSfcFlow(new FlowKey(new FlowId("netvirt_1"))));
+    }
+
+    private static FlowDetails buildFlow(String sffNodeName, String name, int index, int priority, Long rspId) {
+        MatchBuilder match = new MatchBuilder();
+        SfcOpenflowUtils.addMatchNshNsp(match, index);
+        InstructionsBuilder isb = SfcOpenflowUtils.appendGotoTableInstruction(new InstructionsBuilder(),
+                (short) (TABLE_ID + 1));
+        FlowBuilder flow = SfcOpenflowUtils.createFlowBuilder(TABLE_ID, priority,
+                name + OpenflowConstants.OF_NAME_DELIMITER + index, match, isb);
+        return new FlowDetails(sffNodeName, flow.key(), new TableKey(TABLE_ID), flow.build(), rspId);
+    }
+}